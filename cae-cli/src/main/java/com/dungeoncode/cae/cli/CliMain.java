@@ -0,0 +1,489 @@
+package com.dungeoncode.cae.cli;
+
+import com.dungeoncode.cae.automa.Configurations;
+import com.dungeoncode.cae.core.AbstractConfiguration;
+import com.dungeoncode.cae.core.Automaton;
+import com.dungeoncode.cae.core.Configuration;
+import com.dungeoncode.cae.core.Descriptor;
+import com.dungeoncode.cae.core.Grid;
+import com.dungeoncode.cae.core.Repository;
+import com.dungeoncode.cae.core.impl.BooleanCell;
+import com.dungeoncode.cae.core.impl.BooleanState;
+import com.dungeoncode.cae.core.impl.BooleanStatistics;
+import com.dungeoncode.cae.core.impl.BooleanStatisticsCollector;
+import com.dungeoncode.cae.core.impl.packed.PackedBooleanGrid;
+import com.dungeoncode.cae.core.io.SharedFrameRing;
+import com.dungeoncode.cae.core.io.Snapshot;
+import com.dungeoncode.cae.core.io.StatisticsSink;
+import com.dungeoncode.cae.core.net.LiveServer;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.InetSocketAddress;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Locale;
+
+/**
+ * Headless entry point: runs a configuration for a number of generations without rendering, then writes a final
+ * snapshot of the grid and prints timing statistics. Intended for batch runs, benchmarks, and servers without a
+ * display.
+ * <pre>
+ * java -jar cae-cli.jar --conf 2 --generations 1000 --width 1024 --height 1024 --seed 42 --out life.snap
+ * java -jar cae-cli.jar --conf 24 --generations 100000 --delay 20 --serve 8080
+ * java -jar cae-cli.jar --list
+ * </pre>
+ * A run is fully determined by the configuration, the grid size, and the seed: the grid initializer is seeded from
+ * the run seed, and the rules are reseeded from it before every generation.
+ * <p>
+ * With {@code --serve}, the run is streamed live to browsers at {@code http://<host>:<port>/}; see {@link LiveServer}.
+ */
+public final class CliMain {
+
+    /**
+     * The exit code for invalid command-line arguments.
+     */
+    private static final int EXIT_USAGE = 2;
+
+    /**
+     * The exit code for a failed run.
+     */
+    private static final int EXIT_FAILURE = 1;
+
+    private CliMain() {
+    }
+
+    /**
+     * Parses the command line, runs the requested configuration, and exits with a non-zero status on failure.
+     *
+     * @param args the command-line arguments, see {@link #usage(PrintStream)}
+     */
+    public static void main(String[] args) {
+        Options options;
+        try {
+            options = Options.parse(args);
+        } catch (IllegalArgumentException e) {
+            System.err.println("error: " + e.getMessage());
+            usage(System.err);
+            System.exit(EXIT_USAGE);
+            return;
+        }
+        if (options.help) {
+            usage(System.out);
+            return;
+        }
+        Repository<BooleanCell, BooleanState> repository = Configurations.createRepository();
+        if (options.list) {
+            list(repository, System.out);
+            return;
+        }
+        try {
+            run(repository, options, System.out);
+        } catch (IllegalArgumentException e) {
+            System.err.println("error: " + e.getMessage());
+            System.exit(EXIT_USAGE);
+        } catch (IOException e) {
+            System.err.println("error: failed to write output: " + e.getMessage());
+            System.exit(EXIT_FAILURE);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            System.exit(EXIT_FAILURE);
+        }
+    }
+
+    /**
+     * Runs a configuration as described by the options, writes the final snapshot, and prints the statistics.
+     *
+     * @param repository the repository of configurations
+     * @param options    the parsed options
+     * @param out        the stream receiving the statistics
+     * @throws IOException          if the snapshot or the statistics cannot be written, or the live server cannot
+     *                              listen
+     * @throws InterruptedException if interrupted between generations
+     */
+    static void run(Repository<BooleanCell, BooleanState> repository, Options options, PrintStream out)
+            throws IOException, InterruptedException {
+        Configuration<BooleanCell, BooleanState> configuration = Configurations.find(repository, options.conf);
+        if (options.offHeap) {
+            if (!(configuration instanceof AbstractConfiguration<BooleanCell, BooleanState> abstractConfiguration)) {
+                throw new IllegalArgumentException("Configuration " + configuration.getId()
+                        + " does not support off-heap grids");
+            }
+            abstractConfiguration.setGridFactory(PackedBooleanGrid::new);
+        }
+
+        Automaton<BooleanCell, BooleanState> automaton = new Automaton<>();
+        automaton.setSeed(options.seed);
+        if (configuration.getGridInitializer() != null) {
+            configuration.getGridInitializer().reseed(Automaton.deriveInitializerSeed(options.seed));
+        }
+
+        long initStart = System.nanoTime();
+        configuration.configure(automaton, options.width, options.height, 0);
+        long initNanos = System.nanoTime() - initStart;
+
+        BooleanStatisticsCollector statistics = new BooleanStatisticsCollector();
+        automaton.setStatisticsCollector(statistics);
+        StatisticsSink sink = null;
+        if (options.stats != null) {
+            sink = new StatisticsSink(options.stats, String.format("cae-%d-s%d", configuration.getId(), options.seed));
+            statistics.addListener(sink);
+        }
+
+        SharedFrameRing ring = null;
+        if (options.frameRing != null) {
+            ring = new SharedFrameRing(options.frameRing, options.width, options.height);
+            ring.accept(automaton);
+            automaton.addStepListener(ring);
+        }
+
+        LiveServer server = null;
+        if (options.serve != null) {
+            server = new LiveServer(options.serve);
+            server.attach(automaton);
+            InetSocketAddress address = server.getAddress();
+            out.printf(Locale.ROOT, "live view       http://%s:%d/%n", address.getHostString(), address.getPort());
+        }
+
+        long[] stepNanos = new long[Math.toIntExact(options.generations)];
+        long runStart = System.nanoTime();
+        long delayNanos = 0;
+        try {
+            for (int i = 0; i < stepNanos.length; i++) {
+                long stepStart = System.nanoTime();
+                automaton.step();
+                stepNanos[i] = System.nanoTime() - stepStart;
+                if (options.delayMillis > 0) {
+                    long delayStart = System.nanoTime();
+                    Thread.sleep(options.delayMillis);
+                    delayNanos += System.nanoTime() - delayStart;
+                }
+            }
+        } finally {
+            if (server != null) {
+                server.close();
+            }
+            if (ring != null) {
+                automaton.removeStepListener(ring);
+                ring.close();
+            }
+        }
+        long runNanos = System.nanoTime() - runStart - delayNanos;
+        if (sink != null) {
+            statistics.removeListener(sink);
+            sink.close();
+        }
+
+        long saveNanos = 0;
+        Path snapshot = null;
+        if (!options.noSnapshot) {
+            snapshot = options.out != null ? options.out
+                    : Path.of(String.format("cae-%d-%dx%d-s%d-g%d.snap", configuration.getId(), options.width,
+                    options.height, options.seed, automaton.getGeneration()));
+            long saveStart = System.nanoTime();
+            Snapshot.save(snapshot, configuration.getId(), automaton);
+            saveNanos = System.nanoTime() - saveStart;
+        }
+
+        Descriptor descriptor = repository.getDescriptorByConfId(configuration.getId());
+        long cells = (long) options.width * options.height;
+        Arrays.sort(stepNanos);
+        out.printf(Locale.ROOT, "configuration   %d (%s)%n", configuration.getId(),
+                descriptor != null ? descriptor.getName() : "unnamed");
+        out.printf(Locale.ROOT, "grid            %d x %d (%s)%n", options.width, options.height,
+                options.offHeap ? "off-heap" : "heap");
+        out.printf(Locale.ROOT, "seed            %d%n", options.seed);
+        out.printf(Locale.ROOT, "generations     %d%n", automaton.getGeneration());
+        BooleanStatistics latest = statistics.getLatest();
+        long population = latest != null ? latest.population() : population(automaton.getGrid());
+        out.printf(Locale.ROOT, "population      %d (density %.4f)%n", population, (double) population / cells);
+        if (latest != null && latest.survivingSpecies() > 0) {
+            out.printf(Locale.ROOT, "species         %d%n", latest.survivingSpecies());
+        }
+        out.printf(Locale.ROOT, "init            %.3f ms%n", initNanos / 1e6);
+        out.printf(Locale.ROOT, "run             %.3f ms%n", runNanos / 1e6);
+        if (stepNanos.length > 0) {
+            out.printf(Locale.ROOT, "step mean       %.3f ms%n", runNanos / 1e6 / stepNanos.length);
+            out.printf(Locale.ROOT, "step min/p50/p99/max %.3f / %.3f / %.3f / %.3f ms%n",
+                    stepNanos[0] / 1e6, percentile(stepNanos, 0.50) / 1e6, percentile(stepNanos, 0.99) / 1e6,
+                    stepNanos[stepNanos.length - 1] / 1e6);
+            double seconds = runNanos / 1e9;
+            out.printf(Locale.ROOT, "throughput      %.1f generations/s, %.3e cell updates/s%n",
+                    stepNanos.length / seconds, cells * stepNanos.length / seconds);
+        }
+        if (snapshot != null) {
+            out.printf(Locale.ROOT, "snapshot        %s (%.3f ms)%n", snapshot, saveNanos / 1e6);
+        }
+        if (sink != null) {
+            out.printf(Locale.ROOT, "statistics      %s (%d records in %d files, %d dropped)%n", options.stats,
+                    sink.getRecordCount(), sink.getFileCount(), sink.getDroppedCount());
+        }
+        if (ring != null) {
+            out.printf(Locale.ROOT, "frame ring      %s (%d frames in %d slots)%n", options.frameRing,
+                    ring.getFrameCount(), ring.getSlotCount());
+        }
+        if (server != null) {
+            out.printf(Locale.ROOT, "live view       %d frames, %.1f KiB, %d generations merged%n",
+                    server.getFrameCount(), server.getByteCount() / 1024.0, server.getSkippedCount());
+        }
+    }
+
+    /**
+     * Prints the id and name of every bundled configuration.
+     *
+     * @param repository the repository of configurations
+     * @param out        the stream to print to
+     */
+    static void list(Repository<BooleanCell, BooleanState> repository, PrintStream out) {
+        for (Configuration<BooleanCell, BooleanState> configuration : repository.getConfigurations()) {
+            Descriptor descriptor = repository.getDescriptorByConfId(configuration.getId());
+            String name = descriptor != null ? descriptor.getName() : "unnamed";
+            out.printf(Locale.ROOT, "%4d  %-40s %s%n", configuration.getId(), name, Configurations.slug(name));
+        }
+    }
+
+    /**
+     * Counts the active cells of a grid, for runs of zero generations that publish no statistics.
+     *
+     * @param grid the grid
+     * @return the number of cells whose value is true
+     */
+    private static long population(Grid<BooleanCell, BooleanState> grid) {
+        long population = 0;
+        for (int y = 0; y < grid.getHeight(); y++) {
+            for (int x = 0; x < grid.getWidth(); x++) {
+                if (Boolean.TRUE.equals(grid.getCell(x, y).getState().getValue())) {
+                    population++;
+                }
+            }
+        }
+        return population;
+    }
+
+    /**
+     * Returns a percentile of sorted samples using the nearest-rank method.
+     *
+     * @param sorted   the samples in ascending order, not empty
+     * @param fraction the percentile as a fraction between 0 and 1
+     * @return the sample at that rank
+     */
+    private static long percentile(long[] sorted, double fraction) {
+        int rank = (int) Math.ceil(fraction * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(sorted.length - 1, rank))];
+    }
+
+    /**
+     * Prints the command-line syntax.
+     *
+     * @param out the stream to print to
+     */
+    static void usage(PrintStream out) {
+        out.println("usage: cae-cli --conf <id|name> [options]");
+        out.println("       cae-cli --list");
+        out.println();
+        out.println("  -c, --conf <id|name>      configuration to run, see --list");
+        out.println("  -g, --generations <n>     number of generations to run (default 100)");
+        out.println("  -W, --width <n>           grid width in cells (default 256)");
+        out.println("  -H, --height <n>          grid height in cells (default 256)");
+        out.println("  -s, --seed <n>            run seed (default 0)");
+        out.println("  -o, --out <file>          final snapshot file (default cae-<id>-<w>x<h>-s<seed>-g<n>.snap)");
+        out.println("      --no-snapshot         do not write a final snapshot");
+        out.println("      --off-heap            store the grid off-heap in bit-packed planes");
+        out.println("      --stats <dir>         stream per-generation statistics to binary files in <dir>");
+        out.println("      --frame-ring <file>   publish every generation to a memory-mapped frame ring");
+        out.println("      --serve [host:]port   stream the run live to browsers (default host 127.0.0.1)");
+        out.println("      --delay <ms>          pause between generations, not counted in the timings");
+        out.println("  -l, --list                list the available configurations");
+        out.println("  -h, --help                print this help");
+    }
+
+    /**
+     * The parsed command-line options.
+     */
+    static final class Options {
+
+        /**
+         * The configuration id or name.
+         */
+        String conf;
+
+        /**
+         * The number of generations to run.
+         */
+        long generations = 100;
+
+        /**
+         * The grid width.
+         */
+        int width = 256;
+
+        /**
+         * The grid height.
+         */
+        int height = 256;
+
+        /**
+         * The run seed.
+         */
+        long seed;
+
+        /**
+         * The snapshot file, or null for the default name.
+         */
+        Path out;
+
+        /**
+         * Whether to skip the final snapshot.
+         */
+        boolean noSnapshot;
+
+        /**
+         * Whether to use an off-heap grid.
+         */
+        boolean offHeap;
+
+        /**
+         * The directory receiving per-generation statistics, or null to write none.
+         */
+        Path stats;
+
+        /**
+         * The memory-mapped frame ring file, or null to publish none.
+         */
+        Path frameRing;
+
+        /**
+         * The address of the live server, or null to serve none.
+         */
+        InetSocketAddress serve;
+
+        /**
+         * The pause between generations in milliseconds.
+         */
+        long delayMillis;
+
+        /**
+         * Whether to list the configurations instead of running one.
+         */
+        boolean list;
+
+        /**
+         * Whether to print the help instead of running.
+         */
+        boolean help;
+
+        /**
+         * Parses command-line arguments.
+         *
+         * @param args the arguments
+         * @return the options
+         * @throws IllegalArgumentException if an argument is unknown, missing its value, or out of range
+         */
+        static Options parse(String[] args) {
+            Options options = new Options();
+            for (int i = 0; i < args.length; i++) {
+                String arg = args[i];
+                switch (arg) {
+                    case "-c", "--conf" -> options.conf = value(args, ++i, arg);
+                    case "-g", "--generations" -> options.generations = parseLong(value(args, ++i, arg), arg);
+                    case "-W", "--width" -> options.width = parseInt(value(args, ++i, arg), arg);
+                    case "-H", "--height" -> options.height = parseInt(value(args, ++i, arg), arg);
+                    case "-s", "--seed" -> options.seed = parseLong(value(args, ++i, arg), arg);
+                    case "-o", "--out" -> options.out = Path.of(value(args, ++i, arg));
+                    case "--no-snapshot" -> options.noSnapshot = true;
+                    case "--off-heap" -> options.offHeap = true;
+                    case "--stats" -> options.stats = Path.of(value(args, ++i, arg));
+                    case "--frame-ring" -> options.frameRing = Path.of(value(args, ++i, arg));
+                    case "--serve" -> options.serve = parseAddress(value(args, ++i, arg), arg);
+                    case "--delay" -> options.delayMillis = parseLong(value(args, ++i, arg), arg);
+                    case "-l", "--list" -> options.list = true;
+                    case "-h", "--help" -> options.help = true;
+                    default -> throw new IllegalArgumentException("Unknown option: " + arg);
+                }
+            }
+            if (options.help || options.list) {
+                return options;
+            }
+            if (options.conf == null) {
+                throw new IllegalArgumentException("Missing --conf");
+            }
+            if (options.width <= 0 || options.height <= 0) {
+                throw new IllegalArgumentException("Width and height must be positive: width=" + options.width
+                        + ", height=" + options.height);
+            }
+            if (options.generations < 0 || options.generations > Integer.MAX_VALUE - 8) {
+                throw new IllegalArgumentException("Generations out of range: " + options.generations);
+            }
+            if (options.delayMillis < 0) {
+                throw new IllegalArgumentException("Delay cannot be negative: " + options.delayMillis);
+            }
+            return options;
+        }
+
+        /**
+         * Returns the value following an option.
+         *
+         * @param args   the arguments
+         * @param i      the index of the value
+         * @param option the option name, for the error message
+         * @return the value
+         * @throws IllegalArgumentException if the value is missing
+         */
+        private static String value(String[] args, int i, String option) {
+            if (i >= args.length) {
+                throw new IllegalArgumentException("Missing value for " + option);
+            }
+            return args[i];
+        }
+
+        /**
+         * Parses a numeric option value.
+         *
+         * @param value  the value
+         * @param option the option name, for the error message
+         * @return the number
+         * @throws IllegalArgumentException if the value is not a number
+         */
+        private static long parseLong(String value, String option) {
+            try {
+                return Long.parseLong(value);
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Invalid number for " + option + ": " + value);
+            }
+        }
+
+        /**
+         * Parses a numeric option value that must fit an {@code int}.
+         *
+         * @param value  the value
+         * @param option the option name, for the error message
+         * @return the number
+         * @throws IllegalArgumentException if the value is not a number or does not fit an {@code int}
+         */
+        private static int parseInt(String value, String option) {
+            long number = parseLong(value, option);
+            if (number < Integer.MIN_VALUE || number > Integer.MAX_VALUE) {
+                throw new IllegalArgumentException("Number out of range for " + option + ": " + value);
+            }
+            return (int) number;
+        }
+
+        /**
+         * Parses a listening address of the form {@code port} or {@code host:port}.
+         *
+         * @param value  the value
+         * @param option the option name, for the error message
+         * @return the address, on the loopback interface if no host is given
+         * @throws IllegalArgumentException if the port is not a number or out of range
+         */
+        private static InetSocketAddress parseAddress(String value, String option) {
+            int colon = value.lastIndexOf(':');
+            String host = colon >= 0 ? value.substring(0, colon) : "127.0.0.1";
+            long port = parseLong(value.substring(colon + 1), option);
+            if (port < 0 || port > 65535) {
+                throw new IllegalArgumentException("Port out of range for " + option + ": " + port);
+            }
+            return new InetSocketAddress(host, (int) port);
+        }
+    }
+}
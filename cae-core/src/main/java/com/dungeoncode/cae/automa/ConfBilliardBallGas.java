@@ -0,0 +1,43 @@
+package com.dungeoncode.cae.automa;
+
+import com.dungeoncode.cae.automa.rules.RuleMargolus;
+import com.dungeoncode.cae.core.AbstractConfiguration;
+import com.dungeoncode.cae.core.impl.BooleanCell;
+import com.dungeoncode.cae.core.impl.BooleanState;
+import com.dungeoncode.cae.core.impl.init.InitRandomBooleanProbability;
+
+import java.util.List;
+
+/**
+ * Runs the billiard-ball model of computation (BBM) on the Margolus neighborhood as a gas: a lone ball moves to the
+ * opposite corner of its 2x2 block, two balls on a diagonal collide and leave on the other diagonal, and every other
+ * block is unchanged. The rule is reversible and conserves the number of balls. Initialized with a random
+ * distribution of 10% active cells, balls fly diagonally and scatter off each other and off the clusters that act as
+ * mirrors, as described in Chapter 12 of <i>Cellular Automata Machines: A New Environment for Modeling</i> (MIT Press).
+ *
+ * @see RuleMargolus#billiardBall()
+ */
+public class ConfBilliardBallGas extends AbstractConfiguration<BooleanCell, BooleanState> {
+
+    /**
+     * The default fraction of initially active cells.
+     */
+    public static final double DEFAULT_ACTIVE_PROBABILITY = 0.1;
+
+    /**
+     * Constructs a new billiard-ball gas configuration with 10% active cells.
+     */
+    public ConfBilliardBallGas() {
+        this(DEFAULT_ACTIVE_PROBABILITY);
+    }
+
+    /**
+     * Constructs a new billiard-ball gas configuration with the specified fraction of initially active cells.
+     *
+     * @param activeProbability the probability of a cell being initially active (0.0 to 1.0)
+     * @throws IllegalArgumentException if the probability is not in [0, 1]
+     */
+    public ConfBilliardBallGas(double activeProbability) {
+        super(29, new InitRandomBooleanProbability(activeProbability), List.of(RuleMargolus.billiardBall()));
+    }
+}
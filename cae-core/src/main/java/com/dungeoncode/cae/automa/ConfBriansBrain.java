@@ -0,0 +1,34 @@
+package com.dungeoncode.cae.automa;
+
+import com.dungeoncode.cae.core.AbstractConfiguration;
+import com.dungeoncode.cae.core.impl.init.InitRandomMultiState;
+import com.dungeoncode.cae.core.impl.multi.MultiState;
+import com.dungeoncode.cae.core.impl.multi.MultiStateCell;
+import com.dungeoncode.cae.core.impl.multi.MultiStateGrid;
+import com.dungeoncode.cae.core.impl.multi.MultiStateRule;
+
+import java.util.List;
+
+/**
+ * Runs Brian's Brain, the three-state Generations rule {@code B2/S/C3}: a ready cell fires when exactly two of its
+ * Moore neighbors are firing, a firing cell always becomes refractory, and a refractory cell becomes ready again.
+ * Initialized with a random soup of 10% firing cells, the grid fills with gliders and spaceships that collide and
+ * spawn new ones. Runs on a {@link MultiStateGrid}, so it is only offered by front ends that render any cell type.
+ *
+ * @see MultiStateRule#briansBrain(int)
+ */
+public class ConfBriansBrain extends AbstractConfiguration<MultiStateCell, MultiState> {
+
+    /**
+     * The number of states: ready, firing, and refractory.
+     */
+    public static final int STATES = 3;
+
+    /**
+     * Constructs a new Brian's Brain configuration.
+     */
+    public ConfBriansBrain() {
+        super(30, new InitRandomMultiState(new double[]{0.9, 0.1, 0}), List.of(MultiStateRule.briansBrain(33)));
+        setGridFactory((width, height, initializer) -> new MultiStateGrid(width, height, STATES, initializer));
+    }
+}
@@ -27,7 +27,18 @@ public class ConfCandleRain extends AbstractConfiguration<BooleanCell, BooleanSt
      * and cites the book by Toffoli and Margolus.
      */
     public ConfCandleRain() {
-        super(18, new InitRandomBoolean(), List.of(new RuleCandleRain()));
+        this(RuleCandleRain.DEFAULT_RAINDROP_PROBABILITY);
+    }
+
+    /**
+     * Constructs a new CANDLE-RAIN configuration with the specified raindrop probability, for parameter studies of
+     * the decay rate.
+     *
+     * @param raindropProbability the probability of a raindrop hitting a cell in one step (0.0 to 1.0)
+     * @throws IllegalArgumentException if the probability is not in [0, 1]
+     */
+    public ConfCandleRain(double raindropProbability) {
+        super(18, new InitRandomBoolean(), List.of(new RuleCandleRain(raindropProbability)));
     }
 
 }
\ No newline at end of file
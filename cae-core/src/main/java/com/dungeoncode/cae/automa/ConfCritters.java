@@ -0,0 +1,29 @@
+package com.dungeoncode.cae.automa;
+
+import com.dungeoncode.cae.automa.rules.RuleMargolus;
+import com.dungeoncode.cae.core.AbstractConfiguration;
+import com.dungeoncode.cae.core.impl.BooleanCell;
+import com.dungeoncode.cae.core.impl.BooleanState;
+import com.dungeoncode.cae.core.impl.init.InitCentralBlob;
+
+import java.util.List;
+
+/**
+ * Runs the CRITTERS rule on the Margolus neighborhood: a 2x2 block with exactly two active cells is unchanged, any
+ * other block is complemented, and a block with three active cells is also rotated by 180 degrees. The rule is
+ * reversible. Initialized with a 33x33 central region of random cells, the disorder spreads and cools into gliding
+ * critters that bounce off each other, as described in Chapter 12 of <i>Cellular Automata Machines: A New Environment
+ * for Modeling</i> (MIT Press).
+ *
+ * @see RuleMargolus#critters()
+ * @see InitCentralBlob
+ */
+public class ConfCritters extends AbstractConfiguration<BooleanCell, BooleanState> {
+
+    /**
+     * Constructs a new CRITTERS configuration with a random central region.
+     */
+    public ConfCritters() {
+        super(28, new InitCentralBlob(16, 16), List.of(RuleMargolus.critters()));
+    }
+}
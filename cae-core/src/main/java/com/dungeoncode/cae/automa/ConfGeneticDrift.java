@@ -0,0 +1,47 @@
+package com.dungeoncode.cae.automa;
+
+import com.dungeoncode.cae.automa.rules.RuleGeneticDrift;
+import com.dungeoncode.cae.core.AbstractConfiguration;
+import com.dungeoncode.cae.core.impl.BooleanCell;
+import com.dungeoncode.cae.core.impl.BooleanState;
+import com.dungeoncode.cae.core.impl.init.InitRandomSpecies;
+
+import java.util.List;
+
+/**
+ * Configures an Automaton to run the GENETIC-DRIFT cellular automaton, modeling diffusion of genes with species IDs.
+ * Each cell copies or exchanges states with a random neighbor, restricted by species ID compatibility, producing
+ * a mottled distribution of species. Initialized with a random distribution of active cells with species IDs.
+ */
+public class ConfGeneticDrift extends AbstractConfiguration<BooleanCell, BooleanState> {
+
+    /**
+     * The default number of species.
+     */
+    public static final int DEFAULT_SPECIES = 4;
+
+    /**
+     * The default fraction of initially active cells (2.5% of the grid).
+     */
+    public static final double DEFAULT_DENSITY = 1.0 / 40.0;
+
+    /**
+     * Constructs a new GENETIC-DRIFT configuration with 4 species covering 2.5% of the grid and no subgrid boundaries.
+     */
+    public ConfGeneticDrift() {
+        this(DEFAULT_SPECIES, DEFAULT_DENSITY, 1);
+    }
+
+    /**
+     * Constructs a new GENETIC-DRIFT configuration with the specified species count, initial density, and subgrids.
+     *
+     * @param numSpecies          the number of distinct species (1 to 4)
+     * @param density             the fraction of initially active cells (0.0 to 1.0)
+     * @param subgridCountPerAxis the number of isolated subgrids per axis; 1 leaves the grid whole
+     * @throws IllegalArgumentException if a parameter is out of range
+     */
+    public ConfGeneticDrift(int numSpecies, double density, int subgridCountPerAxis) {
+        super(24, new InitRandomSpecies(numSpecies, density),
+                List.of(new RuleGeneticDrift(subgridCountPerAxis > 1, false, subgridCountPerAxis)));
+    }
+}
@@ -8,11 +8,7 @@ import com.dungeoncode.cae.core.impl.BooleanCell;
 import com.dungeoncode.cae.core.impl.BooleanState;
 import com.dungeoncode.cae.core.impl.init.InitDisk;
 
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
-
-import static com.dungeoncode.cae.core.Constants.*;
 
 /**
  * Configures an {@link Automaton} to run the NAIVE-DIFFUSION cellular automaton with a handshake protocol, modeling
@@ -35,11 +31,23 @@ public class ConfHandshakeDiffusion extends AbstractConfiguration<BooleanCell, B
         super(23, null, List.of(new RuleNaiveDiffusion(false, true)));
     }
 
+    /**
+     * Constructs a new configuration whose grid is split into {@code subgridCountPerAxis} x
+     * {@code subgridCountPerAxis} isolated regions; particles cannot cross region boundaries. A count of 1 leaves
+     * the grid whole.
+     *
+     * @param subgridCountPerAxis the number of subgrids per axis, must be positive
+     * @throws IllegalArgumentException if subgridCountPerAxis is not positive
+     */
+    public ConfHandshakeDiffusion(int subgridCountPerAxis) {
+        super(23, null, List.of(new RuleNaiveDiffusion(subgridCountPerAxis > 1, true, subgridCountPerAxis)));
+    }
+
     /**
      * Configures the specified {@link Automaton} with a grid, rule, and interval for the NAIVE-DIFFUSION automaton with
-     * handshaking. Creates a {@link Grid} with the given dimensions, initialized by {@link InitDisk} with a disk-shaped
-     * region of active cells (radius based on grid dimensions), and applies the {@link RuleNaiveDiffusion} with
-     * handshaking enabled for state updates.
+     * handshaking. Creates a {@link Grid} with the given dimensions through the grid factory, initialized by
+     * {@link InitDisk} with a disk-shaped region of active cells (radius based on grid dimensions), and applies the
+     * {@link RuleNaiveDiffusion} with handshaking enabled for state updates.
      *
      * @param automaton      the {@link Automaton} to configure
      * @param width          the width (number of columns) of the grid
@@ -48,13 +56,7 @@ public class ConfHandshakeDiffusion extends AbstractConfiguration<BooleanCell, B
      */
     @Override
     public void configure(Automaton<BooleanCell, BooleanState> automaton, int width, int height, long intervalMillis) {
-        Map<String, Object> config = new HashMap<>();
-        InitDisk initDisk = new InitDisk((width + height) / 8);
-        setGridInitializer(initDisk);
-        Grid<BooleanCell, BooleanState> grid = new Grid<>(width, height, initDisk);
-        config.put(CONF_GRID, grid);
-        config.put(CONF_RULES, getRules());
-        config.put(CONF_INTERVAL_MILLIS, intervalMillis);
-        automaton.configure(config);
+        setGridInitializer(new InitDisk((width + height) / 8));
+        super.configure(automaton, width, height, intervalMillis);
     }
 }
\ No newline at end of file
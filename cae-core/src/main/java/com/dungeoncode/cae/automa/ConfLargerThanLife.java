@@ -0,0 +1,27 @@
+package com.dungeoncode.cae.automa;
+
+import com.dungeoncode.cae.automa.rules.RuleLargerThanLife;
+import com.dungeoncode.cae.core.AbstractConfiguration;
+import com.dungeoncode.cae.core.impl.BooleanCell;
+import com.dungeoncode.cae.core.impl.BooleanState;
+import com.dungeoncode.cae.core.impl.init.InitRandomBoolean;
+
+import java.util.List;
+
+/**
+ * Runs Bosco's Rule, the Larger than Life rule {@code R5,C0,M1,S34..58,B34..45,NM}: a cell counts the live cells of
+ * the 11x11 box around it, including itself, is born with 34 to 45 and survives with 34 to 58. Initialized with a
+ * random distribution of active cells, the soup condenses into smooth blobs and gliding "bosco" bugs, as described by
+ * Kellie Evans in <i>Larger than Life: Digital Creatures in a Family of Two-Dimensional Cellular Automata</i> (2001).
+ *
+ * @see RuleLargerThanLife
+ */
+public class ConfLargerThanLife extends AbstractConfiguration<BooleanCell, BooleanState> {
+
+    /**
+     * Constructs a new configuration running Bosco's Rule on a random soup.
+     */
+    public ConfLargerThanLife() {
+        super(27, new InitRandomBoolean(), List.of(new RuleLargerThanLife()));
+    }
+}
@@ -0,0 +1,51 @@
+package com.dungeoncode.cae.automa;
+
+import com.dungeoncode.cae.core.AbstractConfiguration;
+import com.dungeoncode.cae.core.impl.continuous.FloatCell;
+import com.dungeoncode.cae.core.impl.continuous.FloatGrid;
+import com.dungeoncode.cae.core.impl.continuous.FloatState;
+import com.dungeoncode.cae.core.impl.continuous.LeniaRule;
+import com.dungeoncode.cae.core.impl.init.InitRandomFloatPatches;
+
+import java.util.List;
+
+/**
+ * Runs Lenia, a continuous cellular automaton, with the parameters of its glider Orbium: every cell holds a value in
+ * [0, 1] that grows or decays according to a Gaussian of the kernel-weighted average of its radius-13 neighborhood.
+ * Initialized with random square patches of noise, most patches die out or spread into blobs, and some settle into
+ * smooth, gliding creatures. Runs on a {@link FloatGrid}, so it is only offered by front ends that render any cell
+ * type.
+ *
+ * @see LeniaRule#orbium()
+ */
+public class ConfLenia extends AbstractConfiguration<FloatCell, FloatState> {
+
+    /**
+     * The default number of random patches.
+     */
+    public static final int DEFAULT_PATCHES = 12;
+
+    /**
+     * The default side of each patch in cells, about twice the kernel radius.
+     */
+    public static final int DEFAULT_PATCH_SIZE = 26;
+
+    /**
+     * Constructs a new Lenia configuration with the default patches.
+     */
+    public ConfLenia() {
+        this(DEFAULT_PATCHES, DEFAULT_PATCH_SIZE);
+    }
+
+    /**
+     * Constructs a new Lenia configuration with the specified random patches.
+     *
+     * @param patches   the number of patches, must not be negative
+     * @param patchSize the side of each patch in cells, must be positive
+     * @throws IllegalArgumentException if patches is negative or patchSize is not positive
+     */
+    public ConfLenia(int patches, int patchSize) {
+        super(31, new InitRandomFloatPatches(patches, patchSize), List.of(LeniaRule.orbium()));
+        setGridFactory(FloatGrid::new);
+    }
+}
@@ -27,7 +27,18 @@ public class ConfRandomAnneal extends AbstractConfiguration<BooleanCell, Boolean
      * cites the book by Toffoli and Margolus.
      */
     public ConfRandomAnneal() {
-        super(19, new InitRandomBoolean(), List.of(new RuleRandomAnneal()));
+        this(RuleRandomAnneal.DEFAULT_FLIP_PROBABILITY);
+    }
+
+    /**
+     * Constructs a new RAND-ANNEAL configuration with the specified flip probability, for parameter studies of the
+     * annealing temperature.
+     *
+     * @param flipProbability the probability that a cell with a marginal sum takes the minority state (0.0 to 1.0)
+     * @throws IllegalArgumentException if the probability is not in [0, 1]
+     */
+    public ConfRandomAnneal(double flipProbability) {
+        super(19, new InitRandomBoolean(), List.of(new RuleRandomAnneal(flipProbability)));
     }
 
 }
\ No newline at end of file
@@ -16,10 +16,26 @@ import java.util.List;
  */
 public class ConfSoilErosion extends AbstractConfiguration<BooleanCell, BooleanState> {
 
+    /**
+     * The default fraction of initially active (soil) cells.
+     */
+    public static final double DEFAULT_ACTIVE_PROBABILITY = 0.83;
+
+
     /**
      * Constructs a new SOIL-EROSION configuration with a random initializer (83% active cells).
      */
     public ConfSoilErosion() {
-        super(25, new InitRandomBooleanProbability(0.83), List.of(new RuleSoilErosion()));
+        this(DEFAULT_ACTIVE_PROBABILITY);
+    }
+
+    /**
+     * Constructs a new SOIL-EROSION configuration with the specified fraction of initially active cells.
+     *
+     * @param activeProbability the probability of a cell being initially active (0.0 to 1.0)
+     * @throws IllegalArgumentException if the probability is not in [0, 1]
+     */
+    public ConfSoilErosion(double activeProbability) {
+        super(25, new InitRandomBooleanProbability(activeProbability), List.of(new RuleSoilErosion()));
     }
 }
\ No newline at end of file
@@ -21,6 +21,18 @@ public class ConfSoilErosionRandom extends AbstractConfiguration<BooleanCell, Bo
      * Constructs a new SOIL-EROSION-RANDOM configuration with a random initializer (83% active cells).
      */
     public ConfSoilErosionRandom() {
-        super(26, new InitRandomBooleanProbability(0.83), List.of(new RuleSoilErosionRandom()));
+        this(ConfSoilErosion.DEFAULT_ACTIVE_PROBABILITY, RuleSoilErosionRandom.DEFAULT_UPDATE_PROBABILITY);
+    }
+
+    /**
+     * Constructs a new SOIL-EROSION-RANDOM configuration with the specified initial density and update probability.
+     *
+     * @param activeProbability the probability of a cell being initially active (0.0 to 1.0)
+     * @param updateProbability the probability of updating a cell in one step (0.0 to 1.0)
+     * @throws IllegalArgumentException if a probability is not in [0, 1]
+     */
+    public ConfSoilErosionRandom(double activeProbability, double updateProbability) {
+        super(26, new InitRandomBooleanProbability(activeProbability),
+                List.of(new RuleSoilErosionRandom(updateProbability)));
     }
 }
\ No newline at end of file
@@ -0,0 +1,99 @@
+package com.dungeoncode.cae.automa;
+
+import com.dungeoncode.cae.core.Configuration;
+import com.dungeoncode.cae.core.Descriptor;
+import com.dungeoncode.cae.core.Repository;
+import com.dungeoncode.cae.core.impl.BooleanCell;
+import com.dungeoncode.cae.core.impl.BooleanState;
+
+import javax.annotation.Nonnull;
+import java.util.Objects;
+
+/**
+ * The catalog of bundled configurations, shared by every front end (the terminal viewer and the headless runner)
+ * so that they offer the same automata under the same ids.
+ */
+public final class Configurations {
+
+    /**
+     * Prevents instantiation of this utility class.
+     */
+    private Configurations() {
+    }
+
+    /**
+     * Creates a repository holding a fresh instance of every bundled configuration, with all descriptors loaded.
+     *
+     * @return the populated {@link Repository}
+     */
+    public static Repository<BooleanCell, BooleanState> createRepository() {
+        Repository<BooleanCell, BooleanState> repository = new Repository<>();
+        repository.addConfiguration(new ConfInkspot());
+        repository.addConfiguration(new ConfGameOfLife());
+        repository.addConfiguration(new ConfHglass());
+        repository.addConfiguration(new ConfParity());
+        repository.addConfiguration(new ConfSquares());
+        repository.addConfiguration(new ConfDiamonds());
+        repository.addConfiguration(new ConfTriangles());
+        repository.addConfiguration(new ConfOneOutOfEight());
+        repository.addConfiguration(new ConfLichens());
+        repository.addConfiguration(new ConfLichensWithDeath());
+        repository.addConfiguration(new ConfMajority());
+        repository.addConfiguration(new ConfVichniacAnneal());
+        repository.addConfiguration(new ConfBanks());
+        repository.addConfiguration(new ConfParityFlip());
+        repository.addConfiguration(new ConfTimeTunnel());
+        repository.addConfiguration(new ConfCandleRain());
+        repository.addConfiguration(new ConfRandomAnneal());
+        repository.addConfiguration(new ConfHistogram());
+        repository.addConfiguration(new ConfNaiveDiffusion());
+        repository.addConfiguration(new ConfHandshakeDiffusion());
+        repository.addConfiguration(new ConfGeneticDrift());
+        repository.addConfiguration(new ConfSoilErosion());
+        repository.addConfiguration(new ConfSoilErosionRandom());
+        repository.addConfiguration(new ConfLargerThanLife());
+        repository.addConfiguration(new ConfCritters());
+        repository.addConfiguration(new ConfBilliardBallGas());
+        repository.loadDescriptors();
+        return repository;
+    }
+
+    /**
+     * Finds a configuration by numeric id or by descriptor name. Names match case-insensitively, either exactly or
+     * with spaces and punctuation replaced by dashes, so {@code "game-of-life-with-echo"} finds
+     * "Game of Life with Echo".
+     *
+     * @param repository the repository to search, must not be null
+     * @param idOrName   the configuration id or name, must not be null
+     * @return the matching {@link Configuration}
+     * @throws NullPointerException     if repository or idOrName is null
+     * @throws IllegalArgumentException if no configuration matches
+     */
+    public static Configuration<BooleanCell, BooleanState> find(@Nonnull Repository<BooleanCell, BooleanState> repository,
+                                                               @Nonnull String idOrName) {
+        Objects.requireNonNull(repository, "Repository cannot be null");
+        Objects.requireNonNull(idOrName, "Configuration id or name cannot be null");
+        String key = idOrName.trim();
+        for (Configuration<BooleanCell, BooleanState> configuration : repository.getConfigurations()) {
+            if (key.equals(String.valueOf(configuration.getId()))) {
+                return configuration;
+            }
+            Descriptor descriptor = repository.getDescriptorByConfId(configuration.getId());
+            if (descriptor != null && (descriptor.getName().equalsIgnoreCase(key)
+                    || slug(descriptor.getName()).equals(slug(key)))) {
+                return configuration;
+            }
+        }
+        throw new IllegalArgumentException("Unknown configuration: " + idOrName);
+    }
+
+    /**
+     * Returns the lower-case, dash-separated form of a name.
+     *
+     * @param name the name
+     * @return the slug
+     */
+    public static String slug(@Nonnull String name) {
+        return name.toLowerCase().replaceAll("[^a-z0-9]+", "-").replaceAll("^-|-$", "");
+    }
+}
@@ -56,8 +56,8 @@ public class RuleAnneal extends RuleBooleanNeighborCount {
         boolean isActive = liveNeighbors == 4 || liveNeighbors >= 6;
         boolean echo = cell.getState().getValue();
 
-        BooleanState[][] nextStates = grid.getNextStates();
-        nextStates[y][x].set(isActive, echo, liveNeighbors);
-        return nextStates[y][x];
+        BooleanState next = grid.getNextState(x, y);
+        next.set(isActive, echo, liveNeighbors);
+        return next;
     }
 }
\ No newline at end of file
@@ -82,7 +82,8 @@ public class RuleBanks extends RuleBooleanNeighborCount {
             nextState = true; // Corner configuration: erase corner (cell becomes inactive)
         }
 
-        grid.getNextStates()[y][x].set(nextState, echo, liveNeighbors);
-        return grid.getNextStates()[y][x];
+        BooleanState next = grid.getNextState(x, y);
+        next.set(nextState, echo, liveNeighbors);
+        return next;
     }
 }
\ No newline at end of file
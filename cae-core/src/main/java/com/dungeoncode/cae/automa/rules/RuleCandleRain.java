@@ -7,7 +7,6 @@ import com.dungeoncode.cae.core.impl.BooleanState;
 
 import javax.annotation.Nonnull;
 import java.util.Objects;
-import java.util.Random;
 
 /**
  * Implements the CANDLE-RAIN rule for a cellular automaton, simulating candles extinguished by random raindrops.
@@ -21,19 +20,41 @@ import java.util.Random;
  */
 public class RuleCandleRain extends AbstractRule<BooleanCell, BooleanState> {
 
-    /** Random number generator for raindrop probability. */
-    private final Random random = new Random();
+    /**
+     * The default probability of a raindrop hitting a cell (1/32 as per book).
+     */
+    public static final double DEFAULT_RAINDROP_PROBABILITY = 1.0 / 32.0;
+
+    /**
+     * The probability of a raindrop hitting a cell in one step.
+     */
+    private final double raindropProbability;
 
     /**
-     * Constructs a new CANDLE-RAIN rule with a fixed ID.
+     * Constructs a new CANDLE-RAIN rule with a fixed ID and the book's raindrop probability.
      */
     public RuleCandleRain() {
+        this(DEFAULT_RAINDROP_PROBABILITY);
+    }
+
+    /**
+     * Constructs a new CANDLE-RAIN rule with a fixed ID and the specified raindrop probability.
+     *
+     * @param raindropProbability the probability of a raindrop hitting a cell in one step (0.0 to 1.0)
+     * @throws IllegalArgumentException if the probability is not in [0, 1]
+     */
+    public RuleCandleRain(double raindropProbability) {
         super(18);
+        if (!(raindropProbability >= 0.0 && raindropProbability <= 1.0)) {
+            throw new IllegalArgumentException("Raindrop probability must be between 0.0 and 1.0, got: "
+                    + raindropProbability);
+        }
+        this.raindropProbability = raindropProbability;
     }
 
     /**
      * Applies the CANDLE-RAIN rule to compute the new state of a cell. A candle is blown out (false) if a raindrop
-     * is generated (1/32 probability); otherwise, it retains its state. The echo tracks the previous state. Updates
+     * is generated (with the raindrop probability, 1/32 by default); otherwise, it retains its state. The echo tracks the previous state. Updates
      * the grid's next state with the new state, echo, and zero neighbor count.
      *
      * @param grid the {@link Grid} containing the cell, must not be null
@@ -50,15 +71,34 @@ public class RuleCandleRain extends AbstractRule<BooleanCell, BooleanState> {
         int y = cell.getPosition().getY();
         BooleanState currentState = cell.getState();
 
-        // Generate raindrop with 1/32 probability
-        boolean raindrop = random.nextDouble() < (1.0 / 32.0);
+        // Generate raindrop with the raindrop probability
+        boolean raindrop = getRandom().nextDouble() < raindropProbability;
         boolean echo = currentState.getValue();
 
         // Rule: blow out candle if raindrop present, otherwise retain state
         boolean newValue = currentState.getValue() && !raindrop;
 
-        BooleanState[][] nextStates = grid.getNextStates();
-        nextStates[y][x].set(newValue, echo, 0);
-        return nextStates[y][x];
+        BooleanState next = grid.getNextState(x, y);
+        next.set(newValue, echo, 0);
+        return next;
+    }
+
+    /**
+     * Returns the probability of a raindrop hitting a cell in one step.
+     *
+     * @return the raindrop probability
+     */
+    public double getRaindropProbability() {
+        return raindropProbability;
+    }
+
+    /**
+     * Returns false: the rule draws random numbers.
+     *
+     * @return false
+     */
+    @Override
+    public boolean isDeterministic() {
+        return false;
     }
 }
\ No newline at end of file
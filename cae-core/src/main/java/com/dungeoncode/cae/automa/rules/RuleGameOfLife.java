@@ -64,8 +64,9 @@ public class RuleGameOfLife extends RuleBooleanNeighborCount {
         } else {
             newEcho = cell.getState().getValue();
         }
-        grid.getNextStates()[y][x].set(newAlive, newEcho, liveCount);
-        return grid.getNextStates()[y][x];
+        BooleanState next = grid.getNextState(x, y);
+        next.set(newAlive, newEcho, liveCount);
+        return next;
     }
 
 }
\ No newline at end of file
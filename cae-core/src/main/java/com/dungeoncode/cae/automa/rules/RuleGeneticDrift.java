@@ -6,7 +6,6 @@ import com.dungeoncode.cae.core.impl.BooleanState;
 
 import javax.annotation.Nonnull;
 import java.util.Objects;
-import java.util.Random;
 
 /**
  * Implements the GENETIC-DRIFT rule for a cellular automaton, extending NAIVE-DIFFUSION to model diffusion of
@@ -21,17 +20,17 @@ import java.util.Random;
  */
 public class RuleGeneticDrift extends RuleBooleanNeighborCount {
 
-    /** Random number generator for neighbor selection. */
-    private final Random random = new Random();
-
     /** Indicates whether subgrid boundaries are enforced. */
     private final boolean useGrid;
 
     /** Indicates whether handshake mechanism is used for diffusion. */
     private final boolean useHandshake;
 
-    /** Number of subgrids per axis (3x3 grid). */
-    private final int subgridCountPerAxis = 3;
+    /** Default number of subgrids per axis (3x3 grid). */
+    public static final int DEFAULT_SUBGRID_COUNT_PER_AXIS = 3;
+
+    /** Number of subgrids per axis. */
+    private final int subgridCountPerAxis;
 
     /**
      * Constructs a new GENETIC-DRIFT rule with default settings (no subgrid, no handshake).
@@ -47,9 +46,25 @@ public class RuleGeneticDrift extends RuleBooleanNeighborCount {
      * @param useHandshake true to use handshake mechanism for diffusion, false for copy mechanism
      */
     public RuleGeneticDrift(boolean useGrid, boolean useHandshake) {
+        this(useGrid, useHandshake, DEFAULT_SUBGRID_COUNT_PER_AXIS);
+    }
+
+    /**
+     * Constructs a new GENETIC-DRIFT rule with specified settings and subgrid count.
+     *
+     * @param useGrid             true to enforce subgrid boundaries, false otherwise
+     * @param useHandshake        true to use handshake mechanism for diffusion, false for copy mechanism
+     * @param subgridCountPerAxis the number of subgrids per axis when enforcing boundaries, must be positive
+     * @throws IllegalArgumentException if subgridCountPerAxis is not positive
+     */
+    public RuleGeneticDrift(boolean useGrid, boolean useHandshake, int subgridCountPerAxis) {
         super(23);
+        if (subgridCountPerAxis <= 0) {
+            throw new IllegalArgumentException("Subgrid count per axis must be positive, got: " + subgridCountPerAxis);
+        }
         this.useGrid = useGrid;
         this.useHandshake = useHandshake;
+        this.subgridCountPerAxis = subgridCountPerAxis;
     }
 
     /**
@@ -79,11 +94,11 @@ public class RuleGeneticDrift extends RuleBooleanNeighborCount {
         int liveSum = countLiveVonNeumannNeighbors(grid, x, y);
 
         // Subgrid boundaries
-        int subgridWidth = width / subgridCountPerAxis;
-        int subgridHeight = height / subgridCountPerAxis;
+        int subgridWidth = Math.max(1, width / subgridCountPerAxis);
+        int subgridHeight = Math.max(1, height / subgridCountPerAxis);
 
         // Random direction (0=north, 1=south, 2=west, 3=east)
-        int direction = random.nextInt(4);
+        int direction = getRandom().nextInt(4);
         int dx = switch (direction) {
             case 0 -> 0;    // North
             case 1 -> 0;    // South
@@ -130,8 +145,27 @@ public class RuleGeneticDrift extends RuleBooleanNeighborCount {
             }
         }
 
-        BooleanState[][] nextStates = grid.getNextStates();
-        nextStates[y][x].set(newValue, newEcho, liveSum, newId);
-        return nextStates[y][x];
+        BooleanState next = grid.getNextState(x, y);
+        next.set(newValue, newEcho, liveSum, newId);
+        return next;
+    }
+
+    /**
+     * Returns the number of subgrids per axis used when enforcing boundaries.
+     *
+     * @return the subgrid count per axis
+     */
+    public int getSubgridCountPerAxis() {
+        return subgridCountPerAxis;
+    }
+
+    /**
+     * Returns false: the rule draws random numbers.
+     *
+     * @return false
+     */
+    @Override
+    public boolean isDeterministic() {
+        return false;
     }
 }
\ No newline at end of file
@@ -37,8 +37,9 @@ public class RuleInkspot extends RuleBooleanNeighborCount {
 
         boolean echo = cell.getState().getValue();
         boolean isLive = cell.getState() != null && cell.getState().getValue();
-        grid.getNextStates()[y][x].set(liveCount == 3 || isLive, echo, liveCount);
-        return grid.getNextStates()[y][x];
+        BooleanState next = grid.getNextState(x, y);
+        next.set(liveCount == 3 || isLive, echo, liveCount);
+        return next;
     }
 
 }
\ No newline at end of file
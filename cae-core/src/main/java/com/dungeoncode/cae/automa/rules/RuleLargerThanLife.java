@@ -0,0 +1,411 @@
+package com.dungeoncode.cae.automa.rules;
+
+import com.dungeoncode.cae.core.AbstractRule;
+import com.dungeoncode.cae.core.Grid;
+import com.dungeoncode.cae.core.GridRule;
+import com.dungeoncode.cae.core.impl.BooleanCell;
+import com.dungeoncode.cae.core.impl.BooleanState;
+import com.dungeoncode.cae.core.impl.packed.OffHeapPlane;
+import com.dungeoncode.cae.core.impl.packed.PackedBooleanGrid;
+
+import javax.annotation.Nonnull;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.concurrent.ForkJoinPool;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.IntStream;
+
+/**
+ * Implements Larger than Life, the family of totalistic rules over a square Moore neighborhood of range {@code R}
+ * (the {@code (2R + 1) x (2R + 1)} box around a cell) introduced by Kellie Evans. A dead cell is born when the number
+ * of live cells in its box lies in the birth interval, and a live cell survives when it lies in the survival interval.
+ * Whether the cell itself is counted is part of the rule. With {@code R = 1}, birth 3..3, and survival 3..4 counting
+ * the center, the family contains the Game of Life.
+ * <p>
+ * Counting the box cell by cell costs {@code O(R²)} per cell, as {@link RuleBooleanNeighborCount} would. Instead, each
+ * step first sums every row over a sliding window of {@code 2R + 1} columns, then slides a window of {@code 2R + 1}
+ * rows over those sums, so every cell costs a constant number of additions whatever the range. Both passes run in
+ * parallel over bands of rows on the common fork-join pool unless disabled with {@link #setParallel(boolean)}; results
+ * are identical either way. The grid wraps around at its edges (toroidal topology). The echo flag holds the previous
+ * value of the cell, and the live sum the box count.
+ *
+ * @see GridRule
+ */
+public class RuleLargerThanLife extends AbstractRule<BooleanCell, BooleanState>
+        implements GridRule<BooleanCell, BooleanState> {
+
+    /**
+     * The syntax of rule strings: {@code R<range>,C<0|2>,M<0|1>,S<min>..<max>,B<min>..<max>}, optionally {@code ,NM}.
+     */
+    private static final Pattern RULE_STRING = Pattern.compile(
+            "R(\\d+),C([02]),M([01]),S(\\d+)\\.\\.(\\d+),B(\\d+)\\.\\.(\\d+)(?:,NM)?");
+
+    /**
+     * The minimum number of rows of a band.
+     */
+    private static final int MIN_BAND_ROWS = 16;
+
+    /**
+     * The range of the neighborhood.
+     */
+    private final int range;
+
+    /**
+     * Whether the cell itself is counted.
+     */
+    private final boolean includeCenter;
+
+    /**
+     * The smallest count that gives birth.
+     */
+    private final int birthMin;
+
+    /**
+     * The largest count that gives birth.
+     */
+    private final int birthMax;
+
+    /**
+     * The smallest count at which a live cell survives.
+     */
+    private final int survivalMin;
+
+    /**
+     * The largest count at which a live cell survives.
+     */
+    private final int survivalMax;
+
+    /**
+     * Whether bands are computed in parallel.
+     */
+    private boolean parallel = true;
+
+    /**
+     * The values of the cells of the grid being computed, one byte per cell, reused while the grid size is unchanged.
+     */
+    private byte[] live = new byte[0];
+
+    /**
+     * The sums of every row over a window of {@code 2R + 1} columns, reused while the grid size is unchanged.
+     */
+    private int[] rowSums = new int[0];
+
+    /**
+     * The running column sums of each band.
+     */
+    private int[][] columnSums = new int[0][];
+
+    /**
+     * Constructs a Larger than Life rule.
+     *
+     * @param range         the range of the neighborhood, at least 1
+     * @param includeCenter whether the cell itself is counted
+     * @param birthMin      the smallest count that gives birth
+     * @param birthMax      the largest count that gives birth
+     * @param survivalMin   the smallest count at which a live cell survives
+     * @param survivalMax   the largest count at which a live cell survives
+     * @throws IllegalArgumentException if the range is not positive or an interval is not within the neighborhood size
+     */
+    public RuleLargerThanLife(int range, boolean includeCenter, int birthMin, int birthMax, int survivalMin,
+                              int survivalMax) {
+        super(26);
+        if (range < 1) {
+            throw new IllegalArgumentException("Range must be positive: " + range);
+        }
+        int size = (2 * range + 1) * (2 * range + 1);
+        if (birthMin < 0 || birthMax < birthMin || birthMax > size
+                || survivalMin < 0 || survivalMax < survivalMin || survivalMax > size) {
+            throw new IllegalArgumentException("Intervals must lie within 0.." + size + ": birth=" + birthMin + ".."
+                    + birthMax + ", survival=" + survivalMin + ".." + survivalMax);
+        }
+        this.range = range;
+        this.includeCenter = includeCenter;
+        this.birthMin = birthMin;
+        this.birthMax = birthMax;
+        this.survivalMin = survivalMin;
+        this.survivalMax = survivalMax;
+    }
+
+    /**
+     * Constructs Bosco's Rule, {@code R5,C0,M1,S34..58,B34..45,NM}, whose random soups settle into blobs and gliding
+     * "bosco" bugs.
+     */
+    public RuleLargerThanLife() {
+        this(5, true, 34, 45, 34, 58);
+    }
+
+    /**
+     * Parses a rule string in the notation of Evans and Golly, such as {@code "R5,C0,M1,S34..58,B34..45,NM"}. Only
+     * two-state rules ({@code C0} or {@code C2}) over the Moore box ({@code NM}, the default) are supported.
+     *
+     * @param rule the rule string, case-insensitive, must not be null
+     * @return the rule
+     * @throws NullPointerException     if rule is null
+     * @throws IllegalArgumentException if the rule string is malformed or unsupported
+     */
+    public static RuleLargerThanLife parse(@Nonnull String rule) {
+        Objects.requireNonNull(rule, "Rule cannot be null");
+        Matcher matcher = RULE_STRING.matcher(rule.trim().toUpperCase(Locale.ROOT).replace(" ", ""));
+        if (!matcher.matches()) {
+            throw new IllegalArgumentException("Rule must look like R5,C0,M1,S34..58,B34..45,NM: " + rule);
+        }
+        return new RuleLargerThanLife(Integer.parseInt(matcher.group(1)), "1".equals(matcher.group(3)),
+                Integer.parseInt(matcher.group(6)), Integer.parseInt(matcher.group(7)),
+                Integer.parseInt(matcher.group(4)), Integer.parseInt(matcher.group(5)));
+    }
+
+    /**
+     * Applies the rule to a single cell, counting its box directly in {@code O(R²)}. {@link #applyToGrid(Grid)} is
+     * used by the automaton and is much faster for whole grids.
+     *
+     * @param grid the grid containing the cell
+     * @param cell the cell to evaluate
+     * @return the next state of the cell
+     * @throws IllegalArgumentException if the grid is narrower or lower than the neighborhood
+     */
+    @Override
+    public BooleanState apply(Grid<BooleanCell, BooleanState> grid, BooleanCell cell) {
+        checkSize(grid.getWidth(), grid.getHeight());
+        int x = cell.getPosition().getX();
+        int y = cell.getPosition().getY();
+        int width = grid.getWidth();
+        int height = grid.getHeight();
+        boolean alive = cell.getState().getValue();
+        int count = 0;
+        for (int dy = -range; dy <= range; dy++) {
+            for (int dx = -range; dx <= range; dx++) {
+                if (grid.getCell((x + dx + width) % width, (y + dy + height) % height).getState().getValue()) {
+                    count++;
+                }
+            }
+        }
+        if (!includeCenter && alive) {
+            count--;
+        }
+        BooleanState next = grid.getNextState(x, y);
+        next.set(nextValue(alive, count), alive, count);
+        return next;
+    }
+
+    /**
+     * Computes the next state of every cell. Packed grids are read and written a word at a time; other grids through
+     * their cells.
+     *
+     * @param grid the grid to evaluate
+     * @throws IllegalArgumentException if the grid is narrower or lower than the neighborhood
+     */
+    @Override
+    public void applyToGrid(Grid<BooleanCell, BooleanState> grid) {
+        int width = grid.getWidth();
+        int height = grid.getHeight();
+        checkSize(width, height);
+        int bandRows = bandRows(height);
+        int bands = (height + bandRows - 1) / bandRows;
+        if (live.length != width * height || columnSums.length != bands || columnSums[0].length != width) {
+            live = new byte[width * height];
+            rowSums = new int[width * height];
+            columnSums = new int[bands][width];
+        }
+        PackedBooleanGrid packed = grid instanceof PackedBooleanGrid p ? p : null;
+        stream(bands).forEach(band -> {
+            int end = Math.min(height, (band + 1) * bandRows);
+            for (int y = band * bandRows; y < end; y++) {
+                if (packed != null) {
+                    readRow(packed.getValuePlane(), width, y);
+                } else {
+                    for (int x = 0; x < width; x++) {
+                        live[y * width + x] = (byte) (grid.getCell(x, y).getState().getValue() ? 1 : 0);
+                    }
+                }
+                sumRow(width, y);
+            }
+        });
+        stream(bands).forEach(band -> {
+            int start = band * bandRows;
+            int end = Math.min(height, start + bandRows);
+            int[] sums = columnSums[band];
+            Arrays.fill(sums, 0);
+            for (int dy = -range; dy <= range; dy++) {
+                int row = Math.floorMod(start + dy, height) * width;
+                for (int x = 0; x < width; x++) {
+                    sums[x] += rowSums[row + x];
+                }
+            }
+            for (int y = start; y < end; y++) {
+                if (packed != null) {
+                    writeRow(packed, sums, width, y);
+                } else {
+                    for (int x = 0; x < width; x++) {
+                        boolean alive = live[y * width + x] != 0;
+                        int count = includeCenter || !alive ? sums[x] : sums[x] - 1;
+                        grid.getNextState(x, y).set(nextValue(alive, count), alive, count);
+                    }
+                }
+                int leaving = Math.floorMod(y - range, height) * width;
+                int entering = Math.floorMod(y + range + 1, height) * width;
+                for (int x = 0; x < width; x++) {
+                    sums[x] += rowSums[entering + x] - rowSums[leaving + x];
+                }
+            }
+        });
+    }
+
+    /**
+     * Unpacks a row of a value plane into {@link #live}.
+     *
+     * @param values the value plane
+     * @param width  the number of columns
+     * @param y      the row
+     */
+    private void readRow(OffHeapPlane values, int width, int y) {
+        int row = y * width;
+        for (int w = 0; w << 6 < width; w++) {
+            long word = values.getWord(w, y);
+            for (int x = w << 6, end = Math.min(width, x + 64); x < end; x++, word >>>= 1) {
+                live[row + x] = (byte) (word & 1);
+            }
+        }
+    }
+
+    /**
+     * Sums a row of {@link #live} over a sliding window of {@code 2R + 1} columns into {@link #rowSums}.
+     *
+     * @param width the number of columns
+     * @param y     the row
+     */
+    private void sumRow(int width, int y) {
+        int row = y * width;
+        int sum = 0;
+        for (int dx = -range; dx <= range; dx++) {
+            sum += live[row + Math.floorMod(dx, width)];
+        }
+        for (int x = 0; x < width; x++) {
+            rowSums[row + x] = sum;
+            int entering = x + range + 1;
+            int leaving = x - range;
+            sum += live[row + (entering >= width ? entering - width : entering)]
+                    - live[row + (leaving < 0 ? leaving + width : leaving)];
+        }
+    }
+
+    /**
+     * Writes the next states of a row of a packed grid a word at a time: values, echoes holding the current values,
+     * live sums clamped to 255, and the current ids.
+     *
+     * @param grid  the packed grid
+     * @param sums  the box counts of the row's cells
+     * @param width the number of columns
+     * @param y     the row
+     */
+    private void writeRow(PackedBooleanGrid grid, int[] sums, int width, int y) {
+        OffHeapPlane liveSums = grid.getNextLiveSumPlane();
+        OffHeapPlane ids = grid.getIdPlane();
+        int row = y * width;
+        for (int w = 0; w << 6 < width; w++) {
+            long value = 0;
+            for (int x = w << 6, end = Math.min(width, x + 64); x < end; x++) {
+                boolean alive = live[row + x] != 0;
+                if (nextValue(alive, includeCenter || !alive ? sums[x] : sums[x] - 1)) {
+                    value |= 1L << x;
+                }
+            }
+            grid.getNextValuePlane().setWord(w, y, value);
+            grid.getNextEchoPlane().setWord(w, y, grid.getValuePlane().getWord(w, y));
+        }
+        for (int w = 0; w << 3 < width; w++) {
+            if (liveSums != null) {
+                long word = 0;
+                for (int x = w << 3, end = Math.min(width, x + 8); x < end; x++) {
+                    int count = includeCenter || live[row + x] == 0 ? sums[x] : sums[x] - 1;
+                    word |= (long) Math.min(255, count) << ((x & 7) << 3);
+                }
+                liveSums.setWord(w, y, word);
+            }
+            if (ids != null) {
+                grid.getNextIdPlane().setWord(w, y, ids.getWord(w, y));
+            }
+        }
+    }
+
+    /**
+     * Returns the next value of a cell.
+     *
+     * @param alive whether the cell is alive
+     * @param count the number of live cells counted in its box
+     * @return the next value
+     */
+    private boolean nextValue(boolean alive, int count) {
+        return alive ? count >= survivalMin && count <= survivalMax : count >= birthMin && count <= birthMax;
+    }
+
+    /**
+     * Checks that the neighborhood fits in the grid, so that no cell is counted twice.
+     *
+     * @param width  the number of columns
+     * @param height the number of rows
+     * @throws IllegalArgumentException if the grid is narrower or lower than the neighborhood
+     */
+    private void checkSize(int width, int height) {
+        if (width < 2 * range + 1 || height < 2 * range + 1) {
+            throw new IllegalArgumentException("Grid smaller than the neighborhood of range " + range + ": width="
+                    + width + ", height=" + height);
+        }
+    }
+
+    /**
+     * Returns the number of rows per band for a grid height.
+     *
+     * @param height the number of rows
+     * @return the band height
+     */
+    private int bandRows(int height) {
+        if (!parallel) {
+            return height;
+        }
+        int target = ForkJoinPool.getCommonPoolParallelism() * 4;
+        return Math.max(MIN_BAND_ROWS, (height + target - 1) / target);
+    }
+
+    /**
+     * Returns a range of indices as a stream, parallel if enabled.
+     *
+     * @param count the number of indices
+     * @return the stream
+     */
+    private IntStream stream(int count) {
+        IntStream range = IntStream.range(0, count);
+        return parallel ? range.parallel() : range;
+    }
+
+    /**
+     * Sets whether bands of rows are computed in parallel on the common fork-join pool. Results are identical either
+     * way.
+     *
+     * @param parallel true to compute in parallel
+     */
+    public void setParallel(boolean parallel) {
+        this.parallel = parallel;
+    }
+
+    /**
+     * Returns the range of the neighborhood.
+     *
+     * @return the range
+     */
+    public int getRange() {
+        return range;
+    }
+
+    /**
+     * Returns the rule in the notation accepted by {@link #parse(String)}.
+     *
+     * @return the rule string
+     */
+    @Override
+    public String toString() {
+        return "R" + range + ",C0,M" + (includeCenter ? 1 : 0) + ",S" + survivalMin + ".." + survivalMax
+                + ",B" + birthMin + ".." + birthMax + ",NM";
+    }
+}
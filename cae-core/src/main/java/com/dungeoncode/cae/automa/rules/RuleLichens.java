@@ -45,8 +45,9 @@ public class RuleLichens extends RuleBooleanNeighborCount {
 
 
         boolean echo = cell.getState().getValue();
-        grid.getNextStates()[y][x].set(isActive || currentState, echo, liveCount);
-        return grid.getNextStates()[y][x];
+        BooleanState next = grid.getNextState(x, y);
+        next.set(isActive || currentState, echo, liveCount);
+        return next;
     }
 
 }
\ No newline at end of file
@@ -52,8 +52,9 @@ public class RuleLichensWithDeath extends RuleBooleanNeighborCount {
         }
 
         boolean echo = cell.getState().getValue();
-        grid.getNextStates()[y][x].set(newState, echo, liveCount);
-        return grid.getNextStates()[y][x];
+        BooleanState next = grid.getNextState(x, y);
+        next.set(newState, echo, liveCount);
+        return next;
     }
 
 }
\ No newline at end of file
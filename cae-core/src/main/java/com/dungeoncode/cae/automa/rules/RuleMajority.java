@@ -46,8 +46,9 @@ public class RuleMajority extends RuleBooleanNeighborCount {
         boolean isActive = liveNeighbors >= 5;
 
         boolean echo = cell.getState().getValue();
-        grid.getNextStates()[y][x].set(isActive, echo, liveNeighbors);
-        return grid.getNextStates()[y][x];
+        BooleanState next = grid.getNextState(x, y);
+        next.set(isActive, echo, liveNeighbors);
+        return next;
     }
 
 }
\ No newline at end of file
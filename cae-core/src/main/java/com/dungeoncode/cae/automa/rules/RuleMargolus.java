@@ -0,0 +1,670 @@
+package com.dungeoncode.cae.automa.rules;
+
+import com.dungeoncode.cae.core.AbstractRule;
+import com.dungeoncode.cae.core.Grid;
+import com.dungeoncode.cae.core.GridRule;
+import com.dungeoncode.cae.core.impl.BooleanCell;
+import com.dungeoncode.cae.core.impl.BooleanState;
+import com.dungeoncode.cae.core.impl.packed.OffHeapPlane;
+import com.dungeoncode.cae.core.impl.packed.PackedBooleanGrid;
+
+import javax.annotation.Nonnull;
+import java.util.Objects;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.IntBinaryOperator;
+import java.util.stream.IntStream;
+
+/**
+ * Implements block rules on the Margolus neighborhood, the partitioning technique of Chapter 12 of
+ * <i>Cellular Automata Machines: A New Environment for Modeling</i> (MIT Press). The grid is partitioned into 2x2
+ * blocks, and every block is replaced by a function of its own four cells only, given as a table of 16 entries. The
+ * partition alternates between two offsets: the even partition has blocks with their upper-left cell at even
+ * coordinates, the odd partition at odd coordinates, so information crosses block boundaries from one half-step to
+ * the next. Each generation applies the even table on the even partition, then the odd table on the odd partition,
+ * so the grid alone determines the future and hashing, cycle detection, and fast-forwarding stay exact.
+ * <p>
+ * Table indices and entries encode a block as 4 bits: 1 for the upper-left cell, 2 for the upper-right, 4 for the
+ * lower-left, and 8 for the lower-right. A rule whose tables are permutations is reversible, like the
+ * {@link #critters() Critters} and {@link #billiardBall() billiard-ball} rules. The grid wraps around at its edges
+ * (toroidal topology); along an odd dimension, the cells left over by a partition keep their values for that
+ * half-step. The echo flag holds the previous value of the cell, and the live sum the population of its block.
+ * <p>
+ * Blocks do not overlap, so each half-step updates them in place, in parallel bands of block rows on the common
+ * fork-join pool unless disabled with {@link #setParallel(boolean)}; results are identical either way. Packed grids
+ * are updated 32 blocks at a time: the four cells of every block in a pair of row words are split into four bit
+ * vectors, and the table is evaluated as a sum of minterms with bitwise operations.
+ *
+ * @see GridRule
+ */
+public class RuleMargolus extends AbstractRule<BooleanCell, BooleanState>
+        implements GridRule<BooleanCell, BooleanState> {
+
+    /**
+     * The number of entries of a block table.
+     */
+    public static final int TABLE_SIZE = 16;
+
+    /**
+     * The bits of the even positions of a word, where the left cells of aligned blocks are.
+     */
+    private static final long EVEN_BITS = 0x5555555555555555L;
+
+    /**
+     * The minimum number of rows of a band.
+     */
+    private static final int MIN_BAND_ROWS = 16;
+
+    /**
+     * The table of the even partition.
+     */
+    private final int[] evenTable;
+
+    /**
+     * The table of the odd partition.
+     */
+    private final int[] oddTable;
+
+    /**
+     * Whether bands are computed in parallel.
+     */
+    private boolean parallel = true;
+
+    /**
+     * The cell values of a generic grid, updated in place, reused between steps.
+     */
+    private byte[] cells = new byte[0];
+
+    /**
+     * The block populations of a generic grid, reused between steps.
+     */
+    private byte[] sums = new byte[0];
+
+    /**
+     * Constructs a rule applying the same table on both partitions.
+     *
+     * @param id    the unique identifier of the rule
+     * @param table the next block of every block, 16 entries between 0 and 15, must not be null
+     * @throws NullPointerException     if table is null
+     * @throws IllegalArgumentException if the table is malformed
+     */
+    public RuleMargolus(int id, @Nonnull int[] table) {
+        this(id, table, table);
+    }
+
+    /**
+     * Constructs a rule with a table per partition.
+     *
+     * @param id        the unique identifier of the rule
+     * @param evenTable the next block of every block of the even partition, 16 entries between 0 and 15, must not be
+     *                  null
+     * @param oddTable  the next block of every block of the odd partition, 16 entries between 0 and 15, must not be
+     *                  null
+     * @throws NullPointerException     if a table is null
+     * @throws IllegalArgumentException if a table is malformed
+     */
+    public RuleMargolus(int id, @Nonnull int[] evenTable, @Nonnull int[] oddTable) {
+        super(id);
+        this.evenTable = checkTable(Objects.requireNonNull(evenTable, "Even table cannot be null"));
+        this.oddTable = checkTable(Objects.requireNonNull(oddTable, "Odd table cannot be null"));
+    }
+
+    /**
+     * Creates the Critters rule: a block with exactly two live cells is unchanged, any other block is complemented,
+     * and a block with three live cells is also rotated by 180 degrees. The rule is reversible and, on grids of even
+     * size, conserves the population over a generation; a random soup cools into gliding critters that bounce off
+     * each other.
+     *
+     * @return the rule
+     */
+    public static RuleMargolus critters() {
+        int[] table = new int[TABLE_SIZE];
+        for (int block = 0; block < TABLE_SIZE; block++) {
+            int count = Integer.bitCount(block);
+            int complement = ~block & 0xF;
+            table[block] = count == 2 ? block : count == 3 ? rotate180(complement) : complement;
+        }
+        return new RuleMargolus(29, table);
+    }
+
+    /**
+     * Creates the billiard-ball rule of Margolus: a lone ball moves to the opposite corner of its block, so balls fly
+     * diagonally, and two balls on one diagonal move to the other, which is a collision. Every other block is
+     * unchanged, so pairs of adjacent cells form mirrors that reflect balls. The rule is reversible and conserves
+     * the number of balls.
+     *
+     * @return the rule
+     */
+    public static RuleMargolus billiardBall() {
+        int[] table = new int[TABLE_SIZE];
+        for (int block = 0; block < TABLE_SIZE; block++) {
+            table[block] = block;
+        }
+        table[0b0001] = 0b1000;
+        table[0b1000] = 0b0001;
+        table[0b0010] = 0b0100;
+        table[0b0100] = 0b0010;
+        table[0b1001] = 0b0110;
+        table[0b0110] = 0b1001;
+        return new RuleMargolus(30, table);
+    }
+
+    /**
+     * Rotates a block by 180 degrees.
+     *
+     * @param block the block
+     * @return the rotated block
+     */
+    private static int rotate180(int block) {
+        return (block & 1) << 3 | (block & 2) << 1 | (block & 4) >>> 1 | (block & 8) >>> 3;
+    }
+
+    /**
+     * Validates a table and returns a copy of it.
+     *
+     * @param table the table
+     * @return the copy
+     * @throws IllegalArgumentException if the table does not have 16 entries between 0 and 15
+     */
+    private static int[] checkTable(int[] table) {
+        if (table.length != TABLE_SIZE) {
+            throw new IllegalArgumentException("Block tables must have " + TABLE_SIZE + " entries: " + table.length);
+        }
+        for (int entry : table) {
+            if (entry < 0 || entry >= TABLE_SIZE) {
+                throw new IllegalArgumentException("Block table entries must be between 0 and 15: " + entry);
+            }
+        }
+        return table.clone();
+    }
+
+    /**
+     * Applies the rule to a single cell by evaluating the blocks of both partitions around it.
+     * {@link #applyToGrid(Grid)} is used by the automaton and is much faster for whole grids.
+     *
+     * @param grid the grid containing the cell
+     * @param cell the cell to evaluate
+     * @return the next state of the cell
+     */
+    @Override
+    public BooleanState apply(Grid<BooleanCell, BooleanState> grid, BooleanCell cell) {
+        int width = grid.getWidth();
+        int height = grid.getHeight();
+        int x = cell.getPosition().getX();
+        int y = cell.getPosition().getY();
+        IntBinaryOperator current = (cx, cy) -> grid.getCell(cx, cy).getState().getValue() ? 1 : 0;
+        IntBinaryOperator even = (cx, cy) -> {
+            int block = blockIndex(current, width, height, 0, cx, cy);
+            return block < 0 ? current.applyAsInt(cx, cy)
+                    : evenTable[block] >>> cornerOf(width, height, 0, cx, cy) & 1;
+        };
+        int block = blockIndex(even, width, height, 1, x, y);
+        boolean value;
+        int sum;
+        if (block < 0) {
+            value = even.applyAsInt(x, y) != 0;
+            sum = value ? 1 : 0;
+        } else {
+            int next = oddTable[block];
+            value = (next >>> cornerOf(width, height, 1, x, y) & 1) != 0;
+            sum = Integer.bitCount(next);
+        }
+        BooleanState state = grid.getNextState(x, y);
+        state.set(value, cell.getState().getValue(), sum);
+        return state;
+    }
+
+    /**
+     * Returns the start of the block containing a coordinate along one dimension.
+     *
+     * @param i     the coordinate
+     * @param size  the size of the dimension
+     * @param phase 0 for the even partition, 1 for the odd partition
+     * @return the first coordinate of the block, or -1 if the coordinate is left over by the partition
+     */
+    private static int blockStart(int i, int size, int phase) {
+        int start = i - ((i - phase) & 1);
+        if (size % 2 != 0 && (start < 0 || start == size - 1)) {
+            return -1;
+        }
+        return start < 0 ? size - 1 : start;
+    }
+
+    /**
+     * Returns the index of the block containing a cell.
+     *
+     * @param values the cell values
+     * @param width  the number of columns
+     * @param height the number of rows
+     * @param phase  0 for the even partition, 1 for the odd partition
+     * @param x      the column of the cell
+     * @param y      the row of the cell
+     * @return the block index, or -1 if the cell is left over by the partition
+     */
+    private static int blockIndex(IntBinaryOperator values, int width, int height, int phase, int x, int y) {
+        int left = blockStart(x, width, phase);
+        int top = blockStart(y, height, phase);
+        if (left < 0 || top < 0) {
+            return -1;
+        }
+        int right = left + 1 == width ? 0 : left + 1;
+        int bottom = top + 1 == height ? 0 : top + 1;
+        return values.applyAsInt(left, top) | values.applyAsInt(right, top) << 1
+                | values.applyAsInt(left, bottom) << 2 | values.applyAsInt(right, bottom) << 3;
+    }
+
+    /**
+     * Returns the bit of a cell within its block.
+     *
+     * @param width  the number of columns
+     * @param height the number of rows
+     * @param phase  0 for the even partition, 1 for the odd partition
+     * @param x      the column of the cell
+     * @param y      the row of the cell
+     * @return 0 for the upper-left cell, 1 for the upper-right, 2 for the lower-left, 3 for the lower-right
+     */
+    private static int cornerOf(int width, int height, int phase, int x, int y) {
+        return (x == blockStart(x, width, phase) ? 0 : 1) | (y == blockStart(y, height, phase) ? 0 : 2);
+    }
+
+    /**
+     * Computes the next state of every cell. Packed grids are read and written a word at a time; other grids through
+     * their cells.
+     *
+     * @param grid the grid to evaluate
+     */
+    @Override
+    public void applyToGrid(Grid<BooleanCell, BooleanState> grid) {
+        if (grid instanceof PackedBooleanGrid packed) {
+            applyToPacked(packed);
+        } else {
+            applyToCells(grid);
+        }
+    }
+
+    /**
+     * Computes the next states of a generic grid through a byte per cell updated in place.
+     *
+     * @param grid the grid to evaluate
+     */
+    private void applyToCells(Grid<BooleanCell, BooleanState> grid) {
+        int width = grid.getWidth();
+        int height = grid.getHeight();
+        if (cells.length != width * height) {
+            cells = new byte[width * height];
+            sums = new byte[width * height];
+        }
+        int bandRows = bandRows(height);
+        int rowBands = (height + bandRows - 1) / bandRows;
+        stream(rowBands).forEach(band -> {
+            for (int y = band * bandRows, end = Math.min(height, y + bandRows); y < end; y++) {
+                for (int x = 0; x < width; x++) {
+                    cells[y * width + x] = (byte) (grid.getCell(x, y).getState().getValue() ? 1 : 0);
+                }
+            }
+        });
+        updateCells(width, height, 0, evenTable);
+        updateCells(width, height, 1, oddTable);
+        if (height % 2 != 0) {
+            System.arraycopy(cells, 0, sums, 0, width);
+        }
+        if (width % 2 != 0) {
+            for (int y = 0; y < height; y++) {
+                sums[y * width] = cells[y * width];
+            }
+        }
+        stream(rowBands).forEach(band -> {
+            for (int y = band * bandRows, end = Math.min(height, y + bandRows); y < end; y++) {
+                for (int x = 0; x < width; x++) {
+                    boolean previous = grid.getCell(x, y).getState().getValue();
+                    grid.getNextState(x, y).set(cells[y * width + x] != 0, previous, sums[y * width + x]);
+                }
+            }
+        });
+    }
+
+    /**
+     * Replaces every block of a partition of {@link #cells} in place, recording block populations in {@link #sums}.
+     *
+     * @param width  the number of columns
+     * @param height the number of rows
+     * @param phase  0 for the even partition, 1 for the odd partition
+     * @param table  the table of the partition
+     */
+    private void updateCells(int width, int height, int phase, int[] table) {
+        int blockRows = height / 2;
+        int bandBlocks = bandRows(height) / 2;
+        stream((blockRows + bandBlocks - 1) / bandBlocks).forEach(band -> {
+            for (int k = band * bandBlocks, end = Math.min(blockRows, k + bandBlocks); k < end; k++) {
+                int top = (2 * k + phase) * width;
+                int bottom = (2 * k + phase + 1) % height * width;
+                for (int j = 0; j < width / 2; j++) {
+                    int left = 2 * j + phase;
+                    int right = left + 1 == width ? 0 : left + 1;
+                    int next = table[cells[top + left] | cells[top + right] << 1
+                            | cells[bottom + left] << 2 | cells[bottom + right] << 3];
+                    cells[top + left] = (byte) (next & 1);
+                    cells[top + right] = (byte) (next >>> 1 & 1);
+                    cells[bottom + left] = (byte) (next >>> 2 & 1);
+                    cells[bottom + right] = (byte) (next >>> 3);
+                    byte sum = (byte) Integer.bitCount(next);
+                    sums[top + left] = sum;
+                    sums[top + right] = sum;
+                    sums[bottom + left] = sum;
+                    sums[bottom + right] = sum;
+                }
+            }
+        });
+    }
+
+    /**
+     * Computes the next states of a packed grid a word at a time. The even half-step reads the current value plane
+     * and writes the next one, the odd half-step updates the next value plane in place; echoes take the current
+     * values, ids are kept, and live sums take the block populations.
+     *
+     * @param grid the grid to evaluate
+     */
+    private void applyToPacked(PackedBooleanGrid grid) {
+        int width = grid.getWidth();
+        int height = grid.getHeight();
+        int words = (width + 63) >>> 6;
+        int blockRows = height / 2;
+        int bandBlocks = bandRows(height) / 2;
+        int bands = Math.max(1, (blockRows + bandBlocks - 1) / bandBlocks);
+        OffHeapPlane values = grid.getValuePlane();
+        OffHeapPlane nextValues = grid.getNextValuePlane();
+        stream(bands).forEach(band -> {
+            long[] block = new long[2];
+            int start = band * bandBlocks;
+            int end = Math.min(blockRows, start + bandBlocks);
+            for (int k = start; k < end; k++) {
+                for (int w = 0; w < words; w++) {
+                    long top = values.getWord(w, 2 * k);
+                    long bottom = values.getWord(w, 2 * k + 1);
+                    transform(top, bottom, evenTable, block);
+                    if (w == words - 1) {
+                        keepLeftovers(top, bottom, width, block);
+                    }
+                    nextValues.setWord(w, 2 * k, block[0]);
+                    nextValues.setWord(w, 2 * k + 1, block[1]);
+                }
+            }
+            int last = band == bands - 1 ? height : 2 * end;
+            for (int y = 2 * start; y < last; y++) {
+                if (y == height - 1 && height % 2 != 0) {
+                    for (int w = 0; w < words; w++) {
+                        nextValues.setWord(w, y, values.getWord(w, y));
+                    }
+                }
+                copyEchoesAndIds(grid, words, y);
+            }
+        });
+        OffHeapPlane liveSums = grid.getNextLiveSumPlane();
+        stream(bands).forEach(band -> {
+            long[] block = new long[2];
+            long[] top = new long[words];
+            long[] bottom = new long[words];
+            long[] rotatedTop = new long[words];
+            long[] rotatedBottom = new long[words];
+            byte[] topSums = liveSums == null ? null : new byte[width];
+            byte[] bottomSums = liveSums == null ? null : new byte[width];
+            for (int k = band * bandBlocks, end = Math.min(blockRows, k + bandBlocks); k < end; k++) {
+                int y0 = 2 * k + 1;
+                int y1 = (2 * k + 2) % height;
+                for (int w = 0; w < words; w++) {
+                    top[w] = nextValues.getWord(w, y0);
+                    bottom[w] = nextValues.getWord(w, y1);
+                }
+                rotateLeft(top, rotatedTop, width);
+                rotateLeft(bottom, rotatedBottom, width);
+                for (int w = 0; w < words; w++) {
+                    transform(rotatedTop[w], rotatedBottom[w], oddTable, block);
+                    if (w == words - 1) {
+                        keepLeftovers(rotatedTop[w], rotatedBottom[w], width, block);
+                    }
+                    rotatedTop[w] = block[0];
+                    rotatedBottom[w] = block[1];
+                }
+                if (liveSums != null) {
+                    blockSums(rotatedTop, rotatedBottom, width, topSums, bottomSums);
+                    writeSums(liveSums, topSums, width, y0);
+                    writeSums(liveSums, bottomSums, width, y1);
+                }
+                rotateRight(rotatedTop, top, width);
+                rotateRight(rotatedBottom, bottom, width);
+                for (int w = 0; w < words; w++) {
+                    nextValues.setWord(w, y0, top[w]);
+                    nextValues.setWord(w, y1, bottom[w]);
+                }
+            }
+        });
+        if (liveSums != null && height % 2 != 0) {
+            byte[] rowSums = new byte[width];
+            for (int x = 0; x < width; x++) {
+                rowSums[x] = (byte) (nextValues.getWord(x >>> 6, 0) >>> x & 1);
+            }
+            writeSums(liveSums, rowSums, width, 0);
+        }
+    }
+
+    /**
+     * Replaces the blocks of a pair of aligned row words, whose blocks have their left cells at even bit positions.
+     *
+     * @param top    the upper row word
+     * @param bottom the lower row word
+     * @param table  the block table
+     * @param block  receives the new upper and lower row words
+     */
+    private static void transform(long top, long bottom, int[] table, long[] block) {
+        long upperLeft = top & EVEN_BITS;
+        long upperRight = top >>> 1 & EVEN_BITS;
+        long lowerLeft = bottom & EVEN_BITS;
+        long lowerRight = bottom >>> 1 & EVEN_BITS;
+        long nextUpperLeft = 0;
+        long nextUpperRight = 0;
+        long nextLowerLeft = 0;
+        long nextLowerRight = 0;
+        for (int index = 0; index < TABLE_SIZE; index++) {
+            int next = table[index];
+            if (next == 0) {
+                continue;
+            }
+            long match = ((index & 1) != 0 ? upperLeft : ~upperLeft)
+                    & ((index & 2) != 0 ? upperRight : ~upperRight)
+                    & ((index & 4) != 0 ? lowerLeft : ~lowerLeft)
+                    & ((index & 8) != 0 ? lowerRight : ~lowerRight)
+                    & EVEN_BITS;
+            nextUpperLeft |= (next & 1) != 0 ? match : 0;
+            nextUpperRight |= (next & 2) != 0 ? match : 0;
+            nextLowerLeft |= (next & 4) != 0 ? match : 0;
+            nextLowerRight |= (next & 8) != 0 ? match : 0;
+        }
+        block[0] = nextUpperLeft | nextUpperRight << 1;
+        block[1] = nextLowerLeft | nextLowerRight << 1;
+    }
+
+    /**
+     * Fixes the last aligned words of a pair of rows: bits past the width are cleared, and on an odd width the cells
+     * of the last position, which have no partner, keep their values.
+     *
+     * @param top    the upper row word before the update
+     * @param bottom the lower row word before the update
+     * @param width  the number of columns
+     * @param block  the updated upper and lower row words, fixed in place
+     */
+    private static void keepLeftovers(long top, long bottom, int width, long[] block) {
+        long mask = (width & 63) == 0 ? -1L : (1L << (width & 63)) - 1;
+        block[0] &= mask;
+        block[1] &= mask;
+        if (width % 2 != 0) {
+            long leftover = 1L << ((width - 1) & 63);
+            block[0] = block[0] & ~leftover | top & leftover;
+            block[1] = block[1] & ~leftover | bottom & leftover;
+        }
+    }
+
+    /**
+     * Rotates a row left by one cell, so that the blocks of the odd partition start at even positions.
+     *
+     * @param source      the row words
+     * @param destination receives the rotated row words
+     * @param width       the number of columns
+     */
+    private static void rotateLeft(long[] source, long[] destination, int width) {
+        int words = source.length;
+        for (int w = 0; w < words; w++) {
+            destination[w] = source[w] >>> 1 | (w + 1 < words ? source[w + 1] << 63 : 0);
+        }
+        destination[words - 1] |= (source[0] & 1) << ((width - 1) & 63);
+    }
+
+    /**
+     * Rotates a row right by one cell, undoing {@link #rotateLeft(long[], long[], int)}.
+     *
+     * @param source      the rotated row words
+     * @param destination receives the row words
+     * @param width       the number of columns
+     */
+    private static void rotateRight(long[] source, long[] destination, int width) {
+        int words = source.length;
+        for (int w = 0; w < words; w++) {
+            destination[w] = source[w] << 1 | (w > 0 ? source[w - 1] >>> 63 : 0);
+        }
+        if ((width & 63) != 0) {
+            destination[words - 1] &= (1L << (width & 63)) - 1;
+        }
+        destination[0] |= source[words - 1] >>> ((width - 1) & 63) & 1;
+    }
+
+    /**
+     * Computes the block population of every cell of a pair of rows rotated into the odd partition.
+     *
+     * @param top        the rotated upper row words
+     * @param bottom     the rotated lower row words
+     * @param width      the number of columns
+     * @param topSums    receives the populations of the upper row, by column
+     * @param bottomSums receives the populations of the lower row, by column
+     */
+    private static void blockSums(long[] top, long[] bottom, int width, byte[] topSums, byte[] bottomSums) {
+        for (int j = 0; j + 1 < width; j += 2) {
+            int shift = j & 63;
+            byte sum = (byte) (Long.bitCount(top[j >>> 6] >>> shift & 3)
+                    + Long.bitCount(bottom[j >>> 6] >>> shift & 3));
+            int left = j + 1;
+            int right = j + 2 == width ? 0 : j + 2;
+            topSums[left] = sum;
+            topSums[right] = sum;
+            bottomSums[left] = sum;
+            bottomSums[right] = sum;
+        }
+        if (width % 2 != 0) {
+            int shift = (width - 1) & 63;
+            topSums[0] = (byte) (top[(width - 1) >>> 6] >>> shift & 1);
+            bottomSums[0] = (byte) (bottom[(width - 1) >>> 6] >>> shift & 1);
+        }
+    }
+
+    /**
+     * Packs a row of block populations into the live sum plane.
+     *
+     * @param liveSums the live sum plane
+     * @param rowSums  the populations, by column
+     * @param width    the number of columns
+     * @param y        the row
+     */
+    private static void writeSums(OffHeapPlane liveSums, byte[] rowSums, int width, int y) {
+        for (int w = 0; w << 3 < width; w++) {
+            long word = 0;
+            for (int x = w << 3, end = Math.min(width, x + 8); x < end; x++) {
+                word |= (long) rowSums[x] << ((x & 7) << 3);
+            }
+            liveSums.setWord(w, y, word);
+        }
+    }
+
+    /**
+     * Copies the current values of a row to the next echoes and its current ids to the next ids.
+     *
+     * @param grid  the packed grid
+     * @param words the number of value words per row
+     * @param y     the row
+     */
+    private static void copyEchoesAndIds(PackedBooleanGrid grid, int words, int y) {
+        for (int w = 0; w < words; w++) {
+            grid.getNextEchoPlane().setWord(w, y, grid.getValuePlane().getWord(w, y));
+        }
+        OffHeapPlane ids = grid.getIdPlane();
+        if (ids != null) {
+            for (int w = 0; w << 3 < grid.getWidth(); w++) {
+                grid.getNextIdPlane().setWord(w, y, ids.getWord(w, y));
+            }
+        }
+    }
+
+    /**
+     * Returns the number of rows per band for a grid height, always even so that bands hold whole blocks.
+     *
+     * @param height the number of rows
+     * @return the band height
+     */
+    private int bandRows(int height) {
+        if (!parallel) {
+            return Math.max(2, height + height % 2);
+        }
+        int target = ForkJoinPool.getCommonPoolParallelism() * 4;
+        int rows = Math.max(MIN_BAND_ROWS, (height + target - 1) / target);
+        return rows + rows % 2;
+    }
+
+    /**
+     * Returns a range of band indices as a stream, parallel if enabled.
+     *
+     * @param count the number of bands
+     * @return the stream
+     */
+    private IntStream stream(int count) {
+        IntStream range = IntStream.range(0, count);
+        return parallel ? range.parallel() : range;
+    }
+
+    /**
+     * Sets whether bands are computed in parallel on the common fork-join pool. Results are identical either way.
+     *
+     * @param parallel true to compute in parallel
+     */
+    public void setParallel(boolean parallel) {
+        this.parallel = parallel;
+    }
+
+    /**
+     * Returns whether the rule is reversible, that is whether both tables are permutations of the 16 blocks.
+     *
+     * @return true if every configuration has exactly one predecessor
+     */
+    public boolean isReversible() {
+        return isPermutation(evenTable) && isPermutation(oddTable);
+    }
+
+    /**
+     * Returns whether a table maps the 16 blocks one to one.
+     *
+     * @param table the table
+     * @return true if the table is a permutation
+     */
+    private static boolean isPermutation(int[] table) {
+        int seen = 0;
+        for (int entry : table) {
+            seen |= 1 << entry;
+        }
+        return seen == 0xFFFF;
+    }
+
+    /**
+     * Returns a copy of the table of a partition.
+     *
+     * @param odd true for the table of the odd partition, false for the even one
+     * @return the table
+     */
+    public int[] getTable(boolean odd) {
+        return (odd ? oddTable : evenTable).clone();
+    }
+}
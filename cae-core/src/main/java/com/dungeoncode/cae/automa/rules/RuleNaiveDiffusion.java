@@ -4,8 +4,6 @@ import com.dungeoncode.cae.core.Grid;
 import com.dungeoncode.cae.core.impl.BooleanCell;
 import com.dungeoncode.cae.core.impl.BooleanState;
 
-import java.util.Random;
-
 /**
  * Implements the NAIVE-DIFFUSION rule for a cellular automaton, modeling diffusion of particles by either copying the
  * state of a neighboring cell or using a handshake protocol to move particles in one of four directions (north, south,
@@ -19,8 +17,10 @@ import java.util.Random;
  */
 public class RuleNaiveDiffusion extends RuleBooleanNeighborCount {
 
-    private final Random random = new Random();
-    private final int subgridCountPerAxis = 3; // 3x3 subgrid (9 subgrids total)
+    /** Default number of subgrids per axis (3x3 subgrid, 9 subgrids total). */
+    public static final int DEFAULT_SUBGRID_COUNT_PER_AXIS = 3;
+
+    private final int subgridCountPerAxis;
     private boolean useGrid;
     private boolean useHandshake;
 
@@ -31,18 +31,32 @@ public class RuleNaiveDiffusion extends RuleBooleanNeighborCount {
      * @param useHandshake if true, uses a handshake protocol for particle movement instead of copying neighbor states
      */
     public RuleNaiveDiffusion(boolean useGrid, boolean useHandshake) {
-        this();
+        this(useGrid, useHandshake, DEFAULT_SUBGRID_COUNT_PER_AXIS);
+    }
+
+    /**
+     * Constructs a new NAIVE-DIFFUSION rule with the specified grid splitting, handshake, and subgrid options.
+     *
+     * @param useGrid             if true, splits the grid into subgrids and inhibits movement across boundaries
+     * @param useHandshake        if true, uses a handshake protocol for particle movement
+     * @param subgridCountPerAxis the number of subgrids per axis when splitting, must be positive
+     * @throws IllegalArgumentException if subgridCountPerAxis is not positive
+     */
+    public RuleNaiveDiffusion(boolean useGrid, boolean useHandshake, int subgridCountPerAxis) {
+        super(22);
+        if (subgridCountPerAxis <= 0) {
+            throw new IllegalArgumentException("Subgrid count per axis must be positive, got: " + subgridCountPerAxis);
+        }
         this.useGrid = useGrid;
         this.useHandshake = useHandshake;
+        this.subgridCountPerAxis = subgridCountPerAxis;
     }
 
     /**
      * Constructs a new NAIVE-DIFFUSION rule with grid splitting and handshake disabled by default.
      */
     public RuleNaiveDiffusion() {
-        super(22);
-        this.useGrid = false;
-        this.useHandshake = false;
+        this(false, false);
     }
 
     /**
@@ -67,12 +81,12 @@ public class RuleNaiveDiffusion extends RuleBooleanNeighborCount {
         boolean currentValue = currentState.getValue();
         int liveSum = countLiveVonNeumannNeighbors(grid, x, y);
 
-        // Subgrid boundaries (if enabled): split grid into 3x3 subgrids
-        int subgridWidth = width / subgridCountPerAxis;
-        int subgridHeight = height / subgridCountPerAxis;
+        // Subgrid boundaries (if enabled): split grid into subgridCountPerAxis^2 subgrids
+        int subgridWidth = Math.max(1, width / subgridCountPerAxis);
+        int subgridHeight = Math.max(1, height / subgridCountPerAxis);
 
         // Randomly choose a direction (0=north, 1=south, 2=west, 3=east)
-        int direction = random.nextInt(4);
+        int direction = getRandom().nextInt(4);
 
         int dx = 0;
         int dy = 0;
@@ -117,8 +131,27 @@ public class RuleNaiveDiffusion extends RuleBooleanNeighborCount {
         }
 
         // Update next states for the current cell
-        grid.getNextStates()[y][x].set(newValue, newEcho, liveSum);
-        return grid.getNextStates()[y][x];
+        BooleanState next = grid.getNextState(x, y);
+        next.set(newValue, newEcho, liveSum);
+        return next;
     }
 
+    /**
+     * Returns the number of subgrids per axis used when splitting the grid.
+     *
+     * @return the subgrid count per axis
+     */
+    public int getSubgridCountPerAxis() {
+        return subgridCountPerAxis;
+    }
+
+    /**
+     * Returns false: the rule draws random numbers.
+     *
+     * @return false
+     */
+    @Override
+    public boolean isDeterministic() {
+        return false;
+    }
 }
\ No newline at end of file
@@ -44,8 +44,9 @@ public class RuleOneOutOfEight extends RuleBooleanNeighborCount {
         boolean isActive = liveNeighbors == 1;
 
         boolean echo = cell.getState().getValue();
-        grid.getNextStates()[y][x].set(isActive || currentState, echo, liveNeighbors);
-        return grid.getNextStates()[y][x];
+        BooleanState next = grid.getNextState(x, y);
+        next.set(isActive || currentState, echo, liveNeighbors);
+        return next;
     }
 
 }
\ No newline at end of file
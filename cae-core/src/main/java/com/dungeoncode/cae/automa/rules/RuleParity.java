@@ -56,8 +56,9 @@ public class RuleParity extends AbstractRule<BooleanCell, BooleanState> {
 
         // Compute parity using XOR (odd number of true values yields true)
         boolean newState = center ^ north ^ south ^ west ^ east;
-        grid.getNextStates()[y][x].set(newState, cell.getState().getValue(), liveSum);
-        return grid.getNextStates()[y][x];
+        BooleanState next = grid.getNextState(x, y);
+        next.set(newState, cell.getState().getValue(), liveSum);
+        return next;
     }
 
 }
\ No newline at end of file
@@ -42,8 +42,9 @@ public class RuleParityFlip extends RuleParity {
         // XOR the PARITY result with the previous state (echo)
         BooleanState currentState = cell.getState();
         boolean newState = parity ^ currentState.isEcho();
-        grid.getNextStates()[y][x].set(newState, currentState.getValue(), parityCell.getLiveSum());
-        return grid.getNextStates()[y][x];
+        BooleanState next = grid.getNextState(x, y);
+        next.set(newState, currentState.getValue(), parityCell.getLiveSum());
+        return next;
     }
 
 }
\ No newline at end of file
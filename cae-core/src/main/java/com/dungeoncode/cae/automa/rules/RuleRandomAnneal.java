@@ -4,8 +4,6 @@ import com.dungeoncode.cae.core.Grid;
 import com.dungeoncode.cae.core.impl.BooleanCell;
 import com.dungeoncode.cae.core.impl.BooleanState;
 
-import java.util.Random;
-
 /**
  * Implements the RAND-ANNEAL rule for a cellular automaton, a probabilistic modification of the 5MAJ majority voting
  * rule. Uses a von Neumann neighborhood (center, north, south, east, west) to compute the sum of active cells (0 to 5).
@@ -19,10 +17,37 @@ import java.util.Random;
  */
 public class RuleRandomAnneal extends RuleBooleanNeighborCount {
 
-    private final Random random = new Random();
+    /**
+     * The default probability of a marginal cell taking the minority state (1/32 as per book).
+     */
+    public static final double DEFAULT_FLIP_PROBABILITY = 1.0 / 32.0;
+
+    /**
+     * The probability that a cell with a marginal sum (2 or 3) takes the minority state.
+     */
+    private final double flipProbability;
 
+    /**
+     * Constructs a new RAND-ANNEAL rule with a fixed ID and the book's flip probability.
+     */
     public RuleRandomAnneal() {
+        this(DEFAULT_FLIP_PROBABILITY);
+    }
+
+    /**
+     * Constructs a new RAND-ANNEAL rule with a fixed ID and the specified flip probability, the "temperature" of the
+     * annealing.
+     *
+     * @param flipProbability the probability that a cell with sum 2 becomes active, and with sum 3 inactive
+     *                        (0.0 to 1.0)
+     * @throws IllegalArgumentException if the probability is not in [0, 1]
+     */
+    public RuleRandomAnneal(double flipProbability) {
         super(19);
+        if (!(flipProbability >= 0.0 && flipProbability <= 1.0)) {
+            throw new IllegalArgumentException("Flip probability must be between 0.0 and 1.0, got: " + flipProbability);
+        }
+        this.flipProbability = flipProbability;
     }
 
     /**
@@ -65,10 +90,10 @@ public class RuleRandomAnneal extends RuleBooleanNeighborCount {
                 newValue = false;
                 break;
             case 2:
-                newValue = random.nextDouble() < (1.0 / 32.0); // RAND: active with p=1/32
+                newValue = getRandom().nextDouble() < flipProbability; // RAND: active with p=1/32 by default
                 break;
             case 3:
-                newValue = random.nextDouble() >= (1.0 / 32.0); // ~RAND: active with p=31/32
+                newValue = getRandom().nextDouble() >= flipProbability; // ~RAND: active with p=31/32 by default
                 break;
             default: // 4, 5
                 newValue = true;
@@ -76,8 +101,27 @@ public class RuleRandomAnneal extends RuleBooleanNeighborCount {
         }
 
         // Echo tracks the previous state
-        grid.getNextStates()[y][x].set(newValue, currentState.getValue(), liveSum);
-        return grid.getNextStates()[y][x];
+        BooleanState next = grid.getNextState(x, y);
+        next.set(newValue, currentState.getValue(), liveSum);
+        return next;
+    }
+
+    /**
+     * Returns the probability that a cell with a marginal sum takes the minority state.
+     *
+     * @return the flip probability
+     */
+    public double getFlipProbability() {
+        return flipProbability;
     }
 
+    /**
+     * Returns false: the rule draws random numbers.
+     *
+     * @return false
+     */
+    @Override
+    public boolean isDeterministic() {
+        return false;
+    }
 }
\ No newline at end of file
@@ -71,8 +71,9 @@ public class RuleSafePass extends RuleBooleanNeighborCount {
         }
 
         // Echo remains unchanged (plane 1 is static)
-        grid.getNextStates()[y][x].set(newValue, currentEcho, liveSum);
-        return grid.getNextStates()[y][x];
+        BooleanState next = grid.getNextState(x, y);
+        next.set(newValue, currentEcho, liveSum);
+        return next;
     }
 
 }
\ No newline at end of file
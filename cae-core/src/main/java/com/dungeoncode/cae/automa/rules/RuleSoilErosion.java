@@ -81,8 +81,8 @@ public class RuleSoilErosion extends RuleBooleanNeighborCount {
         // Count live neighbors (excluding center) for liveSum
         int liveNeighbors = countLiveMooreNeighbors(grid, x, y);
 
-        BooleanState[][] nextStates = grid.getNextStates();
-        nextStates[y][x].set(nextState, echo, liveNeighbors);
-        return nextStates[y][x];
+        BooleanState next = grid.getNextState(x, y);
+        next.set(nextState, echo, liveNeighbors);
+        return next;
     }
 }
\ No newline at end of file
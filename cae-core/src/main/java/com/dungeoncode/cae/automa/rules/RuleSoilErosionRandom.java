@@ -6,7 +6,6 @@ import com.dungeoncode.cae.core.impl.BooleanState;
 
 import javax.annotation.Nonnull;
 import java.util.Objects;
-import java.util.Random;
 
 /**
  * Implements the SOIL-EROSION-RANDOM rule for a cellular automaton, a probabilistic variant of SOIL-EROSION. A cell
@@ -21,17 +20,32 @@ import java.util.Random;
  */
 public class RuleSoilErosionRandom extends RuleSoilErosion {
 
-    /** Random number generator for update probability. */
-    private final Random random = new Random();
+    /** Default probability of updating a cell (1/512 as per book). */
+    public static final double DEFAULT_UPDATE_PROBABILITY = 1.0 / 512.0;
 
-    /** Probability of updating a cell (1/512 as per book). */
-    private static final double UPDATE_PROBABILITY = 1.0 / 512.0;
+    /** Probability of updating a cell in one step. */
+    private final double updateProbability;
 
     /**
-     * Constructs a new SOIL-EROSION-RANDOM rule with a fixed ID.
+     * Constructs a new SOIL-EROSION-RANDOM rule with a fixed ID and the book's update probability.
      */
     public RuleSoilErosionRandom() {
+        this(DEFAULT_UPDATE_PROBABILITY);
+    }
+
+    /**
+     * Constructs a new SOIL-EROSION-RANDOM rule with a fixed ID and the specified update probability.
+     *
+     * @param updateProbability the probability of updating a cell in one step (0.0 to 1.0)
+     * @throws IllegalArgumentException if the probability is not in [0, 1]
+     */
+    public RuleSoilErosionRandom(double updateProbability) {
         super(25); // New ID, adjust as needed
+        if (!(updateProbability >= 0.0 && updateProbability <= 1.0)) {
+            throw new IllegalArgumentException("Update probability must be between 0.0 and 1.0, got: "
+                    + updateProbability);
+        }
+        this.updateProbability = updateProbability;
     }
 
     /**
@@ -56,8 +70,8 @@ public class RuleSoilErosionRandom extends RuleSoilErosion {
         boolean echo = currentState;
         int liveNeighbors = countLiveMooreNeighbors(grid, x, y);
 
-        // Determine if cell updates (random update with p=1/512)
-        boolean shouldUpdate = random.nextDouble() < UPDATE_PROBABILITY;
+        // Determine if cell updates (random update with p=1/512 by default)
+        boolean shouldUpdate = getRandom().nextDouble() < updateProbability;
 
         boolean nextState = currentState;
         if (shouldUpdate) {
@@ -66,8 +80,27 @@ public class RuleSoilErosionRandom extends RuleSoilErosion {
             nextState = parentState.getValue();
         }
 
-        BooleanState[][] intermediateStates = grid.getNextStates();
-        intermediateStates[y][x].set(nextState, echo, liveNeighbors);
-        return intermediateStates[y][x];
+        BooleanState next = grid.getNextState(x, y);
+        next.set(nextState, echo, liveNeighbors);
+        return next;
+    }
+
+    /**
+     * Returns the probability of updating a cell in one step.
+     *
+     * @return the update probability
+     */
+    public double getUpdateProbability() {
+        return updateProbability;
+    }
+
+    /**
+     * Returns false: the rule draws random numbers.
+     *
+     * @return false
+     */
+    @Override
+    public boolean isDeterministic() {
+        return false;
     }
 }
\ No newline at end of file
@@ -62,8 +62,8 @@ public class RuleSquares extends RuleBooleanNeighborCount {
         boolean echo = cell.getState().getValue();
         int liveCount = countLiveMooreNeighbors(grid, x, y);
 
-        BooleanState[][] nextStates = grid.getNextStates();
-        nextStates[y][x].set(isActive, echo, liveCount);
-        return nextStates[y][x];
+        BooleanState next = grid.getNextState(x, y);
+        next.set(isActive, echo, liveCount);
+        return next;
     }
 }
\ No newline at end of file
@@ -73,8 +73,9 @@ public class RuleTimeTunnel extends AbstractRule<BooleanCell, BooleanState> {
         // XOR the decision table result with the previous state (echo)
         boolean newState = decision ^ currentState.isEcho();
 
-        grid.getNextStates()[y][x].set(newState, currentState.getValue(), liveSum);
-        return grid.getNextStates()[y][x];
+        BooleanState next = grid.getNextState(x, y);
+        next.set(newState, currentState.getValue(), liveSum);
+        return next;
     }
 
 }
\ No newline at end of file
@@ -68,8 +68,9 @@ public class RuleTriangles extends RuleBooleanNeighborCount {
 
         boolean echo = cell.getState().getValue();
         int liveCount = countLiveMooreNeighbors(grid, x, y);
-        grid.getNextStates()[y][x].set(isActive, echo, liveCount);
-        return grid.getNextStates()[y][x];
+        BooleanState next = grid.getNextState(x, y);
+        next.set(isActive, echo, liveCount);
+        return next;
     }
 
 }
\ No newline at end of file
@@ -32,6 +32,11 @@ public abstract class AbstractConfiguration<C extends Cell<S>, S extends CellSta
      */
     private GridInitializer<C, S> gridInitializer;
 
+    /**
+     * The factory creating the grid, by default an on-heap {@link Grid}.
+     */
+    private GridFactory<C, S> gridFactory = Grid::new;
+
     /**
      * Constructs a new configuration with the specified identifier, grid initializer, and rules.
      *
@@ -90,7 +95,7 @@ public abstract class AbstractConfiguration<C extends Cell<S>, S extends CellSta
     @Override
     public void configure(Automaton<C, S> automaton, int width, int height, long intervalMillis) {
         Map<String, Object> config = new HashMap<>();
-        Grid<C, S> grid = new Grid<>(width, height, getGridInitializer());
+        Grid<C, S> grid = gridFactory.create(width, height, getGridInitializer());
         config.put(CONF_GRID, grid);
         config.put(CONF_RULES, getRules());
         config.put(CONF_INTERVAL_MILLIS, intervalMillis);
@@ -105,4 +110,14 @@ public abstract class AbstractConfiguration<C extends Cell<S>, S extends CellSta
     public void setGridInitializer(GridInitializer<C, S> gridInitializer) {
         this.gridInitializer = gridInitializer;
     }
+
+    /**
+     * Sets the factory creating the grid on each call to {@link #configure(Automaton, int, int, long)}.
+     *
+     * @param gridFactory the {@link GridFactory}, must not be null
+     * @throws NullPointerException if gridFactory is null
+     */
+    public void setGridFactory(GridFactory<C, S> gridFactory) {
+        this.gridFactory = Objects.requireNonNull(gridFactory, "Grid factory cannot be null");
+    }
 }
\ No newline at end of file
@@ -1,5 +1,7 @@
 package com.dungeoncode.cae.core;
 
+import java.util.Random;
+
 /**
  * An abstract base class for grid initializers in a cellular automaton, implementing the {@link GridInitializer} interface.
  * Provides a unique identifier for the initializer and serves as a foundation for specific grid initialization strategies.
@@ -15,6 +17,11 @@ public abstract class AbstractGridInitializer<C extends Cell<S>, S extends CellS
      */
     private final int id;
 
+    /**
+     * The random number generator available to randomized initializers.
+     */
+    private final Random random = new Random();
+
     /**
      * Constructs a new grid initializer with the specified identifier.
      *
@@ -33,4 +40,23 @@ public abstract class AbstractGridInitializer<C extends Cell<S>, S extends CellS
     public int getId() {
         return id;
     }
+
+    /**
+     * Reseeds the random number generator of this initializer.
+     *
+     * @param seed the seed for the initializer's random stream
+     */
+    @Override
+    public void reseed(long seed) {
+        random.setSeed(seed);
+    }
+
+    /**
+     * Returns the random number generator for randomized decisions of this initializer.
+     *
+     * @return the initializer's {@link Random}
+     */
+    protected Random getRandom() {
+        return random;
+    }
 }
\ No newline at end of file
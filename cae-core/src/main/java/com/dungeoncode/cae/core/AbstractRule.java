@@ -1,5 +1,7 @@
 package com.dungeoncode.cae.core;
 
+import java.util.Random;
+
 /**
  * An abstract base class for rules in a cellular automaton, implementing the {@link Rule} interface.
  * Provides a unique identifier for the rule and serves as a foundation for specific rule implementations.
@@ -15,6 +17,11 @@ public abstract class AbstractRule<C extends Cell<S>, S extends CellState<?>> im
      */
     private final int id;
 
+    /**
+     * The random number generator available to probabilistic rules, reseeded by the {@link Automaton} each generation.
+     */
+    private final Random random = new Random();
+
     /**
      * Constructs a new rule with the specified identifier.
      *
@@ -33,4 +40,23 @@ public abstract class AbstractRule<C extends Cell<S>, S extends CellState<?>> im
     public int getId() {
         return id;
     }
+
+    /**
+     * Reseeds the random number generator of this rule.
+     *
+     * @param seed the seed for this rule's random stream in the upcoming generation
+     */
+    @Override
+    public void reseed(long seed) {
+        random.setSeed(seed);
+    }
+
+    /**
+     * Returns the random number generator for probabilistic decisions of this rule.
+     *
+     * @return the rule's {@link Random}
+     */
+    protected Random getRandom() {
+        return random;
+    }
 }
\ No newline at end of file
@@ -0,0 +1,595 @@
+package com.dungeoncode.cae.core;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Random;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.ToLongFunction;
+
+import static com.dungeoncode.cae.core.Constants.*;
+
+/**
+ * Manages a cellular automaton, handling a grid of cells and applying rules to update their states periodically.
+ * Supports configuration, execution control (start, resume, stop), rendering via a consumer, and step listeners.
+ *
+ * @param <C> the type of cells in the grid, extending {@link Cell}
+ * @param <S> the type of cell states, extending {@link CellState}
+ */
+public class Automaton<C extends Cell<S>, S extends CellState<?>> {
+    /**
+     * Logger for recording automaton events and errors.
+     */
+    private static final Logger LOGGER = LoggerFactory.getLogger(Automaton.class);
+
+    /**
+     * The grid holding the current state of cells.
+     */
+    private Grid<C, S> grid;
+
+    /**
+     * The list of rules applied to update cell states.
+     */
+    private List<Rule<C, S>> rules;
+
+    /**
+     * The consumer for rendering or processing the grid after each step.
+     */
+    private Consumer<Grid<C, S>> gridConsumer;
+
+    /**
+     * Listeners notified on the stepping thread after each step, before the grid consumer.
+     */
+    private final List<Consumer<Automaton<C, S>>> stepListeners = new CopyOnWriteArrayList<>();
+
+    /**
+     * The interval in milliseconds between automaton steps.
+     */
+    private long intervalMillis;
+
+    /**
+     * Indicates whether the automaton is currently running.
+     */
+    private volatile boolean isRunning;
+
+    /**
+     * Executor service for scheduling periodic updates.
+     */
+    private ScheduledExecutorService executor;
+
+    /**
+     * The seed from which the per-generation random streams of the rules are derived.
+     */
+    private volatile long seed = new Random().nextLong();
+
+    /**
+     * The number of steps executed since the automaton was configured.
+     */
+    private volatile long generation;
+
+    /**
+     * The detector of fixed points and cycles, or null if detection is disabled.
+     */
+    private CycleDetector<C, S> cycleDetector;
+
+    /**
+     * The collector fed with the committed states of the last rule of each step, or null.
+     */
+    private volatile StatisticsCollector<? super S> statisticsCollector;
+
+    /**
+     * Encodes states for change tracking, or null if change sets are not produced.
+     */
+    private ToLongFunction<? super S> changeEncoder;
+
+    /**
+     * Listeners notified on the stepping thread with the change set of each generation.
+     */
+    private final List<Consumer<ChangeSet>> changeListeners = new CopyOnWriteArrayList<>();
+
+    /**
+     * Whether the grid was modified outside the step loop since the last change set.
+     */
+    private volatile boolean gridReplaced = true;
+
+    /**
+     * Constructs a new automaton with a single-threaded executor for periodic updates.
+     */
+    public Automaton() {
+        this.executor = Executors.newSingleThreadScheduledExecutor();
+    }
+
+    /**
+     * Configures the automaton with settings from the provided map.
+     *
+     * @param config a map containing:
+     *               <ul>
+     *                 <li>{@code CONF_GRID}: the {@link Grid} to use</li>
+     *                 <li>{@code CONF_RULES}: the list of {@link Rule} objects for state updates</li>
+     *                 <li>{@code CONF_INTERVAL_MILLIS}: the interval in milliseconds (as a String or Long)</li>
+     *               </ul>
+     * @throws NumberFormatException if {@code CONF_INTERVAL_MILLIS} is not a valid long
+     */
+    public void configure(Map<String, Object> config) {
+        this.grid = (Grid<C, S>) config.get(CONF_GRID);
+        this.rules = (List<Rule<C, S>>) config.get(CONF_RULES);
+        this.intervalMillis = Long.parseLong(String.valueOf(config.get(CONF_INTERVAL_MILLIS)));
+        this.generation = 0;
+        this.gridReplaced = true;
+        if (changeEncoder != null) {
+            grid.enableChangeTracking(changeEncoder);
+        }
+        if (cycleDetector != null) {
+            cycleDetector.reset(grid, rules, generation);
+        }
+    }
+
+    /**
+     * Starts the automaton by invoking {@link #resume()}.
+     */
+    public void start() {
+        resume();
+    }
+
+    /**
+     * Resumes or starts the automaton, scheduling periodic updates at the configured interval.
+     * If already running, this method has no effect.
+     */
+    public void resume() {
+        if (!isRunning) {
+            isRunning = true;
+            LOGGER.info("Automaton resumed with interval: {}ms", intervalMillis);
+            executor.scheduleAtFixedRate(() -> {
+                try {
+                    if (isRunning && advance()) {
+                        if (gridConsumer != null) {
+                            gridConsumer.accept(grid);
+                        } else {
+                            LOGGER.warn("No gridConsumer set");
+                        }
+                    }
+                } catch (Exception e) {
+                    LOGGER.error("Error in step execution: {}", e.getMessage(), e);
+                    isRunning = false;
+                }
+            }, 0, intervalMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Executes a single step of the automaton, applying all configured rules to update cell states.
+     * Rules are applied sequentially to each cell, or to the whole grid at once for a {@link GridRule}, and updated
+     * states are copied back to the grid.
+     * Before the step, each rule is reseeded from the automaton seed, the generation, and the rule's position, so a
+     * run is fully determined by its seed and can be resumed at any generation.
+     * <p>
+     * With a {@link CycleDetector} whose cycle is known, the step follows the detector's {@link CycleDetector.Policy}:
+     * a fixed point only advances the generation and publishes the previous statistics again, and an idle cycle does
+     * nothing.
+     */
+    public void step() {
+        advance();
+    }
+
+    /**
+     * Advances the automaton by one step, skipping computation when the cycle policy allows it.
+     *
+     * @return true if the grid was recomputed, false if it is unchanged
+     */
+    private boolean advance() {
+        CycleDetector<C, S> detector = cycleDetector;
+        if (detector != null) {
+            if (detector.isInvalid()) {
+                detector.reset(grid, rules, generation);
+            }
+            CycleDetector.Cycle cycle = detector.getCycle();
+            if (cycle != null && detector.getPolicy() != CycleDetector.Policy.REPORT) {
+                if (cycle.period() == 1) {
+                    generation++;
+                    repeatStatistics();
+                    publishChanges();
+                    notifyStepListeners();
+                    return false;
+                }
+                if (detector.getPolicy() == CycleDetector.Policy.IDLE) {
+                    return false;
+                }
+            }
+        }
+        compute();
+        notifyStepListeners();
+        return true;
+    }
+
+    /**
+     * Computes one generation and records its hash with the cycle detector.
+     */
+    private void compute() {
+        for (int i = 0; i < rules.size(); i++) {
+            rules.get(i).reseed(deriveSeed(seed, generation, i));
+        }
+        StatisticsCollector<? super S> collector = statisticsCollector;
+        for (int i = 0; i < rules.size(); i++) {
+            Rule<C, S> rule = rules.get(i);
+            if (rule instanceof GridRule<C, S> gridRule) {
+                gridRule.applyToGrid(grid);
+            } else {
+                for (int y = 0; y < grid.getHeight(); y++) {
+                    for (int x = 0; x < grid.getWidth(); x++) {
+                        C cell = grid.getCell(x, y);
+                        rule.apply(grid, cell);
+                    }
+                }
+            }
+            grid.commitNextStates(i == rules.size() - 1 ? collector : null);
+        }
+        generation++;
+        if (collector != null && !rules.isEmpty()) {
+            collector.end(generation);
+        }
+        CycleDetector<C, S> detector = cycleDetector;
+        if (detector != null && detector.isArmed()) {
+            detector.record(grid.getHash(), generation);
+        }
+        publishChanges();
+    }
+
+    /**
+     * Publishes the statistics of the unchanged grid again for the current generation, after its computation was
+     * skipped.
+     */
+    private void repeatStatistics() {
+        StatisticsCollector<? super S> collector = statisticsCollector;
+        if (collector != null && !rules.isEmpty()) {
+            collector.repeat(generation);
+        }
+    }
+
+    /**
+     * Seals the grid's change set for the current generation, hands it to the change listeners, and clears it.
+     */
+    private void publishChanges() {
+        ChangeSet changes = grid.getChangeSet();
+        if (changes == null) {
+            return;
+        }
+        if (gridReplaced) {
+            gridReplaced = false;
+            changes.markAll();
+        }
+        changes.seal(generation);
+        for (Consumer<ChangeSet> listener : changeListeners) {
+            listener.accept(changes);
+        }
+        changes.clear();
+    }
+
+    /**
+     * Notifies the step listeners.
+     */
+    private void notifyStepListeners() {
+        for (Consumer<Automaton<C, S>> listener : stepListeners) {
+            listener.accept(this);
+        }
+    }
+
+    /**
+     * Advances the automaton to a target generation. Once the cycle detector knows a cycle, the remaining
+     * generations are skipped: only {@code (target - generation) % period} of them are computed, which leaves the
+     * grid exactly as a full run would. Until then, generations are computed one by one. Step listeners are only
+     * notified for computed generations; the statistics of the grid are published again for the target generation.
+     * Call this while the automaton is stopped.
+     *
+     * @param targetGeneration the generation to reach; nothing happens if it is not after the current one
+     */
+    public void fastForward(long targetGeneration) {
+        CycleDetector<C, S> detector = cycleDetector;
+        if (detector != null && detector.isInvalid()) {
+            detector.reset(grid, rules, generation);
+        }
+        while (generation < targetGeneration) {
+            CycleDetector.Cycle cycle = detector == null ? null : detector.getCycle();
+            if (cycle != null) {
+                long remaining = (targetGeneration - generation) % cycle.period();
+                for (long i = 0; i < remaining; i++) {
+                    compute();
+                    notifyStepListeners();
+                }
+                if (generation != targetGeneration) {
+                    generation = targetGeneration;
+                    repeatStatistics();
+                }
+                return;
+            }
+            compute();
+            notifyStepListeners();
+        }
+    }
+
+    /**
+     * Sets the detector of fixed points and cycles and starts detection on the current grid.
+     *
+     * @param cycleDetector the detector, or null to disable detection
+     */
+    public void setCycleDetector(CycleDetector<C, S> cycleDetector) {
+        if (this.cycleDetector != null && grid != null) {
+            grid.disableHashing();
+        }
+        this.cycleDetector = cycleDetector;
+        if (cycleDetector != null && grid != null) {
+            cycleDetector.reset(grid, rules, generation);
+        }
+    }
+
+    /**
+     * Sets the collector of per-generation statistics. The collector is fed while the last rule of each step commits
+     * its next states, so statistics cost no extra pass over the grid, and completed after the generation advances.
+     * The one exception is a collector other than a {@code BooleanStatisticsCollector} on a
+     * {@code PackedBooleanGrid}, which is fed cell by cell in a pass of its own.
+     * A fixed point skipped by the cycle policy publishes the statistics of the grid again, through
+     * {@link StatisticsCollector#repeat(long)}, for every skipped generation, and {@link #fastForward(long)} publishes
+     * them once for its target generation. A longer cycle held by the {@code IDLE} policy publishes nothing, since the
+     * generation does not advance.
+     *
+     * @param statisticsCollector the collector, or null to disable collection
+     */
+    public void setStatisticsCollector(StatisticsCollector<? super S> statisticsCollector) {
+        this.statisticsCollector = statisticsCollector;
+    }
+
+    /**
+     * Returns the collector of per-generation statistics.
+     *
+     * @return the collector, or null if collection is disabled
+     */
+    public StatisticsCollector<? super S> getStatisticsCollector() {
+        return statisticsCollector;
+    }
+
+    /**
+     * Enables or disables per-generation change sets. While enabled, the grid marks every cell whose state, as seen
+     * by the encoder, differs after a commit, and each generation's {@link ChangeSet} is handed to the change
+     * listeners. Work downstream can then scale with the number of changes rather than the grid size.
+     *
+     * @param changeEncoder maps a state to the code that defines a change, or null to disable change sets
+     * @see Grid#enableChangeTracking(ToLongFunction)
+     */
+    public void setChangeTracking(ToLongFunction<? super S> changeEncoder) {
+        this.changeEncoder = changeEncoder;
+        this.gridReplaced = true;
+        if (grid != null) {
+            if (changeEncoder != null) {
+                grid.enableChangeTracking(changeEncoder);
+            } else {
+                grid.disableChangeTracking();
+            }
+        }
+    }
+
+    /**
+     * Adds a listener notified on the stepping thread with the change set of each generation, before the step
+     * listeners. The change set is reused for the next generation, so listeners that keep it must take a
+     * {@link ChangeSet#copy()}. Change sets are only produced while change tracking is enabled.
+     *
+     * @param listener the listener to add, must not be null
+     * @throws NullPointerException if listener is null
+     * @see #setChangeTracking(ToLongFunction)
+     */
+    public void addChangeListener(Consumer<ChangeSet> listener) {
+        changeListeners.add(Objects.requireNonNull(listener, "Listener cannot be null"));
+    }
+
+    /**
+     * Removes a previously added change listener.
+     *
+     * @param listener the listener to remove
+     * @return true if the listener was registered
+     */
+    public boolean removeChangeListener(Consumer<ChangeSet> listener) {
+        return changeListeners.remove(listener);
+    }
+
+    /**
+     * Returns the detector of fixed points and cycles.
+     *
+     * @return the detector, or null if detection is disabled
+     */
+    public CycleDetector<C, S> getCycleDetector() {
+        return cycleDetector;
+    }
+
+    /**
+     * Signals that the grid was modified outside the step loop (initialization, editing, restoring), so that cycle
+     * detection restarts before the next generation and the next change set reports every cell.
+     */
+    public void gridChanged() {
+        gridReplaced = true;
+        CycleDetector<C, S> detector = cycleDetector;
+        if (detector != null) {
+            detector.invalidate();
+        }
+    }
+
+    /**
+     * Derives an independent seed for one random stream from a base seed and two stream coordinates, using the
+     * SplitMix64 finalizer so that neighboring coordinates produce uncorrelated seeds.
+     *
+     * @param seed   the base seed
+     * @param major  the first stream coordinate (e.g. the generation)
+     * @param minor  the second stream coordinate (e.g. the rule index)
+     * @return the derived seed
+     */
+    public static long deriveSeed(long seed, long major, long minor) {
+        long z = seed + 0x9E3779B97F4A7C15L * (major + 1) + 0xD1B54A32D192ED03L * (minor + 1);
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    /**
+     * Derives the seed of the grid initializer for a run from the run seed. The stream is distinct from the
+     * per-generation streams of the rules, so seeding both from one run seed makes the whole run reproducible.
+     *
+     * @param seed the run seed
+     * @return the seed to pass to {@link GridInitializer#reseed(long)}
+     */
+    public static long deriveInitializerSeed(long seed) {
+        return deriveSeed(seed, -1, 0);
+    }
+
+    /**
+     * Sets the consumer for rendering or processing the grid after each step.
+     *
+     * @param gridConsumer the consumer to process the grid, or null to disable rendering
+     */
+    public void setGridConsumer(Consumer<Grid<C, S>> gridConsumer) {
+        this.gridConsumer = gridConsumer;
+    }
+
+    /**
+     * Adds a listener notified on the stepping thread after each step, with the generation already advanced.
+     * Listeners must return quickly, since they delay the next step.
+     *
+     * @param listener the listener to add, must not be null
+     * @throws NullPointerException if listener is null
+     */
+    public void addStepListener(Consumer<Automaton<C, S>> listener) {
+        stepListeners.add(Objects.requireNonNull(listener, "Listener cannot be null"));
+    }
+
+    /**
+     * Removes a previously added step listener.
+     *
+     * @param listener the listener to remove
+     * @return true if the listener was registered
+     */
+    public boolean removeStepListener(Consumer<Automaton<C, S>> listener) {
+        return stepListeners.remove(listener);
+    }
+
+    /**
+     * Checks whether the automaton is currently running.
+     *
+     * @return true if the automaton is running, false otherwise
+     */
+    public boolean isRunning() {
+        return isRunning;
+    }
+
+    /**
+     * Returns the grid used by the automaton.
+     *
+     * @return the current {@link Grid}
+     */
+    public Grid<C, S> getGrid() {
+        return grid;
+    }
+
+    /**
+     * Returns the rules applied to update cell states.
+     *
+     * @return the list of {@link Rule} objects
+     */
+    public List<Rule<C, S>> getRules() {
+        return rules;
+    }
+
+    /**
+     * Returns the number of steps executed since the automaton was configured.
+     *
+     * @return the current generation
+     */
+    public long getGeneration() {
+        return generation;
+    }
+
+    /**
+     * Sets the current generation, e.g. when restoring a snapshot. Subsequent random streams are derived from it.
+     *
+     * @param generation the generation, must be non-negative
+     * @throws IllegalArgumentException if generation is negative
+     */
+    public void setGeneration(long generation) {
+        if (generation < 0) {
+            throw new IllegalArgumentException("Generation cannot be negative: " + generation);
+        }
+        this.generation = generation;
+        gridChanged();
+    }
+
+    /**
+     * Returns the seed from which the per-generation random streams of the rules are derived.
+     *
+     * @return the seed
+     */
+    public long getSeed() {
+        return seed;
+    }
+
+    /**
+     * Sets the seed from which the per-generation random streams of the rules are derived.
+     *
+     * @param seed the seed
+     */
+    public void setSeed(long seed) {
+        this.seed = seed;
+    }
+
+    /**
+     * Returns the interval between automaton steps.
+     *
+     * @return the interval in milliseconds
+     */
+    public long getIntervalMillis() {
+        return intervalMillis;
+    }
+
+    /**
+     * Sets the interval between automaton steps. If running, the automaton is stopped, updated, and resumed.
+     *
+     * @param newIntervalMillis the new interval in milliseconds
+     * @throws IllegalArgumentException if the interval is not positive
+     */
+    public void setIntervalMillis(long newIntervalMillis) {
+        if (newIntervalMillis <= 0) {
+            throw new IllegalArgumentException("Interval must be positive: " + newIntervalMillis);
+        }
+        boolean wasRunning = isRunning;
+        if (isRunning) {
+            stop();
+        }
+        this.intervalMillis = newIntervalMillis;
+        if (wasRunning) {
+            resume();
+        }
+        LOGGER.info("Interval updated to {}ms", newIntervalMillis);
+    }
+
+    /**
+     * Stops the automaton, shutting down the executor and halting updates.
+     * A new executor is created for future starts.
+     */
+    public void stop() {
+        if (executor != null) {
+            isRunning = false;
+            executor.shutdown();
+            try {
+                if (!executor.awaitTermination(1, TimeUnit.SECONDS)) {
+                    executor.shutdownNow();
+                }
+            } catch (InterruptedException e) {
+                executor.shutdownNow();
+                Thread.currentThread().interrupt();
+            }
+            LOGGER.info("Automaton stopped");
+            this.executor = Executors.newSingleThreadScheduledExecutor();
+        }
+    }
+}
\ No newline at end of file
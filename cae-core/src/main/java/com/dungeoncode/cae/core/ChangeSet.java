@@ -0,0 +1,353 @@
+package com.dungeoncode.cae.core;
+
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * The cells that changed in one generation: a bitmap with one bit per cell, and the same cells as run-length coded
+ * row spans, so that consumers such as renderers and network streams can update only what changed. For growth and
+ * erosion rules the number of spans is usually orders of magnitude smaller than the grid.
+ * <p>
+ * A grid that tracks changes (see {@link Grid#enableChangeTracking(java.util.function.ToLongFunction)}) marks cells
+ * while committing next states; the {@link Automaton} seals the change set after each generation, hands it to its
+ * change listeners, and clears it for the next generation. The instance is reused, so a listener that needs the
+ * changes after returning must keep a {@link #copy()}.
+ * <p>
+ * A cell is marked when its state, as seen by the tracking encoder, differs before and after a commit. With several
+ * rules per step, a cell that changes and changes back within the step may be marked. A change set marked
+ * {@link #isFull() full} reports every cell, because the grid was edited or replaced outside the step loop.
+ */
+public final class ChangeSet {
+
+    /**
+     * Receives the spans of a change set.
+     */
+    @FunctionalInterface
+    public interface SpanConsumer {
+
+        /**
+         * Accepts a run of changed cells within a row.
+         *
+         * @param y      the row
+         * @param x      the first column of the run
+         * @param length the number of cells in the run, at least 1
+         */
+        void accept(int y, int x, int length);
+    }
+
+    /**
+     * The number of columns.
+     */
+    private final int width;
+
+    /**
+     * The number of rows.
+     */
+    private final int height;
+
+    /**
+     * The number of 64-bit words per row of the bitmap.
+     */
+    private final int wordsPerRow;
+
+    /**
+     * The bitmap of changed cells, row by row; bit {@code x & 63} of word {@code y * wordsPerRow + x / 64} is cell
+     * (x, y).
+     */
+    private final long[] bits;
+
+    /**
+     * The spans as consecutive (row, start column, length) triples.
+     */
+    private int[] spans = new int[3 * 64];
+
+    /**
+     * The number of spans.
+     */
+    private int spanCount;
+
+    /**
+     * The number of changed cells.
+     */
+    private long changedCount;
+
+    /**
+     * The generation the changes lead to.
+     */
+    private long generation;
+
+    /**
+     * Whether every cell is reported as changed.
+     */
+    private boolean full;
+
+    /**
+     * Constructs an empty change set.
+     *
+     * @param width  the number of columns, must be positive
+     * @param height the number of rows, must be positive
+     * @throws IllegalArgumentException if width or height is not positive
+     */
+    public ChangeSet(int width, int height) {
+        if (width <= 0 || height <= 0) {
+            throw new IllegalArgumentException("Width and height must be positive: width=" + width + ", height=" + height);
+        }
+        this.width = width;
+        this.height = height;
+        this.wordsPerRow = (width + 63) >>> 6;
+        this.bits = new long[Math.multiplyExact(wordsPerRow, height)];
+    }
+
+    /**
+     * Marks a cell as changed.
+     *
+     * @param x the column
+     * @param y the row
+     */
+    void mark(int x, int y) {
+        bits[y * wordsPerRow + (x >>> 6)] |= 1L << x;
+    }
+
+    /**
+     * Marks cells of a 64-cell word as changed.
+     *
+     * @param w    the word index within the row
+     * @param y    the row
+     * @param mask the cells to mark, bit {@code i} for column {@code 64 * w + i}
+     */
+    void markWord(int w, int y, long mask) {
+        bits[y * wordsPerRow + w] |= mask;
+    }
+
+    /**
+     * Marks every cell as changed.
+     */
+    void markAll() {
+        full = true;
+    }
+
+    /**
+     * Completes the change set for a generation, computing the spans and the count of changed cells.
+     *
+     * @param generation the generation the changes lead to
+     */
+    void seal(long generation) {
+        this.generation = generation;
+        spanCount = 0;
+        changedCount = 0;
+        if (full) {
+            for (int y = 0; y < height; y++) {
+                addSpan(y, 0, width);
+            }
+            changedCount = (long) width * height;
+            return;
+        }
+        for (int y = 0; y < height; y++) {
+            int row = y * wordsPerRow;
+            int runStart = -1;
+            for (int w = 0; w < wordsPerRow; w++) {
+                long word = bits[row + w];
+                if (word == 0) {
+                    if (runStart >= 0) {
+                        addSpan(y, runStart, (w << 6) - runStart);
+                        runStart = -1;
+                    }
+                    continue;
+                }
+                changedCount += Long.bitCount(word);
+                int bit = 0;
+                while (bit < 64) {
+                    long rest = word >>> bit;
+                    if (runStart < 0) {
+                        if (rest == 0) {
+                            break;
+                        }
+                        bit += Long.numberOfTrailingZeros(rest);
+                        runStart = (w << 6) + bit;
+                    } else {
+                        int ones = Long.numberOfTrailingZeros(~rest);
+                        bit += ones;
+                        if (bit >= 64) {
+                            break;
+                        }
+                        addSpan(y, runStart, (w << 6) + bit - runStart);
+                        runStart = -1;
+                    }
+                }
+            }
+            if (runStart >= 0) {
+                addSpan(y, runStart, width - runStart);
+            }
+        }
+    }
+
+    /**
+     * Appends a span.
+     *
+     * @param y      the row
+     * @param x      the first column
+     * @param length the number of cells
+     */
+    private void addSpan(int y, int x, int length) {
+        int offset = 3 * spanCount;
+        if (offset + 3 > spans.length) {
+            spans = Arrays.copyOf(spans, spans.length * 2);
+        }
+        spans[offset] = y;
+        spans[offset + 1] = x;
+        spans[offset + 2] = length;
+        spanCount++;
+    }
+
+    /**
+     * Clears the change set for the next generation, touching only the words of the current spans.
+     */
+    void clear() {
+        if (!full) {
+            for (int i = 0; i < spanCount; i++) {
+                int row = spans[3 * i] * wordsPerRow;
+                int first = spans[3 * i + 1] >>> 6;
+                int last = (spans[3 * i + 1] + spans[3 * i + 2] - 1) >>> 6;
+                Arrays.fill(bits, row + first, row + last + 1, 0L);
+            }
+        } else {
+            Arrays.fill(bits, 0L);
+        }
+        full = false;
+        spanCount = 0;
+        changedCount = 0;
+    }
+
+    /**
+     * Returns an independent copy that stays valid after the automaton reuses this change set.
+     *
+     * @return the copy
+     */
+    public ChangeSet copy() {
+        ChangeSet copy = new ChangeSet(width, height);
+        System.arraycopy(bits, 0, copy.bits, 0, bits.length);
+        copy.spans = Arrays.copyOf(spans, Math.max(3, 3 * spanCount));
+        copy.spanCount = spanCount;
+        copy.changedCount = changedCount;
+        copy.generation = generation;
+        copy.full = full;
+        return copy;
+    }
+
+    /**
+     * Returns whether a cell changed.
+     *
+     * @param x the column
+     * @param y the row
+     * @return true if the cell changed
+     * @throws IndexOutOfBoundsException if the coordinates are out of bounds
+     */
+    public boolean isChanged(int x, int y) {
+        Objects.checkIndex(x, width);
+        Objects.checkIndex(y, height);
+        return full || (bits[y * wordsPerRow + (x >>> 6)] & (1L << x)) != 0;
+    }
+
+    /**
+     * Returns a 64-cell word of the bitmap.
+     *
+     * @param w the word index within the row
+     * @param y the row
+     * @return the word, bit {@code i} set if column {@code 64 * w + i} changed
+     * @throws IndexOutOfBoundsException if the indices are out of bounds
+     */
+    public long getWord(int w, int y) {
+        Objects.checkIndex(w, wordsPerRow);
+        Objects.checkIndex(y, height);
+        if (full) {
+            int cells = Math.min(64, width - (w << 6));
+            return cells == 64 ? -1L : (1L << cells) - 1;
+        }
+        return bits[y * wordsPerRow + w];
+    }
+
+    /**
+     * Visits the spans in row order, and within a row by increasing column.
+     *
+     * @param consumer the consumer of spans, must not be null
+     */
+    public void forEachSpan(SpanConsumer consumer) {
+        Objects.requireNonNull(consumer, "Consumer cannot be null");
+        for (int i = 0; i < spanCount; i++) {
+            consumer.accept(spans[3 * i], spans[3 * i + 1], spans[3 * i + 2]);
+        }
+    }
+
+    /**
+     * Returns the number of spans.
+     *
+     * @return the span count
+     */
+    public int getSpanCount() {
+        return spanCount;
+    }
+
+    /**
+     * Returns the number of changed cells.
+     *
+     * @return the count
+     */
+    public long getChangedCount() {
+        return changedCount;
+    }
+
+    /**
+     * Returns whether no cell changed.
+     *
+     * @return true if the change set is empty
+     */
+    public boolean isEmpty() {
+        return changedCount == 0;
+    }
+
+    /**
+     * Returns whether every cell is reported as changed because the grid was edited or replaced outside the step
+     * loop.
+     *
+     * @return true if the change set is full
+     */
+    public boolean isFull() {
+        return full;
+    }
+
+    /**
+     * Returns the generation the changes lead to.
+     *
+     * @return the generation
+     */
+    public long getGeneration() {
+        return generation;
+    }
+
+    /**
+     * Returns the number of columns.
+     *
+     * @return the width
+     */
+    public int getWidth() {
+        return width;
+    }
+
+    /**
+     * Returns the number of rows.
+     *
+     * @return the height
+     */
+    public int getHeight() {
+        return height;
+    }
+
+    /**
+     * Returns the number of 64-bit words per row of the bitmap.
+     *
+     * @return the words per row
+     */
+    public int getWordsPerRow() {
+        return wordsPerRow;
+    }
+}
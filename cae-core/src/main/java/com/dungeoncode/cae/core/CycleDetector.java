@@ -0,0 +1,253 @@
+package com.dungeoncode.cae.core;
+
+import com.dungeoncode.cae.core.impl.BooleanCell;
+import com.dungeoncode.cae.core.impl.BooleanState;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.annotation.Nonnull;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.ToLongFunction;
+
+/**
+ * Detects fixed points and oscillations of a deterministic automaton. The grid maintains an incremental
+ * Zobrist-style hash (see {@link Grid#enableHashing(ToLongFunction)}), updated only for the cells that change in a
+ * generation; the detector keeps the hashes of the last few generations and reports a cycle as soon as a hash
+ * repeats. A cycle of period 1 is a fixed point.
+ * <p>
+ * Detection is only armed when every rule of the automaton is {@link Rule#isDeterministic() deterministic}: with
+ * random rules, a repeated grid does not imply a repeated future. Hashes are 64 bits wide, so a false cycle requires
+ * a collision with one of the remembered hashes, with probability about {@code historySize * 2^-64} per generation.
+ * <p>
+ * Once a cycle is known, the {@link Policy} decides what {@link Automaton#step()} does; in every case
+ * {@link Automaton#fastForward(long)} jumps ahead by computing at most {@code period - 1} generations.
+ *
+ * @param <C> the type of cells in the automaton, extending {@link Cell}
+ * @param <S> the type of cell states, extending {@link CellState}
+ */
+public class CycleDetector<C extends Cell<S>, S extends CellState<?>> {
+
+    /**
+     * Logger for detected cycles.
+     */
+    private static final Logger LOGGER = LoggerFactory.getLogger(CycleDetector.class);
+
+    /**
+     * What the automaton does once a cycle is detected.
+     */
+    public enum Policy {
+        /**
+         * Keep computing every generation; the cycle is only reported.
+         */
+        REPORT,
+        /**
+         * Stop computing. A fixed point keeps counting generations, since the grid is exact for every later
+         * generation; a longer cycle freezes the automaton at the generation where it was detected.
+         */
+        IDLE,
+        /**
+         * Skip computation of fixed points, counting generations without work; keep computing longer cycles so that
+         * their oscillation stays visible.
+         */
+        FAST_FORWARD
+    }
+
+    /**
+     * A detected cycle.
+     *
+     * @param startGeneration the first generation of the cycle
+     * @param period          the number of generations after which the grid repeats
+     */
+    public record Cycle(long startGeneration, long period) {
+    }
+
+    /**
+     * Encodes cell states for the grid hash.
+     */
+    private final ToLongFunction<? super S> stateEncoder;
+
+    /**
+     * The number of remembered generations, the longest detectable period.
+     */
+    private final int historySize;
+
+    /**
+     * The action taken once a cycle is detected.
+     */
+    private final Policy policy;
+
+    /**
+     * The remembered hashes, as a ring indexed by generation modulo the history size.
+     */
+    private final long[] hashes;
+
+    /**
+     * The generation of each remembered hash.
+     */
+    private final long[] generations;
+
+    /**
+     * The generation at which each remembered hash was last seen.
+     */
+    private final Map<Long, Long> seen = new HashMap<>();
+
+    /**
+     * The number of valid entries in the ring.
+     */
+    private int size;
+
+    /**
+     * Whether every rule is deterministic, so that detection is meaningful.
+     */
+    private boolean armed;
+
+    /**
+     * The detected cycle, or null.
+     */
+    private volatile Cycle cycle;
+
+    /**
+     * Whether the grid was edited outside the step loop since the last reset.
+     */
+    private volatile boolean invalid = true;
+
+    /**
+     * Constructs a detector.
+     *
+     * @param stateEncoder maps a state to a 64-bit code covering every field that influences future generations,
+     *                     must not be null
+     * @param historySize  the number of remembered generations, the longest detectable period, must be positive
+     * @param policy       the action once a cycle is detected, must not be null
+     * @throws NullPointerException     if stateEncoder or policy is null
+     * @throws IllegalArgumentException if historySize is not positive
+     */
+    public CycleDetector(@Nonnull ToLongFunction<? super S> stateEncoder, int historySize, @Nonnull Policy policy) {
+        this.stateEncoder = Objects.requireNonNull(stateEncoder, "State encoder cannot be null");
+        this.policy = Objects.requireNonNull(policy, "Policy cannot be null");
+        if (historySize <= 0) {
+            throw new IllegalArgumentException("History size must be positive: " + historySize);
+        }
+        this.historySize = historySize;
+        this.hashes = new long[historySize];
+        this.generations = new long[historySize];
+    }
+
+    /**
+     * Creates a detector for boolean grids, hashing value, echo, live sum, and id of every cell.
+     *
+     * @param historySize the number of remembered generations, must be positive
+     * @param policy      the action once a cycle is detected, must not be null
+     * @return the detector
+     */
+    public static CycleDetector<BooleanCell, BooleanState> forBooleanGrids(int historySize, @Nonnull Policy policy) {
+        return new CycleDetector<>(BooleanState::encode, historySize, policy);
+    }
+
+    /**
+     * Starts detection afresh on a grid: enables or recomputes its hash, forgets the history and any detected
+     * cycle, and records the current grid.
+     *
+     * @param grid       the automaton's grid
+     * @param rules      the automaton's rules
+     * @param generation the current generation
+     */
+    void reset(Grid<C, S> grid, List<Rule<C, S>> rules, long generation) {
+        invalid = false;
+        cycle = null;
+        seen.clear();
+        size = 0;
+        armed = grid != null && rules != null && rules.stream().allMatch(Rule::isDeterministic);
+        if (armed) {
+            grid.enableHashing(stateEncoder);
+            record(grid.getHash(), generation);
+        } else if (grid != null) {
+            grid.disableHashing();
+        }
+    }
+
+    /**
+     * Records the hash of a newly computed generation and checks it against the history.
+     *
+     * @param hash       the grid hash
+     * @param generation the generation of the grid
+     * @return the newly detected cycle, or null
+     */
+    Cycle record(long hash, long generation) {
+        if (!armed || cycle != null) {
+            return null;
+        }
+        Long previous = seen.get(hash);
+        if (previous != null) {
+            Cycle detected = new Cycle(previous, generation - previous);
+            cycle = detected;
+            LOGGER.info("Cycle detected: period {} from generation {}", detected.period(), detected.startGeneration());
+            return detected;
+        }
+        int slot = (int) Math.floorMod(generation, (long) historySize);
+        if (size == historySize) {
+            seen.remove(hashes[slot], generations[slot]);
+        } else {
+            size++;
+        }
+        hashes[slot] = hash;
+        generations[slot] = generation;
+        seen.put(hash, generation);
+        return null;
+    }
+
+    /**
+     * Marks the history as stale after the grid was edited outside the step loop; the automaton resets the detector
+     * before its next generation.
+     */
+    public void invalidate() {
+        invalid = true;
+    }
+
+    /**
+     * Returns whether the detector must be reset before the next generation.
+     *
+     * @return true if the history is stale
+     */
+    boolean isInvalid() {
+        return invalid;
+    }
+
+    /**
+     * Returns the detected cycle.
+     *
+     * @return the cycle, or null if none has been detected since the last reset
+     */
+    public Cycle getCycle() {
+        return cycle;
+    }
+
+    /**
+     * Returns whether detection is active, which requires every rule to be deterministic.
+     *
+     * @return true if armed
+     */
+    public boolean isArmed() {
+        return armed;
+    }
+
+    /**
+     * Returns the action taken once a cycle is detected.
+     *
+     * @return the policy
+     */
+    public Policy getPolicy() {
+        return policy;
+    }
+
+    /**
+     * Returns the number of remembered generations.
+     *
+     * @return the history size
+     */
+    public int getHistorySize() {
+        return historySize;
+    }
+}
@@ -0,0 +1,522 @@
+package com.dungeoncode.cae.core;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.annotation.Nonnull;
+import java.util.ArrayDeque;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Publishes generation frames to any number of {@link Flow.Subscriber subscribers}, such as renderers, recorders and
+ * analytics, without letting any of them slow down the simulation or each other.
+ * <p>
+ * Every subscriber gets its own executor, its own demand and its own bounded buffer, and is signalled serially on
+ * its executor. Publishing never blocks: when a subscriber's buffer is full, its {@link Policy} decides whether the
+ * new frame is dropped or replaces the oldest buffered one, and the loss is counted. A frame is built at most once
+ * per publication and only if at least one subscriber has room for it, so a publisher whose subscribers are all
+ * behind costs the stepping thread nothing.
+ * <p>
+ * Frames are shared between subscribers and must therefore be immutable, for instance
+ * {@link com.dungeoncode.cae.core.impl.BooleanFrame}s. A publisher is usually fed by a step listener:
+ * <pre>{@code
+ * FramePublisher<BooleanFrame> frames = new FramePublisher<>();
+ * automaton.addStepListener(frames.feed(a -> BooleanFrame.capture(a.getGrid(), a.getGeneration())));
+ * frames.subscribe(renderer, renderExecutor, FramePublisher.Policy.LATEST, 1);
+ * }</pre>
+ *
+ * @param <T> the frame type
+ */
+public class FramePublisher<T> implements Flow.Publisher<T>, AutoCloseable {
+
+    /**
+     * What happens to a frame published while a subscriber's buffer is full.
+     */
+    public enum Policy {
+        /**
+         * The new frame is dropped; the subscriber sees every frame up to the point it fell behind.
+         */
+        DROP,
+        /**
+         * The oldest buffered frame is dropped to make room; with a buffer of one, the subscriber always receives the
+         * most recent frame.
+         */
+        LATEST
+    }
+
+    /**
+     * The buffer size of subscribers added without one.
+     */
+    public static final int DEFAULT_BUFFER_SIZE = 1;
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(FramePublisher.class);
+
+    /**
+     * The executor of subscribers added without one: the common pool, or a thread per task if the common pool cannot
+     * run tasks in parallel, so that one slow subscriber cannot starve the others.
+     */
+    private static final Executor DEFAULT_EXECUTOR = ForkJoinPool.getCommonPoolParallelism() > 1
+            ? ForkJoinPool.commonPool()
+            : FramePublisher::startThread;
+
+    /**
+     * The active subscriptions.
+     */
+    private final List<FrameSubscription<T>> subscriptions = new CopyOnWriteArrayList<>();
+
+    /**
+     * The number of frames dropped across all subscriptions.
+     */
+    private final AtomicLong droppedCount = new AtomicLong();
+
+    /**
+     * Whether the publisher has been closed.
+     */
+    private volatile boolean closed;
+
+    /**
+     * Subscribes with the default executor, the {@link Policy#LATEST} policy and a buffer of
+     * {@link #DEFAULT_BUFFER_SIZE} frames.
+     *
+     * @param subscriber the subscriber, must not be null
+     * @throws NullPointerException if subscriber is null
+     */
+    @Override
+    public void subscribe(Flow.Subscriber<? super T> subscriber) {
+        subscribe(subscriber, DEFAULT_EXECUTOR, Policy.LATEST, DEFAULT_BUFFER_SIZE);
+    }
+
+    /**
+     * Subscribes with a dedicated executor, overflow policy and buffer size. The subscriber is signalled on the
+     * executor, one signal at a time, starting with {@code onSubscribe}. Subscribing to a closed publisher completes
+     * the subscriber immediately; subscribing the same subscriber twice signals {@link IllegalStateException}.
+     *
+     * @param subscriber the subscriber, must not be null
+     * @param executor   the executor that runs the subscriber's signals, must not be null
+     * @param policy     what to do with frames published while the buffer is full, must not be null
+     * @param bufferSize the maximum number of frames buffered for the subscriber, must be positive
+     * @throws NullPointerException     if subscriber, executor or policy is null
+     * @throws IllegalArgumentException if bufferSize is not positive
+     */
+    public void subscribe(@Nonnull Flow.Subscriber<? super T> subscriber,
+                          @Nonnull Executor executor, @Nonnull Policy policy, int bufferSize) {
+        Objects.requireNonNull(subscriber, "Subscriber cannot be null");
+        Objects.requireNonNull(executor, "Executor cannot be null");
+        Objects.requireNonNull(policy, "Policy cannot be null");
+        if (bufferSize <= 0) {
+            throw new IllegalArgumentException("Buffer size must be positive: " + bufferSize);
+        }
+        FrameSubscription<T> subscription = new FrameSubscription<>(this, subscriber, executor, policy, bufferSize);
+        synchronized (subscriptions) {
+            if (subscriptions.stream().anyMatch(s -> s.subscriber == subscriber)) {
+                subscription.terminate(new IllegalStateException("Subscriber is already subscribed"));
+            } else if (closed) {
+                subscription.terminate(null);
+            } else {
+                subscriptions.add(subscription);
+            }
+        }
+        subscription.schedule();
+    }
+
+    /**
+     * Publishes a frame to every subscriber, building it only if at least one subscriber has room for it. Never
+     * blocks; frames a subscriber has no room for are handled according to its policy.
+     *
+     * @param frames supplies the frame, called at most once, must not be null and must not return null
+     * @return the number of subscribers the frame was buffered for, 0 if the publisher is closed
+     * @throws NullPointerException if frames is null or returns null
+     */
+    public int offer(@Nonnull Supplier<? extends T> frames) {
+        Objects.requireNonNull(frames, "Frame supplier cannot be null");
+        if (closed) {
+            return 0;
+        }
+        T frame = null;
+        int buffered = 0;
+        for (FrameSubscription<T> subscription : subscriptions) {
+            if (!subscription.hasRoom()) {
+                subscription.drop();
+                continue;
+            }
+            if (frame == null) {
+                frame = Objects.requireNonNull(frames.get(), "Frame cannot be null");
+            }
+            if (subscription.offer(frame)) {
+                buffered++;
+            }
+        }
+        return buffered;
+    }
+
+    /**
+     * Publishes an already built frame to every subscriber.
+     *
+     * @param frame the frame, must not be null
+     * @return the number of subscribers the frame was buffered for, 0 if the publisher is closed
+     * @throws NullPointerException if frame is null
+     */
+    public int submit(@Nonnull T frame) {
+        Objects.requireNonNull(frame, "Frame cannot be null");
+        return offer(() -> frame);
+    }
+
+    /**
+     * Returns a listener that publishes a frame captured from its argument, suitable as an
+     * {@link Automaton#addStepListener(Consumer) automaton step listener}. The capture runs on the calling thread,
+     * and only when some subscriber has room for the frame.
+     *
+     * @param capture builds a frame from the listener argument, must not be null
+     * @param <A>     the listener argument type
+     * @return the listener
+     * @throws NullPointerException if capture is null
+     */
+    public <A> Consumer<A> feed(@Nonnull Function<? super A, ? extends T> capture) {
+        Objects.requireNonNull(capture, "Capture cannot be null");
+        return argument -> offer(() -> capture.apply(argument));
+    }
+
+    /**
+     * Closes the publisher. Each subscriber receives its buffered frames as it requests them, then
+     * {@code onComplete}; later publications are ignored.
+     */
+    @Override
+    public void close() {
+        closeWith(null);
+    }
+
+    /**
+     * Closes the publisher with an error. Each subscriber receives {@code onError} after its buffered frames.
+     *
+     * @param error the error, must not be null
+     * @throws NullPointerException if error is null
+     */
+    public void closeExceptionally(@Nonnull Throwable error) {
+        closeWith(Objects.requireNonNull(error, "Error cannot be null"));
+    }
+
+    /**
+     * Closes the publisher and terminates every subscription.
+     *
+     * @param error the error to signal, or null to complete normally
+     */
+    private void closeWith(Throwable error) {
+        synchronized (subscriptions) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+        }
+        for (FrameSubscription<T> subscription : subscriptions) {
+            subscription.terminate(error);
+            subscription.schedule();
+        }
+    }
+
+    /**
+     * Runs a task on a new daemon thread.
+     *
+     * @param task the task
+     */
+    private static void startThread(Runnable task) {
+        Thread thread = new Thread(task, "cae-frame-subscriber");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Returns whether the publisher has been closed.
+     *
+     * @return true if closed
+     */
+    public boolean isClosed() {
+        return closed;
+    }
+
+    /**
+     * Returns the number of active subscribers.
+     *
+     * @return the subscriber count
+     */
+    public int getSubscriberCount() {
+        return subscriptions.size();
+    }
+
+    /**
+     * Returns the number of frames dropped across all subscribers because their buffers were full.
+     *
+     * @return the dropped frame count
+     */
+    public long getDroppedCount() {
+        return droppedCount.get();
+    }
+
+    /**
+     * The state of one subscriber: its buffer, demand and delivery loop. Signals run on the subscriber's executor,
+     * and a work counter ensures at most one delivery loop runs at a time.
+     *
+     * @param <T> the frame type
+     */
+    private static final class FrameSubscription<T> implements Flow.Subscription, Runnable {
+
+        /**
+         * The publisher, to remove the subscription when it ends.
+         */
+        private final FramePublisher<T> publisher;
+
+        /**
+         * The subscriber.
+         */
+        private final Flow.Subscriber<? super T> subscriber;
+
+        /**
+         * The executor that runs the delivery loop.
+         */
+        private final Executor executor;
+
+        /**
+         * What to do with frames published while the buffer is full.
+         */
+        private final Policy policy;
+
+        /**
+         * The maximum number of buffered frames.
+         */
+        private final int bufferSize;
+
+        /**
+         * The frames not yet delivered, oldest first; also the lock of the buffer and termination state.
+         */
+        private final ArrayDeque<T> buffer = new ArrayDeque<>();
+
+        /**
+         * The number of frames requested and not yet delivered, {@link Long#MAX_VALUE} meaning unbounded.
+         */
+        private final AtomicLong demand = new AtomicLong();
+
+        /**
+         * The number of pending delivery requests; the loop runs while it is positive.
+         */
+        private final AtomicInteger work = new AtomicInteger();
+
+        /**
+         * Whether the subscription has been cancelled or has delivered its terminal signal.
+         */
+        private volatile boolean cancelled;
+
+        /**
+         * Whether no more frames will be buffered and a terminal signal is due once the buffer is empty.
+         */
+        private boolean terminating;
+
+        /**
+         * The error to signal on termination, or null to complete normally.
+         */
+        private Throwable error;
+
+        /**
+         * Whether {@code onSubscribe} has been signalled; only accessed by the delivery loop.
+         */
+        private boolean subscribed;
+
+        /**
+         * Constructs a subscription.
+         *
+         * @param publisher  the publisher
+         * @param subscriber the subscriber
+         * @param executor   the executor that runs the delivery loop
+         * @param policy     the overflow policy
+         * @param bufferSize the maximum number of buffered frames
+         */
+        FrameSubscription(FramePublisher<T> publisher, Flow.Subscriber<? super T> subscriber,
+                     Executor executor, Policy policy, int bufferSize) {
+            this.publisher = publisher;
+            this.subscriber = subscriber;
+            this.executor = executor;
+            this.policy = policy;
+            this.bufferSize = bufferSize;
+        }
+
+        /**
+         * Returns whether a new frame would be buffered rather than dropped.
+         *
+         * @return true unless the buffer is full under the {@link Policy#DROP} policy
+         */
+        boolean hasRoom() {
+            if (policy == Policy.LATEST) {
+                return true;
+            }
+            synchronized (buffer) {
+                return buffer.size() < bufferSize;
+            }
+        }
+
+        /**
+         * Counts a frame dropped without being offered.
+         */
+        void drop() {
+            publisher.droppedCount.incrementAndGet();
+        }
+
+        /**
+         * Buffers a frame according to the policy and schedules delivery.
+         *
+         * @param frame the frame
+         * @return true if the frame was buffered
+         */
+        boolean offer(T frame) {
+            synchronized (buffer) {
+                if (cancelled || terminating) {
+                    return false;
+                }
+                if (buffer.size() >= bufferSize) {
+                    drop();
+                    if (policy == Policy.DROP) {
+                        return false;
+                    }
+                    buffer.poll();
+                }
+                buffer.add(frame);
+            }
+            schedule();
+            return true;
+        }
+
+        /**
+         * Marks the subscription as terminating once its buffer is drained. Does nothing if already terminating.
+         *
+         * @param error the error to signal, or null to complete normally
+         */
+        void terminate(Throwable error) {
+            synchronized (buffer) {
+                if (!terminating) {
+                    terminating = true;
+                    this.error = error;
+                }
+            }
+        }
+
+        /**
+         * Adds demand and schedules delivery. A non-positive request terminates the subscription with
+         * {@link IllegalArgumentException}, discarding buffered frames.
+         *
+         * @param n the number of additional frames requested
+         */
+        @Override
+        public void request(long n) {
+            if (n <= 0) {
+                synchronized (buffer) {
+                    buffer.clear();
+                    terminating = true;
+                    error = new IllegalArgumentException("Requested frames must be positive: " + n);
+                }
+            } else {
+                demand.getAndUpdate(d -> d + n < 0 ? Long.MAX_VALUE : d + n);
+            }
+            schedule();
+        }
+
+        /**
+         * Cancels the subscription. Buffered frames are discarded and no further signals are delivered.
+         */
+        @Override
+        public void cancel() {
+            cancelled = true;
+            synchronized (buffer) {
+                buffer.clear();
+            }
+            publisher.subscriptions.remove(this);
+        }
+
+        /**
+         * Runs the delivery loop on the executor unless it is already running, in which case the running loop makes
+         * another pass. A rejected execution cancels the subscription.
+         */
+        void schedule() {
+            if (work.getAndIncrement() == 0) {
+                try {
+                    executor.execute(this);
+                } catch (RejectedExecutionException e) {
+                    LOGGER.warn("Frame subscriber {} cancelled, executor rejected delivery", subscriber, e);
+                    cancel();
+                }
+            }
+        }
+
+        /**
+         * Signals {@code onSubscribe} on the first pass, then delivers frames while there is demand, and the terminal
+         * signal once the buffer is drained.
+         */
+        @Override
+        public void run() {
+            int missed = 1;
+            do {
+                if (!subscribed) {
+                    subscribed = true;
+                    try {
+                        subscriber.onSubscribe(this);
+                    } catch (Throwable t) {
+                        LOGGER.warn("Frame subscriber {} failed in onSubscribe, cancelling", subscriber, t);
+                        cancel();
+                    }
+                }
+                deliver();
+                missed = work.addAndGet(-missed);
+            } while (missed != 0);
+        }
+
+        /**
+         * Delivers buffered frames while there is demand, then the terminal signal if due.
+         */
+        private void deliver() {
+            while (!cancelled) {
+                T frame = null;
+                Throwable terminal = null;
+                boolean end = false;
+                synchronized (buffer) {
+                    if (demand.get() > 0) {
+                        frame = buffer.poll();
+                    }
+                    if (frame == null && terminating && buffer.isEmpty()) {
+                        end = true;
+                        terminal = error;
+                    }
+                }
+                if (frame != null) {
+                    demand.getAndUpdate(d -> d == Long.MAX_VALUE ? d : d - 1);
+                    try {
+                        subscriber.onNext(frame);
+                    } catch (Throwable t) {
+                        LOGGER.warn("Frame subscriber {} failed in onNext, cancelling", subscriber, t);
+                        cancel();
+                    }
+                    continue;
+                }
+                if (end) {
+                    cancel();
+                    try {
+                        if (terminal != null) {
+                            subscriber.onError(terminal);
+                        } else {
+                            subscriber.onComplete();
+                        }
+                    } catch (Throwable t) {
+                        LOGGER.warn("Frame subscriber {} failed on termination", subscriber, t);
+                    }
+                }
+                return;
+            }
+        }
+    }
+}
@@ -0,0 +1,421 @@
+package com.dungeoncode.cae.core;
+
+import javax.annotation.Nonnull;
+import java.util.Objects;
+import java.util.function.ToLongFunction;
+
+/**
+ * Manages a 2D grid of cells in a cellular automaton, storing cells of type {@code C} with states of type {@code S}.
+ * The grid has a fixed width (columns) and height (rows), supports initialization, and allows manipulation of cell states.
+ * Cells are stored in row-major order and accessed or modified using coordinates.
+ *
+ * @param <C> the type of cells in the grid, extending {@link Cell}
+ * @param <S> the type of cell states, extending {@link CellState}
+ */
+public class Grid<C extends Cell<S>, S extends CellState<?>> {
+
+    /**
+     * The 2D array storing cells, indexed as [row][column] in row-major order.
+     */
+    private final C[][] grid;
+
+    /**
+     * The number of columns (x-axis) in the grid.
+     */
+    private final int width;
+
+    /**
+     * The number of rows (y-axis) in the grid.
+     */
+    private final int height;
+
+    /**
+     * The initializer used to populate the grid with cells, or null if no initialization is performed.
+     */
+    private final GridInitializer<C, S> initializer;
+
+    /**
+     * The 2D array storing next states for the next grid update.
+     */
+    private S[][] nextStates;
+
+    /**
+     * Encodes cell states for hashing, or null if the grid hash is not maintained.
+     */
+    private ToLongFunction<? super S> stateEncoder;
+
+    /**
+     * The Zobrist-style hash of the grid: the XOR of {@link #cellHash(int, long)} over all cells.
+     */
+    private long hash;
+
+    /**
+     * Encodes cell states for change tracking, or null if changes are not tracked.
+     */
+    private ToLongFunction<? super S> changeEncoder;
+
+    /**
+     * The cells changed by commits since the change set was last cleared, or null if changes are not tracked.
+     */
+    private ChangeSet changes;
+
+    /**
+     * Constructs a new grid with the specified dimensions and initializer.
+     * The grid is initialized using the provided {@link GridInitializer}, or all cells are set to null if no initializer is provided.
+     *
+     * @param width       the number of columns (x-axis), must be positive
+     * @param height      the number of rows (y-axis), must be positive
+     * @param initializer the {@link GridInitializer} to populate the grid, or null to set cells to null
+     */
+    public Grid(final int width, final int height, GridInitializer<C, S> initializer) {
+        this(width, height, initializer, true);
+        initialize();
+    }
+
+    /**
+     * Constructs a new grid for subclasses that store their cells elsewhere, such as {@code PackedBooleanGrid}.
+     * The grid is not initialized; subclasses call {@link #initialize()} once their storage is ready.
+     *
+     * @param width         the number of columns (x-axis), must be positive
+     * @param height        the number of rows (y-axis), must be positive
+     * @param initializer   the {@link GridInitializer} to populate the grid, or null
+     * @param allocateCells whether to allocate the cell array; if false, subclasses must override the cell accessors
+     * @throws IllegalArgumentException if width or height is not positive
+     */
+    protected Grid(final int width, final int height, GridInitializer<C, S> initializer, boolean allocateCells) {
+        if (width <= 0 || height <= 0) {
+            throw new IllegalArgumentException("Width and height must be positive: width=" + width + ", height=" + height);
+        }
+        this.width = width;
+        this.height = height;
+        this.grid = allocateCells ? (C[][]) new Cell[height][width] : null;
+        this.initializer = initializer;
+    }
+
+    /**
+     * Initializes the grid using the stored {@link GridInitializer}. If no initializer is provided, all cells remain null.
+     */
+    public void initialize() {
+        if (initializer != null) {
+            initializer.initializeGrid(this);
+        }
+    }
+
+    /**
+     * Copies the next state to the cell at the specified coordinates.
+     *
+     * @param x the x-coordinate (column), zero-based
+     * @param y the y-coordinate (row), zero-based
+     * @throws IllegalArgumentException if the coordinates are out of bounds
+     * @throws IllegalStateException    if the cell or next state at (x, y) is null
+     */
+    public void copyCellState(int x, int y) {
+        if (x < 0 || x >= width || y < 0 || y >= height) {
+            throw new IllegalArgumentException("Coordinates out of bounds: (" + x + ", " + y + ")");
+        }
+        C cell = grid[y][x];
+        S state = nextStates[y][x];
+        if (cell == null) {
+            throw new IllegalStateException("Cannot set state: cell at (" + x + ", " + y + ") is null");
+        }
+        if (state == null) {
+            throw new IllegalStateException("Cannot set state: next state at (" + x + ", " + y + ") is null");
+        }
+        cell.copyState(state);
+    }
+
+    /**
+     * Copies the next states of all cells to the cells, completing a rule pass. Row-major order is used so that
+     * consecutive copies touch adjacent memory.
+     */
+    public void commitNextStates() {
+        commitNextStates(null);
+    }
+
+    /**
+     * Copies the next states of all cells to the cells, completing a rule pass, and feeds each committed state to a
+     * statistics collector in the same loop. Row-major order is used so that consecutive copies touch adjacent
+     * memory. When the hash is maintained or changes are tracked, each cell is encoded before and after its copy.
+     *
+     * @param collector the collector to feed, or null to only commit
+     */
+    public void commitNextStates(StatisticsCollector<? super S> collector) {
+        if (collector != null) {
+            collector.begin(width, height);
+        }
+        ToLongFunction<? super S> hashEncoder = stateEncoder;
+        ToLongFunction<? super S> trackEncoder = changes != null ? changeEncoder : null;
+        boolean observed = hashEncoder != null || trackEncoder != null || collector != null;
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                if (!observed) {
+                    copyCellState(x, y);
+                    continue;
+                }
+                C cell = getCell(x, y);
+                long hashBefore = hashEncoder != null ? hashEncoder.applyAsLong(cell.getState()) : 0;
+                long trackBefore = trackEncoder != null ? trackEncoder.applyAsLong(cell.getState()) : 0;
+                copyCellState(x, y);
+                S state = cell.getState();
+                if (hashEncoder != null) {
+                    long after = hashEncoder.applyAsLong(state);
+                    if (hashBefore != after) {
+                        updateHash(y * width + x, hashBefore, after);
+                    }
+                }
+                if (trackEncoder != null && trackEncoder.applyAsLong(state) != trackBefore) {
+                    changes.mark(x, y);
+                }
+                if (collector != null) {
+                    collector.accept(state);
+                }
+            }
+        }
+    }
+
+    /**
+     * Starts maintaining a hash of the grid, updated incrementally as next states are committed, so that repeated
+     * grids can be recognized in constant time per generation. Two cells hash equal only if the encoder maps their
+     * states to the same code, so the encoder must cover every field that influences future generations.
+     * <p>
+     * Edits that bypass {@link #commitNextStates()}, such as {@link #setCell(int, int, Cell)}, re-initialization, or
+     * changing a state in place, leave the hash stale until {@link #rehash()} is called.
+     *
+     * @param stateEncoder maps a state to a 64-bit code, must not be null
+     * @throws NullPointerException if stateEncoder is null
+     */
+    public void enableHashing(@Nonnull ToLongFunction<? super S> stateEncoder) {
+        this.stateEncoder = Objects.requireNonNull(stateEncoder, "State encoder cannot be null");
+        rehash();
+    }
+
+    /**
+     * Stops maintaining the grid hash.
+     */
+    public void disableHashing() {
+        this.stateEncoder = null;
+        this.hash = 0;
+    }
+
+    /**
+     * Returns whether the grid hash is maintained.
+     *
+     * @return true if hashing is enabled
+     */
+    public boolean isHashing() {
+        return stateEncoder != null;
+    }
+
+    /**
+     * Recomputes the grid hash from all cells, after edits that bypassed {@link #commitNextStates()}.
+     *
+     * @throws IllegalStateException if hashing is not enabled
+     */
+    public void rehash() {
+        if (stateEncoder == null) {
+            throw new IllegalStateException("Grid hashing is not enabled");
+        }
+        long h = 0;
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                C cell = getCell(x, y);
+                if (cell != null) {
+                    h ^= cellHash(y * width + x, stateEncoder.applyAsLong(cell.getState()));
+                }
+            }
+        }
+        this.hash = h;
+    }
+
+    /**
+     * Returns the grid hash. Equal grids have equal hashes; distinct grids collide with probability about 2^-64.
+     *
+     * @return the hash
+     * @throws IllegalStateException if hashing is not enabled
+     */
+    public long getHash() {
+        if (stateEncoder == null) {
+            throw new IllegalStateException("Grid hashing is not enabled");
+        }
+        return hash;
+    }
+
+    /**
+     * Starts tracking which cells change as next states are committed. Cells are compared through an encoder, so the
+     * caller decides what counts as a change: for example {@code s -> s.getValue() ? 1 : 0} for flipped boolean
+     * cells, or {@link com.dungeoncode.cae.core.impl.BooleanState#encode} for any change of a boolean state.
+     *
+     * @param changeEncoder maps a state to a 64-bit code, must not be null
+     * @throws NullPointerException if changeEncoder is null
+     */
+    public void enableChangeTracking(@Nonnull ToLongFunction<? super S> changeEncoder) {
+        this.changeEncoder = Objects.requireNonNull(changeEncoder, "Change encoder cannot be null");
+        if (changes == null) {
+            changes = new ChangeSet(width, height);
+        }
+    }
+
+    /**
+     * Stops tracking changes.
+     */
+    public void disableChangeTracking() {
+        this.changeEncoder = null;
+        this.changes = null;
+    }
+
+    /**
+     * Returns the change set accumulating the cells changed by commits.
+     *
+     * @return the change set, or null if changes are not tracked
+     */
+    public ChangeSet getChangeSet() {
+        return changes;
+    }
+
+    /**
+     * Returns the state encoder used for change tracking.
+     *
+     * @return the encoder, or null if changes are not tracked
+     */
+    protected ToLongFunction<? super S> getChangeEncoder() {
+        return changes != null ? changeEncoder : null;
+    }
+
+    /**
+     * Marks a cell as changed in the change set.
+     *
+     * @param x the column
+     * @param y the row
+     */
+    protected void markChanged(int x, int y) {
+        changes.mark(x, y);
+    }
+
+    /**
+     * Returns the state encoder used for hashing.
+     *
+     * @return the encoder, or null if hashing is not enabled
+     */
+    protected ToLongFunction<? super S> getStateEncoder() {
+        return stateEncoder;
+    }
+
+    /**
+     * Updates the grid hash for one cell whose state code changed.
+     *
+     * @param index  the row-major index of the cell
+     * @param before the code of the old state
+     * @param after  the code of the new state
+     */
+    protected void updateHash(int index, long before, long after) {
+        hash ^= cellHash(index, before) ^ cellHash(index, after);
+    }
+
+    /**
+     * Returns the Zobrist key of a cell in a state. Instead of a table of random keys per cell and state, keys are
+     * derived by mixing the cell index and the state code with the SplitMix64 finalizer, which behaves like a random
+     * table without its memory.
+     *
+     * @param index the row-major index of the cell
+     * @param code  the state code
+     * @return the key
+     */
+    protected static long cellHash(int index, long code) {
+        long z = index * 0x9E3779B97F4A7C15L + (code + 1) * 0xC2B2AE3D27D4EB4FL;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    /**
+     * Retrieves the cell at the specified coordinates.
+     *
+     * @param x the x-coordinate (column), zero-based
+     * @param y the y-coordinate (row), zero-based
+     * @return the cell at (x, y), of type {@code C}, or null if uninitialized
+     * @throws IllegalArgumentException if the coordinates are out of bounds
+     */
+    public C getCell(int x, int y) {
+        if (x < 0 || x >= width || y < 0 || y >= height) {
+            throw new IllegalArgumentException("Coordinates out of bounds: (" + x + ", " + y + ")");
+        }
+        return grid[y][x];
+    }
+
+    /**
+     * Sets the cell at the specified coordinates.
+     *
+     * @param x    the x-coordinate (column), zero-based
+     * @param y    the y-coordinate (row), zero-based
+     * @param cell the cell to set, of type {@code C}
+     * @throws IllegalArgumentException if the coordinates are out of bounds
+     */
+    public void setCell(int x, int y, C cell) {
+        if (x < 0 || x >= width || y < 0 || y >= height) {
+            throw new IllegalArgumentException("Coordinates out of bounds: (" + x + ", " + y + ")");
+        }
+        grid[y][x] = cell;
+    }
+
+    /**
+     * Returns the width (number of columns) of the grid.
+     *
+     * @return the width
+     */
+    public int getWidth() {
+        return width;
+    }
+
+    /**
+     * Returns the height (number of rows) of the grid.
+     *
+     * @return the height
+     */
+    public int getHeight() {
+        return height;
+    }
+
+    /**
+     * Returns whether the grid keeps its next states in an array, exposed through {@link #getNextStates()} and
+     * {@link #setNextStates(CellState[][])}. Grids that store next states elsewhere, such as off-heap or in planes,
+     * return false and only offer {@link #getNextState(int, int)}; initializers must check this before allocating an
+     * array.
+     *
+     * @return true for the default array storage
+     */
+    public boolean supportsNextStateArray() {
+        return true;
+    }
+
+    /**
+     * Returns the 2D array of next states for the next grid update.
+     *
+     * @return the next states array, or null if not set
+     * @throws UnsupportedOperationException if the grid does not {@link #supportsNextStateArray() support} an array
+     */
+    public S[][] getNextStates() {
+        return nextStates;
+    }
+
+    /**
+     * Returns the next state of the cell at the specified coordinates, to be filled in by a rule and copied to the
+     * cell by {@link #commitNextStates()}.
+     *
+     * @param x the x-coordinate (column), zero-based
+     * @param y the y-coordinate (row), zero-based
+     * @return the next state at (x, y), or null if next states have not been allocated
+     */
+    public S getNextState(int x, int y) {
+        return nextStates == null ? null : nextStates[y][x];
+    }
+
+    /**
+     * Sets the 2D array of next states for the next grid update.
+     *
+     * @param nextStates the next states array to set
+     * @throws UnsupportedOperationException if the grid does not {@link #supportsNextStateArray() support} an array
+     */
+    public void setNextStates(S[][] nextStates) {
+        this.nextStates = nextStates;
+    }
+}
\ No newline at end of file
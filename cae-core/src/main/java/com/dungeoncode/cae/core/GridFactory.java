@@ -0,0 +1,22 @@
+package com.dungeoncode.cae.core;
+
+/**
+ * Creates the {@link Grid} used by a configuration, allowing the storage backend to be chosen independently of the
+ * configuration, for example an off-heap {@code PackedBooleanGrid} for very large boolean worlds.
+ *
+ * @param <C> the type of cells in the grid, extending {@link Cell}
+ * @param <S> the type of cell states, extending {@link CellState}
+ */
+@FunctionalInterface
+public interface GridFactory<C extends Cell<S>, S extends CellState<?>> {
+
+    /**
+     * Creates and initializes a grid.
+     *
+     * @param width       the number of columns (x-axis), must be positive
+     * @param height      the number of rows (y-axis), must be positive
+     * @param initializer the {@link GridInitializer} to populate the grid, or null
+     * @return the new grid
+     */
+    Grid<C, S> create(int width, int height, GridInitializer<C, S> initializer);
+}
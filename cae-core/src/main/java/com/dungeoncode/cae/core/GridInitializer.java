@@ -22,4 +22,13 @@ public interface GridInitializer<C extends Cell<S>, S extends CellState<?>> {
      * @param grid the {@link Grid} to initialize
      */
     void initializeGrid(Grid<C, S> grid);
+
+    /**
+     * Reseeds any random number generator used by this initializer, so that the next initialization is reproducible.
+     * Deterministic initializers can ignore it.
+     *
+     * @param seed the seed for the initializer's random stream
+     */
+    default void reseed(long seed) {
+    }
 }
\ No newline at end of file
@@ -0,0 +1,24 @@
+package com.dungeoncode.cae.core;
+
+/**
+ * A {@link Rule} that computes the next states of a whole grid in one call instead of one cell at a time. Engines
+ * that keep their states in primitive planes implement it to update them with table lookups or word operations,
+ * often in parallel, without a cell object per cell.
+ * <p>
+ * {@link Automaton} calls {@link #applyToGrid(Grid)} once per step in place of {@link #apply(Grid, Cell)} for every
+ * cell, then commits the next states as for any other rule. {@link #apply(Grid, Cell)} remains available for callers
+ * that evaluate single cells.
+ *
+ * @param <C> the type of cells in the grid, extending {@link Cell}
+ * @param <S> the type of cell states, extending {@link CellState}
+ */
+public interface GridRule<C extends Cell<S>, S extends CellState<?>> extends Rule<C, S> {
+
+    /**
+     * Writes the next state of every cell of the grid, reading only current states.
+     *
+     * @param grid the grid to evaluate
+     * @throws IllegalArgumentException if the grid is not of a kind the rule supports
+     */
+    void applyToGrid(Grid<C, S> grid);
+}
@@ -26,4 +26,24 @@ public interface Rule<C extends Cell<S>, S extends CellState<?>> {
      */
     S apply(Grid<C, S> grid, C cell);
 
+    /**
+     * Reseeds any random number generator used by this rule. Called by {@link Automaton} before each generation with
+     * a seed derived from the automaton seed and generation, so that probabilistic runs are reproducible and can be
+     * resumed from a snapshot. Deterministic rules can ignore it.
+     *
+     * @param seed the seed for this rule's random stream in the upcoming generation
+     */
+    default void reseed(long seed) {
+    }
+
+    /**
+     * Returns whether the rule's next state depends only on the current grid. Only then does a repeated grid imply a
+     * repeated future, which cycle detection relies on. Rules that draw random numbers must return false.
+     *
+     * @return true if the rule is deterministic
+     */
+    default boolean isDeterministic() {
+        return true;
+    }
+
 }
\ No newline at end of file
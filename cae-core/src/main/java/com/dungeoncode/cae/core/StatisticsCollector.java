@@ -0,0 +1,50 @@
+package com.dungeoncode.cae.core;
+
+/**
+ * Accumulates per-generation observables while a grid commits its next states, so that statistics such as the
+ * population come out of the step itself instead of a separate pass over the grid. The {@link Automaton} passes its
+ * collector to {@link Grid#commitNextStates(StatisticsCollector)} for the last rule of each step, then calls
+ * {@link #end(long)} once the generation has advanced.
+ * <p>
+ * Grids with a specialized storage may feed a collector they recognize in bulk instead of state by state, as
+ * {@code PackedBooleanGrid} does for {@code BooleanStatisticsCollector}.
+ *
+ * @param <S> the type of cell states, extending {@link CellState}
+ */
+public interface StatisticsCollector<S extends CellState<?>> {
+
+    /**
+     * Starts accumulating a generation.
+     *
+     * @param width  the number of columns of the grid
+     * @param height the number of rows of the grid
+     */
+    void begin(int width, int height);
+
+    /**
+     * Accumulates the committed state of one cell. The state may be a view that is reused or invalidated after the
+     * call, so implementations must not retain it.
+     *
+     * @param state the new state of the cell
+     */
+    void accept(S state);
+
+    /**
+     * Completes the generation and publishes its statistics.
+     *
+     * @param generation the generation the statistics describe
+     */
+    void end(long generation);
+
+    /**
+     * Publishes the statistics of the previous generation again for a generation whose computation was skipped
+     * because the grid did not change, such as a fixed point skipped by a {@link CycleDetector}. No cells are fed in
+     * between. The default calls {@link #end(long)}, which suits collectors whose accumulated values last until the
+     * next {@link #begin(int, int)}.
+     *
+     * @param generation the generation the statistics describe
+     */
+    default void repeat(long generation) {
+        end(generation);
+    }
+}
@@ -18,6 +18,7 @@ public enum Tag {
     VON_NEUMANN("Von Neumann", "Four orthogonal neighbors (North, South, East, West)"),
     MOORE("Moore", "Eight adjacent neighbors including diagonals"),
     EXTENDED_NEIGHBORHOOD("Extended", "Non-standard or user-defined neighborhood patterns"),
+    MARGOLUS("Margolus", "2x2 blocks of a partition whose offset alternates between steps"),
 
     // Operation Types
     COUNTING("Counting", "Rules based on summing or counting neighbor states (e.g., Majority, Anneal)"),
@@ -88,7 +89,7 @@ public enum Tag {
      * Tags for neighborhood types, defining the scope of neighbor interactions.
      */
     public static final EnumSet<Tag> NEIGHBORHOOD_TYPES = EnumSet.of(
-            VON_NEUMANN, MOORE, EXTENDED_NEIGHBORHOOD
+            VON_NEUMANN, MOORE, EXTENDED_NEIGHBORHOOD, MARGOLUS
     );
 
     /**
@@ -0,0 +1,346 @@
+package com.dungeoncode.cae.core.analysis;
+
+import com.dungeoncode.cae.core.Grid;
+import com.dungeoncode.cae.core.impl.BooleanCell;
+import com.dungeoncode.cae.core.impl.BooleanState;
+import com.dungeoncode.cae.core.impl.packed.OffHeapPlane;
+import com.dungeoncode.cae.core.impl.packed.PackedBooleanGrid;
+
+import javax.annotation.Nonnull;
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+/**
+ * Labels the connected components (clusters) of active cells on a toroidal grid, for cluster size distributions and
+ * the number of distinct regions per species.
+ * <p>
+ * Labeling uses union-find over the row-major cell indices and runs in parallel over horizontal bands of rows: each
+ * band is labeled independently, linking only cells inside the band (including the horizontal wrap between the last
+ * and first column). The few links across band boundaries, including the vertical wrap between the last and first
+ * row, are then merged sequentially, and every cell is finally resolved to its root in parallel. Work is
+ * proportional to the number of cells, and the merge step only touches one row per band.
+ * <p>
+ * Two active cells are connected when they are neighbors under the chosen {@link Connectivity} and, if the same-id
+ * constraint is enabled, have the same {@link BooleanState#getId() id}, so that regions of different species touching
+ * each other stay separate.
+ */
+public class ComponentLabeler {
+
+    /**
+     * The neighborhoods that connect cells.
+     */
+    public enum Connectivity {
+        /**
+         * Cells connect to their four orthogonal neighbors (von Neumann neighborhood).
+         */
+        FOUR,
+        /**
+         * Cells connect to their eight orthogonal and diagonal neighbors (Moore neighborhood).
+         */
+        EIGHT
+    }
+
+    /**
+     * The minimum number of rows of a band.
+     */
+    private static final int MIN_BAND_ROWS = 16;
+
+    /**
+     * The neighborhood that connects cells.
+     */
+    private final Connectivity connectivity;
+
+    /**
+     * Whether only cells with the same id connect.
+     */
+    private final boolean sameId;
+
+    /**
+     * Whether bands are labeled in parallel.
+     */
+    private boolean parallel = true;
+
+    /**
+     * Constructs a labeler.
+     *
+     * @param connectivity the neighborhood that connects cells, must not be null
+     * @param sameId       whether only cells with the same id connect
+     * @throws NullPointerException if connectivity is null
+     */
+    public ComponentLabeler(@Nonnull Connectivity connectivity, boolean sameId) {
+        this.connectivity = Objects.requireNonNull(connectivity, "Connectivity cannot be null");
+        this.sameId = sameId;
+    }
+
+    /**
+     * Labels the active cells of a boolean grid. Packed grids are read a word at a time.
+     *
+     * @param grid the grid to label, must not be null
+     * @return the components
+     * @throws NullPointerException     if grid is null
+     * @throws IllegalArgumentException if the grid has more than {@link Integer#MAX_VALUE} cells
+     */
+    public Components label(@Nonnull Grid<BooleanCell, BooleanState> grid) {
+        Objects.requireNonNull(grid, "Grid cannot be null");
+        int width = grid.getWidth();
+        int height = grid.getHeight();
+        if ((long) width * height > Integer.MAX_VALUE - 8) {
+            throw new IllegalArgumentException("Grid too large to label: width=" + width + ", height=" + height);
+        }
+        int[] keys = new int[width * height];
+        stream(height).forEach(y -> {
+            if (grid instanceof PackedBooleanGrid packed) {
+                readPackedRow(packed, y, keys);
+            } else {
+                for (int x = 0; x < width; x++) {
+                    BooleanState state = grid.getCell(x, y).getState();
+                    keys[y * width + x] = state.getValue() ? (sameId ? Math.max(0, state.getId()) : 0) : -1;
+                }
+            }
+        });
+        return label(keys, width, height);
+    }
+
+    /**
+     * Reads one row of a packed grid into keys, visiting only the active cells of each 64-cell word.
+     *
+     * @param grid the packed grid
+     * @param y    the row
+     * @param keys the keys to fill
+     */
+    private void readPackedRow(PackedBooleanGrid grid, int y, int[] keys) {
+        int width = grid.getWidth();
+        OffHeapPlane values = grid.getValuePlane();
+        int offset = y * width;
+        Arrays.fill(keys, offset, offset + width, -1);
+        for (int w = 0; w << 6 < width; w++) {
+            long word = values.getWord(w, y);
+            while (word != 0) {
+                int x = (w << 6) + Long.numberOfTrailingZeros(word);
+                if (x >= width) {
+                    break;
+                }
+                keys[offset + x] = sameId ? Math.max(0, grid.getCell(x, y).getState().getId()) : 0;
+                word &= word - 1;
+            }
+        }
+    }
+
+    /**
+     * Labels cells given as keys: cells with a negative key are background, and neighboring cells connect if their
+     * keys are non-negative and, with the same-id constraint, equal.
+     *
+     * @param keys   the key of every cell in row-major order, must not be null; not modified
+     * @param width  the number of columns, must be positive
+     * @param height the number of rows, must be positive
+     * @return the components
+     * @throws NullPointerException     if keys is null
+     * @throws IllegalArgumentException if the dimensions are not positive or do not match the keys
+     */
+    public Components label(@Nonnull int[] keys, int width, int height) {
+        Objects.requireNonNull(keys, "Keys cannot be null");
+        if (width <= 0 || height <= 0) {
+            throw new IllegalArgumentException("Width and height must be positive: width=" + width + ", height=" + height);
+        }
+        if ((long) width * height != keys.length) {
+            throw new IllegalArgumentException("Expected " + (long) width * height + " keys, got " + keys.length);
+        }
+        int[] parent = new int[keys.length];
+        int bandRows = bandRows(height);
+        int bands = (height + bandRows - 1) / bandRows;
+
+        stream(bands).forEach(band -> {
+            int start = band * bandRows;
+            int end = Math.min(height, start + bandRows);
+            for (int y = start; y < end; y++) {
+                int row = y * width;
+                for (int x = 0; x < width; x++) {
+                    int i = row + x;
+                    int key = keys[i];
+                    if (key < 0) {
+                        continue;
+                    }
+                    parent[i] = i;
+                    int root = i;
+                    if (x > 0 && connects(key, keys[i - 1])) {
+                        root = find(parent, i - 1);
+                        parent[i] = root;
+                    }
+                    if (x == width - 1 && width > 1) {
+                        root = link(parent, keys, root, key, row);
+                    }
+                    if (y > start) {
+                        linkAbove(parent, keys, root, key, width, height, x, y);
+                    }
+                }
+            }
+        });
+
+        for (int band = 0; band < bands; band++) {
+            int y = band * bandRows;
+            if (y == 0 && height == 1) {
+                continue;
+            }
+            for (int x = 0; x < width; x++) {
+                int i = y * width + x;
+                if (keys[i] >= 0) {
+                    linkAbove(parent, keys, find(parent, i), keys[i], width, height, x, y);
+                }
+            }
+        }
+
+        stream(bands).forEach(band -> {
+            int start = band * bandRows * width;
+            int end = Math.min(keys.length, start + bandRows * width);
+            for (int i = start; i < end; i++) {
+                if (keys[i] >= 0) {
+                    parent[i] = root(parent, i);
+                }
+            }
+        });
+        return new Components(keys, parent, width, height);
+    }
+
+    /**
+     * Links a cell with its neighbors in the row above, wrapping to the last row from the first.
+     *
+     * @param parent the union-find parents
+     * @param keys   the cell keys
+     * @param root   the current root of the cell
+     * @param key    the key of the cell
+     * @param width  the number of columns
+     * @param height the number of rows
+     * @param x      the column of the cell
+     * @param y      the row of the cell
+     */
+    private void linkAbove(int[] parent, int[] keys, int root, int key, int width, int height, int x, int y) {
+        int above = (y == 0 ? height - 1 : y - 1) * width;
+        root = link(parent, keys, root, key, above + x);
+        if (connectivity == Connectivity.EIGHT && width > 1) {
+            root = link(parent, keys, root, key, above + (x == 0 ? width - 1 : x - 1));
+            link(parent, keys, root, key, above + (x == width - 1 ? 0 : x + 1));
+        }
+    }
+
+    /**
+     * Returns whether a cell with a key connects to a neighbor with another key.
+     *
+     * @param key      the key of the cell, non-negative
+     * @param neighbor the key of the neighbor
+     * @return true if the neighbor is active and, with the same-id constraint, has the same key
+     */
+    private boolean connects(int key, int neighbor) {
+        return neighbor >= 0 && (!sameId || key == neighbor);
+    }
+
+    /**
+     * Unites a component with the component of a neighbor cell if the neighbor connects.
+     *
+     * @param parent   the union-find parents
+     * @param keys     the cell keys
+     * @param root     the root of the component
+     * @param key      the key of the cell being linked
+     * @param neighbor the neighbor cell
+     * @return the root of the united component
+     */
+    private int link(int[] parent, int[] keys, int root, int key, int neighbor) {
+        if (!connects(key, keys[neighbor])) {
+            return root;
+        }
+        int other = find(parent, neighbor);
+        if (other < root) {
+            parent[root] = other;
+            return other;
+        }
+        if (root < other) {
+            parent[other] = root;
+        }
+        return root;
+    }
+
+    /**
+     * Returns the root of a cell, halving the path on the way.
+     *
+     * @param parent the union-find parents
+     * @param i      the cell
+     * @return the root
+     */
+    private static int find(int[] parent, int i) {
+        while (parent[i] != i) {
+            parent[i] = parent[parent[i]];
+            i = parent[i];
+        }
+        return i;
+    }
+
+    /**
+     * Returns the root of a cell without modifying the parents, so that bands can be resolved concurrently: each
+     * thread only writes the entries of its own band, and every entry it reads is an ancestor of the cell whether or
+     * not another band has already resolved it. Parents always have lower indices than their children, so cells
+     * resolved in index order find their root in a step or two.
+     *
+     * @param parent the union-find parents
+     * @param i      the cell
+     * @return the root
+     */
+    private static int root(int[] parent, int i) {
+        while (parent[i] != i) {
+            i = parent[i];
+        }
+        return i;
+    }
+
+    /**
+     * Returns the number of rows per band for a grid height.
+     *
+     * @param height the number of rows
+     * @return the band height
+     */
+    private int bandRows(int height) {
+        if (!parallel) {
+            return height;
+        }
+        int target = ForkJoinPool.getCommonPoolParallelism() * 4;
+        return Math.max(MIN_BAND_ROWS, (height + target - 1) / target);
+    }
+
+    /**
+     * Returns a range of indices as a stream, parallel if enabled.
+     *
+     * @param count the number of indices
+     * @return the stream
+     */
+    private IntStream stream(int count) {
+        IntStream range = IntStream.range(0, count);
+        return parallel ? range.parallel() : range;
+    }
+
+    /**
+     * Sets whether bands are labeled in parallel on the common fork-join pool. Results are identical either way.
+     *
+     * @param parallel true to label in parallel
+     */
+    public void setParallel(boolean parallel) {
+        this.parallel = parallel;
+    }
+
+    /**
+     * Returns the neighborhood that connects cells.
+     *
+     * @return the connectivity
+     */
+    public Connectivity getConnectivity() {
+        return connectivity;
+    }
+
+    /**
+     * Returns whether only cells with the same id connect.
+     *
+     * @return true if the same-id constraint is enabled
+     */
+    public boolean isSameId() {
+        return sameId;
+    }
+}
@@ -0,0 +1,172 @@
+package com.dungeoncode.cae.core.analysis;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Objects;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+/**
+ * The connected components found by a {@link ComponentLabeler}: a label per cell, and the size and id of every
+ * component. Components are numbered from 0 in the row-major order of their first cell.
+ */
+public final class Components {
+
+    /**
+     * The label of background cells.
+     */
+    public static final int BACKGROUND = -1;
+
+    /**
+     * The component label of every cell in row-major order, {@link #BACKGROUND} for inactive cells.
+     */
+    private final int[] labels;
+
+    /**
+     * The number of cells of each component.
+     */
+    private final int[] sizes;
+
+    /**
+     * The key (species id, or 0 without the same-id constraint) of each component.
+     */
+    private final int[] ids;
+
+    /**
+     * The number of columns.
+     */
+    private final int width;
+
+    /**
+     * The number of rows.
+     */
+    private final int height;
+
+    /**
+     * Numbers the components from resolved union-find roots.
+     *
+     * @param keys   the cell keys, negative for background
+     * @param roots  the root of every cell; reused as the label array
+     * @param width  the number of columns
+     * @param height the number of rows
+     */
+    Components(int[] keys, int[] roots, int width, int height) {
+        this.width = width;
+        this.height = height;
+        int count = 0;
+        for (int i = 0; i < roots.length; i++) {
+            if (keys[i] >= 0 && roots[i] == i) {
+                count++;
+            }
+        }
+        int[] sizes = new int[count];
+        int[] ids = new int[count];
+        int next = 0;
+        for (int i = 0; i < roots.length; i++) {
+            if (keys[i] < 0) {
+                roots[i] = BACKGROUND;
+                continue;
+            }
+            int label;
+            if (roots[i] == i) {
+                label = next++;
+                ids[label] = keys[i];
+            } else {
+                label = roots[roots[i]];
+            }
+            roots[i] = label;
+            sizes[label]++;
+        }
+        this.labels = roots;
+        this.sizes = sizes;
+        this.ids = ids;
+    }
+
+    /**
+     * Returns the number of components.
+     *
+     * @return the component count
+     */
+    public int getCount() {
+        return sizes.length;
+    }
+
+    /**
+     * Returns the label of a cell.
+     *
+     * @param x the column
+     * @param y the row
+     * @return the component label, or {@link #BACKGROUND} for an inactive cell
+     * @throws IndexOutOfBoundsException if the coordinates are out of bounds
+     */
+    public int getLabel(int x, int y) {
+        return labels[Objects.checkIndex(y, height) * width + Objects.checkIndex(x, width)];
+    }
+
+    /**
+     * Returns a copy of the labels of all cells.
+     *
+     * @return the labels in row-major order, {@link #BACKGROUND} for inactive cells
+     */
+    public int[] getLabels() {
+        return labels.clone();
+    }
+
+    /**
+     * Returns the number of cells of a component.
+     *
+     * @param label the component label
+     * @return the size
+     * @throws IndexOutOfBoundsException if the label is out of range
+     */
+    public int getSize(int label) {
+        return sizes[label];
+    }
+
+    /**
+     * Returns the species id of a component, or 0 if the labeler did not separate ids.
+     *
+     * @param label the component label
+     * @return the id
+     * @throws IndexOutOfBoundsException if the label is out of range
+     */
+    public int getId(int label) {
+        return ids[label];
+    }
+
+    /**
+     * Returns the size of the largest component.
+     *
+     * @return the largest size, or 0 if there are no components
+     */
+    public int getLargestSize() {
+        return Arrays.stream(sizes).max().orElse(0);
+    }
+
+    /**
+     * Returns the cluster size distribution.
+     *
+     * @return an unmodifiable map from component size to the number of components of that size, by increasing size
+     */
+    public SortedMap<Integer, Integer> getSizeDistribution() {
+        SortedMap<Integer, Integer> distribution = new TreeMap<>();
+        for (int size : sizes) {
+            distribution.merge(size, 1, Integer::sum);
+        }
+        return Collections.unmodifiableSortedMap(distribution);
+    }
+
+    /**
+     * Returns the number of distinct regions of each species.
+     *
+     * @return an unmodifiable map from id to the number of components with that id, by increasing id
+     */
+    public Map<Integer, Integer> getRegionsById() {
+        SortedMap<Integer, Integer> regions = new TreeMap<>();
+        for (int id : ids) {
+            regions.merge(id, 1, Integer::sum);
+        }
+        return Collections.unmodifiableSortedMap(regions);
+    }
+}
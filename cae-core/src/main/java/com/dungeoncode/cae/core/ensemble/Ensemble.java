@@ -0,0 +1,325 @@
+package com.dungeoncode.cae.core.ensemble;
+
+import com.dungeoncode.cae.core.Automaton;
+import com.dungeoncode.cae.core.Cell;
+import com.dungeoncode.cae.core.CellState;
+import com.dungeoncode.cae.core.Configuration;
+import com.dungeoncode.cae.core.Grid;
+import com.dungeoncode.cae.core.impl.BooleanCell;
+import com.dungeoncode.cae.core.impl.BooleanState;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.annotation.Nonnull;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Runs many independent replicas of a probabilistic configuration concurrently, for Monte Carlo studies where a
+ * single run says little. Each replica builds its own configuration, grid, and {@link Automaton}, seeded with an
+ * independent stream derived from the ensemble seed and the replica index, so an ensemble is reproducible and any
+ * replica can be rerun on its own with {@link #replicaSeed(long, int)}.
+ * <p>
+ * Registered metrics are sampled every {@link #setSampleInterval(long) sample interval} generations. A replica keeps
+ * only its own metric series and merges it into the shared {@link EnsembleResult} when it finishes, so memory is
+ * bounded by the grids of the replicas in flight, which is at most the number of pool threads. Series are merged in
+ * completion order, so aggregates may differ between runs in the last bits of floating-point precision.
+ * <pre>
+ * Ensemble&lt;BooleanCell, BooleanState&gt; ensemble = new Ensemble&lt;&gt;(ConfRandomAnneal::new, 256, 256);
+ * ensemble.addMetric("population", Ensemble.population());
+ * EnsembleResult result = ensemble.run(500, 1000, 42L, Runtime.getRuntime().availableProcessors());
+ * double mean = result.getMean("population", result.getSampleCount() - 1);
+ * </pre>
+ *
+ * @param <C> the type of cells in the automaton, extending {@link Cell}
+ * @param <S> the type of cell states, extending {@link CellState}
+ */
+public class Ensemble<C extends Cell<S>, S extends CellState<?>> {
+
+    /**
+     * Logger for ensemble progress.
+     */
+    private static final Logger LOGGER = LoggerFactory.getLogger(Ensemble.class);
+
+    /**
+     * The stream coordinate reserved for replica seeds, distinct from generations and initializers.
+     */
+    private static final long REPLICA_STREAM = -2;
+
+    /**
+     * Creates a fresh configuration for each replica.
+     */
+    private final Supplier<? extends Configuration<C, S>> configurationFactory;
+
+    /**
+     * The grid width of every replica.
+     */
+    private final int width;
+
+    /**
+     * The grid height of every replica.
+     */
+    private final int height;
+
+    /**
+     * The metrics sampled on each replica, by name, in registration order.
+     */
+    private final Map<String, ToDoubleFunction<? super Grid<C, S>>> metrics = new LinkedHashMap<>();
+
+    /**
+     * The number of generations between samples.
+     */
+    private long sampleInterval = 1;
+
+    /**
+     * Constructs an ensemble of replicas of one configuration.
+     * <p>
+     * The factory must return a new configuration on every call: rules and initializers carry their own random
+     * number generators and must not be shared between concurrently running replicas.
+     *
+     * @param configurationFactory creates the configuration of each replica, e.g. {@code ConfRandomAnneal::new},
+     *                             must not be null
+     * @param width                the grid width, must be positive
+     * @param height               the grid height, must be positive
+     * @throws NullPointerException     if configurationFactory is null
+     * @throws IllegalArgumentException if width or height is not positive
+     */
+    public Ensemble(@Nonnull Supplier<? extends Configuration<C, S>> configurationFactory, int width, int height) {
+        this.configurationFactory = Objects.requireNonNull(configurationFactory, "Configuration factory cannot be null");
+        if (width <= 0 || height <= 0) {
+            throw new IllegalArgumentException("Width and height must be positive: width=" + width + ", height=" + height);
+        }
+        this.width = width;
+        this.height = height;
+    }
+
+    /**
+     * Registers a metric sampled on every replica. Metrics are evaluated on the replica's own thread, so they must
+     * not share mutable state.
+     *
+     * @param name   the metric name, unique within the ensemble, must not be null
+     * @param metric computes the metric from a grid, must not be null
+     * @throws NullPointerException     if name or metric is null
+     * @throws IllegalArgumentException if a metric with that name is already registered
+     */
+    public void addMetric(@Nonnull String name, @Nonnull ToDoubleFunction<? super Grid<C, S>> metric) {
+        Objects.requireNonNull(name, "Metric name cannot be null");
+        Objects.requireNonNull(metric, "Metric cannot be null");
+        if (metrics.putIfAbsent(name, metric) != null) {
+            throw new IllegalArgumentException("Duplicate metric: " + name);
+        }
+    }
+
+    /**
+     * Sets the number of generations between samples. Generation 0 is always sampled.
+     *
+     * @param sampleInterval the interval, must be positive
+     * @throws IllegalArgumentException if the interval is not positive
+     */
+    public void setSampleInterval(long sampleInterval) {
+        if (sampleInterval <= 0) {
+            throw new IllegalArgumentException("Sample interval must be positive: " + sampleInterval);
+        }
+        this.sampleInterval = sampleInterval;
+    }
+
+    /**
+     * Runs the ensemble on a private pool of the given size, which is shut down afterwards.
+     *
+     * @param replicas    the number of replicas, must be positive
+     * @param generations the number of generations per replica, must not be negative
+     * @param seed        the ensemble seed
+     * @param parallelism the number of replicas running at once, must be positive
+     * @return the aggregated result
+     * @throws IllegalArgumentException if an argument is out of range
+     * @throws IllegalStateException    if a replica fails
+     * @throws InterruptedException     if interrupted while waiting for the replicas
+     */
+    public EnsembleResult run(int replicas, long generations, long seed, int parallelism) throws InterruptedException {
+        if (parallelism <= 0) {
+            throw new IllegalArgumentException("Parallelism must be positive: " + parallelism);
+        }
+        AtomicInteger threadCount = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(parallelism, runnable -> {
+            Thread thread = new Thread(runnable, "ensemble-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            return run(replicas, generations, seed, executor);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Runs the ensemble on a caller-supplied pool, which may be shared with other ensembles. The pool bounds how many
+     * replicas, and therefore grids, are in memory at once.
+     *
+     * @param replicas    the number of replicas, must be positive
+     * @param generations the number of generations per replica, must not be negative
+     * @param seed        the ensemble seed
+     * @param executor    the pool running the replicas, must not be null; it is not shut down
+     * @return the aggregated result
+     * @throws NullPointerException     if executor is null
+     * @throws IllegalArgumentException if an argument is out of range
+     * @throws IllegalStateException    if a replica fails or is cancelled, for example because the pool was shut down;
+     *                                  the remaining replicas are cancelled
+     * @throws InterruptedException     if interrupted while waiting for the replicas; they are cancelled
+     */
+    public EnsembleResult run(int replicas, long generations, long seed, @Nonnull ExecutorService executor)
+            throws InterruptedException {
+        Objects.requireNonNull(executor, "Executor cannot be null");
+        if (replicas <= 0) {
+            throw new IllegalArgumentException("Replicas must be positive: " + replicas);
+        }
+        if (generations < 0 || generations / sampleInterval >= Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Generations out of range: " + generations);
+        }
+        List<String> names = new ArrayList<>(metrics.keySet());
+        List<ToDoubleFunction<? super Grid<C, S>>> functions = new ArrayList<>(metrics.values());
+        int samples = (int) (generations / sampleInterval) + 1;
+        EnsembleResult result = new EnsembleResult(names, sampleInterval, samples);
+
+        long start = System.nanoTime();
+        List<Future<?>> futures = new ArrayList<>(replicas);
+        for (int r = 0; r < replicas; r++) {
+            long replicaSeed = replicaSeed(seed, r);
+            futures.add(executor.submit(() -> runReplica(replicaSeed, generations, samples, functions, result)));
+        }
+        try {
+            for (int r = 0; r < replicas; r++) {
+                try {
+                    futures.get(r).get();
+                } catch (ExecutionException e) {
+                    if (e.getCause() instanceof CancellationException) {
+                        throw new IllegalStateException("Replica " + r + " was interrupted", e.getCause());
+                    }
+                    throw new IllegalStateException("Replica " + r + " failed: " + e.getCause().getMessage(),
+                            e.getCause());
+                } catch (CancellationException e) {
+                    throw new IllegalStateException("Replica " + r + " was cancelled", e);
+                }
+            }
+        } finally {
+            for (Future<?> future : futures) {
+                future.cancel(true);
+            }
+        }
+        if (result.getReplicas() != replicas) {
+            throw new IllegalStateException("Only " + result.getReplicas() + " of " + replicas + " replicas were merged");
+        }
+        result.setElapsedNanos(System.nanoTime() - start);
+        LOGGER.debug("Ensemble of {} replicas x {} generations finished in {} ms", replicas, generations,
+                result.getElapsedNanos() / 1_000_000);
+        return result;
+    }
+
+    /**
+     * Runs one replica and merges its series into the result. If the thread is interrupted, the replica stops without
+     * merging and fails, so that the ensemble never returns a result missing replicas.
+     *
+     * @param replicaSeed the seed of the replica
+     * @param generations the number of generations
+     * @param samples     the number of samples
+     * @param functions   the metrics
+     * @param result      the result to merge into
+     * @throws CancellationException if the thread is interrupted before the replica completes
+     */
+    private void runReplica(long replicaSeed, long generations, int samples,
+                            List<ToDoubleFunction<? super Grid<C, S>>> functions, EnsembleResult result) {
+        Automaton<C, S> automaton = configureReplica(configurationFactory.get(), width, height, replicaSeed);
+
+        double[][] series = new double[functions.size()][samples];
+        sample(automaton.getGrid(), functions, series, 0);
+        for (long generation = 1; generation <= generations; generation++) {
+            if (Thread.currentThread().isInterrupted()) {
+                throw new CancellationException("Replica interrupted at generation " + generation);
+            }
+            automaton.step();
+            if (generation % sampleInterval == 0) {
+                sample(automaton.getGrid(), functions, series, (int) (generation / sampleInterval));
+            }
+        }
+        result.merge(series);
+    }
+
+    /**
+     * Creates and configures the automaton of one replica, seeding both the grid initializer and the rule streams
+     * from the replica seed.
+     *
+     * @param configuration the replica's own configuration
+     * @param width         the grid width
+     * @param height        the grid height
+     * @param replicaSeed   the replica seed
+     * @param <C>           the cell type
+     * @param <S>           the state type
+     * @return the configured automaton at generation 0
+     */
+    static <C extends Cell<S>, S extends CellState<?>> Automaton<C, S> configureReplica(
+            Configuration<C, S> configuration, int width, int height, long replicaSeed) {
+        if (configuration.getGridInitializer() != null) {
+            configuration.getGridInitializer().reseed(Automaton.deriveInitializerSeed(replicaSeed));
+        }
+        Automaton<C, S> automaton = new Automaton<>();
+        automaton.setSeed(replicaSeed);
+        configuration.configure(automaton, width, height, 0);
+        return automaton;
+    }
+
+    /**
+     * Evaluates all metrics on a grid.
+     *
+     * @param grid      the grid
+     * @param functions the metrics
+     * @param series    the series to write to
+     * @param sample    the sample index
+     */
+    private void sample(Grid<C, S> grid, List<ToDoubleFunction<? super Grid<C, S>>> functions, double[][] series,
+                        int sample) {
+        for (int m = 0; m < functions.size(); m++) {
+            series[m][sample] = functions.get(m).applyAsDouble(grid);
+        }
+    }
+
+    /**
+     * Returns the seed of a replica, an independent stream derived from the ensemble seed.
+     *
+     * @param seed    the ensemble seed
+     * @param replica the replica index
+     * @return the replica's run seed
+     */
+    public static long replicaSeed(long seed, int replica) {
+        return Automaton.deriveSeed(seed, REPLICA_STREAM, replica);
+    }
+
+    /**
+     * Returns a metric counting the active cells of a boolean grid.
+     *
+     * @return the population metric
+     */
+    public static ToDoubleFunction<Grid<BooleanCell, BooleanState>> population() {
+        return grid -> {
+            long population = 0;
+            for (int y = 0; y < grid.getHeight(); y++) {
+                for (int x = 0; x < grid.getWidth(); x++) {
+                    if (Boolean.TRUE.equals(grid.getCell(x, y).getState().getValue())) {
+                        population++;
+                    }
+                }
+            }
+            return population;
+        };
+    }
+}
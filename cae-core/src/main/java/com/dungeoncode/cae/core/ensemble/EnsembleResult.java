@@ -0,0 +1,175 @@
+package com.dungeoncode.cae.core.ensemble;
+
+import javax.annotation.Nonnull;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * The aggregated outcome of an {@link Ensemble} run: for every metric and every sampled generation, the streaming
+ * statistics of the metric across all replicas. Memory is proportional to metrics times samples, independent of the
+ * number of replicas and the grid size.
+ */
+public final class EnsembleResult {
+
+    /**
+     * The metric names, in registration order.
+     */
+    private final List<String> metrics;
+
+    /**
+     * The number of generations between samples.
+     */
+    private final long sampleInterval;
+
+    /**
+     * The statistics, indexed by metric and then by sample.
+     */
+    private final RunningStatistics[][] statistics;
+
+    /**
+     * The number of replicas merged so far.
+     */
+    private int replicas;
+
+    /**
+     * The wall-clock duration of the run in nanoseconds.
+     */
+    private long elapsedNanos;
+
+    /**
+     * Constructs an empty result.
+     *
+     * @param metrics        the metric names
+     * @param sampleInterval the number of generations between samples
+     * @param samples        the number of samples per replica
+     */
+    EnsembleResult(List<String> metrics, long sampleInterval, int samples) {
+        this.metrics = List.copyOf(metrics);
+        this.sampleInterval = sampleInterval;
+        this.statistics = new RunningStatistics[metrics.size()][samples];
+        for (RunningStatistics[] row : statistics) {
+            for (int i = 0; i < samples; i++) {
+                row[i] = new RunningStatistics();
+            }
+        }
+    }
+
+    /**
+     * Adds the series of one replica.
+     *
+     * @param series the metric values, indexed by metric and then by sample
+     */
+    synchronized void merge(double[][] series) {
+        for (int m = 0; m < statistics.length; m++) {
+            for (int i = 0; i < statistics[m].length; i++) {
+                statistics[m][i].add(series[m][i]);
+            }
+        }
+        replicas++;
+    }
+
+    /**
+     * Records the duration of the run.
+     *
+     * @param elapsedNanos the wall-clock duration in nanoseconds
+     */
+    synchronized void setElapsedNanos(long elapsedNanos) {
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    /**
+     * Returns the metric names, in registration order.
+     *
+     * @return an unmodifiable list of names
+     */
+    public List<String> getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * Returns the number of samples per replica.
+     *
+     * @return the sample count
+     */
+    public int getSampleCount() {
+        return statistics.length == 0 ? 0 : statistics[0].length;
+    }
+
+    /**
+     * Returns the generation at which a sample was taken.
+     *
+     * @param sample the sample index
+     * @return the generation, {@code sample * sampleInterval}
+     */
+    public long getGeneration(int sample) {
+        return sample * sampleInterval;
+    }
+
+    /**
+     * Returns the statistics of a metric at a sample across all replicas.
+     *
+     * @param metric the metric name, must not be null
+     * @param sample the sample index
+     * @return the statistics
+     * @throws IllegalArgumentException  if the metric is unknown
+     * @throws IndexOutOfBoundsException if the sample index is out of range
+     */
+    public synchronized RunningStatistics getStatistics(@Nonnull String metric, int sample) {
+        return statistics[indexOf(metric)][sample];
+    }
+
+    /**
+     * Returns the mean of a metric at a sample across all replicas.
+     *
+     * @param metric the metric name, must not be null
+     * @param sample the sample index
+     * @return the mean
+     */
+    public double getMean(@Nonnull String metric, int sample) {
+        return getStatistics(metric, sample).getMean();
+    }
+
+    /**
+     * Returns the sample variance of a metric at a sample across all replicas.
+     *
+     * @param metric the metric name, must not be null
+     * @param sample the sample index
+     * @return the variance
+     */
+    public double getVariance(@Nonnull String metric, int sample) {
+        return getStatistics(metric, sample).getVariance();
+    }
+
+    /**
+     * Returns the number of replicas whose series have been merged.
+     *
+     * @return the replica count
+     */
+    public synchronized int getReplicas() {
+        return replicas;
+    }
+
+    /**
+     * Returns the wall-clock duration of the run.
+     *
+     * @return the duration in nanoseconds
+     */
+    public synchronized long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    /**
+     * Returns the index of a metric.
+     *
+     * @param metric the metric name
+     * @return the index
+     * @throws IllegalArgumentException if the metric is unknown
+     */
+    private int indexOf(String metric) {
+        int index = metrics.indexOf(Objects.requireNonNull(metric, "Metric cannot be null"));
+        if (index < 0) {
+            throw new IllegalArgumentException("Unknown metric: " + metric);
+        }
+        return index;
+    }
+}
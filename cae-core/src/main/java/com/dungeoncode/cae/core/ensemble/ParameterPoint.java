@@ -0,0 +1,88 @@
+package com.dungeoncode.cae.core.ensemble;
+
+import javax.annotation.Nonnull;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * One point of a {@link Sweep} parameter grid: a value for every swept parameter, in declaration order.
+ */
+public final class ParameterPoint {
+
+    /**
+     * The index of the point in the sweep's enumeration order.
+     */
+    private final int index;
+
+    /**
+     * The parameter values by name, in declaration order.
+     */
+    private final Map<String, Double> values;
+
+    /**
+     * Constructs a point.
+     *
+     * @param index  the index of the point in the sweep
+     * @param values the parameter values by name
+     */
+    ParameterPoint(int index, Map<String, Double> values) {
+        this.index = index;
+        this.values = Collections.unmodifiableMap(new LinkedHashMap<>(values));
+    }
+
+    /**
+     * Returns the index of the point in the sweep's enumeration order.
+     *
+     * @return the index
+     */
+    public int getIndex() {
+        return index;
+    }
+
+    /**
+     * Returns the value of a parameter.
+     *
+     * @param name the parameter name, must not be null
+     * @return the value
+     * @throws IllegalArgumentException if the parameter is not swept
+     */
+    public double get(@Nonnull String name) {
+        Double value = values.get(Objects.requireNonNull(name, "Parameter name cannot be null"));
+        if (value == null) {
+            throw new IllegalArgumentException("Unknown parameter: " + name);
+        }
+        return value;
+    }
+
+    /**
+     * Returns the value of an integer parameter, such as a species or subgrid count.
+     *
+     * @param name the parameter name, must not be null
+     * @return the value rounded to the nearest integer
+     * @throws IllegalArgumentException if the parameter is not swept
+     */
+    public int getInt(@Nonnull String name) {
+        return (int) Math.round(get(name));
+    }
+
+    /**
+     * Returns all parameter values by name, in declaration order.
+     *
+     * @return an unmodifiable map
+     */
+    public Map<String, Double> getValues() {
+        return values;
+    }
+
+    /**
+     * Returns the parameter values as text.
+     *
+     * @return a string such as {@code {flip=0.03125, species=4.0}}
+     */
+    @Override
+    public String toString() {
+        return values.toString();
+    }
+}
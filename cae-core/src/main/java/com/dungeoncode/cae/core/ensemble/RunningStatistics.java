@@ -0,0 +1,148 @@
+package com.dungeoncode.cae.core.ensemble;
+
+/**
+ * Streaming mean, variance, minimum, and maximum of a sequence of samples, computed with Welford's algorithm in
+ * constant memory. Two accumulators can be merged (Chan et al.), so partial statistics gathered on different threads
+ * combine into the statistics of the union. Instances are not thread-safe.
+ */
+public final class RunningStatistics {
+
+    /**
+     * The number of samples.
+     */
+    private long count;
+
+    /**
+     * The running mean of the samples.
+     */
+    private double mean;
+
+    /**
+     * The running sum of squared differences from the mean.
+     */
+    private double m2;
+
+    /**
+     * The smallest sample.
+     */
+    private double min = Double.POSITIVE_INFINITY;
+
+    /**
+     * The largest sample.
+     */
+    private double max = Double.NEGATIVE_INFINITY;
+
+    /**
+     * Adds a sample.
+     *
+     * @param value the sample
+     */
+    public void add(double value) {
+        count++;
+        double delta = value - mean;
+        mean += delta / count;
+        m2 += delta * (value - mean);
+        min = Math.min(min, value);
+        max = Math.max(max, value);
+    }
+
+    /**
+     * Adds all samples summarized by another accumulator.
+     *
+     * @param other the accumulator to merge, left unchanged
+     */
+    public void merge(RunningStatistics other) {
+        if (other.count == 0) {
+            return;
+        }
+        if (count == 0) {
+            count = other.count;
+            mean = other.mean;
+            m2 = other.m2;
+            min = other.min;
+            max = other.max;
+            return;
+        }
+        long total = count + other.count;
+        double delta = other.mean - mean;
+        mean += delta * other.count / total;
+        m2 += other.m2 + delta * delta * ((double) count * other.count / total);
+        count = total;
+        min = Math.min(min, other.min);
+        max = Math.max(max, other.max);
+    }
+
+    /**
+     * Returns the number of samples.
+     *
+     * @return the count
+     */
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * Returns the mean of the samples, or NaN if there are none.
+     *
+     * @return the mean
+     */
+    public double getMean() {
+        return count == 0 ? Double.NaN : mean;
+    }
+
+    /**
+     * Returns the unbiased sample variance, or NaN if there are fewer than two samples.
+     *
+     * @return the variance
+     */
+    public double getVariance() {
+        return count < 2 ? Double.NaN : m2 / (count - 1);
+    }
+
+    /**
+     * Returns the sample standard deviation, or NaN if there are fewer than two samples.
+     *
+     * @return the standard deviation
+     */
+    public double getStandardDeviation() {
+        return Math.sqrt(getVariance());
+    }
+
+    /**
+     * Returns the standard error of the mean, or NaN if there are fewer than two samples.
+     *
+     * @return the standard error
+     */
+    public double getStandardError() {
+        return Math.sqrt(getVariance() / count);
+    }
+
+    /**
+     * Returns the smallest sample, or NaN if there are none.
+     *
+     * @return the minimum
+     */
+    public double getMin() {
+        return count == 0 ? Double.NaN : min;
+    }
+
+    /**
+     * Returns the largest sample, or NaN if there are none.
+     *
+     * @return the maximum
+     */
+    public double getMax() {
+        return count == 0 ? Double.NaN : max;
+    }
+
+    /**
+     * Returns a summary of the statistics.
+     *
+     * @return a string with count, mean, standard deviation, minimum, and maximum
+     */
+    @Override
+    public String toString() {
+        return "RunningStatistics{count=" + count + ", mean=" + getMean() + ", sd=" + getStandardDeviation()
+                + ", min=" + getMin() + ", max=" + getMax() + "}";
+    }
+}
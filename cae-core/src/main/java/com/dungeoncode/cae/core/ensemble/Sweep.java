@@ -0,0 +1,403 @@
+package com.dungeoncode.cae.core.ensemble;
+
+import com.dungeoncode.cae.core.Automaton;
+import com.dungeoncode.cae.core.Cell;
+import com.dungeoncode.cae.core.CellState;
+import com.dungeoncode.cae.core.Configuration;
+import com.dungeoncode.cae.core.Grid;
+import com.dungeoncode.cae.core.io.ColumnarWriter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.annotation.Nonnull;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Explores a grid of rule and initializer parameters in parallel. Every combination of the declared parameter values
+ * is a {@link ParameterPoint}; each point is run for a number of replicas, each replica up to a maximum number of
+ * generations. A run stops early once its convergence metric settles: when its spread over the last
+ * {@code window} samples is within {@code tolerance} of its magnitude.
+ * <p>
+ * Each finished run appends one row to a {@link ColumnarWriter} file with the columns {@code point},
+ * {@code replica}, {@code seed}, one column per parameter, {@code generations}, {@code converged},
+ * {@code elapsed_ms}, and the final value of every metric. Replica {@code r} uses the same seed at every point
+ * (common random numbers), so differences between points are not masked by seed-to-seed noise.
+ * <pre>
+ * Sweep&lt;BooleanCell, BooleanState&gt; sweep = new Sweep&lt;&gt;(p -&gt; new ConfRandomAnneal(p.get("flip")), 256, 256);
+ * sweep.addParameter("flip", 1.0 / 128, 1.0 / 64, 1.0 / 32, 1.0 / 16);
+ * sweep.addMetric("population", Ensemble.population());
+ * sweep.setConvergence("population", 20, 0.001);
+ * sweep.run(10, 5000, 42L, 8, Path.of("anneal.cols"));
+ * </pre>
+ *
+ * @param <C> the type of cells in the automaton, extending {@link Cell}
+ * @param <S> the type of cell states, extending {@link CellState}
+ */
+public class Sweep<C extends Cell<S>, S extends CellState<?>> {
+
+    /**
+     * Logger for sweep progress.
+     */
+    private static final Logger LOGGER = LoggerFactory.getLogger(Sweep.class);
+
+    /**
+     * Creates the configuration of a run from its parameter point; must return a new instance on every call.
+     */
+    private final Function<ParameterPoint, ? extends Configuration<C, S>> configurationFactory;
+
+    /**
+     * The grid width of every run.
+     */
+    private final int width;
+
+    /**
+     * The grid height of every run.
+     */
+    private final int height;
+
+    /**
+     * The swept values of each parameter, in declaration order.
+     */
+    private final Map<String, double[]> parameters = new LinkedHashMap<>();
+
+    /**
+     * The metrics recorded at the end of each run, in registration order.
+     */
+    private final Map<String, ToDoubleFunction<? super Grid<C, S>>> metrics = new LinkedHashMap<>();
+
+    /**
+     * The number of generations between convergence checks.
+     */
+    private long sampleInterval = 1;
+
+    /**
+     * The metric whose settling ends a run early, or null to always run the maximum number of generations.
+     */
+    private String convergenceMetric;
+
+    /**
+     * The number of consecutive samples that must agree for a run to converge.
+     */
+    private int convergenceWindow;
+
+    /**
+     * The relative spread below which a run has converged.
+     */
+    private double convergenceTolerance;
+
+    /**
+     * Constructs a sweep.
+     *
+     * @param configurationFactory creates the configuration of a run from its parameter point, must not be null
+     * @param width                the grid width, must be positive
+     * @param height               the grid height, must be positive
+     * @throws NullPointerException     if configurationFactory is null
+     * @throws IllegalArgumentException if width or height is not positive
+     */
+    public Sweep(@Nonnull Function<ParameterPoint, ? extends Configuration<C, S>> configurationFactory,
+                 int width, int height) {
+        this.configurationFactory = Objects.requireNonNull(configurationFactory, "Configuration factory cannot be null");
+        if (width <= 0 || height <= 0) {
+            throw new IllegalArgumentException("Width and height must be positive: width=" + width + ", height=" + height);
+        }
+        this.width = width;
+        this.height = height;
+    }
+
+    /**
+     * Declares a swept parameter and its values. The parameter grid is the Cartesian product of all declared
+     * parameters, enumerated with the last parameter varying fastest.
+     *
+     * @param name   the parameter name, must not be null
+     * @param values the values to explore, at least one
+     * @throws NullPointerException     if name or values is null
+     * @throws IllegalArgumentException if no values are given or the name is already declared
+     */
+    public void addParameter(@Nonnull String name, @Nonnull double... values) {
+        Objects.requireNonNull(name, "Parameter name cannot be null");
+        Objects.requireNonNull(values, "Parameter values cannot be null");
+        if (values.length == 0) {
+            throw new IllegalArgumentException("Parameter " + name + " needs at least one value");
+        }
+        if (parameters.putIfAbsent(name, values.clone()) != null) {
+            throw new IllegalArgumentException("Duplicate parameter: " + name);
+        }
+    }
+
+    /**
+     * Registers a metric recorded at the end of each run and available as a convergence criterion.
+     *
+     * @param name   the metric name, must not be null
+     * @param metric computes the metric from a grid, must not be null
+     * @throws NullPointerException     if name or metric is null
+     * @throws IllegalArgumentException if a metric with that name is already registered
+     */
+    public void addMetric(@Nonnull String name, @Nonnull ToDoubleFunction<? super Grid<C, S>> metric) {
+        Objects.requireNonNull(name, "Metric name cannot be null");
+        Objects.requireNonNull(metric, "Metric cannot be null");
+        if (metrics.putIfAbsent(name, metric) != null) {
+            throw new IllegalArgumentException("Duplicate metric: " + name);
+        }
+    }
+
+    /**
+     * Sets the number of generations between convergence checks.
+     *
+     * @param sampleInterval the interval, must be positive
+     * @throws IllegalArgumentException if the interval is not positive
+     */
+    public void setSampleInterval(long sampleInterval) {
+        if (sampleInterval <= 0) {
+            throw new IllegalArgumentException("Sample interval must be positive: " + sampleInterval);
+        }
+        this.sampleInterval = sampleInterval;
+    }
+
+    /**
+     * Enables early stopping: a run ends once the last {@code window} samples of the metric lie within
+     * {@code tolerance * max(1, |latest sample|)} of each other.
+     *
+     * @param metric    the name of a registered metric, must not be null
+     * @param window    the number of samples compared, at least 2
+     * @param tolerance the relative spread, not negative
+     * @throws NullPointerException     if metric is null
+     * @throws IllegalArgumentException if window or tolerance is out of range
+     */
+    public void setConvergence(@Nonnull String metric, int window, double tolerance) {
+        Objects.requireNonNull(metric, "Metric cannot be null");
+        if (window < 2 || !(tolerance >= 0)) {
+            throw new IllegalArgumentException("Window must be at least 2 and tolerance not negative: window="
+                    + window + ", tolerance=" + tolerance);
+        }
+        this.convergenceMetric = metric;
+        this.convergenceWindow = window;
+        this.convergenceTolerance = tolerance;
+    }
+
+    /**
+     * Enumerates the parameter grid.
+     *
+     * @return the points, in sweep order
+     */
+    public List<ParameterPoint> getPoints() {
+        List<String> names = new ArrayList<>(parameters.keySet());
+        int total = 1;
+        for (double[] values : parameters.values()) {
+            total = Math.multiplyExact(total, values.length);
+        }
+        List<ParameterPoint> points = new ArrayList<>(total);
+        for (int index = 0; index < total; index++) {
+            Map<String, Double> values = new LinkedHashMap<>();
+            int rest = index;
+            for (int p = names.size() - 1; p >= 0; p--) {
+                double[] candidates = parameters.get(names.get(p));
+                values.put(names.get(p), candidates[rest % candidates.length]);
+                rest /= candidates.length;
+            }
+            Map<String, Double> ordered = new LinkedHashMap<>();
+            for (String name : names) {
+                ordered.put(name, values.get(name));
+            }
+            points.add(new ParameterPoint(index, ordered));
+        }
+        return points;
+    }
+
+    /**
+     * Runs the sweep on a private pool and writes one row per run to the output file.
+     *
+     * @param replicas       the number of replicas per point, must be positive
+     * @param maxGenerations the generation limit of each run, must not be negative
+     * @param seed           the sweep seed
+     * @param parallelism    the number of runs executing at once, must be positive
+     * @param output         the columnar file to write, must not be null
+     * @return the number of rows written
+     * @throws IllegalArgumentException if an argument is out of range or a name is used twice
+     * @throws IllegalStateException    if a run fails; the remaining runs are cancelled
+     * @throws IOException              if the output cannot be written
+     * @throws InterruptedException     if interrupted while waiting for the runs
+     */
+    public long run(int replicas, long maxGenerations, long seed, int parallelism, @Nonnull Path output)
+            throws IOException, InterruptedException {
+        if (parallelism <= 0) {
+            throw new IllegalArgumentException("Parallelism must be positive: " + parallelism);
+        }
+        AtomicInteger threadCount = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(parallelism, runnable -> {
+            Thread thread = new Thread(runnable, "sweep-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            return run(replicas, maxGenerations, seed, executor, output);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Runs the sweep on a caller-supplied pool and writes one row per run to the output file.
+     *
+     * @param replicas       the number of replicas per point, must be positive
+     * @param maxGenerations the generation limit of each run, must not be negative
+     * @param seed           the sweep seed
+     * @param executor       the pool running the sweep, must not be null; it is not shut down
+     * @param output         the columnar file to write, must not be null
+     * @return the number of rows written
+     * @throws IllegalArgumentException if an argument is out of range or a name is used twice
+     * @throws IllegalStateException    if a run fails; the remaining runs are cancelled
+     * @throws IOException              if the output cannot be written
+     * @throws InterruptedException     if interrupted while waiting for the runs
+     */
+    public long run(int replicas, long maxGenerations, long seed, @Nonnull ExecutorService executor,
+                    @Nonnull Path output) throws IOException, InterruptedException {
+        Objects.requireNonNull(executor, "Executor cannot be null");
+        Objects.requireNonNull(output, "Output cannot be null");
+        if (replicas <= 0 || maxGenerations < 0) {
+            throw new IllegalArgumentException("Replicas must be positive and generations not negative: replicas="
+                    + replicas + ", generations=" + maxGenerations);
+        }
+        if (convergenceMetric != null && !metrics.containsKey(convergenceMetric)) {
+            throw new IllegalArgumentException("Unknown convergence metric: " + convergenceMetric);
+        }
+        List<ParameterPoint> points = getPoints();
+        List<String> metricNames = new ArrayList<>(metrics.keySet());
+        List<ToDoubleFunction<? super Grid<C, S>>> functions = new ArrayList<>(metrics.values());
+        int convergenceIndex = convergenceMetric == null ? -1 : metricNames.indexOf(convergenceMetric);
+
+        List<String> columns = new ArrayList<>(List.of("point", "replica", "seed"));
+        List<ColumnarWriter.Type> types = new ArrayList<>(List.of(ColumnarWriter.Type.LONG,
+                ColumnarWriter.Type.LONG, ColumnarWriter.Type.LONG));
+        for (String name : parameters.keySet()) {
+            columns.add(name);
+            types.add(ColumnarWriter.Type.DOUBLE);
+        }
+        columns.addAll(List.of("generations", "converged", "elapsed_ms"));
+        types.addAll(List.of(ColumnarWriter.Type.LONG, ColumnarWriter.Type.LONG, ColumnarWriter.Type.DOUBLE));
+        for (String name : metricNames) {
+            columns.add(name);
+            types.add(ColumnarWriter.Type.DOUBLE);
+        }
+
+        long start = System.nanoTime();
+        try (ColumnarWriter writer = new ColumnarWriter(output, columns, types)) {
+            List<Future<?>> futures = new ArrayList<>(points.size() * replicas);
+            for (ParameterPoint point : points) {
+                for (int r = 0; r < replicas; r++) {
+                    int replica = r;
+                    futures.add(executor.submit(() -> runOne(point, replica, Ensemble.replicaSeed(seed, replica),
+                            maxGenerations, functions, convergenceIndex, writer)));
+                }
+            }
+            try {
+                for (Future<?> future : futures) {
+                    try {
+                        future.get();
+                    } catch (ExecutionException e) {
+                        if (e.getCause() instanceof UncheckedIOException io) {
+                            throw io.getCause();
+                        }
+                        throw new IllegalStateException("Sweep run failed: " + e.getCause().getMessage(), e.getCause());
+                    } catch (CancellationException e) {
+                        throw new IllegalStateException("Sweep run was cancelled", e);
+                    }
+                }
+            } finally {
+                for (Future<?> future : futures) {
+                    future.cancel(true);
+                }
+            }
+            LOGGER.debug("Sweep of {} points x {} replicas finished in {} ms", points.size(), replicas,
+                    (System.nanoTime() - start) / 1_000_000);
+            return writer.getRowCount();
+        }
+    }
+
+    /**
+     * Executes one run and appends its row. Stops without writing if the thread is interrupted.
+     *
+     * @param point            the parameter point
+     * @param replica          the replica index
+     * @param runSeed          the run seed
+     * @param maxGenerations   the generation limit
+     * @param functions        the metrics
+     * @param convergenceIndex the index of the convergence metric, or -1
+     * @param writer           the output
+     */
+    private void runOne(ParameterPoint point, int replica, long runSeed, long maxGenerations,
+                        List<ToDoubleFunction<? super Grid<C, S>>> functions, int convergenceIndex,
+                        ColumnarWriter writer) {
+        long start = System.nanoTime();
+        Automaton<C, S> automaton = Ensemble.configureReplica(configurationFactory.apply(point), width, height,
+                runSeed);
+        double[] window = convergenceIndex >= 0 ? new double[convergenceWindow] : null;
+        int samples = 0;
+        boolean converged = false;
+        if (window != null) {
+            window[samples++ % window.length] = functions.get(convergenceIndex).applyAsDouble(automaton.getGrid());
+        }
+        while (automaton.getGeneration() < maxGenerations && !converged) {
+            if (Thread.currentThread().isInterrupted()) {
+                return;
+            }
+            automaton.step();
+            if (window != null && automaton.getGeneration() % sampleInterval == 0) {
+                double value = functions.get(convergenceIndex).applyAsDouble(automaton.getGrid());
+                window[samples++ % window.length] = value;
+                converged = samples >= window.length && hasSettled(window, value);
+            }
+        }
+
+        Object[] row = new Object[6 + point.getValues().size() + functions.size()];
+        int c = 0;
+        row[c++] = point.getIndex();
+        row[c++] = replica;
+        row[c++] = runSeed;
+        for (double value : point.getValues().values()) {
+            row[c++] = value;
+        }
+        row[c++] = automaton.getGeneration();
+        row[c++] = converged;
+        row[c++] = (System.nanoTime() - start) / 1e6;
+        for (ToDoubleFunction<? super Grid<C, S>> function : functions) {
+            row[c++] = function.applyAsDouble(automaton.getGrid());
+        }
+        try {
+            writer.writeRow(row);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Returns whether the samples in the window lie within the tolerance of each other.
+     *
+     * @param window the recent samples
+     * @param latest the latest sample
+     * @return true if the spread is within {@code tolerance * max(1, |latest|)}
+     */
+    private boolean hasSettled(double[] window, double latest) {
+        double min = Double.POSITIVE_INFINITY;
+        double max = Double.NEGATIVE_INFINITY;
+        for (double value : window) {
+            min = Math.min(min, value);
+            max = Math.max(max, value);
+        }
+        return max - min <= convergenceTolerance * Math.max(1.0, Math.abs(latest));
+    }
+}
@@ -0,0 +1,274 @@
+package com.dungeoncode.cae.core.impl;
+
+import com.dungeoncode.cae.core.Grid;
+import com.dungeoncode.cae.core.impl.packed.OffHeapPlane;
+import com.dungeoncode.cae.core.impl.packed.PackedBooleanGrid;
+
+import javax.annotation.Nonnull;
+import java.util.Objects;
+
+/**
+ * An immutable copy of the states of a boolean grid at one generation, safe to hand to other threads while the
+ * simulation keeps stepping. Values and echo flags are stored one bit per cell in rows of 64-bit words; live sums and
+ * ids are stored as unsigned bytes, clamped to 0..255 like in a {@link com.dungeoncode.cae.core.io.Snapshot}.
+ */
+public final class BooleanFrame {
+
+    /**
+     * The generation of the states.
+     */
+    private final long generation;
+
+    /**
+     * The number of columns.
+     */
+    private final int width;
+
+    /**
+     * The number of rows.
+     */
+    private final int height;
+
+    /**
+     * The number of 64-bit words per row of the bit planes.
+     */
+    private final int wordsPerRow;
+
+    /**
+     * The value bits, bit {@code x & 63} of word {@code y * wordsPerRow + x / 64} for cell (x, y).
+     */
+    private final long[] values;
+
+    /**
+     * The echo bits, in the same layout as the values.
+     */
+    private final long[] echoes;
+
+    /**
+     * The live sum of every cell in row-major order.
+     */
+    private final byte[] liveSums;
+
+    /**
+     * The id of every cell in row-major order.
+     */
+    private final byte[] ids;
+
+    /**
+     * Constructs a frame over captured planes.
+     *
+     * @param generation  the generation of the states
+     * @param width       the number of columns
+     * @param height      the number of rows
+     * @param wordsPerRow the number of words per row of the bit planes
+     * @param values      the value bits
+     * @param echoes      the echo bits
+     * @param liveSums    the live sums
+     * @param ids         the ids
+     */
+    private BooleanFrame(long generation, int width, int height, int wordsPerRow, long[] values, long[] echoes,
+                         byte[] liveSums, byte[] ids) {
+        this.generation = generation;
+        this.width = width;
+        this.height = height;
+        this.wordsPerRow = wordsPerRow;
+        this.values = values;
+        this.echoes = echoes;
+        this.liveSums = liveSums;
+        this.ids = ids;
+    }
+
+    /**
+     * Captures the current states of a grid. Packed grids copy their bit planes a word at a time.
+     *
+     * @param grid       the grid to capture, must not be null
+     * @param generation the generation of the states
+     * @return the frame
+     * @throws NullPointerException     if grid is null
+     * @throws IllegalArgumentException if the grid has more than {@link Integer#MAX_VALUE} cells
+     */
+    public static BooleanFrame capture(@Nonnull Grid<BooleanCell, BooleanState> grid, long generation) {
+        Objects.requireNonNull(grid, "Grid cannot be null");
+        int width = grid.getWidth();
+        int height = grid.getHeight();
+        if ((long) width * height > Integer.MAX_VALUE - 8) {
+            throw new IllegalArgumentException("Grid too large to capture: width=" + width + ", height=" + height);
+        }
+        int wordsPerRow = (width + 63) >>> 6;
+        long[] values = new long[wordsPerRow * height];
+        long[] echoes = new long[wordsPerRow * height];
+        byte[] liveSums = new byte[width * height];
+        byte[] ids = new byte[width * height];
+        PackedBooleanGrid packed = grid instanceof PackedBooleanGrid p ? p : null;
+        for (int y = 0; y < height; y++) {
+            int row = y * wordsPerRow;
+            if (packed != null) {
+                OffHeapPlane valuePlane = packed.getValuePlane();
+                OffHeapPlane echoPlane = packed.getEchoPlane();
+                for (int w = 0; w < wordsPerRow; w++) {
+                    values[row + w] = valuePlane.getWord(w, y);
+                    echoes[row + w] = echoPlane.getWord(w, y);
+                }
+            }
+            for (int x = 0; x < width; x++) {
+                BooleanState state = grid.getCell(x, y).getState();
+                if (packed == null) {
+                    if (state.getValue()) {
+                        values[row + (x >>> 6)] |= 1L << x;
+                    }
+                    if (state.isEcho()) {
+                        echoes[row + (x >>> 6)] |= 1L << x;
+                    }
+                }
+                liveSums[y * width + x] = (byte) Math.min(255, Math.max(0, state.getLiveSum()));
+                ids[y * width + x] = (byte) Math.min(255, Math.max(0, state.getId()));
+            }
+        }
+        return new BooleanFrame(generation, width, height, wordsPerRow, values, echoes, liveSums, ids);
+    }
+
+    /**
+     * Returns the generation of the states.
+     *
+     * @return the generation
+     */
+    public long getGeneration() {
+        return generation;
+    }
+
+    /**
+     * Returns the number of columns.
+     *
+     * @return the width
+     */
+    public int getWidth() {
+        return width;
+    }
+
+    /**
+     * Returns the number of rows.
+     *
+     * @return the height
+     */
+    public int getHeight() {
+        return height;
+    }
+
+    /**
+     * Returns whether a cell is active.
+     *
+     * @param x the column
+     * @param y the row
+     * @return the value of the cell
+     * @throws IndexOutOfBoundsException if the coordinates are out of bounds
+     */
+    public boolean getValue(int x, int y) {
+        return (values[wordIndex(x, y)] & (1L << x)) != 0;
+    }
+
+    /**
+     * Returns the echo flag of a cell.
+     *
+     * @param x the column
+     * @param y the row
+     * @return the echo flag
+     * @throws IndexOutOfBoundsException if the coordinates are out of bounds
+     */
+    public boolean isEcho(int x, int y) {
+        return (echoes[wordIndex(x, y)] & (1L << x)) != 0;
+    }
+
+    /**
+     * Returns the live sum of a cell.
+     *
+     * @param x the column
+     * @param y the row
+     * @return the live sum, clamped to 0..255
+     * @throws IndexOutOfBoundsException if the coordinates are out of bounds
+     */
+    public int getLiveSum(int x, int y) {
+        return liveSums[cellIndex(x, y)] & 0xFF;
+    }
+
+    /**
+     * Returns the id of a cell.
+     *
+     * @param x the column
+     * @param y the row
+     * @return the id, clamped to 0..255
+     * @throws IndexOutOfBoundsException if the coordinates are out of bounds
+     */
+    public int getId(int x, int y) {
+        return ids[cellIndex(x, y)] & 0xFF;
+    }
+
+    /**
+     * Returns 64 cell values of a row as one word.
+     *
+     * @param w the word index within the row
+     * @param y the row
+     * @return the word, bit {@code i} set if column {@code 64 * w + i} is active
+     * @throws IndexOutOfBoundsException if the indices are out of bounds
+     */
+    public long getValueWord(int w, int y) {
+        return values[Objects.checkIndex(y, height) * wordsPerRow + Objects.checkIndex(w, wordsPerRow)];
+    }
+
+    /**
+     * Returns the state of a cell as a new {@link BooleanState}.
+     *
+     * @param x the column
+     * @param y the row
+     * @return the state
+     * @throws IndexOutOfBoundsException if the coordinates are out of bounds
+     */
+    public BooleanState getState(int x, int y) {
+        return new BooleanState(getValue(x, y), isEcho(x, y), getLiveSum(x, y), getId(x, y));
+    }
+
+    /**
+     * Returns the number of active cells.
+     *
+     * @return the population
+     */
+    public long getPopulation() {
+        long population = 0;
+        for (long word : values) {
+            population += Long.bitCount(word);
+        }
+        return population;
+    }
+
+    /**
+     * Returns the number of 64-bit words per row of the bit planes.
+     *
+     * @return the words per row
+     */
+    public int getWordsPerRow() {
+        return wordsPerRow;
+    }
+
+    /**
+     * Returns the index of the word holding a cell.
+     *
+     * @param x the column
+     * @param y the row
+     * @return the word index
+     * @throws IndexOutOfBoundsException if the coordinates are out of bounds
+     */
+    private int wordIndex(int x, int y) {
+        return Objects.checkIndex(y, height) * wordsPerRow + (Objects.checkIndex(x, width) >>> 6);
+    }
+
+    /**
+     * Returns the row-major index of a cell.
+     *
+     * @param x the column
+     * @param y the row
+     * @return the cell index
+     * @throws IndexOutOfBoundsException if the coordinates are out of bounds
+     */
+    private int cellIndex(int x, int y) {
+        return Objects.checkIndex(y, height) * width + Objects.checkIndex(x, width);
+    }
+}
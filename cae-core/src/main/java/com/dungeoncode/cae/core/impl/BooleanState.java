@@ -144,4 +144,18 @@ public class BooleanState implements CellState<Boolean> {
         this.echo = echo;
         this.liveSum = liveSum;
     }
+
+    /**
+     * Packs all fields of a state into a 64-bit code: bit 0 holds the value, bit 1 the echo, bits 2-33 the live sum,
+     * and bits 34-63 the id. Equal codes mean equal states; used as the state encoder for grid hashing.
+     *
+     * @param state the state to encode
+     * @return the code
+     */
+    public static long encode(BooleanState state) {
+        return (state.getValue() ? 1L : 0L)
+                | (state.isEcho() ? 2L : 0L)
+                | ((state.getLiveSum() & 0xFFFFFFFFL) << 2)
+                | ((long) state.getId() << 34);
+    }
 }
\ No newline at end of file
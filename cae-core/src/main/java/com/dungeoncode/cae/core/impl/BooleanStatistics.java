@@ -0,0 +1,148 @@
+package com.dungeoncode.cae.core.impl;
+
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * The observables of one generation of a boolean grid, as published by {@link BooleanStatisticsCollector}.
+ *
+ * @param generation       the generation the statistics describe
+ * @param width            the number of columns of the grid
+ * @param height           the number of rows of the grid
+ * @param population       the number of active cells
+ * @param liveSumHistogram the number of cells with each live sum, indexed by live sum, over all cells
+ * @param speciesCounts    the number of active cells with each id, indexed by id; index 0 counts active cells
+ *                         without a species
+ */
+public record BooleanStatistics(long generation, int width, int height, long population, long[] liveSumHistogram,
+                                long[] speciesCounts) {
+
+    /**
+     * Validates and copies the fields.
+     *
+     * @throws NullPointerException if an array is null
+     */
+    public BooleanStatistics {
+        liveSumHistogram = Objects.requireNonNull(liveSumHistogram, "Live sum histogram cannot be null").clone();
+        speciesCounts = Objects.requireNonNull(speciesCounts, "Species counts cannot be null").clone();
+    }
+
+    /**
+     * Returns the fraction of active cells.
+     *
+     * @return the population divided by the number of cells
+     */
+    public double density() {
+        return (double) population / ((long) width * height);
+    }
+
+    /**
+     * Returns the number of cells with a live sum.
+     *
+     * @param liveSum the live sum
+     * @return the count, 0 if no cell has that live sum
+     */
+    public long liveSumCount(int liveSum) {
+        return liveSum >= 0 && liveSum < liveSumHistogram.length ? liveSumHistogram[liveSum] : 0;
+    }
+
+    /**
+     * Returns the mean live sum over all cells.
+     *
+     * @return the mean live sum
+     */
+    public double meanLiveSum() {
+        double sum = 0;
+        for (int i = 1; i < liveSumHistogram.length; i++) {
+            sum += (double) i * liveSumHistogram[i];
+        }
+        return sum / ((long) width * height);
+    }
+
+    /**
+     * Returns the number of active cells of a species.
+     *
+     * @param id the species id
+     * @return the count, 0 if no active cell has that id
+     */
+    public long speciesCount(int id) {
+        return id >= 0 && id < speciesCounts.length ? speciesCounts[id] : 0;
+    }
+
+    /**
+     * Returns the number of species (ids other than 0) with at least one active cell.
+     *
+     * @return the number of surviving species
+     */
+    public int survivingSpecies() {
+        int count = 0;
+        for (int i = 1; i < speciesCounts.length; i++) {
+            if (speciesCounts[i] > 0) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Returns a copy of the live sum histogram.
+     *
+     * @return the number of cells with each live sum, indexed by live sum
+     */
+    @Override
+    public long[] liveSumHistogram() {
+        return liveSumHistogram.clone();
+    }
+
+    /**
+     * Returns a copy of the species counts.
+     *
+     * @return the number of active cells with each id, indexed by id
+     */
+    @Override
+    public long[] speciesCounts() {
+        return speciesCounts.clone();
+    }
+
+    /**
+     * Compares statistics field by field, including the contents of the arrays.
+     *
+     * @param o the object to compare with
+     * @return true if equal
+     */
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof BooleanStatistics other)) {
+            return false;
+        }
+        return generation == other.generation && width == other.width && height == other.height
+                && population == other.population && Arrays.equals(liveSumHistogram, other.liveSumHistogram)
+                && Arrays.equals(speciesCounts, other.speciesCounts);
+    }
+
+    /**
+     * Returns a hash code consistent with {@link #equals(Object)}.
+     *
+     * @return the hash code
+     */
+    @Override
+    public int hashCode() {
+        int result = Objects.hash(generation, width, height, population);
+        result = 31 * result + Arrays.hashCode(liveSumHistogram);
+        return 31 * result + Arrays.hashCode(speciesCounts);
+    }
+
+    /**
+     * Returns a summary of the statistics.
+     *
+     * @return a string with the generation, population, density, and surviving species
+     */
+    @Override
+    public String toString() {
+        return "BooleanStatistics[generation=" + generation + ", population=" + population
+                + ", density=" + density() + ", species=" + survivingSpecies() + "]";
+    }
+}
@@ -0,0 +1,205 @@
+package com.dungeoncode.cae.core.impl;
+
+import com.dungeoncode.cae.core.StatisticsCollector;
+
+import javax.annotation.Nonnull;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * Collects {@link BooleanStatistics} while a boolean grid commits its next states: population, the live sum
+ * histogram, and the population of each species id, as used by {@code ConfGeneticDrift}. Each generation is
+ * published to the registered listeners on the stepping thread and kept as the latest statistics.
+ * <p>
+ * Accumulation only touches a few counters per cell, and packed grids feed the collector a word at a time through
+ * {@link #addPopulation(long)}, {@link #addLiveSums(int, long)}, and {@link #addSpecies(int, long)}.
+ */
+public class BooleanStatisticsCollector implements StatisticsCollector<BooleanState> {
+
+    /**
+     * Listeners notified with the statistics of each generation.
+     */
+    private final List<Consumer<BooleanStatistics>> listeners = new CopyOnWriteArrayList<>();
+
+    /**
+     * The number of cells with each live sum in the current generation.
+     */
+    private long[] liveSumHistogram = new long[16];
+
+    /**
+     * The number of active cells with each id in the current generation.
+     */
+    private long[] speciesCounts = new long[16];
+
+    /**
+     * The highest live sum seen in the current generation.
+     */
+    private int maxLiveSum = -1;
+
+    /**
+     * The highest id of an active cell seen in the current generation.
+     */
+    private int maxId = -1;
+
+    /**
+     * The number of active cells in the current generation.
+     */
+    private long population;
+
+    /**
+     * The number of columns of the grid.
+     */
+    private int width;
+
+    /**
+     * The number of rows of the grid.
+     */
+    private int height;
+
+    /**
+     * The statistics of the last completed generation.
+     */
+    private volatile BooleanStatistics latest;
+
+    /**
+     * Starts accumulating a generation, clearing the counters.
+     *
+     * @param width  the number of columns of the grid
+     * @param height the number of rows of the grid
+     */
+    @Override
+    public void begin(int width, int height) {
+        this.width = width;
+        this.height = height;
+        this.population = 0;
+        Arrays.fill(liveSumHistogram, 0, maxLiveSum + 1, 0L);
+        Arrays.fill(speciesCounts, 0, maxId + 1, 0L);
+        maxLiveSum = -1;
+        maxId = -1;
+    }
+
+    /**
+     * Accumulates the committed state of one cell.
+     *
+     * @param state the new state of the cell
+     */
+    @Override
+    public void accept(BooleanState state) {
+        addLiveSums(state.getLiveSum(), 1);
+        if (state.getValue()) {
+            population++;
+            addSpecies(state.getId(), 1);
+        }
+    }
+
+    /**
+     * Adds active cells to the population, without species information.
+     *
+     * @param count the number of active cells
+     */
+    public void addPopulation(long count) {
+        population += count;
+    }
+
+    /**
+     * Adds cells with a live sum to the histogram.
+     *
+     * @param liveSum the live sum, negative values are ignored
+     * @param count   the number of cells
+     */
+    public void addLiveSums(int liveSum, long count) {
+        if (liveSum < 0 || count == 0) {
+            return;
+        }
+        if (liveSum >= liveSumHistogram.length) {
+            liveSumHistogram = Arrays.copyOf(liveSumHistogram, Math.max(liveSum + 1, liveSumHistogram.length * 2));
+        }
+        liveSumHistogram[liveSum] += count;
+        maxLiveSum = Math.max(maxLiveSum, liveSum);
+    }
+
+    /**
+     * Adds active cells of a species, without adding them to the population.
+     *
+     * @param id    the species id, negative values are ignored
+     * @param count the number of active cells
+     */
+    public void addSpecies(int id, long count) {
+        if (id < 0 || count == 0) {
+            return;
+        }
+        if (id >= speciesCounts.length) {
+            speciesCounts = Arrays.copyOf(speciesCounts, Math.max(id + 1, speciesCounts.length * 2));
+        }
+        speciesCounts[id] += count;
+        maxId = Math.max(maxId, id);
+    }
+
+    /**
+     * Completes the generation, stores its statistics as the latest, and notifies the listeners.
+     *
+     * @param generation the generation the statistics describe
+     */
+    @Override
+    public void end(long generation) {
+        BooleanStatistics statistics = new BooleanStatistics(generation, width, height, population,
+                Arrays.copyOf(liveSumHistogram, maxLiveSum + 1), Arrays.copyOf(speciesCounts, maxId + 1));
+        latest = statistics;
+        for (Consumer<BooleanStatistics> listener : listeners) {
+            listener.accept(statistics);
+        }
+    }
+
+    /**
+     * Publishes the statistics of the last completed generation again under a new generation number, for a generation
+     * skipped because the grid did not change. Nothing is published if no generation has completed yet.
+     *
+     * @param generation the generation the statistics describe
+     */
+    @Override
+    public void repeat(long generation) {
+        BooleanStatistics previous = latest;
+        if (previous == null) {
+            return;
+        }
+        BooleanStatistics statistics = new BooleanStatistics(generation, previous.width(), previous.height(),
+                previous.population(), previous.liveSumHistogram(), previous.speciesCounts());
+        latest = statistics;
+        for (Consumer<BooleanStatistics> listener : listeners) {
+            listener.accept(statistics);
+        }
+    }
+
+    /**
+     * Returns the statistics of the last completed generation.
+     *
+     * @return the statistics, or null if no generation has completed
+     */
+    public BooleanStatistics getLatest() {
+        return latest;
+    }
+
+    /**
+     * Adds a listener notified on the stepping thread with the statistics of each generation. Listeners must return
+     * quickly, since they delay the next step.
+     *
+     * @param listener the listener to add, must not be null
+     * @throws NullPointerException if listener is null
+     */
+    public void addListener(@Nonnull Consumer<BooleanStatistics> listener) {
+        listeners.add(Objects.requireNonNull(listener, "Listener cannot be null"));
+    }
+
+    /**
+     * Removes a previously added listener.
+     *
+     * @param listener the listener to remove
+     * @return true if the listener was registered
+     */
+    public boolean removeListener(Consumer<BooleanStatistics> listener) {
+        return listeners.remove(listener);
+    }
+}
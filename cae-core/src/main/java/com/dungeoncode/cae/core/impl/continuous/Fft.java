@@ -0,0 +1,232 @@
+package com.dungeoncode.cae.core.impl.continuous;
+
+/**
+ * A precomputed plan for the discrete Fourier transform of complex sequences of one length, in pure Java.
+ * <p>
+ * Lengths that are powers of two use an iterative radix-2 Cooley-Tukey transform with tabulated twiddle factors and
+ * bit-reversal permutation. Other lengths use Bluestein's algorithm, which rewrites the transform as a convolution
+ * computed with power-of-two transforms of at least twice the length, so every length costs {@code O(n log n)}.
+ * <p>
+ * Transforms are unnormalized: a forward transform followed by an inverse one multiplies the sequence by its length.
+ * A plan is immutable and can be shared by threads, each passing its own work arrays.
+ */
+public final class Fft {
+
+    /**
+     * The length of the sequences.
+     */
+    private final int n;
+
+    /**
+     * The bit-reversal permutation, for power-of-two lengths.
+     */
+    private final int[] reverse;
+
+    /**
+     * {@code cos(2πk / n)} for the first half of the unit circle, for power-of-two lengths.
+     */
+    private final double[] cos;
+
+    /**
+     * {@code sin(2πk / n)} for the first half of the unit circle, for power-of-two lengths.
+     */
+    private final double[] sin;
+
+    /**
+     * The power-of-two plan of the convolution, for other lengths.
+     */
+    private final Fft inner;
+
+    /**
+     * The real parts of the chirp {@code exp(-iπk² / n)}, for other lengths.
+     */
+    private final double[] chirpRe;
+
+    /**
+     * The imaginary parts of the chirp, for other lengths.
+     */
+    private final double[] chirpIm;
+
+    /**
+     * The real parts of the transformed conjugate chirp, for other lengths.
+     */
+    private final double[] filterRe;
+
+    /**
+     * The imaginary parts of the transformed conjugate chirp, for other lengths.
+     */
+    private final double[] filterIm;
+
+    /**
+     * Plans transforms of a length.
+     *
+     * @param n the length of the sequences, must be positive
+     * @throws IllegalArgumentException if the length is not positive or too large for Bluestein's algorithm
+     */
+    public Fft(int n) {
+        if (n <= 0) {
+            throw new IllegalArgumentException("Length must be positive: " + n);
+        }
+        this.n = n;
+        if (Integer.bitCount(n) == 1) {
+            int bits = Integer.numberOfTrailingZeros(n);
+            this.reverse = new int[n];
+            for (int i = 0; i < n; i++) {
+                reverse[i] = bits == 0 ? 0 : Integer.reverse(i) >>> (32 - bits);
+            }
+            this.cos = new double[Math.max(1, n / 2)];
+            this.sin = new double[cos.length];
+            for (int k = 0; k < cos.length; k++) {
+                cos[k] = Math.cos(2 * Math.PI * k / n);
+                sin[k] = Math.sin(2 * Math.PI * k / n);
+            }
+            this.inner = null;
+            this.chirpRe = null;
+            this.chirpIm = null;
+            this.filterRe = null;
+            this.filterIm = null;
+            return;
+        }
+        if (n > 1 << 29) {
+            throw new IllegalArgumentException("Length too large: " + n);
+        }
+        int m = Integer.highestOneBit(2 * n - 1) << 1;
+        this.reverse = null;
+        this.cos = null;
+        this.sin = null;
+        this.inner = new Fft(m);
+        this.chirpRe = new double[n];
+        this.chirpIm = new double[n];
+        for (int k = 0; k < n; k++) {
+            double angle = Math.PI * ((long) k * k % (2L * n)) / n;
+            chirpRe[k] = Math.cos(angle);
+            chirpIm[k] = -Math.sin(angle);
+        }
+        this.filterRe = new double[m];
+        this.filterIm = new double[m];
+        filterRe[0] = chirpRe[0];
+        filterIm[0] = -chirpIm[0];
+        for (int k = 1; k < n; k++) {
+            filterRe[k] = filterRe[m - k] = chirpRe[k];
+            filterIm[k] = filterIm[m - k] = -chirpIm[k];
+        }
+        inner.transform(filterRe, filterIm, false, null, null);
+    }
+
+    /**
+     * Transforms a sequence in place.
+     *
+     * @param re      the real parts, of at least {@link #size()} entries
+     * @param im      the imaginary parts, of at least {@link #size()} entries
+     * @param inverse true for the inverse transform, with a positive exponent and no scaling
+     * @param workRe  scratch space of at least {@link #getWorkLength()} entries, or null if that is 0
+     * @param workIm  scratch space of at least {@link #getWorkLength()} entries, or null if that is 0
+     */
+    public void transform(double[] re, double[] im, boolean inverse, double[] workRe, double[] workIm) {
+        if (inner == null) {
+            radix2(re, im, inverse);
+        } else if (inverse) {
+            for (int i = 0; i < n; i++) {
+                im[i] = -im[i];
+            }
+            bluestein(re, im, workRe, workIm);
+            for (int i = 0; i < n; i++) {
+                im[i] = -im[i];
+            }
+        } else {
+            bluestein(re, im, workRe, workIm);
+        }
+    }
+
+    /**
+     * Transforms a power-of-two sequence in place with the iterative radix-2 algorithm.
+     *
+     * @param re      the real parts
+     * @param im      the imaginary parts
+     * @param inverse true for a positive exponent
+     */
+    private void radix2(double[] re, double[] im, boolean inverse) {
+        for (int i = 0; i < n; i++) {
+            int j = reverse[i];
+            if (i < j) {
+                double t = re[i];
+                re[i] = re[j];
+                re[j] = t;
+                t = im[i];
+                im[i] = im[j];
+                im[j] = t;
+            }
+        }
+        double sign = inverse ? 1 : -1;
+        for (int length = 2; length <= n; length <<= 1) {
+            int half = length >>> 1;
+            int step = n / length;
+            for (int start = 0; start < n; start += length) {
+                for (int k = 0; k < half; k++) {
+                    double wr = cos[k * step];
+                    double wi = sign * sin[k * step];
+                    int a = start + k;
+                    int b = a + half;
+                    double tr = re[b] * wr - im[b] * wi;
+                    double ti = re[b] * wi + im[b] * wr;
+                    re[b] = re[a] - tr;
+                    im[b] = im[a] - ti;
+                    re[a] += tr;
+                    im[a] += ti;
+                }
+            }
+        }
+    }
+
+    /**
+     * Transforms a sequence of any length in place with Bluestein's algorithm.
+     *
+     * @param re     the real parts
+     * @param im     the imaginary parts
+     * @param workRe scratch space of the inner length
+     * @param workIm scratch space of the inner length
+     */
+    private void bluestein(double[] re, double[] im, double[] workRe, double[] workIm) {
+        int m = inner.size();
+        for (int k = 0; k < n; k++) {
+            workRe[k] = re[k] * chirpRe[k] - im[k] * chirpIm[k];
+            workIm[k] = re[k] * chirpIm[k] + im[k] * chirpRe[k];
+        }
+        for (int k = n; k < m; k++) {
+            workRe[k] = 0;
+            workIm[k] = 0;
+        }
+        inner.transform(workRe, workIm, false, null, null);
+        for (int k = 0; k < m; k++) {
+            double r = workRe[k] * filterRe[k] - workIm[k] * filterIm[k];
+            workIm[k] = workRe[k] * filterIm[k] + workIm[k] * filterRe[k];
+            workRe[k] = r;
+        }
+        inner.transform(workRe, workIm, true, null, null);
+        double scale = 1.0 / m;
+        for (int k = 0; k < n; k++) {
+            double r = workRe[k] * scale;
+            double i = workIm[k] * scale;
+            re[k] = r * chirpRe[k] - i * chirpIm[k];
+            im[k] = r * chirpIm[k] + i * chirpRe[k];
+        }
+    }
+
+    /**
+     * Returns the length of the sequences.
+     *
+     * @return the length
+     */
+    public int size() {
+        return n;
+    }
+
+    /**
+     * Returns the length of the work arrays a transform needs.
+     *
+     * @return the work length, 0 for power-of-two lengths
+     */
+    public int getWorkLength() {
+        return inner == null ? 0 : inner.size();
+    }
+}
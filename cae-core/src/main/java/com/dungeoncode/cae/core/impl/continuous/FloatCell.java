@@ -0,0 +1,64 @@
+package com.dungeoncode.cae.core.impl.continuous;
+
+import com.dungeoncode.cae.core.AbstractCell;
+
+import javax.annotation.Nonnull;
+import java.util.Objects;
+
+/**
+ * A view of one cell of a {@link FloatGrid}. The view holds no state of its own: its state is read from and written
+ * to the current-state plane of the grid at the bound coordinates. Views are cheap, short-lived objects created on
+ * access.
+ */
+public final class FloatCell extends AbstractCell<FloatState> {
+
+    /**
+     * The grid holding the state.
+     */
+    private final FloatGrid grid;
+
+    /**
+     * Constructs a view of the cell at the given coordinates.
+     *
+     * @param grid the grid holding the state
+     * @param x    the column
+     * @param y    the row
+     */
+    FloatCell(FloatGrid grid, int x, int y) {
+        super(x, y);
+        this.grid = grid;
+    }
+
+    /**
+     * Returns the current state of the cell.
+     *
+     * @return the state
+     */
+    @Override
+    public FloatState getState() {
+        return new FloatState(grid.get(getPosition().getX(), getPosition().getY()));
+    }
+
+    /**
+     * Stores a state in the grid.
+     *
+     * @param state the state, must not be null
+     * @throws NullPointerException if state is null
+     */
+    @Override
+    public void setState(@Nonnull FloatState state) {
+        Objects.requireNonNull(state, "State cannot be null");
+        grid.set(getPosition().getX(), getPosition().getY(), state.floatValue());
+    }
+
+    /**
+     * Stores a state in the grid; states are immutable, so this is the same as {@link #setState(FloatState)}.
+     *
+     * @param state the state, must not be null
+     * @throws NullPointerException if state is null
+     */
+    @Override
+    public void copyState(@Nonnull FloatState state) {
+        setState(state);
+    }
+}
@@ -0,0 +1,250 @@
+package com.dungeoncode.cae.core.impl.continuous;
+
+import com.dungeoncode.cae.core.Grid;
+import com.dungeoncode.cae.core.GridInitializer;
+import com.dungeoncode.cae.core.StatisticsCollector;
+
+import java.util.function.ToLongFunction;
+
+/**
+ * A {@link Grid} of continuous cell values, stored as one float per cell in two heap planes, current and next,
+ * instead of one object per cell. A 1024 x 1024 grid takes 8 MB.
+ * <p>
+ * The planes are row-major: the value of cell (x, y) is at index {@code y * width + x}. Rules that implement
+ * {@link com.dungeoncode.cae.core.GridRule} read {@link #getPlane()} and write {@link #getNextPlane()} directly; other
+ * rules write next values with {@link #setNext(int, int, float)}. Committing swaps the planes instead of copying them,
+ * so every rule must write the next value of every cell.
+ * <p>
+ * {@link #getCell(int, int)} returns a lightweight view for initializers, renderers, and per-cell rules.
+ */
+public class FloatGrid extends Grid<FloatCell, FloatState> {
+
+    /**
+     * The plane of the current values.
+     */
+    private float[] current;
+
+    /**
+     * The plane of the next values.
+     */
+    private float[] next;
+
+    /**
+     * Constructs a grid with every cell at 0, then runs the initializer.
+     *
+     * @param width       the number of columns (x-axis), must be positive
+     * @param height      the number of rows (y-axis), must be positive
+     * @param initializer the {@link GridInitializer} to populate the grid, or null to leave every cell at 0
+     * @throws IllegalArgumentException if width or height is not positive, or the grid has more than
+     *                                  {@link Integer#MAX_VALUE} cells
+     */
+    public FloatGrid(int width, int height, GridInitializer<FloatCell, FloatState> initializer) {
+        super(width, height, initializer, false);
+        if ((long) width * height > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Grid too large: width=" + width + ", height=" + height);
+        }
+        this.current = new float[width * height];
+        this.next = new float[width * height];
+        initialize();
+    }
+
+    /**
+     * Returns a view of the cell at the specified coordinates. The view is created on each call and reads and writes
+     * the current-state plane.
+     *
+     * @param x the x-coordinate (column), zero-based
+     * @param y the y-coordinate (row), zero-based
+     * @return a view of the cell at (x, y)
+     * @throws IllegalArgumentException if the coordinates are out of bounds
+     */
+    @Override
+    public FloatCell getCell(int x, int y) {
+        checkBounds(x, y);
+        return new FloatCell(this, x, y);
+    }
+
+    /**
+     * Stores the state of the specified cell in the current-state plane at the given coordinates.
+     *
+     * @param x    the x-coordinate (column), zero-based
+     * @param y    the y-coordinate (row), zero-based
+     * @param cell the cell whose state to store, must not be null
+     * @throws IllegalArgumentException if the coordinates are out of bounds
+     */
+    @Override
+    public void setCell(int x, int y, FloatCell cell) {
+        set(x, y, cell.getState().floatValue());
+    }
+
+    /**
+     * Returns the current value of a cell.
+     *
+     * @param x the x-coordinate (column), zero-based
+     * @param y the y-coordinate (row), zero-based
+     * @return the value
+     * @throws IllegalArgumentException if the coordinates are out of bounds
+     */
+    public float get(int x, int y) {
+        checkBounds(x, y);
+        return current[y * getWidth() + x];
+    }
+
+    /**
+     * Sets the current value of a cell.
+     *
+     * @param x     the x-coordinate (column), zero-based
+     * @param y     the y-coordinate (row), zero-based
+     * @param value the value
+     * @throws IllegalArgumentException if the coordinates are out of bounds
+     */
+    public void set(int x, int y, float value) {
+        checkBounds(x, y);
+        current[y * getWidth() + x] = value;
+    }
+
+    /**
+     * Sets the next value of a cell.
+     *
+     * @param x     the x-coordinate (column), zero-based
+     * @param y     the y-coordinate (row), zero-based
+     * @param value the value
+     * @throws IllegalArgumentException if the coordinates are out of bounds
+     */
+    public void setNext(int x, int y, float value) {
+        checkBounds(x, y);
+        next[y * getWidth() + x] = value;
+    }
+
+    /**
+     * Returns the next state of the cell at the specified coordinates.
+     *
+     * @param x the x-coordinate (column), zero-based
+     * @param y the y-coordinate (row), zero-based
+     * @return the next state at (x, y)
+     * @throws IllegalArgumentException if the coordinates are out of bounds
+     */
+    @Override
+    public FloatState getNextState(int x, int y) {
+        checkBounds(x, y);
+        return new FloatState(next[y * getWidth() + x]);
+    }
+
+    /**
+     * Copies the next value of a single cell to the cell.
+     *
+     * @param x the x-coordinate (column), zero-based
+     * @param y the y-coordinate (row), zero-based
+     * @throws IllegalArgumentException if the coordinates are out of bounds
+     */
+    @Override
+    public void copyCellState(int x, int y) {
+        checkBounds(x, y);
+        int i = y * getWidth() + x;
+        current[i] = next[i];
+    }
+
+    /**
+     * Makes the next values current by swapping the planes. If the grid hash is maintained or changes are tracked,
+     * only cells whose value differs are encoded.
+     *
+     * @param collector the collector to feed, or null to only commit
+     */
+    @Override
+    public void commitNextStates(StatisticsCollector<? super FloatState> collector) {
+        ToLongFunction<? super FloatState> hashEncoder = getStateEncoder();
+        ToLongFunction<? super FloatState> changeEncoder = getChangeEncoder();
+        int width = getWidth();
+        if (hashEncoder != null || changeEncoder != null) {
+            for (int i = 0; i < current.length; i++) {
+                if (Float.floatToIntBits(current[i]) == Float.floatToIntBits(next[i])) {
+                    continue;
+                }
+                FloatState before = new FloatState(current[i]);
+                FloatState after = new FloatState(next[i]);
+                if (hashEncoder != null) {
+                    long hashBefore = hashEncoder.applyAsLong(before);
+                    long hashAfter = hashEncoder.applyAsLong(after);
+                    if (hashBefore != hashAfter) {
+                        updateHash(i, hashBefore, hashAfter);
+                    }
+                }
+                if (changeEncoder != null && changeEncoder.applyAsLong(before) != changeEncoder.applyAsLong(after)) {
+                    markChanged(i % width, i / width);
+                }
+            }
+        }
+        if (collector != null) {
+            collector.begin(width, getHeight());
+            for (float value : next) {
+                collector.accept(new FloatState(value));
+            }
+        }
+        float[] swap = current;
+        current = next;
+        next = swap;
+    }
+
+    /**
+     * Returns false: next states are stored in a plane, see {@link #getNextState(int, int)}.
+     *
+     * @return false
+     */
+    @Override
+    public boolean supportsNextStateArray() {
+        return false;
+    }
+
+    /**
+     * Not supported: next values are stored in a float plane, see {@link #getNextState(int, int)}.
+     *
+     * @return never
+     * @throws UnsupportedOperationException always
+     */
+    @Override
+    public FloatState[][] getNextStates() {
+        throw new UnsupportedOperationException("Float grids store next states in a plane; use getNextState");
+    }
+
+    /**
+     * Not supported: next values are stored in a float plane.
+     *
+     * @param nextStates ignored
+     * @throws UnsupportedOperationException always
+     */
+    @Override
+    public void setNextStates(FloatState[][] nextStates) {
+        throw new UnsupportedOperationException("Float grids store next states in a plane");
+    }
+
+    /**
+     * Returns the plane of the current values. The array is replaced by the next-value plane on every commit, so
+     * callers should not keep it across steps.
+     *
+     * @return the current values, row by row
+     */
+    public float[] getPlane() {
+        return current;
+    }
+
+    /**
+     * Returns the plane of the next values, for rules that write the whole grid.
+     *
+     * @return the next values, row by row
+     */
+    public float[] getNextPlane() {
+        return next;
+    }
+
+    /**
+     * Validates cell coordinates.
+     *
+     * @param x the column
+     * @param y the row
+     * @throws IllegalArgumentException if the coordinates are out of bounds
+     */
+    private void checkBounds(int x, int y) {
+        if (x < 0 || x >= getWidth() || y < 0 || y >= getHeight()) {
+            throw new IllegalArgumentException("Coordinates out of bounds: (" + x + ", " + y + ")");
+        }
+    }
+}
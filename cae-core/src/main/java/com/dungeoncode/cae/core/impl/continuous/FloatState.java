@@ -0,0 +1,63 @@
+package com.dungeoncode.cae.core.impl.continuous;
+
+import com.dungeoncode.cae.core.CellState;
+
+/**
+ * The state of a cell of a {@link FloatGrid}: a single continuous value, such as the density of a Lenia creature or
+ * the concentration of a chemical. States are immutable values created on access.
+ */
+public final class FloatState implements CellState<Float> {
+
+    /**
+     * The value of the cell.
+     */
+    private final float value;
+
+    /**
+     * Constructs a state.
+     *
+     * @param value the value of the cell
+     */
+    public FloatState(float value) {
+        this.value = value;
+    }
+
+    /**
+     * Returns the value of the cell.
+     *
+     * @return the value
+     */
+    @Override
+    public Float getValue() {
+        return value;
+    }
+
+    /**
+     * Returns the value of the cell without boxing.
+     *
+     * @return the value
+     */
+    public float floatValue() {
+        return value;
+    }
+
+    /**
+     * Encodes a state as the bits of its value, for grid hashing and change tracking.
+     *
+     * @param state the state to encode
+     * @return the code
+     */
+    public static long encode(FloatState state) {
+        return Float.floatToIntBits(state.value);
+    }
+
+    /**
+     * Returns the value as a string.
+     *
+     * @return the string representation
+     */
+    @Override
+    public String toString() {
+        return Float.toString(value);
+    }
+}
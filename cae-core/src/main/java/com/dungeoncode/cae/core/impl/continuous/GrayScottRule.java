@@ -0,0 +1,439 @@
+package com.dungeoncode.cae.core.impl.continuous;
+
+import com.dungeoncode.cae.core.AbstractRule;
+import com.dungeoncode.cae.core.Grid;
+import com.dungeoncode.cae.core.GridRule;
+
+import javax.annotation.Nonnull;
+import java.util.Objects;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+/**
+ * Implements the Gray-Scott reaction-diffusion model on a {@link ReactionDiffusionGrid}. A substrate {@code u} is fed
+ * in at rate {@code F}, turned into catalyst by the reaction {@code u + 2v -> 3v}, and the catalyst {@code v} is
+ * removed at rate {@code F + k}; both chemicals diffuse:
+ * <pre>
+ * du/dt = Du ∇²u - u v² + F (1 - u)
+ * dv/dt = Dv ∇²v + u v² - (F + k) v
+ * </pre>
+ * The equations are integrated with explicit Euler steps of {@code dt}, several substeps per generation, and the
+ * Laplacian is a five- or nine-point stencil on a grid that wraps around at its edges (toroidal topology).
+ * <p>
+ * A substep is one pass over contiguous float planes, with the column wrap handled outside the inner loop, so the
+ * inner loop is straight-line float arithmetic with no branches, calls, boxing, or allocation.
+ * Substeps alternate between the next-state planes of the grid and scratch planes of the rule, arranged so that the
+ * last one lands in the next-state planes. Each substep runs in parallel bands of rows on the common fork-join pool
+ * unless disabled with {@link #setParallel(boolean)}; results are identical either way. Concentrations below
+ * {@code 1e-12} are flushed to zero, which keeps subnormal floats out of the stencil.
+ */
+public class GrayScottRule extends AbstractRule<ReactionDiffusionCell, ReactionDiffusionState>
+        implements GridRule<ReactionDiffusionCell, ReactionDiffusionState> {
+
+    /**
+     * The discrete Laplacians.
+     */
+    public enum Stencil {
+        /**
+         * The four orthogonal neighbors with weight 1 and the cell with weight -4.
+         */
+        FIVE_POINT(8),
+        /**
+         * The four orthogonal neighbors with weight 0.2, the four diagonal neighbors with weight 0.05, and the cell
+         * with weight -1.
+         */
+        NINE_POINT(1.6);
+
+        /**
+         * The largest magnitude of an eigenvalue of the stencil, reached by a checkerboard.
+         */
+        private final double spectralRadius;
+
+        /**
+         * Constructs a stencil.
+         *
+         * @param spectralRadius the largest magnitude of an eigenvalue
+         */
+        Stencil(double spectralRadius) {
+            this.spectralRadius = spectralRadius;
+        }
+    }
+
+    /**
+     * The number of substeps per generation of the factory presets.
+     */
+    public static final int DEFAULT_SUBSTEPS = 8;
+
+    /**
+     * The concentration below which a chemical is flushed to zero. Diffusion otherwise spreads subnormal floats
+     * around every pattern, and arithmetic on them is dozens of times slower on common CPUs.
+     */
+    private static final float FLUSH = 1e-12f;
+
+    /**
+     * The smallest number of rows in a band computed by one task.
+     */
+    private static final int MIN_BAND_ROWS = 16;
+
+    /**
+     * The diffusion rate of the substrate.
+     */
+    private final float du;
+
+    /**
+     * The diffusion rate of the catalyst.
+     */
+    private final float dv;
+
+    /**
+     * The feed rate.
+     */
+    private final float feed;
+
+    /**
+     * The kill rate.
+     */
+    private final float kill;
+
+    /**
+     * The time step of a substep.
+     */
+    private final float dt;
+
+    /**
+     * The number of substeps per generation.
+     */
+    private final int substeps;
+
+    /**
+     * The Laplacian.
+     */
+    private final Stencil stencil;
+
+    /**
+     * The scratch plane of the substrate between substeps, reallocated when the grid size changes.
+     */
+    private float[] scratchU = new float[0];
+
+    /**
+     * The scratch plane of the catalyst between substeps, reallocated when the grid size changes.
+     */
+    private float[] scratchV = new float[0];
+
+    /**
+     * Whether bands are computed in parallel.
+     */
+    private boolean parallel = true;
+
+    /**
+     * Constructs a Gray-Scott rule.
+     *
+     * @param du       the diffusion rate of the substrate, must not be negative
+     * @param dv       the diffusion rate of the catalyst, must not be negative
+     * @param feed     the feed rate, must not be negative
+     * @param kill     the kill rate, must not be negative
+     * @param dt       the time step of a substep, must be positive and small enough for the stencil to be stable
+     * @param substeps the number of substeps per generation, must be positive
+     * @param stencil  the Laplacian, must not be null
+     * @throws NullPointerException     if stencil is null
+     * @throws IllegalArgumentException if a rate is negative, the substep count is not positive, or the time step is
+     *                                  not positive or makes diffusion unstable
+     */
+    public GrayScottRule(float du, float dv, float feed, float kill, float dt, int substeps,
+                         @Nonnull Stencil stencil) {
+        super(28);
+        this.stencil = Objects.requireNonNull(stencil, "Stencil cannot be null");
+        if (!(du >= 0 && dv >= 0 && feed >= 0 && kill >= 0)) {
+            throw new IllegalArgumentException("Rates must not be negative: du=" + du + ", dv=" + dv + ", feed="
+                    + feed + ", kill=" + kill);
+        }
+        if (substeps <= 0) {
+            throw new IllegalArgumentException("Substeps must be positive: " + substeps);
+        }
+        if (!(dt > 0) || dt * Math.max(du, dv) * stencil.spectralRadius > 2) {
+            throw new IllegalArgumentException("Time step must be positive and at most "
+                    + 2 / (Math.max(du, dv) * stencil.spectralRadius) + " for stable diffusion: " + dt);
+        }
+        this.du = du;
+        this.dv = dv;
+        this.feed = feed;
+        this.kill = kill;
+        this.dt = dt;
+        this.substeps = substeps;
+    }
+
+    /**
+     * Creates a rule with the customary nine-point stencil, diffusion rates 1 and 0.5, a time step of 1, and
+     * {@link #DEFAULT_SUBSTEPS} substeps per generation.
+     *
+     * @param feed the feed rate
+     * @param kill the kill rate
+     * @return the rule
+     */
+    public static GrayScottRule of(float feed, float kill) {
+        return new GrayScottRule(1f, 0.5f, feed, kill, 1f, DEFAULT_SUBSTEPS, Stencil.NINE_POINT);
+    }
+
+    /**
+     * Creates the rule of spots that grow and divide like cells: {@code F = 0.0367}, {@code k = 0.0649}.
+     *
+     * @return the rule
+     */
+    public static GrayScottRule mitosis() {
+        return of(0.0367f, 0.0649f);
+    }
+
+    /**
+     * Creates the rule of branching coral-like growth: {@code F = 0.0545}, {@code k = 0.062}.
+     *
+     * @return the rule
+     */
+    public static GrayScottRule coral() {
+        return of(0.0545f, 0.062f);
+    }
+
+    /**
+     * Creates the rule of labyrinthine stripes: {@code F = 0.029}, {@code k = 0.057}.
+     *
+     * @return the rule
+     */
+    public static GrayScottRule maze() {
+        return of(0.029f, 0.057f);
+    }
+
+    /**
+     * Computes the next concentrations of a single cell by integrating its neighborhood of radius
+     * {@link #getSubsteps()} in a local window. The result is identical to {@link #applyToGrid(Grid)}, which the
+     * automaton uses and which is much faster for whole grids.
+     *
+     * @param grid the grid containing the cell, a {@link ReactionDiffusionGrid}
+     * @param cell the cell to evaluate
+     * @return the next state of the cell
+     * @throws IllegalArgumentException if the grid is not a {@link ReactionDiffusionGrid}
+     */
+    @Override
+    public ReactionDiffusionState apply(Grid<ReactionDiffusionCell, ReactionDiffusionState> grid,
+                                        ReactionDiffusionCell cell) {
+        ReactionDiffusionGrid chemicals = checkGrid(grid);
+        int x = cell.getPosition().getX();
+        int y = cell.getPosition().getY();
+        int width = chemicals.getWidth();
+        int height = chemicals.getHeight();
+        int side = 2 * substeps + 1;
+        float[] u = new float[side * side];
+        float[] v = new float[side * side];
+        float[] nextU = new float[side * side];
+        float[] nextV = new float[side * side];
+        for (int wy = 0; wy < side; wy++) {
+            int row = Math.floorMod(y + wy - substeps, height) * width;
+            for (int wx = 0; wx < side; wx++) {
+                int source = row + Math.floorMod(x + wx - substeps, width);
+                u[wy * side + wx] = chemicals.getU()[source];
+                v[wy * side + wx] = chemicals.getV()[source];
+            }
+        }
+        for (int step = 0; step < substeps; step++) {
+            for (int wy = step + 1; wy < side - 1 - step; wy++) {
+                computeSpan(u, v, nextU, nextV, (wy - 1) * side, wy * side, (wy + 1) * side, step + 1,
+                        side - 1 - step, -1, 1);
+            }
+            float[] swap = u;
+            u = nextU;
+            nextU = swap;
+            swap = v;
+            v = nextV;
+            nextV = swap;
+        }
+        int center = substeps * side + substeps;
+        chemicals.setNext(x, y, u[center], v[center]);
+        return new ReactionDiffusionState(u[center], v[center]);
+    }
+
+    /**
+     * Integrates every cell over one generation into the next-state planes of the grid.
+     *
+     * @param grid the grid to evaluate, a {@link ReactionDiffusionGrid}
+     * @throws IllegalArgumentException if the grid is not a {@link ReactionDiffusionGrid}
+     */
+    @Override
+    public void applyToGrid(Grid<ReactionDiffusionCell, ReactionDiffusionState> grid) {
+        ReactionDiffusionGrid chemicals = checkGrid(grid);
+        int width = chemicals.getWidth();
+        int height = chemicals.getHeight();
+        if (substeps > 1 && scratchU.length != width * height) {
+            scratchU = new float[width * height];
+            scratchV = new float[width * height];
+        }
+        float[] u = chemicals.getU();
+        float[] v = chemicals.getV();
+        int bandRows = bandRows(height);
+        int bands = (height + bandRows - 1) / bandRows;
+        for (int step = 0; step < substeps; step++) {
+            boolean last = (substeps - 1 - step) % 2 == 0;
+            float[] su = u;
+            float[] sv = v;
+            float[] tu = last ? chemicals.getNextU() : scratchU;
+            float[] tv = last ? chemicals.getNextV() : scratchV;
+            if (bands == 1) {
+                computeRows(su, sv, tu, tv, width, height, 0, height);
+            } else {
+                IntStream.range(0, bands).parallel().forEach(band -> {
+                    int start = band * bandRows;
+                    computeRows(su, sv, tu, tv, width, height, start, Math.min(height, start + bandRows));
+                });
+            }
+            u = tu;
+            v = tv;
+        }
+    }
+
+    /**
+     * Integrates a range of rows over one substep.
+     *
+     * @param u      the substrate plane to read
+     * @param v      the catalyst plane to read
+     * @param nextU  the substrate plane to write
+     * @param nextV  the catalyst plane to write
+     * @param width  the number of columns
+     * @param height the number of rows
+     * @param start  the first row, inclusive
+     * @param end    the last row, exclusive
+     */
+    private void computeRows(float[] u, float[] v, float[] nextU, float[] nextV, int width, int height, int start,
+                             int end) {
+        for (int y = start; y < end; y++) {
+            int row = y * width;
+            int up = (y == 0 ? height - 1 : y - 1) * width;
+            int down = (y == height - 1 ? 0 : y + 1) * width;
+            if (width == 1) {
+                computeSpan(u, v, nextU, nextV, up, row, down, 0, 1, 0, 0);
+                continue;
+            }
+            computeSpan(u, v, nextU, nextV, up, row, down, 0, 1, width - 1, 1);
+            computeSpan(u, v, nextU, nextV, up, row, down, 1, width - 1, -1, 1);
+            computeSpan(u, v, nextU, nextV, up, row, down, width - 1, width, -1, 1 - width);
+        }
+    }
+
+    /**
+     * Integrates a span of one row over one substep. The offsets of the left and right neighbors are the same for
+     * every cell of the span, which lets the caller handle the column wrap with one-cell spans and keeps the loop
+     * free of branches.
+     *
+     * @param u     the substrate plane to read
+     * @param v     the catalyst plane to read
+     * @param nextU the substrate plane to write
+     * @param nextV the catalyst plane to write
+     * @param up    the index of the first cell of the row above
+     * @param row   the index of the first cell of the row
+     * @param down  the index of the first cell of the row below
+     * @param from  the first column, inclusive
+     * @param to    the last column, exclusive
+     * @param left  the offset of the left neighbor
+     * @param right the offset of the right neighbor
+     */
+    private void computeSpan(float[] u, float[] v, float[] nextU, float[] nextV, int up, int row, int down,
+                             int from, int to, int left, int right) {
+        float dt = this.dt;
+        float du = dt * this.du;
+        float dv = dt * this.dv;
+        float feed = dt * this.feed;
+        float loss = dt * (this.feed + this.kill);
+        if (stencil == Stencil.FIVE_POINT) {
+            for (int x = from; x < to; x++) {
+                int c = row + x;
+                float cu = u[c];
+                float cv = v[c];
+                float lu = u[up + x] + u[down + x] + u[c + left] + u[c + right] - 4f * cu;
+                float lv = v[up + x] + v[down + x] + v[c + left] + v[c + right] - 4f * cv;
+                float uvv = cu * cv * cv;
+                float nu = cu + du * lu - dt * uvv + feed * (1f - cu);
+                nextU[c] = nu > FLUSH ? nu : 0f;
+                float nv = cv + dv * lv + dt * uvv - loss * cv;
+                nextV[c] = nv > FLUSH ? nv : 0f;
+            }
+        } else {
+            for (int x = from; x < to; x++) {
+                int c = row + x;
+                float cu = u[c];
+                float cv = v[c];
+                float lu = 0.2f * (u[up + x] + u[down + x] + u[c + left] + u[c + right])
+                        + 0.05f * (u[up + x + left] + u[up + x + right] + u[down + x + left] + u[down + x + right])
+                        - cu;
+                float lv = 0.2f * (v[up + x] + v[down + x] + v[c + left] + v[c + right])
+                        + 0.05f * (v[up + x + left] + v[up + x + right] + v[down + x + left] + v[down + x + right])
+                        - cv;
+                float uvv = cu * cv * cv;
+                float nu = cu + du * lu - dt * uvv + feed * (1f - cu);
+                nextU[c] = nu > FLUSH ? nu : 0f;
+                float nv = cv + dv * lv + dt * uvv - loss * cv;
+                nextV[c] = nv > FLUSH ? nv : 0f;
+            }
+        }
+    }
+
+    /**
+     * Checks that a grid is a reaction-diffusion grid.
+     *
+     * @param grid the grid
+     * @return the grid as a {@link ReactionDiffusionGrid}
+     * @throws IllegalArgumentException if the grid is not a {@link ReactionDiffusionGrid}
+     */
+    private ReactionDiffusionGrid checkGrid(Grid<ReactionDiffusionCell, ReactionDiffusionState> grid) {
+        if (!(grid instanceof ReactionDiffusionGrid chemicals)) {
+            throw new IllegalArgumentException("Gray-Scott rules need a ReactionDiffusionGrid");
+        }
+        return chemicals;
+    }
+
+    /**
+     * Returns the number of rows per band for a grid height.
+     *
+     * @param height the number of rows
+     * @return the band height
+     */
+    private int bandRows(int height) {
+        if (!parallel) {
+            return height;
+        }
+        int target = ForkJoinPool.getCommonPoolParallelism() * 4;
+        return Math.max(MIN_BAND_ROWS, (height + target - 1) / target);
+    }
+
+    /**
+     * Sets whether bands of rows are computed in parallel on the common fork-join pool. Results are identical either
+     * way.
+     *
+     * @param parallel true to compute in parallel
+     */
+    public void setParallel(boolean parallel) {
+        this.parallel = parallel;
+    }
+
+    /**
+     * Returns the feed rate.
+     *
+     * @return the feed rate
+     */
+    public float getFeed() {
+        return feed;
+    }
+
+    /**
+     * Returns the kill rate.
+     *
+     * @return the kill rate
+     */
+    public float getKill() {
+        return kill;
+    }
+
+    /**
+     * Returns the number of substeps per generation.
+     *
+     * @return the substep count
+     */
+    public int getSubsteps() {
+        return substeps;
+    }
+}
@@ -0,0 +1,78 @@
+package com.dungeoncode.cae.core.impl.continuous;
+
+/**
+ * Maps the potential of a cell, the kernel-weighted average of its neighborhood, to a growth rate between -1 and 1.
+ * A {@link LeniaRule} adds the growth times its time step to the cell and clips the result to [0, 1].
+ * <p>
+ * The factory methods provide the growth functions of Lenia, each a bump of height 1 centered on {@code mu} with a
+ * width set by {@code sigma}, falling to -1 away from it.
+ */
+@FunctionalInterface
+public interface GrowthFunction {
+
+    /**
+     * Returns the growth rate at a potential.
+     *
+     * @param potential the potential, normally between 0 and 1
+     * @return the growth rate, between -1 and 1
+     */
+    double grow(double potential);
+
+    /**
+     * Returns the Gaussian growth function {@code 2 exp(-(u - mu)² / 2 sigma²) - 1}.
+     *
+     * @param mu    the potential of maximal growth
+     * @param sigma the width of the bump, must be positive
+     * @return the growth function
+     * @throws IllegalArgumentException if sigma is not positive
+     */
+    static GrowthFunction gaussian(double mu, double sigma) {
+        checkSigma(sigma);
+        double scale = -1 / (2 * sigma * sigma);
+        return u -> 2 * Math.exp((u - mu) * (u - mu) * scale) - 1;
+    }
+
+    /**
+     * Returns the polynomial growth function {@code 2 max(0, 1 - (u - mu)² / 9 sigma²)⁴ - 1}, which is exactly -1
+     * outside {@code mu ± 3 sigma}.
+     *
+     * @param mu    the potential of maximal growth
+     * @param sigma the width of the bump, must be positive
+     * @return the growth function
+     * @throws IllegalArgumentException if sigma is not positive
+     */
+    static GrowthFunction polynomial(double mu, double sigma) {
+        checkSigma(sigma);
+        double scale = 1 / (9 * sigma * sigma);
+        return u -> {
+            double t = Math.max(0, 1 - (u - mu) * (u - mu) * scale);
+            t *= t;
+            return 2 * t * t - 1;
+        };
+    }
+
+    /**
+     * Returns the step growth function: 1 within {@code mu ± sigma}, -1 elsewhere.
+     *
+     * @param mu    the center of the growth interval
+     * @param sigma the half width of the growth interval, must be positive
+     * @return the growth function
+     * @throws IllegalArgumentException if sigma is not positive
+     */
+    static GrowthFunction step(double mu, double sigma) {
+        checkSigma(sigma);
+        return u -> Math.abs(u - mu) <= sigma ? 1 : -1;
+    }
+
+    /**
+     * Validates the width of a growth function.
+     *
+     * @param sigma the width
+     * @throws IllegalArgumentException if sigma is not positive
+     */
+    private static void checkSigma(double sigma) {
+        if (!(sigma > 0)) {
+            throw new IllegalArgumentException("Sigma must be positive: " + sigma);
+        }
+    }
+}
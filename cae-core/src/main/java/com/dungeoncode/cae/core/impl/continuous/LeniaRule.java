@@ -0,0 +1,310 @@
+package com.dungeoncode.cae.core.impl.continuous;
+
+import com.dungeoncode.cae.core.AbstractRule;
+import com.dungeoncode.cae.core.Grid;
+import com.dungeoncode.cae.core.GridRule;
+
+import javax.annotation.Nonnull;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.stream.IntStream;
+
+/**
+ * Implements Lenia, the continuous cellular automaton of Bert Chan, on a {@link FloatGrid}. Each step convolves the
+ * grid with a smooth ring-shaped kernel of radius {@code R}, maps the resulting potential through a
+ * {@link GrowthFunction}, and adds the growth times the time step to every cell, clipped to [0, 1].
+ * <p>
+ * The kernel covers {@code (2R + 1)²} cells, so a direct convolution costs {@code O(R²)} per cell, which is
+ * prohibitive for the radii of 10 to 50 cells Lenia creatures need. Steps therefore convolve through the Fourier
+ * domain with {@link RealFft2D}: one forward and one inverse transform of the grid, {@code O(N log N)} for {@code N}
+ * cells whatever the radius. The transform of the kernel, the plans, and the scratch planes are computed once per
+ * grid size and cached. The grid wraps around at its edges (toroidal topology), as the transforms are periodic.
+ * <p>
+ * The kernel is a sum of concentric shells: with {@code B} peak heights, the shell of normalized radius
+ * {@code r = distance / R} is {@code peaks[floor(B r)] * core(B r mod 1)}, and the kernel is normalized to sum 1.
+ */
+public class LeniaRule extends AbstractRule<FloatCell, FloatState> implements GridRule<FloatCell, FloatState> {
+
+    /**
+     * The shapes of a kernel shell over its normalized radius {@code r} between 0 and 1.
+     */
+    public enum KernelCore {
+        /**
+         * The exponential bump {@code exp(4 - 1 / (r (1 - r)))}.
+         */
+        EXPONENTIAL,
+        /**
+         * The polynomial bump {@code (4 r (1 - r))⁴}.
+         */
+        POLYNOMIAL,
+        /**
+         * The rectangle, 1 for {@code 1/4 <= r <= 3/4} and 0 elsewhere.
+         */
+        RECTANGULAR;
+
+        /**
+         * Returns the height of the shell.
+         *
+         * @param r the normalized radius within the shell, between 0 and 1
+         * @return the height, between 0 and 1
+         */
+        double at(double r) {
+            return switch (this) {
+                case EXPONENTIAL -> r <= 0 || r >= 1 ? 0 : Math.exp(4 - 1 / (r * (1 - r)));
+                case POLYNOMIAL -> Math.pow(4 * r * (1 - r), 4);
+                case RECTANGULAR -> r >= 0.25 && r <= 0.75 ? 1 : 0;
+            };
+        }
+    }
+
+    /**
+     * The radius of the kernel in cells.
+     */
+    private final int radius;
+
+    /**
+     * The normalized kernel weights over the {@code (2R + 1)²} box, row by row.
+     */
+    private final double[] weights;
+
+    /**
+     * The growth function.
+     */
+    private final GrowthFunction growth;
+
+    /**
+     * The time step.
+     */
+    private final double dt;
+
+    /**
+     * The transforms, kernel spectra, and scratch planes of every grid size seen.
+     */
+    private final Map<Long, Workspace> workspaces = new HashMap<>();
+
+    /**
+     * Whether transforms and updates run in parallel.
+     */
+    private boolean parallel = true;
+
+    /**
+     * Constructs a Lenia rule.
+     *
+     * @param radius the radius of the kernel in cells, at least 1
+     * @param peaks  the heights of the kernel shells from the center out, at least one, must not be null
+     * @param core   the shape of each shell, must not be null
+     * @param growth the growth function, must not be null
+     * @param dt     the time step, between 0 exclusive and 1 inclusive
+     * @throws NullPointerException     if peaks, core, or growth is null
+     * @throws IllegalArgumentException if the radius or time step is out of range, there are no peaks, or the kernel
+     *                                  is zero everywhere
+     */
+    public LeniaRule(int radius, @Nonnull double[] peaks, @Nonnull KernelCore core, @Nonnull GrowthFunction growth,
+                     double dt) {
+        super(27);
+        Objects.requireNonNull(peaks, "Peaks cannot be null");
+        Objects.requireNonNull(core, "Kernel core cannot be null");
+        this.growth = Objects.requireNonNull(growth, "Growth function cannot be null");
+        if (radius < 1) {
+            throw new IllegalArgumentException("Radius must be positive: " + radius);
+        }
+        if (!(dt > 0 && dt <= 1)) {
+            throw new IllegalArgumentException("Time step must be in (0, 1]: " + dt);
+        }
+        if (peaks.length == 0) {
+            throw new IllegalArgumentException("At least one peak is required");
+        }
+        this.radius = radius;
+        this.dt = dt;
+        int size = 2 * radius + 1;
+        this.weights = new double[size * size];
+        double total = 0;
+        for (int dy = -radius; dy <= radius; dy++) {
+            for (int dx = -radius; dx <= radius; dx++) {
+                double r = Math.sqrt(dx * dx + dy * dy) / radius;
+                if (r < 1) {
+                    double shell = r * peaks.length;
+                    int index = (int) shell;
+                    double weight = peaks[index] * core.at(shell - index);
+                    weights[(dy + radius) * size + dx + radius] = weight;
+                    total += weight;
+                }
+            }
+        }
+        if (!(total > 0)) {
+            throw new IllegalArgumentException("Kernel is zero everywhere: peaks=" + Arrays.toString(peaks));
+        }
+        for (int i = 0; i < weights.length; i++) {
+            weights[i] /= total;
+        }
+    }
+
+    /**
+     * Creates the rule of Orbium, the glider of Lenia: radius 13, one exponential shell, Gaussian growth with
+     * {@code mu = 0.15} and {@code sigma = 0.015}, and a time step of 0.1.
+     *
+     * @return the rule
+     */
+    public static LeniaRule orbium() {
+        return new LeniaRule(13, new double[]{1}, KernelCore.EXPONENTIAL, GrowthFunction.gaussian(0.15, 0.015), 0.1);
+    }
+
+    /**
+     * Computes the next value of a single cell by direct convolution, in {@code O(R²)}.
+     * {@link #applyToGrid(Grid)} is used by the automaton and is much faster for whole grids.
+     *
+     * @param grid the grid containing the cell, a {@link FloatGrid}
+     * @param cell the cell to evaluate
+     * @return the next state of the cell
+     * @throws IllegalArgumentException if the grid is not a {@link FloatGrid} or is smaller than the kernel
+     */
+    @Override
+    public FloatState apply(Grid<FloatCell, FloatState> grid, FloatCell cell) {
+        FloatGrid floats = checkGrid(grid);
+        int x = cell.getPosition().getX();
+        int y = cell.getPosition().getY();
+        int width = floats.getWidth();
+        int height = floats.getHeight();
+        float[] plane = floats.getPlane();
+        int size = 2 * radius + 1;
+        double potential = 0;
+        for (int dy = -radius; dy <= radius; dy++) {
+            int row = Math.floorMod(y + dy, height) * width;
+            for (int dx = -radius; dx <= radius; dx++) {
+                potential += weights[(dy + radius) * size + dx + radius] * plane[row + Math.floorMod(x + dx, width)];
+            }
+        }
+        float next = update(plane[y * width + x], potential);
+        floats.getNextPlane()[y * width + x] = next;
+        return new FloatState(next);
+    }
+
+    /**
+     * Computes the next value of every cell by convolving through the Fourier domain.
+     *
+     * @param grid the grid to evaluate, a {@link FloatGrid}
+     * @throws IllegalArgumentException if the grid is not a {@link FloatGrid} or is smaller than the kernel
+     */
+    @Override
+    public void applyToGrid(Grid<FloatCell, FloatState> grid) {
+        FloatGrid floats = checkGrid(grid);
+        Workspace workspace = workspace(floats.getWidth(), floats.getHeight());
+        RealFft2D fft = workspace.fft;
+        fft.setParallel(parallel);
+        double[] re = workspace.re;
+        double[] im = workspace.im;
+        double[] kernel = workspace.kernel;
+        fft.forward(floats.getPlane(), re, im);
+        for (int i = 0; i < re.length; i++) {
+            re[i] *= kernel[i];
+            im[i] *= kernel[i];
+        }
+        float[] potential = workspace.potential;
+        fft.inverse(re, im, potential);
+        float[] current = floats.getPlane();
+        float[] next = floats.getNextPlane();
+        IntStream range = IntStream.range(0, floats.getHeight());
+        (parallel ? range.parallel() : range).forEach(y -> {
+            for (int i = y * floats.getWidth(), end = i + floats.getWidth(); i < end; i++) {
+                next[i] = update(current[i], potential[i]);
+            }
+        });
+    }
+
+    /**
+     * Returns the next value of a cell.
+     *
+     * @param value     the current value
+     * @param potential the potential of the cell
+     * @return the value plus the growth times the time step, clipped to [0, 1]
+     */
+    private float update(float value, double potential) {
+        double next = value + dt * growth.grow(potential);
+        return (float) (next < 0 ? 0 : next > 1 ? 1 : next);
+    }
+
+    /**
+     * Returns the cached workspace of a grid size, creating it and transforming the kernel on first use.
+     *
+     * @param width  the number of columns
+     * @param height the number of rows
+     * @return the workspace
+     */
+    private Workspace workspace(int width, int height) {
+        return workspaces.computeIfAbsent(((long) width << 32) | height, key -> {
+            RealFft2D fft = new RealFft2D(width, height);
+            int size = 2 * radius + 1;
+            float[] plane = new float[width * height];
+            for (int dy = -radius; dy <= radius; dy++) {
+                for (int dx = -radius; dx <= radius; dx++) {
+                    plane[Math.floorMod(dy, height) * width + Math.floorMod(dx, width)] =
+                            (float) weights[(dy + radius) * size + dx + radius];
+                }
+            }
+            int spectrum = height * fft.getSpectrumWidth();
+            double[] kernel = new double[spectrum];
+            double[] imaginary = new double[spectrum];
+            fft.forward(plane, kernel, imaginary);
+            return new Workspace(fft, kernel, new double[spectrum], new double[spectrum], plane);
+        });
+    }
+
+    /**
+     * Checks that a grid is a float grid that holds the kernel.
+     *
+     * @param grid the grid
+     * @return the grid as a {@link FloatGrid}
+     * @throws IllegalArgumentException if the grid is not a {@link FloatGrid} or is smaller than the kernel
+     */
+    private FloatGrid checkGrid(Grid<FloatCell, FloatState> grid) {
+        if (!(grid instanceof FloatGrid floats)) {
+            throw new IllegalArgumentException("Lenia rules need a FloatGrid");
+        }
+        if (grid.getWidth() < 2 * radius + 1 || grid.getHeight() < 2 * radius + 1) {
+            throw new IllegalArgumentException("Grid smaller than the kernel of radius " + radius + ": width="
+                    + grid.getWidth() + ", height=" + grid.getHeight());
+        }
+        return floats;
+    }
+
+    /**
+     * Sets whether transforms and updates run in parallel on the common fork-join pool.
+     *
+     * @param parallel true to run in parallel
+     */
+    public void setParallel(boolean parallel) {
+        this.parallel = parallel;
+    }
+
+    /**
+     * Returns the radius of the kernel.
+     *
+     * @return the radius in cells
+     */
+    public int getRadius() {
+        return radius;
+    }
+
+    /**
+     * Returns the time step.
+     *
+     * @return the time step
+     */
+    public double getTimeStep() {
+        return dt;
+    }
+
+    /**
+     * The transforms and planes of one grid size.
+     *
+     * @param fft       the transform plan
+     * @param kernel    the spectrum of the kernel, real because the kernel is symmetric
+     * @param re        scratch space for the real parts of the grid's spectrum
+     * @param im        scratch space for the imaginary parts of the grid's spectrum
+     * @param potential scratch space for the potential plane
+     */
+    private record Workspace(RealFft2D fft, double[] kernel, double[] re, double[] im, float[] potential) {
+    }
+}
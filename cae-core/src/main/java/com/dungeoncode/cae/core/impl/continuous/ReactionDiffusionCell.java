@@ -0,0 +1,65 @@
+package com.dungeoncode.cae.core.impl.continuous;
+
+import com.dungeoncode.cae.core.AbstractCell;
+
+import javax.annotation.Nonnull;
+import java.util.Objects;
+
+/**
+ * A view of one cell of a {@link ReactionDiffusionGrid}. The view holds no state of its own: its concentrations are
+ * read from and written to the current planes of the grid at the bound coordinates. Views are cheap, short-lived
+ * objects created on access.
+ */
+public final class ReactionDiffusionCell extends AbstractCell<ReactionDiffusionState> {
+
+    /**
+     * The grid holding the state.
+     */
+    private final ReactionDiffusionGrid grid;
+
+    /**
+     * Constructs a view of the cell at the given coordinates.
+     *
+     * @param grid the grid holding the state
+     * @param x    the column
+     * @param y    the row
+     */
+    ReactionDiffusionCell(ReactionDiffusionGrid grid, int x, int y) {
+        super(x, y);
+        this.grid = grid;
+    }
+
+    /**
+     * Returns the current state of the cell.
+     *
+     * @return the state
+     */
+    @Override
+    public ReactionDiffusionState getState() {
+        return grid.get(getPosition().getX(), getPosition().getY());
+    }
+
+    /**
+     * Stores a state in the grid.
+     *
+     * @param state the state, must not be null
+     * @throws NullPointerException if state is null
+     */
+    @Override
+    public void setState(@Nonnull ReactionDiffusionState state) {
+        Objects.requireNonNull(state, "State cannot be null");
+        grid.set(getPosition().getX(), getPosition().getY(), state.getU(), state.getV());
+    }
+
+    /**
+     * Stores a state in the grid; states are immutable, so this is the same as
+     * {@link #setState(ReactionDiffusionState)}.
+     *
+     * @param state the state, must not be null
+     * @throws NullPointerException if state is null
+     */
+    @Override
+    public void copyState(@Nonnull ReactionDiffusionState state) {
+        setState(state);
+    }
+}
@@ -0,0 +1,301 @@
+package com.dungeoncode.cae.core.impl.continuous;
+
+import com.dungeoncode.cae.core.Grid;
+import com.dungeoncode.cae.core.GridInitializer;
+import com.dungeoncode.cae.core.StatisticsCollector;
+
+import java.util.Arrays;
+import java.util.function.ToLongFunction;
+
+/**
+ * A {@link Grid} of two chemical concentrations per cell, for reaction-diffusion systems such as Gray-Scott. Each
+ * chemical is stored as one float per cell in its own heap plane, with a current and a next plane per chemical, so
+ * stencil loops read and write contiguous float arrays instead of boxed states. A 2048 x 2048 grid takes 64 MB.
+ * <p>
+ * The planes are row-major: the concentrations of cell (x, y) are at index {@code y * width + x}. Rules that implement
+ * {@link com.dungeoncode.cae.core.GridRule} read {@link #getU()} and {@link #getV()} and write {@link #getNextU()} and
+ * {@link #getNextV()} directly; other rules write next values with {@link #setNext(int, int, float, float)}.
+ * Committing swaps the planes instead of copying them, so every rule must write the next values of every cell.
+ * <p>
+ * {@link #getCell(int, int)} returns a lightweight view for initializers, renderers, and per-cell rules.
+ */
+public class ReactionDiffusionGrid extends Grid<ReactionDiffusionCell, ReactionDiffusionState> {
+
+    /**
+     * The plane of the current substrate concentrations.
+     */
+    private float[] u;
+
+    /**
+     * The plane of the current catalyst concentrations.
+     */
+    private float[] v;
+
+    /**
+     * The plane of the next substrate concentrations.
+     */
+    private float[] nextU;
+
+    /**
+     * The plane of the next catalyst concentrations.
+     */
+    private float[] nextV;
+
+    /**
+     * Constructs a grid in the homogeneous steady state, substrate 1 and catalyst 0 everywhere, then runs the
+     * initializer.
+     *
+     * @param width       the number of columns (x-axis), must be positive
+     * @param height      the number of rows (y-axis), must be positive
+     * @param initializer the {@link GridInitializer} to populate the grid, or null to leave it in the steady state
+     * @throws IllegalArgumentException if width or height is not positive, or the grid has more than
+     *                                  {@link Integer#MAX_VALUE} cells
+     */
+    public ReactionDiffusionGrid(int width, int height,
+                                 GridInitializer<ReactionDiffusionCell, ReactionDiffusionState> initializer) {
+        super(width, height, initializer, false);
+        if ((long) width * height > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Grid too large: width=" + width + ", height=" + height);
+        }
+        this.u = new float[width * height];
+        this.v = new float[width * height];
+        this.nextU = new float[width * height];
+        this.nextV = new float[width * height];
+        Arrays.fill(u, 1f);
+        initialize();
+    }
+
+    /**
+     * Returns a view of the cell at the specified coordinates. The view is created on each call and reads and writes
+     * the current planes.
+     *
+     * @param x the x-coordinate (column), zero-based
+     * @param y the y-coordinate (row), zero-based
+     * @return a view of the cell at (x, y)
+     * @throws IllegalArgumentException if the coordinates are out of bounds
+     */
+    @Override
+    public ReactionDiffusionCell getCell(int x, int y) {
+        checkBounds(x, y);
+        return new ReactionDiffusionCell(this, x, y);
+    }
+
+    /**
+     * Stores the state of the specified cell in the current planes at the given coordinates.
+     *
+     * @param x    the x-coordinate (column), zero-based
+     * @param y    the y-coordinate (row), zero-based
+     * @param cell the cell whose state to store, must not be null
+     * @throws IllegalArgumentException if the coordinates are out of bounds
+     */
+    @Override
+    public void setCell(int x, int y, ReactionDiffusionCell cell) {
+        ReactionDiffusionState state = cell.getState();
+        set(x, y, state.getU(), state.getV());
+    }
+
+    /**
+     * Returns the current concentrations of a cell.
+     *
+     * @param x the x-coordinate (column), zero-based
+     * @param y the y-coordinate (row), zero-based
+     * @return the state
+     * @throws IllegalArgumentException if the coordinates are out of bounds
+     */
+    public ReactionDiffusionState get(int x, int y) {
+        checkBounds(x, y);
+        int i = y * getWidth() + x;
+        return new ReactionDiffusionState(u[i], v[i]);
+    }
+
+    /**
+     * Sets the current concentrations of a cell.
+     *
+     * @param x  the x-coordinate (column), zero-based
+     * @param y  the y-coordinate (row), zero-based
+     * @param su the substrate concentration
+     * @param sv the catalyst concentration
+     * @throws IllegalArgumentException if the coordinates are out of bounds
+     */
+    public void set(int x, int y, float su, float sv) {
+        checkBounds(x, y);
+        int i = y * getWidth() + x;
+        u[i] = su;
+        v[i] = sv;
+    }
+
+    /**
+     * Sets the next concentrations of a cell.
+     *
+     * @param x  the x-coordinate (column), zero-based
+     * @param y  the y-coordinate (row), zero-based
+     * @param su the substrate concentration
+     * @param sv the catalyst concentration
+     * @throws IllegalArgumentException if the coordinates are out of bounds
+     */
+    public void setNext(int x, int y, float su, float sv) {
+        checkBounds(x, y);
+        int i = y * getWidth() + x;
+        nextU[i] = su;
+        nextV[i] = sv;
+    }
+
+    /**
+     * Returns the next state of the cell at the specified coordinates.
+     *
+     * @param x the x-coordinate (column), zero-based
+     * @param y the y-coordinate (row), zero-based
+     * @return the next state at (x, y)
+     * @throws IllegalArgumentException if the coordinates are out of bounds
+     */
+    @Override
+    public ReactionDiffusionState getNextState(int x, int y) {
+        checkBounds(x, y);
+        int i = y * getWidth() + x;
+        return new ReactionDiffusionState(nextU[i], nextV[i]);
+    }
+
+    /**
+     * Copies the next concentrations of a single cell to the cell.
+     *
+     * @param x the x-coordinate (column), zero-based
+     * @param y the y-coordinate (row), zero-based
+     * @throws IllegalArgumentException if the coordinates are out of bounds
+     */
+    @Override
+    public void copyCellState(int x, int y) {
+        checkBounds(x, y);
+        int i = y * getWidth() + x;
+        u[i] = nextU[i];
+        v[i] = nextV[i];
+    }
+
+    /**
+     * Makes the next concentrations current by swapping the planes. If the grid hash is maintained or changes are
+     * tracked, only cells whose concentrations differ are encoded.
+     *
+     * @param collector the collector to feed, or null to only commit
+     */
+    @Override
+    public void commitNextStates(StatisticsCollector<? super ReactionDiffusionState> collector) {
+        ToLongFunction<? super ReactionDiffusionState> hashEncoder = getStateEncoder();
+        ToLongFunction<? super ReactionDiffusionState> changeEncoder = getChangeEncoder();
+        int width = getWidth();
+        if (hashEncoder != null || changeEncoder != null) {
+            for (int i = 0; i < u.length; i++) {
+                if (Float.floatToIntBits(u[i]) == Float.floatToIntBits(nextU[i])
+                        && Float.floatToIntBits(v[i]) == Float.floatToIntBits(nextV[i])) {
+                    continue;
+                }
+                ReactionDiffusionState before = new ReactionDiffusionState(u[i], v[i]);
+                ReactionDiffusionState after = new ReactionDiffusionState(nextU[i], nextV[i]);
+                if (hashEncoder != null) {
+                    long hashBefore = hashEncoder.applyAsLong(before);
+                    long hashAfter = hashEncoder.applyAsLong(after);
+                    if (hashBefore != hashAfter) {
+                        updateHash(i, hashBefore, hashAfter);
+                    }
+                }
+                if (changeEncoder != null && changeEncoder.applyAsLong(before) != changeEncoder.applyAsLong(after)) {
+                    markChanged(i % width, i / width);
+                }
+            }
+        }
+        if (collector != null) {
+            collector.begin(width, getHeight());
+            for (int i = 0; i < nextU.length; i++) {
+                collector.accept(new ReactionDiffusionState(nextU[i], nextV[i]));
+            }
+        }
+        float[] swap = u;
+        u = nextU;
+        nextU = swap;
+        swap = v;
+        v = nextV;
+        nextV = swap;
+    }
+
+    /**
+     * Returns false: next states are stored in planes, see {@link #getNextState(int, int)}.
+     *
+     * @return false
+     */
+    @Override
+    public boolean supportsNextStateArray() {
+        return false;
+    }
+
+    /**
+     * Not supported: next concentrations are stored in float planes, see {@link #getNextState(int, int)}.
+     *
+     * @return never
+     * @throws UnsupportedOperationException always
+     */
+    @Override
+    public ReactionDiffusionState[][] getNextStates() {
+        throw new UnsupportedOperationException(
+                "Reaction-diffusion grids store next states in planes; use getNextState");
+    }
+
+    /**
+     * Not supported: next concentrations are stored in float planes.
+     *
+     * @param nextStates ignored
+     * @throws UnsupportedOperationException always
+     */
+    @Override
+    public void setNextStates(ReactionDiffusionState[][] nextStates) {
+        throw new UnsupportedOperationException("Reaction-diffusion grids store next states in planes");
+    }
+
+    /**
+     * Returns the plane of the current substrate concentrations. The array is replaced on every commit, so callers
+     * should not keep it across steps.
+     *
+     * @return the substrate concentrations, row by row
+     */
+    public float[] getU() {
+        return u;
+    }
+
+    /**
+     * Returns the plane of the current catalyst concentrations. The array is replaced on every commit, so callers
+     * should not keep it across steps.
+     *
+     * @return the catalyst concentrations, row by row
+     */
+    public float[] getV() {
+        return v;
+    }
+
+    /**
+     * Returns the plane of the next substrate concentrations, for rules that write the whole grid.
+     *
+     * @return the next substrate concentrations, row by row
+     */
+    public float[] getNextU() {
+        return nextU;
+    }
+
+    /**
+     * Returns the plane of the next catalyst concentrations, for rules that write the whole grid.
+     *
+     * @return the next catalyst concentrations, row by row
+     */
+    public float[] getNextV() {
+        return nextV;
+    }
+
+    /**
+     * Validates cell coordinates.
+     *
+     * @param x the column
+     * @param y the row
+     * @throws IllegalArgumentException if the coordinates are out of bounds
+     */
+    private void checkBounds(int x, int y) {
+        if (x < 0 || x >= getWidth() || y < 0 || y >= getHeight()) {
+            throw new IllegalArgumentException("Coordinates out of bounds: (" + x + ", " + y + ")");
+        }
+    }
+}
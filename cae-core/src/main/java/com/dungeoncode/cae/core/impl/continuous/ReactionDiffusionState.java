@@ -0,0 +1,80 @@
+package com.dungeoncode.cae.core.impl.continuous;
+
+import com.dungeoncode.cae.core.CellState;
+
+/**
+ * The state of a cell of a {@link ReactionDiffusionGrid}: the concentrations of two chemicals, the substrate {@code u}
+ * and the catalyst {@code v}. The value of the state is the catalyst concentration, the one patterns are usually
+ * displayed by. States are immutable values created on access.
+ */
+public final class ReactionDiffusionState implements CellState<Float> {
+
+    /**
+     * The concentration of the substrate.
+     */
+    private final float u;
+
+    /**
+     * The concentration of the catalyst.
+     */
+    private final float v;
+
+    /**
+     * Constructs a state.
+     *
+     * @param u the concentration of the substrate
+     * @param v the concentration of the catalyst
+     */
+    public ReactionDiffusionState(float u, float v) {
+        this.u = u;
+        this.v = v;
+    }
+
+    /**
+     * Returns the concentration of the catalyst.
+     *
+     * @return the catalyst concentration
+     */
+    @Override
+    public Float getValue() {
+        return v;
+    }
+
+    /**
+     * Returns the concentration of the substrate.
+     *
+     * @return the substrate concentration
+     */
+    public float getU() {
+        return u;
+    }
+
+    /**
+     * Returns the concentration of the catalyst without boxing.
+     *
+     * @return the catalyst concentration
+     */
+    public float getV() {
+        return v;
+    }
+
+    /**
+     * Encodes a state as the bits of both concentrations, for grid hashing and change tracking.
+     *
+     * @param state the state to encode
+     * @return the code
+     */
+    public static long encode(ReactionDiffusionState state) {
+        return ((long) Float.floatToIntBits(state.u) << 32) | (Float.floatToIntBits(state.v) & 0xFFFFFFFFL);
+    }
+
+    /**
+     * Returns the concentrations as a string.
+     *
+     * @return the string representation
+     */
+    @Override
+    public String toString() {
+        return "(" + u + ", " + v + ")";
+    }
+}
@@ -0,0 +1,246 @@
+package com.dungeoncode.cae.core.impl.continuous;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+/**
+ * The two-dimensional discrete Fourier transform of real planes of one size, computed with {@link Fft} plans.
+ * <p>
+ * The spectrum of a real plane is Hermitian, so only its {@code width / 2 + 1} leftmost columns are stored: row by
+ * row, {@code height x (width / 2 + 1)} complex values in separate real and imaginary arrays. The row pass transforms
+ * two real rows at once as the real and imaginary parts of one complex row and separates their spectra by symmetry,
+ * halving the work; the column pass only transforms the stored columns. Both passes run in parallel over bands on
+ * the common fork-join pool unless disabled with {@link #setParallel(boolean)}; results are identical either way.
+ * <p>
+ * Instances keep scratch space and must not be used by several threads at once.
+ */
+public final class RealFft2D {
+
+    /**
+     * The number of columns of the planes.
+     */
+    private final int width;
+
+    /**
+     * The number of rows of the planes.
+     */
+    private final int height;
+
+    /**
+     * The number of stored spectrum columns, {@code width / 2 + 1}.
+     */
+    private final int half;
+
+    /**
+     * The plan of the row transforms.
+     */
+    private final Fft rows;
+
+    /**
+     * The plan of the column transforms.
+     */
+    private final Fft columns;
+
+    /**
+     * Scratch space of each band: a complex line and the work arrays of the plans.
+     */
+    private final double[][][] scratch;
+
+    /**
+     * Whether bands are transformed in parallel.
+     */
+    private boolean parallel = true;
+
+    /**
+     * Plans transforms of planes of a size.
+     *
+     * @param width  the number of columns, must be positive
+     * @param height the number of rows, must be positive
+     * @throws IllegalArgumentException if width or height is not positive
+     */
+    public RealFft2D(int width, int height) {
+        if (width <= 0 || height <= 0) {
+            throw new IllegalArgumentException("Width and height must be positive: width=" + width + ", height="
+                    + height);
+        }
+        this.width = width;
+        this.height = height;
+        this.half = width / 2 + 1;
+        this.rows = new Fft(width);
+        this.columns = new Fft(height);
+        int line = Math.max(width, height);
+        int work = Math.max(rows.getWorkLength(), columns.getWorkLength());
+        this.scratch = new double[ForkJoinPool.getCommonPoolParallelism() * 4][][];
+        for (int i = 0; i < scratch.length; i++) {
+            scratch[i] = new double[][]{new double[line], new double[line], new double[work], new double[work]};
+        }
+    }
+
+    /**
+     * Transforms a real plane.
+     *
+     * @param input the plane, row by row, of {@code width * height} values
+     * @param re    receives the real parts of the spectrum, of {@code height * (width / 2 + 1)} entries
+     * @param im    receives the imaginary parts of the spectrum, of {@code height * (width / 2 + 1)} entries
+     */
+    public void forward(float[] input, double[] re, double[] im) {
+        int pairs = (height + 1) / 2;
+        bands(pairs, (s, start, end) -> {
+            double[] zr = s[0];
+            double[] zi = s[1];
+            for (int pair = start; pair < end; pair++) {
+                int a = 2 * pair;
+                int b = a + 1;
+                for (int x = 0; x < width; x++) {
+                    zr[x] = input[a * width + x];
+                    zi[x] = b < height ? input[b * width + x] : 0;
+                }
+                rows.transform(zr, zi, false, s[2], s[3]);
+                for (int k = 0; k < half; k++) {
+                    int mirror = k == 0 ? 0 : width - k;
+                    double sumRe = zr[k] + zr[mirror];
+                    double diffRe = zr[k] - zr[mirror];
+                    double sumIm = zi[k] + zi[mirror];
+                    double diffIm = zi[k] - zi[mirror];
+                    re[a * half + k] = sumRe / 2;
+                    im[a * half + k] = diffIm / 2;
+                    if (b < height) {
+                        re[b * half + k] = sumIm / 2;
+                        im[b * half + k] = -diffRe / 2;
+                    }
+                }
+            }
+        });
+        transformColumns(re, im, false);
+    }
+
+    /**
+     * Transforms a spectrum back to a real plane, scaled so that {@code inverse(forward(p)) == p}. The spectrum
+     * arrays are overwritten.
+     *
+     * @param re     the real parts of the spectrum, of {@code height * (width / 2 + 1)} entries
+     * @param im     the imaginary parts of the spectrum, of {@code height * (width / 2 + 1)} entries
+     * @param output receives the plane, row by row, of {@code width * height} values
+     */
+    public void inverse(double[] re, double[] im, float[] output) {
+        transformColumns(re, im, true);
+        double scale = 1.0 / ((double) width * height);
+        int pairs = (height + 1) / 2;
+        bands(pairs, (s, start, end) -> {
+            double[] zr = s[0];
+            double[] zi = s[1];
+            for (int pair = start; pair < end; pair++) {
+                int a = 2 * pair;
+                int b = a + 1;
+                for (int k = 0; k < width; k++) {
+                    boolean mirrored = k >= half;
+                    int source = mirrored ? width - k : k;
+                    double ar = re[a * half + source];
+                    double ai = mirrored ? -im[a * half + source] : im[a * half + source];
+                    double br = b < height ? re[b * half + source] : 0;
+                    double bi = b < height ? (mirrored ? -im[b * half + source] : im[b * half + source]) : 0;
+                    zr[k] = ar - bi;
+                    zi[k] = ai + br;
+                }
+                rows.transform(zr, zi, true, s[2], s[3]);
+                for (int x = 0; x < width; x++) {
+                    output[a * width + x] = (float) (zr[x] * scale);
+                    if (b < height) {
+                        output[b * width + x] = (float) (zi[x] * scale);
+                    }
+                }
+            }
+        });
+    }
+
+    /**
+     * Transforms the stored columns of a spectrum in place.
+     *
+     * @param re      the real parts
+     * @param im      the imaginary parts
+     * @param inverse true for the inverse transform
+     */
+    private void transformColumns(double[] re, double[] im, boolean inverse) {
+        bands(half, (s, start, end) -> {
+            double[] cr = s[0];
+            double[] ci = s[1];
+            for (int k = start; k < end; k++) {
+                for (int y = 0; y < height; y++) {
+                    cr[y] = re[y * half + k];
+                    ci[y] = im[y * half + k];
+                }
+                columns.transform(cr, ci, inverse, s[2], s[3]);
+                for (int y = 0; y < height; y++) {
+                    re[y * half + k] = cr[y];
+                    im[y * half + k] = ci[y];
+                }
+            }
+        });
+    }
+
+    /**
+     * Splits a range of lines into bands, one per scratch slot, and processes them, in parallel if enabled.
+     *
+     * @param count the number of lines
+     * @param task  the band task
+     */
+    private void bands(int count, BandTask task) {
+        int bands = parallel ? Math.min(scratch.length, count) : 1;
+        int size = (count + bands - 1) / bands;
+        IntStream range = IntStream.range(0, bands);
+        (parallel ? range.parallel() : range).forEach(band ->
+                task.run(scratch[band], band * size, Math.min(count, (band + 1) * size)));
+    }
+
+    /**
+     * Sets whether bands are transformed in parallel on the common fork-join pool.
+     *
+     * @param parallel true to transform in parallel
+     */
+    public void setParallel(boolean parallel) {
+        this.parallel = parallel;
+    }
+
+    /**
+     * Returns the number of stored spectrum columns.
+     *
+     * @return {@code width / 2 + 1}
+     */
+    public int getSpectrumWidth() {
+        return half;
+    }
+
+    /**
+     * Returns the number of columns of the planes.
+     *
+     * @return the width
+     */
+    public int getWidth() {
+        return width;
+    }
+
+    /**
+     * Returns the number of rows of the planes.
+     *
+     * @return the height
+     */
+    public int getHeight() {
+        return height;
+    }
+
+    /**
+     * A band of lines processed with one scratch slot.
+     */
+    @FunctionalInterface
+    private interface BandTask {
+
+        /**
+         * Processes the lines of a band.
+         *
+         * @param scratch the scratch slot of the band
+         * @param start   the first line, inclusive
+         * @param end     the last line, exclusive
+         */
+        void run(double[][] scratch, int start, int end);
+    }
+}
@@ -6,7 +6,6 @@ import com.dungeoncode.cae.core.impl.BooleanCell;
 import com.dungeoncode.cae.core.impl.BooleanState;
 
 import javax.annotation.Nonnull;
-import java.util.Random;
 
 /**
  * Initializes a {@link Grid} by setting cells in a centered rectangular region to random boolean states
@@ -64,11 +63,10 @@ public class InitCentralBlob extends InitNextStatesBoolean {
         int startY = centerY - dy;
         int endY = centerY + dy;
 
-        Random rnd = new Random();
         for (int y = 0; y < height; y++) {
             for (int x = 0; x < width; x++) {
                 boolean isActive = x >= startX && x < endX && y >= startY && y < endY;
-                isActive = isActive && rnd.nextBoolean();
+                isActive = isActive && getRandom().nextBoolean();
                 if (grid.getCell(x, y) == null) {
                     grid.setCell(x, y, new BooleanCell(x, y, isActive, false, 0));
                 } else {
@@ -5,7 +5,6 @@ import com.dungeoncode.cae.core.impl.BooleanCell;
 import com.dungeoncode.cae.core.impl.BooleanState;
 
 import javax.annotation.Nonnull;
-import java.util.Random;
 
 /**
  * Initializes a {@link Grid} for a cellular automaton with a random distribution of active and inactive cells
@@ -19,11 +18,6 @@ import java.util.Random;
  */
 public class InitHistogram extends InitNextStatesBoolean {
 
-    /**
-     * Random number generator for state assignment.
-     */
-    private final Random random = new Random();
-
     /**
      * Constructs a new histogram grid initializer with a fixed ID.
      */
@@ -56,7 +50,7 @@ public class InitHistogram extends InitNextStatesBoolean {
                     echo = true;
                 } else {
                     // Random state (50% chance active), echo=false
-                    isActive = random.nextBoolean();
+                    isActive = getRandom().nextBoolean();
                     echo = false;
                 }
 
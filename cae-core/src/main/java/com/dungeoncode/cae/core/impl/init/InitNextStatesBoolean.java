@@ -28,7 +28,9 @@ public class InitNextStatesBoolean extends AbstractGridInitializer<BooleanCell,
 
     /**
      * Initializes the specified grid's next states array with default {@link BooleanState} objects.
-     * Allocates a new array if none exists, populating each position with a new {@link BooleanState}.
+     * Allocates a new array if the grid has no next states yet, populating each position with a new
+     * {@link BooleanState}. Grids that do not {@link Grid#supportsNextStateArray() support} a next-state array
+     * provide their own storage and are left untouched.
      *
      * @param grid the {@link Grid} to initialize, must not be null
      * @throws NullPointerException if grid is null
@@ -39,7 +41,7 @@ public class InitNextStatesBoolean extends AbstractGridInitializer<BooleanCell,
         int width = grid.getWidth();
         int height = grid.getHeight();
 
-        if (grid.getNextStates() == null) {
+        if (grid.supportsNextStateArray() && grid.getNextStates() == null) {
             BooleanState[][] nextStates = new BooleanState[height][width];
             for (int y = 0; y < height; y++) {
                 for (int x = 0; x < width; x++) {
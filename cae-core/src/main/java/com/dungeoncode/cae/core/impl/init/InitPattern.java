@@ -0,0 +1,79 @@
+package com.dungeoncode.cae.core.impl.init;
+
+import com.dungeoncode.cae.core.Grid;
+import com.dungeoncode.cae.core.impl.BooleanCell;
+import com.dungeoncode.cae.core.impl.BooleanState;
+import com.dungeoncode.cae.core.io.Pattern;
+import com.dungeoncode.cae.core.io.PatternLibrary;
+
+import javax.annotation.Nonnull;
+import java.util.Objects;
+
+/**
+ * Initializes a {@link Grid} with a known pattern, such as a glider gun, stamped at the center of an otherwise
+ * inactive grid. Patterns are taken from the {@link PatternLibrary}, which decodes each pattern once and caches it.
+ *
+ * @see Pattern
+ * @see BooleanCell
+ * @see BooleanState
+ */
+public class InitPattern extends InitNextStatesBoolean {
+
+    /**
+     * The pattern to stamp.
+     */
+    private final Pattern pattern;
+
+    /**
+     * Constructs a new initializer stamping a bundled pattern of the default {@link PatternLibrary}.
+     *
+     * @param patternName the name of the bundled pattern, for example {@code "gosper-glider-gun"}, must not be null
+     * @throws IllegalArgumentException if no bundled pattern has that name
+     */
+    public InitPattern(@Nonnull String patternName) {
+        this(PatternLibrary.getDefault().get(patternName));
+    }
+
+    /**
+     * Constructs a new initializer stamping the specified pattern.
+     *
+     * @param pattern the pattern to stamp, must not be null
+     * @throws NullPointerException if pattern is null
+     */
+    public InitPattern(@Nonnull Pattern pattern) {
+        super(11);
+        this.pattern = Objects.requireNonNull(pattern, "Pattern cannot be null");
+    }
+
+    /**
+     * Initializes the specified grid by setting all cells to inactive and stamping the pattern at its center.
+     * Patterns larger than the grid wrap around its edges.
+     *
+     * @param grid the {@link Grid} to initialize
+     */
+    @Override
+    public void initializeGrid(@Nonnull Grid<BooleanCell, BooleanState> grid) {
+        super.initializeGrid(grid);
+        int width = grid.getWidth();
+        int height = grid.getHeight();
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                if (grid.getCell(x, y) == null) {
+                    grid.setCell(x, y, new BooleanCell(x, y, false, false, 0));
+                } else {
+                    grid.getCell(x, y).setState(false, false, 0);
+                }
+            }
+        }
+        pattern.stampCentered(grid);
+    }
+
+    /**
+     * Returns the pattern stamped by this initializer.
+     *
+     * @return the pattern
+     */
+    public Pattern getPattern() {
+        return pattern;
+    }
+}
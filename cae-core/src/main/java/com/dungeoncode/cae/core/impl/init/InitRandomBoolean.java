@@ -6,7 +6,6 @@ import com.dungeoncode.cae.core.impl.BooleanCell;
 import com.dungeoncode.cae.core.impl.BooleanState;
 
 import javax.annotation.Nonnull;
-import java.util.Random;
 
 /**
  * Initializes a {@link Grid} for a cellular automaton with a random distribution of live and dead cells,
@@ -33,10 +32,9 @@ public class InitRandomBoolean extends InitNextStatesBoolean {
     @Override
     public void initializeGrid(@Nonnull Grid<BooleanCell, BooleanState> grid) {
         super.initializeGrid(grid);
-        Random rnd = new Random();
         for (int y = 0; y < grid.getHeight(); y++) {
             for (int x = 0; x < grid.getWidth(); x++) {
-                boolean isActive = rnd.nextBoolean();
+                boolean isActive = getRandom().nextBoolean();
                 if (grid.getCell(x, y) == null) {
                     grid.setCell(x, y, new BooleanCell(x, y, isActive, false, 0));
                 } else {
@@ -6,7 +6,6 @@ import com.dungeoncode.cae.core.impl.BooleanState;
 
 import javax.annotation.Nonnull;
 import java.util.Objects;
-import java.util.Random;
 
 /**
  * Initializes a {@link Grid} with a random distribution of active and inactive cells, with a specified probability
@@ -14,7 +13,9 @@ import java.util.Random;
  */
 public class InitRandomBooleanProbability extends InitNextStatesBoolean {
 
-    private final Random random = new Random();
+    /**
+     * The probability of a cell being active.
+     */
     private final double activeProbability;
 
     /**
@@ -45,7 +46,7 @@ public class InitRandomBooleanProbability extends InitNextStatesBoolean {
 
         for (int y = 0; y < height; y++) {
             for (int x = 0; x < width; x++) {
-                boolean isActive = random.nextDouble() < activeProbability;
+                boolean isActive = getRandom().nextDouble() < activeProbability;
                 if (grid.getCell(x, y) == null) {
                     grid.setCell(x, y, new BooleanCell(x, y, isActive, false, 0));
                 } else {
@@ -54,4 +55,13 @@ public class InitRandomBooleanProbability extends InitNextStatesBoolean {
             }
         }
     }
+
+    /**
+     * Returns the probability of a cell being active.
+     *
+     * @return the active probability
+     */
+    public double getActiveProbability() {
+        return activeProbability;
+    }
 }
\ No newline at end of file
@@ -0,0 +1,133 @@
+package com.dungeoncode.cae.core.impl.init;
+
+import com.dungeoncode.cae.core.AbstractGridInitializer;
+import com.dungeoncode.cae.core.Grid;
+import com.dungeoncode.cae.core.impl.multi.MultiState;
+import com.dungeoncode.cae.core.impl.multi.MultiStateCell;
+import com.dungeoncode.cae.core.impl.multi.MultiStateGrid;
+
+import javax.annotation.Nonnull;
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.Random;
+
+/**
+ * Initializes a {@link MultiStateGrid} with random states drawn from a distribution, such as a uniform soup for
+ * cyclic cellular automata or a sparse sprinkling of firing cells for Brian's Brain.
+ */
+public class InitRandomMultiState extends AbstractGridInitializer<MultiStateCell, MultiState> {
+
+    /**
+     * The cumulative probability of each state; the last entry is 1.
+     */
+    private final double[] cumulative;
+
+    /**
+     * Constructs an initializer drawing every state with the same probability.
+     *
+     * @param states the number of states, between 2 and {@link MultiState#MAX_STATES}
+     * @throws IllegalArgumentException if the state count is out of range
+     */
+    public InitRandomMultiState(int states) {
+        this(uniform(states));
+    }
+
+    /**
+     * Constructs an initializer drawing state {@code i} with probability proportional to {@code weights[i]}.
+     *
+     * @param weights the non-negative weight of each state, at least one positive, must not be null
+     * @throws NullPointerException     if weights is null
+     * @throws IllegalArgumentException if there are fewer than 2 or more than {@link MultiState#MAX_STATES} weights,
+     *                                  a weight is negative, or all are zero
+     */
+    public InitRandomMultiState(@Nonnull double[] weights) {
+        super(12);
+        Objects.requireNonNull(weights, "Weights cannot be null");
+        if (weights.length < 2 || weights.length > MultiState.MAX_STATES) {
+            throw new IllegalArgumentException("States must be between 2 and " + MultiState.MAX_STATES + ": "
+                    + weights.length);
+        }
+        double total = 0;
+        for (double weight : weights) {
+            if (!(weight >= 0)) {
+                throw new IllegalArgumentException("Weights must be non-negative: " + Arrays.toString(weights));
+            }
+            total += weight;
+        }
+        if (total <= 0) {
+            throw new IllegalArgumentException("At least one weight must be positive");
+        }
+        this.cumulative = new double[weights.length];
+        double sum = 0;
+        for (int i = 0; i < weights.length; i++) {
+            sum += weights[i];
+            cumulative[i] = sum / total;
+        }
+        cumulative[weights.length - 1] = 1.0;
+    }
+
+    /**
+     * Returns equal weights for a number of states.
+     *
+     * @param states the number of states
+     * @return the weights
+     * @throws IllegalArgumentException if the state count is out of range
+     */
+    private static double[] uniform(int states) {
+        if (states < 2 || states > MultiState.MAX_STATES) {
+            throw new IllegalArgumentException("States must be between 2 and " + MultiState.MAX_STATES + ": " + states);
+        }
+        double[] weights = new double[states];
+        Arrays.fill(weights, 1.0);
+        return weights;
+    }
+
+    /**
+     * Sets every cell of the grid to a random state.
+     *
+     * @param grid the {@link Grid} to initialize, must not be null
+     * @throws NullPointerException     if grid is null
+     * @throws IllegalArgumentException if a drawn state is not below the state count of the grid
+     */
+    @Override
+    public void initializeGrid(@Nonnull Grid<MultiStateCell, MultiState> grid) {
+        Objects.requireNonNull(grid, "Grid cannot be null");
+        Random random = getRandom();
+        if (grid instanceof MultiStateGrid multi && cumulative.length <= multi.getStateCount()) {
+            byte[] plane = multi.getPlane();
+            for (int i = 0; i < plane.length; i++) {
+                plane[i] = (byte) draw(random);
+            }
+            return;
+        }
+        for (int y = 0; y < grid.getHeight(); y++) {
+            for (int x = 0; x < grid.getWidth(); x++) {
+                grid.getCell(x, y).setState(MultiState.of(draw(random)));
+            }
+        }
+    }
+
+    /**
+     * Draws a state.
+     *
+     * @param random the random source
+     * @return the state number
+     */
+    private int draw(Random random) {
+        double u = random.nextDouble();
+        int state = 0;
+        while (u >= cumulative[state]) {
+            state++;
+        }
+        return state;
+    }
+
+    /**
+     * Returns the number of states drawn from.
+     *
+     * @return the state count
+     */
+    public int getStateCount() {
+        return cumulative.length;
+    }
+}
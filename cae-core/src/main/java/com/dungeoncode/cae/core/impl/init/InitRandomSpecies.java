@@ -5,7 +5,6 @@ import com.dungeoncode.cae.core.impl.BooleanCell;
 import com.dungeoncode.cae.core.impl.BooleanState;
 
 import javax.annotation.Nonnull;
-import java.util.Random;
 
 /**
  * Initializes a {@link Grid} for a cellular automaton with a random distribution of active cells assigned non-zero species IDs
@@ -24,14 +23,14 @@ public class InitRandomSpecies extends InitNextStatesBoolean {
     private final int numSpecies;
 
     /**
-     * The number of active cells to place.
+     * The number of active cells to place, or -1 if the population is given as a density.
      */
     private final int population;
 
     /**
-     * Random number generator for cell placement and species assignment.
+     * The fraction of cells to activate, or NaN if the population is given as a count.
      */
-    private final Random random = new Random();
+    private final double density;
 
     /**
      * Constructs a new species-based grid initializer with the specified number of species and population.
@@ -50,6 +49,28 @@ public class InitRandomSpecies extends InitNextStatesBoolean {
         }
         this.numSpecies = numSpecies;
         this.population = population;
+        this.density = Double.NaN;
+    }
+
+    /**
+     * Constructs a new species-based grid initializer placing a fraction of the grid's cells, so that the same
+     * initializer scales with the grid size.
+     *
+     * @param numSpecies the number of distinct species (1 to 4), must be positive
+     * @param density    the fraction of cells to activate, between 0.0 and 1.0
+     * @throws IllegalArgumentException if numSpecies is not in [1, 4] or density is not in [0, 1]
+     */
+    public InitRandomSpecies(int numSpecies, double density) {
+        super(8);
+        if (numSpecies < 1 || numSpecies > 4) {
+            throw new IllegalArgumentException("Number of species must be between 1 and 4, got: " + numSpecies);
+        }
+        if (!(density >= 0.0 && density <= 1.0)) {
+            throw new IllegalArgumentException("Density must be between 0.0 and 1.0, got: " + density);
+        }
+        this.numSpecies = numSpecies;
+        this.population = -1;
+        this.density = density;
     }
 
     /**
@@ -67,7 +88,8 @@ public class InitRandomSpecies extends InitNextStatesBoolean {
 
         int width = grid.getWidth();
         int height = grid.getHeight();
-        int maxPopulation = Math.min(population, width * height);
+        int maxPopulation = population >= 0 ? Math.min(population, width * height)
+                : (int) Math.round(density * width * height);
         int placed = 0;
 
         // Set all cells to inactive with species ID 0
@@ -83,14 +105,41 @@ public class InitRandomSpecies extends InitNextStatesBoolean {
 
         // Place active cells with random species IDs
         while (placed < maxPopulation) {
-            int x = random.nextInt(width);
-            int y = random.nextInt(height);
+            int x = getRandom().nextInt(width);
+            int y = getRandom().nextInt(height);
             BooleanCell cell = grid.getCell(x, y);
             if (cell != null && !cell.getState().getValue()) {
-                int speciesId = random.nextInt(numSpecies) + 1; // Random ID from 1 to numSpecies
+                int speciesId = getRandom().nextInt(numSpecies) + 1; // Random ID from 1 to numSpecies
                 cell.setState(true, false, speciesId);
                 placed++;
             }
         }
     }
+
+    /**
+     * Returns the number of distinct species.
+     *
+     * @return the species count
+     */
+    public int getNumSpecies() {
+        return numSpecies;
+    }
+
+    /**
+     * Returns the number of active cells to place.
+     *
+     * @return the population, or -1 if the population is given as a density
+     */
+    public int getPopulation() {
+        return population;
+    }
+
+    /**
+     * Returns the fraction of cells to activate.
+     *
+     * @return the density, or NaN if the population is given as a count
+     */
+    public double getDensity() {
+        return density;
+    }
 }
\ No newline at end of file
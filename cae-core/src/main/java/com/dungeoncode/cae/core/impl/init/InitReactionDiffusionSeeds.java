@@ -0,0 +1,109 @@
+package com.dungeoncode.cae.core.impl.init;
+
+import com.dungeoncode.cae.core.AbstractGridInitializer;
+import com.dungeoncode.cae.core.Grid;
+import com.dungeoncode.cae.core.impl.continuous.ReactionDiffusionCell;
+import com.dungeoncode.cae.core.impl.continuous.ReactionDiffusionGrid;
+import com.dungeoncode.cae.core.impl.continuous.ReactionDiffusionState;
+
+import javax.annotation.Nonnull;
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.Random;
+
+/**
+ * Initializes a {@link ReactionDiffusionGrid} with the customary Gray-Scott seeding: the homogeneous steady state,
+ * substrate 1 and catalyst 0, perturbed by square patches of substrate 0.5 and catalyst 0.25 at random positions. A
+ * little noise is added to the patches to break their symmetry. Patches wrap around the edges of the grid.
+ */
+public class InitReactionDiffusionSeeds extends AbstractGridInitializer<ReactionDiffusionCell, ReactionDiffusionState> {
+
+    /**
+     * The amplitude of the noise added to the patches.
+     */
+    private static final float NOISE = 0.01f;
+
+    /**
+     * The number of patches.
+     */
+    private final int count;
+
+    /**
+     * The side of each patch in cells.
+     */
+    private final int size;
+
+    /**
+     * Constructs an initializer.
+     *
+     * @param count the number of patches, must not be negative
+     * @param size  the side of each patch in cells, must be positive
+     * @throws IllegalArgumentException if count is negative or size is not positive
+     */
+    public InitReactionDiffusionSeeds(int count, int size) {
+        super(14);
+        if (count < 0 || size <= 0) {
+            throw new IllegalArgumentException("Count must not be negative and size must be positive: count=" + count
+                    + ", size=" + size);
+        }
+        this.count = count;
+        this.size = size;
+    }
+
+    /**
+     * Resets the grid to the steady state and seeds the patches.
+     *
+     * @param grid the {@link Grid} to initialize, must not be null
+     * @throws NullPointerException if grid is null
+     */
+    @Override
+    public void initializeGrid(@Nonnull Grid<ReactionDiffusionCell, ReactionDiffusionState> grid) {
+        Objects.requireNonNull(grid, "Grid cannot be null");
+        Random random = getRandom();
+        int width = grid.getWidth();
+        int height = grid.getHeight();
+        boolean planes = grid instanceof ReactionDiffusionGrid;
+        float[] u = planes ? ((ReactionDiffusionGrid) grid).getU() : new float[width * height];
+        float[] v = planes ? ((ReactionDiffusionGrid) grid).getV() : new float[width * height];
+        Arrays.fill(u, 1f);
+        Arrays.fill(v, 0f);
+        for (int patch = 0; patch < count; patch++) {
+            int left = random.nextInt(width);
+            int top = random.nextInt(height);
+            for (int dy = 0; dy < size; dy++) {
+                int row = (top + dy) % height * width;
+                for (int dx = 0; dx < size; dx++) {
+                    int i = row + (left + dx) % width;
+                    u[i] = 0.5f + (random.nextFloat() - 0.5f) * 2 * NOISE;
+                    v[i] = 0.25f + (random.nextFloat() - 0.5f) * 2 * NOISE;
+                }
+            }
+        }
+        if (!planes) {
+            for (int y = 0; y < height; y++) {
+                for (int x = 0; x < width; x++) {
+                    int i = y * width + x;
+                    grid.getCell(x, y).setState(new ReactionDiffusionState(u[i], v[i]));
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the number of patches.
+     *
+     * @return the patch count
+     */
+    public int getCount() {
+        return count;
+    }
+
+    /**
+     * Returns the side of each patch.
+     *
+     * @return the side in cells
+     */
+    public int getSize() {
+        return size;
+    }
+}
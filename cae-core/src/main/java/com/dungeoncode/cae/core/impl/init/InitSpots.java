@@ -5,7 +5,6 @@ import com.dungeoncode.cae.core.impl.BooleanCell;
 import com.dungeoncode.cae.core.impl.BooleanState;
 
 import javax.annotation.Nonnull;
-import java.util.Random;
 
 /**
  * Initializes a {@link Grid} for a cellular automaton by placing a specified number of active spots
@@ -57,10 +56,9 @@ public class InitSpots extends InitNextStatesBoolean {
         }
 
         // Then place the specified number of active spots randomly
-        Random random = new Random();
         for (int i = 0; i < spotCount; i++) {
-            int x = random.nextInt(width);
-            int y = random.nextInt(height);
+            int x = getRandom().nextInt(width);
+            int y = getRandom().nextInt(height);
             grid.getCell(x, y).setState(true, false, 0);
         }
     }
@@ -0,0 +1,66 @@
+package com.dungeoncode.cae.core.impl.lattice;
+
+import com.dungeoncode.cae.core.AbstractCell;
+
+import javax.annotation.Nonnull;
+import java.util.Objects;
+
+/**
+ * A view of one cell of a {@link LatticeGasGrid}. The view holds no state of its own: its state is read from and
+ * written to the current bit planes of the grid at the bound coordinates. Views are cheap, short-lived objects
+ * created on access.
+ */
+public final class LatticeGasCell extends AbstractCell<LatticeGasState> {
+
+    /**
+     * The grid holding the state.
+     */
+    private final LatticeGasGrid grid;
+
+    /**
+     * Constructs a view of the cell at the given coordinates.
+     *
+     * @param grid the grid holding the state
+     * @param x    the column
+     * @param y    the row
+     */
+    LatticeGasCell(LatticeGasGrid grid, int x, int y) {
+        super(x, y);
+        this.grid = grid;
+    }
+
+    /**
+     * Returns the current state of the cell.
+     *
+     * @return the state
+     */
+    @Override
+    public LatticeGasState getState() {
+        return LatticeGasState.of(grid.get(getPosition().getX(), getPosition().getY()));
+    }
+
+    /**
+     * Stores a state in the grid.
+     *
+     * @param state the state, must not be null
+     * @throws NullPointerException     if state is null
+     * @throws IllegalArgumentException if the state has a direction the grid does not have
+     */
+    @Override
+    public void setState(@Nonnull LatticeGasState state) {
+        Objects.requireNonNull(state, "State cannot be null");
+        grid.set(getPosition().getX(), getPosition().getY(), state.intValue());
+    }
+
+    /**
+     * Stores a state in the grid; states are immutable, so this is the same as {@link #setState(LatticeGasState)}.
+     *
+     * @param state the state, must not be null
+     * @throws NullPointerException     if state is null
+     * @throws IllegalArgumentException if the state has a direction the grid does not have
+     */
+    @Override
+    public void copyState(@Nonnull LatticeGasState state) {
+        setState(state);
+    }
+}
@@ -0,0 +1,382 @@
+package com.dungeoncode.cae.core.impl.lattice;
+
+import com.dungeoncode.cae.core.Grid;
+import com.dungeoncode.cae.core.GridInitializer;
+import com.dungeoncode.cae.core.StatisticsCollector;
+
+import java.util.function.ToLongFunction;
+
+/**
+ * A {@link Grid} of lattice-gas cells, stored as one bit plane per direction of motion instead of one object per
+ * cell: bit {@code x} of a plane row is set if a particle moving in that direction occupies cell (x, y). Each
+ * direction has a current and a next plane, and a single solid plane marks the cells of obstacles, which do not
+ * change. A 4096 x 4096 grid of six directions takes 26 MB.
+ * <p>
+ * Planes are row-major arrays of 64-bit words: row y of a plane starts at index {@code y * getWordsPerRow()}, and cell
+ * (x, y) is bit {@code x & 63} of word {@code x >>> 6} of the row. Bits past the width are always clear. Rules that
+ * implement {@link com.dungeoncode.cae.core.GridRule} read {@link #getPlane(int)} and write
+ * {@link #getNextPlane(int)} directly, 64 cells at a time; other rules write next states with
+ * {@link #setNext(int, int, int)}. Committing swaps the planes instead of copying them, so every rule must write the
+ * next state of every cell.
+ * <p>
+ * {@link #getCell(int, int)} returns a lightweight view for initializers, renderers, and per-cell rules.
+ */
+public class LatticeGasGrid extends Grid<LatticeGasCell, LatticeGasState> {
+
+    /**
+     * The number of directions of motion.
+     */
+    private final int directions;
+
+    /**
+     * The number of words per plane row.
+     */
+    private final int words;
+
+    /**
+     * The current plane of every direction.
+     */
+    private long[][] current;
+
+    /**
+     * The next plane of every direction.
+     */
+    private long[][] next;
+
+    /**
+     * The plane of obstacle cells.
+     */
+    private final long[] solid;
+
+    /**
+     * Constructs a grid with no particles and no obstacles, then runs the initializer.
+     *
+     * @param width       the number of columns (x-axis), must be positive
+     * @param height      the number of rows (y-axis), must be positive
+     * @param directions  the number of directions of motion, between 1 and {@link LatticeGasState#MAX_DIRECTIONS}
+     * @param initializer the {@link GridInitializer} to populate the grid, or null to leave it empty
+     * @throws IllegalArgumentException if width or height is not positive, the direction count is out of range, or a
+     *                                  plane has more than {@link Integer#MAX_VALUE} words
+     */
+    public LatticeGasGrid(int width, int height, int directions,
+                          GridInitializer<LatticeGasCell, LatticeGasState> initializer) {
+        super(width, height, initializer, false);
+        if (directions < 1 || directions > LatticeGasState.MAX_DIRECTIONS) {
+            throw new IllegalArgumentException("Directions must be between 1 and " + LatticeGasState.MAX_DIRECTIONS
+                    + ": " + directions);
+        }
+        this.words = (width + 63) >>> 6;
+        if ((long) words * height > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Grid too large: width=" + width + ", height=" + height);
+        }
+        this.directions = directions;
+        this.current = new long[directions][words * height];
+        this.next = new long[directions][words * height];
+        this.solid = new long[words * height];
+        initialize();
+    }
+
+    /**
+     * Returns a view of the cell at the specified coordinates. The view is created on each call and reads and writes
+     * the current planes.
+     *
+     * @param x the x-coordinate (column), zero-based
+     * @param y the y-coordinate (row), zero-based
+     * @return a view of the cell at (x, y)
+     * @throws IllegalArgumentException if the coordinates are out of bounds
+     */
+    @Override
+    public LatticeGasCell getCell(int x, int y) {
+        checkBounds(x, y);
+        return new LatticeGasCell(this, x, y);
+    }
+
+    /**
+     * Stores the state of the specified cell in the current planes at the given coordinates.
+     *
+     * @param x    the x-coordinate (column), zero-based
+     * @param y    the y-coordinate (row), zero-based
+     * @param cell the cell whose state to store, must not be null
+     * @throws IllegalArgumentException if the coordinates are out of bounds or the state has a direction the grid
+     *                                  does not have
+     */
+    @Override
+    public void setCell(int x, int y, LatticeGasCell cell) {
+        set(x, y, cell.getState().intValue());
+    }
+
+    /**
+     * Returns the current state of a cell.
+     *
+     * @param x the x-coordinate (column), zero-based
+     * @param y the y-coordinate (row), zero-based
+     * @return the direction bits, with {@link LatticeGasState#SOLID} for an obstacle cell
+     * @throws IllegalArgumentException if the coordinates are out of bounds
+     */
+    public int get(int x, int y) {
+        checkBounds(x, y);
+        return bits(current, y * words + (x >>> 6), x & 63);
+    }
+
+    /**
+     * Sets the current state of a cell, including whether it belongs to an obstacle.
+     *
+     * @param x    the x-coordinate (column), zero-based
+     * @param y    the y-coordinate (row), zero-based
+     * @param bits the direction bits, with {@link LatticeGasState#SOLID} for an obstacle cell
+     * @throws IllegalArgumentException if the coordinates are out of bounds or a bit is set for a direction the grid
+     *                                  does not have
+     */
+    public void set(int x, int y, int bits) {
+        checkBounds(x, y);
+        checkBits(bits & ~LatticeGasState.SOLID);
+        int i = y * words + (x >>> 6);
+        long bit = 1L << x;
+        for (int d = 0; d < directions; d++) {
+            current[d][i] = (bits >>> d & 1) != 0 ? current[d][i] | bit : current[d][i] & ~bit;
+        }
+        solid[i] = (bits & LatticeGasState.SOLID) != 0 ? solid[i] | bit : solid[i] & ~bit;
+    }
+
+    /**
+     * Sets the next particles of a cell. Obstacles do not change, so the solid bit cannot be set here.
+     *
+     * @param x    the x-coordinate (column), zero-based
+     * @param y    the y-coordinate (row), zero-based
+     * @param bits the direction bits
+     * @throws IllegalArgumentException if the coordinates are out of bounds or a bit is set for a direction the grid
+     *                                  does not have
+     */
+    public void setNext(int x, int y, int bits) {
+        checkBounds(x, y);
+        checkBits(bits);
+        int i = y * words + (x >>> 6);
+        long bit = 1L << x;
+        for (int d = 0; d < directions; d++) {
+            next[d][i] = (bits >>> d & 1) != 0 ? next[d][i] | bit : next[d][i] & ~bit;
+        }
+    }
+
+    /**
+     * Returns the next state of the cell at the specified coordinates.
+     *
+     * @param x the x-coordinate (column), zero-based
+     * @param y the y-coordinate (row), zero-based
+     * @return the next state at (x, y)
+     * @throws IllegalArgumentException if the coordinates are out of bounds
+     */
+    @Override
+    public LatticeGasState getNextState(int x, int y) {
+        checkBounds(x, y);
+        return LatticeGasState.of(bits(next, y * words + (x >>> 6), x & 63));
+    }
+
+    /**
+     * Copies the next particles of a single cell to the cell.
+     *
+     * @param x the x-coordinate (column), zero-based
+     * @param y the y-coordinate (row), zero-based
+     * @throws IllegalArgumentException if the coordinates are out of bounds
+     */
+    @Override
+    public void copyCellState(int x, int y) {
+        checkBounds(x, y);
+        int i = y * words + (x >>> 6);
+        long bit = 1L << x;
+        for (int d = 0; d < directions; d++) {
+            current[d][i] = current[d][i] & ~bit | next[d][i] & bit;
+        }
+    }
+
+    /**
+     * Makes the next particles current by swapping the planes. If the grid hash is maintained or changes are
+     * tracked, words are compared across all planes and only the cells whose bits differ are re-encoded. A collector
+     * receives the shared {@link LatticeGasState} of every cell, so committing allocates nothing.
+     *
+     * @param collector the collector to feed, or null to only commit
+     */
+    @Override
+    public void commitNextStates(StatisticsCollector<? super LatticeGasState> collector) {
+        ToLongFunction<? super LatticeGasState> hashEncoder = getStateEncoder();
+        ToLongFunction<? super LatticeGasState> changeEncoder = getChangeEncoder();
+        int width = getWidth();
+        int height = getHeight();
+        if (hashEncoder != null || changeEncoder != null) {
+            for (int i = 0; i < solid.length; i++) {
+                long diff = 0;
+                for (int d = 0; d < directions; d++) {
+                    diff |= current[d][i] ^ next[d][i];
+                }
+                while (diff != 0) {
+                    int bit = Long.numberOfTrailingZeros(diff);
+                    diff &= diff - 1;
+                    LatticeGasState before = LatticeGasState.of(bits(current, i, bit));
+                    LatticeGasState after = LatticeGasState.of(bits(next, i, bit));
+                    int x = (i % words << 6) + bit;
+                    int y = i / words;
+                    if (hashEncoder != null) {
+                        long hashBefore = hashEncoder.applyAsLong(before);
+                        long hashAfter = hashEncoder.applyAsLong(after);
+                        if (hashBefore != hashAfter) {
+                            updateHash(y * width + x, hashBefore, hashAfter);
+                        }
+                    }
+                    if (changeEncoder != null
+                            && changeEncoder.applyAsLong(before) != changeEncoder.applyAsLong(after)) {
+                        markChanged(x, y);
+                    }
+                }
+            }
+        }
+        if (collector != null) {
+            collector.begin(width, height);
+            for (int y = 0; y < height; y++) {
+                for (int x = 0; x < width; x++) {
+                    collector.accept(LatticeGasState.of(bits(next, y * words + (x >>> 6), x & 63)));
+                }
+            }
+        }
+        long[][] swap = current;
+        current = next;
+        next = swap;
+    }
+
+    /**
+     * Returns false: next states are stored in planes, see {@link #getNextState(int, int)}.
+     *
+     * @return false
+     */
+    @Override
+    public boolean supportsNextStateArray() {
+        return false;
+    }
+
+    /**
+     * Not supported: next states are stored in bit planes, see {@link #getNextState(int, int)}.
+     *
+     * @return never
+     * @throws UnsupportedOperationException always
+     */
+    @Override
+    public LatticeGasState[][] getNextStates() {
+        throw new UnsupportedOperationException("Lattice-gas grids store next states in planes; use getNextState");
+    }
+
+    /**
+     * Not supported: next states are stored in bit planes.
+     *
+     * @param nextStates ignored
+     * @throws UnsupportedOperationException always
+     */
+    @Override
+    public void setNextStates(LatticeGasState[][] nextStates) {
+        throw new UnsupportedOperationException("Lattice-gas grids store next states in planes");
+    }
+
+    /**
+     * Returns the current plane of a direction. The array is replaced on every commit, so callers should not keep it
+     * across steps.
+     *
+     * @param direction the direction, between 0 and the direction count - 1
+     * @return the current bits of the direction, row by row
+     * @throws ArrayIndexOutOfBoundsException if the direction is out of range
+     */
+    public long[] getPlane(int direction) {
+        return current[direction];
+    }
+
+    /**
+     * Returns the next plane of a direction, for rules that write the whole grid.
+     *
+     * @param direction the direction, between 0 and the direction count - 1
+     * @return the next bits of the direction, row by row
+     * @throws ArrayIndexOutOfBoundsException if the direction is out of range
+     */
+    public long[] getNextPlane(int direction) {
+        return next[direction];
+    }
+
+    /**
+     * Returns the plane of obstacle cells. It is shared by the current and next states and is not swapped.
+     *
+     * @return the solid bits, row by row
+     */
+    public long[] getSolidPlane() {
+        return solid;
+    }
+
+    /**
+     * Returns the number of words per plane row.
+     *
+     * @return the row stride of the planes
+     */
+    public int getWordsPerRow() {
+        return words;
+    }
+
+    /**
+     * Returns the number of directions of motion.
+     *
+     * @return the direction count
+     */
+    public int getDirectionCount() {
+        return directions;
+    }
+
+    /**
+     * Returns the number of particles on the grid, which a lattice-gas rule conserves.
+     *
+     * @return the number of set direction bits
+     */
+    public long getParticleCount() {
+        long count = 0;
+        for (long[] plane : current) {
+            for (long word : plane) {
+                count += Long.bitCount(word);
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Gathers the bits of a cell from a set of planes and the solid plane.
+     *
+     * @param planes the direction planes
+     * @param i      the index of the word holding the cell
+     * @param bit    the position of the cell in the word
+     * @return the direction bits and the solid bit
+     */
+    private int bits(long[][] planes, int i, int bit) {
+        int bits = (int) (solid[i] >>> bit & 1) << LatticeGasState.MAX_DIRECTIONS;
+        for (int d = 0; d < directions; d++) {
+            bits |= (int) (planes[d][i] >>> bit & 1) << d;
+        }
+        return bits;
+    }
+
+    /**
+     * Validates direction bits.
+     *
+     * @param bits the direction bits
+     * @throws IllegalArgumentException if a bit is set for a direction the grid does not have
+     */
+    private void checkBits(int bits) {
+        if (bits < 0 || bits >= 1 << directions) {
+            throw new IllegalArgumentException("Direction bits must be between 0 and " + ((1 << directions) - 1)
+                    + ": " + bits);
+        }
+    }
+
+    /**
+     * Validates cell coordinates.
+     *
+     * @param x the column
+     * @param y the row
+     * @throws IllegalArgumentException if the coordinates are out of bounds
+     */
+    private void checkBounds(int x, int y) {
+        if (x < 0 || x >= getWidth() || y < 0 || y >= getHeight()) {
+            throw new IllegalArgumentException("Coordinates out of bounds: (" + x + ", " + y + ")");
+        }
+    }
+}
@@ -0,0 +1,425 @@
+package com.dungeoncode.cae.core.impl.lattice;
+
+import com.dungeoncode.cae.core.AbstractRule;
+import com.dungeoncode.cae.core.Grid;
+import com.dungeoncode.cae.core.GridRule;
+
+import javax.annotation.Nonnull;
+import java.util.Objects;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+/**
+ * A lattice-gas rule for {@link LatticeGasGrid}s: every cell holds at most one particle per direction of motion, and a
+ * step is a collision in every cell followed by the propagation of every particle to the neighbor in its direction.
+ * Collisions only exchange particles between directions, so the number of particles is conserved exactly, and on
+ * large scales the gas behaves like a fluid. Particles in obstacle cells bounce back the way they came.
+ * <p>
+ * Two classic models are available. The HPP model of Hardy, de Pazzis, and Pomeau moves particles along the four
+ * axes of the square lattice, and turns a head-on pair by 90 degrees when the other two directions are empty. The
+ * FHP model of Frisch, Hasslacher, and Pomeau moves particles along the six directions of a hexagonal lattice, which
+ * gives isotropic hydrodynamics: a head-on pair turns by 60 degrees to the left or to the right, and three particles
+ * at 120 degrees from each other turn by 60 degrees. The side of each pair collision is drawn from the seed the rule
+ * was last {@link #reseed(long) reseeded} with, which an automaton derives from its seed and the generation, so a run
+ * is reproducible and independent of the band layout.
+ * <p>
+ * Both steps work on 64 cells at a time: collisions are a handful of bitwise operations on the words of the
+ * direction planes, and propagation shifts plane rows by one bit with words carrying into their neighbors. The grid
+ * wraps around at its edges (toroidal topology), and rows are computed in parallel bands on the common fork-join pool
+ * unless disabled with {@link #setParallel(boolean)}; results are identical either way.
+ *
+ * @see LatticeGasGrid
+ */
+public class LatticeGasRule extends AbstractRule<LatticeGasCell, LatticeGasState>
+        implements GridRule<LatticeGasCell, LatticeGasState> {
+
+    /**
+     * The lattice-gas models.
+     */
+    public enum Model {
+        /**
+         * The square lattice, with directions 0 east, 1 north, 2 west, and 3 south; north is toward row 0.
+         */
+        HPP(new int[]{0, 1, 0, -1}, new int[]{1, 0, -1, 0}, new int[]{1, 0, -1, 0}),
+        /**
+         * The hexagonal lattice, with directions 0 east, 1 north-east, 2 north-west, 3 west, 4 south-west, and 5
+         * south-east. Odd rows are offset half a cell to the east, so the grid height must be even.
+         */
+        FHP(new int[]{0, 1, 1, 0, -1, -1}, new int[]{1, 0, -1, -1, -1, 0}, new int[]{1, 1, 0, -1, 0, 1});
+
+        /**
+         * The row a particle comes from, relative to the row it arrives at, by direction.
+         */
+        private final int[] sourceRows;
+
+        /**
+         * The columns a particle moves east when it leaves an even row, by direction; -1 moves it west.
+         */
+        private final int[] evenShifts;
+
+        /**
+         * The columns a particle moves east when it leaves an odd row, by direction; -1 moves it west.
+         */
+        private final int[] oddShifts;
+
+        /**
+         * Constructs a model.
+         *
+         * @param sourceRows the source row offset of every direction
+         * @param evenShifts the eastward move of every direction from an even row
+         * @param oddShifts  the eastward move of every direction from an odd row
+         */
+        Model(int[] sourceRows, int[] evenShifts, int[] oddShifts) {
+            this.sourceRows = sourceRows;
+            this.evenShifts = evenShifts;
+            this.oddShifts = oddShifts;
+        }
+
+        /**
+         * Returns the number of directions of motion.
+         *
+         * @return the direction count
+         */
+        public int getDirectionCount() {
+            return sourceRows.length;
+        }
+
+        /**
+         * Returns the direction opposite to a direction.
+         *
+         * @param direction the direction
+         * @return the opposite direction
+         */
+        public int opposite(int direction) {
+            int count = getDirectionCount();
+            return (direction + count / 2) % count;
+        }
+    }
+
+    /**
+     * The minimum number of rows of a band.
+     */
+    private static final int MIN_BAND_ROWS = 16;
+
+    /**
+     * The model.
+     */
+    private final Model model;
+
+    /**
+     * Whether bands of rows are computed in parallel.
+     */
+    private boolean parallel = true;
+
+    /**
+     * The seed the side of pair collisions is drawn from.
+     */
+    private long seed;
+
+    /**
+     * The planes of the particles after collision, before propagation, reused between steps.
+     */
+    private long[][] collided = new long[0][];
+
+    /**
+     * Constructs a rule.
+     *
+     * @param id    the unique identifier of the rule
+     * @param model the lattice-gas model, must not be null
+     * @throws NullPointerException if model is null
+     */
+    public LatticeGasRule(int id, @Nonnull Model model) {
+        super(id);
+        this.model = Objects.requireNonNull(model, "Model cannot be null");
+    }
+
+    /**
+     * Creates a rule for the HPP model on the square lattice.
+     *
+     * @return the rule
+     */
+    public static LatticeGasRule hpp() {
+        return new LatticeGasRule(31, Model.HPP);
+    }
+
+    /**
+     * Creates a rule for the FHP model on the hexagonal lattice.
+     *
+     * @return the rule
+     */
+    public static LatticeGasRule fhp() {
+        return new LatticeGasRule(32, Model.FHP);
+    }
+
+    /**
+     * Reseeds the random generator and the draw of collision sides.
+     *
+     * @param seed the seed
+     */
+    @Override
+    public void reseed(long seed) {
+        super.reseed(seed);
+        this.seed = seed;
+    }
+
+    /**
+     * Computes the next state of a single cell by colliding the particles of the cells it receives particles from,
+     * and stores it in the next planes of the grid. {@link #applyToGrid(Grid)} is used by the automaton and is much
+     * faster for whole grids.
+     *
+     * @param grid the grid containing the cell, a {@link LatticeGasGrid}
+     * @param cell the cell to evaluate
+     * @return the next state of the cell
+     * @throws IllegalArgumentException if the grid is not a compatible {@link LatticeGasGrid}
+     */
+    @Override
+    public LatticeGasState apply(Grid<LatticeGasCell, LatticeGasState> grid, LatticeGasCell cell) {
+        LatticeGasGrid gas = checkGrid(grid);
+        int width = gas.getWidth();
+        int height = gas.getHeight();
+        int words = gas.getWordsPerRow();
+        int directions = model.getDirectionCount();
+        int x = cell.getPosition().getX();
+        int y = cell.getPosition().getY();
+        long[][] planes = new long[directions][];
+        for (int d = 0; d < directions; d++) {
+            planes[d] = gas.getPlane(d);
+        }
+        long[] solid = gas.getSolidPlane();
+        long[][] out = new long[directions][1];
+        int bits = 0;
+        for (int d = 0; d < directions; d++) {
+            int sy = Math.floorMod(y + model.sourceRows[d], height);
+            int sx = Math.floorMod(x - ((sy & 1) == 0 ? model.evenShifts[d] : model.oddShifts[d]), width);
+            int i = sy * words + (sx >>> 6);
+            collide(planes, i, out, 0, chirality(i), solid[i]);
+            bits |= (int) (out[d][0] >>> sx & 1) << d;
+        }
+        gas.setNext(x, y, bits);
+        return gas.getNextState(x, y);
+    }
+
+    /**
+     * Computes the next state of every cell into the next planes of the grid: all cells collide into a scratch set of
+     * planes, then all particles propagate into the next planes, each in parallel bands of rows if enabled.
+     *
+     * @param grid the grid to evaluate, a {@link LatticeGasGrid}
+     * @throws IllegalArgumentException if the grid is not a compatible {@link LatticeGasGrid}
+     */
+    @Override
+    public void applyToGrid(Grid<LatticeGasCell, LatticeGasState> grid) {
+        LatticeGasGrid gas = checkGrid(grid);
+        int height = gas.getHeight();
+        int words = gas.getWordsPerRow();
+        int directions = model.getDirectionCount();
+        if (collided.length != directions || collided[0].length != words * height) {
+            collided = new long[directions][words * height];
+        }
+        long[][] current = new long[directions][];
+        long[][] next = new long[directions][];
+        for (int d = 0; d < directions; d++) {
+            current[d] = gas.getPlane(d);
+            next[d] = gas.getNextPlane(d);
+        }
+        long[] solid = gas.getSolidPlane();
+        int bandRows = bandRows(height);
+        int bands = (height + bandRows - 1) / bandRows;
+        if (bands == 1) {
+            collideRows(current, solid, words, 0, height);
+            propagateRows(next, gas.getWidth(), height, words, 0, height);
+            return;
+        }
+        IntStream.range(0, bands).parallel().forEach(band -> {
+            int start = band * bandRows;
+            collideRows(current, solid, words, start, Math.min(height, start + bandRows));
+        });
+        IntStream.range(0, bands).parallel().forEach(band -> {
+            int start = band * bandRows;
+            propagateRows(next, gas.getWidth(), height, words, start, Math.min(height, start + bandRows));
+        });
+    }
+
+    /**
+     * Collides the particles of a range of rows into the scratch planes.
+     *
+     * @param current the current planes
+     * @param solid   the solid plane
+     * @param words   the number of words per row
+     * @param start   the first row, inclusive
+     * @param end     the last row, exclusive
+     */
+    private void collideRows(long[][] current, long[] solid, int words, int start, int end) {
+        long[][] collided = this.collided;
+        boolean hexagonal = model == Model.FHP;
+        for (int i = start * words, last = end * words; i < last; i++) {
+            collide(current, i, collided, i, hexagonal ? chirality(i) : 0, solid[i]);
+        }
+    }
+
+    /**
+     * Collides the particles of 64 cells.
+     *
+     * @param in        the planes to read
+     * @param i         the index of the word to read
+     * @param out       the planes to write
+     * @param o         the index of the word to write
+     * @param chirality the side of pair collisions by cell, set to turn left
+     * @param solid     the obstacle cells, whose particles bounce back instead
+     */
+    private void collide(long[][] in, int i, long[][] out, int o, long chirality, long solid) {
+        long fluid = ~solid;
+        if (model == Model.HPP) {
+            long e = in[0][i];
+            long n = in[1][i];
+            long w = in[2][i];
+            long s = in[3][i];
+            long turn = e & w & ~(n | s) | n & s & ~(e | w);
+            out[0][o] = (e ^ turn) & fluid | w & solid;
+            out[1][o] = (n ^ turn) & fluid | s & solid;
+            out[2][o] = (w ^ turn) & fluid | e & solid;
+            out[3][o] = (s ^ turn) & fluid | n & solid;
+            return;
+        }
+        long a0 = in[0][i];
+        long a1 = in[1][i];
+        long a2 = in[2][i];
+        long a3 = in[3][i];
+        long a4 = in[4][i];
+        long a5 = in[5][i];
+        long triple = a0 & a2 & a4 & ~(a1 | a3 | a5) | a1 & a3 & a5 & ~(a0 | a2 | a4);
+        long pair0 = a0 & a3 & ~(a1 | a2 | a4 | a5);
+        long pair1 = a1 & a4 & ~(a0 | a2 | a3 | a5);
+        long pair2 = a2 & a5 & ~(a0 | a1 | a3 | a4);
+        long keep = ~(pair0 | pair1 | pair2);
+        long axis0 = chirality & pair2 | ~chirality & pair1;
+        long axis1 = chirality & pair0 | ~chirality & pair2;
+        long axis2 = chirality & pair1 | ~chirality & pair0;
+        out[0][o] = ((a0 & keep | axis0) ^ triple) & fluid | a3 & solid;
+        out[1][o] = ((a1 & keep | axis1) ^ triple) & fluid | a4 & solid;
+        out[2][o] = ((a2 & keep | axis2) ^ triple) & fluid | a5 & solid;
+        out[3][o] = ((a3 & keep | axis0) ^ triple) & fluid | a0 & solid;
+        out[4][o] = ((a4 & keep | axis1) ^ triple) & fluid | a1 & solid;
+        out[5][o] = ((a5 & keep | axis2) ^ triple) & fluid | a2 & solid;
+    }
+
+    /**
+     * Propagates the collided particles into a range of rows of the next planes.
+     *
+     * @param next   the next planes
+     * @param width  the number of columns
+     * @param height the number of rows
+     * @param words  the number of words per row
+     * @param start  the first row, inclusive
+     * @param end    the last row, exclusive
+     */
+    private void propagateRows(long[][] next, int width, int height, int words, int start, int end) {
+        long[][] collided = this.collided;
+        long mask = (width & 63) == 0 ? -1L : (1L << (width & 63)) - 1;
+        int lastBit = (width - 1) & 63;
+        for (int y = start; y < end; y++) {
+            int row = y * words;
+            for (int d = 0; d < collided.length; d++) {
+                long[] source = collided[d];
+                long[] target = next[d];
+                int sy = y + model.sourceRows[d];
+                sy = sy < 0 ? sy + height : sy >= height ? sy - height : sy;
+                int from = sy * words;
+                int shift = (sy & 1) == 0 ? model.evenShifts[d] : model.oddShifts[d];
+                if (shift == 0) {
+                    System.arraycopy(source, from, target, row, words);
+                } else if (shift > 0) {
+                    for (int w = 0; w < words; w++) {
+                        target[row + w] = source[from + w] << 1 | (w > 0 ? source[from + w - 1] >>> 63 : 0);
+                    }
+                    target[row + words - 1] &= mask;
+                    target[row] |= source[from + words - 1] >>> lastBit & 1;
+                } else {
+                    for (int w = 0; w < words; w++) {
+                        target[row + w] = source[from + w] >>> 1 | (w + 1 < words ? source[from + w + 1] << 63 : 0);
+                    }
+                    target[row + words - 1] |= (source[from] & 1) << lastBit;
+                }
+            }
+        }
+    }
+
+    /**
+     * Draws the side of the pair collisions of 64 cells from the seed and the word index, so that the draw does not
+     * depend on the order in which words are computed.
+     *
+     * @param i the index of the word in the planes
+     * @return a random word, with bits set for the cells whose pairs turn left
+     */
+    private long chirality(int i) {
+        long z = seed + (i + 1L) * 0x9E3779B97F4A7C15L;
+        z = (z ^ z >>> 30) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ z >>> 27) * 0x94D049BB133111EBL;
+        return z ^ z >>> 31;
+    }
+
+    /**
+     * Checks that a grid is a lattice-gas grid the model can run on.
+     *
+     * @param grid the grid
+     * @return the grid as a {@link LatticeGasGrid}
+     * @throws IllegalArgumentException if the grid is not a {@link LatticeGasGrid}, has a different number of
+     *                                  directions, or has an odd height on the hexagonal lattice
+     */
+    private LatticeGasGrid checkGrid(Grid<LatticeGasCell, LatticeGasState> grid) {
+        if (!(grid instanceof LatticeGasGrid gas)) {
+            throw new IllegalArgumentException("Lattice-gas rules need a LatticeGasGrid");
+        }
+        if (gas.getDirectionCount() != model.getDirectionCount()) {
+            throw new IllegalArgumentException("Grid has " + gas.getDirectionCount() + " directions, model " + model
+                    + " has " + model.getDirectionCount());
+        }
+        if (model == Model.FHP && gas.getHeight() % 2 != 0) {
+            throw new IllegalArgumentException("FHP grids must have an even height: " + gas.getHeight());
+        }
+        return gas;
+    }
+
+    /**
+     * Returns the number of rows per band for a grid height.
+     *
+     * @param height the number of rows
+     * @return the band height
+     */
+    private int bandRows(int height) {
+        if (!parallel) {
+            return height;
+        }
+        int target = ForkJoinPool.getCommonPoolParallelism() * 4;
+        return Math.max(MIN_BAND_ROWS, (height + target - 1) / target);
+    }
+
+    /**
+     * Returns whether the rule is deterministic: HPP collisions depend on the grid alone, while FHP draws the side of
+     * pair collisions from a seed that changes every generation.
+     *
+     * @return true for the HPP model, false for the FHP model
+     */
+    @Override
+    public boolean isDeterministic() {
+        return model == Model.HPP;
+    }
+
+    /**
+     * Sets whether bands of rows are computed in parallel on the common fork-join pool. Results are identical either
+     * way.
+     *
+     * @param parallel true to compute in parallel
+     */
+    public void setParallel(boolean parallel) {
+        this.parallel = parallel;
+    }
+
+    /**
+     * Returns the model.
+     *
+     * @return the lattice-gas model
+     */
+    public Model getModel() {
+        return model;
+    }
+}
@@ -0,0 +1,121 @@
+package com.dungeoncode.cae.core.impl.lattice;
+
+import com.dungeoncode.cae.core.CellState;
+
+/**
+ * The state of a cell of a {@link LatticeGasGrid}: one bit per direction of motion, set if a particle moving in that
+ * direction occupies the cell, and a {@link #SOLID} bit for cells that belong to an obstacle. Directions are numbered
+ * by the rule, see {@link LatticeGasRule.Model}.
+ * <p>
+ * States are immutable flyweights obtained with {@link #of(int)}, so reading a state allocates nothing and states
+ * can be compared by identity.
+ */
+public final class LatticeGasState implements CellState<Integer> {
+
+    /**
+     * The largest number of directions of motion.
+     */
+    public static final int MAX_DIRECTIONS = 6;
+
+    /**
+     * The bit of cells that belong to an obstacle.
+     */
+    public static final int SOLID = 1 << MAX_DIRECTIONS;
+
+    /**
+     * The flyweight of every state.
+     */
+    private static final LatticeGasState[] STATES = new LatticeGasState[SOLID << 1];
+
+    static {
+        for (int i = 0; i < STATES.length; i++) {
+            STATES[i] = new LatticeGasState(i);
+        }
+    }
+
+    /**
+     * The direction bits and the solid bit.
+     */
+    private final int bits;
+
+    /**
+     * Constructs a state.
+     *
+     * @param bits the direction bits and the solid bit
+     */
+    private LatticeGasState(int bits) {
+        this.bits = bits;
+    }
+
+    /**
+     * Returns the state with the given bits.
+     *
+     * @param bits the direction bits, with {@link #SOLID} for an obstacle cell
+     * @return the shared state instance
+     * @throws IllegalArgumentException if a bit is set beyond {@link #SOLID}
+     */
+    public static LatticeGasState of(int bits) {
+        if (bits < 0 || bits >= STATES.length) {
+            throw new IllegalArgumentException("State bits must be between 0 and " + (STATES.length - 1) + ": "
+                    + bits);
+        }
+        return STATES[bits];
+    }
+
+    /**
+     * Returns the direction bits and the solid bit.
+     *
+     * @return the bits
+     */
+    @Override
+    public Integer getValue() {
+        return bits;
+    }
+
+    /**
+     * Returns the direction bits and the solid bit without boxing.
+     *
+     * @return the bits
+     */
+    public int intValue() {
+        return bits;
+    }
+
+    /**
+     * Returns whether a particle moving in a direction occupies the cell.
+     *
+     * @param direction the direction, between 0 and {@link #MAX_DIRECTIONS} - 1
+     * @return true if the direction bit is set
+     */
+    public boolean has(int direction) {
+        return (bits >>> direction & 1) != 0;
+    }
+
+    /**
+     * Returns the number of particles in the cell.
+     *
+     * @return the number of direction bits set
+     */
+    public int getParticleCount() {
+        return Integer.bitCount(bits & (SOLID - 1));
+    }
+
+    /**
+     * Returns whether the cell belongs to an obstacle.
+     *
+     * @return true if the solid bit is set
+     */
+    public boolean isSolid() {
+        return (bits & SOLID) != 0;
+    }
+
+    /**
+     * Returns the bits as a string.
+     *
+     * @return the string representation
+     */
+    @Override
+    public String toString() {
+        return Integer.toBinaryString(bits);
+    }
+}
@@ -0,0 +1,86 @@
+package com.dungeoncode.cae.core.impl.multi;
+
+import com.dungeoncode.cae.core.CellState;
+
+/**
+ * The state of a cell of a {@link MultiStateGrid}: a small integer between 0 and {@link #MAX_STATES} - 1 whose
+ * meaning is defined by the rule, such as the dying states of a Generations rule or the wire states of Wireworld.
+ * <p>
+ * States are immutable flyweights obtained with {@link #of(int)}, so reading a state allocates nothing and states
+ * can be compared by identity.
+ */
+public final class MultiState implements CellState<Integer> {
+
+    /**
+     * The number of distinct states, limited by the byte per cell of {@link MultiStateGrid}.
+     */
+    public static final int MAX_STATES = 256;
+
+    /**
+     * The flyweight of every state.
+     */
+    private static final MultiState[] STATES = new MultiState[MAX_STATES];
+
+    static {
+        for (int i = 0; i < MAX_STATES; i++) {
+            STATES[i] = new MultiState(i);
+        }
+    }
+
+    /**
+     * The state number.
+     */
+    private final int value;
+
+    /**
+     * Constructs a state.
+     *
+     * @param value the state number
+     */
+    private MultiState(int value) {
+        this.value = value;
+    }
+
+    /**
+     * Returns the state with the given number.
+     *
+     * @param value the state number, between 0 and {@link #MAX_STATES} - 1
+     * @return the shared state instance
+     * @throws IllegalArgumentException if the number is out of range
+     */
+    public static MultiState of(int value) {
+        if (value < 0 || value >= MAX_STATES) {
+            throw new IllegalArgumentException("State must be between 0 and " + (MAX_STATES - 1) + ": " + value);
+        }
+        return STATES[value];
+    }
+
+    /**
+     * Returns the state number.
+     *
+     * @return the state number
+     */
+    @Override
+    public Integer getValue() {
+        return value;
+    }
+
+    /**
+     * Returns the state number without boxing.
+     *
+     * @return the state number
+     */
+    public int intValue() {
+        return value;
+    }
+
+    /**
+     * Returns the state number as a string.
+     *
+     * @return the string representation
+     */
+    @Override
+    public String toString() {
+        return Integer.toString(value);
+    }
+}
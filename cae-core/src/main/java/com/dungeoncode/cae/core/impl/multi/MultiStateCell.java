@@ -0,0 +1,72 @@
+package com.dungeoncode.cae.core.impl.multi;
+
+import com.dungeoncode.cae.core.AbstractCell;
+
+import javax.annotation.Nonnull;
+import java.util.Objects;
+
+/**
+ * A view of one cell of a {@link MultiStateGrid}. The view holds no state of its own: its state is read from and
+ * written to the current-state plane of the grid at the bound coordinates. Views are cheap, short-lived objects
+ * created on access.
+ */
+public final class MultiStateCell extends AbstractCell<MultiState> {
+
+    /**
+     * The grid holding the state.
+     */
+    private final MultiStateGrid grid;
+
+    /**
+     * The index of the cell in the planes of the grid.
+     */
+    private final int index;
+
+    /**
+     * Constructs a view of the cell at the given coordinates.
+     *
+     * @param grid the grid holding the state
+     * @param x    the column
+     * @param y    the row
+     */
+    MultiStateCell(MultiStateGrid grid, int x, int y) {
+        super(x, y);
+        this.grid = grid;
+        this.index = y * grid.getWidth() + x;
+    }
+
+    /**
+     * Returns the current state of the cell.
+     *
+     * @return the state
+     */
+    @Override
+    public MultiState getState() {
+        return MultiState.of(grid.getPlane()[index] & 0xFF);
+    }
+
+    /**
+     * Stores a state in the grid.
+     *
+     * @param state the state, must not be null
+     * @throws NullPointerException     if state is null
+     * @throws IllegalArgumentException if the state is not below the state count of the grid
+     */
+    @Override
+    public void setState(@Nonnull MultiState state) {
+        Objects.requireNonNull(state, "State cannot be null");
+        grid.set(getPosition().getX(), getPosition().getY(), state.intValue());
+    }
+
+    /**
+     * Stores a state in the grid; states are immutable, so this is the same as {@link #setState(MultiState)}.
+     *
+     * @param state the state, must not be null
+     * @throws NullPointerException     if state is null
+     * @throws IllegalArgumentException if the state is not below the state count of the grid
+     */
+    @Override
+    public void copyState(@Nonnull MultiState state) {
+        setState(state);
+    }
+}
@@ -0,0 +1,284 @@
+package com.dungeoncode.cae.core.impl.multi;
+
+import com.dungeoncode.cae.core.Grid;
+import com.dungeoncode.cae.core.GridInitializer;
+import com.dungeoncode.cae.core.StatisticsCollector;
+
+import java.util.function.ToLongFunction;
+
+/**
+ * A {@link Grid} of cells with up to {@link MultiState#MAX_STATES} states, stored as one byte per cell in two heap
+ * planes, current and next, instead of one object per cell. A 4096 x 4096 grid takes 32 MB.
+ * <p>
+ * The planes are row-major: the state of cell (x, y) is the unsigned byte at index {@code y * width + x}. Rules that
+ * implement {@link com.dungeoncode.cae.core.GridRule} read {@link #getPlane()} and write {@link #getNextPlane()}
+ * directly; other rules write next states with {@link #setNext(int, int, int)}. Committing swaps the planes instead
+ * of copying them, so every rule must write the next state of every cell.
+ * <p>
+ * {@link #getCell(int, int)} returns a lightweight view for initializers, renderers, and per-cell rules.
+ */
+public class MultiStateGrid extends Grid<MultiStateCell, MultiState> {
+
+    /**
+     * The number of states a cell can take.
+     */
+    private final int states;
+
+    /**
+     * The plane of the current states.
+     */
+    private byte[] current;
+
+    /**
+     * The plane of the next states.
+     */
+    private byte[] next;
+
+    /**
+     * Constructs a grid with every cell in state 0, then runs the initializer.
+     *
+     * @param width       the number of columns (x-axis), must be positive
+     * @param height      the number of rows (y-axis), must be positive
+     * @param states      the number of states a cell can take, between 2 and {@link MultiState#MAX_STATES}
+     * @param initializer the {@link GridInitializer} to populate the grid, or null to leave every cell in state 0
+     * @throws IllegalArgumentException if width or height is not positive, the state count is out of range, or the
+     *                                  grid has more than {@link Integer#MAX_VALUE} cells
+     */
+    public MultiStateGrid(int width, int height, int states, GridInitializer<MultiStateCell, MultiState> initializer) {
+        super(width, height, initializer, false);
+        if (states < 2 || states > MultiState.MAX_STATES) {
+            throw new IllegalArgumentException("States must be between 2 and " + MultiState.MAX_STATES + ": " + states);
+        }
+        if ((long) width * height > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Grid too large: width=" + width + ", height=" + height);
+        }
+        this.states = states;
+        this.current = new byte[width * height];
+        this.next = new byte[width * height];
+        initialize();
+    }
+
+    /**
+     * Returns a view of the cell at the specified coordinates. The view is created on each call and reads and writes
+     * the current-state plane.
+     *
+     * @param x the x-coordinate (column), zero-based
+     * @param y the y-coordinate (row), zero-based
+     * @return a view of the cell at (x, y)
+     * @throws IllegalArgumentException if the coordinates are out of bounds
+     */
+    @Override
+    public MultiStateCell getCell(int x, int y) {
+        checkBounds(x, y);
+        return new MultiStateCell(this, x, y);
+    }
+
+    /**
+     * Stores the state of the specified cell in the current-state plane at the given coordinates.
+     *
+     * @param x    the x-coordinate (column), zero-based
+     * @param y    the y-coordinate (row), zero-based
+     * @param cell the cell whose state to store, must not be null
+     * @throws IllegalArgumentException if the coordinates are out of bounds or the state is not below the state count
+     */
+    @Override
+    public void setCell(int x, int y, MultiStateCell cell) {
+        set(x, y, cell.getState().intValue());
+    }
+
+    /**
+     * Returns the current state of a cell.
+     *
+     * @param x the x-coordinate (column), zero-based
+     * @param y the y-coordinate (row), zero-based
+     * @return the state number
+     * @throws IllegalArgumentException if the coordinates are out of bounds
+     */
+    public int get(int x, int y) {
+        checkBounds(x, y);
+        return current[y * getWidth() + x] & 0xFF;
+    }
+
+    /**
+     * Sets the current state of a cell.
+     *
+     * @param x     the x-coordinate (column), zero-based
+     * @param y     the y-coordinate (row), zero-based
+     * @param state the state number, below the state count
+     * @throws IllegalArgumentException if the coordinates are out of bounds or the state is out of range
+     */
+    public void set(int x, int y, int state) {
+        checkBounds(x, y);
+        checkState(state);
+        current[y * getWidth() + x] = (byte) state;
+    }
+
+    /**
+     * Sets the next state of a cell.
+     *
+     * @param x     the x-coordinate (column), zero-based
+     * @param y     the y-coordinate (row), zero-based
+     * @param state the state number, below the state count
+     * @throws IllegalArgumentException if the coordinates are out of bounds or the state is out of range
+     */
+    public void setNext(int x, int y, int state) {
+        checkBounds(x, y);
+        checkState(state);
+        next[y * getWidth() + x] = (byte) state;
+    }
+
+    /**
+     * Returns the next state of the cell at the specified coordinates.
+     *
+     * @param x the x-coordinate (column), zero-based
+     * @param y the y-coordinate (row), zero-based
+     * @return the next state at (x, y)
+     * @throws IllegalArgumentException if the coordinates are out of bounds
+     */
+    @Override
+    public MultiState getNextState(int x, int y) {
+        checkBounds(x, y);
+        return MultiState.of(next[y * getWidth() + x] & 0xFF);
+    }
+
+    /**
+     * Copies the next state of a single cell to the cell.
+     *
+     * @param x the x-coordinate (column), zero-based
+     * @param y the y-coordinate (row), zero-based
+     * @throws IllegalArgumentException if the coordinates are out of bounds
+     */
+    @Override
+    public void copyCellState(int x, int y) {
+        checkBounds(x, y);
+        int i = y * getWidth() + x;
+        current[i] = next[i];
+    }
+
+    /**
+     * Makes the next states current by swapping the planes. If the grid hash is maintained or changes are tracked,
+     * only cells whose state differs are re-encoded. A collector receives the shared {@link MultiState} of every
+     * cell, so committing allocates nothing.
+     *
+     * @param collector the collector to feed, or null to only commit
+     */
+    @Override
+    public void commitNextStates(StatisticsCollector<? super MultiState> collector) {
+        ToLongFunction<? super MultiState> hashEncoder = getStateEncoder();
+        ToLongFunction<? super MultiState> changeEncoder = getChangeEncoder();
+        int width = getWidth();
+        if (hashEncoder != null || changeEncoder != null) {
+            for (int i = 0; i < current.length; i++) {
+                if (current[i] == next[i]) {
+                    continue;
+                }
+                MultiState before = MultiState.of(current[i] & 0xFF);
+                MultiState after = MultiState.of(next[i] & 0xFF);
+                if (hashEncoder != null) {
+                    long hashBefore = hashEncoder.applyAsLong(before);
+                    long hashAfter = hashEncoder.applyAsLong(after);
+                    if (hashBefore != hashAfter) {
+                        updateHash(i, hashBefore, hashAfter);
+                    }
+                }
+                if (changeEncoder != null && changeEncoder.applyAsLong(before) != changeEncoder.applyAsLong(after)) {
+                    markChanged(i % width, i / width);
+                }
+            }
+        }
+        if (collector != null) {
+            collector.begin(width, getHeight());
+            for (byte state : next) {
+                collector.accept(MultiState.of(state & 0xFF));
+            }
+        }
+        byte[] swap = current;
+        current = next;
+        next = swap;
+    }
+
+    /**
+     * Returns false: next states are stored in a byte plane, see {@link #getNextState(int, int)}.
+     *
+     * @return false
+     */
+    @Override
+    public boolean supportsNextStateArray() {
+        return false;
+    }
+
+    /**
+     * Not supported: next states are stored in a byte plane, see {@link #getNextState(int, int)}.
+     *
+     * @return never
+     * @throws UnsupportedOperationException always
+     */
+    @Override
+    public MultiState[][] getNextStates() {
+        throw new UnsupportedOperationException("Multi-state grids store next states in a plane; use getNextState");
+    }
+
+    /**
+     * Not supported: next states are stored in a byte plane.
+     *
+     * @param nextStates ignored
+     * @throws UnsupportedOperationException always
+     */
+    @Override
+    public void setNextStates(MultiState[][] nextStates) {
+        throw new UnsupportedOperationException("Multi-state grids store next states in a plane");
+    }
+
+    /**
+     * Returns the plane of the current states. The array is replaced by the next-state plane on every commit, so
+     * callers should not keep it across steps.
+     *
+     * @return the current states, row by row, one unsigned byte per cell
+     */
+    public byte[] getPlane() {
+        return current;
+    }
+
+    /**
+     * Returns the plane of the next states, for rules that write the whole grid.
+     *
+     * @return the next states, row by row, one unsigned byte per cell
+     */
+    public byte[] getNextPlane() {
+        return next;
+    }
+
+    /**
+     * Returns the number of states a cell can take.
+     *
+     * @return the state count
+     */
+    public int getStateCount() {
+        return states;
+    }
+
+    /**
+     * Validates cell coordinates.
+     *
+     * @param x the column
+     * @param y the row
+     * @throws IllegalArgumentException if the coordinates are out of bounds
+     */
+    private void checkBounds(int x, int y) {
+        if (x < 0 || x >= getWidth() || y < 0 || y >= getHeight()) {
+            throw new IllegalArgumentException("Coordinates out of bounds: (" + x + ", " + y + ")");
+        }
+    }
+
+    /**
+     * Validates a state number.
+     *
+     * @param state the state number
+     * @throws IllegalArgumentException if the state is not below the state count
+     */
+    private void checkState(int state) {
+        if (state < 0 || state >= states) {
+            throw new IllegalArgumentException("State must be between 0 and " + (states - 1) + ": " + state);
+        }
+    }
+}
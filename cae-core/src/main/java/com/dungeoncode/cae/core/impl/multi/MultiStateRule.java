@@ -0,0 +1,466 @@
+package com.dungeoncode.cae.core.impl.multi;
+
+import com.dungeoncode.cae.core.AbstractRule;
+import com.dungeoncode.cae.core.Grid;
+import com.dungeoncode.cae.core.GridRule;
+
+import javax.annotation.Nonnull;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+/**
+ * A table-driven rule for {@link MultiStateGrid}s in which the next state of a cell depends on its own state and on
+ * how many of its neighbors are in the states that state responds to. Generations rules such as Brian's Brain,
+ * cyclic cellular automata, Greenberg-Hastings excitable media, and Wireworld are all of this form and are available
+ * through the factory methods.
+ * <p>
+ * The rule is defined by two tables: whether a neighbor in state {@code n} counts for a cell in state {@code s}, and
+ * the next state of a cell in state {@code s} with {@code k} counted neighbors. A step is then one table lookup per
+ * neighbor and one per cell, with no branches on the state and no allocation. The grid wraps around at its edges
+ * (toroidal topology), and rows are computed in parallel bands on the common fork-join pool unless disabled with
+ * {@link #setParallel(boolean)}; results are identical either way.
+ */
+public class MultiStateRule extends AbstractRule<MultiStateCell, MultiState>
+        implements GridRule<MultiStateCell, MultiState> {
+
+    /**
+     * The neighborhoods whose cells are counted.
+     */
+    public enum Neighborhood {
+        /**
+         * The four orthogonal neighbors.
+         */
+        VON_NEUMANN(4),
+        /**
+         * The eight orthogonal and diagonal neighbors.
+         */
+        MOORE(8);
+
+        /**
+         * The number of neighbors.
+         */
+        private final int size;
+
+        /**
+         * Constructs a neighborhood.
+         *
+         * @param size the number of neighbors
+         */
+        Neighborhood(int size) {
+            this.size = size;
+        }
+
+        /**
+         * Returns the number of neighbors.
+         *
+         * @return the neighborhood size
+         */
+        public int getSize() {
+            return size;
+        }
+    }
+
+    /**
+     * The minimum number of rows of a band.
+     */
+    private static final int MIN_BAND_ROWS = 16;
+
+    /**
+     * The number of states.
+     */
+    private final int states;
+
+    /**
+     * The neighborhood whose cells are counted.
+     */
+    private final Neighborhood neighborhood;
+
+    /**
+     * 1 at index {@code s * 256 + n} if a neighbor in state {@code n} counts for a cell in state {@code s}, else 0.
+     */
+    private final byte[] counted;
+
+    /**
+     * The next state of a cell in state {@code s} with {@code k} counted neighbors, at index {@code s * stride + k}.
+     */
+    private final byte[] transitions;
+
+    /**
+     * The number of entries of the transition table per state, the neighborhood size plus one.
+     */
+    private final int stride;
+
+    /**
+     * Whether bands are computed in parallel.
+     */
+    private boolean parallel = true;
+
+    /**
+     * Constructs a rule from its tables.
+     *
+     * @param id           the rule id
+     * @param states       the number of states, between 2 and {@link MultiState#MAX_STATES}
+     * @param neighborhood the neighborhood whose cells are counted, must not be null
+     * @param counted      {@code counted[s][n]} is true if a neighbor in state {@code n} counts for a cell in state
+     *                     {@code s}; a {@code states x states} matrix, must not be null
+     * @param transitions  {@code transitions[s][k]} is the next state of a cell in state {@code s} with {@code k}
+     *                     counted neighbors; a {@code states x (neighborhood size + 1)} matrix, must not be null
+     * @throws NullPointerException     if neighborhood, counted, or transitions is null
+     * @throws IllegalArgumentException if the state count is out of range, a table has the wrong shape, or a
+     *                                  transition leads to a state out of range
+     */
+    public MultiStateRule(int id, int states, @Nonnull Neighborhood neighborhood, @Nonnull boolean[][] counted,
+                          @Nonnull int[][] transitions) {
+        super(id);
+        Objects.requireNonNull(neighborhood, "Neighborhood cannot be null");
+        Objects.requireNonNull(counted, "Counted states cannot be null");
+        Objects.requireNonNull(transitions, "Transitions cannot be null");
+        checkStates(states);
+        this.states = states;
+        this.neighborhood = neighborhood;
+        this.stride = neighborhood.getSize() + 1;
+        if (counted.length != states || transitions.length != states) {
+            throw new IllegalArgumentException("Tables must have a row per state: states=" + states);
+        }
+        this.counted = new byte[states * MultiState.MAX_STATES];
+        this.transitions = new byte[states * stride];
+        for (int s = 0; s < states; s++) {
+            if (counted[s].length != states) {
+                throw new IllegalArgumentException("Counted states of state " + s + " must have " + states
+                        + " entries");
+            }
+            if (transitions[s].length != stride) {
+                throw new IllegalArgumentException("Transitions of state " + s + " must have " + stride + " entries");
+            }
+            for (int n = 0; n < states; n++) {
+                this.counted[s * MultiState.MAX_STATES + n] = (byte) (counted[s][n] ? 1 : 0);
+            }
+            for (int k = 0; k < stride; k++) {
+                int target = transitions[s][k];
+                if (target < 0 || target >= states) {
+                    throw new IllegalArgumentException("Transition of state " + s + " with " + k
+                            + " neighbors leads to state " + target + " out of range");
+                }
+                this.transitions[s * stride + k] = (byte) target;
+            }
+        }
+    }
+
+    /**
+     * Creates a Generations rule from a string such as {@code "B2/S/C3"} (Brian's Brain) or {@code "B3/S23/C8"}.
+     * State 0 is dead, 1 is alive, and 2 to C - 1 are dying: a dead cell is born with a birth count of live Moore
+     * neighbors, a live cell survives with a survival count and otherwise starts dying, and a dying cell ages one
+     * state per step until it is dead. Only live cells are counted.
+     *
+     * @param id   the rule id
+     * @param rule the rule string, {@code B<digits>/S<digits>/C<states>}, case-insensitive, must not be null
+     * @return the rule
+     * @throws NullPointerException     if rule is null
+     * @throws IllegalArgumentException if the rule string is malformed or has fewer than 2 or more than
+     *                                  {@link MultiState#MAX_STATES} states
+     */
+    public static MultiStateRule generations(int id, @Nonnull String rule) {
+        Objects.requireNonNull(rule, "Rule cannot be null");
+        String[] parts = rule.trim().toUpperCase(Locale.ROOT).split("/");
+        if (parts.length != 3 || !parts[0].matches("B[0-8]*") || !parts[1].matches("S[0-8]*")
+                || !parts[2].matches("C\\d{1,3}")) {
+            throw new IllegalArgumentException("Generations rule must look like B2/S/C3: " + rule);
+        }
+        int states = Integer.parseInt(parts[2].substring(1));
+        checkStates(states);
+        boolean[][] counted = new boolean[states][states];
+        int[][] transitions = new int[states][9];
+        for (int s = 0; s < states; s++) {
+            counted[s][1] = true;
+            for (int k = 0; k <= 8; k++) {
+                char digit = (char) ('0' + k);
+                if (s == 0) {
+                    transitions[s][k] = parts[0].indexOf(digit) > 0 ? 1 : 0;
+                } else if (s == 1) {
+                    transitions[s][k] = parts[1].indexOf(digit) > 0 ? 1 : 2 % states;
+                } else {
+                    transitions[s][k] = (s + 1) % states;
+                }
+            }
+        }
+        return new MultiStateRule(id, states, Neighborhood.MOORE, counted, transitions);
+    }
+
+    /**
+     * Creates Brian's Brain, the Generations rule {@code B2/S/C3}: a cell fires when exactly two neighbors fire,
+     * then is refractory for one step.
+     *
+     * @param id the rule id
+     * @return the rule
+     */
+    public static MultiStateRule briansBrain(int id) {
+        return generations(id, "B2/S/C3");
+    }
+
+    /**
+     * Creates a cyclic cellular automaton: a cell in state {@code s} advances to {@code (s + 1) % states} when at
+     * least {@code threshold} neighbors are in that successor state, so that random soups organize into spiral
+     * waves.
+     *
+     * @param id           the rule id
+     * @param states       the number of states, between 2 and {@link MultiState#MAX_STATES}
+     * @param threshold    the number of successor neighbors needed to advance, between 1 and the neighborhood size
+     * @param neighborhood the neighborhood, must not be null
+     * @return the rule
+     * @throws NullPointerException     if neighborhood is null
+     * @throws IllegalArgumentException if the state count or threshold is out of range
+     */
+    public static MultiStateRule cyclic(int id, int states, int threshold, @Nonnull Neighborhood neighborhood) {
+        Objects.requireNonNull(neighborhood, "Neighborhood cannot be null");
+        checkStates(states);
+        checkThreshold(threshold, neighborhood);
+        boolean[][] counted = new boolean[states][states];
+        int[][] transitions = new int[states][neighborhood.getSize() + 1];
+        for (int s = 0; s < states; s++) {
+            counted[s][(s + 1) % states] = true;
+            for (int k = 0; k <= neighborhood.getSize(); k++) {
+                transitions[s][k] = k >= threshold ? (s + 1) % states : s;
+            }
+        }
+        return new MultiStateRule(id, states, neighborhood, counted, transitions);
+    }
+
+    /**
+     * Creates a Greenberg-Hastings excitable medium: state 0 is resting, 1 is excited, and 2 to {@code states - 1}
+     * are refractory. A resting cell becomes excited when at least {@code threshold} neighbors are excited; excited
+     * and refractory cells advance one state per step and return to rest.
+     *
+     * @param id           the rule id
+     * @param states       the number of states, between 3 and {@link MultiState#MAX_STATES}
+     * @param threshold    the number of excited neighbors that excite a resting cell, between 1 and the neighborhood
+     *                     size
+     * @param neighborhood the neighborhood, must not be null
+     * @return the rule
+     * @throws NullPointerException     if neighborhood is null
+     * @throws IllegalArgumentException if the state count or threshold is out of range
+     */
+    public static MultiStateRule greenbergHastings(int id, int states, int threshold,
+                                                   @Nonnull Neighborhood neighborhood) {
+        Objects.requireNonNull(neighborhood, "Neighborhood cannot be null");
+        checkThreshold(threshold, neighborhood);
+        if (states < 3 || states > MultiState.MAX_STATES) {
+            throw new IllegalArgumentException("States must be between 3 and " + MultiState.MAX_STATES + ": " + states);
+        }
+        boolean[][] counted = new boolean[states][states];
+        counted[0][1] = true;
+        int[][] transitions = new int[states][neighborhood.getSize() + 1];
+        for (int s = 0; s < states; s++) {
+            for (int k = 0; k <= neighborhood.getSize(); k++) {
+                transitions[s][k] = s == 0 ? (k >= threshold ? 1 : 0) : (s + 1) % states;
+            }
+        }
+        return new MultiStateRule(id, states, neighborhood, counted, transitions);
+    }
+
+    /**
+     * Creates Wireworld: state 0 is empty, 1 an electron head, 2 an electron tail, and 3 a conductor. Heads become
+     * tails, tails become conductors, and a conductor becomes a head when one or two of its Moore neighbors are
+     * heads.
+     *
+     * @param id the rule id
+     * @return the rule
+     */
+    public static MultiStateRule wireworld(int id) {
+        boolean[][] counted = new boolean[4][4];
+        counted[3][1] = true;
+        int[][] transitions = new int[4][9];
+        for (int k = 0; k <= 8; k++) {
+            transitions[0][k] = 0;
+            transitions[1][k] = 2;
+            transitions[2][k] = 3;
+            transitions[3][k] = k == 1 || k == 2 ? 1 : 3;
+        }
+        return new MultiStateRule(id, 4, Neighborhood.MOORE, counted, transitions);
+    }
+
+    /**
+     * Validates a state count.
+     *
+     * @param states the number of states
+     * @throws IllegalArgumentException if the state count is out of range
+     */
+    private static void checkStates(int states) {
+        if (states < 2 || states > MultiState.MAX_STATES) {
+            throw new IllegalArgumentException("States must be between 2 and " + MultiState.MAX_STATES + ": " + states);
+        }
+    }
+
+    /**
+     * Validates the threshold of a threshold rule.
+     *
+     * @param threshold    the threshold
+     * @param neighborhood the neighborhood
+     * @throws IllegalArgumentException if the threshold is out of range
+     */
+    private static void checkThreshold(int threshold, Neighborhood neighborhood) {
+        if (threshold < 1 || threshold > neighborhood.getSize()) {
+            throw new IllegalArgumentException("Threshold must be between 1 and " + neighborhood.getSize() + ": "
+                    + threshold);
+        }
+    }
+
+    /**
+     * Computes the next state of a single cell and stores it in the next-state plane of the grid.
+     *
+     * @param grid the grid containing the cell, a {@link MultiStateGrid}
+     * @param cell the cell to evaluate
+     * @return the next state of the cell
+     * @throws IllegalArgumentException if the grid is not a compatible {@link MultiStateGrid}
+     */
+    @Override
+    public MultiState apply(Grid<MultiStateCell, MultiState> grid, MultiStateCell cell) {
+        MultiStateGrid multi = checkGrid(grid);
+        int x = cell.getPosition().getX();
+        int y = cell.getPosition().getY();
+        int width = multi.getWidth();
+        int height = multi.getHeight();
+        byte[] plane = multi.getPlane();
+        int s = plane[y * width + x] & 0xFF;
+        int base = s * MultiState.MAX_STATES;
+        int count = 0;
+        for (int dy = -1; dy <= 1; dy++) {
+            for (int dx = -1; dx <= 1; dx++) {
+                if (dx == 0 && dy == 0 || neighborhood == Neighborhood.VON_NEUMANN && dx != 0 && dy != 0) {
+                    continue;
+                }
+                int nx = (x + dx + width) % width;
+                int ny = (y + dy + height) % height;
+                count += counted[base + (plane[ny * width + nx] & 0xFF)];
+            }
+        }
+        int next = transitions[s * stride + count] & 0xFF;
+        multi.getNextPlane()[y * width + x] = (byte) next;
+        return MultiState.of(next);
+    }
+
+    /**
+     * Computes the next state of every cell into the next-state plane of the grid, in parallel bands of rows if
+     * enabled.
+     *
+     * @param grid the grid to evaluate, a {@link MultiStateGrid}
+     * @throws IllegalArgumentException if the grid is not a compatible {@link MultiStateGrid}
+     */
+    @Override
+    public void applyToGrid(Grid<MultiStateCell, MultiState> grid) {
+        MultiStateGrid multi = checkGrid(grid);
+        byte[] current = multi.getPlane();
+        byte[] next = multi.getNextPlane();
+        int width = multi.getWidth();
+        int height = multi.getHeight();
+        int bandRows = bandRows(height);
+        int bands = (height + bandRows - 1) / bandRows;
+        if (bands == 1) {
+            computeRows(current, next, width, height, 0, height);
+            return;
+        }
+        IntStream.range(0, bands).parallel().forEach(band -> {
+            int start = band * bandRows;
+            computeRows(current, next, width, height, start, Math.min(height, start + bandRows));
+        });
+    }
+
+    /**
+     * Computes the next states of a range of rows.
+     *
+     * @param current the current-state plane
+     * @param next    the next-state plane
+     * @param width   the number of columns
+     * @param height  the number of rows
+     * @param start   the first row, inclusive
+     * @param end     the last row, exclusive
+     */
+    private void computeRows(byte[] current, byte[] next, int width, int height, int start, int end) {
+        byte[] counted = this.counted;
+        byte[] transitions = this.transitions;
+        int stride = this.stride;
+        boolean moore = neighborhood == Neighborhood.MOORE;
+        for (int y = start; y < end; y++) {
+            int row = y * width;
+            int up = (y == 0 ? height - 1 : y - 1) * width;
+            int down = (y == height - 1 ? 0 : y + 1) * width;
+            for (int x = 0; x < width; x++) {
+                int left = x == 0 ? width - 1 : x - 1;
+                int right = x == width - 1 ? 0 : x + 1;
+                int s = current[row + x] & 0xFF;
+                int base = s << 8;
+                int count = counted[base + (current[up + x] & 0xFF)]
+                        + counted[base + (current[row + left] & 0xFF)]
+                        + counted[base + (current[row + right] & 0xFF)]
+                        + counted[base + (current[down + x] & 0xFF)];
+                if (moore) {
+                    count += counted[base + (current[up + left] & 0xFF)]
+                            + counted[base + (current[up + right] & 0xFF)]
+                            + counted[base + (current[down + left] & 0xFF)]
+                            + counted[base + (current[down + right] & 0xFF)];
+                }
+                next[row + x] = transitions[s * stride + count];
+            }
+        }
+    }
+
+    /**
+     * Checks that a grid is a multi-state grid whose states the tables cover.
+     *
+     * @param grid the grid
+     * @return the grid as a {@link MultiStateGrid}
+     * @throws IllegalArgumentException if the grid is not a compatible {@link MultiStateGrid}
+     */
+    private MultiStateGrid checkGrid(Grid<MultiStateCell, MultiState> grid) {
+        if (!(grid instanceof MultiStateGrid multi)) {
+            throw new IllegalArgumentException("Multi-state rules need a MultiStateGrid");
+        }
+        if (multi.getStateCount() > states) {
+            throw new IllegalArgumentException("Grid has " + multi.getStateCount() + " states, rule has " + states);
+        }
+        return multi;
+    }
+
+    /**
+     * Returns the number of rows per band for a grid height.
+     *
+     * @param height the number of rows
+     * @return the band height
+     */
+    private int bandRows(int height) {
+        if (!parallel) {
+            return height;
+        }
+        int target = ForkJoinPool.getCommonPoolParallelism() * 4;
+        return Math.max(MIN_BAND_ROWS, (height + target - 1) / target);
+    }
+
+    /**
+     * Sets whether bands of rows are computed in parallel on the common fork-join pool. Results are identical either
+     * way.
+     *
+     * @param parallel true to compute in parallel
+     */
+    public void setParallel(boolean parallel) {
+        this.parallel = parallel;
+    }
+
+    /**
+     * Returns the number of states.
+     *
+     * @return the state count
+     */
+    public int getStateCount() {
+        return states;
+    }
+
+    /**
+     * Returns the neighborhood whose cells are counted.
+     *
+     * @return the neighborhood
+     */
+    public Neighborhood getNeighborhood() {
+        return neighborhood;
+    }
+}
@@ -0,0 +1,272 @@
+package com.dungeoncode.cae.core.impl.packed;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Objects;
+
+/**
+ * A two-dimensional plane of per-cell data stored off-heap in direct {@link ByteBuffer}s, either one bit per cell
+ * (packed into 64-bit little-endian words) or one byte per cell.
+ * <p>
+ * Rows are padded to a stride that is a multiple of 64 bytes (a cache line), or of 4096 bytes (a page) once a row
+ * spans at least a page, so that a row never straddles more cache lines or pages than necessary. The plane is split
+ * into segments of whole rows, each below the 2 GB limit of a single buffer and starting on a page boundary, so
+ * planes of any size can be allocated. The memory is outside the Java heap and is not scanned by the garbage
+ * collector; its total size is bounded by {@code -XX:MaxDirectMemorySize}.
+ */
+public final class OffHeapPlane {
+
+    /**
+     * The page size used to align segments and page-sized rows.
+     */
+    static final int PAGE_SIZE = 4096;
+
+    /**
+     * The cache line size used to align rows shorter than a page.
+     */
+    static final int LINE_SIZE = 64;
+
+    /**
+     * The maximum number of bytes per segment.
+     */
+    private static final long MAX_SEGMENT_BYTES = 1L << 30;
+
+    /**
+     * Whether the plane stores one bit per cell (true) or one byte per cell (false).
+     */
+    private final boolean bits;
+
+    /**
+     * The number of rows of the plane.
+     */
+    private final int height;
+
+    /**
+     * The number of bytes between the starts of consecutive rows.
+     */
+    private final int rowStride;
+
+    /**
+     * The number of rows per segment, a power of two so that row-to-segment mapping is a shift.
+     */
+    private final int rowsPerSegmentShift;
+
+    /**
+     * The segments holding the rows, in order.
+     */
+    private final ByteBuffer[] segments;
+
+    /**
+     * Allocates a zero-filled plane.
+     *
+     * @param width  the number of cells per row, must be positive
+     * @param height the number of rows, must be positive
+     * @param bits   true for one bit per cell, false for one byte per cell
+     * @throws IllegalArgumentException if a dimension is not positive
+     */
+    OffHeapPlane(int width, int height, boolean bits) {
+        if (width <= 0 || height <= 0) {
+            throw new IllegalArgumentException("Width and height must be positive: width=" + width + ", height=" + height);
+        }
+        this.bits = bits;
+        this.height = height;
+        long rowBytes = bits ? (long) ((width + 63) >>> 6) * Long.BYTES : width;
+        int alignment = rowBytes >= PAGE_SIZE ? PAGE_SIZE : LINE_SIZE;
+        this.rowStride = Math.toIntExact((rowBytes + alignment - 1) / alignment * alignment);
+        int shift = 0;
+        while (shift < 30 && ((long) rowStride << (shift + 1)) <= MAX_SEGMENT_BYTES && (1 << shift) < height) {
+            shift++;
+        }
+        this.rowsPerSegmentShift = shift;
+        int rowsPerSegment = 1 << shift;
+        int segmentCount = (height + rowsPerSegment - 1) >>> shift;
+        this.segments = new ByteBuffer[segmentCount];
+        for (int i = 0; i < segmentCount; i++) {
+            int rows = Math.min(rowsPerSegment, height - (i << shift));
+            int size = rows * rowStride;
+            int pages = (size + PAGE_SIZE - 1) / PAGE_SIZE;
+            segments[i] = ByteBuffer.allocateDirect((pages + 1) * PAGE_SIZE).alignedSlice(PAGE_SIZE).limit(size)
+                    .slice().order(ByteOrder.LITTLE_ENDIAN);
+        }
+    }
+
+    /**
+     * Returns the segment holding a row.
+     *
+     * @param y the row
+     * @return the segment buffer
+     */
+    ByteBuffer segment(int y) {
+        return segments[y >>> rowsPerSegmentShift];
+    }
+
+    /**
+     * Returns the byte offset of a row within its segment.
+     *
+     * @param y the row
+     * @return the offset of the row's first byte
+     */
+    int rowOffset(int y) {
+        return (y & ((1 << rowsPerSegmentShift) - 1)) * rowStride;
+    }
+
+    /**
+     * Returns the bit of a cell in a bit plane.
+     *
+     * @param x the column
+     * @param y the row
+     * @return true if the bit is set
+     */
+    boolean getBit(int x, int y) {
+        return (segment(y).getLong(rowOffset(y) + ((x >>> 6) << 3)) & (1L << x)) != 0;
+    }
+
+    /**
+     * Sets or clears the bit of a cell in a bit plane.
+     *
+     * @param x     the column
+     * @param y     the row
+     * @param value the new bit
+     */
+    void setBit(int x, int y, boolean value) {
+        ByteBuffer segment = segment(y);
+        int offset = rowOffset(y) + ((x >>> 6) << 3);
+        long word = segment.getLong(offset);
+        segment.putLong(offset, value ? word | (1L << x) : word & ~(1L << x));
+    }
+
+    /**
+     * Returns a 64-bit word of a row in a bit plane, holding cells {@code 64 * w} to {@code 64 * w + 63}. On a byte
+     * plane the word holds the eight cells {@code 8 * w} to {@code 8 * w + 7}, one per byte, lowest cell first.
+     *
+     * @param w the word index within the row
+     * @param y the row
+     * @return the word
+     */
+    public long getWord(int w, int y) {
+        return segment(y).getLong(rowOffset(y) + (w << 3));
+    }
+
+    /**
+     * Replaces a 64-bit word of a row in a bit plane.
+     *
+     * @param w    the word index within the row
+     * @param y    the row
+     * @param word the new word
+     */
+    public void setWord(int w, int y, long word) {
+        segment(y).putLong(rowOffset(y) + (w << 3), word);
+    }
+
+    /**
+     * Returns the unsigned byte of a cell in a byte plane.
+     *
+     * @param x the column
+     * @param y the row
+     * @return the value, between 0 and 255
+     */
+    int getByte(int x, int y) {
+        return segment(y).get(rowOffset(y) + x) & 0xFF;
+    }
+
+    /**
+     * Sets the byte of a cell in a byte plane, clamped to [0, 255].
+     *
+     * @param x     the column
+     * @param y     the row
+     * @param value the new value
+     */
+    void setByte(int x, int y, int value) {
+        segment(y).put(rowOffset(y) + x, (byte) Math.max(0, Math.min(255, value)));
+    }
+
+    /**
+     * Copies the leading bytes of a row into an array; on a byte plane, the unsigned bytes of the first
+     * {@code length} cells.
+     *
+     * @param y      the row
+     * @param dst    the destination array
+     * @param length the number of bytes to copy, at most the row stride
+     * @throws IndexOutOfBoundsException if length exceeds the row stride or the array
+     */
+    public void getRow(int y, byte[] dst, int length) {
+        Objects.checkFromIndexSize(0, length, rowStride);
+        segment(y).get(rowOffset(y), dst, 0, length);
+    }
+
+    /**
+     * Copies the leading bytes of a row into a buffer with a bulk copy: on a bit plane the words of the row, on a
+     * byte plane the bytes of the first {@code length} cells.
+     *
+     * @param y      the row
+     * @param dst    the destination buffer
+     * @param index  the index of the first destination byte
+     * @param length the number of bytes to copy, at most the row stride
+     * @throws IndexOutOfBoundsException if length exceeds the row stride or the buffer
+     */
+    public void copyRowTo(int y, ByteBuffer dst, int index, int length) {
+        Objects.checkFromIndexSize(0, length, rowStride);
+        dst.put(index, segment(y), rowOffset(y), length);
+    }
+
+    /**
+     * Replaces the leading bytes of a row with bytes of a buffer, with a bulk copy.
+     *
+     * @param y      the row
+     * @param src    the source buffer
+     * @param index  the index of the first source byte
+     * @param length the number of bytes to copy, at most the row stride
+     * @throws IndexOutOfBoundsException if length exceeds the row stride or the buffer
+     */
+    public void copyRowFrom(int y, ByteBuffer src, int index, int length) {
+        Objects.checkFromIndexSize(0, length, rowStride);
+        segment(y).put(rowOffset(y), src, index, length);
+    }
+
+    /**
+     * Copies a row of another plane of identical geometry into this plane.
+     *
+     * @param source the plane to copy from
+     * @param y      the row
+     */
+    void copyRow(OffHeapPlane source, int y) {
+        int offset = rowOffset(y);
+        segment(y).put(offset, source.segment(y), offset, rowStride);
+    }
+
+    /**
+     * Returns whether the plane stores one bit per cell.
+     *
+     * @return true for a bit plane, false for a byte plane
+     */
+    public boolean isBits() {
+        return bits;
+    }
+
+    /**
+     * Returns the number of rows of the plane.
+     *
+     * @return the height
+     */
+    public int getHeight() {
+        return height;
+    }
+
+    /**
+     * Returns the number of bytes between the starts of consecutive rows.
+     *
+     * @return the row stride
+     */
+    public int getRowStride() {
+        return rowStride;
+    }
+
+    /**
+     * Returns the number of off-heap bytes used by the plane's rows.
+     *
+     * @return the size in bytes
+     */
+    public long getSizeBytes() {
+        return (long) rowStride * height;
+    }
+}
@@ -0,0 +1,96 @@
+package com.dungeoncode.cae.core.impl.packed;
+
+import com.dungeoncode.cae.core.Position;
+import com.dungeoncode.cae.core.impl.BooleanCell;
+import com.dungeoncode.cae.core.impl.BooleanState;
+
+/**
+ * A {@link BooleanCell} view of one cell of a {@link PackedBooleanGrid}, backed by a {@link PackedBooleanState}.
+ * Replacing the state copies it into the grid's planes instead of rebinding the view. The grid reuses views, moving
+ * them from cell to cell together with their state and position, see {@link #moveTo(int, int)}.
+ */
+final class PackedBooleanCell extends BooleanCell {
+
+    /**
+     * The position of the viewed cell, moved with the view.
+     */
+    private final MovablePosition position;
+
+    /**
+     * The state view of the cell.
+     */
+    private final PackedBooleanState state;
+
+    /**
+     * Constructs a view of the cell at the given coordinates.
+     *
+     * @param x     the column
+     * @param y     the row
+     * @param state the state view of the cell
+     */
+    PackedBooleanCell(int x, int y, PackedBooleanState state) {
+        super(x, y, state);
+        this.position = new MovablePosition(x, y);
+        this.state = state;
+    }
+
+    /**
+     * Rebinds the view and its state to another cell of the same planes.
+     *
+     * @param x the column
+     * @param y the row
+     * @return this view
+     */
+    PackedBooleanCell moveTo(int x, int y) {
+        position.x = x;
+        position.y = y;
+        state.moveTo(x, y);
+        return this;
+    }
+
+    /**
+     * Returns the position of the viewed cell. The position moves with the view.
+     *
+     * @return the position
+     */
+    @Override
+    public Position getPosition() {
+        return position;
+    }
+
+    /**
+     * Copies the specified state into the grid's planes.
+     *
+     * @param state the state to store
+     */
+    @Override
+    public void setState(BooleanState state) {
+        copyState(state);
+    }
+
+    /**
+     * A {@link Position} whose coordinates can be changed, so that a view can move without allocating.
+     */
+    private static final class MovablePosition extends Position {
+
+        private int x;
+
+        private int y;
+
+        MovablePosition(int x, int y) {
+            super(x, y);
+            this.x = x;
+            this.y = y;
+        }
+
+        @Override
+        public int getX() {
+            return x;
+        }
+
+        @Override
+        public int getY() {
+            return y;
+        }
+    }
+}
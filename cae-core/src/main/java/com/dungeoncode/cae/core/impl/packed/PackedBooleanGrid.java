@@ -0,0 +1,573 @@
+package com.dungeoncode.cae.core.impl.packed;
+
+import com.dungeoncode.cae.core.Grid;
+import com.dungeoncode.cae.core.GridInitializer;
+import com.dungeoncode.cae.core.StatisticsCollector;
+import com.dungeoncode.cae.core.impl.BooleanCell;
+import com.dungeoncode.cae.core.impl.BooleanState;
+import com.dungeoncode.cae.core.impl.BooleanStatisticsCollector;
+
+import java.util.Arrays;
+import java.util.function.ToLongFunction;
+
+/**
+ * A boolean {@link Grid} whose cell states live off-heap in bit-packed {@link OffHeapPlane}s instead of one object
+ * per cell, so that heap usage is independent of the grid size and the simulation allocates nothing per cell for the
+ * garbage collector to handle.
+ * <p>
+ * Every cell takes a value and an echo bit, and optionally a live sum byte and an id byte, each stored for both the
+ * current and the next state. With live sums and ids, as created by {@link #PackedBooleanGrid(int, int,
+ * GridInitializer)} for the bundled rules and renderers, a cell takes 4.5 bytes: a 65536 x 65536 grid needs 18 GB of
+ * direct memory. Without them, as created by {@link #PackedBooleanGrid(int, int, GridInitializer, boolean, boolean)},
+ * a cell takes half a byte and the same grid needs 2 GB; live sums and ids then read as 0. Heap usage is a few
+ * kilobytes either way.
+ * <p>
+ * The grid plugs into {@link com.dungeoncode.cae.core.Automaton}, the rules, and the renderers unchanged:
+ * {@link #getCell(int, int)} and {@link #getNextState(int, int)} return reused views that read and write the planes
+ * at the requested coordinates, and {@link #commitNextStates(StatisticsCollector)} copies the next-state planes with
+ * bulk memory copies.
+ * <p>
+ * The raw planes are available through {@link #getValuePlane()} and friends for word-at-a-time processing, and the
+ * next-state planes through {@link #getNextValuePlane()} and friends for rules that compute whole grids. Whole-grid
+ * passes should use the planes rather than cell views: commits, statistics, and the hash and change scans do, and
+ * allocate no views.
+ * <p>
+ * Next states live in planes, not in an array, so {@link #supportsNextStateArray()} is false and
+ * {@link #getNextStates()} and {@link #setNextStates(BooleanState[][])} throw {@link UnsupportedOperationException}.
+ */
+public class PackedBooleanGrid extends Grid<BooleanCell, BooleanState> {
+
+    /**
+     * The number of cell views and of next-state views each thread cycles through, see {@link #getCell(int, int)}.
+     */
+    public static final int VIEWS_PER_THREAD = 256;
+
+    /**
+     * The planes of the current states.
+     */
+    private final StatePlanes current;
+
+    /**
+     * The planes of the next states.
+     */
+    private final StatePlanes next;
+
+    /**
+     * A reusable view of a current state, for the change scan of commits, which run on one thread at a time.
+     */
+    private final PackedBooleanState scanCurrent;
+
+    /**
+     * A reusable view of a next state, for the change scan and the statistics feed of commits.
+     */
+    private final PackedBooleanState scanNext;
+
+    /**
+     * The live sum histogram of the commit in progress, reused between commits.
+     */
+    private final long[] liveSumCounts = new long[256];
+
+    /**
+     * The species histogram of the commit in progress, reused between commits.
+     */
+    private final long[] speciesCounts = new long[256];
+
+    /**
+     * The views handed out by {@link #getCell(int, int)} and {@link #getNextState(int, int)}, one set per thread.
+     */
+    private final ThreadLocal<Views> views;
+
+    /**
+     * Constructs a packed grid storing live sums and ids, as expected by every bundled rule and renderer, at 4.5 bytes
+     * of direct memory per cell. Use {@link #PackedBooleanGrid(int, int, GridInitializer, boolean, boolean)} to store
+     * half a byte per cell instead.
+     *
+     * @param width       the number of columns (x-axis), must be positive
+     * @param height      the number of rows (y-axis), must be positive
+     * @param initializer the {@link GridInitializer} to populate the grid, or null to leave all cells inactive
+     * @throws IllegalArgumentException if width or height is not positive
+     */
+    public PackedBooleanGrid(int width, int height, GridInitializer<BooleanCell, BooleanState> initializer) {
+        this(width, height, initializer, true, true);
+    }
+
+    /**
+     * Constructs a packed grid, optionally storing live sums and ids.
+     *
+     * @param width        the number of columns (x-axis), must be positive
+     * @param height       the number of rows (y-axis), must be positive
+     * @param initializer  the {@link GridInitializer} to populate the grid, or null to leave all cells inactive
+     * @param withLiveSums whether to store a live sum byte per cell
+     * @param withIds      whether to store an id byte per cell
+     * @throws IllegalArgumentException if width or height is not positive
+     */
+    public PackedBooleanGrid(int width, int height, GridInitializer<BooleanCell, BooleanState> initializer,
+                             boolean withLiveSums, boolean withIds) {
+        super(width, height, initializer, false);
+        this.current = new StatePlanes(width, height, withLiveSums, withIds);
+        this.next = new StatePlanes(width, height, withLiveSums, withIds);
+        this.scanCurrent = new PackedBooleanState(current, 0, 0);
+        this.scanNext = new PackedBooleanState(next, 0, 0);
+        this.views = ThreadLocal.withInitial(() -> new Views(current, next));
+        initialize();
+    }
+
+    /**
+     * Returns a view of the cell at the specified coordinates, which reads and writes the current-state planes. No
+     * object is allocated: each thread cycles through {@link #VIEWS_PER_THREAD} reused views, so a view, its state and
+     * its position stay bound to the cell until the same thread has requested that many further cells. Rules may
+     * hold a cell and its neighbors at the same time, but callers must not keep views beyond that, for example in
+     * collections. Whole-grid passes should read the planes a word at a time instead.
+     *
+     * @param x the x-coordinate (column), zero-based
+     * @param y the y-coordinate (row), zero-based
+     * @return a view of the cell at (x, y)
+     * @throws IllegalArgumentException if the coordinates are out of bounds
+     */
+    @Override
+    public BooleanCell getCell(int x, int y) {
+        checkBounds(x, y);
+        Views own = views.get();
+        PackedBooleanCell cell = own.cells[own.nextCell];
+        own.nextCell = (own.nextCell + 1) & (VIEWS_PER_THREAD - 1);
+        return cell.moveTo(x, y);
+    }
+
+    /**
+     * Copies the state of the specified cell into the current-state planes at the given coordinates.
+     *
+     * @param x    the x-coordinate (column), zero-based
+     * @param y    the y-coordinate (row), zero-based
+     * @param cell the cell whose state to store, must not be null
+     * @throws IllegalArgumentException if the coordinates are out of bounds
+     */
+    @Override
+    public void setCell(int x, int y, BooleanCell cell) {
+        checkBounds(x, y);
+        BooleanState state = cell.getState();
+        current.set(x, y, state.getValue(), state.isEcho(), state.getLiveSum(), state.getId());
+    }
+
+    /**
+     * Returns a view of the next state of the cell at the specified coordinates. Like cell views, next-state views are
+     * reused: each thread cycles through {@link #VIEWS_PER_THREAD} of them.
+     *
+     * @param x the x-coordinate (column), zero-based
+     * @param y the y-coordinate (row), zero-based
+     * @return a view of the next state at (x, y)
+     */
+    @Override
+    public BooleanState getNextState(int x, int y) {
+        Views own = views.get();
+        PackedBooleanState state = own.nextStates[own.nextState];
+        own.nextState = (own.nextState + 1) & (VIEWS_PER_THREAD - 1);
+        return state.moveTo(x, y);
+    }
+
+    /**
+     * Copies the next state of a single cell to the cell.
+     *
+     * @param x the x-coordinate (column), zero-based
+     * @param y the y-coordinate (row), zero-based
+     * @throws IllegalArgumentException if the coordinates are out of bounds
+     */
+    @Override
+    public void copyCellState(int x, int y) {
+        checkBounds(x, y);
+        current.copyCell(next, x, y);
+    }
+
+    /**
+     * Copies all next-state planes to the current-state planes in one pass over the rows, with a bulk memory copy per
+     * row and plane. If the grid hash is maintained or changes are tracked, the changed cells of each row are first
+     * located a word at a time by comparing the planes, so only cells that actually change are re-encoded, through
+     * reused views. A {@link BooleanStatisticsCollector} is fed from the same row before it is copied, counting the
+     * population with {@link Long#bitCount(long)}; other collectors receive a reused view of each cell in a separate
+     * pass.
+     *
+     * @param collector the collector to feed, or null to only commit
+     */
+    @Override
+    public void commitNextStates(StatisticsCollector<? super BooleanState> collector) {
+        ToLongFunction<? super BooleanState> hashEncoder = getStateEncoder();
+        ToLongFunction<? super BooleanState> changeEncoder = getChangeEncoder();
+        boolean scan = hashEncoder != null || changeEncoder != null;
+        BooleanStatisticsCollector statistics = collector instanceof BooleanStatisticsCollector s ? s : null;
+        if (statistics == null && collector != null) {
+            collector.begin(getWidth(), getHeight());
+            for (int y = 0; y < getHeight(); y++) {
+                for (int x = 0; x < getWidth(); x++) {
+                    collector.accept(scanNext.moveTo(x, y));
+                }
+            }
+        }
+        if (statistics != null) {
+            statistics.begin(getWidth(), getHeight());
+        }
+        for (int y = 0; y < getHeight(); y++) {
+            if (scan) {
+                scanChanges(hashEncoder, changeEncoder, y);
+            }
+            if (statistics != null) {
+                countRow(statistics, y);
+            }
+            current.copyRow(next, y);
+        }
+        if (statistics != null) {
+            for (int i = 0; i < 256; i++) {
+                statistics.addLiveSums(i, liveSumCounts[i]);
+                statistics.addSpecies(i, speciesCounts[i]);
+            }
+            Arrays.fill(liveSumCounts, 0);
+            Arrays.fill(speciesCounts, 0);
+        }
+    }
+
+    /**
+     * Counts one row of the next-state planes a word at a time: the population of each 64-cell word is its bit count,
+     * live sums are tallied from the eight words of the live sum plane that cover it, and ids are only read for active
+     * cells. Populations go to the collector; live sums and ids are tallied into {@link #liveSumCounts} and
+     * {@link #speciesCounts}.
+     *
+     * @param statistics the collector to feed
+     * @param y          the row
+     */
+    private void countRow(BooleanStatisticsCollector statistics, int y) {
+        int width = getWidth();
+        int words = (width + 63) >>> 6;
+        for (int w = 0; w < words; w++) {
+            int cells = Math.min(64, width - (w << 6));
+            long valid = cells == 64 ? -1L : (1L << cells) - 1;
+            long value = next.value.getWord(w, y) & valid;
+            statistics.addPopulation(Long.bitCount(value));
+            if (next.liveSum != null) {
+                for (int k = 0; k << 3 < cells; k++) {
+                    long word = next.liveSum.getWord((w << 3) + k, y);
+                    for (int j = 0; j < 8 && (k << 3) + j < cells; j++, word >>>= 8) {
+                        liveSumCounts[(int) (word & 0xFF)]++;
+                    }
+                }
+            } else {
+                liveSumCounts[0] += cells;
+            }
+            if (next.id != null) {
+                while (value != 0) {
+                    int i = Long.numberOfTrailingZeros(value);
+                    long word = next.id.getWord((w << 3) + (i >>> 3), y);
+                    speciesCounts[(int) ((word >>> ((i & 7) << 3)) & 0xFF)]++;
+                    value &= value - 1;
+                }
+            } else {
+                speciesCounts[0] += Long.bitCount(value);
+            }
+        }
+    }
+
+    /**
+     * Updates the grid hash and marks the change set for every cell of a row whose next state differs from its
+     * current state.
+     *
+     * @param hashEncoder   the state encoder of the hash, or null
+     * @param changeEncoder the state encoder of change tracking, or null
+     * @param y             the row
+     */
+    private void scanChanges(ToLongFunction<? super BooleanState> hashEncoder,
+                             ToLongFunction<? super BooleanState> changeEncoder, int y) {
+        int width = getWidth();
+        int words = (width + 63) >>> 6;
+        for (int w = 0; w < words; w++) {
+            long changed = (current.value.getWord(w, y) ^ next.value.getWord(w, y))
+                    | (current.echo.getWord(w, y) ^ next.echo.getWord(w, y));
+            if (current.liveSum != null) {
+                changed |= changedBytes(current.liveSum, next.liveSum, w, y);
+            }
+            if (current.id != null) {
+                changed |= changedBytes(current.id, next.id, w, y);
+            }
+            while (changed != 0) {
+                int x = (w << 6) + Long.numberOfTrailingZeros(changed);
+                BooleanState before = scanCurrent.moveTo(x, y);
+                BooleanState after = scanNext.moveTo(x, y);
+                if (hashEncoder != null) {
+                    long hashBefore = hashEncoder.applyAsLong(before);
+                    long hashAfter = hashEncoder.applyAsLong(after);
+                    if (hashBefore != hashAfter) {
+                        updateHash(y * width + x, hashBefore, hashAfter);
+                    }
+                }
+                if (changeEncoder != null
+                        && changeEncoder.applyAsLong(before) != changeEncoder.applyAsLong(after)) {
+                    markChanged(x, y);
+                }
+                changed &= changed - 1;
+            }
+        }
+    }
+
+    /**
+     * Compares the 64 byte cells of a word column of two byte planes.
+     *
+     * @param a the first plane
+     * @param b the second plane
+     * @param w the index of the 64-cell group within the row
+     * @param y the row
+     * @return a mask with bit {@code i} set if cell {@code 64 * w + i} differs
+     */
+    private static long changedBytes(OffHeapPlane a, OffHeapPlane b, int w, int y) {
+        long mask = 0;
+        for (int k = 0; k < 8; k++) {
+            long diff = a.getWord((w << 3) + k, y) ^ b.getWord((w << 3) + k, y);
+            for (int j = 0; diff != 0; j++, diff >>>= 8) {
+                if ((diff & 0xFF) != 0) {
+                    mask |= 1L << ((k << 3) + j);
+                }
+            }
+        }
+        return mask;
+    }
+
+    /**
+     * Returns false: next states are stored in planes, see {@link #getNextState(int, int)}.
+     *
+     * @return false
+     */
+    @Override
+    public boolean supportsNextStateArray() {
+        return false;
+    }
+
+    /**
+     * Not supported: next states are stored in planes, see {@link #getNextState(int, int)}.
+     *
+     * @return never
+     * @throws UnsupportedOperationException always
+     */
+    @Override
+    public BooleanState[][] getNextStates() {
+        throw new UnsupportedOperationException("Packed grids store next states off-heap; use getNextState(x, y)");
+    }
+
+    /**
+     * Not supported: next states are stored in planes.
+     *
+     * @param nextStates ignored
+     * @throws UnsupportedOperationException always
+     */
+    @Override
+    public void setNextStates(BooleanState[][] nextStates) {
+        throw new UnsupportedOperationException("Packed grids store next states off-heap");
+    }
+
+    /**
+     * Sets up to 64 consecutive cells of a row with a few word operations, as a pattern blit: the cell at column
+     * {@code x + i} is set when bit {@code i} of {@code mask} is set, becoming active if bit {@code i} of {@code live}
+     * is set and inactive otherwise, with echo, live sum and id cleared, as
+     * {@link BooleanCell#setState(boolean, boolean, int)} with no echo and id 0 would. Other cells are untouched.
+     *
+     * @param x    the column of bit 0
+     * @param y    the row
+     * @param live the new values of the selected cells
+     * @param mask the cells to set
+     * @throws IllegalArgumentException if a selected cell is out of bounds
+     */
+    public void setRun(int x, int y, long live, long mask) {
+        if (mask == 0) {
+            return;
+        }
+        checkBounds(x, y);
+        checkBounds(x + 63 - Long.numberOfLeadingZeros(mask), y);
+        current.setRun(x, y, live & mask, mask);
+    }
+
+    /**
+     * Returns the bit plane of the current cell values.
+     *
+     * @return the value plane
+     */
+    public OffHeapPlane getValuePlane() {
+        return current.value;
+    }
+
+    /**
+     * Returns the bit plane of the current echo flags.
+     *
+     * @return the echo plane
+     */
+    public OffHeapPlane getEchoPlane() {
+        return current.echo;
+    }
+
+    /**
+     * Returns the byte plane of the current live sums.
+     *
+     * @return the live sum plane, or null if live sums are not stored
+     */
+    public OffHeapPlane getLiveSumPlane() {
+        return current.liveSum;
+    }
+
+    /**
+     * Returns the byte plane of the current ids.
+     *
+     * @return the id plane, or null if ids are not stored
+     */
+    public OffHeapPlane getIdPlane() {
+        return current.id;
+    }
+
+    /**
+     * Returns the bit plane of the next cell values, for rules that write whole words of next states.
+     *
+     * @return the next value plane
+     */
+    public OffHeapPlane getNextValuePlane() {
+        return next.value;
+    }
+
+    /**
+     * Returns the bit plane of the next echo flags.
+     *
+     * @return the next echo plane
+     */
+    public OffHeapPlane getNextEchoPlane() {
+        return next.echo;
+    }
+
+    /**
+     * Returns the byte plane of the next live sums.
+     *
+     * @return the next live sum plane, or null if live sums are not stored
+     */
+    public OffHeapPlane getNextLiveSumPlane() {
+        return next.liveSum;
+    }
+
+    /**
+     * Returns the byte plane of the next ids.
+     *
+     * @return the next id plane, or null if ids are not stored
+     */
+    public OffHeapPlane getNextIdPlane() {
+        return next.id;
+    }
+
+    /**
+     * Returns the number of off-heap bytes used by the current and next states.
+     *
+     * @return the size in bytes
+     */
+    public long getOffHeapBytes() {
+        return current.sizeBytes() + next.sizeBytes();
+    }
+
+    /**
+     * Validates cell coordinates.
+     *
+     * @param x the column
+     * @param y the row
+     * @throws IllegalArgumentException if the coordinates are out of bounds
+     */
+    private void checkBounds(int x, int y) {
+        if (x < 0 || x >= getWidth() || y < 0 || y >= getHeight()) {
+            throw new IllegalArgumentException("Coordinates out of bounds: (" + x + ", " + y + ")");
+        }
+    }
+
+    /**
+     * The reusable views of one thread.
+     */
+    private static final class Views {
+        final PackedBooleanCell[] cells = new PackedBooleanCell[VIEWS_PER_THREAD];
+        final PackedBooleanState[] nextStates = new PackedBooleanState[VIEWS_PER_THREAD];
+        int nextCell;
+        int nextState;
+
+        Views(StatePlanes current, StatePlanes next) {
+            for (int i = 0; i < VIEWS_PER_THREAD; i++) {
+                cells[i] = new PackedBooleanCell(0, 0, new PackedBooleanState(current, 0, 0));
+                nextStates[i] = new PackedBooleanState(next, 0, 0);
+            }
+        }
+    }
+
+    /**
+     * The planes holding one generation of states.
+     */
+    static final class StatePlanes {
+        final OffHeapPlane value;
+        final OffHeapPlane echo;
+        final OffHeapPlane liveSum;
+        final OffHeapPlane id;
+
+        StatePlanes(int width, int height, boolean withLiveSums, boolean withIds) {
+            this.value = new OffHeapPlane(width, height, true);
+            this.echo = new OffHeapPlane(width, height, true);
+            this.liveSum = withLiveSums ? new OffHeapPlane(width, height, false) : null;
+            this.id = withIds ? new OffHeapPlane(width, height, false) : null;
+        }
+
+        void set(int x, int y, boolean value, boolean echo, int liveSumValue, int idValue) {
+            this.value.setBit(x, y, value);
+            this.echo.setBit(x, y, echo);
+            if (liveSum != null) {
+                liveSum.setByte(x, y, liveSumValue);
+            }
+            if (id != null) {
+                id.setByte(x, y, idValue);
+            }
+        }
+
+        void copyCell(StatePlanes source, int x, int y) {
+            value.setBit(x, y, source.value.getBit(x, y));
+            echo.setBit(x, y, source.echo.getBit(x, y));
+            if (liveSum != null) {
+                liveSum.setByte(x, y, source.liveSum.getByte(x, y));
+            }
+            if (id != null) {
+                id.setByte(x, y, source.id.getByte(x, y));
+            }
+        }
+
+        void copyRow(StatePlanes source, int y) {
+            value.copyRow(source.value, y);
+            echo.copyRow(source.echo, y);
+            if (liveSum != null) {
+                liveSum.copyRow(source.liveSum, y);
+            }
+            if (id != null) {
+                id.copyRow(source.id, y);
+            }
+        }
+
+        void setRun(int x, int y, long live, long mask) {
+            int w = x >>> 6;
+            int shift = x & 63;
+            setBits(value, w, y, live << shift, mask << shift);
+            setBits(echo, w, y, 0, mask << shift);
+            if (shift != 0 && mask >>> (64 - shift) != 0) {
+                setBits(value, w + 1, y, live >>> (64 - shift), mask >>> (64 - shift));
+                setBits(echo, w + 1, y, 0, mask >>> (64 - shift));
+            }
+            if (liveSum != null || id != null) {
+                for (long bits = mask; bits != 0; bits &= bits - 1) {
+                    int cx = x + Long.numberOfTrailingZeros(bits);
+                    if (liveSum != null) {
+                        liveSum.setByte(cx, y, 0);
+                    }
+                    if (id != null) {
+                        id.setByte(cx, y, 0);
+                    }
+                }
+            }
+        }
+
+        private static void setBits(OffHeapPlane plane, int w, int y, long bits, long mask) {
+            plane.setWord(w, y, plane.getWord(w, y) & ~mask | bits);
+        }
+
+        long sizeBytes() {
+            return value.getSizeBytes() + echo.getSizeBytes()
+                    + (liveSum != null ? liveSum.getSizeBytes() : 0) + (id != null ? id.getSizeBytes() : 0);
+        }
+    }
+}
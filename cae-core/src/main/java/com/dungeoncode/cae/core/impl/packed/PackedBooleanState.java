@@ -0,0 +1,136 @@
+package com.dungeoncode.cae.core.impl.packed;
+
+import com.dungeoncode.cae.core.impl.BooleanState;
+
+/**
+ * A {@link BooleanState} view of one cell of a {@link PackedBooleanGrid}. The view holds no state of its own: every
+ * read and write goes to the off-heap planes of the grid (current or next states) at the bound coordinates; two views
+ * of the same cell observe the same state. The grid allocates its views once and moves them from cell to cell, see
+ * {@link #moveTo(int, int)}.
+ */
+final class PackedBooleanState extends BooleanState {
+
+    /**
+     * The planes holding the state.
+     */
+    private final PackedBooleanGrid.StatePlanes planes;
+
+    /**
+     * The column of the viewed cell.
+     */
+    private int x;
+
+    /**
+     * The row of the viewed cell.
+     */
+    private int y;
+
+    /**
+     * Constructs a view of the cell at the given coordinates.
+     *
+     * @param planes the planes holding the state
+     * @param x      the column
+     * @param y      the row
+     */
+    PackedBooleanState(PackedBooleanGrid.StatePlanes planes, int x, int y) {
+        this.planes = planes;
+        this.x = x;
+        this.y = y;
+    }
+
+    /**
+     * Rebinds the view to another cell of the same planes.
+     *
+     * @param x the column
+     * @param y the row
+     * @return this view
+     */
+    PackedBooleanState moveTo(int x, int y) {
+        this.x = x;
+        this.y = y;
+        return this;
+    }
+
+    /**
+     * Returns the boolean value of the cell.
+     *
+     * @return {@code true} if the cell is active
+     */
+    @Override
+    public Boolean getValue() {
+        return planes.value.getBit(x, y);
+    }
+
+    /**
+     * Returns the echo of the cell.
+     *
+     * @return {@code true} if the echo is set
+     */
+    @Override
+    public boolean isEcho() {
+        return planes.echo.getBit(x, y);
+    }
+
+    /**
+     * Returns the live sum of the cell, or 0 if the grid does not store live sums.
+     *
+     * @return the live sum
+     */
+    @Override
+    public int getLiveSum() {
+        return planes.liveSum == null ? 0 : planes.liveSum.getByte(x, y);
+    }
+
+    /**
+     * Returns the id of the cell, or 0 if the grid does not store ids.
+     *
+     * @return the id
+     */
+    @Override
+    public int getId() {
+        return planes.id == null ? 0 : planes.id.getByte(x, y);
+    }
+
+    /**
+     * Swaps the value and echo of the cell.
+     */
+    @Override
+    public void swapEcho() {
+        boolean value = planes.value.getBit(x, y);
+        planes.value.setBit(x, y, planes.echo.getBit(x, y));
+        planes.echo.setBit(x, y, value);
+    }
+
+    /**
+     * Sets the value, echo, live sum, and id of the cell. Live sums and ids are clamped to [0, 255] and dropped if
+     * the grid does not store them.
+     *
+     * @param value   the new boolean value
+     * @param echo    the new echo value
+     * @param liveSum the new live sum
+     * @param id      the new id
+     */
+    @Override
+    public void set(boolean value, boolean echo, int liveSum, int id) {
+        set(value, echo, liveSum);
+        if (planes.id != null) {
+            planes.id.setByte(x, y, id);
+        }
+    }
+
+    /**
+     * Sets the value, echo, and live sum of the cell, keeping its id.
+     *
+     * @param value   the new boolean value
+     * @param echo    the new echo value
+     * @param liveSum the new live sum
+     */
+    @Override
+    public void set(boolean value, boolean echo, int liveSum) {
+        planes.value.setBit(x, y, value);
+        planes.echo.setBit(x, y, echo);
+        if (planes.liveSum != null) {
+            planes.liveSum.setByte(x, y, liveSum);
+        }
+    }
+}
@@ -0,0 +1,628 @@
+package com.dungeoncode.cae.core.io;
+
+import com.dungeoncode.cae.core.Automaton;
+import com.dungeoncode.cae.core.impl.BooleanCell;
+import com.dungeoncode.cae.core.impl.BooleanState;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.annotation.Nonnull;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Writes periodic compressed checkpoints of a boolean automaton in the background, and resumes a run from the latest
+ * good checkpoint.
+ * <p>
+ * Registered as a step listener (see {@link Automaton#addStepListener(Consumer)}), the checkpointer runs on the
+ * stepping thread only long enough to capture the grid into a reusable {@link Snapshot} image held in direct buffers
+ * of whole rows, so neither the heap nor the 2 GB limit of a single buffer bounds the grid size. The planes of a
+ * {@code PackedBooleanGrid} are copied in bulk, a row at a time; other grids are encoded cell by cell. Compression and
+ * disk I/O happen on a dedicated writer thread, which streams the image through the compressor in small pieces; if
+ * the writer is still busy when the next checkpoint is due, that checkpoint is skipped rather than blocking the
+ * simulation. A checkpoint that cannot be captured, for example because direct memory is exhausted, is logged and
+ * skipped as well: checkpointing never stops the run.
+ * <p>
+ * Each checkpoint file holds either a full image (a key frame) or the XOR of the image with the previous checkpoint,
+ * compressed with {@link Deflater}. Since consecutive generations share most cells, deltas are mostly zero bytes and
+ * compress very well. Files are written to a temporary name, forced to disk, and atomically renamed, so a crash never
+ * leaves a partially written checkpoint under its final name. Every file carries the CRC32 of the reconstructed image,
+ * and {@link #resume(Path, Automaton)} replays the newest chain of key frame and deltas up to the last file that
+ * verifies.
+ * <p>
+ * Checkpoints belong to a run, identified by the configuration id and the automaton seed, which are part of both the
+ * file name and the preamble. When a checkpointer writes the first key frame of a run, the directory is rolled over:
+ * the checkpoints of other runs, and those of the same run beyond that key frame, are deleted, so a directory reused
+ * by a new run never resumes the old one. {@link #resume(Path, Automaton)} only follows the chains of the run whose
+ * checkpoint was written last.
+ * <p>
+ * Checkpoint file layout (big-endian): magic {@code "CAECKPT\0"}, version, kind (0 key frame, 1 delta), configuration
+ * id, seed, generation, base generation (the previous checkpoint for a delta, otherwise the generation itself), image
+ * length (a long), image CRC32, followed by the deflated image or delta.
+ */
+public class Checkpointer implements Consumer<Automaton<BooleanCell, BooleanState>>, Closeable {
+
+    /**
+     * Logger for recording checkpoint events and errors.
+     */
+    private static final Logger LOGGER = LoggerFactory.getLogger(Checkpointer.class);
+
+    /**
+     * The current checkpoint format version.
+     */
+    public static final int VERSION = 3;
+
+    /**
+     * The extension of checkpoint files.
+     */
+    public static final String EXTENSION = ".ckpt";
+
+    /**
+     * The file magic identifying a checkpoint.
+     */
+    private static final byte[] MAGIC = "CAECKPT\0".getBytes(StandardCharsets.US_ASCII);
+
+    /**
+     * Checkpoint kind holding a full image.
+     */
+    private static final int KIND_KEY = 0;
+
+    /**
+     * Checkpoint kind holding the XOR of the image with the previous checkpoint.
+     */
+    private static final int KIND_DELTA = 1;
+
+    /**
+     * The offset of the image CRC32 in the preamble, filled in once the payload has been written.
+     */
+    private static final int CRC_OFFSET = 52;
+
+    /**
+     * The size of the pieces in which images are streamed through the compressor.
+     */
+    private static final int CHUNK_SIZE = 64 * 1024;
+
+    /**
+     * The directory receiving the checkpoint files.
+     */
+    private final Path directory;
+
+    /**
+     * The identifier of the configuration being checkpointed.
+     */
+    private final int configurationId;
+
+    /**
+     * The number of generations between checkpoints, or 0 to disable the generation trigger.
+     */
+    private final long everyGenerations;
+
+    /**
+     * The wall time in milliseconds between checkpoints, or 0 to disable the time trigger.
+     */
+    private final long everyMillis;
+
+    /**
+     * The number of checkpoints per chain: a key frame followed by this many minus one deltas.
+     */
+    private final int keyFrameInterval;
+
+    /**
+     * The background thread compressing and writing checkpoints.
+     */
+    private final ExecutorService writer;
+
+    /**
+     * Whether the writer is currently processing a checkpoint.
+     */
+    private final AtomicBoolean busy = new AtomicBoolean();
+
+    /**
+     * The image being captured by the stepping thread and handed to the writer.
+     */
+    private SnapshotImage capture;
+
+    /**
+     * The image of the previous checkpoint, owned by the writer. Swapped with the captured image once written.
+     */
+    private SnapshotImage previous;
+
+    /**
+     * The generation of the previous checkpoint, or -1 if none was written yet.
+     */
+    private long previousGeneration = -1;
+
+    /**
+     * The number of checkpoints written in the current chain.
+     */
+    private int chainLength;
+
+    /**
+     * Whether a checkpoint of the current run was written, so that the directory has been rolled over to it.
+     */
+    private boolean runStarted;
+
+    /**
+     * The seed of the run being checkpointed, owned by the writer.
+     */
+    private long runSeed;
+
+    /**
+     * The generation at which the last checkpoint was captured.
+     */
+    private long lastGeneration;
+
+    /**
+     * The wall time at which the last checkpoint was captured.
+     */
+    private long lastMillis = System.currentTimeMillis();
+
+    /**
+     * Constructs a checkpointer writing to the specified directory.
+     *
+     * @param directory        the directory receiving the checkpoints, created if needed, must not be null
+     * @param configurationId  the identifier of the configuration being checkpointed
+     * @param everyGenerations the number of generations between checkpoints, or 0 to disable this trigger
+     * @param everyMillis      the wall time in milliseconds between checkpoints, or 0 to disable this trigger
+     * @param keyFrameInterval the number of checkpoints per key frame, must be positive
+     * @throws NullPointerException     if directory is null
+     * @throws IllegalArgumentException if both triggers are disabled, a trigger is negative, or the key frame
+     *                                  interval is not positive
+     * @throws IOException              if the directory cannot be created
+     */
+    public Checkpointer(@Nonnull Path directory, int configurationId, long everyGenerations, long everyMillis,
+                        int keyFrameInterval) throws IOException {
+        this.directory = Objects.requireNonNull(directory, "Directory cannot be null");
+        if (everyGenerations < 0 || everyMillis < 0 || (everyGenerations == 0 && everyMillis == 0)) {
+            throw new IllegalArgumentException("At least one positive checkpoint trigger is required: everyGenerations="
+                    + everyGenerations + ", everyMillis=" + everyMillis);
+        }
+        if (keyFrameInterval <= 0) {
+            throw new IllegalArgumentException("Key frame interval must be positive: " + keyFrameInterval);
+        }
+        this.configurationId = configurationId;
+        this.everyGenerations = everyGenerations;
+        this.everyMillis = everyMillis;
+        this.keyFrameInterval = keyFrameInterval;
+        Files.createDirectories(directory);
+        this.writer = Executors.newSingleThreadExecutor(r -> {
+            Thread thread = new Thread(r, "checkpoint-writer");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Captures a checkpoint of the automaton if one is due and the writer is idle, then hands it to the writer.
+     * Called on the stepping thread after each step.
+     *
+     * @param automaton the automaton that just stepped
+     */
+    @Override
+    public void accept(Automaton<BooleanCell, BooleanState> automaton) {
+        long generation = automaton.getGeneration();
+        long now = System.currentTimeMillis();
+        if (generation < lastGeneration) {
+            lastGeneration = generation;
+        }
+        boolean due = (everyGenerations > 0 && generation - lastGeneration >= everyGenerations)
+                || (everyMillis > 0 && now - lastMillis >= everyMillis);
+        if (!due) {
+            return;
+        }
+        if (!busy.compareAndSet(false, true)) {
+            LOGGER.debug("Checkpoint at generation {} skipped, writer busy", generation);
+            return;
+        }
+        lastGeneration = generation;
+        lastMillis = now;
+        long seed = automaton.getSeed();
+        try {
+            SnapshotHeader header = Snapshot.headerOf(configurationId, automaton);
+            if (capture == null || !capture.fits(header)) {
+                capture = null; // release the old image before allocating the new one
+                capture = new SnapshotImage(header);
+            }
+            capture.capture(header, automaton.getGrid());
+            SnapshotImage image = capture;
+            writer.execute(() -> {
+                try {
+                    write(generation, seed, header, image);
+                } catch (IOException | RuntimeException e) {
+                    LOGGER.error("Failed to write checkpoint at generation {}: {}", generation, e.getMessage(), e);
+                    previousGeneration = -1;
+                } finally {
+                    busy.set(false);
+                }
+            });
+        } catch (RuntimeException | OutOfMemoryError e) {
+            LOGGER.error("Checkpoint at generation {} skipped, capture failed: {}", generation, e.getMessage(), e);
+            busy.set(false);
+        }
+    }
+
+    /**
+     * Compresses and writes one checkpoint, as a delta against the previous one when possible. A change of seed starts
+     * a new run with a key frame. Runs on the writer.
+     *
+     * @param generation the generation of the image
+     * @param seed       the seed of the automaton at that generation
+     * @param header     the header of the image
+     * @param image      the captured snapshot image
+     * @throws IOException if an I/O error occurs
+     */
+    private void write(long generation, long seed, SnapshotHeader header, SnapshotImage image) throws IOException {
+        boolean newRun = !runStarted || seed != runSeed;
+        boolean key = newRun || previousGeneration < 0 || previous == null || !previous.fits(header)
+                || chainLength >= keyFrameInterval;
+        CRC32 crc = new CRC32();
+
+        String name = fileName(configurationId, seed, generation);
+        Path target = directory.resolve(name);
+        Path temporary = directory.resolve(name + ".tmp");
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            OutputStream channelOut = Channels.newOutputStream(channel);
+            DataOutputStream out = new DataOutputStream(channelOut);
+            out.write(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(key ? KIND_KEY : KIND_DELTA);
+            out.writeInt(configurationId);
+            out.writeLong(seed);
+            out.writeLong(generation);
+            out.writeLong(key ? generation : previousGeneration);
+            out.writeLong(image.size());
+            out.writeLong(0L);
+            Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+            try {
+                DeflaterOutputStream deflaterOut = new DeflaterOutputStream(channelOut, deflater, CHUNK_SIZE);
+                byte[] chunk = new byte[CHUNK_SIZE];
+                byte[] base = key ? null : new byte[CHUNK_SIZE];
+                for (int i = 0; i < image.bufferCount(); i++) {
+                    ByteBuffer buffer = image.buffer(i);
+                    for (int offset = 0; offset < buffer.capacity(); offset += CHUNK_SIZE) {
+                        int length = Math.min(CHUNK_SIZE, buffer.capacity() - offset);
+                        buffer.get(offset, chunk, 0, length);
+                        crc.update(chunk, 0, length);
+                        if (base != null) {
+                            previous.buffer(i).get(offset, base, 0, length);
+                            for (int j = 0; j < length; j++) {
+                                chunk[j] ^= base[j];
+                            }
+                        }
+                        deflaterOut.write(chunk, 0, length);
+                    }
+                }
+                deflaterOut.finish();
+                deflaterOut.flush();
+            } finally {
+                deflater.end();
+            }
+            channel.write(ByteBuffer.allocate(Long.BYTES).putLong(0, crc.getValue()), CRC_OFFSET);
+            channel.force(true);
+        }
+        try {
+            Files.move(temporary, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temporary, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+
+        capture = previous != null && previous.fits(header) ? previous : null;
+        previous = image;
+        runSeed = seed;
+        runStarted = true;
+        if (key) {
+            if (newRun) {
+                roll(seed, generation);
+            }
+            prune(seed, generation);
+            chainLength = 0;
+        }
+        previousGeneration = generation;
+        chainLength++;
+        LOGGER.debug("Checkpoint {} written at generation {}", key ? "key frame" : "delta", generation);
+    }
+
+    /**
+     * Rolls the directory over to a new run starting with the key frame at the given generation: deletes the
+     * checkpoints of other runs, and the checkpoints of this run after the key frame, which belong to an earlier
+     * attempt at it.
+     *
+     * @param seed          the seed of the new run
+     * @param keyGeneration the generation of the first key frame of the new run
+     */
+    private void roll(long seed, long keyGeneration) {
+        try {
+            for (Entry entry : list(directory)) {
+                if (!entry.isRun(configurationId, seed) || entry.generation > keyGeneration) {
+                    Files.deleteIfExists(entry.path);
+                }
+            }
+        } catch (IOException e) {
+            LOGGER.warn("Failed to roll over checkpoints in {}: {}", directory, e.getMessage());
+        }
+    }
+
+    /**
+     * Deletes the checkpoints of the run older than the chain preceding the key frame at the given generation,
+     * keeping one complete older chain as a fallback.
+     *
+     * @param seed          the seed of the run
+     * @param keyGeneration the generation of the new key frame
+     */
+    private void prune(long seed, long keyGeneration) {
+        try {
+            List<Entry> entries = list(directory);
+            entries.removeIf(entry -> !entry.isRun(configurationId, seed));
+            long fallbackKey = -1;
+            for (Entry entry : entries) {
+                if (entry.kind == KIND_KEY && entry.generation < keyGeneration) {
+                    fallbackKey = Math.max(fallbackKey, entry.generation);
+                }
+            }
+            for (Entry entry : entries) {
+                if (entry.generation < fallbackKey) {
+                    Files.deleteIfExists(entry.path);
+                }
+            }
+        } catch (IOException e) {
+            LOGGER.warn("Failed to prune checkpoints in {}: {}", directory, e.getMessage());
+        }
+    }
+
+    /**
+     * Waits for the pending checkpoint, if any, and stops the writer thread.
+     */
+    @Override
+    public void close() {
+        writer.shutdown();
+        try {
+            if (!writer.awaitTermination(1, TimeUnit.MINUTES)) {
+                LOGGER.warn("Checkpoint writer did not terminate");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Returns the directory receiving the checkpoint files.
+     *
+     * @return the checkpoint directory
+     */
+    public Path getDirectory() {
+        return directory;
+    }
+
+    /**
+     * Restores the automaton from the latest good checkpoint in the specified directory. Only the checkpoints of the
+     * run written last are considered. The newest key frame is loaded and the deltas following it are replayed in
+     * order; replay stops at the first missing, corrupt, or non-matching file, and the last verified image is
+     * restored. If the newest chain has no valid key frame, older chains of the run are tried.
+     *
+     * @param directory the checkpoint directory, must not be null
+     * @param automaton the configured {@link Automaton} to restore into, with a grid of the checkpointed size
+     * @return the header of the restored image, or null if no usable checkpoint was found
+     * @throws NullPointerException     if directory or automaton is null
+     * @throws IllegalArgumentException if the checkpointed grid size or rules do not match the automaton
+     * @throws IOException              if the directory cannot be listed or the image is not a supported snapshot
+     */
+    public static SnapshotHeader resume(@Nonnull Path directory,
+                                        @Nonnull Automaton<BooleanCell, BooleanState> automaton) throws IOException {
+        Objects.requireNonNull(directory, "Directory cannot be null");
+        Objects.requireNonNull(automaton, "Automaton cannot be null");
+        if (!Files.isDirectory(directory)) {
+            return null;
+        }
+        List<Entry> entries = list(directory);
+        Entry latest = null;
+        for (Entry entry : entries) {
+            if (latest == null || entry.modified > latest.modified) {
+                latest = entry;
+            }
+        }
+        if (latest == null) {
+            return null;
+        }
+        Entry run = latest;
+        entries.removeIf(entry -> !entry.isRun(run.configurationId, run.seed));
+        for (int k = entries.size() - 1; k >= 0; k--) {
+            if (entries.get(k).kind != KIND_KEY) {
+                continue;
+            }
+            SnapshotImage image = readPayload(entries.get(k), null, null);
+            if (image == null) {
+                continue;
+            }
+            SnapshotImage spare = null;
+            long generation = entries.get(k).generation;
+            for (int i = k + 1; i < entries.size(); i++) {
+                Entry entry = entries.get(i);
+                if (entry.kind != KIND_DELTA || entry.baseGeneration != generation) {
+                    break;
+                }
+                SnapshotImage next = readPayload(entry, image, spare);
+                if (next == null) {
+                    break;
+                }
+                spare = image;
+                image = next;
+                generation = entry.generation;
+            }
+            Snapshot.checkRules(image.header(), automaton);
+            SnapshotHeader header = image.restore(automaton.getGrid());
+            automaton.setSeed(header.seed());
+            automaton.setGeneration(header.generation());
+            LOGGER.info("Resumed from checkpoint at generation {} in {}", header.generation(), directory);
+            return header;
+        }
+        return null;
+    }
+
+    /**
+     * Reads and verifies one checkpoint, applying it to the previous image if it is a delta. The image is inflated in
+     * small pieces straight into the buffers of the target image.
+     *
+     * @param entry  the checkpoint to read
+     * @param base   the image of the base checkpoint for a delta, or null for a key frame
+     * @param target an image to reuse for the result if its geometry fits, or null
+     * @return the reconstructed image, or null if the file is unreadable or fails verification
+     */
+    private static SnapshotImage readPayload(Entry entry, SnapshotImage base, SnapshotImage target) {
+        try (InputStream fileIn = Files.newInputStream(entry.path)) {
+            DataInputStream in = new DataInputStream(fileIn);
+            in.skipNBytes(MAGIC.length + 3 * Integer.BYTES + 3 * Long.BYTES);
+            long length = in.readLong();
+            long crc = in.readLong();
+            if (base != null && base.size() != length) {
+                return null;
+            }
+            CRC32 check = new CRC32();
+            try (InflaterInputStream inflater = new InflaterInputStream(fileIn)) {
+                byte[] headerBytes = new byte[0];
+                SnapshotHeader header;
+                if (base == null) {
+                    headerBytes = Snapshot.readHeaderBytes(inflater);
+                    header = Snapshot.decodeHeader(ByteBuffer.wrap(headerBytes));
+                } else {
+                    header = base.header();
+                }
+                SnapshotImage image = target != null && target.fits(header) ? target : new SnapshotImage(header);
+                if (image.size() != length) {
+                    return null;
+                }
+                image.buffer(0).put(0, headerBytes);
+                check.update(headerBytes);
+                byte[] chunk = new byte[CHUNK_SIZE];
+                byte[] previous = base == null ? null : new byte[CHUNK_SIZE];
+                for (int i = 0; i < image.bufferCount(); i++) {
+                    ByteBuffer buffer = image.buffer(i);
+                    for (int offset = i == 0 ? headerBytes.length : 0; offset < buffer.capacity(); ) {
+                        int count = Math.min(CHUNK_SIZE, buffer.capacity() - offset);
+                        if (inflater.readNBytes(chunk, 0, count) != count) {
+                            return null;
+                        }
+                        if (previous != null) {
+                            base.buffer(i).get(offset, previous, 0, count);
+                            for (int j = 0; j < count; j++) {
+                                chunk[j] ^= previous[j];
+                            }
+                        }
+                        check.update(chunk, 0, count);
+                        buffer.put(offset, chunk, 0, count);
+                        offset += count;
+                    }
+                }
+                if (inflater.read() != -1) {
+                    return null;
+                }
+                if (check.getValue() != crc) {
+                    LOGGER.warn("Checkpoint {} failed verification", entry.path);
+                    return null;
+                }
+                return image;
+            }
+        } catch (IOException | IllegalArgumentException e) {
+            LOGGER.warn("Checkpoint {} is unreadable: {}", entry.path, e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Lists the checkpoints in a directory with a valid preamble, ordered by generation.
+     *
+     * @param directory the checkpoint directory
+     * @return the checkpoints, oldest first
+     * @throws IOException if the directory cannot be listed
+     */
+    private static List<Entry> list(Path directory) throws IOException {
+        List<Entry> entries = new ArrayList<>();
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path path : (Iterable<Path>) files.filter(f -> f.getFileName().toString().endsWith(EXTENSION))::iterator) {
+                try (DataInputStream in = new DataInputStream(Files.newInputStream(path))) {
+                    byte[] magic = in.readNBytes(MAGIC.length);
+                    if (!Arrays.equals(magic, MAGIC) || in.readInt() != VERSION) {
+                        continue;
+                    }
+                    int kind = in.readInt();
+                    int configurationId = in.readInt();
+                    long seed = in.readLong();
+                    long generation = in.readLong();
+                    long baseGeneration = in.readLong();
+                    long modified = Files.getLastModifiedTime(path).toMillis();
+                    entries.add(new Entry(path, kind, configurationId, seed, generation, baseGeneration, modified));
+                } catch (IOException e) {
+                    LOGGER.warn("Skipping unreadable checkpoint {}: {}", path, e.getMessage());
+                }
+            }
+        }
+        entries.sort((a, b) -> Long.compare(a.generation, b.generation));
+        return entries;
+    }
+
+    /**
+     * Returns the file name of the checkpoint of a run at a generation, zero-padded so names of a run sort by
+     * generation.
+     *
+     * @param configurationId the configuration id of the run
+     * @param seed            the seed of the run
+     * @param generation      the generation
+     * @return the file name
+     */
+    private static String fileName(int configurationId, long seed, long generation) {
+        return String.format("%d-%016x-%019d%s", configurationId, seed, generation, EXTENSION);
+    }
+
+    /**
+     * The preamble of a checkpoint file.
+     *
+     * @param path            the checkpoint file
+     * @param kind            the checkpoint kind
+     * @param configurationId the configuration id of the run
+     * @param seed            the seed of the run
+     * @param generation      the generation of the image
+     * @param baseGeneration  the generation of the base image for a delta
+     * @param modified        the last modification time of the file, in milliseconds since the epoch
+     */
+    private record Entry(Path path, int kind, int configurationId, long seed, long generation, long baseGeneration,
+                         long modified) {
+
+        /**
+         * Returns whether the checkpoint belongs to the specified run.
+         *
+         * @param configurationId the configuration id of the run
+         * @param seed            the seed of the run
+         * @return true if the checkpoint belongs to the run
+         */
+        boolean isRun(int configurationId, long seed) {
+            return this.configurationId == configurationId && this.seed == seed;
+        }
+    }
+}
@@ -0,0 +1,200 @@
+package com.dungeoncode.cae.core.io;
+
+import javax.annotation.Nonnull;
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * An in-memory table read from a file written by {@link ColumnarWriter}. Each column is held as one primitive array.
+ * A truncated last row group, left by an interrupted writer, is ignored.
+ */
+public final class ColumnarTable {
+
+    /**
+     * The column names.
+     */
+    private final List<String> names;
+
+    /**
+     * The column types.
+     */
+    private final List<ColumnarWriter.Type> types;
+
+    /**
+     * The column values as raw long bits, one array per column.
+     */
+    private final long[][] columns;
+
+    /**
+     * The number of rows.
+     */
+    private final int rows;
+
+    /**
+     * Constructs a table.
+     *
+     * @param names   the column names
+     * @param types   the column types
+     * @param columns the column values as raw long bits
+     * @param rows    the number of rows
+     */
+    private ColumnarTable(List<String> names, List<ColumnarWriter.Type> types, long[][] columns, int rows) {
+        this.names = names;
+        this.types = types;
+        this.columns = columns;
+        this.rows = rows;
+    }
+
+    /**
+     * Reads a columnar file.
+     *
+     * @param path the file to read, must not be null
+     * @return the table
+     * @throws NullPointerException if path is null
+     * @throws IOException          if the file cannot be read or is not a columnar file
+     */
+    public static ColumnarTable read(@Nonnull Path path) throws IOException {
+        Objects.requireNonNull(path, "Path cannot be null");
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(path), 1 << 16))) {
+            byte[] magic = new byte[ColumnarWriter.MAGIC.length];
+            in.readFully(magic);
+            if (!Arrays.equals(magic, ColumnarWriter.MAGIC)) {
+                throw new IOException("Not a columnar file: " + path);
+            }
+            int version = in.readInt();
+            if (version != ColumnarWriter.VERSION) {
+                throw new IOException("Unsupported columnar file version " + version + ": " + path);
+            }
+            int columnCount = in.readInt();
+            List<String> names = new ArrayList<>(columnCount);
+            List<ColumnarWriter.Type> types = new ArrayList<>(columnCount);
+            ColumnarWriter.Type[] allTypes = ColumnarWriter.Type.values();
+            for (int c = 0; c < columnCount; c++) {
+                byte[] name = new byte[in.readUnsignedShort()];
+                in.readFully(name);
+                names.add(new String(name, StandardCharsets.UTF_8));
+                int type = in.readUnsignedByte();
+                if (type >= allTypes.length) {
+                    throw new IOException("Unknown column type " + type + ": " + path);
+                }
+                types.add(allTypes[type]);
+            }
+
+            long[][] columns = new long[columnCount][16];
+            int rows = 0;
+            while (true) {
+                int groupRows;
+                try {
+                    groupRows = in.readInt();
+                } catch (EOFException e) {
+                    break;
+                }
+                long[][] group = new long[columnCount][groupRows];
+                try {
+                    for (int c = 0; c < columnCount; c++) {
+                        for (int i = 0; i < groupRows; i++) {
+                            group[c][i] = in.readLong();
+                        }
+                    }
+                } catch (EOFException e) {
+                    break;
+                }
+                for (int c = 0; c < columnCount; c++) {
+                    if (columns[c].length < rows + groupRows) {
+                        columns[c] = Arrays.copyOf(columns[c], Math.max(columns[c].length * 2, rows + groupRows));
+                    }
+                    System.arraycopy(group[c], 0, columns[c], rows, groupRows);
+                }
+                rows += groupRows;
+            }
+            return new ColumnarTable(List.copyOf(names), List.copyOf(types), columns, rows);
+        }
+    }
+
+    /**
+     * Returns the column names.
+     *
+     * @return an unmodifiable list of names
+     */
+    public List<String> getColumnNames() {
+        return names;
+    }
+
+    /**
+     * Returns the type of a column.
+     *
+     * @param name the column name
+     * @return the type
+     * @throws IllegalArgumentException if the column does not exist
+     */
+    public ColumnarWriter.Type getType(@Nonnull String name) {
+        return types.get(indexOf(name));
+    }
+
+    /**
+     * Returns the number of rows.
+     *
+     * @return the row count
+     */
+    public int getRowCount() {
+        return rows;
+    }
+
+    /**
+     * Returns a column as doubles, converting long columns.
+     *
+     * @param name the column name
+     * @return a new array with one value per row
+     * @throws IllegalArgumentException if the column does not exist
+     */
+    public double[] getDoubles(@Nonnull String name) {
+        int c = indexOf(name);
+        double[] values = new double[rows];
+        for (int i = 0; i < rows; i++) {
+            values[i] = types.get(c) == ColumnarWriter.Type.DOUBLE
+                    ? Double.longBitsToDouble(columns[c][i]) : columns[c][i];
+        }
+        return values;
+    }
+
+    /**
+     * Returns a column as longs, truncating double columns.
+     *
+     * @param name the column name
+     * @return a new array with one value per row
+     * @throws IllegalArgumentException if the column does not exist
+     */
+    public long[] getLongs(@Nonnull String name) {
+        int c = indexOf(name);
+        long[] values = new long[rows];
+        for (int i = 0; i < rows; i++) {
+            values[i] = types.get(c) == ColumnarWriter.Type.DOUBLE
+                    ? (long) Double.longBitsToDouble(columns[c][i]) : columns[c][i];
+        }
+        return values;
+    }
+
+    /**
+     * Returns the index of a column.
+     *
+     * @param name the column name
+     * @return the index
+     * @throws IllegalArgumentException if the column does not exist
+     */
+    private int indexOf(String name) {
+        int index = names.indexOf(Objects.requireNonNull(name, "Column name cannot be null"));
+        if (index < 0) {
+            throw new IllegalArgumentException("Unknown column: " + name);
+        }
+        return index;
+    }
+}
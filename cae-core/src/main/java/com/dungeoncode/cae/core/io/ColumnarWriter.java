@@ -0,0 +1,194 @@
+package com.dungeoncode.cae.core.io;
+
+import javax.annotation.Nonnull;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Writes a table of numeric columns to a file in a simple columnar layout, for result sets that are analyzed one
+ * column at a time (parameter sweeps, ensemble summaries). Rows are buffered and written in row groups; within a
+ * group, the values of each column are stored contiguously. A group is flushed every {@link #ROW_GROUP_SIZE} rows
+ * and on {@link #close()}, so an interrupted run loses at most the rows of the last group.
+ * <p>
+ * The file layout (big-endian) is:
+ * <pre>
+ * magic "CAECOLS\0", int version, int columnCount,
+ * per column: short nameLength, UTF-8 name bytes, byte type (0 = double, 1 = long),
+ * per row group: int rowCount, then per column rowCount values of 8 bytes each
+ * </pre>
+ * Rows may be written from several threads. Files are read back with {@link ColumnarTable#read(Path)}.
+ */
+public final class ColumnarWriter implements Closeable {
+
+    /**
+     * The file signature.
+     */
+    static final byte[] MAGIC = "CAECOLS\0".getBytes(StandardCharsets.US_ASCII);
+
+    /**
+     * The format version written by this class.
+     */
+    static final int VERSION = 1;
+
+    /**
+     * The number of rows buffered before a row group is written.
+     */
+    public static final int ROW_GROUP_SIZE = 1024;
+
+    /**
+     * The column types.
+     */
+    public enum Type {
+        /**
+         * 64-bit floating-point values.
+         */
+        DOUBLE,
+        /**
+         * 64-bit integer values.
+         */
+        LONG
+    }
+
+    /**
+     * The column names.
+     */
+    private final List<String> names;
+
+    /**
+     * The column types.
+     */
+    private final List<Type> types;
+
+    /**
+     * The buffered values of the current row group, one array per column, stored as raw long bits.
+     */
+    private final long[][] buffer;
+
+    /**
+     * The output stream.
+     */
+    private final DataOutputStream out;
+
+    /**
+     * The number of rows in the current row group.
+     */
+    private int buffered;
+
+    /**
+     * The total number of rows written.
+     */
+    private long rows;
+
+    /**
+     * Creates or replaces a columnar file and writes its header.
+     *
+     * @param path  the file to write, must not be null
+     * @param names the column names, unique and non-empty, must not be null
+     * @param types the column types, one per name, must not be null
+     * @throws NullPointerException     if an argument is null
+     * @throws IllegalArgumentException if the names are not unique or the lists differ in size
+     * @throws IOException              if the file cannot be created
+     */
+    public ColumnarWriter(@Nonnull Path path, @Nonnull List<String> names, @Nonnull List<Type> types) throws IOException {
+        Objects.requireNonNull(path, "Path cannot be null");
+        this.names = List.copyOf(Objects.requireNonNull(names, "Column names cannot be null"));
+        this.types = List.copyOf(Objects.requireNonNull(types, "Column types cannot be null"));
+        if (this.names.isEmpty() || this.names.size() != this.types.size()) {
+            throw new IllegalArgumentException("Columns must be non-empty with one type per name: names="
+                    + this.names.size() + ", types=" + this.types.size());
+        }
+        Set<String> unique = new HashSet<>(this.names);
+        if (unique.size() != this.names.size()) {
+            throw new IllegalArgumentException("Duplicate column names: " + this.names);
+        }
+        this.buffer = new long[this.names.size()][ROW_GROUP_SIZE];
+        this.out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(path), 1 << 16));
+        out.write(MAGIC);
+        out.writeInt(VERSION);
+        out.writeInt(this.names.size());
+        for (int c = 0; c < this.names.size(); c++) {
+            byte[] name = this.names.get(c).getBytes(StandardCharsets.UTF_8);
+            out.writeShort(name.length);
+            out.write(name);
+            out.writeByte(this.types.get(c).ordinal());
+        }
+        out.flush();
+    }
+
+    /**
+     * Appends a row. Values are converted to the column types: {@code double} columns take
+     * {@link Number#doubleValue()}, {@code long} columns {@link Number#longValue()}; booleans are stored as 0 or 1.
+     *
+     * @param values the values, one per column, must not be null
+     * @throws IllegalArgumentException if the number of values does not match the number of columns
+     * @throws IOException              if a row group cannot be written
+     */
+    public synchronized void writeRow(@Nonnull Object... values) throws IOException {
+        Objects.requireNonNull(values, "Values cannot be null");
+        if (values.length != names.size()) {
+            throw new IllegalArgumentException("Expected " + names.size() + " values, got " + values.length);
+        }
+        for (int c = 0; c < values.length; c++) {
+            Number number = values[c] instanceof Boolean bool ? (bool ? 1 : 0) : (Number) values[c];
+            buffer[c][buffered] = types.get(c) == Type.DOUBLE
+                    ? Double.doubleToRawLongBits(number.doubleValue()) : number.longValue();
+        }
+        buffered++;
+        rows++;
+        if (buffered == ROW_GROUP_SIZE) {
+            flush();
+        }
+    }
+
+    /**
+     * Writes the buffered rows as a row group and flushes the file.
+     *
+     * @throws IOException if an I/O error occurs
+     */
+    public synchronized void flush() throws IOException {
+        if (buffered > 0) {
+            out.writeInt(buffered);
+            for (long[] column : buffer) {
+                for (int i = 0; i < buffered; i++) {
+                    out.writeLong(column[i]);
+                }
+                Arrays.fill(column, 0, buffered, 0L);
+            }
+            buffered = 0;
+        }
+        out.flush();
+    }
+
+    /**
+     * Returns the number of rows written so far, including buffered rows.
+     *
+     * @return the row count
+     */
+    public synchronized long getRowCount() {
+        return rows;
+    }
+
+    /**
+     * Writes the buffered rows and closes the file.
+     *
+     * @throws IOException if an I/O error occurs
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        try {
+            flush();
+        } finally {
+            out.close();
+        }
+    }
+}
@@ -0,0 +1,321 @@
+package com.dungeoncode.cae.core.io;
+
+import javax.annotation.Nonnull;
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.zip.Adler32;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+/**
+ * Writes indexed-color (palette) PNG images of any size, compressing horizontal strips of rows in parallel.
+ * <p>
+ * A PNG holds a single zlib stream over all scanlines. Each strip is deflated independently and ended with a sync
+ * flush instead of a finish, except for the last one, so that the concatenated strips form one valid deflate stream;
+ * the Adler-32 checksum of the whole image is combined from the checksums of the strips. Strips are compressed on the
+ * common fork-join pool and written in order, with only a few more strips in flight than there are worker threads, so
+ * memory use is bounded by the strip size rather than the image size.
+ * <p>
+ * Pixels are read row by row from a {@link RowSource} as palette indices, one byte per pixel, and packed into the
+ * smallest bit depth (1, 2, 4 or 8) that holds the palette. Scanlines use no filter, which suits palette images.
+ */
+public final class IndexedPngWriter {
+
+    /**
+     * Supplies the palette indices of image rows. Called concurrently for different rows.
+     */
+    @FunctionalInterface
+    public interface RowSource {
+
+        /**
+         * Fills the palette indices of a row.
+         *
+         * @param y       the row
+         * @param indices the array to fill with one palette index per pixel, of the image width
+         */
+        void fill(int y, byte[] indices);
+    }
+
+    /**
+     * The PNG file signature.
+     */
+    private static final byte[] SIGNATURE = {(byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1A, '\n'};
+
+    /**
+     * The target number of uncompressed bytes per strip.
+     */
+    private static final int STRIP_BYTES = 1 << 22;
+
+    /**
+     * The modulus of the Adler-32 checksum.
+     */
+    private static final long ADLER_BASE = 65521;
+
+    /**
+     * The deflate compression level.
+     */
+    private final int compressionLevel;
+
+    /**
+     * Whether strips are compressed in parallel.
+     */
+    private boolean parallel = true;
+
+    /**
+     * Constructs a writer with the fastest compression level, which keeps large exports I/O bound.
+     */
+    public IndexedPngWriter() {
+        this(Deflater.BEST_SPEED);
+    }
+
+    /**
+     * Constructs a writer with a compression level.
+     *
+     * @param compressionLevel the deflate level, from 0 (none) to 9 (best)
+     * @throws IllegalArgumentException if the level is out of range
+     */
+    public IndexedPngWriter(int compressionLevel) {
+        if (compressionLevel < Deflater.NO_COMPRESSION || compressionLevel > Deflater.BEST_COMPRESSION) {
+            throw new IllegalArgumentException("Compression level must be between 0 and 9: " + compressionLevel);
+        }
+        this.compressionLevel = compressionLevel;
+    }
+
+    /**
+     * Writes an image, replacing any existing file.
+     *
+     * @param file    the file to write, must not be null
+     * @param width   the image width in pixels, must be positive
+     * @param height  the image height in pixels, must be positive
+     * @param palette the palette as packed 24-bit RGB colors, 1 to 256 entries, must not be null
+     * @param source  the source of the palette indices of each row, must not be null
+     * @throws NullPointerException     if file, palette or source is null
+     * @throws IllegalArgumentException if the dimensions are not positive or the palette size is out of range
+     * @throws IOException              if an I/O error occurs
+     */
+    public void write(@Nonnull Path file, int width, int height, @Nonnull int[] palette, @Nonnull RowSource source)
+            throws IOException {
+        Objects.requireNonNull(file, "File cannot be null");
+        Objects.requireNonNull(palette, "Palette cannot be null");
+        Objects.requireNonNull(source, "Row source cannot be null");
+        if (width <= 0 || height <= 0) {
+            throw new IllegalArgumentException("Width and height must be positive: width=" + width + ", height=" + height);
+        }
+        if (palette.length == 0 || palette.length > 256) {
+            throw new IllegalArgumentException("Palette must have 1 to 256 colors: " + palette.length);
+        }
+        int bitDepth = palette.length <= 2 ? 1 : palette.length <= 4 ? 2 : palette.length <= 16 ? 4 : 8;
+        long scanline = 1 + ((long) width * bitDepth + 7) / 8;
+        if (scanline > Integer.MAX_VALUE - 8) {
+            throw new IllegalArgumentException("Image too wide: " + width);
+        }
+        int stripRows = (int) Math.max(1, Math.min(height, STRIP_BYTES / scanline));
+        int strips = (height + stripRows - 1) / stripRows;
+        int window = parallel ? ForkJoinPool.getCommonPoolParallelism() + 1 : 1;
+
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file), 1 << 16))) {
+            out.write(SIGNATURE);
+            byte[] header = new byte[13];
+            putInt(header, 0, width);
+            putInt(header, 4, height);
+            header[8] = (byte) bitDepth;
+            header[9] = 3;
+            writeChunk(out, "IHDR", header, header.length);
+            byte[] colors = new byte[3 * palette.length];
+            for (int i = 0; i < palette.length; i++) {
+                colors[3 * i] = (byte) (palette[i] >> 16);
+                colors[3 * i + 1] = (byte) (palette[i] >> 8);
+                colors[3 * i + 2] = (byte) palette[i];
+            }
+            writeChunk(out, "PLTE", colors, colors.length);
+            writeChunk(out, "IDAT", new byte[]{0x78, 0x01}, 2);
+
+            ArrayDeque<CompletableFuture<Strip>> pending = new ArrayDeque<>();
+            long adler = 1;
+            int next = 0;
+            while (next < strips || !pending.isEmpty()) {
+                while (next < strips && pending.size() < window) {
+                    int start = next * stripRows;
+                    int rows = Math.min(stripRows, height - start);
+                    boolean last = next == strips - 1;
+                    pending.add(parallel
+                            ? CompletableFuture.supplyAsync(() -> compress(source, width, bitDepth, start, rows, last))
+                            : CompletableFuture.completedFuture(compress(source, width, bitDepth, start, rows, last)));
+                    next++;
+                }
+                Strip strip = join(pending.poll());
+                adler = combineAdler(adler, strip.adler(), strip.rawLength());
+                writeChunk(out, "IDAT", strip.data(), strip.length());
+            }
+            byte[] trailer = new byte[4];
+            putInt(trailer, 0, (int) adler);
+            writeChunk(out, "IDAT", trailer, trailer.length);
+            writeChunk(out, "IEND", new byte[0], 0);
+        }
+    }
+
+    /**
+     * A compressed strip.
+     *
+     * @param data      the deflated bytes
+     * @param length    the number of valid bytes in data
+     * @param adler     the Adler-32 checksum of the uncompressed strip
+     * @param rawLength the number of uncompressed bytes
+     */
+    private record Strip(byte[] data, int length, long adler, long rawLength) {
+    }
+
+    /**
+     * Reads, packs and deflates the scanlines of a strip.
+     *
+     * @param source   the row source
+     * @param width    the image width
+     * @param bitDepth the bits per pixel
+     * @param start    the first row
+     * @param rows     the number of rows
+     * @param last     whether this is the last strip, which finishes the deflate stream
+     * @return the compressed strip
+     */
+    private Strip compress(RowSource source, int width, int bitDepth, int start, int rows, boolean last) {
+        int scanline = 1 + (int) (((long) width * bitDepth + 7) / 8);
+        byte[] raw = new byte[Math.multiplyExact(scanline, rows)];
+        byte[] indices = new byte[width];
+        int pixelsPerByte = 8 / bitDepth;
+        for (int r = 0; r < rows; r++) {
+            source.fill(start + r, indices);
+            int offset = r * scanline + 1;
+            if (bitDepth == 8) {
+                System.arraycopy(indices, 0, raw, offset, width);
+                continue;
+            }
+            int mask = (1 << bitDepth) - 1;
+            for (int x = 0; x < width; x++) {
+                int shift = 8 - bitDepth * (x % pixelsPerByte + 1);
+                raw[offset + x / pixelsPerByte] |= (byte) ((indices[x] & mask) << shift);
+            }
+        }
+        Adler32 checksum = new Adler32();
+        checksum.update(raw);
+        Deflater deflater = new Deflater(compressionLevel, true);
+        try {
+            deflater.setInput(raw);
+            if (last) {
+                deflater.finish();
+            }
+            byte[] data = new byte[Math.max(64, raw.length / 4)];
+            int length = 0;
+            while (true) {
+                if (length == data.length) {
+                    data = Arrays.copyOf(data, data.length * 2);
+                }
+                int n = deflater.deflate(data, length, data.length - length,
+                        last ? Deflater.NO_FLUSH : Deflater.SYNC_FLUSH);
+                length += n;
+                if (last ? deflater.finished() : length < data.length) {
+                    break;
+                }
+            }
+            return new Strip(data, length, checksum.getValue(), raw.length);
+        } finally {
+            deflater.end();
+        }
+    }
+
+    /**
+     * Waits for a strip, unwrapping compression failures.
+     *
+     * @param future the strip being compressed
+     * @return the strip
+     */
+    private static Strip join(CompletableFuture<Strip> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Returns the Adler-32 checksum of two concatenated byte sequences from the checksums of each.
+     *
+     * @param first       the checksum of the first sequence
+     * @param second      the checksum of the second sequence
+     * @param secondBytes the length of the second sequence
+     * @return the checksum of the concatenation
+     */
+    static long combineAdler(long first, long second, long secondBytes) {
+        long remainder = secondBytes % ADLER_BASE;
+        long sum1 = first & 0xFFFF;
+        long sum2 = remainder * sum1 % ADLER_BASE;
+        sum1 += (second & 0xFFFF) + ADLER_BASE - 1;
+        sum2 += (first >>> 16) + (second >>> 16) + ADLER_BASE - remainder;
+        sum1 %= ADLER_BASE;
+        sum2 %= ADLER_BASE;
+        return sum2 << 16 | sum1;
+    }
+
+    /**
+     * Writes a chunk with its length and CRC.
+     *
+     * @param out    the stream
+     * @param type   the four-letter chunk type
+     * @param data   the chunk data
+     * @param length the number of data bytes
+     * @throws IOException if an I/O error occurs
+     */
+    private static void writeChunk(DataOutputStream out, String type, byte[] data, int length) throws IOException {
+        byte[] name = type.getBytes(StandardCharsets.US_ASCII);
+        CRC32 crc = new CRC32();
+        crc.update(name);
+        crc.update(data, 0, length);
+        out.writeInt(length);
+        out.write(name);
+        out.write(data, 0, length);
+        out.writeInt((int) crc.getValue());
+    }
+
+    /**
+     * Stores a big-endian int.
+     *
+     * @param buffer the buffer
+     * @param offset the offset
+     * @param value  the value
+     */
+    private static void putInt(byte[] buffer, int offset, int value) {
+        buffer[offset] = (byte) (value >>> 24);
+        buffer[offset + 1] = (byte) (value >>> 16);
+        buffer[offset + 2] = (byte) (value >>> 8);
+        buffer[offset + 3] = (byte) value;
+    }
+
+    /**
+     * Sets whether strips are compressed in parallel on the common fork-join pool. The output is identical either way.
+     *
+     * @param parallel true to compress in parallel
+     */
+    public void setParallel(boolean parallel) {
+        this.parallel = parallel;
+    }
+
+    /**
+     * Returns the deflate compression level.
+     *
+     * @return the level
+     */
+    public int getCompressionLevel() {
+        return compressionLevel;
+    }
+}
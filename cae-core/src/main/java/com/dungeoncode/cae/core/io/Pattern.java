@@ -0,0 +1,208 @@
+package com.dungeoncode.cae.core.io;
+
+import com.dungeoncode.cae.core.Grid;
+import com.dungeoncode.cae.core.impl.BooleanCell;
+import com.dungeoncode.cae.core.impl.BooleanState;
+import com.dungeoncode.cae.core.impl.packed.PackedBooleanGrid;
+
+import javax.annotation.Nonnull;
+import java.util.Objects;
+
+/**
+ * An immutable, bit-packed two-state pattern such as a glider or a gun, decoded from a pattern file by
+ * {@link PatternReader}. Rows are stored as 64-bit words (bit {@code x % 64} of word {@code x / 64}), so stamping a
+ * pattern into a {@link PackedBooleanGrid} writes each row a word at a time with
+ * {@link PackedBooleanGrid#setRun(int, int, long, long)}. Other grids are written cell by cell, skipping all-dead
+ * words unless the bounding box is cleared.
+ */
+public final class Pattern {
+
+    /**
+     * The name of the pattern, taken from the pattern file or its file name.
+     */
+    private final String name;
+
+    /**
+     * The number of columns of the pattern's bounding box.
+     */
+    private final int width;
+
+    /**
+     * The number of rows of the pattern's bounding box.
+     */
+    private final int height;
+
+    /**
+     * The number of 64-bit words per row.
+     */
+    private final int wordsPerRow;
+
+    /**
+     * The live cells, one bit per cell, in row-major order.
+     */
+    private final long[] bits;
+
+    /**
+     * Constructs a pattern from packed rows. The array is owned by the pattern and must not be modified afterwards.
+     *
+     * @param name   the name of the pattern, must not be null
+     * @param width  the number of columns, must be positive
+     * @param height the number of rows, must be positive
+     * @param bits   the live cells, {@code height * ceil(width / 64)} words in row-major order, must not be null
+     * @throws NullPointerException     if name or bits is null
+     * @throws IllegalArgumentException if the dimensions are not positive or do not match the bits
+     */
+    Pattern(@Nonnull String name, int width, int height, @Nonnull long[] bits) {
+        this.name = Objects.requireNonNull(name, "Name cannot be null");
+        Objects.requireNonNull(bits, "Bits cannot be null");
+        if (width <= 0 || height <= 0) {
+            throw new IllegalArgumentException("Width and height must be positive: width=" + width + ", height=" + height);
+        }
+        this.width = width;
+        this.height = height;
+        this.wordsPerRow = (width + 63) >>> 6;
+        if (bits.length != (long) wordsPerRow * height) {
+            throw new IllegalArgumentException("Pattern bits do not match size " + width + "x" + height);
+        }
+        this.bits = bits;
+    }
+
+    /**
+     * Returns whether the cell at the given pattern coordinates is live.
+     *
+     * @param x the column, between 0 and width - 1
+     * @param y the row, between 0 and height - 1
+     * @return true if the cell is live
+     */
+    public boolean isLive(int x, int y) {
+        return (bits[y * wordsPerRow + (x >>> 6)] & (1L << x)) != 0;
+    }
+
+    /**
+     * Returns the number of live cells of the pattern.
+     *
+     * @return the population
+     */
+    public long getPopulation() {
+        long population = 0;
+        for (long word : bits) {
+            population += Long.bitCount(word);
+        }
+        return population;
+    }
+
+    /**
+     * Stamps the pattern into a grid with its top-left corner at the given cell, setting the live cells of the pattern
+     * to active. Coordinates wrap around the grid edges. When {@code clear} is true, the dead cells of the bounding box
+     * are set to inactive as well; otherwise they are left untouched.
+     *
+     * @param grid  the {@link Grid} to stamp into, must not be null and fully populated with cells
+     * @param x0    the grid column of the pattern's left edge
+     * @param y0    the grid row of the pattern's top edge
+     * @param clear whether to clear the dead cells of the bounding box
+     * @throws NullPointerException if grid is null
+     */
+    public void stamp(@Nonnull Grid<BooleanCell, BooleanState> grid, int x0, int y0, boolean clear) {
+        Objects.requireNonNull(grid, "Grid cannot be null");
+        if (grid instanceof PackedBooleanGrid packed) {
+            blit(packed, x0, y0, clear);
+            return;
+        }
+        int gridWidth = grid.getWidth();
+        int gridHeight = grid.getHeight();
+        for (int y = 0; y < height; y++) {
+            int gy = Math.floorMod(y0 + y, gridHeight);
+            int rowBase = y * wordsPerRow;
+            for (int w = 0; w < wordsPerRow; w++) {
+                long word = bits[rowBase + w];
+                int xBase = w << 6;
+                if (clear) {
+                    int xEnd = Math.min(width, xBase + 64);
+                    for (int x = xBase; x < xEnd; x++) {
+                        boolean live = (word & (1L << x)) != 0;
+                        grid.getCell(Math.floorMod(x0 + x, gridWidth), gy).setState(live, false, 0);
+                    }
+                } else {
+                    while (word != 0) {
+                        int x = xBase + Long.numberOfTrailingZeros(word);
+                        grid.getCell(Math.floorMod(x0 + x, gridWidth), gy).setState(true, false, 0);
+                        word &= word - 1;
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Stamps the pattern into a packed grid a word at a time, splitting each word where it wraps around the grid's
+     * right edge.
+     *
+     * @param grid  the grid to stamp into
+     * @param x0    the grid column of the pattern's left edge
+     * @param y0    the grid row of the pattern's top edge
+     * @param clear whether to clear the dead cells of the bounding box
+     */
+    private void blit(PackedBooleanGrid grid, int x0, int y0, boolean clear) {
+        int gridWidth = grid.getWidth();
+        int gridHeight = grid.getHeight();
+        for (int y = 0; y < height; y++) {
+            int gy = Math.floorMod(y0 + y, gridHeight);
+            int rowBase = y * wordsPerRow;
+            for (int w = 0; w < wordsPerRow; w++) {
+                long live = bits[rowBase + w];
+                int cells = Math.min(64, width - (w << 6));
+                long mask = clear ? (cells == 64 ? -1L : (1L << cells) - 1) : live;
+                int gx = Math.floorMod(x0 + (w << 6), gridWidth);
+                while (mask != 0) {
+                    int span = gridWidth - gx;
+                    if (span >= 64) {
+                        grid.setRun(gx, gy, live, mask);
+                        break;
+                    }
+                    long spanMask = (1L << span) - 1;
+                    grid.setRun(gx, gy, live & spanMask, mask & spanMask);
+                    live >>>= span;
+                    mask >>>= span;
+                    gx = 0;
+                }
+            }
+        }
+    }
+
+    /**
+     * Stamps the pattern centered in the grid, on top of its current contents.
+     *
+     * @param grid the {@link Grid} to stamp into, must not be null and fully populated with cells
+     */
+    public void stampCentered(@Nonnull Grid<BooleanCell, BooleanState> grid) {
+        Objects.requireNonNull(grid, "Grid cannot be null");
+        stamp(grid, (grid.getWidth() - width) / 2, (grid.getHeight() - height) / 2, false);
+    }
+
+    /**
+     * Returns the name of the pattern.
+     *
+     * @return the pattern name
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Returns the number of columns of the pattern's bounding box.
+     *
+     * @return the pattern width
+     */
+    public int getWidth() {
+        return width;
+    }
+
+    /**
+     * Returns the number of rows of the pattern's bounding box.
+     *
+     * @return the pattern height
+     */
+    public int getHeight() {
+        return height;
+    }
+}
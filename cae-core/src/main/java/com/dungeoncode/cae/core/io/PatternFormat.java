@@ -0,0 +1,63 @@
+package com.dungeoncode.cae.core.io;
+
+import javax.annotation.Nonnull;
+import java.util.Locale;
+import java.util.Objects;
+
+/**
+ * The pattern file formats supported by {@link PatternReader} and {@link PatternWriter}.
+ */
+public enum PatternFormat {
+
+    /**
+     * Run Length Encoded, the format used by Golly and most pattern collections ({@code .rle}).
+     */
+    RLE(".rle"),
+
+    /**
+     * Life 1.06, one signed {@code x y} coordinate pair per live cell ({@code .lif}, {@code .life}).
+     */
+    LIFE_106(".lif");
+
+    /**
+     * The canonical file extension of the format, including the dot.
+     */
+    private final String extension;
+
+    /**
+     * Constructs a format with its canonical file extension.
+     *
+     * @param extension the file extension, including the dot
+     */
+    PatternFormat(String extension) {
+        this.extension = extension;
+    }
+
+    /**
+     * Returns the canonical file extension of the format.
+     *
+     * @return the file extension, including the dot
+     */
+    public String getExtension() {
+        return extension;
+    }
+
+    /**
+     * Determines the format of a pattern file from its name.
+     *
+     * @param fileName the file name, must not be null
+     * @return the matching format
+     * @throws NullPointerException     if fileName is null
+     * @throws IllegalArgumentException if the extension is not recognized
+     */
+    public static PatternFormat fromFileName(@Nonnull String fileName) {
+        String lower = Objects.requireNonNull(fileName, "File name cannot be null").toLowerCase(Locale.ROOT);
+        if (lower.endsWith(".rle")) {
+            return RLE;
+        }
+        if (lower.endsWith(".lif") || lower.endsWith(".life")) {
+            return LIFE_106;
+        }
+        throw new IllegalArgumentException("Unrecognized pattern file extension: " + fileName);
+    }
+}
@@ -0,0 +1,133 @@
+package com.dungeoncode.cae.core.io;
+
+import javax.annotation.Nonnull;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A cache of decoded {@link Pattern} objects, loaded from the bundled pattern resources under {@code /patterns/} or
+ * from pattern files. Each pattern is decoded once and shared afterwards; file-based entries are keyed by path and
+ * remember the modification time they were decoded at, so an edited file is decoded again and replaces its entry.
+ */
+public class PatternLibrary {
+
+    /**
+     * The classpath directory holding the bundled patterns.
+     */
+    public static final String RESOURCE_DIRECTORY = "/patterns/";
+
+    /**
+     * The shared library instance.
+     */
+    private static final PatternLibrary DEFAULT = new PatternLibrary();
+
+    /**
+     * The decoded bundled patterns, keyed by resource name.
+     */
+    private final Map<String, Pattern> cache = new ConcurrentHashMap<>();
+
+    /**
+     * The decoded pattern files, keyed by absolute path.
+     */
+    private final Map<Path, FileEntry> files = new ConcurrentHashMap<>();
+
+    /**
+     * Returns the shared library instance.
+     *
+     * @return the default library
+     */
+    public static PatternLibrary getDefault() {
+        return DEFAULT;
+    }
+
+    /**
+     * Returns a bundled pattern by name, for example {@code "glider"} for {@code /patterns/glider.rle}. RLE is tried
+     * first, then Life 1.06.
+     *
+     * @param name the pattern name, without extension, must not be null
+     * @return the decoded pattern
+     * @throws NullPointerException     if name is null
+     * @throws IllegalArgumentException if no bundled pattern has that name
+     * @throws UncheckedIOException     if the bundled pattern cannot be decoded
+     */
+    public Pattern get(@Nonnull String name) {
+        Objects.requireNonNull(name, "Name cannot be null");
+        return cache.computeIfAbsent("resource:" + name, key -> {
+            for (PatternFormat format : PatternFormat.values()) {
+                String resource = RESOURCE_DIRECTORY + name + format.getExtension();
+                try (InputStream in = PatternLibrary.class.getResourceAsStream(resource)) {
+                    if (in != null) {
+                        return PatternReader.readPattern(
+                                new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8)), format, name);
+                    }
+                } catch (IOException e) {
+                    throw new UncheckedIOException("Failed to load pattern " + resource + ": " + e.getMessage(), e);
+                }
+            }
+            throw new IllegalArgumentException("No bundled pattern named: " + name);
+        });
+    }
+
+    /**
+     * Returns the pattern stored in a file, decoding it unless an up-to-date copy is cached. The format is determined
+     * from the file extension.
+     *
+     * @param path the pattern file, must not be null
+     * @return the decoded pattern
+     * @throws NullPointerException     if path is null
+     * @throws IllegalArgumentException if the file extension is not recognized
+     * @throws IOException              if an I/O error occurs or the file is malformed
+     */
+    public Pattern load(@Nonnull Path path) throws IOException {
+        Objects.requireNonNull(path, "Path cannot be null");
+        Path absolute = path.toAbsolutePath().normalize();
+        long modified = Files.getLastModifiedTime(absolute).toMillis();
+        FileEntry entry = files.get(absolute);
+        if (entry != null && entry.modified() == modified) {
+            return entry.pattern();
+        }
+        String fileName = absolute.getFileName().toString();
+        PatternFormat format = PatternFormat.fromFileName(fileName);
+        Pattern pattern;
+        try (BufferedReader in = Files.newBufferedReader(absolute, StandardCharsets.UTF_8)) {
+            pattern = PatternReader.readPattern(in, format, fileName.substring(0, fileName.lastIndexOf('.')));
+        }
+        files.put(absolute, new FileEntry(pattern, modified));
+        return pattern;
+    }
+
+    /**
+     * Returns the number of cached patterns, bundled and file-based.
+     *
+     * @return the cache size
+     */
+    public int size() {
+        return cache.size() + files.size();
+    }
+
+    /**
+     * Removes all cached patterns.
+     */
+    public void clear() {
+        cache.clear();
+        files.clear();
+    }
+
+    /**
+     * A decoded pattern file and the modification time it was decoded at.
+     *
+     * @param pattern  the decoded pattern
+     * @param modified the modification time of the file, in milliseconds since the epoch
+     */
+    private record FileEntry(Pattern pattern, long modified) {
+    }
+}
@@ -0,0 +1,359 @@
+package com.dungeoncode.cae.core.io;
+
+import com.dungeoncode.cae.core.Grid;
+import com.dungeoncode.cae.core.impl.BooleanCell;
+import com.dungeoncode.cae.core.impl.BooleanState;
+
+import javax.annotation.Nonnull;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * Streaming readers for the RLE and Life 1.06 pattern formats. Decoded cells are pushed to a {@link PatternSink} as
+ * runs while the input is scanned, so a pattern of any size is read in a single pass with constant extra memory when
+ * it goes straight into a {@link Grid} (see {@link #read(Path, Grid)}). {@link #readPattern(Reader, PatternFormat,
+ * String)} decodes into a bit-packed {@link Pattern} for reuse.
+ */
+public final class PatternReader {
+
+    private PatternReader() {
+    }
+
+    /**
+     * Reads a pattern in the given format, pushing its live cells to a sink.
+     *
+     * @param in     the pattern source, must not be null
+     * @param format the format of the source, must not be null
+     * @param sink   the receiver of the decoded cells, must not be null
+     * @return the pattern name declared in the source, or null if none
+     * @throws NullPointerException if any argument is null
+     * @throws IOException          if an I/O error occurs or the source is malformed
+     */
+    public static String read(@Nonnull Reader in, @Nonnull PatternFormat format, @Nonnull PatternSink sink)
+            throws IOException {
+        Objects.requireNonNull(format, "Format cannot be null");
+        return switch (format) {
+            case RLE -> readRle(in, sink);
+            case LIFE_106 -> readLife106(in, sink);
+        };
+    }
+
+    /**
+     * Reads an RLE pattern, pushing its live runs to a sink. The {@code x = .., y = ..} header is reported through
+     * {@link PatternSink#size(int, int)}; {@code #N} comments provide the name, other comments are skipped.
+     * Multi-state letters are treated as live cells.
+     *
+     * @param in   the pattern source, must not be null
+     * @param sink the receiver of the decoded cells, must not be null
+     * @return the pattern name declared in the source, or null if none
+     * @throws NullPointerException if any argument is null
+     * @throws IOException          if an I/O error occurs or the source is malformed
+     */
+    public static String readRle(@Nonnull Reader in, @Nonnull PatternSink sink) throws IOException {
+        Objects.requireNonNull(in, "Reader cannot be null");
+        Objects.requireNonNull(sink, "Sink cannot be null");
+        BufferedReader reader = in instanceof BufferedReader buffered ? buffered : new BufferedReader(in);
+        String name = null;
+        boolean headerSeen = false;
+        int x = 0;
+        int y = 0;
+        int count = 0;
+        boolean lineStart = true;
+        int c;
+        while ((c = reader.read()) != -1) {
+            if (lineStart && (c == '#' || (!headerSeen && c == 'x'))) {
+                String line = reader.readLine();
+                if (c == '#') {
+                    if (line != null && line.startsWith("N ") && name == null) {
+                        name = line.substring(2).trim();
+                    }
+                } else {
+                    int[] size = parseRleHeader("x" + (line == null ? "" : line));
+                    sink.size(size[0], size[1]);
+                    headerSeen = true;
+                }
+                continue;
+            }
+            lineStart = c == '\n' || c == '\r';
+            if (c >= '0' && c <= '9') {
+                count = count * 10 + (c - '0');
+                if (count < 0) {
+                    throw new IOException("Run count overflow at row " + y);
+                }
+                continue;
+            }
+            int run = count == 0 ? 1 : count;
+            switch (c) {
+                case 'b', '.' -> {
+                    x += run;
+                    count = 0;
+                }
+                case '$' -> {
+                    y += run;
+                    x = 0;
+                    count = 0;
+                }
+                case '!' -> {
+                    return name;
+                }
+                case ' ', '\t', '\n', '\r' -> {
+                    // whitespace may appear anywhere between tokens
+                }
+                default -> {
+                    if (c == 'o' || (c >= 'A' && c <= 'X')) {
+                        sink.live(x, y, run);
+                        x += run;
+                        count = 0;
+                    } else if (c < 'p' || c > 'y') {
+                        throw new IOException("Unexpected character '" + (char) c + "' at row " + y);
+                    }
+                    // 'p'..'y' are multi-state prefixes; the following letter carries the run
+                }
+            }
+        }
+        return name;
+    }
+
+    /**
+     * Parses an RLE header line of the form {@code x = m, y = n, rule = ...}.
+     *
+     * @param line the header line
+     * @return the declared width and height
+     * @throws IOException if the header is malformed
+     */
+    private static int[] parseRleHeader(String line) throws IOException {
+        int width = -1;
+        int height = -1;
+        for (String field : line.split(",")) {
+            String[] pair = field.split("=", 2);
+            if (pair.length != 2) {
+                continue;
+            }
+            String key = pair[0].trim();
+            try {
+                if (key.equals("x")) {
+                    width = Integer.parseInt(pair[1].trim());
+                } else if (key.equals("y")) {
+                    height = Integer.parseInt(pair[1].trim());
+                }
+            } catch (NumberFormatException e) {
+                throw new IOException("Malformed RLE header: " + line, e);
+            }
+        }
+        if (width < 0 || height < 0) {
+            throw new IOException("Malformed RLE header: " + line);
+        }
+        return new int[]{width, height};
+    }
+
+    /**
+     * Reads a Life 1.06 pattern, pushing its live cells to a sink. Consecutive cells on the same row are coalesced
+     * into runs. Lines starting with {@code #} are comments; a {@code #N} comment provides the name.
+     *
+     * @param in   the pattern source, must not be null
+     * @param sink the receiver of the decoded cells, must not be null
+     * @return the pattern name declared in the source, or null if none
+     * @throws NullPointerException if any argument is null
+     * @throws IOException          if an I/O error occurs or the source is malformed
+     */
+    public static String readLife106(@Nonnull Reader in, @Nonnull PatternSink sink) throws IOException {
+        Objects.requireNonNull(in, "Reader cannot be null");
+        Objects.requireNonNull(sink, "Sink cannot be null");
+        BufferedReader reader = in instanceof BufferedReader buffered ? buffered : new BufferedReader(in);
+        String name = null;
+        boolean pending = false;
+        int runX = 0;
+        int runY = 0;
+        int runLength = 0;
+        String line;
+        while ((line = reader.readLine()) != null) {
+            line = line.trim();
+            if (line.isEmpty()) {
+                continue;
+            }
+            if (line.startsWith("#")) {
+                if (line.startsWith("#N ") && name == null) {
+                    name = line.substring(3).trim();
+                }
+                continue;
+            }
+            int separator = line.indexOf(' ');
+            if (separator < 0) {
+                separator = line.indexOf('\t');
+            }
+            int x;
+            int y;
+            try {
+                x = Integer.parseInt(line.substring(0, Math.max(0, separator)).trim());
+                y = Integer.parseInt(line.substring(separator + 1).trim());
+            } catch (NumberFormatException | IndexOutOfBoundsException e) {
+                throw new IOException("Malformed Life 1.06 line: " + line, e);
+            }
+            if (pending && y == runY && x == runX + runLength) {
+                runLength++;
+            } else {
+                if (pending) {
+                    sink.live(runX, runY, runLength);
+                }
+                pending = true;
+                runX = x;
+                runY = y;
+                runLength = 1;
+            }
+        }
+        if (pending) {
+            sink.live(runX, runY, runLength);
+        }
+        return name;
+    }
+
+    /**
+     * Decodes a pattern into a bit-packed {@link Pattern}. RLE patterns are packed directly into the declared
+     * bounding box; Life 1.06 patterns, which declare no size, are buffered as runs and normalized to their bounding
+     * box.
+     *
+     * @param in          the pattern source, must not be null
+     * @param format      the format of the source, must not be null
+     * @param defaultName the name to use if the source declares none, must not be null
+     * @return the decoded pattern
+     * @throws NullPointerException if any argument is null
+     * @throws IOException          if an I/O error occurs, the source is malformed, or it holds no live cells
+     */
+    public static Pattern readPattern(@Nonnull Reader in, @Nonnull PatternFormat format, @Nonnull String defaultName)
+            throws IOException {
+        Objects.requireNonNull(defaultName, "Default name cannot be null");
+        PatternBuilder builder = new PatternBuilder();
+        String name = read(in, format, builder);
+        return builder.build(name != null ? name : defaultName);
+    }
+
+    /**
+     * Reads a pattern file straight into a grid, centered, on top of its current contents. The format is determined
+     * from the file extension. RLE patterns are centered on their declared size; Life 1.06 coordinates are taken
+     * relative to the grid center. Cells outside the grid wrap around its edges.
+     *
+     * @param path the pattern file, must not be null
+     * @param grid the {@link Grid} to stamp into, must not be null and fully populated with cells
+     * @return the pattern name declared in the file, or null if none
+     * @throws NullPointerException     if path or grid is null
+     * @throws IllegalArgumentException if the file extension is not recognized
+     * @throws IOException              if an I/O error occurs or the file is malformed
+     */
+    public static String read(@Nonnull Path path, @Nonnull Grid<BooleanCell, BooleanState> grid) throws IOException {
+        Objects.requireNonNull(path, "Path cannot be null");
+        Objects.requireNonNull(grid, "Grid cannot be null");
+        PatternFormat format = PatternFormat.fromFileName(path.getFileName().toString());
+        try (BufferedReader in = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+            return read(in, format, new GridSink(grid));
+        }
+    }
+
+    /**
+     * Stamps decoded runs into a grid, wrapping around its edges.
+     */
+    private static final class GridSink implements PatternSink {
+        private final Grid<BooleanCell, BooleanState> grid;
+        private int originX;
+        private int originY;
+
+        GridSink(Grid<BooleanCell, BooleanState> grid) {
+            this.grid = grid;
+            this.originX = grid.getWidth() / 2;
+            this.originY = grid.getHeight() / 2;
+        }
+
+        @Override
+        public void size(int width, int height) {
+            originX = (grid.getWidth() - width) / 2;
+            originY = (grid.getHeight() - height) / 2;
+        }
+
+        @Override
+        public void live(int x, int y, int length) {
+            int gy = Math.floorMod(originY + y, grid.getHeight());
+            int end = Math.min(length, grid.getWidth());
+            for (int i = 0; i < end; i++) {
+                grid.getCell(Math.floorMod(originX + x + i, grid.getWidth()), gy).setState(true, false, 0);
+            }
+        }
+    }
+
+    /**
+     * Packs decoded runs into the rows of a {@link Pattern}. When the size is declared up front, runs go straight
+     * into the packed rows; otherwise they are buffered and packed once the bounding box is known.
+     */
+    private static final class PatternBuilder implements PatternSink {
+        private int width = -1;
+        private int height = -1;
+        private int wordsPerRow;
+        private long[] bits;
+        private int[] runs = new int[48];
+        private int runCount;
+
+        @Override
+        public void size(int width, int height) {
+            if (width > 0 && height > 0) {
+                this.width = width;
+                this.height = height;
+                this.wordsPerRow = (width + 63) >>> 6;
+                this.bits = new long[Math.toIntExact((long) wordsPerRow * height)];
+            }
+        }
+
+        @Override
+        public void live(int x, int y, int length) {
+            if (bits != null) {
+                setRun(x, y, length);
+                return;
+            }
+            if (runCount * 3 + 3 > runs.length) {
+                runs = Arrays.copyOf(runs, runs.length * 2);
+            }
+            runs[runCount * 3] = x;
+            runs[runCount * 3 + 1] = y;
+            runs[runCount * 3 + 2] = length;
+            runCount++;
+        }
+
+        private void setRun(int x, int y, int length) {
+            if (y < 0 || y >= height) {
+                return;
+            }
+            int from = Math.max(0, x);
+            int to = Math.min(width, x + length);
+            int rowBase = y * wordsPerRow;
+            for (int i = from; i < to; i++) {
+                bits[rowBase + (i >>> 6)] |= 1L << i;
+            }
+        }
+
+        Pattern build(String name) throws IOException {
+            if (bits == null) {
+                if (runCount == 0) {
+                    throw new IOException("Pattern has no live cells: " + name);
+                }
+                int minX = Integer.MAX_VALUE;
+                int minY = Integer.MAX_VALUE;
+                int maxX = Integer.MIN_VALUE;
+                int maxY = Integer.MIN_VALUE;
+                for (int i = 0; i < runCount; i++) {
+                    minX = Math.min(minX, runs[i * 3]);
+                    maxX = Math.max(maxX, runs[i * 3] + runs[i * 3 + 2] - 1);
+                    minY = Math.min(minY, runs[i * 3 + 1]);
+                    maxY = Math.max(maxY, runs[i * 3 + 1]);
+                }
+                size(maxX - minX + 1, maxY - minY + 1);
+                for (int i = 0; i < runCount; i++) {
+                    setRun(runs[i * 3] - minX, runs[i * 3 + 1] - minY, runs[i * 3 + 2]);
+                }
+            }
+            return new Pattern(name, width, height, bits);
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package com.dungeoncode.cae.core.io;
+
+/**
+ * Receives the cells of a pattern as they are decoded by {@link PatternReader}, so that a pattern can be streamed
+ * straight into its destination (a grid or a {@link Pattern}) without an intermediate representation.
+ */
+@FunctionalInterface
+public interface PatternSink {
+
+    /**
+     * Called once before any run when the format declares the size of the pattern (RLE); not called otherwise.
+     *
+     * @param width  the declared number of columns
+     * @param height the declared number of rows
+     */
+    default void size(int width, int height) {
+    }
+
+    /**
+     * Receives a horizontal run of live cells. Coordinates are relative to the pattern origin and may be negative
+     * for formats with signed coordinates (Life 1.06).
+     *
+     * @param x      the column of the first cell of the run
+     * @param y      the row of the run
+     * @param length the number of live cells in the run, at least 1
+     */
+    void live(int x, int y, int length);
+}
@@ -0,0 +1,185 @@
+package com.dungeoncode.cae.core.io;
+
+import com.dungeoncode.cae.core.Grid;
+import com.dungeoncode.cae.core.impl.BooleanCell;
+import com.dungeoncode.cae.core.impl.BooleanState;
+
+import javax.annotation.Nonnull;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Objects;
+
+/**
+ * Streaming writers for the RLE and Life 1.06 pattern formats. The live cells of a grid are encoded while the grid
+ * is scanned, with no intermediate copy: RLE output takes one pass to find the bounding box and one pass to emit the
+ * runs; Life 1.06 output takes a single pass.
+ */
+public final class PatternWriter {
+
+    /**
+     * The maximum length of an RLE body line, as recommended by the format.
+     */
+    private static final int RLE_LINE_LENGTH = 70;
+
+    private PatternWriter() {
+    }
+
+    /**
+     * Writes the live cells of a grid to a file in the format given by its extension.
+     *
+     * @param path the file to write, must not be null
+     * @param grid the {@link Grid} to encode, must not be null
+     * @param name the pattern name to record, or null for none
+     * @throws NullPointerException     if path or grid is null
+     * @throws IllegalArgumentException if the file extension is not recognized
+     * @throws IOException              if an I/O error occurs
+     */
+    public static void write(@Nonnull Path path, @Nonnull Grid<BooleanCell, BooleanState> grid, String name)
+            throws IOException {
+        Objects.requireNonNull(path, "Path cannot be null");
+        PatternFormat format = PatternFormat.fromFileName(path.getFileName().toString());
+        try (BufferedWriter out = Files.newBufferedWriter(path, StandardCharsets.UTF_8)) {
+            switch (format) {
+                case RLE -> writeRle(grid, out, name, "B3/S23");
+                case LIFE_106 -> writeLife106(grid, out, name);
+            }
+        }
+    }
+
+    /**
+     * Writes the live cells of a grid as an RLE pattern cropped to their bounding box. An empty grid produces a
+     * {@code 0 x 0} pattern.
+     *
+     * @param grid the {@link Grid} to encode, must not be null
+     * @param out  the destination, must not be null
+     * @param name the pattern name to record as a {@code #N} comment, or null for none
+     * @param rule the rule to record in the header, or null for none
+     * @throws NullPointerException if grid or out is null
+     * @throws IOException          if an I/O error occurs
+     */
+    public static void writeRle(@Nonnull Grid<BooleanCell, BooleanState> grid, @Nonnull Writer out, String name,
+                                String rule) throws IOException {
+        Objects.requireNonNull(grid, "Grid cannot be null");
+        Objects.requireNonNull(out, "Writer cannot be null");
+        int width = grid.getWidth();
+        int height = grid.getHeight();
+        int minX = width;
+        int minY = height;
+        int maxX = -1;
+        int maxY = -1;
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                if (grid.getCell(x, y).getState().getValue()) {
+                    minX = Math.min(minX, x);
+                    maxX = Math.max(maxX, x);
+                    minY = Math.min(minY, y);
+                    maxY = y;
+                }
+            }
+        }
+        if (name != null) {
+            out.write("#N " + name + "\n");
+        }
+        int patternWidth = maxX < 0 ? 0 : maxX - minX + 1;
+        int patternHeight = maxY < 0 ? 0 : maxY - minY + 1;
+        out.write("x = " + patternWidth + ", y = " + patternHeight + (rule != null ? ", rule = " + rule : "") + "\n");
+
+        RleLine line = new RleLine(out);
+        int blankRows = 0;
+        for (int y = minY; y <= maxY; y++) {
+            int x = minX;
+            boolean rowStarted = false;
+            while (x <= maxX) {
+                boolean live = grid.getCell(x, y).getState().getValue();
+                int run = 1;
+                while (x + run <= maxX && grid.getCell(x + run, y).getState().getValue() == live) {
+                    run++;
+                }
+                if (live) {
+                    if (!rowStarted) {
+                        if (blankRows > 0) {
+                            line.token(blankRows, '$');
+                            blankRows = 0;
+                        }
+                        rowStarted = true;
+                    }
+                    line.token(run, 'o');
+                } else if (x + run <= maxX) {
+                    // leading or inner dead run; trailing dead cells of a row are omitted
+                    if (!rowStarted && blankRows > 0) {
+                        line.token(blankRows, '$');
+                        blankRows = 0;
+                        rowStarted = true;
+                    }
+                    line.token(run, 'b');
+                }
+                x += run;
+            }
+            blankRows++;
+        }
+        line.token(1, '!');
+        line.finish();
+    }
+
+    /**
+     * Writes the live cells of a grid as a Life 1.06 pattern, with coordinates relative to the grid center.
+     *
+     * @param grid the {@link Grid} to encode, must not be null
+     * @param out  the destination, must not be null
+     * @param name the pattern name to record as a {@code #N} comment, or null for none
+     * @throws NullPointerException if grid or out is null
+     * @throws IOException          if an I/O error occurs
+     */
+    public static void writeLife106(@Nonnull Grid<BooleanCell, BooleanState> grid, @Nonnull Writer out, String name)
+            throws IOException {
+        Objects.requireNonNull(grid, "Grid cannot be null");
+        Objects.requireNonNull(out, "Writer cannot be null");
+        out.write("#Life 1.06\n");
+        if (name != null) {
+            out.write("#N " + name + "\n");
+        }
+        int centerX = grid.getWidth() / 2;
+        int centerY = grid.getHeight() / 2;
+        for (int y = 0; y < grid.getHeight(); y++) {
+            for (int x = 0; x < grid.getWidth(); x++) {
+                if (grid.getCell(x, y).getState().getValue()) {
+                    out.write(Integer.toString(x - centerX));
+                    out.write(' ');
+                    out.write(Integer.toString(y - centerY));
+                    out.write('\n');
+                }
+            }
+        }
+    }
+
+    /**
+     * Emits RLE tokens, wrapping lines before they exceed {@link #RLE_LINE_LENGTH} characters.
+     */
+    private static final class RleLine {
+        private final Writer out;
+        private int length;
+
+        RleLine(Writer out) {
+            this.out = out;
+        }
+
+        void token(int count, char tag) throws IOException {
+            String token = count == 1 ? String.valueOf(tag) : count + String.valueOf(tag);
+            if (length + token.length() > RLE_LINE_LENGTH) {
+                out.write('\n');
+                length = 0;
+            }
+            out.write(token);
+            length += token.length();
+        }
+
+        void finish() throws IOException {
+            out.write('\n');
+            out.flush();
+        }
+    }
+}
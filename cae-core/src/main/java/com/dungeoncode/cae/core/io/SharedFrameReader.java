@@ -0,0 +1,247 @@
+package com.dungeoncode.cae.core.io;
+
+import javax.annotation.Nonnull;
+import java.io.IOException;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * Reads frames from a {@link SharedFrameRing} file written by another process or thread.
+ * <p>
+ * Reads never block the writer: a frame is copied out of its slot and validated against the slot's sequence, and the
+ * copy is retried on the latest frame if the writer overwrote the slot meanwhile. Other languages can read the same
+ * file by following the layout and protocol described in {@link SharedFrameRing}. The mapping is released when the
+ * reader is garbage collected.
+ */
+public class SharedFrameReader {
+
+    /**
+     * The number of times a lapped read is retried before giving up.
+     */
+    private static final int MAX_ATTEMPTS = 64;
+
+    /**
+     * The mapped file.
+     */
+    private final MappedByteBuffer buffer;
+
+    /**
+     * The number of columns.
+     */
+    private final int width;
+
+    /**
+     * The number of rows.
+     */
+    private final int height;
+
+    /**
+     * The number of 64-bit words per row of the bit planes.
+     */
+    private final int wordsPerRow;
+
+    /**
+     * The number of slots.
+     */
+    private final int slots;
+
+    /**
+     * The size of each slot in bytes.
+     */
+    private final int slotBytes;
+
+    /**
+     * Whether slots store an id plane.
+     */
+    private final boolean withIds;
+
+    /**
+     * The generation of the last frame read.
+     */
+    private long generation = -1;
+
+    /**
+     * The population of the last frame read.
+     */
+    private long population;
+
+    /**
+     * Maps a ring file for reading.
+     *
+     * @param file the ring file, must not be null
+     * @throws NullPointerException if file is null
+     * @throws IOException          if the file cannot be mapped or is not a frame ring of a supported version
+     */
+    public SharedFrameReader(@Nonnull Path file) throws IOException {
+        Objects.requireNonNull(file, "File cannot be null");
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            if (channel.size() < SharedFrameRing.HEADER_BYTES) {
+                throw new IOException("Not a frame ring: " + file);
+            }
+            this.buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        buffer.order(ByteOrder.LITTLE_ENDIAN);
+        byte[] magic = new byte[SharedFrameRing.MAGIC.length];
+        buffer.get(0, magic);
+        if (!Arrays.equals(magic, SharedFrameRing.MAGIC)) {
+            throw new IOException("Not a frame ring: " + file);
+        }
+        int version = buffer.getInt(8);
+        if (version != SharedFrameRing.VERSION) {
+            throw new IOException("Unsupported frame ring version " + version + ": " + file);
+        }
+        this.withIds = (buffer.getInt(12) & SharedFrameRing.FLAG_IDS) != 0;
+        this.width = buffer.getInt(16);
+        this.height = buffer.getInt(20);
+        this.wordsPerRow = buffer.getInt(24);
+        this.slots = buffer.getInt(28);
+        this.slotBytes = buffer.getInt(32);
+        if (width <= 0 || height <= 0 || slots < 2
+                || (long) SharedFrameRing.HEADER_BYTES + (long) slotBytes * slots > buffer.capacity()) {
+            throw new IOException("Corrupt frame ring header: " + file);
+        }
+    }
+
+    /**
+     * Copies the latest frame. Returns false if no frame has been published yet, or if the writer lapped every
+     * attempt, which only happens when copying a frame takes longer than the writer needs for {@code slots - 1}
+     * generations.
+     *
+     * @param values the array receiving the value words, of at least {@code height * wordsPerRow} longs, must not be
+     *               null
+     * @param echoes the array receiving the echo words, of at least {@code height * wordsPerRow} longs, or null
+     * @param ids    the array receiving the ids, of at least {@code width * height} bytes, or null; left unchanged if
+     *               the ring stores no ids
+     * @return true if a consistent frame was copied; its generation and population are then available from
+     * {@link #getGeneration()} and {@link #getPopulation()}
+     * @throws NullPointerException     if values is null
+     * @throws IllegalArgumentException if an array is too small
+     */
+    public boolean readLatest(@Nonnull long[] values, long[] echoes, byte[] ids) {
+        Objects.requireNonNull(values, "Values cannot be null");
+        int words = wordsPerRow * height;
+        if (values.length < words || echoes != null && echoes.length < words
+                || ids != null && ids.length < width * height) {
+            throw new IllegalArgumentException("Arrays too small for a " + width + " x " + height + " frame");
+        }
+        for (int attempt = 0; attempt < MAX_ATTEMPTS; attempt++) {
+            long frame = (long) SharedFrameRing.LONGS.getAcquire(buffer, SharedFrameRing.LATEST_OFFSET);
+            if (frame < 0) {
+                return false;
+            }
+            int base = SharedFrameRing.HEADER_BYTES + (int) (frame % slots) * slotBytes;
+            long sequence = (long) SharedFrameRing.LONGS.getAcquire(buffer, base);
+            if (sequence != 2 * frame + 2) {
+                continue;
+            }
+            long frameGeneration = buffer.getLong(base + 8);
+            long framePopulation = buffer.getLong(base + 16);
+            int offset = base + SharedFrameRing.HEADER_BYTES;
+            copyWords(offset, values, words);
+            offset += words * Long.BYTES;
+            if (echoes != null) {
+                copyWords(offset, echoes, words);
+            }
+            offset += words * Long.BYTES;
+            if (ids != null && withIds) {
+                buffer.get(offset, ids, 0, width * height);
+            }
+            VarHandle.loadLoadFence();
+            if ((long) SharedFrameRing.LONGS.getAcquire(buffer, base) == sequence) {
+                generation = frameGeneration;
+                population = framePopulation;
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Copies little-endian words out of the mapping.
+     *
+     * @param offset the byte offset of the first word
+     * @param dst    the destination
+     * @param words  the number of words
+     */
+    private void copyWords(int offset, long[] dst, int words) {
+        buffer.slice(offset, words * Long.BYTES).order(ByteOrder.LITTLE_ENDIAN).asLongBuffer().get(dst, 0, words);
+    }
+
+    /**
+     * Returns the number of the latest frame published.
+     *
+     * @return the frame number, or -1 before the first frame
+     */
+    public long getLatestFrame() {
+        return (long) SharedFrameRing.LONGS.getAcquire(buffer, SharedFrameRing.LATEST_OFFSET);
+    }
+
+    /**
+     * Returns whether the writer has closed the ring.
+     *
+     * @return true if no more frames will be published
+     */
+    public boolean isWriterClosed() {
+        return (int) SharedFrameRing.INTS.getAcquire(buffer, SharedFrameRing.CLOSED_OFFSET) != 0;
+    }
+
+    /**
+     * Returns the generation of the last frame read.
+     *
+     * @return the generation, or -1 if no frame was read
+     */
+    public long getGeneration() {
+        return generation;
+    }
+
+    /**
+     * Returns the number of active cells of the last frame read.
+     *
+     * @return the population
+     */
+    public long getPopulation() {
+        return population;
+    }
+
+    /**
+     * Returns the number of columns.
+     *
+     * @return the width
+     */
+    public int getWidth() {
+        return width;
+    }
+
+    /**
+     * Returns the number of rows.
+     *
+     * @return the height
+     */
+    public int getHeight() {
+        return height;
+    }
+
+    /**
+     * Returns the number of 64-bit words per row of the bit planes.
+     *
+     * @return the words per row
+     */
+    public int getWordsPerRow() {
+        return wordsPerRow;
+    }
+
+    /**
+     * Returns whether the ring stores the id of every cell.
+     *
+     * @return true if ids are stored
+     */
+    public boolean hasIds() {
+        return withIds;
+    }
+}
@@ -0,0 +1,346 @@
+package com.dungeoncode.cae.core.io;
+
+import com.dungeoncode.cae.core.Automaton;
+import com.dungeoncode.cae.core.Grid;
+import com.dungeoncode.cae.core.impl.BooleanCell;
+import com.dungeoncode.cae.core.impl.BooleanState;
+import com.dungeoncode.cae.core.impl.packed.OffHeapPlane;
+import com.dungeoncode.cae.core.impl.packed.PackedBooleanGrid;
+
+import javax.annotation.Nonnull;
+import java.io.Closeable;
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Objects;
+import java.util.function.Consumer;
+
+/**
+ * Publishes every generation of a boolean automaton into a memory-mapped file, a ring of frame slots that other
+ * processes on the machine can map and read without copying through a socket.
+ * <p>
+ * Registered as a step listener (see {@link Automaton#addStepListener(Consumer)}), the ring writes each generation
+ * into the next slot on the stepping thread. Every slot is guarded by a sequence lock: the writer makes the slot's
+ * sequence odd, writes the frame, then publishes an even sequence and the frame number in the file header. The
+ * writer never waits for readers, so a step costs one copy of the grid into the mapping however many readers there
+ * are. A reader takes the latest frame number, reads the slot's sequence, copies the frame, and reads the sequence
+ * again; if it changed or is odd, the writer lapped the reader and the copy is retried (see
+ * {@link SharedFrameReader}). With {@code n} slots a reader has {@code n - 1} generations to copy a frame.
+ * <p>
+ * The file layout is little-endian, with every field at its natural alignment:
+ * <pre>
+ * header (64 bytes):
+ *   0  magic "CAEFRING"        8  int version          12 int flags (bit 0: id plane)
+ *   16 int width               20 int height           24 int wordsPerRow
+ *   28 int slotCount           32 int slotBytes        36 int closed (1 once the writer closed)
+ *   40 long latest frame number, -1 before the first frame
+ * slot i at 64 + i * slotBytes:
+ *   0  long sequence, 2 * (frame + 1) when stable, odd while written
+ *   8  long generation         16 long population
+ *   64 long[height * wordsPerRow] values, bit x &amp; 63 of word y * wordsPerRow + x / 64 is cell (x, y)
+ *      long[height * wordsPerRow] echoes, same layout
+ *      byte[width * height] ids, row by row, if flagged, padded to 8 bytes
+ * </pre>
+ * Frame {@code f} is in slot {@code f % slotCount}. The grid size is fixed when the ring is created; generations of
+ * a grid of another size are skipped and counted (see {@link #getSkippedCount()}).
+ */
+public class SharedFrameRing implements Consumer<Automaton<BooleanCell, BooleanState>>, Closeable {
+
+    /**
+     * The file signature.
+     */
+    static final byte[] MAGIC = "CAEFRING".getBytes(StandardCharsets.US_ASCII);
+
+    /**
+     * The format version written by this class.
+     */
+    static final int VERSION = 1;
+
+    /**
+     * The size of the file header and of each slot header in bytes.
+     */
+    static final int HEADER_BYTES = 64;
+
+    /**
+     * The flag of rings that store an id plane.
+     */
+    static final int FLAG_IDS = 1;
+
+    /**
+     * The header offset of the closed flag.
+     */
+    static final int CLOSED_OFFSET = 36;
+
+    /**
+     * The header offset of the latest frame number.
+     */
+    static final int LATEST_OFFSET = 40;
+
+    /**
+     * The default number of slots.
+     */
+    public static final int DEFAULT_SLOTS = 4;
+
+    /**
+     * Atomic access to longs of the mapping, for the sequences and the latest frame number.
+     */
+    static final VarHandle LONGS = MethodHandles.byteBufferViewVarHandle(long[].class, ByteOrder.LITTLE_ENDIAN);
+
+    /**
+     * Atomic access to ints of the mapping, for the closed flag.
+     */
+    static final VarHandle INTS = MethodHandles.byteBufferViewVarHandle(int[].class, ByteOrder.LITTLE_ENDIAN);
+
+    /**
+     * The mapped file.
+     */
+    private final MappedByteBuffer buffer;
+
+    /**
+     * The number of columns.
+     */
+    private final int width;
+
+    /**
+     * The number of rows.
+     */
+    private final int height;
+
+    /**
+     * The number of 64-bit words per row of the bit planes.
+     */
+    private final int wordsPerRow;
+
+    /**
+     * The number of slots.
+     */
+    private final int slots;
+
+    /**
+     * The size of each slot in bytes.
+     */
+    private final int slotBytes;
+
+    /**
+     * Whether slots store an id plane.
+     */
+    private final boolean withIds;
+
+    /**
+     * Scratch space for a row of ids.
+     */
+    private final byte[] row;
+
+    /**
+     * The number of the next frame.
+     */
+    private long nextFrame;
+
+    /**
+     * The number of generations skipped because the grid size differs from the ring's.
+     */
+    private long skipped;
+
+    /**
+     * Whether the ring has been closed.
+     */
+    private boolean closed;
+
+    /**
+     * Creates a ring file with the default number of slots and an id plane, replacing any existing file.
+     *
+     * @param file   the file to map, must not be null; a file on a memory-backed file system such as
+     *               {@code /dev/shm} avoids disk writeback
+     * @param width  the number of columns of the grids published, must be positive
+     * @param height the number of rows of the grids published, must be positive
+     * @throws NullPointerException     if file is null
+     * @throws IllegalArgumentException if the dimensions are not positive or the file would exceed 2 GiB
+     * @throws IOException              if the file cannot be created or mapped
+     */
+    public SharedFrameRing(@Nonnull Path file, int width, int height) throws IOException {
+        this(file, width, height, DEFAULT_SLOTS, true);
+    }
+
+    /**
+     * Creates a ring file, replacing any existing file.
+     *
+     * @param file    the file to map, must not be null
+     * @param width   the number of columns of the grids published, must be positive
+     * @param height  the number of rows of the grids published, must be positive
+     * @param slots   the number of frame slots, at least 2
+     * @param withIds whether to store the id of every cell, clamped to 0..255
+     * @throws NullPointerException     if file is null
+     * @throws IllegalArgumentException if the dimensions are not positive, there are fewer than 2 slots, or the file
+     *                                  would exceed 2 GiB
+     * @throws IOException              if the file cannot be created or mapped
+     */
+    public SharedFrameRing(@Nonnull Path file, int width, int height, int slots, boolean withIds) throws IOException {
+        Objects.requireNonNull(file, "File cannot be null");
+        if (width <= 0 || height <= 0) {
+            throw new IllegalArgumentException("Width and height must be positive: width=" + width + ", height=" + height);
+        }
+        if (slots < 2) {
+            throw new IllegalArgumentException("Slots must be at least 2: " + slots);
+        }
+        this.width = width;
+        this.height = height;
+        this.wordsPerRow = (width + 63) >>> 6;
+        this.slots = slots;
+        this.withIds = withIds;
+        long bytes = HEADER_BYTES + 2L * wordsPerRow * height * Long.BYTES
+                + (withIds ? ((long) width * height + 7) & ~7L : 0);
+        if (HEADER_BYTES + bytes * slots > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Frame ring too large: width=" + width + ", height=" + height
+                    + ", slots=" + slots);
+        }
+        this.slotBytes = (int) bytes;
+        this.row = new byte[withIds ? width : 0];
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            this.buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_BYTES + (long) slotBytes * slots);
+        }
+        buffer.order(ByteOrder.LITTLE_ENDIAN);
+        buffer.put(0, MAGIC);
+        buffer.putInt(8, VERSION);
+        buffer.putInt(12, withIds ? FLAG_IDS : 0);
+        buffer.putInt(16, width);
+        buffer.putInt(20, height);
+        buffer.putInt(24, wordsPerRow);
+        buffer.putInt(28, slots);
+        buffer.putInt(32, slotBytes);
+        INTS.setRelease(buffer, CLOSED_OFFSET, 0);
+        LONGS.setRelease(buffer, LATEST_OFFSET, -1L);
+    }
+
+    /**
+     * Publishes the current generation of an automaton. Called on the stepping thread.
+     *
+     * @param automaton the automaton
+     */
+    @Override
+    public void accept(Automaton<BooleanCell, BooleanState> automaton) {
+        publish(automaton.getGrid(), automaton.getGeneration());
+    }
+
+    /**
+     * Writes a grid into the next slot and publishes it as the latest frame. Never blocks.
+     *
+     * @param grid       the grid, must not be null
+     * @param generation the generation of the grid
+     * @return true if the frame was published, false if the ring is closed or the grid size differs
+     * @throws NullPointerException if grid is null
+     */
+    public boolean publish(@Nonnull Grid<BooleanCell, BooleanState> grid, long generation) {
+        Objects.requireNonNull(grid, "Grid cannot be null");
+        if (closed) {
+            return false;
+        }
+        if (grid.getWidth() != width || grid.getHeight() != height) {
+            skipped++;
+            return false;
+        }
+        long frame = nextFrame++;
+        int base = HEADER_BYTES + (int) (frame % slots) * slotBytes;
+        LONGS.setOpaque(buffer, base, 2 * frame + 1);
+        VarHandle.storeStoreFence();
+        int values = base + HEADER_BYTES;
+        int echoes = values + wordsPerRow * height * Long.BYTES;
+        int ids = echoes + wordsPerRow * height * Long.BYTES;
+        long population = 0;
+        if (grid instanceof PackedBooleanGrid packed) {
+            OffHeapPlane valuePlane = packed.getValuePlane();
+            OffHeapPlane echoPlane = packed.getEchoPlane();
+            OffHeapPlane idPlane = packed.getIdPlane();
+            for (int y = 0; y < height; y++) {
+                int offset = y * wordsPerRow * Long.BYTES;
+                for (int w = 0; w < wordsPerRow; w++) {
+                    long value = valuePlane.getWord(w, y);
+                    population += Long.bitCount(value);
+                    buffer.putLong(values + offset + w * Long.BYTES, value);
+                    buffer.putLong(echoes + offset + w * Long.BYTES, echoPlane.getWord(w, y));
+                }
+                if (withIds) {
+                    if (idPlane != null) {
+                        idPlane.getRow(y, row, width);
+                    }
+                    buffer.put(ids + y * width, row, 0, width);
+                }
+            }
+        } else {
+            for (int y = 0; y < height; y++) {
+                int offset = y * wordsPerRow * Long.BYTES;
+                for (int w = 0; w < wordsPerRow; w++) {
+                    long value = 0;
+                    long echo = 0;
+                    for (int x = w << 6, end = Math.min(width, x + 64); x < end; x++) {
+                        BooleanState state = grid.getCell(x, y).getState();
+                        if (Boolean.TRUE.equals(state.getValue())) {
+                            value |= 1L << x;
+                        }
+                        if (state.isEcho()) {
+                            echo |= 1L << x;
+                        }
+                        if (withIds) {
+                            row[x] = (byte) Math.min(255, Math.max(0, state.getId()));
+                        }
+                    }
+                    population += Long.bitCount(value);
+                    buffer.putLong(values + offset + w * Long.BYTES, value);
+                    buffer.putLong(echoes + offset + w * Long.BYTES, echo);
+                }
+                if (withIds) {
+                    buffer.put(ids + y * width, row, 0, width);
+                }
+            }
+        }
+        buffer.putLong(base + 8, generation);
+        buffer.putLong(base + 16, population);
+        LONGS.setRelease(buffer, base, 2 * frame + 2);
+        LONGS.setRelease(buffer, LATEST_OFFSET, frame);
+        return true;
+    }
+
+    /**
+     * Marks the ring closed for readers and stops publishing. The file stays in place with its last frames.
+     */
+    @Override
+    public void close() {
+        if (!closed) {
+            closed = true;
+            INTS.setRelease(buffer, CLOSED_OFFSET, 1);
+        }
+    }
+
+    /**
+     * Returns the number of frames published.
+     *
+     * @return the frame count
+     */
+    public long getFrameCount() {
+        return nextFrame;
+    }
+
+    /**
+     * Returns the number of generations skipped because the grid size differed from the ring's.
+     *
+     * @return the skipped count
+     */
+    public long getSkippedCount() {
+        return skipped;
+    }
+
+    /**
+     * Returns the number of slots.
+     *
+     * @return the slot count
+     */
+    public int getSlotCount() {
+        return slots;
+    }
+}
@@ -0,0 +1,612 @@
+package com.dungeoncode.cae.core.io;
+
+import com.dungeoncode.cae.core.Automaton;
+import com.dungeoncode.cae.core.Grid;
+import com.dungeoncode.cae.core.Rule;
+import com.dungeoncode.cae.core.impl.BooleanCell;
+import com.dungeoncode.cae.core.impl.BooleanState;
+import com.dungeoncode.cae.core.impl.packed.OffHeapPlane;
+import com.dungeoncode.cae.core.impl.packed.PackedBooleanGrid;
+
+import javax.annotation.Nonnull;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Reads and writes versioned binary snapshots of a boolean {@link Grid} through memory-mapped files.
+ * <p>
+ * A snapshot file consists of a header followed by four planes, each starting on a 4096-byte boundary:
+ * <ol>
+ *   <li>value plane: one bit per cell, rows of 64-bit little-endian words, bit {@code x % 64} of word {@code x / 64};</li>
+ *   <li>echo plane: same layout as the value plane;</li>
+ *   <li>live sum plane: one unsigned byte per cell, row-major;</li>
+ *   <li>id plane: one unsigned byte per cell, row-major.</li>
+ * </ol>
+ * The header (little-endian) holds the magic {@code "CAESNAP\0"}, the format version, the header length, the
+ * configuration id, the grid dimensions, the rule count, the generation, the random seed, the absolute offsets of
+ * the four planes, and finally the rule ids. The random streams of the rules are derived from the seed and the
+ * generation, so these two fields fully determine the position of the run.
+ * <p>
+ * Planes are transferred in row bands through {@link FileChannel#map}, so arbitrarily large grids are written and
+ * read without intermediate copies and without a single mapping exceeding the 2 GB buffer limit. The rows of a
+ * {@link PackedBooleanGrid} already have the layout of the planes and are copied in bulk, a row at a time; other
+ * grids are encoded cell by cell.
+ */
+public final class Snapshot {
+
+    /**
+     * The current format version.
+     */
+    public static final int VERSION = 2;
+
+    /**
+     * The file magic identifying a snapshot.
+     */
+    private static final byte[] MAGIC = "CAESNAP\0".getBytes(StandardCharsets.US_ASCII);
+
+    /**
+     * The size of the fixed part of the header, before the rule ids.
+     */
+    private static final int FIXED_HEADER_SIZE = 80;
+
+    /**
+     * The alignment of each plane in the file.
+     */
+    private static final int PLANE_ALIGNMENT = 4096;
+
+    /**
+     * The maximum number of bytes mapped at once for one plane.
+     */
+    private static final long MAX_BAND_BYTES = 1L << 28;
+
+    private Snapshot() {
+    }
+
+    /**
+     * Writes a snapshot of the automaton's grid and run position to the specified file, replacing any existing file.
+     *
+     * @param path            the file to write, must not be null
+     * @param configurationId the identifier of the configuration that produced the grid
+     * @param automaton       the configured {@link Automaton} to capture, must not be null
+     * @return the header written
+     * @throws NullPointerException if path or automaton is null
+     * @throws IOException          if an I/O error occurs
+     */
+    public static SnapshotHeader save(@Nonnull Path path, int configurationId,
+                                      @Nonnull Automaton<BooleanCell, BooleanState> automaton) throws IOException {
+        Objects.requireNonNull(automaton, "Automaton cannot be null");
+        SnapshotHeader header = headerOf(configurationId, automaton);
+        write(path, header, automaton.getGrid());
+        return header;
+    }
+
+    /**
+     * Creates a header describing the current state of an automaton.
+     *
+     * @param configurationId the identifier of the configuration that produced the grid
+     * @param automaton       the configured {@link Automaton}, must not be null
+     * @return the header
+     */
+    public static SnapshotHeader headerOf(int configurationId, @Nonnull Automaton<BooleanCell, BooleanState> automaton) {
+        Objects.requireNonNull(automaton, "Automaton cannot be null");
+        Grid<BooleanCell, BooleanState> grid = automaton.getGrid();
+        return new SnapshotHeader(configurationId, ruleIdsOf(automaton), grid.getWidth(), grid.getHeight(),
+                automaton.getGeneration(), automaton.getSeed());
+    }
+
+    /**
+     * Returns the identifiers of the rules of an automaton, in order.
+     *
+     * @param automaton the automaton
+     * @return the rule identifiers
+     */
+    private static int[] ruleIdsOf(Automaton<BooleanCell, BooleanState> automaton) {
+        List<Rule<BooleanCell, BooleanState>> rules = automaton.getRules();
+        int[] ruleIds = new int[rules.size()];
+        for (int i = 0; i < ruleIds.length; i++) {
+            ruleIds[i] = rules.get(i).getId();
+        }
+        return ruleIds;
+    }
+
+    /**
+     * Verifies that a snapshot was taken from an automaton running the same rules, in the same order, as the
+     * specified one.
+     *
+     * @param header    the snapshot header, must not be null
+     * @param automaton the configured {@link Automaton}, must not be null
+     * @throws NullPointerException     if header or automaton is null
+     * @throws IllegalArgumentException if the rule identifiers differ
+     */
+    public static void checkRules(@Nonnull SnapshotHeader header,
+                                  @Nonnull Automaton<BooleanCell, BooleanState> automaton) {
+        Objects.requireNonNull(header, "Header cannot be null");
+        Objects.requireNonNull(automaton, "Automaton cannot be null");
+        int[] ruleIds = ruleIdsOf(automaton);
+        if (!Arrays.equals(header.ruleIds(), ruleIds)) {
+            throw new IllegalArgumentException("Snapshot rules " + Arrays.toString(header.ruleIds())
+                    + " do not match automaton rules " + Arrays.toString(ruleIds));
+        }
+    }
+
+    /**
+     * Writes a snapshot with the given header and grid to the specified file, replacing any existing file.
+     *
+     * @param path   the file to write, must not be null
+     * @param header the header to write, must not be null and must match the grid dimensions
+     * @param grid   the {@link Grid} to write, must not be null
+     * @throws NullPointerException     if any argument is null
+     * @throws IllegalArgumentException if the header does not match the grid dimensions
+     * @throws IOException              if an I/O error occurs
+     */
+    public static void write(@Nonnull Path path, @Nonnull SnapshotHeader header,
+                             @Nonnull Grid<BooleanCell, BooleanState> grid) throws IOException {
+        Objects.requireNonNull(path, "Path cannot be null");
+        Objects.requireNonNull(header, "Header cannot be null");
+        Objects.requireNonNull(grid, "Grid cannot be null");
+        checkDimensions(header, grid);
+        Layout layout = new Layout(header);
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer headerBuffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, layout.headerLength)
+                    .order(ByteOrder.LITTLE_ENDIAN);
+            writeHeader(headerBuffer, header, layout);
+            for (int y0 = 0; y0 < header.height(); y0 += layout.bandRows) {
+                int y1 = Math.min(header.height(), y0 + layout.bandRows);
+                Planes planes = layout.map(channel, FileChannel.MapMode.READ_WRITE, y0, y1);
+                encodeRows(grid, y0, y1, layout.wordsPerRow, planes);
+            }
+            channel.force(true);
+        }
+    }
+
+    /**
+     * Reads the header of the specified snapshot file without touching its planes.
+     *
+     * @param path the snapshot file, must not be null
+     * @return the header
+     * @throws NullPointerException if path is null
+     * @throws IOException          if an I/O error occurs or the file is not a supported snapshot
+     */
+    public static SnapshotHeader readHeader(@Nonnull Path path) throws IOException {
+        Objects.requireNonNull(path, "Path cannot be null");
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            return readHeader(channel);
+        }
+    }
+
+    /**
+     * Restores the automaton's grid and run position (generation and seed) from the specified snapshot file. The
+     * automaton must already be configured with a grid of the snapshot's dimensions and the snapshot's rules,
+     * normally by the configuration identified in the header; both are verified before the grid is touched.
+     *
+     * @param path      the snapshot file, must not be null
+     * @param automaton the configured {@link Automaton} to restore into, must not be null
+     * @return the header read
+     * @throws NullPointerException     if path or automaton is null
+     * @throws IllegalArgumentException if the snapshot dimensions or rules do not match the automaton
+     * @throws IOException              if an I/O error occurs or the file is not a supported snapshot
+     */
+    public static SnapshotHeader restore(@Nonnull Path path,
+                                         @Nonnull Automaton<BooleanCell, BooleanState> automaton) throws IOException {
+        Objects.requireNonNull(automaton, "Automaton cannot be null");
+        checkRules(readHeader(path), automaton);
+        SnapshotHeader header = read(path, automaton.getGrid());
+        automaton.setSeed(header.seed());
+        automaton.setGeneration(header.generation());
+        return header;
+    }
+
+    /**
+     * Reads the planes of the specified snapshot file into a grid of the same dimensions.
+     *
+     * @param path the snapshot file, must not be null
+     * @param grid the {@link Grid} to fill, must not be null and fully populated with cells
+     * @return the header read
+     * @throws NullPointerException     if path or grid is null
+     * @throws IllegalArgumentException if the snapshot dimensions do not match the grid
+     * @throws IOException              if an I/O error occurs or the file is not a supported snapshot
+     */
+    public static SnapshotHeader read(@Nonnull Path path, @Nonnull Grid<BooleanCell, BooleanState> grid) throws IOException {
+        Objects.requireNonNull(path, "Path cannot be null");
+        Objects.requireNonNull(grid, "Grid cannot be null");
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            SnapshotHeader header = readHeader(channel);
+            checkDimensions(header, grid);
+            Layout layout = new Layout(header);
+            if (channel.size() < layout.totalSize) {
+                throw new IOException("Truncated snapshot: expected " + layout.totalSize + " bytes, found " + channel.size());
+            }
+            for (int y0 = 0; y0 < header.height(); y0 += layout.bandRows) {
+                int y1 = Math.min(header.height(), y0 + layout.bandRows);
+                Planes planes = layout.map(channel, FileChannel.MapMode.READ_ONLY, y0, y1);
+                decodeRows(grid, y0, y1, layout.wordsPerRow, planes);
+            }
+            return header;
+        }
+    }
+
+    /**
+     * Returns the total size in bytes of a snapshot with the given header.
+     *
+     * @param header the snapshot header, must not be null
+     * @return the file size in bytes
+     */
+    public static long sizeOf(@Nonnull SnapshotHeader header) {
+        return new Layout(Objects.requireNonNull(header, "Header cannot be null")).totalSize;
+    }
+
+    /**
+     * Encodes the complete snapshot image (header and planes) into a heap buffer, for in-memory processing such as
+     * compression. Limited to images smaller than 2 GB.
+     *
+     * @param header the header, must not be null and must match the grid dimensions
+     * @param grid   the {@link Grid} to encode, must not be null
+     * @return a little-endian buffer holding the image, positioned at zero
+     * @throws IllegalArgumentException if the image is too large or the header does not match the grid
+     */
+    public static ByteBuffer encode(@Nonnull SnapshotHeader header, @Nonnull Grid<BooleanCell, BooleanState> grid) {
+        Objects.requireNonNull(header, "Header cannot be null");
+        long size = sizeOf(header);
+        if (size > Integer.MAX_VALUE - 8) {
+            throw new IllegalArgumentException("Snapshot image too large for a heap buffer: " + size);
+        }
+        ByteBuffer image = ByteBuffer.allocate((int) size).order(ByteOrder.LITTLE_ENDIAN);
+        encode(header, grid, image);
+        return image;
+    }
+
+    /**
+     * Encodes the complete snapshot image (header and planes) into an existing buffer, starting at index zero, so
+     * that repeated captures can reuse the same memory. The buffer position and limit are not changed.
+     *
+     * @param header the header, must not be null and must match the grid dimensions
+     * @param grid   the {@link Grid} to encode, must not be null
+     * @param image  the target buffer, must not be null and hold at least {@link #sizeOf(SnapshotHeader)} bytes
+     * @throws IllegalArgumentException if the buffer is too small or the header does not match the grid
+     */
+    public static void encode(@Nonnull SnapshotHeader header, @Nonnull Grid<BooleanCell, BooleanState> grid,
+                              @Nonnull ByteBuffer image) {
+        Objects.requireNonNull(header, "Header cannot be null");
+        Objects.requireNonNull(grid, "Grid cannot be null");
+        Objects.requireNonNull(image, "Image cannot be null");
+        checkDimensions(header, grid);
+        Layout layout = new Layout(header);
+        if (image.capacity() < layout.totalSize) {
+            throw new IllegalArgumentException("Buffer too small for snapshot image: " + image.capacity()
+                    + " < " + layout.totalSize);
+        }
+        writeHeader(image.duplicate().clear().order(ByteOrder.LITTLE_ENDIAN), header, layout);
+        encodeRows(grid, 0, header.height(), layout.wordsPerRow, layout.slice(image, 0, header.height()));
+    }
+
+    /**
+     * Decodes a complete snapshot image produced by {@link #encode(SnapshotHeader, Grid)} into a grid.
+     *
+     * @param image the snapshot image, must not be null
+     * @param grid  the {@link Grid} to fill, must not be null and fully populated with cells
+     * @return the header read
+     * @throws IOException if the image is not a supported snapshot or does not match the grid
+     */
+    public static SnapshotHeader decode(@Nonnull ByteBuffer image, @Nonnull Grid<BooleanCell, BooleanState> grid)
+            throws IOException {
+        Objects.requireNonNull(image, "Image cannot be null");
+        Objects.requireNonNull(grid, "Grid cannot be null");
+        SnapshotHeader header = parseHeader(image.duplicate().clear().order(ByteOrder.LITTLE_ENDIAN));
+        checkDimensions(header, grid);
+        Layout layout = new Layout(header);
+        if (image.capacity() < layout.totalSize) {
+            throw new IOException("Truncated snapshot image: expected " + layout.totalSize + " bytes, found " + image.capacity());
+        }
+        decodeRows(grid, 0, header.height(), layout.wordsPerRow, layout.slice(image, 0, header.height()));
+        return header;
+    }
+
+    /**
+     * Parses the header at the start of a snapshot image without decoding its planes.
+     *
+     * @param image the snapshot image, must not be null
+     * @return the header
+     * @throws IOException if the image is not a supported snapshot
+     */
+    public static SnapshotHeader decodeHeader(@Nonnull ByteBuffer image) throws IOException {
+        Objects.requireNonNull(image, "Image cannot be null");
+        return parseHeader(image.duplicate().clear().order(ByteOrder.LITTLE_ENDIAN));
+    }
+
+    /**
+     * Verifies that a header matches the dimensions of a grid.
+     */
+    static void checkDimensions(SnapshotHeader header, Grid<BooleanCell, BooleanState> grid) {
+        if (header.width() != grid.getWidth() || header.height() != grid.getHeight()) {
+            throw new IllegalArgumentException("Snapshot size " + header.width() + "x" + header.height()
+                    + " does not match grid size " + grid.getWidth() + "x" + grid.getHeight());
+        }
+    }
+
+    /**
+     * Writes the header fields into a buffer positioned at the start of the file.
+     */
+    static void writeHeader(ByteBuffer buffer, SnapshotHeader header, Layout layout) {
+        int[] ruleIds = header.ruleIds();
+        buffer.put(MAGIC);
+        buffer.putInt(VERSION);
+        buffer.putInt(layout.headerLength);
+        buffer.putInt(header.configurationId());
+        buffer.putInt(header.width());
+        buffer.putInt(header.height());
+        buffer.putInt(ruleIds.length);
+        buffer.putLong(header.generation());
+        buffer.putLong(header.seed());
+        buffer.putLong(layout.valueOffset);
+        buffer.putLong(layout.echoOffset);
+        buffer.putLong(layout.liveSumOffset);
+        buffer.putLong(layout.idOffset);
+        for (int ruleId : ruleIds) {
+            buffer.putInt(ruleId);
+        }
+    }
+
+    /**
+     * Reads and validates the header of an open snapshot file.
+     */
+    private static SnapshotHeader readHeader(FileChannel channel) throws IOException {
+        if (channel.size() < FIXED_HEADER_SIZE) {
+            throw new IOException("Not a snapshot: file too short");
+        }
+        ByteBuffer fixed = channel.map(FileChannel.MapMode.READ_ONLY, 0, FIXED_HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        int headerLength = fixed.getInt(12);
+        if (headerLength < FIXED_HEADER_SIZE || headerLength > channel.size()) {
+            throw new IOException("Not a snapshot: invalid header length " + headerLength);
+        }
+        return parseHeader(channel.map(FileChannel.MapMode.READ_ONLY, 0, headerLength).order(ByteOrder.LITTLE_ENDIAN));
+    }
+
+    /**
+     * Reads the raw header bytes at the start of a snapshot image stream, leaving the stream positioned after them.
+     */
+    static byte[] readHeaderBytes(InputStream in) throws IOException {
+        byte[] fixed = in.readNBytes(FIXED_HEADER_SIZE);
+        if (fixed.length < FIXED_HEADER_SIZE) {
+            throw new IOException("Not a snapshot: image too short");
+        }
+        int headerLength = ByteBuffer.wrap(fixed).order(ByteOrder.LITTLE_ENDIAN).getInt(12);
+        if (headerLength < FIXED_HEADER_SIZE || headerLength > PLANE_ALIGNMENT) {
+            throw new IOException("Not a snapshot: invalid header length " + headerLength);
+        }
+        byte[] header = Arrays.copyOf(fixed, headerLength);
+        if (in.readNBytes(header, FIXED_HEADER_SIZE, headerLength - FIXED_HEADER_SIZE)
+                != headerLength - FIXED_HEADER_SIZE) {
+            throw new IOException("Not a snapshot: truncated header");
+        }
+        return header;
+    }
+
+    /**
+     * Parses and validates a header from a little-endian buffer positioned at the start of the image.
+     */
+    static SnapshotHeader parseHeader(ByteBuffer buffer) throws IOException {
+        if (buffer.remaining() < FIXED_HEADER_SIZE) {
+            throw new IOException("Not a snapshot: image too short");
+        }
+        byte[] magic = new byte[MAGIC.length];
+        buffer.get(magic);
+        if (!Arrays.equals(magic, MAGIC)) {
+            throw new IOException("Not a snapshot: bad magic");
+        }
+        int version = buffer.getInt();
+        if (version != VERSION) {
+            throw new IOException("Unsupported snapshot version: " + version);
+        }
+        buffer.getInt(); // header length
+        int configurationId = buffer.getInt();
+        int width = buffer.getInt();
+        int height = buffer.getInt();
+        int ruleCount = buffer.getInt();
+        long generation = buffer.getLong();
+        long seed = buffer.getLong();
+        buffer.position(buffer.position() + 4 * Long.BYTES); // plane offsets, recomputed from the layout
+        if (ruleCount < 0 || buffer.remaining() < ruleCount * Integer.BYTES) {
+            throw new IOException("Not a snapshot: invalid rule count " + ruleCount);
+        }
+        int[] ruleIds = new int[ruleCount];
+        for (int i = 0; i < ruleCount; i++) {
+            ruleIds[i] = buffer.getInt();
+        }
+        try {
+            return new SnapshotHeader(configurationId, ruleIds, width, height, generation, seed);
+        } catch (IllegalArgumentException e) {
+            throw new IOException("Invalid snapshot header: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Packs rows [y0, y1) of the grid into the four plane buffers, whose index 0 corresponds to row y0.
+     */
+    static void encodeRows(Grid<BooleanCell, BooleanState> grid, int y0, int y1, int wordsPerRow, Planes planes) {
+        if (grid instanceof PackedBooleanGrid packed) {
+            copyRows(packed, y0, y1, wordsPerRow, planes);
+            return;
+        }
+        int width = grid.getWidth();
+        for (int y = y0; y < y1; y++) {
+            int wordBase = (y - y0) * wordsPerRow * Long.BYTES;
+            int byteBase = (y - y0) * width;
+            for (int w = 0; w < wordsPerRow; w++) {
+                long value = 0;
+                long echo = 0;
+                int xEnd = Math.min(width, (w + 1) << 6);
+                for (int x = w << 6; x < xEnd; x++) {
+                    BooleanState state = grid.getCell(x, y).getState();
+                    long bit = 1L << x;
+                    if (state.getValue()) {
+                        value |= bit;
+                    }
+                    if (state.isEcho()) {
+                        echo |= bit;
+                    }
+                    planes.liveSum.put(byteBase + x, (byte) Math.min(255, Math.max(0, state.getLiveSum())));
+                    planes.id.put(byteBase + x, (byte) Math.min(255, Math.max(0, state.getId())));
+                }
+                planes.value.putLong(wordBase + w * Long.BYTES, value);
+                planes.echo.putLong(wordBase + w * Long.BYTES, echo);
+            }
+        }
+    }
+
+    /**
+     * Copies rows [y0, y1) of the planes of a packed grid into the four plane buffers, whose index 0 corresponds to
+     * row y0, with a bulk copy per row and plane. Bits past the last column are cleared; planes the grid does not
+     * store are written as zeros.
+     */
+    private static void copyRows(PackedBooleanGrid grid, int y0, int y1, int wordsPerRow, Planes planes) {
+        int width = grid.getWidth();
+        int bitRowBytes = wordsPerRow * Long.BYTES;
+        long lastWordMask = (width & 63) == 0 ? -1L : (1L << width) - 1;
+        for (int y = y0; y < y1; y++) {
+            int wordBase = (y - y0) * bitRowBytes;
+            int byteBase = (y - y0) * width;
+            int lastWord = wordBase + bitRowBytes - Long.BYTES;
+            grid.getValuePlane().copyRowTo(y, planes.value, wordBase, bitRowBytes);
+            planes.value.putLong(lastWord, planes.value.getLong(lastWord) & lastWordMask);
+            grid.getEchoPlane().copyRowTo(y, planes.echo, wordBase, bitRowBytes);
+            planes.echo.putLong(lastWord, planes.echo.getLong(lastWord) & lastWordMask);
+            copyByteRow(grid.getLiveSumPlane(), y, planes.liveSum, byteBase, width);
+            copyByteRow(grid.getIdPlane(), y, planes.id, byteBase, width);
+        }
+    }
+
+    /**
+     * Copies a row of a byte plane into a buffer, or zeros if the plane is not stored.
+     */
+    private static void copyByteRow(OffHeapPlane plane, int y, ByteBuffer dst, int index, int width) {
+        if (plane != null) {
+            plane.copyRowTo(y, dst, index, width);
+        } else {
+            for (int x = 0; x < width; x++) {
+                dst.put(index + x, (byte) 0);
+            }
+        }
+    }
+
+    /**
+     * Unpacks rows [y0, y1) of the four plane buffers, whose index 0 corresponds to row y0, into the grid.
+     */
+    static void decodeRows(Grid<BooleanCell, BooleanState> grid, int y0, int y1, int wordsPerRow, Planes planes) {
+        if (grid instanceof PackedBooleanGrid packed) {
+            restoreRows(packed, y0, y1, wordsPerRow, planes);
+            return;
+        }
+        int width = grid.getWidth();
+        for (int y = y0; y < y1; y++) {
+            int wordBase = (y - y0) * wordsPerRow * Long.BYTES;
+            int byteBase = (y - y0) * width;
+            for (int w = 0; w < wordsPerRow; w++) {
+                long value = planes.value.getLong(wordBase + w * Long.BYTES);
+                long echo = planes.echo.getLong(wordBase + w * Long.BYTES);
+                int xEnd = Math.min(width, (w + 1) << 6);
+                for (int x = w << 6; x < xEnd; x++) {
+                    long bit = 1L << x;
+                    grid.getCell(x, y).getState().set((value & bit) != 0, (echo & bit) != 0,
+                            planes.liveSum.get(byteBase + x) & 0xFF, planes.id.get(byteBase + x) & 0xFF);
+                }
+            }
+        }
+    }
+
+    /**
+     * Copies rows [y0, y1) of the four plane buffers, whose index 0 corresponds to row y0, into the planes of a packed
+     * grid with a bulk copy per row and plane. Planes the grid does not store are skipped. The grid hash and change
+     * set are not updated, as for cell-by-cell decoding.
+     */
+    private static void restoreRows(PackedBooleanGrid grid, int y0, int y1, int wordsPerRow, Planes planes) {
+        int width = grid.getWidth();
+        int bitRowBytes = wordsPerRow * Long.BYTES;
+        long lastWordMask = (width & 63) == 0 ? -1L : (1L << width) - 1;
+        for (int y = y0; y < y1; y++) {
+            int wordBase = (y - y0) * bitRowBytes;
+            int byteBase = (y - y0) * width;
+            grid.getValuePlane().copyRowFrom(y, planes.value, wordBase, bitRowBytes);
+            grid.getValuePlane().setWord(wordsPerRow - 1, y,
+                    grid.getValuePlane().getWord(wordsPerRow - 1, y) & lastWordMask);
+            grid.getEchoPlane().copyRowFrom(y, planes.echo, wordBase, bitRowBytes);
+            grid.getEchoPlane().setWord(wordsPerRow - 1, y,
+                    grid.getEchoPlane().getWord(wordsPerRow - 1, y) & lastWordMask);
+            if (grid.getLiveSumPlane() != null) {
+                grid.getLiveSumPlane().copyRowFrom(y, planes.liveSum, byteBase, width);
+            }
+            if (grid.getIdPlane() != null) {
+                grid.getIdPlane().copyRowFrom(y, planes.id, byteBase, width);
+            }
+        }
+    }
+
+    /**
+     * Views of the four planes for one band of rows.
+     */
+    record Planes(ByteBuffer value, ByteBuffer echo, ByteBuffer liveSum, ByteBuffer id) {
+    }
+
+    /**
+     * Computes the placement of the header and planes of a snapshot.
+     */
+    static final class Layout {
+        final int headerLength;
+        final int width;
+        final int wordsPerRow;
+        final long bitRowBytes;
+        final long valueOffset;
+        final long echoOffset;
+        final long liveSumOffset;
+        final long idOffset;
+        final long totalSize;
+        final int bandRows;
+
+        Layout(SnapshotHeader header) {
+            this.width = header.width();
+            this.headerLength = FIXED_HEADER_SIZE + header.ruleIds().length * Integer.BYTES;
+            this.wordsPerRow = (width + 63) >>> 6;
+            this.bitRowBytes = (long) wordsPerRow * Long.BYTES;
+            long bitPlaneBytes = bitRowBytes * header.height();
+            long bytePlaneBytes = (long) width * header.height();
+            this.valueOffset = align(headerLength);
+            this.echoOffset = align(valueOffset + bitPlaneBytes);
+            this.liveSumOffset = align(echoOffset + bitPlaneBytes);
+            this.idOffset = align(liveSumOffset + bytePlaneBytes);
+            this.totalSize = idOffset + bytePlaneBytes;
+            long widestRow = Math.max(bitRowBytes, width);
+            this.bandRows = (int) Math.max(1, Math.min(header.height(), MAX_BAND_BYTES / widestRow));
+        }
+
+        static long align(long offset) {
+            return (offset + PLANE_ALIGNMENT - 1) & -PLANE_ALIGNMENT;
+        }
+
+        Planes map(FileChannel channel, FileChannel.MapMode mode, int y0, int y1) throws IOException {
+            int rows = y1 - y0;
+            return new Planes(
+                    channel.map(mode, valueOffset + y0 * bitRowBytes, rows * bitRowBytes).order(ByteOrder.LITTLE_ENDIAN),
+                    channel.map(mode, echoOffset + y0 * bitRowBytes, rows * bitRowBytes).order(ByteOrder.LITTLE_ENDIAN),
+                    channel.map(mode, liveSumOffset + (long) y0 * width, (long) rows * width),
+                    channel.map(mode, idOffset + (long) y0 * width, (long) rows * width));
+        }
+
+        Planes slice(ByteBuffer image, int y0, int y1) {
+            int rows = y1 - y0;
+            return new Planes(
+                    image.slice((int) (valueOffset + y0 * bitRowBytes), (int) (rows * bitRowBytes)).order(ByteOrder.LITTLE_ENDIAN),
+                    image.slice((int) (echoOffset + y0 * bitRowBytes), (int) (rows * bitRowBytes)).order(ByteOrder.LITTLE_ENDIAN),
+                    image.slice((int) (liveSumOffset + (long) y0 * width), rows * width),
+                    image.slice((int) (idOffset + (long) y0 * width), rows * width));
+        }
+    }
+}
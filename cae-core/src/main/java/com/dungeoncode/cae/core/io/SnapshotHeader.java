@@ -0,0 +1,87 @@
+package com.dungeoncode.cae.core.io;
+
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * Describes the automaton captured by a {@link Snapshot}: the configuration and rules it was running, the grid
+ * dimensions, and the position of the run. The random streams of the rules are derived from the seed and the
+ * generation, so the two fully determine where the run continues.
+ *
+ * @param configurationId the identifier of the configuration that produced the grid
+ * @param ruleIds         the identifiers of the rules applied each step, in order
+ * @param width           the number of columns of the grid
+ * @param height          the number of rows of the grid
+ * @param generation      the number of steps executed when the snapshot was taken
+ * @param seed            the seed from which the rules' random streams are derived
+ */
+public record SnapshotHeader(int configurationId, int[] ruleIds, int width, int height, long generation, long seed) {
+
+    /**
+     * Validates the header fields.
+     *
+     * @throws NullPointerException     if ruleIds is null
+     * @throws IllegalArgumentException if the dimensions are not positive or the generation is negative
+     */
+    public SnapshotHeader {
+        Objects.requireNonNull(ruleIds, "Rule ids cannot be null");
+        if (width <= 0 || height <= 0) {
+            throw new IllegalArgumentException("Width and height must be positive: width=" + width + ", height=" + height);
+        }
+        if (generation < 0) {
+            throw new IllegalArgumentException("Generation cannot be negative: " + generation);
+        }
+        ruleIds = ruleIds.clone();
+    }
+
+    /**
+     * Returns a copy of the rule identifiers.
+     *
+     * @return the rule identifiers, in order
+     */
+    @Override
+    public int[] ruleIds() {
+        return ruleIds.clone();
+    }
+
+    /**
+     * Compares headers field by field, including the contents of the rule identifiers.
+     *
+     * @param o the object to compare with
+     * @return true if equal
+     */
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof SnapshotHeader other)) {
+            return false;
+        }
+        return configurationId == other.configurationId && width == other.width && height == other.height
+                && generation == other.generation && seed == other.seed
+                && Arrays.equals(ruleIds, other.ruleIds);
+    }
+
+    /**
+     * Returns a hash code consistent with {@link #equals(Object)}.
+     *
+     * @return the hash code
+     */
+    @Override
+    public int hashCode() {
+        int result = Objects.hash(configurationId, width, height, generation, seed);
+        return 31 * result + Arrays.hashCode(ruleIds);
+    }
+
+    /**
+     * Returns a readable description of the header.
+     *
+     * @return the description
+     */
+    @Override
+    public String toString() {
+        return "SnapshotHeader[configurationId=" + configurationId + ", ruleIds=" + Arrays.toString(ruleIds)
+                + ", width=" + width + ", height=" + height + ", generation=" + generation + ", seed=" + seed + "]";
+    }
+}
@@ -0,0 +1,190 @@
+package com.dungeoncode.cae.core.io;
+
+import com.dungeoncode.cae.core.Grid;
+import com.dungeoncode.cae.core.impl.BooleanCell;
+import com.dungeoncode.cae.core.impl.BooleanState;
+
+import javax.annotation.Nonnull;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Objects;
+
+/**
+ * A complete {@link Snapshot} image held in memory as a sequence of direct buffers: the header, then each plane in
+ * bands of whole rows, the last band of a plane carrying the alignment padding up to the next plane. Concatenated,
+ * the buffers hold exactly the bytes of the snapshot file, but no single buffer approaches the 2 GB limit, so grids of
+ * any size can be captured, and the image costs no heap.
+ * <p>
+ * An image is allocated once for a grid geometry and reused by every capture of a grid with that geometry. Capturing
+ * a {@code PackedBooleanGrid} copies its planes in bulk, a row at a time; other grids are encoded cell by cell.
+ */
+final class SnapshotImage {
+
+    /**
+     * The header the image was allocated for, defining its geometry.
+     */
+    private final SnapshotHeader shape;
+
+    /**
+     * The placement of the header and planes.
+     */
+    private final Snapshot.Layout layout;
+
+    /**
+     * The buffers of the image, in file order.
+     */
+    private final ByteBuffer[] buffers;
+
+    /**
+     * The plane bands, one per band of rows.
+     */
+    private final Snapshot.Planes[] bands;
+
+    /**
+     * Allocates an image for grids of the geometry of the specified header.
+     *
+     * @param header the header defining the grid dimensions and rule count, must not be null
+     * @throws NullPointerException if header is null
+     * @throws OutOfMemoryError     if the direct memory cannot be allocated
+     */
+    SnapshotImage(@Nonnull SnapshotHeader header) {
+        this.shape = Objects.requireNonNull(header, "Header cannot be null");
+        this.layout = new Snapshot.Layout(header);
+        int height = header.height();
+        int bandCount = (height + layout.bandRows - 1) / layout.bandRows;
+        long[] offsets = {layout.valueOffset, layout.echoOffset, layout.liveSumOffset, layout.idOffset,
+                layout.totalSize};
+        long[] rowBytes = {layout.bitRowBytes, layout.bitRowBytes, layout.width, layout.width};
+        this.buffers = new ByteBuffer[1 + rowBytes.length * bandCount];
+        this.bands = new Snapshot.Planes[bandCount];
+        buffers[0] = allocate(layout.valueOffset);
+        ByteBuffer[] band = new ByteBuffer[rowBytes.length];
+        for (int b = 0; b < bandCount; b++) {
+            int y0 = b * layout.bandRows;
+            int y1 = Math.min(height, y0 + layout.bandRows);
+            for (int p = 0; p < band.length; p++) {
+                long size = y1 == height ? offsets[p + 1] - offsets[p] - y0 * rowBytes[p] : (y1 - y0) * rowBytes[p];
+                band[p] = allocate(size);
+                buffers[1 + p * bandCount + b] = band[p];
+            }
+            bands[b] = new Snapshot.Planes(band[0], band[1], band[2], band[3]);
+        }
+    }
+
+    /**
+     * Returns whether the image has the geometry required by the specified header.
+     *
+     * @param header the header to test
+     * @return true if the grid dimensions and rule count match
+     */
+    boolean fits(SnapshotHeader header) {
+        return header.width() == shape.width() && header.height() == shape.height()
+                && header.ruleIds().length == shape.ruleIds().length;
+    }
+
+    /**
+     * Captures a grid into the image, overwriting the previous capture.
+     *
+     * @param header the header to write, must fit the image and match the grid dimensions
+     * @param grid   the {@link Grid} to capture, must not be null
+     * @throws IllegalArgumentException if the header does not fit the image or the grid
+     */
+    void capture(@Nonnull SnapshotHeader header, @Nonnull Grid<BooleanCell, BooleanState> grid) {
+        Objects.requireNonNull(header, "Header cannot be null");
+        Objects.requireNonNull(grid, "Grid cannot be null");
+        if (!fits(header)) {
+            throw new IllegalArgumentException("Header " + header + " does not fit image of " + shape);
+        }
+        Snapshot.checkDimensions(header, grid);
+        Snapshot.writeHeader(buffers[0].duplicate().clear().order(ByteOrder.LITTLE_ENDIAN), header, layout);
+        for (int b = 0; b < bands.length; b++) {
+            int y0 = b * layout.bandRows;
+            Snapshot.encodeRows(grid, y0, Math.min(header.height(), y0 + layout.bandRows), layout.wordsPerRow,
+                    bands[b]);
+        }
+    }
+
+    /**
+     * Parses the header currently held by the image.
+     *
+     * @return the header
+     * @throws IOException if the image does not hold a supported snapshot header
+     */
+    SnapshotHeader header() throws IOException {
+        return Snapshot.decodeHeader(buffers[0]);
+    }
+
+    /**
+     * Decodes the image into a grid.
+     *
+     * @param grid the {@link Grid} to fill, must not be null and fully populated with cells
+     * @return the header of the image
+     * @throws IOException              if the image does not hold a supported snapshot of this geometry
+     * @throws IllegalArgumentException if the image does not match the grid dimensions
+     */
+    SnapshotHeader restore(@Nonnull Grid<BooleanCell, BooleanState> grid) throws IOException {
+        Objects.requireNonNull(grid, "Grid cannot be null");
+        SnapshotHeader header = header();
+        if (!fits(header)) {
+            throw new IOException("Snapshot header " + header + " does not fit image of " + shape);
+        }
+        Snapshot.checkDimensions(header, grid);
+        for (int b = 0; b < bands.length; b++) {
+            int y0 = b * layout.bandRows;
+            Snapshot.decodeRows(grid, y0, Math.min(header.height(), y0 + layout.bandRows), layout.wordsPerRow,
+                    bands[b]);
+        }
+        return header;
+    }
+
+    /**
+     * Copies the contents of an image of the same geometry into this one.
+     *
+     * @param source the image to copy
+     * @throws IllegalArgumentException if the images differ in geometry
+     */
+    void copyFrom(SnapshotImage source) {
+        if (source.size() != size() || !fits(source.shape)) {
+            throw new IllegalArgumentException("Images differ in geometry: " + source.shape + ", " + shape);
+        }
+        for (int i = 0; i < buffers.length; i++) {
+            buffers[i].put(0, source.buffers[i], 0, buffers[i].capacity());
+        }
+    }
+
+    /**
+     * Returns the total size of the image in bytes, as in {@link Snapshot#sizeOf(SnapshotHeader)}.
+     *
+     * @return the image size
+     */
+    long size() {
+        return layout.totalSize;
+    }
+
+    /**
+     * Returns the number of buffers holding the image.
+     *
+     * @return the buffer count
+     */
+    int bufferCount() {
+        return buffers.length;
+    }
+
+    /**
+     * Returns one of the buffers holding the image, in file order. Callers use absolute access only.
+     *
+     * @param index the buffer index
+     * @return the buffer
+     */
+    ByteBuffer buffer(int index) {
+        return buffers[index];
+    }
+
+    /**
+     * Allocates a zeroed little-endian direct buffer.
+     */
+    private static ByteBuffer allocate(long size) {
+        return ByteBuffer.allocateDirect(Math.toIntExact(size)).order(ByteOrder.LITTLE_ENDIAN);
+    }
+}
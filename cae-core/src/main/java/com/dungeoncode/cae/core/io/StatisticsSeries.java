@@ -0,0 +1,268 @@
+package com.dungeoncode.cae.core.io;
+
+import javax.annotation.Nonnull;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.stream.Stream;
+
+/**
+ * A read-only view of a binary statistics file written by {@link StatisticsSink}. The file is memory-mapped, so
+ * records are read in place without loading the series into the heap. A file that is still being written can be
+ * opened; the view covers the complete records present when it was opened.
+ */
+public final class StatisticsSeries {
+
+    /**
+     * The mapped file.
+     */
+    private final ByteBuffer data;
+
+    /**
+     * The grid width.
+     */
+    private final int width;
+
+    /**
+     * The grid height.
+     */
+    private final int height;
+
+    /**
+     * The number of live sum bins per record.
+     */
+    private final int liveSumBins;
+
+    /**
+     * The number of species slots per record.
+     */
+    private final int speciesSlots;
+
+    /**
+     * The size of a record in bytes.
+     */
+    private final int recordBytes;
+
+    /**
+     * The number of complete records.
+     */
+    private final int size;
+
+    /**
+     * Constructs a view over a mapped file whose header has been validated.
+     *
+     * @param data         the mapped file
+     * @param width        the grid width
+     * @param height       the grid height
+     * @param liveSumBins  the number of live sum bins per record
+     * @param speciesSlots the number of species slots per record
+     * @param recordBytes  the size of a record in bytes
+     */
+    private StatisticsSeries(ByteBuffer data, int width, int height, int liveSumBins, int speciesSlots,
+                             int recordBytes) {
+        this.data = data;
+        this.width = width;
+        this.height = height;
+        this.liveSumBins = liveSumBins;
+        this.speciesSlots = speciesSlots;
+        this.recordBytes = recordBytes;
+        this.size = (data.limit() - StatisticsSink.HEADER_BYTES) / recordBytes;
+    }
+
+    /**
+     * Maps a binary statistics file.
+     *
+     * @param file the file to map, must not be null
+     * @return the series
+     * @throws NullPointerException if file is null
+     * @throws IOException          if the file cannot be mapped, is larger than 2 GB, or is not a statistics file
+     */
+    public static StatisticsSeries open(@Nonnull Path file) throws IOException {
+        Objects.requireNonNull(file, "File cannot be null");
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long length = channel.size();
+            if (length < StatisticsSink.HEADER_BYTES) {
+                throw new IOException("Not a statistics file: " + file);
+            }
+            if (length > Integer.MAX_VALUE) {
+                throw new IOException("Statistics file too large to map: " + file);
+            }
+            MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, length);
+            mapped.order(ByteOrder.LITTLE_ENDIAN);
+            byte[] magic = new byte[StatisticsSink.MAGIC.length];
+            mapped.get(0, magic);
+            if (!Arrays.equals(magic, StatisticsSink.MAGIC)) {
+                throw new IOException("Not a statistics file: " + file);
+            }
+            int version = mapped.getInt(8);
+            if (version != StatisticsSink.VERSION) {
+                throw new IOException("Unsupported statistics file version " + version + ": " + file);
+            }
+            int liveSumBins = mapped.getInt(20);
+            int speciesSlots = mapped.getInt(24);
+            int recordBytes = mapped.getInt(28);
+            if (liveSumBins <= 0 || speciesSlots <= 0
+                    || recordBytes != (StatisticsSink.FIXED_FIELDS + liveSumBins + speciesSlots) * Long.BYTES) {
+                throw new IOException("Corrupt statistics file header: " + file);
+            }
+            return new StatisticsSeries(mapped, mapped.getInt(12), mapped.getInt(16), liveSumBins, speciesSlots,
+                    recordBytes);
+        }
+    }
+
+    /**
+     * Lists the binary files of a sink in rotation order.
+     *
+     * @param directory the directory of the sink, must not be null
+     * @param prefix    the file name prefix of the sink, must not be null
+     * @return the files, oldest first
+     * @throws IOException if the directory cannot be listed
+     */
+    public static List<Path> list(@Nonnull Path directory, @Nonnull String prefix) throws IOException {
+        Objects.requireNonNull(directory, "Directory cannot be null");
+        Objects.requireNonNull(prefix, "Prefix cannot be null");
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(path -> {
+                String name = path.getFileName().toString();
+                return name.startsWith(prefix + "-") && name.endsWith(".stats")
+                        && name.length() == prefix.length() + 12;
+            }).sorted().toList();
+        }
+    }
+
+    /**
+     * Returns the number of complete records.
+     *
+     * @return the record count
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns the grid width.
+     *
+     * @return the width
+     */
+    public int getWidth() {
+        return width;
+    }
+
+    /**
+     * Returns the grid height.
+     *
+     * @return the height
+     */
+    public int getHeight() {
+        return height;
+    }
+
+    /**
+     * Returns the number of live sum bins per record.
+     *
+     * @return the bin count
+     */
+    public int getLiveSumBins() {
+        return liveSumBins;
+    }
+
+    /**
+     * Returns the number of species slots per record.
+     *
+     * @return the slot count
+     */
+    public int getSpeciesSlots() {
+        return speciesSlots;
+    }
+
+    /**
+     * Returns the generation of a record.
+     *
+     * @param record the record index
+     * @return the generation
+     * @throws IndexOutOfBoundsException if the index is out of range
+     */
+    public long getGeneration(int record) {
+        return data.getLong(offset(record));
+    }
+
+    /**
+     * Returns the population of a record.
+     *
+     * @param record the record index
+     * @return the number of active cells
+     * @throws IndexOutOfBoundsException if the index is out of range
+     */
+    public long getPopulation(int record) {
+        return data.getLong(offset(record) + Long.BYTES);
+    }
+
+    /**
+     * Returns the density of a record.
+     *
+     * @param record the record index
+     * @return the fraction of active cells
+     * @throws IndexOutOfBoundsException if the index is out of range
+     */
+    public double getDensity(int record) {
+        return data.getDouble(offset(record) + 2 * Long.BYTES);
+    }
+
+    /**
+     * Returns a live sum bin of a record.
+     *
+     * @param record the record index
+     * @param bin    the live sum; the last bin counts all larger live sums
+     * @return the number of cells
+     * @throws IndexOutOfBoundsException if an index is out of range
+     */
+    public long getLiveSumCount(int record, int bin) {
+        Objects.checkIndex(bin, liveSumBins);
+        return data.getLong(offset(record) + (StatisticsSink.FIXED_FIELDS + bin) * Long.BYTES);
+    }
+
+    /**
+     * Returns a species slot of a record.
+     *
+     * @param record the record index
+     * @param slot   the species id; the last slot counts all larger ids
+     * @return the number of active cells
+     * @throws IndexOutOfBoundsException if an index is out of range
+     */
+    public long getSpeciesCount(int record, int slot) {
+        Objects.checkIndex(slot, speciesSlots);
+        return data.getLong(offset(record) + (StatisticsSink.FIXED_FIELDS + liveSumBins + slot) * Long.BYTES);
+    }
+
+    /**
+     * Returns the densities of all records.
+     *
+     * @return a new array with one density per record
+     */
+    public double[] getDensities() {
+        double[] densities = new double[size];
+        for (int i = 0; i < size; i++) {
+            densities[i] = getDensity(i);
+        }
+        return densities;
+    }
+
+    /**
+     * Returns the byte offset of a record.
+     *
+     * @param record the record index
+     * @return the offset
+     * @throws IndexOutOfBoundsException if the index is out of range
+     */
+    private int offset(int record) {
+        return StatisticsSink.HEADER_BYTES + Objects.checkIndex(record, size) * recordBytes;
+    }
+}
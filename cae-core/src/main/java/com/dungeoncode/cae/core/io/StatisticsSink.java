@@ -0,0 +1,510 @@
+package com.dungeoncode.cae.core.io;
+
+import com.dungeoncode.cae.core.impl.BooleanStatistics;
+import com.dungeoncode.cae.core.impl.BooleanStatisticsCollector;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.annotation.Nonnull;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+
+/**
+ * Streams the {@link BooleanStatistics} of every generation to disk, so that density and species curves of long runs
+ * can be analyzed without holding them in memory.
+ * <p>
+ * Registered as a listener of a {@link BooleanStatisticsCollector} (see
+ * {@link BooleanStatisticsCollector#addListener(Consumer)}), the sink only copies each record into a preallocated
+ * ring buffer on the stepping thread. A dedicated flusher thread drains the ring through a {@link FileChannel}. The
+ * step loop never waits for disk: if the ring is full, the record is dropped and counted (see
+ * {@link #getDroppedCount()}).
+ * <p>
+ * Records are written to numbered files {@code <prefix>-00000.stats}, {@code <prefix>-00001.stats}, and so on
+ * ({@code .csv} in CSV format), starting a new file when the current one would exceed the maximum file size. Binary
+ * files are read back with {@link StatisticsSeries}. Their layout (little-endian) is:
+ * <pre>
+ * header: magic "CAESTAT\0", int version, int width, int height, int liveSumBins, int speciesSlots, int recordBytes
+ * record: long generation, long population, double density, long[liveSumBins], long[speciesSlots]
+ * </pre>
+ * Records have a fixed width: the last live sum bin counts every cell with a live sum of at least
+ * {@code liveSumBins - 1}, and the last species slot every active cell with an id of at least
+ * {@code speciesSlots - 1}.
+ */
+public class StatisticsSink implements Consumer<BooleanStatistics>, Closeable {
+
+    /**
+     * Logger for recording flusher errors.
+     */
+    private static final Logger LOGGER = LoggerFactory.getLogger(StatisticsSink.class);
+
+    /**
+     * The file signature of binary statistics files.
+     */
+    static final byte[] MAGIC = "CAESTAT\0".getBytes(StandardCharsets.US_ASCII);
+
+    /**
+     * The format version written by this class.
+     */
+    static final int VERSION = 1;
+
+    /**
+     * The size of the binary file header in bytes.
+     */
+    static final int HEADER_BYTES = 32;
+
+    /**
+     * The number of leading fields of a record: generation, population, and density.
+     */
+    static final int FIXED_FIELDS = 3;
+
+    /**
+     * The default number of live sum bins, enough for the Moore neighborhood (0 to 8 live neighbors).
+     */
+    public static final int DEFAULT_LIVE_SUM_BINS = 9;
+
+    /**
+     * The default number of species slots.
+     */
+    public static final int DEFAULT_SPECIES_SLOTS = 8;
+
+    /**
+     * The default number of records the ring buffer holds.
+     */
+    public static final int DEFAULT_CAPACITY = 4096;
+
+    /**
+     * The default maximum size of a file before rotation, 64 MB.
+     */
+    public static final long DEFAULT_MAX_FILE_BYTES = 64L << 20;
+
+    /**
+     * How long the flusher sleeps when the ring is empty, in nanoseconds.
+     */
+    private static final long IDLE_NANOS = 50_000_000L;
+
+    /**
+     * The record formats.
+     */
+    public enum Format {
+        /**
+         * Fixed-width little-endian binary records, readable with {@link StatisticsSeries}.
+         */
+        BINARY,
+        /**
+         * Comma-separated text with a header line.
+         */
+        CSV
+    }
+
+    /**
+     * The directory holding the files.
+     */
+    private final Path directory;
+
+    /**
+     * The file name prefix.
+     */
+    private final String prefix;
+
+    /**
+     * The record format.
+     */
+    private final Format format;
+
+    /**
+     * The number of live sum bins per record.
+     */
+    private final int liveSumBins;
+
+    /**
+     * The number of species slots per record.
+     */
+    private final int speciesSlots;
+
+    /**
+     * The maximum size of a file before rotation.
+     */
+    private final long maxFileBytes;
+
+    /**
+     * The number of long fields per record.
+     */
+    private final int recordLongs;
+
+    /**
+     * The ring capacity in records, a power of two.
+     */
+    private final int capacity;
+
+    /**
+     * The ring of pending records, {@link #recordLongs} fields per record, doubles stored as raw bits.
+     */
+    private final long[] ring;
+
+    /**
+     * The flusher thread.
+     */
+    private final Thread flusher;
+
+    /**
+     * The number of records published into the ring, written only by the stepping thread.
+     */
+    private volatile long published;
+
+    /**
+     * The number of records drained from the ring, written only by the flusher.
+     */
+    private volatile long drained;
+
+    /**
+     * The number of records dropped because the ring was full, written only by the stepping thread.
+     */
+    private volatile long dropped;
+
+    /**
+     * Whether the sink has been closed.
+     */
+    private volatile boolean closed;
+
+    /**
+     * The first I/O error of the flusher, rethrown by {@link #close()}.
+     */
+    private volatile IOException failure;
+
+    /**
+     * The grid width, taken from the first record.
+     */
+    private volatile int width;
+
+    /**
+     * The grid height, taken from the first record.
+     */
+    private volatile int height;
+
+    /**
+     * The file being written, or null before the first record.
+     */
+    private FileChannel channel;
+
+    /**
+     * The index of the file being written.
+     */
+    private int fileIndex = -1;
+
+    /**
+     * The number of bytes in the file being written.
+     */
+    private long fileBytes;
+
+    /**
+     * The staging buffer of the flusher.
+     */
+    private final ByteBuffer buffer;
+
+    /**
+     * Creates a binary sink with the default record width, ring capacity, and file size.
+     *
+     * @param directory the directory for the files, created if missing, must not be null
+     * @param prefix    the file name prefix, must not be null or empty
+     * @throws IOException if the directory cannot be created
+     */
+    public StatisticsSink(@Nonnull Path directory, @Nonnull String prefix) throws IOException {
+        this(directory, prefix, Format.BINARY, DEFAULT_LIVE_SUM_BINS, DEFAULT_SPECIES_SLOTS, DEFAULT_CAPACITY,
+                DEFAULT_MAX_FILE_BYTES);
+    }
+
+    /**
+     * Creates a sink and starts its flusher thread.
+     *
+     * @param directory    the directory for the files, created if missing, must not be null
+     * @param prefix       the file name prefix, must not be null or empty
+     * @param format       the record format, must not be null
+     * @param liveSumBins  the number of live sum bins per record, must be positive
+     * @param speciesSlots the number of species slots per record, must be positive
+     * @param capacity     the number of records the ring buffer holds, rounded up to a power of two, must be positive
+     * @param maxFileBytes the size at which a new file is started, must hold at least the header and one record
+     * @throws NullPointerException     if directory, prefix, or format is null
+     * @throws IllegalArgumentException if a size is out of range or the prefix is empty
+     * @throws IOException              if the directory cannot be created
+     */
+    public StatisticsSink(@Nonnull Path directory, @Nonnull String prefix, @Nonnull Format format, int liveSumBins,
+                          int speciesSlots, int capacity, long maxFileBytes) throws IOException {
+        this.directory = Objects.requireNonNull(directory, "Directory cannot be null");
+        this.prefix = Objects.requireNonNull(prefix, "Prefix cannot be null");
+        this.format = Objects.requireNonNull(format, "Format cannot be null");
+        if (prefix.isEmpty()) {
+            throw new IllegalArgumentException("Prefix cannot be empty");
+        }
+        if (liveSumBins <= 0 || speciesSlots <= 0) {
+            throw new IllegalArgumentException("Live sum bins and species slots must be positive: liveSumBins="
+                    + liveSumBins + ", speciesSlots=" + speciesSlots);
+        }
+        if (capacity <= 0 || capacity > 1 << 24) {
+            throw new IllegalArgumentException("Capacity must be between 1 and 2^24: " + capacity);
+        }
+        this.liveSumBins = liveSumBins;
+        this.speciesSlots = speciesSlots;
+        this.recordLongs = FIXED_FIELDS + liveSumBins + speciesSlots;
+        if (maxFileBytes < HEADER_BYTES + (long) recordLongs * Long.BYTES) {
+            throw new IllegalArgumentException("Maximum file size cannot hold a record: " + maxFileBytes);
+        }
+        this.maxFileBytes = maxFileBytes;
+        int slots = 1;
+        while (slots < capacity) {
+            slots <<= 1;
+        }
+        this.capacity = slots;
+        this.ring = new long[slots * recordLongs];
+        this.buffer = ByteBuffer.allocateDirect(Math.max(1 << 16, recordLongs * 24 + 64)).order(ByteOrder.LITTLE_ENDIAN);
+        Files.createDirectories(directory);
+        this.flusher = new Thread(this::flushLoop, "statistics-flusher");
+        this.flusher.setDaemon(true);
+        this.flusher.start();
+    }
+
+    /**
+     * Copies a record into the ring buffer, or drops it if the ring is full. Called on the stepping thread; never
+     * blocks.
+     *
+     * @param statistics the statistics of a generation
+     */
+    @Override
+    public void accept(BooleanStatistics statistics) {
+        if (closed) {
+            return;
+        }
+        long sequence = published;
+        if (sequence - drained >= capacity) {
+            dropped = dropped + 1;
+            return;
+        }
+        if (sequence == 0) {
+            width = statistics.width();
+            height = statistics.height();
+        }
+        int base = (int) (sequence & (capacity - 1)) * recordLongs;
+        ring[base] = statistics.generation();
+        ring[base + 1] = statistics.population();
+        ring[base + 2] = Double.doubleToRawLongBits(statistics.density());
+        long[] histogram = statistics.liveSumHistogram();
+        fold(histogram, ring, base + FIXED_FIELDS, liveSumBins);
+        long[] species = statistics.speciesCounts();
+        fold(species, ring, base + FIXED_FIELDS + liveSumBins, speciesSlots);
+        published = sequence + 1;
+        if (sequence + 1 - drained >= capacity / 2) {
+            LockSupport.unpark(flusher);
+        }
+    }
+
+    /**
+     * Copies counts into fixed slots, adding every count beyond the last slot to the last slot.
+     *
+     * @param counts the counts
+     * @param target the destination array
+     * @param offset the first destination index
+     * @param slots  the number of destination slots
+     */
+    private static void fold(long[] counts, long[] target, int offset, int slots) {
+        for (int i = 0; i < slots; i++) {
+            target[offset + i] = 0;
+        }
+        for (int i = 0; i < counts.length; i++) {
+            target[offset + Math.min(i, slots - 1)] += counts[i];
+        }
+    }
+
+    /**
+     * Drains the ring until the sink is closed and empty.
+     */
+    private void flushLoop() {
+        while (true) {
+            boolean done = closed;
+            long available = published - drained;
+            if (available > 0 && failure == null) {
+                try {
+                    drain(available);
+                } catch (IOException e) {
+                    LOGGER.error("Failed to write statistics to {}: {}", directory, e.getMessage(), e);
+                    failure = e;
+                }
+            } else if (failure != null) {
+                drained = published;
+            }
+            if (done && published == drained) {
+                break;
+            }
+            if (available == 0) {
+                LockSupport.parkNanos(this, IDLE_NANOS);
+            }
+        }
+        try {
+            if (channel != null) {
+                channel.force(false);
+                channel.close();
+            }
+        } catch (IOException e) {
+            if (failure == null) {
+                failure = e;
+            }
+        }
+    }
+
+    /**
+     * Writes pending records and releases their ring slots.
+     *
+     * @param count the number of records to write
+     * @throws IOException if a file cannot be written
+     */
+    private void drain(long count) throws IOException {
+        long sequence = drained;
+        for (long i = 0; i < count; i++) {
+            int base = (int) ((sequence + i) & (capacity - 1)) * recordLongs;
+            byte[] text = format == Format.CSV ? csvLine(base).getBytes(StandardCharsets.US_ASCII) : null;
+            int size = text != null ? text.length : recordLongs * Long.BYTES;
+            if (channel == null || fileBytes + buffer.position() + size > maxFileBytes) {
+                rotate();
+            }
+            if (buffer.remaining() < size) {
+                writeBuffer();
+            }
+            if (text != null) {
+                buffer.put(text);
+            } else {
+                buffer.putLong(ring[base]).putLong(ring[base + 1]).putDouble(Double.longBitsToDouble(ring[base + 2]));
+                for (int f = FIXED_FIELDS; f < recordLongs; f++) {
+                    buffer.putLong(ring[base + f]);
+                }
+            }
+            drained = sequence + i + 1;
+        }
+        writeBuffer();
+    }
+
+    /**
+     * Formats a record as a CSV line.
+     *
+     * @param base the index of the record in the ring
+     * @return the line, terminated by a newline
+     */
+    private String csvLine(int base) {
+        StringBuilder line = new StringBuilder(recordLongs * 8);
+        line.append(ring[base]).append(',').append(ring[base + 1]).append(',')
+                .append(String.format(Locale.ROOT, "%.6f", Double.longBitsToDouble(ring[base + 2])));
+        for (int f = FIXED_FIELDS; f < recordLongs; f++) {
+            line.append(',').append(ring[base + f]);
+        }
+        return line.append('\n').toString();
+    }
+
+    /**
+     * Writes the staging buffer to the current file.
+     *
+     * @throws IOException if the file cannot be written
+     */
+    private void writeBuffer() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            fileBytes += channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    /**
+     * Closes the current file, if any, and starts the next one with its header.
+     *
+     * @throws IOException if a file cannot be closed or created
+     */
+    private void rotate() throws IOException {
+        if (channel != null) {
+            writeBuffer();
+            channel.force(false);
+            channel.close();
+        }
+        fileIndex++;
+        channel = FileChannel.open(getFile(fileIndex), StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+        fileBytes = 0;
+        if (format == Format.BINARY) {
+            buffer.put(MAGIC).putInt(VERSION).putInt(width).putInt(height).putInt(liveSumBins).putInt(speciesSlots)
+                    .putInt(recordLongs * Long.BYTES);
+        } else {
+            StringBuilder header = new StringBuilder("generation,population,density");
+            for (int i = 0; i < liveSumBins; i++) {
+                header.append(",livesum_").append(i);
+            }
+            for (int i = 0; i < speciesSlots; i++) {
+                header.append(",species_").append(i);
+            }
+            buffer.put(header.append('\n').toString().getBytes(StandardCharsets.US_ASCII));
+        }
+        writeBuffer();
+    }
+
+    /**
+     * Returns the path of a numbered file of this sink.
+     *
+     * @param index the file number
+     * @return the path
+     */
+    public Path getFile(int index) {
+        return directory.resolve(String.format(Locale.ROOT, "%s-%05d%s", prefix, index,
+                format == Format.BINARY ? ".stats" : ".csv"));
+    }
+
+    /**
+     * Returns the number of files started so far.
+     *
+     * @return the file count
+     */
+    public int getFileCount() {
+        return fileIndex + 1;
+    }
+
+    /**
+     * Returns the number of records accepted into the ring.
+     *
+     * @return the record count
+     */
+    public long getRecordCount() {
+        return published;
+    }
+
+    /**
+     * Returns the number of records dropped because the flusher fell behind.
+     *
+     * @return the dropped count
+     */
+    public long getDroppedCount() {
+        return dropped;
+    }
+
+    /**
+     * Stops accepting records, waits for the flusher to write the pending ones, and closes the file.
+     *
+     * @throws IOException if a record could not be written
+     */
+    @Override
+    public void close() throws IOException {
+        closed = true;
+        LockSupport.unpark(flusher);
+        try {
+            flusher.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+}
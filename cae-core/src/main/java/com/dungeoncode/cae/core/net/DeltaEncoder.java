@@ -0,0 +1,201 @@
+package com.dungeoncode.cae.core.net;
+
+import java.util.Arrays;
+
+/**
+ * Encodes the XOR difference between two planes of cell symbols as a run-length token stream.
+ * <p>
+ * Cells are numbered row by row, and a decoder walks them with a cursor starting at cell 0. Each token is a varint
+ * {@code length << 2 | kind}:
+ * <ul>
+ *     <li>kind 0 skips {@code length} unchanged cells;</li>
+ *     <li>kind 1 is followed by {@code length} bytes, XORed into consecutive cells;</li>
+ *     <li>kind 2 is followed by one byte, XORed into {@code length} consecutive cells.</li>
+ * </ul>
+ * The stream ends with the message; cells past the last token are unchanged. Only cells in the dirty bitmap are
+ * visited, so encoding costs time in proportion to the cells that changed, plus one bit per row.
+ */
+final class DeltaEncoder {
+
+    /**
+     * The shortest run of equal bytes worth a repeat token.
+     */
+    private static final int MIN_REPEAT = 4;
+
+    /**
+     * The encoded bytes.
+     */
+    private byte[] out = new byte[1 << 12];
+
+    /**
+     * The number of encoded bytes.
+     */
+    private int size;
+
+    /**
+     * The XOR values of the current run of adjacent changed cells.
+     */
+    private byte[] run = new byte[256];
+
+    /**
+     * The number of values in the current run.
+     */
+    private int runLength;
+
+    /**
+     * The cell after the last one encoded or skipped.
+     */
+    private long cursor;
+
+    /**
+     * Starts a message with a header.
+     *
+     * @param header the header bytes
+     * @param length the number of header bytes
+     */
+    void begin(byte[] header, int length) {
+        size = 0;
+        runLength = 0;
+        cursor = 0;
+        ensure(length);
+        System.arraycopy(header, 0, out, 0, length);
+        size = length;
+    }
+
+    /**
+     * Encodes the dirty cells of a plane against the plane last sent, updates the sent plane, and clears the dirty
+     * bits.
+     *
+     * @param current     the symbols of the cells
+     * @param sent        the symbols last sent, updated to the current ones
+     * @param dirty       the bitmap of cells that may differ, one bit per cell in rows of {@code wordsPerRow} words
+     * @param dirtyRows   the bitmap of rows with dirty cells, one bit per row
+     * @param width       the number of columns
+     * @param wordsPerRow the number of words per row of the dirty bitmap
+     */
+    void encode(byte[] current, byte[] sent, long[] dirty, long[] dirtyRows, int width, int wordsPerRow) {
+        for (int r = 0; r < dirtyRows.length; r++) {
+            long rows = dirtyRows[r];
+            dirtyRows[r] = 0;
+            while (rows != 0) {
+                int y = (r << 6) + Long.numberOfTrailingZeros(rows);
+                rows &= rows - 1;
+                int base = y * wordsPerRow;
+                for (int w = 0; w < wordsPerRow; w++) {
+                    long bits = dirty[base + w];
+                    if (bits == 0) {
+                        continue;
+                    }
+                    dirty[base + w] = 0;
+                    while (bits != 0) {
+                        int x = (w << 6) + Long.numberOfTrailingZeros(bits);
+                        bits &= bits - 1;
+                        if (x >= width) {
+                            break;
+                        }
+                        int i = y * width + x;
+                        int value = current[i] ^ sent[i];
+                        if (value != 0) {
+                            sent[i] = current[i];
+                            put(i, (byte) value);
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Appends the XOR value of a cell, after any cells already appended.
+     *
+     * @param cell  the cell index
+     * @param value the non-zero XOR value
+     */
+    private void put(long cell, byte value) {
+        if (cell != cursor) {
+            flushRun();
+            token(cell - cursor, 0);
+        }
+        if (runLength == run.length) {
+            run = Arrays.copyOf(run, run.length * 2);
+        }
+        run[runLength++] = value;
+        cursor = cell + 1;
+    }
+
+    /**
+     * Ends the message.
+     *
+     * @return the encoded message, trimmed to its length
+     */
+    byte[] finish() {
+        flushRun();
+        return Arrays.copyOf(out, size);
+    }
+
+    /**
+     * Writes the current run as literal and repeat tokens.
+     */
+    private void flushRun() {
+        int literalStart = 0;
+        int i = 0;
+        while (i < runLength) {
+            int j = i + 1;
+            while (j < runLength && run[j] == run[i]) {
+                j++;
+            }
+            if (j - i >= MIN_REPEAT) {
+                literal(literalStart, i);
+                token(j - i, 2);
+                ensure(1);
+                out[size++] = run[i];
+                literalStart = j;
+            }
+            i = j;
+        }
+        literal(literalStart, runLength);
+        runLength = 0;
+    }
+
+    /**
+     * Writes part of the current run as a literal token.
+     *
+     * @param from the first value, inclusive
+     * @param to   the last value, exclusive
+     */
+    private void literal(int from, int to) {
+        if (to > from) {
+            token(to - from, 1);
+            ensure(to - from);
+            System.arraycopy(run, from, out, size, to - from);
+            size += to - from;
+        }
+    }
+
+    /**
+     * Writes a token.
+     *
+     * @param length the length of the token
+     * @param kind   the kind of the token
+     */
+    private void token(long length, int kind) {
+        ensure(10);
+        long value = length << 2 | kind;
+        while ((value & ~0x7FL) != 0) {
+            out[size++] = (byte) (value & 0x7F | 0x80);
+            value >>>= 7;
+        }
+        out[size++] = (byte) value;
+    }
+
+    /**
+     * Grows the output to hold more bytes.
+     *
+     * @param bytes the number of bytes to be written
+     */
+    private void ensure(int bytes) {
+        if (size + bytes > out.length) {
+            out = Arrays.copyOf(out, Math.max(out.length * 2, size + bytes));
+        }
+    }
+}
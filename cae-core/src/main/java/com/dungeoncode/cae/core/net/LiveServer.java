@@ -0,0 +1,1063 @@
+package com.dungeoncode.cae.core.net;
+
+import com.dungeoncode.cae.core.Automaton;
+import com.dungeoncode.cae.core.ChangeSet;
+import com.dungeoncode.cae.core.Grid;
+import com.dungeoncode.cae.core.impl.BooleanCell;
+import com.dungeoncode.cae.core.impl.BooleanState;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.annotation.Nonnull;
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.ToIntFunction;
+
+/**
+ * An embedded HTTP server that streams a running automaton to browsers over WebSocket, for watching headless
+ * simulations from the same machine or the LAN.
+ * <p>
+ * {@code GET /} serves a small canvas client, and {@code GET /stream} upgrades to a WebSocket carrying binary frames.
+ * Each cell is reduced to a one-byte symbol with a palette color. A client first receives a keyframe with the grid
+ * size, the palette and all symbols, then deltas: the XOR of the symbols against the ones it last received, as
+ * run-length tokens (see {@link DeltaEncoder}). Frames are encoded at most a fixed number of times per second; while a
+ * client's previous frame is still being written, newer generations are merged into its next delta instead of
+ * queued, so slow clients drop frames without slowing the automaton or the other clients.
+ * <p>
+ * The server tracks changes through the automaton's {@link ChangeSet}s with the symbol function as the change
+ * encoder, so the stepping thread only reads the cells that changed, and encoding visits only cells changed since a
+ * client's last frame. Bandwidth and server CPU scale with activity rather than grid area; only keyframes and grid
+ * edits outside the step loop cost a pass over the grid.
+ * <p>
+ * The symbol plane is double-buffered. The stepping thread writes one plane and the encoder thread reads the other;
+ * on each tick with changes, the encoder swaps the planes and the bitmap of changed cells under a lock held for
+ * nothing else, then encodes every frame, keyframes included, without it. The stepping thread brings its new plane up
+ * to date on its next generation by copying the cells changed in the previous interval from the encoder's plane, so
+ * it never waits for encoding and the copy costs time in proportion to activity.
+ * <p>
+ * The JDK's {@code com.sun.net.httpserver} cannot hand a connection over after a protocol upgrade, so requests are
+ * parsed here; only the two paths above are served, one request per connection.
+ * <p>
+ * Message layout, big-endian:
+ * <pre>
+ * keyframe: 0, width (int), height (int), generation (long), palette size (short), palette (RGB bytes), tokens
+ * delta:    1, generation (long), tokens
+ * </pre>
+ */
+public class LiveServer implements AutoCloseable {
+
+    /**
+     * The default number of frames encoded per second.
+     */
+    public static final int DEFAULT_FRAMES_PER_SECOND = 30;
+
+    /**
+     * The default palette of {@link #defaultSymbol(BooleanState)}, as packed 24-bit RGB colors.
+     */
+    private static final int[] DEFAULT_PALETTE = {
+            0x000000, 0x5F1F5F, 0xB0B0B0, 0xE03C31, 0x3CB44B, 0x4363D8, 0xFFE119, 0x42D4F4
+    };
+
+    /**
+     * The maximum number of connected clients.
+     */
+    private static final int MAX_CLIENTS = 32;
+
+    /**
+     * The maximum size of a request line and headers.
+     */
+    private static final int MAX_REQUEST_BYTES = 8192;
+
+    /**
+     * The time allowed for a client to send its request.
+     */
+    private static final int REQUEST_TIMEOUT_MILLIS = 10_000;
+
+    /**
+     * The classpath resource of the canvas client.
+     */
+    private static final String PAGE_RESOURCE = "/web/live.html";
+
+    /**
+     * Logger for connection failures.
+     */
+    private static final Logger LOGGER = LoggerFactory.getLogger(LiveServer.class);
+
+    /**
+     * The listening socket.
+     */
+    private final ServerSocket serverSocket;
+
+    /**
+     * Encodes frames at a fixed rate.
+     */
+    private final ScheduledExecutorService ticker;
+
+    /**
+     * Maps cell states to symbols.
+     */
+    private final ToIntFunction<BooleanState> symbols;
+
+    /**
+     * The colors of the symbols, as packed 24-bit RGB values.
+     */
+    private final int[] palette;
+
+    /**
+     * The canvas client.
+     */
+    private final byte[] page;
+
+    /**
+     * Guards the exchange of planes and bitmaps between the stepping and encoder threads, and the client list.
+     */
+    private final Object lock = new Object();
+
+    /**
+     * The connected clients, guarded by the lock.
+     */
+    private final List<Client> clients = new ArrayList<>();
+
+    /**
+     * Encodes frames, used by the encoder thread.
+     */
+    private final DeltaEncoder encoder = new DeltaEncoder();
+
+    /**
+     * The number of frames sent.
+     */
+    private final AtomicLong frameCount = new AtomicLong();
+
+    /**
+     * The number of bytes of frames sent.
+     */
+    private final AtomicLong byteCount = new AtomicLong();
+
+    /**
+     * The number of generations merged into later frames.
+     */
+    private final AtomicLong skippedCount = new AtomicLong();
+
+    /**
+     * The automaton streamed, or null.
+     */
+    private Automaton<BooleanCell, BooleanState> automaton;
+
+    /**
+     * The change listener registered with the automaton, or null.
+     */
+    private Consumer<ChangeSet> changeListener;
+
+    /**
+     * The symbol of every cell, row by row, written by the stepping thread, or null before the first grid; guarded by
+     * the lock.
+     */
+    private byte[] current;
+
+    /**
+     * The number of columns of the symbol plane.
+     */
+    private int width;
+
+    /**
+     * The number of rows of the symbol plane.
+     */
+    private int height;
+
+    /**
+     * The number of 64-bit words per row of the dirty bitmaps.
+     */
+    private int wordsPerRow;
+
+    /**
+     * The generation of the symbol plane.
+     */
+    private long generation;
+
+    /**
+     * The cells changed since the last swap, one bit per cell, handed to the encoder by the swap; guarded by the lock.
+     */
+    private long[] changed;
+
+    /**
+     * The rows with changed cells, one bit per row.
+     */
+    private long[] changedRows;
+
+    /**
+     * Whether any cell changed since the last swap.
+     */
+    private boolean changedAny;
+
+    /**
+     * Whether every cell was rewritten since the last swap.
+     */
+    private boolean changedAll;
+
+    /**
+     * The cells written since the last swap, kept by the stepping thread: after a swap, the cells of its new plane
+     * that are behind the encoder's plane.
+     */
+    private long[] written;
+
+    /**
+     * The rows with written cells.
+     */
+    private long[] writtenRows;
+
+    /**
+     * Whether every cell was written since the last swap.
+     */
+    private boolean writtenAll;
+
+    /**
+     * Whether the plane of the stepping thread must catch up with the encoder's plane before it is written.
+     */
+    private boolean catchUp;
+
+    /**
+     * The symbol plane read by the encoder, exchanged with {@link #current} under the lock, or null before the first
+     * swap.
+     */
+    private byte[] frame;
+
+    /**
+     * The cells changed in the encoder's plane since the previous swap, owned by the encoder between swaps.
+     */
+    private long[] frameChanged;
+
+    /**
+     * The rows with changed cells in the encoder's plane.
+     */
+    private long[] frameChangedRows;
+
+    /**
+     * Whether every cell of the encoder's plane changed since the previous swap.
+     */
+    private boolean frameAll;
+
+    /**
+     * The number of columns of the encoder's plane.
+     */
+    private int frameWidth;
+
+    /**
+     * The number of rows of the encoder's plane.
+     */
+    private int frameHeight;
+
+    /**
+     * The number of words per bitmap row of the encoder's plane.
+     */
+    private int frameWordsPerRow;
+
+    /**
+     * Whether the server has been closed.
+     */
+    private volatile boolean closed;
+
+    /**
+     * Constructs a server with the default symbols, palette and frame rate, and starts listening.
+     *
+     * @param address the address to listen on, must not be null; port 0 picks a free port
+     * @throws NullPointerException if address is null
+     * @throws IOException          if the address cannot be bound
+     * @see #defaultSymbol(BooleanState)
+     */
+    public LiveServer(@Nonnull InetSocketAddress address) throws IOException {
+        this(address, DEFAULT_FRAMES_PER_SECOND, LiveServer::defaultSymbol, DEFAULT_PALETTE);
+    }
+
+    /**
+     * Constructs a server and starts listening.
+     *
+     * @param address         the address to listen on, must not be null; port 0 picks a free port
+     * @param framesPerSecond the maximum number of frames sent to each client per second, from 1 to 1000
+     * @param symbols         maps a cell state to its symbol, an index into the palette, must not be null
+     * @param palette         the symbol colors as packed 24-bit RGB values, 1 to 256 entries, must not be null
+     * @throws NullPointerException     if address, symbols or palette is null
+     * @throws IllegalArgumentException if the frame rate or the palette size is out of range
+     * @throws IOException              if the address cannot be bound
+     */
+    public LiveServer(@Nonnull InetSocketAddress address, int framesPerSecond,
+                      @Nonnull ToIntFunction<BooleanState> symbols, @Nonnull int[] palette) throws IOException {
+        Objects.requireNonNull(address, "Address cannot be null");
+        this.symbols = Objects.requireNonNull(symbols, "Symbols cannot be null");
+        Objects.requireNonNull(palette, "Palette cannot be null");
+        if (framesPerSecond < 1 || framesPerSecond > 1000) {
+            throw new IllegalArgumentException("Frames per second must be between 1 and 1000: " + framesPerSecond);
+        }
+        if (palette.length == 0 || palette.length > 256) {
+            throw new IllegalArgumentException("Palette must have 1 to 256 colors: " + palette.length);
+        }
+        this.palette = palette.clone();
+        this.page = loadPage();
+        this.serverSocket = new ServerSocket();
+        this.serverSocket.setReuseAddress(true);
+        this.serverSocket.bind(address);
+        Thread acceptor = new Thread(this::acceptLoop, "cae-live-acceptor");
+        acceptor.setDaemon(true);
+        acceptor.start();
+        this.ticker = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "cae-live-encoder");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long period = 1_000_000L / framesPerSecond;
+        this.ticker.scheduleAtFixedRate(this::tick, period, period, TimeUnit.MICROSECONDS);
+    }
+
+    /**
+     * Returns the symbol of a state in the default palette: black for inactive cells, purple for inactive echoes,
+     * grey for active cells without an id, red, green, blue and yellow for ids 1 to 4, and cyan for larger ids.
+     *
+     * @param state the state
+     * @return the symbol, from 0 to 7
+     */
+    public static int defaultSymbol(BooleanState state) {
+        if (!Boolean.TRUE.equals(state.getValue())) {
+            return state.isEcho() ? 1 : 0;
+        }
+        int id = state.getId();
+        return id <= 0 ? 2 : Math.min(id, 5) + 2;
+    }
+
+    /**
+     * Starts streaming an automaton, replacing any automaton streamed before. Enables change tracking on the
+     * automaton with the symbol function as the encoder, replacing any other encoder. Call on the stepping thread or
+     * while the automaton is stopped.
+     *
+     * @param automaton the automaton, must not be null
+     * @throws NullPointerException if automaton is null
+     */
+    public void attach(@Nonnull Automaton<BooleanCell, BooleanState> automaton) {
+        Objects.requireNonNull(automaton, "Automaton cannot be null");
+        detach();
+        Consumer<ChangeSet> listener = changes -> update(automaton.getGrid(), changes);
+        automaton.setChangeTracking(state -> symbols.applyAsInt(state));
+        automaton.addChangeListener(listener);
+        this.automaton = automaton;
+        this.changeListener = listener;
+        Grid<BooleanCell, BooleanState> grid = automaton.getGrid();
+        if (grid != null) {
+            synchronized (lock) {
+                generation = automaton.getGeneration();
+                refresh(grid);
+            }
+        }
+    }
+
+    /**
+     * Stops streaming the attached automaton and disables its change tracking. Clients stay connected and keep the
+     * last frame. Call on the stepping thread or while the automaton is stopped.
+     */
+    public void detach() {
+        if (automaton != null) {
+            automaton.removeChangeListener(changeListener);
+            automaton.setChangeTracking(null);
+            automaton = null;
+            changeListener = null;
+        }
+    }
+
+    /**
+     * Applies the changes of a generation to the symbol plane and marks them changed. Called on the stepping thread.
+     *
+     * @param grid    the grid after the generation
+     * @param changes the changed cells
+     */
+    private void update(Grid<BooleanCell, BooleanState> grid, ChangeSet changes) {
+        synchronized (lock) {
+            generation = changes.getGeneration();
+            if (current == null || changes.isFull() || changes.getWidth() != width || changes.getHeight() != height) {
+                refresh(grid);
+                return;
+            }
+            catchUp();
+            changes.forEachSpan((y, x, length) -> {
+                int base = y * width;
+                for (int i = x; i < x + length; i++) {
+                    current[base + i] = (byte) symbols.applyAsInt(grid.getCell(i, y).getState());
+                }
+                mark(changed, changedRows, y, x, length, wordsPerRow);
+                mark(written, writtenRows, y, x, length, wordsPerRow);
+                changedAny = true;
+            });
+        }
+    }
+
+    /**
+     * Reads every cell of a grid into the symbol plane, resizing the plane and bitmaps if the grid size changed, and
+     * marks every cell changed. Called under the lock.
+     *
+     * @param grid the grid
+     * @throws IllegalArgumentException if the grid has more than {@link Integer#MAX_VALUE} cells
+     */
+    private void refresh(Grid<BooleanCell, BooleanState> grid) {
+        if (current == null || grid.getWidth() != width || grid.getHeight() != height) {
+            if ((long) grid.getWidth() * grid.getHeight() > Integer.MAX_VALUE - 8) {
+                throw new IllegalArgumentException("Grid too large to stream: width=" + grid.getWidth()
+                        + ", height=" + grid.getHeight());
+            }
+            width = grid.getWidth();
+            height = grid.getHeight();
+            wordsPerRow = (width + 63) >>> 6;
+            current = new byte[width * height];
+            changed = new long[wordsPerRow * height];
+            changedRows = new long[(height + 63) >>> 6];
+            written = new long[changed.length];
+            writtenRows = new long[changedRows.length];
+        }
+        catchUp = false;
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                current[y * width + x] = (byte) symbols.applyAsInt(grid.getCell(x, y).getState());
+            }
+        }
+        writtenAll = true;
+        changedAll = true;
+        changedAny = true;
+    }
+
+    /**
+     * Brings the plane of the stepping thread up to date with the encoder's plane after a swap, by copying the words
+     * of cells written in the interval before it. Called under the lock.
+     */
+    private void catchUp() {
+        if (!catchUp) {
+            return;
+        }
+        catchUp = false;
+        if (writtenAll) {
+            System.arraycopy(frame, 0, current, 0, current.length);
+            Arrays.fill(written, 0L);
+            Arrays.fill(writtenRows, 0L);
+            writtenAll = false;
+            return;
+        }
+        for (int r = 0; r < writtenRows.length; r++) {
+            long rows = writtenRows[r];
+            writtenRows[r] = 0;
+            while (rows != 0) {
+                int y = (r << 6) + Long.numberOfTrailingZeros(rows);
+                rows &= rows - 1;
+                int base = y * wordsPerRow;
+                for (int w = 0; w < wordsPerRow; w++) {
+                    if (written[base + w] != 0) {
+                        written[base + w] = 0;
+                        int x = w << 6;
+                        System.arraycopy(frame, y * width + x, current, y * width + x, Math.min(64, width - x));
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Swaps the symbol planes and changed bitmaps if anything changed since the last swap, and encodes a frame for
+     * every client that has no frame in flight and has something new, handing it to the client's writer. Only the
+     * swap holds the lock. Called by the encoder thread.
+     */
+    private void tick() {
+        try {
+            boolean swapped;
+            long frameGeneration;
+            List<Client> targets;
+            synchronized (lock) {
+                if (current == null) {
+                    return;
+                }
+                swapped = changedAny;
+                if (swapped) {
+                    byte[] back = frame != null && frame.length == current.length ? frame : new byte[current.length];
+                    frame = current;
+                    current = back;
+                    if (frameChanged == null || frameChanged.length != changed.length
+                            || frameChangedRows.length != changedRows.length) {
+                        frameChanged = new long[changed.length];
+                        frameChangedRows = new long[changedRows.length];
+                    }
+                    long[] bits = frameChanged;
+                    long[] rows = frameChangedRows;
+                    frameChanged = changed;
+                    frameChangedRows = changedRows;
+                    changed = bits;
+                    changedRows = rows;
+                    frameAll = changedAll;
+                    frameWidth = width;
+                    frameHeight = height;
+                    frameWordsPerRow = wordsPerRow;
+                    changedAll = false;
+                    changedAny = false;
+                    catchUp = true;
+                }
+                frameGeneration = generation;
+                targets = new ArrayList<>(clients);
+            }
+            if (frame == null) {
+                return;
+            }
+            for (Client client : targets) {
+                if (client.sent == null || client.width != frameWidth || client.height != frameHeight) {
+                    client.reset(frameWidth, frameHeight, frameWordsPerRow);
+                } else if (swapped) {
+                    if (frameAll) {
+                        client.markAll();
+                    } else {
+                        client.merge(frameChanged, frameChangedRows, frameWordsPerRow);
+                    }
+                }
+            }
+            if (swapped) {
+                clearChanged();
+            }
+            for (Client client : targets) {
+                if (client.inFlight || !client.keyframe && !client.pending && client.generation == frameGeneration) {
+                    continue;
+                }
+                byte[] message = encode(client, frameGeneration);
+                client.inFlight = true;
+                try {
+                    client.writer.execute(() -> send(client, message));
+                } catch (RejectedExecutionException e) {
+                    client.inFlight = false;
+                }
+            }
+        } catch (RuntimeException e) {
+            LOGGER.warn("Failed to encode live frame", e);
+        }
+    }
+
+    /**
+     * Clears the changed bitmap of the encoder's plane, so that it can be handed back to the stepping thread by the
+     * next swap. Called by the encoder thread.
+     */
+    private void clearChanged() {
+        if (frameAll) {
+            Arrays.fill(frameChanged, 0L);
+            Arrays.fill(frameChangedRows, 0L);
+            return;
+        }
+        for (int r = 0; r < frameChangedRows.length; r++) {
+            long rows = frameChangedRows[r];
+            frameChangedRows[r] = 0;
+            while (rows != 0) {
+                int y = (r << 6) + Long.numberOfTrailingZeros(rows);
+                rows &= rows - 1;
+                Arrays.fill(frameChanged, y * frameWordsPerRow, (y + 1) * frameWordsPerRow, 0L);
+            }
+        }
+    }
+
+    /**
+     * Encodes the next frame of a client from the encoder's plane: a keyframe if it has none yet, otherwise a delta.
+     * Called by the encoder thread.
+     *
+     * @param client          the client
+     * @param frameGeneration the generation of the encoder's plane
+     * @return the frame
+     */
+    private byte[] encode(Client client, long frameGeneration) {
+        byte[] header;
+        if (client.keyframe) {
+            Arrays.fill(client.sent, (byte) 0);
+            client.markAll();
+            header = new byte[19 + 3 * palette.length];
+            header[0] = 0;
+            putLong(header, 1, (long) frameWidth << 32 | frameHeight);
+            putLong(header, 9, frameGeneration);
+            header[17] = (byte) (palette.length >>> 8);
+            header[18] = (byte) palette.length;
+            for (int i = 0; i < palette.length; i++) {
+                header[19 + 3 * i] = (byte) (palette[i] >> 16);
+                header[20 + 3 * i] = (byte) (palette[i] >> 8);
+                header[21 + 3 * i] = (byte) palette[i];
+            }
+            client.keyframe = false;
+        } else {
+            header = new byte[9];
+            header[0] = 1;
+            putLong(header, 1, frameGeneration);
+            if (client.generation >= 0 && frameGeneration > client.generation + 1) {
+                skippedCount.addAndGet(frameGeneration - client.generation - 1);
+            }
+        }
+        encoder.begin(header, header.length);
+        if (client.pending) {
+            encoder.encode(frame, client.sent, client.dirty, client.dirtyRows, frameWidth, frameWordsPerRow);
+            client.pending = false;
+        }
+        client.generation = frameGeneration;
+        return encoder.finish();
+    }
+
+    /**
+     * Marks a run of cells in a bitmap.
+     *
+     * @param bits        the bitmap, one bit per cell in rows of {@code wordsPerRow} words
+     * @param rows        the bitmap of rows with marked cells
+     * @param y           the row
+     * @param x           the first column
+     * @param length      the number of cells
+     * @param wordsPerRow the number of words per bitmap row
+     */
+    private static void mark(long[] bits, long[] rows, int y, int x, int length, int wordsPerRow) {
+        int end = x + length - 1;
+        int base = y * wordsPerRow;
+        for (int w = x >>> 6; w <= end >>> 6; w++) {
+            long mask = -1L;
+            if (w == x >>> 6) {
+                mask &= -1L << x;
+            }
+            if (w == end >>> 6) {
+                mask &= -1L >>> (63 - (end & 63));
+            }
+            bits[base + w] |= mask;
+        }
+        rows[y >>> 6] |= 1L << y;
+    }
+
+    /**
+     * Writes a frame to a client, dropping the client if the write fails. Called on the client's writer thread.
+     *
+     * @param client the client
+     * @param frame  the frame
+     */
+    private void send(Client client, byte[] frame) {
+        try {
+            client.socket.sendBinary(frame);
+            frameCount.incrementAndGet();
+            byteCount.addAndGet(frame.length);
+            client.inFlight = false;
+        } catch (IOException e) {
+            remove(client);
+        }
+    }
+
+    /**
+     * Accepts connections until the server is closed, serving each on its own thread.
+     */
+    private void acceptLoop() {
+        while (!closed) {
+            try {
+                Socket socket = serverSocket.accept();
+                Thread thread = new Thread(() -> serve(socket), "cae-live-connection");
+                thread.setDaemon(true);
+                thread.start();
+            } catch (SocketException e) {
+                if (!closed) {
+                    LOGGER.warn("Live server stopped accepting connections", e);
+                }
+                return;
+            } catch (IOException e) {
+                LOGGER.warn("Failed to accept a live connection", e);
+            }
+        }
+    }
+
+    /**
+     * Serves one request: the client page, or a WebSocket stream for as long as the client stays connected.
+     *
+     * @param socket the connection
+     */
+    private void serve(Socket socket) {
+        try (socket) {
+            socket.setSoTimeout(REQUEST_TIMEOUT_MILLIS);
+            InputStream in = new BufferedInputStream(socket.getInputStream());
+            OutputStream out = socket.getOutputStream();
+            String[] requestLine = readLine(in).split(" ");
+            Map<String, String> headers = new HashMap<>();
+            for (String line = readLine(in); !line.isEmpty(); line = readLine(in)) {
+                int colon = line.indexOf(':');
+                if (colon > 0) {
+                    String name = line.substring(0, colon).trim().toLowerCase(Locale.ROOT);
+                    headers.put(name, line.substring(colon + 1).trim());
+                }
+            }
+            if (requestLine.length != 3) {
+                respondText(out, "400 Bad Request", "Bad request\n");
+                return;
+            }
+            if (!requestLine[0].equals("GET")) {
+                respondText(out, "405 Method Not Allowed", "Method not allowed\n");
+                return;
+            }
+            String path = requestLine[1].split("\\?", 2)[0];
+            switch (path) {
+                case "/", "/index.html" -> respond(out, "200 OK", "text/html; charset=utf-8", page);
+                case "/stream" -> stream(socket, in, out, headers);
+                default -> respondText(out, "404 Not Found", "Not found\n");
+            }
+        } catch (IOException e) {
+            LOGGER.debug("Live connection failed", e);
+        }
+    }
+
+    /**
+     * Upgrades a request to a WebSocket and streams frames until the client disconnects.
+     *
+     * @param socket  the connection
+     * @param in      the input of the connection, positioned after the headers
+     * @param out     the output of the connection
+     * @param headers the request headers, with lower-case names
+     * @throws IOException if the connection fails
+     */
+    private void stream(Socket socket, InputStream in, OutputStream out, Map<String, String> headers)
+            throws IOException {
+        String key = headers.get("sec-websocket-key");
+        if (key == null || !headers.getOrDefault("upgrade", "").equalsIgnoreCase("websocket")) {
+            respondText(out, "400 Bad Request", "WebSocket upgrade required\n");
+            return;
+        }
+        synchronized (lock) {
+            if (closed || clients.size() >= MAX_CLIENTS) {
+                respondText(out, "503 Service Unavailable", "Too many viewers\n");
+                return;
+            }
+        }
+        String response = "HTTP/1.1 101 Switching Protocols\r\nUpgrade: websocket\r\nConnection: Upgrade\r\n"
+                + "Sec-WebSocket-Accept: " + WebSocket.acceptKey(key) + "\r\n\r\n";
+        out.write(response.getBytes(StandardCharsets.US_ASCII));
+        out.flush();
+        socket.setSoTimeout(0);
+        socket.setTcpNoDelay(true);
+        Client client = new Client(new WebSocket(socket, in));
+        synchronized (lock) {
+            clients.add(client);
+        }
+        try {
+            client.socket.receive();
+        } finally {
+            remove(client);
+        }
+    }
+
+    /**
+     * Disconnects a client and stops its writer.
+     *
+     * @param client the client
+     */
+    private void remove(Client client) {
+        synchronized (lock) {
+            clients.remove(client);
+        }
+        client.writer.shutdown();
+        client.socket.close();
+    }
+
+    /**
+     * Writes a complete response and ends the request.
+     *
+     * @param out         the output of the connection
+     * @param status      the status code and reason
+     * @param contentType the content type
+     * @param body        the body
+     * @throws IOException if the write fails
+     */
+    private static void respond(OutputStream out, String status, String contentType, byte[] body) throws IOException {
+        out.write(("HTTP/1.1 " + status + "\r\nContent-Type: " + contentType + "\r\nContent-Length: " + body.length
+                + "\r\nCache-Control: no-store\r\nConnection: close\r\n\r\n").getBytes(StandardCharsets.US_ASCII));
+        out.write(body);
+        out.flush();
+    }
+
+    /**
+     * Writes a complete plain text response and ends the request.
+     *
+     * @param out    the output of the connection
+     * @param status the status code and reason
+     * @param text   the body
+     * @throws IOException if the write fails
+     */
+    private static void respondText(OutputStream out, String status, String text) throws IOException {
+        respond(out, status, "text/plain; charset=utf-8", text.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Reads a CRLF- or LF-terminated header line.
+     *
+     * @param in the input
+     * @return the line without its terminator
+     * @throws IOException if the stream ends or the line is too long
+     */
+    private static String readLine(InputStream in) throws IOException {
+        ByteArrayOutputStream line = new ByteArrayOutputStream();
+        while (true) {
+            int b = in.read();
+            if (b < 0) {
+                throw new IOException("Connection closed during request");
+            }
+            if (b == '\n') {
+                break;
+            }
+            if (line.size() == MAX_REQUEST_BYTES) {
+                throw new IOException("Request line too long");
+            }
+            line.write(b);
+        }
+        String text = line.toString(StandardCharsets.ISO_8859_1);
+        return text.endsWith("\r") ? text.substring(0, text.length() - 1) : text;
+    }
+
+    /**
+     * Loads the canvas client from the classpath.
+     *
+     * @return the page
+     * @throws IOException if the resource cannot be read
+     */
+    private static byte[] loadPage() throws IOException {
+        try (InputStream in = LiveServer.class.getResourceAsStream(PAGE_RESOURCE)) {
+            if (in == null) {
+                throw new IOException("Missing resource " + PAGE_RESOURCE);
+            }
+            return in.readAllBytes();
+        }
+    }
+
+    /**
+     * Stores a big-endian long.
+     *
+     * @param buffer the buffer
+     * @param offset the offset
+     * @param value  the value
+     */
+    private static void putLong(byte[] buffer, int offset, long value) {
+        for (int i = 0; i < 8; i++) {
+            buffer[offset + i] = (byte) (value >>> (56 - 8 * i));
+        }
+    }
+
+    /**
+     * Detaches the automaton, disconnects every client and stops listening.
+     */
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        detach();
+        ticker.shutdownNow();
+        try {
+            serverSocket.close();
+        } catch (IOException e) {
+            LOGGER.debug("Failed to close live server socket", e);
+        }
+        List<Client> connected;
+        synchronized (lock) {
+            connected = new ArrayList<>(clients);
+        }
+        connected.forEach(this::remove);
+    }
+
+    /**
+     * Returns the address the server listens on.
+     *
+     * @return the bound address
+     */
+    public InetSocketAddress getAddress() {
+        return (InetSocketAddress) serverSocket.getLocalSocketAddress();
+    }
+
+    /**
+     * Returns the number of connected clients.
+     *
+     * @return the client count
+     */
+    public int getClientCount() {
+        synchronized (lock) {
+            return clients.size();
+        }
+    }
+
+    /**
+     * Returns the number of frames sent to all clients.
+     *
+     * @return the frame count
+     */
+    public long getFrameCount() {
+        return frameCount.get();
+    }
+
+    /**
+     * Returns the number of frame bytes sent to all clients, excluding WebSocket framing.
+     *
+     * @return the byte count
+     */
+    public long getByteCount() {
+        return byteCount.get();
+    }
+
+    /**
+     * Returns the number of generations that clients received merged into a later frame rather than individually,
+     * summed over all clients.
+     *
+     * @return the skipped generation count
+     */
+    public long getSkippedCount() {
+        return skippedCount.get();
+    }
+
+    /**
+     * Returns whether the server has been closed.
+     *
+     * @return true if closed
+     */
+    public boolean isClosed() {
+        return closed;
+    }
+
+    /**
+     * A connected client and the state of its stream, owned by the encoder thread except for {@link #inFlight}.
+     */
+    private static final class Client {
+
+        /**
+         * The connection.
+         */
+        final WebSocket socket;
+
+        /**
+         * Writes frames to the connection.
+         */
+        final ExecutorService writer = Executors.newSingleThreadExecutor(r -> {
+            Thread thread = new Thread(r, "cae-live-writer");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        /**
+         * The symbols the client has.
+         */
+        byte[] sent;
+
+        /**
+         * The cells changed since the last frame, one bit per cell.
+         */
+        long[] dirty;
+
+        /**
+         * The rows with dirty cells, one bit per row.
+         */
+        long[] dirtyRows;
+
+        /**
+         * The number of columns of the stream state.
+         */
+        int width;
+
+        /**
+         * The number of rows of the stream state.
+         */
+        int height;
+
+        /**
+         * Whether the next frame must be a keyframe.
+         */
+        boolean keyframe = true;
+
+        /**
+         * Whether any cell is dirty.
+         */
+        boolean pending;
+
+        /**
+         * Whether a frame is being written, cleared by the client's writer.
+         */
+        volatile boolean inFlight;
+
+        /**
+         * The generation of the last frame, or -1.
+         */
+        long generation = -1;
+
+        /**
+         * Constructs a client with no stream state.
+         *
+         * @param socket the connection
+         */
+        Client(WebSocket socket) {
+            this.socket = socket;
+        }
+
+        /**
+         * Allocates the stream state for a grid size and schedules a keyframe.
+         *
+         * @param width       the number of columns
+         * @param height      the number of rows
+         * @param wordsPerRow the number of words per bitmap row
+         */
+        void reset(int width, int height, int wordsPerRow) {
+            sent = new byte[width * height];
+            dirty = new long[wordsPerRow * height];
+            dirtyRows = new long[(height + 63) >>> 6];
+            this.width = width;
+            this.height = height;
+            keyframe = true;
+            generation = -1;
+        }
+
+        /**
+         * Marks the cells of a changed bitmap dirty.
+         *
+         * @param bits        the changed cells, one bit per cell in rows of {@code wordsPerRow} words
+         * @param rows        the rows with changed cells
+         * @param wordsPerRow the number of words per bitmap row
+         */
+        void merge(long[] bits, long[] rows, int wordsPerRow) {
+            for (int r = 0; r < rows.length; r++) {
+                long set = rows[r];
+                if (set == 0) {
+                    continue;
+                }
+                dirtyRows[r] |= set;
+                pending = true;
+                while (set != 0) {
+                    int y = (r << 6) + Long.numberOfTrailingZeros(set);
+                    set &= set - 1;
+                    int base = y * wordsPerRow;
+                    for (int w = 0; w < wordsPerRow; w++) {
+                        dirty[base + w] |= bits[base + w];
+                    }
+                }
+            }
+        }
+
+        /**
+         * Marks every cell dirty.
+         */
+        void markAll() {
+            if (dirty == null) {
+                return;
+            }
+            Arrays.fill(dirty, -1L);
+            Arrays.fill(dirtyRows, -1L);
+            if ((height & 63) != 0) {
+                dirtyRows[dirtyRows.length - 1] = (1L << height) - 1;
+            }
+            pending = true;
+        }
+    }
+}
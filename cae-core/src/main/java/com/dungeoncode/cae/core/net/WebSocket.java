@@ -0,0 +1,244 @@
+package com.dungeoncode.cae.core.net;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * The server side of a WebSocket connection (RFC 6455), reduced to what a frame stream needs: unfragmented binary
+ * messages to the client, and ping, pong and close handling for messages from it. Data messages from the client are
+ * read and ignored. No extensions or subprotocols are negotiated.
+ * <p>
+ * Messages may be sent from any thread; frames are written whole and in order.
+ */
+final class WebSocket implements Closeable {
+
+    /**
+     * The GUID appended to the client key to compute the accept key.
+     */
+    private static final String GUID = "258EAFA5-E914-47DA-95CA-C5AB0DC85B11";
+
+    /**
+     * The opcode of a binary message.
+     */
+    private static final int OP_BINARY = 0x2;
+
+    /**
+     * The opcode of a close frame.
+     */
+    private static final int OP_CLOSE = 0x8;
+
+    /**
+     * The opcode of a ping frame.
+     */
+    private static final int OP_PING = 0x9;
+
+    /**
+     * The opcode of a pong frame.
+     */
+    private static final int OP_PONG = 0xA;
+
+    /**
+     * The largest payload accepted from the client; the client only sends control frames.
+     */
+    private static final int MAX_INCOMING_PAYLOAD = 1 << 16;
+
+    /**
+     * The connection.
+     */
+    private final Socket socket;
+
+    /**
+     * The stream of frames from the client.
+     */
+    private final DataInputStream in;
+
+    /**
+     * The stream of frames to the client.
+     */
+    private final OutputStream out;
+
+    /**
+     * Serializes frame writes.
+     */
+    private final ReentrantLock writeLock = new ReentrantLock();
+
+    /**
+     * Whether a close frame has been sent, guarded by the write lock.
+     */
+    private boolean closeSent;
+
+    /**
+     * Wraps a connection whose upgrade handshake has been answered.
+     *
+     * @param socket the connection
+     * @param in     the input of the connection, positioned after the request headers
+     * @throws IOException if the output stream cannot be opened
+     */
+    WebSocket(Socket socket, InputStream in) throws IOException {
+        this.socket = socket;
+        this.in = new DataInputStream(in);
+        this.out = new BufferedOutputStream(socket.getOutputStream(), 1 << 16);
+    }
+
+    /**
+     * Computes the {@code Sec-WebSocket-Accept} value of a handshake.
+     *
+     * @param key the {@code Sec-WebSocket-Key} sent by the client
+     * @return the accept key
+     */
+    static String acceptKey(String key) {
+        try {
+            MessageDigest sha1 = MessageDigest.getInstance("SHA-1");
+            byte[] digest = sha1.digest((key.trim() + GUID).getBytes(StandardCharsets.US_ASCII));
+            return Base64.getEncoder().encodeToString(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-1 is not available", e);
+        }
+    }
+
+    /**
+     * Sends a binary message.
+     *
+     * @param data the message
+     * @throws IOException if the connection is closed or the write fails
+     */
+    void sendBinary(byte[] data) throws IOException {
+        send(OP_BINARY, data, data.length);
+    }
+
+    /**
+     * Writes one final, unmasked frame.
+     *
+     * @param opcode the frame opcode
+     * @param data   the payload
+     * @param length the number of payload bytes
+     * @throws IOException if the connection is closed or the write fails
+     */
+    private void send(int opcode, byte[] data, int length) throws IOException {
+        writeLock.lock();
+        try {
+            write(opcode, data, length);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Writes one frame while holding the write lock.
+     *
+     * @param opcode the frame opcode
+     * @param data   the payload
+     * @param length the number of payload bytes
+     * @throws IOException if the connection is closed or the write fails
+     */
+    private void write(int opcode, byte[] data, int length) throws IOException {
+        if (closeSent) {
+            throw new IOException("WebSocket is closed");
+        }
+        out.write(0x80 | opcode);
+        if (length < 126) {
+            out.write(length);
+        } else if (length < 1 << 16) {
+            out.write(126);
+            out.write(length >>> 8);
+            out.write(length);
+        } else {
+            out.write(127);
+            for (int shift = 56; shift >= 0; shift -= 8) {
+                out.write((int) ((long) length >>> shift));
+            }
+        }
+        out.write(data, 0, length);
+        out.flush();
+        if (opcode == OP_CLOSE) {
+            closeSent = true;
+        }
+    }
+
+    /**
+     * Reads frames from the client until it closes the connection, answering pings and echoing the close frame.
+     * Returns normally on a clean close.
+     *
+     * @throws IOException if the connection fails or the client violates the protocol
+     */
+    void receive() throws IOException {
+        while (true) {
+            int head = in.readUnsignedByte();
+            int second = in.readUnsignedByte();
+            int opcode = head & 0x0F;
+            if ((second & 0x80) == 0) {
+                throw new IOException("Client frame is not masked");
+            }
+            long length = second & 0x7F;
+            if (length == 126) {
+                length = in.readUnsignedShort();
+            } else if (length == 127) {
+                length = in.readLong();
+            }
+            if (length < 0 || length > MAX_INCOMING_PAYLOAD) {
+                throw new IOException("Client frame too large: " + length);
+            }
+            byte[] mask = new byte[4];
+            in.readFully(mask);
+            byte[] payload = new byte[(int) length];
+            in.readFully(payload);
+            for (int i = 0; i < payload.length; i++) {
+                payload[i] ^= mask[i & 3];
+            }
+            switch (opcode) {
+                case OP_PING -> send(OP_PONG, payload, payload.length);
+                case OP_CLOSE -> {
+                    writeLock.lock();
+                    try {
+                        if (!closeSent) {
+                            write(OP_CLOSE, payload, Math.min(2, payload.length));
+                        }
+                    } finally {
+                        writeLock.unlock();
+                    }
+                    return;
+                }
+                default -> {
+                    // Data and pong frames carry nothing the server needs.
+                }
+            }
+        }
+    }
+
+    /**
+     * Sends a close frame (going away) unless one was sent or a write is blocked on a slow client, then closes the
+     * connection, which also fails any blocked write.
+     */
+    @Override
+    public void close() {
+        try {
+            if (writeLock.tryLock()) {
+                try {
+                    if (!closeSent) {
+                        write(OP_CLOSE, new byte[]{0x03, (byte) 0xE9}, 2);
+                    }
+                } finally {
+                    writeLock.unlock();
+                }
+            }
+        } catch (IOException e) {
+            // The connection is already gone.
+        } finally {
+            try {
+                socket.close();
+            } catch (IOException e) {
+                // Nothing left to release.
+            }
+        }
+    }
+}
@@ -0,0 +1,78 @@
+import com.dungeoncode.cae.automa.ConfGameOfLife;
+import com.dungeoncode.cae.automa.ConfGeneticDrift;
+import com.dungeoncode.cae.core.Automaton;
+import com.dungeoncode.cae.core.CycleDetector;
+import com.dungeoncode.cae.core.Grid;
+import com.dungeoncode.cae.core.impl.BooleanCell;
+import com.dungeoncode.cae.core.impl.BooleanState;
+import com.dungeoncode.cae.core.impl.BooleanStatistics;
+import com.dungeoncode.cae.core.impl.BooleanStatisticsCollector;
+import com.dungeoncode.cae.core.impl.packed.PackedBooleanGrid;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class AutomatonStatisticsTest {
+
+    @Test
+    void testFixedPointRepublishesStatistics() {
+        Automaton<BooleanCell, BooleanState> automaton = new Automaton<>();
+        new ConfGameOfLife().configure(automaton, 32, 32, 10);
+        Grid<BooleanCell, BooleanState> grid = automaton.getGrid();
+        for (int y = 0; y < grid.getHeight(); y++) {
+            for (int x = 0; x < grid.getWidth(); x++) {
+                boolean block = x >= 10 && x < 12 && y >= 10 && y < 12;
+                grid.getCell(x, y).getState().set(block, false, 0);
+            }
+        }
+        automaton.gridChanged();
+
+        BooleanStatisticsCollector collector = new BooleanStatisticsCollector();
+        List<BooleanStatistics> published = new ArrayList<>();
+        collector.addListener(published::add);
+        automaton.setStatisticsCollector(collector);
+        automaton.setCycleDetector(CycleDetector.forBooleanGrids(16, CycleDetector.Policy.FAST_FORWARD));
+
+        for (int i = 0; i < 20; i++) {
+            automaton.step();
+            assertEquals(automaton.getGeneration(), collector.getLatest().generation());
+            assertEquals(4, collector.getLatest().population());
+        }
+        assertEquals(20, published.size());
+
+        automaton.fastForward(1000);
+        assertEquals(1000, collector.getLatest().generation());
+        assertEquals(4, collector.getLatest().population());
+    }
+
+    @Test
+    void testPackedCommitCollectsSameStatistics() {
+        List<BooleanStatistics> heap = runDrift(false);
+        List<BooleanStatistics> packed = runDrift(true);
+        assertEquals(heap, packed);
+        assertTrue(heap.get(0).survivingSpecies() > 1);
+    }
+
+    private static List<BooleanStatistics> runDrift(boolean packed) {
+        ConfGeneticDrift configuration = new ConfGeneticDrift();
+        if (packed) {
+            configuration.setGridFactory(PackedBooleanGrid::new);
+        }
+        configuration.getGridInitializer().reseed(Automaton.deriveInitializerSeed(5L));
+        Automaton<BooleanCell, BooleanState> automaton = new Automaton<>();
+        automaton.setSeed(5L);
+        configuration.configure(automaton, 100, 70, 10);
+        automaton.setChangeTracking(s -> s.getValue() ? 1 : 0);
+        BooleanStatisticsCollector collector = new BooleanStatisticsCollector();
+        List<BooleanStatistics> published = new ArrayList<>();
+        collector.addListener(published::add);
+        automaton.setStatisticsCollector(collector);
+        for (int i = 0; i < 10; i++) {
+            automaton.step();
+        }
+        return published;
+    }
+}
@@ -0,0 +1,205 @@
+import com.dungeoncode.cae.core.AbstractConfiguration;
+import com.dungeoncode.cae.core.AbstractRule;
+import com.dungeoncode.cae.core.Automaton;
+import com.dungeoncode.cae.core.ChangeSet;
+import com.dungeoncode.cae.core.Grid;
+import com.dungeoncode.cae.core.impl.multi.MultiState;
+import com.dungeoncode.cae.core.impl.multi.MultiStateCell;
+import com.dungeoncode.cae.core.impl.multi.MultiStateGrid;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ChangeSetTest {
+
+    @Test
+    void testRunsAcrossWordBoundaries() {
+        Scripted scripted = new Scripted(200, 4);
+        scripted.flip(0, 60, 70);
+        scripted.flip(0, 127, 129);
+        scripted.flip(0, 191, 192);
+        scripted.flip(1, 64, 128);
+        scripted.flip(2, 0, 1);
+        scripted.flip(2, 63, 64);
+        scripted.flip(2, 1, 63);
+        scripted.flip(3, 5, 195);
+        ChangeSet changes = scripted.step();
+        assertEquals(List.of(
+                List.of(0, 60, 10), List.of(0, 127, 2), List.of(0, 191, 1),
+                List.of(1, 64, 64),
+                List.of(2, 0, 64),
+                List.of(3, 5, 190)), spans(changes));
+        assertEquals(10 + 2 + 1 + 64 + 64 + 190, changes.getChangedCount());
+        assertEquals(0xFFFFFFFFFFFFFFFFL, changes.getWord(1, 1));
+        assertEquals(0xF000000000000000L, changes.getWord(0, 0));
+        assertEquals(0x800000000000003FL, changes.getWord(1, 0));
+        assertEquals(0x8000000000000001L, changes.getWord(2, 0));
+        assertEquals(-1L, changes.getWord(0, 2));
+        assertMatches(scripted.expected, changes);
+    }
+
+    @Test
+    void testRunsEndingAtRowEnd() {
+        for (int width : new int[]{1, 63, 64, 65, 100, 128, 130, 200}) {
+            Scripted scripted = new Scripted(width, 3);
+            scripted.flip(0, 0, width);
+            scripted.flip(1, width - 1, width);
+            scripted.flip(2, width / 2, width);
+            ChangeSet changes = scripted.step();
+            assertEquals(List.of(List.of(0, 0, width), List.of(1, width - 1, 1),
+                    List.of(2, width / 2, width - width / 2)), spans(changes), "Width " + width);
+            assertEquals(width < 64 ? (1L << width) - 1 : -1L, changes.getWord(0, 0), "Width " + width);
+            assertMatches(scripted.expected, changes);
+        }
+    }
+
+    @Test
+    void testClearLeavesNothingForTheNextGeneration() {
+        Scripted scripted = new Scripted(130, 5);
+        for (int y = 0; y < 5; y++) {
+            scripted.flip(y, 0, 130);
+        }
+        assertEquals(5, scripted.step().getSpanCount());
+
+        scripted.flip(3, 64, 65);
+        ChangeSet changes = scripted.step();
+        assertEquals(List.of(List.of(3, 64, 1)), spans(changes));
+        assertEquals(1, changes.getChangedCount());
+        assertMatches(scripted.expected, changes);
+
+        changes = scripted.step();
+        assertTrue(changes.isEmpty());
+        assertEquals(0, changes.getSpanCount());
+        assertMatches(scripted.expected, changes);
+
+        scripted.automaton.gridChanged();
+        scripted.flip(0, 3, 4);
+        changes = scripted.step();
+        assertTrue(changes.isFull());
+        assertEquals(5, changes.getSpanCount());
+        assertEquals(130L * 5, changes.getChangedCount());
+        assertEquals(0x3L, changes.getWord(2, 4));
+
+        scripted.flip(4, 129, 130);
+        changes = scripted.step();
+        assertFalse(changes.isFull());
+        assertEquals(List.of(List.of(4, 129, 1)), spans(changes));
+        assertMatches(scripted.expected, changes);
+    }
+
+    @Test
+    void testRandomRunsMatchBitmap() {
+        Random random = new Random(3);
+        for (int width : new int[]{1, 7, 64, 65, 129, 257}) {
+            Scripted scripted = new Scripted(width, 9);
+            for (int generation = 0; generation < 12; generation++) {
+                for (int y = 0; y < 9; y++) {
+                    for (int runs = random.nextInt(5); runs > 0; runs--) {
+                        int start = random.nextInt(width);
+                        scripted.flip(y, start, Math.min(width, start + 1 + random.nextInt(Math.min(width, 140))));
+                    }
+                }
+                ChangeSet changes = scripted.step();
+                assertMatches(scripted.expected, changes);
+            }
+        }
+    }
+
+    /**
+     * Checks the bitmap, spans and count of a change set against the cells expected to change.
+     */
+    private static void assertMatches(boolean[][] expected, ChangeSet changes) {
+        int width = changes.getWidth();
+        List<List<Integer>> spans = new ArrayList<>();
+        long count = 0;
+        for (int y = 0; y < expected.length; y++) {
+            for (int x = 0; x < width; x++) {
+                assertEquals(expected[y][x], changes.isChanged(x, y), "Cell " + x + "," + y);
+                if (expected[y][x]) {
+                    count++;
+                    if (x == 0 || !expected[y][x - 1]) {
+                        spans.add(new ArrayList<>(List.of(y, x, 0)));
+                    }
+                    List<Integer> span = spans.get(spans.size() - 1);
+                    span.set(2, span.get(2) + 1);
+                }
+            }
+        }
+        assertEquals(spans, spans(changes), "Width " + width);
+        assertEquals(count, changes.getChangedCount(), "Width " + width);
+    }
+
+    private static List<List<Integer>> spans(ChangeSet changes) {
+        List<List<Integer>> spans = new ArrayList<>();
+        changes.forEachSpan((y, x, length) -> spans.add(List.of(y, x, length)));
+        return spans;
+    }
+
+    /**
+     * An automaton whose only rule toggles the cells scheduled for the next step, with change tracking enabled.
+     */
+    private static final class Scripted {
+
+        private final Automaton<MultiStateCell, MultiState> automaton = new Automaton<>();
+
+        private final List<ChangeSet> published = new ArrayList<>();
+
+        private boolean[][] flips;
+
+        private boolean[][] expected;
+
+        Scripted(int width, int height) {
+            this.flips = new boolean[height][width];
+            AbstractConfiguration<MultiStateCell, MultiState> configuration =
+                    new AbstractConfiguration<>(0, null, List.of(new ToggleRule())) {
+                    };
+            configuration.setGridFactory((w, h, initializer) -> new MultiStateGrid(w, h, 2, initializer));
+            configuration.configure(automaton, width, height, 10);
+            automaton.setChangeTracking(MultiState::intValue);
+            automaton.addChangeListener(changes -> published.add(changes.copy()));
+            assertTrue(step().isFull(), "A new grid reports every cell");
+        }
+
+        /**
+         * Schedules the cells of a row to toggle in the next step.
+         */
+        void flip(int y, int from, int to) {
+            for (int x = from; x < to; x++) {
+                flips[y][x] = true;
+            }
+        }
+
+        /**
+         * Steps the automaton and returns a copy of the change set it published.
+         */
+        ChangeSet step() {
+            published.clear();
+            automaton.step();
+            expected = flips;
+            flips = new boolean[expected.length][expected[0].length];
+            assertEquals(1, published.size());
+            return published.get(0);
+        }
+
+        private final class ToggleRule extends AbstractRule<MultiStateCell, MultiState> {
+
+            ToggleRule() {
+                super(0);
+            }
+
+            @Override
+            public MultiState apply(Grid<MultiStateCell, MultiState> grid, MultiStateCell cell) {
+                MultiStateGrid multi = (MultiStateGrid) grid;
+                int x = cell.getPosition().getX();
+                int y = cell.getPosition().getY();
+                int state = multi.get(x, y) ^ (flips[y][x] ? 1 : 0);
+                multi.setNext(x, y, state);
+                return MultiState.of(state);
+            }
+        }
+    }
+}
@@ -0,0 +1,153 @@
+import com.dungeoncode.cae.automa.ConfGameOfLife;
+import com.dungeoncode.cae.core.Automaton;
+import com.dungeoncode.cae.core.Grid;
+import com.dungeoncode.cae.core.impl.BooleanCell;
+import com.dungeoncode.cae.core.impl.BooleanState;
+import com.dungeoncode.cae.core.impl.packed.PackedBooleanGrid;
+import com.dungeoncode.cae.core.io.Checkpointer;
+import com.dungeoncode.cae.core.io.SnapshotHeader;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CheckpointerTest {
+
+    private static final int WIDTH = 70;
+    private static final int HEIGHT = 45;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void testResumeReplaysDeltaChain() throws IOException {
+        Automaton<BooleanCell, BooleanState> automaton = newAutomaton(7L);
+        Map<Long, boolean[]> images = new HashMap<>();
+        try (Checkpointer checkpointer = new Checkpointer(directory, 2, 1, 0, 4)) {
+            automaton.addStepListener(checkpointer);
+            for (int i = 0; i < 40; i++) {
+                automaton.step();
+                images.put(automaton.getGeneration(), values(automaton.getGrid()));
+            }
+        }
+
+        Automaton<BooleanCell, BooleanState> resumed = newAutomaton(99L);
+        SnapshotHeader header = Checkpointer.resume(directory, resumed);
+        assertNotNull(header);
+        assertEquals(7L, resumed.getSeed());
+        assertTrue(images.containsKey(resumed.getGeneration()));
+        assertArrayEquals(images.get(resumed.getGeneration()), values(resumed.getGrid()));
+    }
+
+    @Test
+    void testNewRunRollsDirectoryOver() throws IOException {
+        Automaton<BooleanCell, BooleanState> oldRun = newAutomaton(1L);
+        try (Checkpointer checkpointer = new Checkpointer(directory, 2, 1, 0, 4)) {
+            oldRun.addStepListener(checkpointer);
+            for (int i = 0; i < 30; i++) {
+                oldRun.step();
+            }
+        }
+
+        Automaton<BooleanCell, BooleanState> newRun = newAutomaton(2L);
+        Map<Long, boolean[]> images = new HashMap<>();
+        try (Checkpointer checkpointer = new Checkpointer(directory, 2, 1, 0, 4)) {
+            newRun.addStepListener(checkpointer);
+            for (int i = 0; i < 3; i++) {
+                newRun.step();
+                images.put(newRun.getGeneration(), values(newRun.getGrid()));
+            }
+        }
+
+        List<Path> files;
+        try (Stream<Path> list = Files.list(directory)) {
+            files = list.toList();
+        }
+        assertFalse(files.isEmpty());
+        for (Path file : files) {
+            assertTrue(file.getFileName().toString().startsWith(String.format("2-%016x-", 2L)),
+                    "Checkpoint of the old run was not rolled over: " + file.getFileName());
+        }
+
+        Automaton<BooleanCell, BooleanState> resumed = newAutomaton(99L);
+        assertNotNull(Checkpointer.resume(directory, resumed));
+        assertEquals(2L, resumed.getSeed());
+        assertTrue(resumed.getGeneration() <= 3);
+        assertArrayEquals(images.get(resumed.getGeneration()), values(resumed.getGrid()));
+    }
+
+    @Test
+    void testPackedCheckpointsResumeIntoEitherGrid() throws IOException {
+        Automaton<BooleanCell, BooleanState> automaton = newAutomaton(5L, true);
+        Map<Long, boolean[]> images = new HashMap<>();
+        try (Checkpointer checkpointer = new Checkpointer(directory, 2, 1, 0, 3)) {
+            automaton.addStepListener(checkpointer);
+            for (int i = 0; i < 20; i++) {
+                automaton.step();
+                images.put(automaton.getGeneration(), values(automaton.getGrid()));
+            }
+        }
+
+        for (boolean packed : new boolean[]{false, true}) {
+            Automaton<BooleanCell, BooleanState> resumed = newAutomaton(99L, packed);
+            assertNotNull(Checkpointer.resume(directory, resumed));
+            assertEquals(5L, resumed.getSeed());
+            assertArrayEquals(images.get(resumed.getGeneration()), values(resumed.getGrid()),
+                    packed ? "packed" : "heap");
+        }
+    }
+
+    @Test
+    void testFailedCaptureIsSkipped() throws IOException {
+        Automaton<BooleanCell, BooleanState> automaton = newAutomaton(3L);
+        Map<Long, boolean[]> images = new HashMap<>();
+        try (Checkpointer checkpointer = new Checkpointer(directory, 2, 1, 0, 4)) {
+            Automaton<BooleanCell, BooleanState> broken = new Automaton<>();
+            broken.setGeneration(1);
+            assertDoesNotThrow(() -> checkpointer.accept(broken));
+            automaton.addStepListener(checkpointer);
+            for (int i = 0; i < 5; i++) {
+                automaton.step();
+                images.put(automaton.getGeneration(), values(automaton.getGrid()));
+            }
+        }
+
+        Automaton<BooleanCell, BooleanState> resumed = newAutomaton(99L);
+        assertNotNull(Checkpointer.resume(directory, resumed));
+        assertEquals(3L, resumed.getSeed());
+        assertArrayEquals(images.get(resumed.getGeneration()), values(resumed.getGrid()));
+    }
+
+    private static Automaton<BooleanCell, BooleanState> newAutomaton(long seed) {
+        return newAutomaton(seed, false);
+    }
+
+    private static Automaton<BooleanCell, BooleanState> newAutomaton(long seed, boolean packed) {
+        Automaton<BooleanCell, BooleanState> automaton = new Automaton<>();
+        automaton.setSeed(seed);
+        ConfGameOfLife configuration = new ConfGameOfLife();
+        if (packed) {
+            configuration.setGridFactory(PackedBooleanGrid::new);
+        }
+        configuration.configure(automaton, WIDTH, HEIGHT, 10);
+        return automaton;
+    }
+
+    private static boolean[] values(Grid<BooleanCell, BooleanState> grid) {
+        boolean[] values = new boolean[grid.getWidth() * grid.getHeight()];
+        for (int y = 0; y < grid.getHeight(); y++) {
+            for (int x = 0; x < grid.getWidth(); x++) {
+                values[y * grid.getWidth() + x] = grid.getCell(x, y).getState().getValue();
+            }
+        }
+        return values;
+    }
+}
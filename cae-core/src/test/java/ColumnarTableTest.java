@@ -0,0 +1,79 @@
+import com.dungeoncode.cae.core.io.ColumnarTable;
+import com.dungeoncode.cae.core.io.ColumnarWriter;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ColumnarTableTest {
+
+    private static final int ROWS = 2 * ColumnarWriter.ROW_GROUP_SIZE + 37;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void testRoundTripAcrossRowGroups() throws IOException {
+        Path file = directory.resolve("table.cols");
+        write(file);
+
+        ColumnarTable table = ColumnarTable.read(file);
+        assertEquals(List.of("index", "ratio", "flag", "count", "scaled"), table.getColumnNames());
+        assertEquals(ColumnarWriter.Type.LONG, table.getType("index"));
+        assertEquals(ColumnarWriter.Type.DOUBLE, table.getType("ratio"));
+        assertEquals(ROWS, table.getRowCount());
+
+        long[] index = table.getLongs("index");
+        double[] ratio = table.getDoubles("ratio");
+        long[] flag = table.getLongs("flag");
+        long[] count = table.getLongs("count");
+        double[] scaled = table.getDoubles("scaled");
+        for (int i = 0; i < ROWS; i++) {
+            assertEquals(i, index[i]);
+            assertEquals(i / 8.0, ratio[i]);
+            assertEquals(i % 3 == 0 ? 1 : 0, flag[i], "Booleans are stored as 0 or 1");
+            assertEquals(i / 2, count[i], "Doubles are truncated in long columns");
+            assertEquals(i * 3.0, scaled[i], "Integers are widened in double columns");
+        }
+        assertArrayEquals(new double[]{0, 1, 2}, Arrays.copyOf(table.getDoubles("index"), 3));
+        assertArrayEquals(new long[]{0, 0, 0, 0, 0, 0, 0, 0, 1}, Arrays.copyOf(table.getLongs("ratio"), 9));
+        assertThrows(IllegalArgumentException.class, () -> table.getLongs("missing"));
+    }
+
+    @Test
+    void testTruncatedRowGroupIsIgnored() throws IOException {
+        Path file = directory.resolve("truncated.cols");
+        write(file);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.truncate(channel.size() - 8);
+        }
+
+        ColumnarTable table = ColumnarTable.read(file);
+        assertEquals(2 * ColumnarWriter.ROW_GROUP_SIZE, table.getRowCount());
+        long[] index = table.getLongs("index");
+        assertEquals(2 * ColumnarWriter.ROW_GROUP_SIZE - 1, index[index.length - 1]);
+    }
+
+    /**
+     * Writes {@link #ROWS} rows, two full row groups and a partial one, with values of mixed types.
+     */
+    private static void write(Path file) throws IOException {
+        List<ColumnarWriter.Type> types = List.of(ColumnarWriter.Type.LONG, ColumnarWriter.Type.DOUBLE,
+                ColumnarWriter.Type.LONG, ColumnarWriter.Type.LONG, ColumnarWriter.Type.DOUBLE);
+        try (ColumnarWriter writer = new ColumnarWriter(file, List.of("index", "ratio", "flag", "count", "scaled"),
+                types)) {
+            for (int i = 0; i < ROWS; i++) {
+                writer.writeRow(i, i / 8.0, i % 3 == 0, i / 2.0, i * 3);
+            }
+            assertEquals(ROWS, writer.getRowCount());
+            assertThrows(IllegalArgumentException.class, () -> writer.writeRow(1, 2.0));
+        }
+    }
+}
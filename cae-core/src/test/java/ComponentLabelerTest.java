@@ -0,0 +1,123 @@
+import com.dungeoncode.cae.core.analysis.ComponentLabeler;
+import com.dungeoncode.cae.core.analysis.Components;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ComponentLabelerTest {
+
+    @Test
+    void testBandsMergeAcrossTorusWrap() {
+        // A vertical line crosses every band boundary and the wrap from the last row to the first
+        int width = 7;
+        int height = 100;
+        int[] keys = new int[width * height];
+        Arrays.fill(keys, -1);
+        for (int y = 0; y < height; y++) {
+            keys[y * width + 3] = 0;
+        }
+        // A horizontal segment joined only through the wrap from the last column to the first
+        keys[50 * width] = 0;
+        keys[50 * width + width - 1] = 0;
+        // A diagonal pair joined only through the corner, with 8-connectivity
+        keys[0] = 0;
+        keys[(height - 1) * width + width - 1] = 0;
+
+        Components four = new ComponentLabeler(ComponentLabeler.Connectivity.FOUR, false).label(keys, width, height);
+        assertEquals(4, four.getCount());
+        assertEquals(four.getLabel(0, 50), four.getLabel(width - 1, 50));
+        assertNotEquals(four.getLabel(0, 0), four.getLabel(width - 1, height - 1));
+
+        Components eight = new ComponentLabeler(ComponentLabeler.Connectivity.EIGHT, false).label(keys, width, height);
+        assertEquals(3, eight.getCount());
+        assertEquals(eight.getLabel(0, 0), eight.getLabel(width - 1, height - 1));
+        assertEquals(height, eight.getSize(eight.getLabel(3, 0)));
+    }
+
+    @Test
+    void testMatchesFloodFill() {
+        Random random = new Random(11);
+        for (int[] size : new int[][]{{1, 1}, {1, 40}, {40, 1}, {2, 70}, {33, 100}, {64, 257}}) {
+            int width = size[0];
+            int height = size[1];
+            int[] keys = new int[width * height];
+            for (int i = 0; i < keys.length; i++) {
+                keys[i] = random.nextDouble() < 0.45 ? random.nextInt(2) : -1;
+            }
+            for (ComponentLabeler.Connectivity connectivity : ComponentLabeler.Connectivity.values()) {
+                for (boolean sameId : new boolean[]{false, true}) {
+                    int[] expected = floodFill(keys, width, height, connectivity, sameId);
+                    for (boolean parallel : new boolean[]{false, true}) {
+                        ComponentLabeler labeler = new ComponentLabeler(connectivity, sameId);
+                        labeler.setParallel(parallel);
+                        Components components = labeler.label(keys, width, height);
+                        assertSamePartition(expected, components, width + "x" + height + " " + connectivity
+                                + (sameId ? " same id" : "") + (parallel ? " parallel" : ""));
+                    }
+                }
+            }
+        }
+    }
+
+    private static void assertSamePartition(int[] expected, Components components, String message) {
+        int[] actual = components.getLabels();
+        Map<Integer, Integer> forward = new HashMap<>();
+        Map<Integer, Integer> backward = new HashMap<>();
+        int[] sizes = new int[components.getCount()];
+        for (int i = 0; i < expected.length; i++) {
+            assertEquals(expected[i] < 0, actual[i] < 0, message + ": background at " + i);
+            if (expected[i] >= 0) {
+                int label = actual[i];
+                int reference = expected[i];
+                assertEquals(label, forward.computeIfAbsent(reference, k -> label), message + ": cell " + i);
+                assertEquals(reference, backward.computeIfAbsent(label, k -> reference), message + ": cell " + i);
+                sizes[actual[i]]++;
+            }
+        }
+        assertEquals(forward.size(), components.getCount(), message);
+        for (int label = 0; label < sizes.length; label++) {
+            assertEquals(sizes[label], components.getSize(label), message + ": size of " + label);
+        }
+    }
+
+    private static int[] floodFill(int[] keys, int width, int height, ComponentLabeler.Connectivity connectivity,
+                                   boolean sameId) {
+        int[] labels = new int[keys.length];
+        Arrays.fill(labels, -1);
+        int next = 0;
+        ArrayDeque<Integer> queue = new ArrayDeque<>();
+        for (int start = 0; start < keys.length; start++) {
+            if (keys[start] < 0 || labels[start] >= 0) {
+                continue;
+            }
+            labels[start] = next;
+            queue.add(start);
+            while (!queue.isEmpty()) {
+                int i = queue.poll();
+                int x = i % width;
+                int y = i / width;
+                for (int dy = -1; dy <= 1; dy++) {
+                    for (int dx = -1; dx <= 1; dx++) {
+                        if ((dx == 0 && dy == 0)
+                                || (connectivity == ComponentLabeler.Connectivity.FOUR && dx != 0 && dy != 0)) {
+                            continue;
+                        }
+                        int j = Math.floorMod(y + dy, height) * width + Math.floorMod(x + dx, width);
+                        if (keys[j] >= 0 && labels[j] < 0 && (!sameId || keys[j] == keys[i])) {
+                            labels[j] = next;
+                            queue.add(j);
+                        }
+                    }
+                }
+            }
+            next++;
+        }
+        return labels;
+    }
+}
@@ -0,0 +1,204 @@
+import com.dungeoncode.cae.automa.ConfGameOfLife;
+import com.dungeoncode.cae.automa.ConfGeneticDrift;
+import com.dungeoncode.cae.core.Automaton;
+import com.dungeoncode.cae.core.CycleDetector;
+import com.dungeoncode.cae.core.Grid;
+import com.dungeoncode.cae.core.StatisticsCollector;
+import com.dungeoncode.cae.core.impl.BooleanCell;
+import com.dungeoncode.cae.core.impl.BooleanState;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CycleDetectorTest {
+
+    private static final int SIZE = 16;
+
+    private static final int[][] BLOCK = {{5, 5}, {6, 5}, {5, 6}, {6, 6}};
+
+    private static final int[][] BLINKER = {{5, 6}, {6, 6}, {7, 6}};
+
+    @Test
+    void testDetectsFixedPointsAndCycles() {
+        assertEquals(1, detect(BLOCK, CycleDetector.Policy.REPORT).getCycleDetector().getCycle().period());
+        assertEquals(2, detect(BLINKER, CycleDetector.Policy.REPORT).getCycleDetector().getCycle().period());
+        int[][] pair = {BLOCK[0], BLOCK[1], BLOCK[2], BLOCK[3], {10, 11}, {11, 11}, {12, 11}};
+        assertEquals(2, detect(pair, CycleDetector.Policy.REPORT).getCycleDetector().getCycle().period());
+
+        Automaton<BooleanCell, BooleanState> random = new Automaton<>();
+        new ConfGeneticDrift().configure(random, SIZE, SIZE, 10);
+        random.setCycleDetector(CycleDetector.forBooleanGrids(8, CycleDetector.Policy.IDLE));
+        for (int i = 0; i < 20; i++) {
+            random.step();
+        }
+        assertFalse(random.getCycleDetector().isArmed());
+        assertNull(random.getCycleDetector().getCycle());
+    }
+
+    @Test
+    void testReportKeepsComputing() {
+        for (int[][] cells : new int[][][]{BLOCK, BLINKER}) {
+            Automaton<BooleanCell, BooleanState> automaton = detect(cells, CycleDetector.Policy.REPORT);
+            Recorder recorder = record(automaton);
+            long generation = automaton.getGeneration();
+            for (int i = 1; i <= 5; i++) {
+                automaton.step();
+                assertEquals(generation + i, automaton.getGeneration());
+                assertMatchesReference(cells, automaton);
+            }
+            assertEquals(5, recorder.computed);
+            assertEquals(0, recorder.repeated);
+        }
+    }
+
+    @Test
+    void testIdleSkipsFixedPointsAndFreezesCycles() {
+        Automaton<BooleanCell, BooleanState> block = detect(BLOCK, CycleDetector.Policy.IDLE);
+        Recorder blockRecorder = record(block);
+        long generation = block.getGeneration();
+        for (int i = 1; i <= 5; i++) {
+            block.step();
+            assertEquals(generation + i, block.getGeneration());
+            assertMatchesReference(BLOCK, block);
+        }
+        assertEquals(0, blockRecorder.computed);
+        assertEquals(5, blockRecorder.repeated);
+
+        Automaton<BooleanCell, BooleanState> blinker = detect(BLINKER, CycleDetector.Policy.IDLE);
+        Recorder blinkerRecorder = record(blinker);
+        boolean[] frozen = values(blinker.getGrid());
+        generation = blinker.getGeneration();
+        for (int i = 0; i < 5; i++) {
+            blinker.step();
+        }
+        assertEquals(generation, blinker.getGeneration());
+        assertArrayEquals(frozen, values(blinker.getGrid()));
+        assertEquals(0, blinkerRecorder.computed);
+        assertEquals(0, blinkerRecorder.repeated);
+    }
+
+    @Test
+    void testFastForwardPolicySkipsOnlyFixedPoints() {
+        Automaton<BooleanCell, BooleanState> block = detect(BLOCK, CycleDetector.Policy.FAST_FORWARD);
+        Recorder blockRecorder = record(block);
+        for (int i = 0; i < 5; i++) {
+            block.step();
+        }
+        assertMatchesReference(BLOCK, block);
+        assertEquals(0, blockRecorder.computed);
+        assertEquals(5, blockRecorder.repeated);
+
+        Automaton<BooleanCell, BooleanState> blinker = detect(BLINKER, CycleDetector.Policy.FAST_FORWARD);
+        Recorder blinkerRecorder = record(blinker);
+        long generation = blinker.getGeneration();
+        for (int i = 1; i <= 5; i++) {
+            blinker.step();
+            assertEquals(generation + i, blinker.getGeneration());
+            assertMatchesReference(BLINKER, blinker);
+        }
+        assertEquals(5, blinkerRecorder.computed);
+        assertEquals(0, blinkerRecorder.repeated);
+    }
+
+    @Test
+    void testFastForwardJumpsAlongCycle() {
+        for (CycleDetector.Policy policy : CycleDetector.Policy.values()) {
+            for (long distance : new long[]{1000, 1001}) {
+                Automaton<BooleanCell, BooleanState> automaton = detect(BLINKER, policy);
+                Recorder recorder = record(automaton);
+                long target = automaton.getGeneration() + distance;
+                automaton.fastForward(target);
+                assertEquals(target, automaton.getGeneration());
+                assertMatchesReference(BLINKER, automaton);
+                assertEquals(distance % 2, recorder.computed, policy + ", distance " + distance);
+                assertEquals(1, recorder.repeated, policy + ", distance " + distance);
+            }
+        }
+    }
+
+    /**
+     * Creates an automaton holding the given live cells and steps it until its detector reports a cycle.
+     */
+    private static Automaton<BooleanCell, BooleanState> detect(int[][] cells, CycleDetector.Policy policy) {
+        Automaton<BooleanCell, BooleanState> automaton = newAutomaton(cells);
+        automaton.setCycleDetector(CycleDetector.forBooleanGrids(8, policy));
+        for (int i = 0; i < 10 && automaton.getCycleDetector().getCycle() == null; i++) {
+            automaton.step();
+        }
+        assertTrue(automaton.getCycleDetector().isArmed());
+        assertNotNull(automaton.getCycleDetector().getCycle(), "No cycle detected");
+        return automaton;
+    }
+
+    private static Automaton<BooleanCell, BooleanState> newAutomaton(int[][] cells) {
+        Automaton<BooleanCell, BooleanState> automaton = new Automaton<>();
+        new ConfGameOfLife().configure(automaton, SIZE, SIZE, 10);
+        Grid<BooleanCell, BooleanState> grid = automaton.getGrid();
+        for (int y = 0; y < SIZE; y++) {
+            for (int x = 0; x < SIZE; x++) {
+                grid.getCell(x, y).setState(false, false, 0);
+            }
+        }
+        for (int[] cell : cells) {
+            grid.getCell(cell[0], cell[1]).setState(true, false, 0);
+        }
+        automaton.gridChanged();
+        return automaton;
+    }
+
+    /**
+     * Checks the grid against an automaton without a detector stepped to the same generation.
+     */
+    private static void assertMatchesReference(int[][] cells, Automaton<BooleanCell, BooleanState> automaton) {
+        Automaton<BooleanCell, BooleanState> reference = newAutomaton(cells);
+        while (reference.getGeneration() < automaton.getGeneration()) {
+            reference.step();
+        }
+        assertArrayEquals(values(reference.getGrid()), values(automaton.getGrid()),
+                "Generation " + automaton.getGeneration());
+    }
+
+    private static Recorder record(Automaton<BooleanCell, BooleanState> automaton) {
+        Recorder recorder = new Recorder();
+        automaton.setStatisticsCollector(recorder);
+        return recorder;
+    }
+
+    private static boolean[] values(Grid<BooleanCell, BooleanState> grid) {
+        boolean[] values = new boolean[grid.getWidth() * grid.getHeight()];
+        for (int y = 0; y < grid.getHeight(); y++) {
+            for (int x = 0; x < grid.getWidth(); x++) {
+                values[y * grid.getWidth() + x] = grid.getCell(x, y).getState().getValue();
+            }
+        }
+        return values;
+    }
+
+    /**
+     * Counts the generations published as computed and as repeated.
+     */
+    private static final class Recorder implements StatisticsCollector<BooleanState> {
+
+        private int computed;
+
+        private int repeated;
+
+        @Override
+        public void begin(int width, int height) {
+        }
+
+        @Override
+        public void accept(BooleanState state) {
+        }
+
+        @Override
+        public void end(long generation) {
+            computed++;
+        }
+
+        @Override
+        public void repeat(long generation) {
+            repeated++;
+        }
+    }
+}
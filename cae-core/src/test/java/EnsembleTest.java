@@ -0,0 +1,98 @@
+import com.dungeoncode.cae.automa.ConfRandomAnneal;
+import com.dungeoncode.cae.core.ensemble.Ensemble;
+import com.dungeoncode.cae.core.ensemble.EnsembleResult;
+import com.dungeoncode.cae.core.ensemble.Sweep;
+import com.dungeoncode.cae.core.impl.BooleanCell;
+import com.dungeoncode.cae.core.impl.BooleanState;
+import com.dungeoncode.cae.core.io.ColumnarTable;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class EnsembleTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void testRunIsReproducibleAndMergesEveryReplica() throws InterruptedException {
+        Ensemble<BooleanCell, BooleanState> ensemble = new Ensemble<>(ConfRandomAnneal::new, 32, 32);
+        ensemble.addMetric("population", Ensemble.population());
+        ensemble.setSampleInterval(5);
+
+        EnsembleResult first = ensemble.run(6, 20, 42L, 3);
+        EnsembleResult second = ensemble.run(6, 20, 42L, 2);
+        assertEquals(6, first.getReplicas());
+        assertEquals(6, second.getReplicas());
+        assertEquals(5, first.getSampleCount());
+        for (int sample = 0; sample < first.getSampleCount(); sample++) {
+            assertEquals(first.getMean("population", sample), second.getMean("population", sample), 1e-9);
+        }
+    }
+
+    @Test
+    void testInterruptedReplicaFailsTheRun() {
+        Ensemble<BooleanCell, BooleanState> ensemble = new Ensemble<>(ConfRandomAnneal::new, 16, 16);
+        AtomicBoolean interrupted = new AtomicBoolean();
+        ensemble.addMetric("interrupt", grid -> {
+            if (interrupted.compareAndSet(false, true)) {
+                Thread.currentThread().interrupt();
+            }
+            return 0;
+        });
+
+        IllegalStateException e = assertThrows(IllegalStateException.class, () -> ensemble.run(4, 10, 7L, 2));
+        assertInstanceOf(CancellationException.class, e.getCause());
+    }
+
+    @Test
+    void testSweepWritesOneRowPerRun() throws IOException, InterruptedException {
+        Sweep<BooleanCell, BooleanState> sweep = new Sweep<>(p -> new ConfRandomAnneal(p.get("flip")), 24, 24);
+        sweep.addParameter("flip", 0.01, 0.05);
+        sweep.addParameter("unused", 1, 2, 3);
+        sweep.addMetric("population", Ensemble.population());
+        sweep.addMetric("level", grid -> 5.0);
+        sweep.setConvergence("level", 3, 0.001);
+
+        Path file = directory.resolve("sweep.cols");
+        assertEquals(6 * 4, sweep.run(4, 50, 42L, 3, file));
+        ColumnarTable table = ColumnarTable.read(file);
+        assertEquals(24, table.getRowCount());
+        long[] point = table.getLongs("point");
+        long[] replica = table.getLongs("replica");
+        long[] seed = table.getLongs("seed");
+        double[] flip = table.getDoubles("flip");
+        double[] unused = table.getDoubles("unused");
+        long[] generations = table.getLongs("generations");
+        long[] converged = table.getLongs("converged");
+        double[] population = table.getDoubles("population");
+        Set<Long> runs = new HashSet<>();
+        for (int i = 0; i < table.getRowCount(); i++) {
+            assertTrue(runs.add(point[i] * 4 + replica[i]), "One row per point and replica");
+            assertEquals(Ensemble.replicaSeed(42L, (int) replica[i]), seed[i], "Replicas share seeds across points");
+            assertEquals(point[i] < 3 ? 0.01 : 0.05, flip[i]);
+            assertEquals(1 + point[i] % 3, unused[i]);
+            assertEquals(1, converged[i], "A constant metric settles");
+            assertEquals(2, generations[i], "Settles once the window of 3 samples is full");
+            assertTrue(population[i] >= 0 && population[i] <= 24 * 24);
+        }
+        assertEquals(24, runs.size());
+
+        Sweep<BooleanCell, BooleanState> unsettled = new Sweep<>(p -> new ConfRandomAnneal(p.get("flip")), 24, 24);
+        unsettled.addParameter("flip", 0.01);
+        unsettled.addMetric("population", Ensemble.population());
+        Path full = directory.resolve("unsettled.cols");
+        assertEquals(2, unsettled.run(2, 30, 42L, 2, full));
+        ColumnarTable fullTable = ColumnarTable.read(full);
+        assertArrayEquals(new long[]{0, 0}, fullTable.getLongs("converged"));
+        assertArrayEquals(new long[]{30, 30}, fullTable.getLongs("generations"));
+    }
+}
@@ -0,0 +1,71 @@
+import com.dungeoncode.cae.core.impl.continuous.FloatGrid;
+import com.dungeoncode.cae.core.impl.continuous.Fft;
+import com.dungeoncode.cae.core.impl.continuous.LeniaRule;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class FftTest {
+
+    @Test
+    void testMatchesDirectTransform() {
+        Random random = new Random(3);
+        // Powers of two use radix-2, the others Bluestein's algorithm
+        for (int n : new int[]{1, 2, 16, 64, 3, 45, 97, 100}) {
+            double[] re = new double[n];
+            double[] im = new double[n];
+            for (int i = 0; i < n; i++) {
+                re[i] = random.nextDouble() - 0.5;
+                im[i] = random.nextDouble() - 0.5;
+            }
+            for (boolean inverse : new boolean[]{false, true}) {
+                double[] expectedRe = new double[n];
+                double[] expectedIm = new double[n];
+                double sign = inverse ? 1 : -1;
+                for (int k = 0; k < n; k++) {
+                    for (int j = 0; j < n; j++) {
+                        double angle = sign * 2 * Math.PI * ((long) j * k % n) / n;
+                        expectedRe[k] += re[j] * Math.cos(angle) - im[j] * Math.sin(angle);
+                        expectedIm[k] += re[j] * Math.sin(angle) + im[j] * Math.cos(angle);
+                    }
+                }
+                Fft fft = new Fft(n);
+                double[] actualRe = re.clone();
+                double[] actualIm = im.clone();
+                fft.transform(actualRe, actualIm, inverse, new double[fft.getWorkLength()],
+                        new double[fft.getWorkLength()]);
+                assertArrayEquals(expectedRe, actualRe, 1e-9, "Real parts, n=" + n + ", inverse=" + inverse);
+                assertArrayEquals(expectedIm, actualIm, 1e-9, "Imaginary parts, n=" + n + ", inverse=" + inverse);
+            }
+        }
+    }
+
+    @Test
+    void testLeniaMatchesDirectConvolution() {
+        // 60x45 needs Bluestein's algorithm on both axes, 64x32 only radix-2
+        for (int[] size : new int[][]{{60, 45}, {64, 32}}) {
+            int width = size[0];
+            int height = size[1];
+            FloatGrid grid = new FloatGrid(width, height, null);
+            Random random = new Random(width);
+            for (int y = 0; y < height; y++) {
+                for (int x = 0; x < width; x++) {
+                    grid.set(x, y, x > 10 && x < 40 && y > 5 && y < 30 ? random.nextFloat() : 0);
+                }
+            }
+            LeniaRule rule = LeniaRule.orbium();
+            rule.setParallel(false);
+            rule.applyToGrid(grid);
+            float[] transformed = grid.getNextPlane().clone();
+            for (int y = 0; y < height; y++) {
+                for (int x = 0; x < width; x++) {
+                    float direct = rule.apply(grid, grid.getCell(x, y)).floatValue();
+                    assertEquals(direct, transformed[y * width + x], 1e-4,
+                            "Cell " + x + "," + y + " of " + width + "x" + height);
+                }
+            }
+        }
+    }
+}
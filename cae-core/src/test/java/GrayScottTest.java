@@ -0,0 +1,65 @@
+import com.dungeoncode.cae.core.impl.continuous.GrayScottRule;
+import com.dungeoncode.cae.core.impl.continuous.ReactionDiffusionGrid;
+import com.dungeoncode.cae.core.impl.continuous.ReactionDiffusionState;
+import com.dungeoncode.cae.core.impl.init.InitReactionDiffusionSeeds;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class GrayScottTest {
+
+    @Test
+    void testSingleCellsMatchWholeGrid() {
+        for (GrayScottRule.Stencil stencil : GrayScottRule.Stencil.values()) {
+            GrayScottRule rule = new GrayScottRule(1f, 0.5f, 0.0367f, 0.0649f, 0.2f, 4, stencil);
+            ReactionDiffusionGrid grid = newGrid(51, 37, 1L);
+            for (int generation = 0; generation < 5; generation++) {
+                rule.applyToGrid(grid);
+                grid.commitNextStates(null);
+            }
+            rule.applyToGrid(grid);
+            float[] expectedU = grid.getNextU().clone();
+            float[] expectedV = grid.getNextV().clone();
+            for (int y = 0; y < grid.getHeight(); y++) {
+                for (int x = 0; x < grid.getWidth(); x++) {
+                    ReactionDiffusionState state = rule.apply(grid, grid.getCell(x, y));
+                    int i = y * grid.getWidth() + x;
+                    assertEquals(expectedU[i], state.getU(), 0f, stencil + " substrate at " + x + "," + y);
+                    assertEquals(expectedV[i], state.getV(), 0f, stencil + " catalyst at " + x + "," + y);
+                }
+            }
+        }
+    }
+
+    @Test
+    void testParallelBandsMatchSequentialGrid() {
+        GrayScottRule sequentialRule = GrayScottRule.mitosis();
+        sequentialRule.setParallel(false);
+        GrayScottRule parallelRule = GrayScottRule.mitosis();
+        ReactionDiffusionGrid sequential = newGrid(64, 100, 2L);
+        ReactionDiffusionGrid parallel = newGrid(64, 100, 2L);
+        assertArrayEquals(sequential.getV(), parallel.getV());
+        for (int generation = 0; generation < 10; generation++) {
+            sequentialRule.applyToGrid(sequential);
+            sequential.commitNextStates(null);
+            parallelRule.applyToGrid(parallel);
+            parallel.commitNextStates(null);
+            assertArrayEquals(sequential.getU(), parallel.getU(), "Substrate, generation " + generation);
+            assertArrayEquals(sequential.getV(), parallel.getV(), "Catalyst, generation " + generation);
+        }
+    }
+
+    @Test
+    void testRejectsUnstableTimeStep() {
+        assertThrows(IllegalArgumentException.class,
+                () -> new GrayScottRule(1f, 0.5f, 0.03f, 0.06f, 0.3f, 1, GrayScottRule.Stencil.FIVE_POINT));
+        assertDoesNotThrow(
+                () -> new GrayScottRule(1f, 0.5f, 0.03f, 0.06f, 0.25f, 1, GrayScottRule.Stencil.FIVE_POINT));
+    }
+
+    private static ReactionDiffusionGrid newGrid(int width, int height, long seed) {
+        InitReactionDiffusionSeeds seeds = new InitReactionDiffusionSeeds(4, 8);
+        seeds.reseed(seed);
+        return new ReactionDiffusionGrid(width, height, seeds);
+    }
+}
@@ -0,0 +1,120 @@
+import com.dungeoncode.cae.core.io.IndexedPngWriter;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.zip.Adler32;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class IndexedPngWriterTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void testStripsFormOneZlibStream() throws IOException, DataFormatException {
+        // 8-bit indices over 1500 rows of 8193-byte scanlines: three strips of at most 4 MiB each
+        int width = 8192;
+        int height = 1500;
+        int[] palette = new int[256];
+        for (int i = 0; i < palette.length; i++) {
+            palette[i] = i * 0x010101;
+        }
+        IndexedPngWriter.RowSource source = (y, indices) -> {
+            for (int x = 0; x < indices.length; x++) {
+                indices[x] = (byte) ((x * 31 + y * 17 + (x ^ y)) & 0xFF);
+            }
+        };
+        Path parallel = directory.resolve("parallel.png");
+        new IndexedPngWriter().write(parallel, width, height, palette, source);
+
+        byte[] scanlines = inflate(parallel);
+        assertEquals((long) height * (width + 1), scanlines.length);
+        for (int y = 0; y < height; y++) {
+            int base = y * (width + 1);
+            assertEquals(0, scanlines[base], "Filter of row " + y);
+            for (int x = 0; x < width; x += 97) {
+                assertEquals((byte) ((x * 31 + y * 17 + (x ^ y)) & 0xFF), scanlines[base + 1 + x],
+                        "Pixel at " + x + "," + y);
+            }
+        }
+
+        IndexedPngWriter sequentialWriter = new IndexedPngWriter();
+        sequentialWriter.setParallel(false);
+        Path sequential = directory.resolve("sequential.png");
+        sequentialWriter.write(sequential, width, height, palette, source);
+        assertArrayEquals(Files.readAllBytes(parallel), Files.readAllBytes(sequential));
+    }
+
+    @Test
+    void testPacksSmallPalettes() throws IOException, DataFormatException {
+        Path file = directory.resolve("small.png");
+        new IndexedPngWriter(9).write(file, 5, 3, new int[]{0x000000, 0xFF0000, 0x00FF00},
+                (y, indices) -> {
+                    for (int x = 0; x < indices.length; x++) {
+                        indices[x] = (byte) ((x + y) % 3);
+                    }
+                });
+
+        // 2 bits per pixel: 5 pixels fit in 2 bytes after the filter byte
+        byte[] scanlines = inflate(file);
+        assertEquals(3 * 3, scanlines.length);
+        for (int y = 0; y < 3; y++) {
+            for (int x = 0; x < 5; x++) {
+                int packed = scanlines[y * 3 + 1 + x / 4] & 0xFF;
+                assertEquals((x + y) % 3, packed >> (6 - 2 * (x % 4)) & 3, "Pixel at " + x + "," + y);
+            }
+        }
+    }
+
+    /**
+     * Concatenates the IDAT chunks of a PNG file, inflates them as one zlib stream, and checks that the stream ends
+     * with the Adler-32 checksum of the inflated data.
+     */
+    private static byte[] inflate(Path file) throws IOException, DataFormatException {
+        ByteArrayOutputStream data = new ByteArrayOutputStream();
+        try (DataInputStream in = new DataInputStream(Files.newInputStream(file))) {
+            in.skipNBytes(8);
+            while (true) {
+                int length = in.readInt();
+                byte[] type = in.readNBytes(4);
+                byte[] chunk = in.readNBytes(length);
+                in.readInt();
+                String name = new String(type, StandardCharsets.US_ASCII);
+                if (name.equals("IDAT")) {
+                    data.write(chunk);
+                } else if (name.equals("IEND")) {
+                    break;
+                }
+            }
+        }
+        byte[] zlib = data.toByteArray();
+
+        Inflater inflater = new Inflater();
+        inflater.setInput(zlib);
+        ByteArrayOutputStream raw = new ByteArrayOutputStream();
+        byte[] buffer = new byte[1 << 16];
+        while (!inflater.finished()) {
+            int n = inflater.inflate(buffer);
+            assertFalse(n == 0 && inflater.needsInput(), "Truncated zlib stream");
+            raw.write(buffer, 0, n);
+        }
+        assertEquals(0, inflater.getRemaining(), "Data after the end of the zlib stream");
+        inflater.end();
+
+        byte[] scanlines = raw.toByteArray();
+        Adler32 adler = new Adler32();
+        adler.update(scanlines);
+        assertEquals((int) adler.getValue(), ByteBuffer.wrap(zlib, zlib.length - 4, 4).getInt());
+        return scanlines;
+    }
+}
@@ -0,0 +1,69 @@
+import com.dungeoncode.cae.automa.ConfLargerThanLife;
+import com.dungeoncode.cae.automa.rules.RuleLargerThanLife;
+import com.dungeoncode.cae.core.Automaton;
+import com.dungeoncode.cae.core.Grid;
+import com.dungeoncode.cae.core.impl.BooleanCell;
+import com.dungeoncode.cae.core.impl.BooleanState;
+import com.dungeoncode.cae.core.impl.packed.PackedBooleanGrid;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class LargerThanLifeTest {
+
+    private static final int WIDTH = 150;
+    private static final int HEIGHT = 45;
+
+    @Test
+    void testSingleCellsMatchWholeGrid() {
+        List<RuleLargerThanLife> rules = List.of(new RuleLargerThanLife(),
+                RuleLargerThanLife.parse("R1,C0,M0,S2..3,B3..3,NM"),
+                RuleLargerThanLife.parse("R3,C0,M0,S10..30,B12..20,NM"));
+        for (boolean packed : new boolean[]{false, true}) {
+            for (RuleLargerThanLife rule : rules) {
+                Grid<BooleanCell, BooleanState> grid = newSoup(packed);
+                for (int generation = 0; generation < 5; generation++) {
+                    rule.applyToGrid(grid);
+                    boolean[] expected = new boolean[WIDTH * HEIGHT];
+                    for (int y = 0; y < HEIGHT; y++) {
+                        for (int x = 0; x < WIDTH; x++) {
+                            expected[y * WIDTH + x] = grid.getNextState(x, y).getValue();
+                        }
+                    }
+                    for (int y = 0; y < HEIGHT; y++) {
+                        for (int x = 0; x < WIDTH; x++) {
+                            assertEquals(expected[y * WIDTH + x], rule.apply(grid, grid.getCell(x, y)).getValue(),
+                                    rule + (packed ? " packed" : " heap") + " at " + x + "," + y + ", generation "
+                                            + generation);
+                        }
+                    }
+                    grid.commitNextStates(null);
+                }
+            }
+        }
+    }
+
+    @Test
+    void testParsesEvansNotation() {
+        RuleLargerThanLife rule = RuleLargerThanLife.parse("r5, c0, m1, s34..58, b34..45");
+        assertEquals(5, rule.getRange());
+        assertEquals("R5,C0,M1,S34..58,B34..45,NM", rule.toString());
+        assertEquals(rule.toString(), RuleLargerThanLife.parse(rule.toString()).toString());
+        assertThrows(IllegalArgumentException.class, () -> RuleLargerThanLife.parse("B3/S23"));
+        assertThrows(IllegalArgumentException.class, () -> RuleLargerThanLife.parse("R1,C0,M0,S2..3,B3..10,NM"));
+        assertThrows(IllegalArgumentException.class, () -> RuleLargerThanLife.parse("R0,C0,M0,S0..0,B0..0,NM"));
+    }
+
+    private static Grid<BooleanCell, BooleanState> newSoup(boolean packed) {
+        ConfLargerThanLife configuration = new ConfLargerThanLife();
+        if (packed) {
+            configuration.setGridFactory(PackedBooleanGrid::new);
+        }
+        configuration.getGridInitializer().reseed(7L);
+        Automaton<BooleanCell, BooleanState> automaton = new Automaton<>();
+        configuration.configure(automaton, WIDTH, HEIGHT, 10);
+        return automaton.getGrid();
+    }
+}
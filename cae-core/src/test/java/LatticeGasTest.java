@@ -0,0 +1,139 @@
+import com.dungeoncode.cae.core.impl.lattice.LatticeGasGrid;
+import com.dungeoncode.cae.core.impl.lattice.LatticeGasRule;
+import com.dungeoncode.cae.core.impl.lattice.LatticeGasState;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class LatticeGasTest {
+
+    private static final int WIDTH = 130;
+    private static final int HEIGHT = 96;
+
+    @Test
+    void testParticlesAreConserved() {
+        for (LatticeGasRule.Model model : LatticeGasRule.Model.values()) {
+            LatticeGasGrid grid = newGas(model, 1L, true);
+            LatticeGasRule rule = new LatticeGasRule(31, model);
+            long particles = grid.getParticleCount();
+            assertTrue(particles > 0);
+            for (int generation = 0; generation < 100; generation++) {
+                step(rule, grid, generation);
+                assertEquals(particles, grid.getParticleCount(), model + " generation " + generation);
+                assertEquals(particles, countParticles(grid), model + " generation " + generation);
+            }
+        }
+    }
+
+    @Test
+    void testMomentumIsConservedWithoutObstacles() {
+        for (LatticeGasRule.Model model : LatticeGasRule.Model.values()) {
+            LatticeGasGrid grid = newGas(model, 2L, false);
+            LatticeGasRule rule = new LatticeGasRule(31, model);
+            double[] momentum = momentum(grid);
+            for (int generation = 0; generation < 100; generation++) {
+                step(rule, grid, generation);
+                assertArrayEquals(momentum, momentum(grid), 1e-6, model + " generation " + generation);
+            }
+        }
+    }
+
+    @Test
+    void testParallelBandsAndSingleCellsMatchSequentialGrid() {
+        for (LatticeGasRule.Model model : LatticeGasRule.Model.values()) {
+            LatticeGasGrid sequential = newGas(model, 3L, true);
+            LatticeGasGrid parallel = newGas(model, 3L, true);
+            LatticeGasRule sequentialRule = new LatticeGasRule(31, model);
+            sequentialRule.setParallel(false);
+            LatticeGasRule parallelRule = new LatticeGasRule(31, model);
+            for (int generation = 0; generation < 20; generation++) {
+                sequentialRule.reseed(generation);
+                sequentialRule.applyToGrid(sequential);
+                long[][] expected = new long[model.getDirectionCount()][];
+                for (int d = 0; d < expected.length; d++) {
+                    expected[d] = sequential.getNextPlane(d).clone();
+                }
+                for (int y = 0; y < HEIGHT; y++) {
+                    for (int x = 0; x < WIDTH; x++) {
+                        sequentialRule.apply(sequential, sequential.getCell(x, y));
+                    }
+                }
+                for (int d = 0; d < expected.length; d++) {
+                    assertArrayEquals(expected[d], sequential.getNextPlane(d),
+                            model + " single cells, direction " + d + ", generation " + generation);
+                }
+                sequential.commitNextStates(null);
+
+                step(parallelRule, parallel, generation);
+                for (int d = 0; d < expected.length; d++) {
+                    assertArrayEquals(sequential.getPlane(d), parallel.getPlane(d),
+                            model + " parallel, direction " + d + ", generation " + generation);
+                }
+            }
+        }
+    }
+
+    @Test
+    void testOnlyHppIsDeterministic() {
+        assertTrue(LatticeGasRule.hpp().isDeterministic());
+        assertFalse(LatticeGasRule.fhp().isDeterministic());
+    }
+
+    private static LatticeGasGrid newGas(LatticeGasRule.Model model, long seed, boolean obstacle) {
+        int directions = model.getDirectionCount();
+        LatticeGasGrid grid = new LatticeGasGrid(WIDTH, HEIGHT, directions, null);
+        Random random = new Random(seed);
+        for (int y = 0; y < HEIGHT; y++) {
+            for (int x = 0; x < WIDTH; x++) {
+                int bits = 0;
+                for (int d = 0; d < directions; d++) {
+                    if (random.nextDouble() < 0.3) {
+                        bits |= 1 << d;
+                    }
+                }
+                boolean solid = obstacle && x >= 50 && x < 70 && y >= 30 && y < 50;
+                grid.set(x, y, solid ? bits | LatticeGasState.SOLID : bits);
+            }
+        }
+        return grid;
+    }
+
+    private static void step(LatticeGasRule rule, LatticeGasGrid grid, long generation) {
+        rule.reseed(generation);
+        rule.applyToGrid(grid);
+        grid.commitNextStates(null);
+    }
+
+    private static long countParticles(LatticeGasGrid grid) {
+        long count = 0;
+        for (int y = 0; y < HEIGHT; y++) {
+            for (int x = 0; x < WIDTH; x++) {
+                count += Integer.bitCount(grid.get(x, y) & ~LatticeGasState.SOLID);
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Returns the total momentum of the particles, with the directions of a model evenly spaced counterclockwise from
+     * east.
+     */
+    private static double[] momentum(LatticeGasGrid grid) {
+        int directions = grid.getDirectionCount();
+        double[] momentum = new double[2];
+        for (int y = 0; y < HEIGHT; y++) {
+            for (int x = 0; x < WIDTH; x++) {
+                int bits = grid.get(x, y);
+                for (int d = 0; d < directions; d++) {
+                    if ((bits >>> d & 1) != 0) {
+                        momentum[0] += Math.cos(2 * Math.PI * d / directions);
+                        momentum[1] += Math.sin(2 * Math.PI * d / directions);
+                    }
+                }
+            }
+        }
+        return momentum;
+    }
+}
@@ -0,0 +1,200 @@
+import com.dungeoncode.cae.automa.ConfGeneticDrift;
+import com.dungeoncode.cae.core.Automaton;
+import com.dungeoncode.cae.core.Grid;
+import com.dungeoncode.cae.core.impl.BooleanCell;
+import com.dungeoncode.cae.core.impl.BooleanState;
+import com.dungeoncode.cae.core.net.LiveServer;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.WebSocket;
+import java.nio.ByteBuffer;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class LiveServerTest {
+
+    private static final int WIDTH = 150;
+    private static final int HEIGHT = 40;
+
+    /**
+     * The number of repeat tokens decoded, to make sure both token kinds carrying values are exercised.
+     */
+    private int repeats;
+
+    @Test
+    void testDecodedFramesMatchGrid() throws Exception {
+        Automaton<BooleanCell, BooleanState> automaton = new Automaton<>();
+        automaton.setSeed(3L);
+        new ConfGeneticDrift().configure(automaton, WIDTH, HEIGHT, 10);
+        Grid<BooleanCell, BooleanState> grid = automaton.getGrid();
+        for (int x = 0; x < WIDTH; x++) {
+            grid.getCell(x, 5).getState().set(true, false, 0, 3);
+        }
+        automaton.gridChanged();
+
+        BlockingQueue<ByteBuffer> messages = new LinkedBlockingQueue<>();
+        try (LiveServer server = new LiveServer(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 100,
+                LiveServer::defaultSymbol, new int[]{0, 0x7F007F, 0x7F7F7F, 0xFF0000, 0x00FF00, 0x0000FF, 0xFFFF00,
+                0x00FFFF})) {
+            server.attach(automaton);
+            URI uri = URI.create("ws://127.0.0.1:" + server.getAddress().getPort() + "/stream");
+            WebSocket socket = HttpClient.newHttpClient().newWebSocketBuilder()
+                    .buildAsync(uri, new Collector(messages)).get(5, TimeUnit.SECONDS);
+
+            ByteBuffer keyframe = next(messages);
+            assertEquals(0, keyframe.get());
+            assertEquals(WIDTH, keyframe.getInt());
+            assertEquals(HEIGHT, keyframe.getInt());
+            assertEquals(0, keyframe.getLong());
+            int paletteSize = keyframe.getShort();
+            keyframe.position(keyframe.position() + 3 * paletteSize);
+            byte[] plane = new byte[WIDTH * HEIGHT];
+            decode(keyframe, plane);
+            assertPlaneMatches(grid, plane);
+            assertTrue(repeats > 0, "The live row should be sent as a repeat token");
+
+            for (int i = 0; i < 15; i++) {
+                automaton.step();
+                long generation;
+                do {
+                    ByteBuffer delta = next(messages);
+                    assertEquals(1, delta.get());
+                    generation = delta.getLong();
+                    decode(delta, plane);
+                } while (generation < automaton.getGeneration());
+                assertEquals(automaton.getGeneration(), generation);
+                assertPlaneMatches(grid, plane);
+            }
+            socket.abort();
+        }
+    }
+
+    @Test
+    void testFramesConvergeWhileSteppingFast() throws Exception {
+        Automaton<BooleanCell, BooleanState> automaton = new Automaton<>();
+        automaton.setSeed(4L);
+        new ConfGeneticDrift().configure(automaton, WIDTH, HEIGHT, 10);
+        Grid<BooleanCell, BooleanState> grid = automaton.getGrid();
+
+        BlockingQueue<ByteBuffer> messages = new LinkedBlockingQueue<>();
+        try (LiveServer server = new LiveServer(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0))) {
+            server.attach(automaton);
+            URI uri = URI.create("ws://127.0.0.1:" + server.getAddress().getPort() + "/stream");
+            WebSocket socket = HttpClient.newHttpClient().newWebSocketBuilder()
+                    .buildAsync(uri, new Collector(messages)).get(5, TimeUnit.SECONDS);
+
+            ByteBuffer keyframe = next(messages);
+            assertEquals(0, keyframe.get());
+            keyframe.position(17);
+            int paletteSize = keyframe.getShort();
+            keyframe.position(keyframe.position() + 3 * paletteSize);
+            byte[] plane = new byte[WIDTH * HEIGHT];
+            decode(keyframe, plane);
+
+            for (int round = 0; round < 5; round++) {
+                for (int i = 0; i < 40; i++) {
+                    automaton.step();
+                    if (i % 10 == 0) {
+                        Thread.sleep(5);
+                    }
+                }
+                long generation;
+                do {
+                    ByteBuffer delta = next(messages);
+                    assertEquals(1, delta.get());
+                    generation = delta.getLong();
+                    decode(delta, plane);
+                } while (generation < automaton.getGeneration());
+                assertPlaneMatches(grid, plane);
+            }
+            assertTrue(server.getSkippedCount() > 0, "Some generations should be merged into later frames");
+            socket.abort();
+        }
+    }
+
+    private static ByteBuffer next(BlockingQueue<ByteBuffer> messages) throws InterruptedException {
+        ByteBuffer message = messages.poll(5, TimeUnit.SECONDS);
+        assertNotNull(message, "No frame received");
+        return message;
+    }
+
+    /**
+     * Applies the tokens of a message to the plane of symbols received so far.
+     */
+    private void decode(ByteBuffer tokens, byte[] plane) {
+        int cursor = 0;
+        while (tokens.hasRemaining()) {
+            long token = 0;
+            int shift = 0;
+            byte b;
+            do {
+                b = tokens.get();
+                token |= (long) (b & 0x7F) << shift;
+                shift += 7;
+            } while (b < 0);
+            int length = (int) (token >>> 2);
+            switch ((int) (token & 3)) {
+                case 0 -> cursor += length;
+                case 1 -> {
+                    for (int i = 0; i < length; i++) {
+                        plane[cursor++] ^= tokens.get();
+                    }
+                }
+                case 2 -> {
+                    byte value = tokens.get();
+                    for (int i = 0; i < length; i++) {
+                        plane[cursor++] ^= value;
+                    }
+                    repeats++;
+                }
+                default -> fail("Unknown token kind: " + (token & 3));
+            }
+        }
+        assertTrue(cursor <= plane.length, "Tokens run past the last cell");
+    }
+
+    private static void assertPlaneMatches(Grid<BooleanCell, BooleanState> grid, byte[] plane) {
+        for (int y = 0; y < HEIGHT; y++) {
+            for (int x = 0; x < WIDTH; x++) {
+                assertEquals(LiveServer.defaultSymbol(grid.getCell(x, y).getState()), plane[y * WIDTH + x],
+                        "Symbol at " + x + "," + y);
+            }
+        }
+    }
+
+    /**
+     * Collects complete binary messages.
+     */
+    private static final class Collector implements WebSocket.Listener {
+
+        private final BlockingQueue<ByteBuffer> messages;
+
+        private final ByteArrayOutputStream partial = new ByteArrayOutputStream();
+
+        Collector(BlockingQueue<ByteBuffer> messages) {
+            this.messages = messages;
+        }
+
+        @Override
+        public CompletionStage<?> onBinary(WebSocket webSocket, ByteBuffer data, boolean last) {
+            byte[] bytes = new byte[data.remaining()];
+            data.get(bytes);
+            partial.writeBytes(bytes);
+            if (last) {
+                messages.add(ByteBuffer.wrap(partial.toByteArray()));
+                partial.reset();
+            }
+            webSocket.request(1);
+            return null;
+        }
+    }
+}
@@ -0,0 +1,91 @@
+import com.dungeoncode.cae.automa.ConfBilliardBallGas;
+import com.dungeoncode.cae.automa.rules.RuleMargolus;
+import com.dungeoncode.cae.core.Automaton;
+import com.dungeoncode.cae.core.Grid;
+import com.dungeoncode.cae.core.impl.BooleanCell;
+import com.dungeoncode.cae.core.impl.BooleanState;
+import com.dungeoncode.cae.core.impl.packed.PackedBooleanGrid;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MargolusTest {
+
+    @Test
+    void testSingleCellsMatchWholeGrid() {
+        for (boolean packed : new boolean[]{false, true}) {
+            for (RuleMargolus rule : new RuleMargolus[]{RuleMargolus.critters(), RuleMargolus.billiardBall()}) {
+                Grid<BooleanCell, BooleanState> grid = newSoup(131, 45, packed);
+                for (int generation = 0; generation < 10; generation++) {
+                    rule.applyToGrid(grid);
+                    boolean[] expected = new boolean[grid.getWidth() * grid.getHeight()];
+                    for (int y = 0; y < grid.getHeight(); y++) {
+                        for (int x = 0; x < grid.getWidth(); x++) {
+                            expected[y * grid.getWidth() + x] = grid.getNextState(x, y).getValue();
+                        }
+                    }
+                    for (int y = 0; y < grid.getHeight(); y++) {
+                        for (int x = 0; x < grid.getWidth(); x++) {
+                            assertEquals(expected[y * grid.getWidth() + x],
+                                    rule.apply(grid, grid.getCell(x, y)).getValue(), "Rule " + rule.getId()
+                                            + (packed ? " packed" : " heap") + " at " + x + "," + y
+                                            + ", generation " + generation);
+                        }
+                    }
+                    grid.commitNextStates(null);
+                }
+            }
+        }
+    }
+
+    @Test
+    void testPopulationIsConserved() {
+        for (boolean packed : new boolean[]{false, true}) {
+            Grid<BooleanCell, BooleanState> balls = newSoup(131, 45, packed);
+            Grid<BooleanCell, BooleanState> critters = newSoup(130, 46, packed);
+            RuleMargolus billiardBall = RuleMargolus.billiardBall();
+            RuleMargolus critter = RuleMargolus.critters();
+            long ballCount = population(balls);
+            long critterCount = population(critters);
+            assertTrue(ballCount > 0);
+            for (int generation = 0; generation < 50; generation++) {
+                billiardBall.applyToGrid(balls);
+                balls.commitNextStates(null);
+                critter.applyToGrid(critters);
+                critters.commitNextStates(null);
+                assertEquals(ballCount, population(balls), "Balls, generation " + generation);
+                assertEquals(critterCount, population(critters), "Critters, generation " + generation);
+            }
+        }
+    }
+
+    @Test
+    void testRejectsMalformedTables() {
+        assertThrows(IllegalArgumentException.class, () -> new RuleMargolus(99, new int[15]));
+        assertThrows(IllegalArgumentException.class,
+                () -> new RuleMargolus(99, new int[]{0, 1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12, 13, 14, 16}));
+    }
+
+    private static Grid<BooleanCell, BooleanState> newSoup(int width, int height, boolean packed) {
+        ConfBilliardBallGas configuration = new ConfBilliardBallGas(0.3);
+        if (packed) {
+            configuration.setGridFactory(PackedBooleanGrid::new);
+        }
+        configuration.getGridInitializer().reseed(11L);
+        Automaton<BooleanCell, BooleanState> automaton = new Automaton<>();
+        configuration.configure(automaton, width, height, 10);
+        return automaton.getGrid();
+    }
+
+    private static long population(Grid<BooleanCell, BooleanState> grid) {
+        long count = 0;
+        for (int y = 0; y < grid.getHeight(); y++) {
+            for (int x = 0; x < grid.getWidth(); x++) {
+                if (grid.getCell(x, y).getState().getValue()) {
+                    count++;
+                }
+            }
+        }
+        return count;
+    }
+}
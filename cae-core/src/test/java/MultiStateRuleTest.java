@@ -0,0 +1,200 @@
+import com.dungeoncode.cae.automa.ConfGameOfLife;
+import com.dungeoncode.cae.core.Automaton;
+import com.dungeoncode.cae.core.Grid;
+import com.dungeoncode.cae.core.impl.BooleanCell;
+import com.dungeoncode.cae.core.impl.BooleanState;
+import com.dungeoncode.cae.core.impl.multi.MultiStateCell;
+import com.dungeoncode.cae.core.impl.multi.MultiStateGrid;
+import com.dungeoncode.cae.core.impl.multi.MultiStateRule;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MultiStateRuleTest {
+
+    private static final int READY = 0;
+    private static final int FIRING = 1;
+    private static final int REFRACTORY = 2;
+
+    private static final int EMPTY = 0;
+    private static final int HEAD = 1;
+    private static final int TAIL = 2;
+    private static final int CONDUCTOR = 3;
+
+    /**
+     * A Wireworld diode: electrons pass from left to right through the gap in the wire and are stopped from right to
+     * left by the bulge around it.
+     */
+    private static final String[] DIODE = {
+            "              ",
+            "     ##       ",
+            " ##### ###### ",
+            "     ##       ",
+            "              "
+    };
+
+    @Test
+    void testBriansBrainFiresRestsAndRecovers() {
+        MultiStateRule rule = MultiStateRule.briansBrain(1);
+        MultiStateGrid grid = new MultiStateGrid(12, 12, 3, null);
+        grid.set(5, 5, FIRING);
+        grid.set(6, 5, FIRING);
+
+        step(rule, grid);
+        assertEquals(REFRACTORY, grid.get(5, 5));
+        assertEquals(REFRACTORY, grid.get(6, 5));
+        for (int x = 5; x <= 6; x++) {
+            assertEquals(FIRING, grid.get(x, 4), "Two firing neighbors fire a ready cell");
+            assertEquals(FIRING, grid.get(x, 6), "Two firing neighbors fire a ready cell");
+        }
+        assertEquals(READY, grid.get(4, 5), "One firing neighbor does not fire a ready cell");
+        assertEquals(READY, grid.get(4, 4), "One firing neighbor does not fire a ready cell");
+        assertEquals(6, count(grid, FIRING) + count(grid, REFRACTORY));
+
+        step(rule, grid);
+        assertEquals(READY, grid.get(5, 5));
+        assertEquals(READY, grid.get(6, 5));
+        assertEquals(REFRACTORY, grid.get(5, 4));
+        assertEquals(REFRACTORY, grid.get(6, 6));
+
+        MultiStateGrid lone = new MultiStateGrid(8, 8, 3, null);
+        lone.set(3, 3, FIRING);
+        step(rule, lone);
+        assertEquals(REFRACTORY, lone.get(3, 3));
+        assertEquals(1, count(lone, REFRACTORY));
+        assertEquals(0, count(lone, FIRING));
+        step(rule, lone);
+        assertEquals(0, count(lone, FIRING) + count(lone, REFRACTORY));
+    }
+
+    @Test
+    void testWireworldDiodeConductsOneWay() {
+        MultiStateRule rule = MultiStateRule.wireworld(1);
+
+        MultiStateGrid forward = wire(DIODE);
+        forward.set(2, 2, HEAD);
+        forward.set(1, 2, TAIL);
+        assertEquals(10, arrival(rule, forward, 12, 2, 30));
+
+        MultiStateGrid backward = wire(DIODE);
+        backward.set(11, 2, HEAD);
+        backward.set(12, 2, TAIL);
+        assertEquals(-1, arrival(rule, backward, 1, 2, 30));
+        assertEquals(0, count(backward, HEAD), "The blocked electron dies out");
+    }
+
+    @Test
+    void testGenerationsWithTwoStatesMatchesLifeLike() {
+        ConfGameOfLife configuration = new ConfGameOfLife();
+        configuration.getGridInitializer().reseed(11L);
+        Automaton<BooleanCell, BooleanState> life = new Automaton<>();
+        configuration.configure(life, 70, 45, 10);
+        Grid<BooleanCell, BooleanState> lifeGrid = life.getGrid();
+
+        MultiStateRule rule = MultiStateRule.generations(1, "b3/s23/c2");
+        MultiStateGrid grid = new MultiStateGrid(70, 45, 2, null);
+        for (int y = 0; y < grid.getHeight(); y++) {
+            for (int x = 0; x < grid.getWidth(); x++) {
+                grid.set(x, y, lifeGrid.getCell(x, y).getState().getValue() ? 1 : 0);
+            }
+        }
+        for (int generation = 1; generation <= 30; generation++) {
+            life.step();
+            step(rule, grid);
+            for (int y = 0; y < grid.getHeight(); y++) {
+                for (int x = 0; x < grid.getWidth(); x++) {
+                    assertEquals(lifeGrid.getCell(x, y).getState().getValue() ? 1 : 0, grid.get(x, y),
+                            "Generation " + generation + ", cell " + x + "," + y);
+                }
+            }
+        }
+    }
+
+    @Test
+    void testApplyToGridMatchesApply() {
+        MultiStateRule[] rules = {
+                MultiStateRule.briansBrain(1),
+                MultiStateRule.generations(2, "B2/S345/C5"),
+                MultiStateRule.cyclic(3, 14, 1, MultiStateRule.Neighborhood.VON_NEUMANN),
+                MultiStateRule.greenbergHastings(4, 8, 2, MultiStateRule.Neighborhood.MOORE),
+                MultiStateRule.wireworld(5)
+        };
+        Random random = new Random(7);
+        for (MultiStateRule rule : rules) {
+            for (boolean parallel : new boolean[]{false, true}) {
+                rule.setParallel(parallel);
+                int width = 97;
+                int height = 131;
+                MultiStateGrid whole = new MultiStateGrid(width, height, rule.getStateCount(), null);
+                MultiStateGrid cells = new MultiStateGrid(width, height, rule.getStateCount(), null);
+                for (int y = 0; y < height; y++) {
+                    for (int x = 0; x < width; x++) {
+                        int state = random.nextInt(rule.getStateCount());
+                        whole.set(x, y, state);
+                        cells.set(x, y, state);
+                    }
+                }
+                for (int generation = 1; generation <= 3; generation++) {
+                    rule.applyToGrid(whole);
+                    for (int y = 0; y < height; y++) {
+                        for (int x = 0; x < width; x++) {
+                            MultiStateCell cell = cells.getCell(x, y);
+                            assertEquals(rule.apply(cells, cell), whole.getNextState(x, y),
+                                    "Rule " + rule.getId() + (parallel ? " in parallel" : "") + ", generation "
+                                            + generation + ", cell " + x + "," + y);
+                        }
+                    }
+                    whole.commitNextStates(null);
+                    cells.commitNextStates(null);
+                }
+            }
+        }
+    }
+
+    private static void step(MultiStateRule rule, MultiStateGrid grid) {
+        rule.applyToGrid(grid);
+        grid.commitNextStates(null);
+    }
+
+    /**
+     * Builds a Wireworld grid with a conductor for every {@code #} of the rows.
+     */
+    private static MultiStateGrid wire(String[] rows) {
+        MultiStateGrid grid = new MultiStateGrid(rows[0].length(), rows.length, 4, null);
+        for (int y = 0; y < rows.length; y++) {
+            for (int x = 0; x < rows[y].length(); x++) {
+                grid.set(x, y, rows[y].charAt(x) == '#' ? CONDUCTOR : EMPTY);
+            }
+        }
+        return grid;
+    }
+
+    /**
+     * Steps a grid until the given cell holds an electron head.
+     *
+     * @return the number of steps taken, or -1 if no head arrived within the limit
+     */
+    private static int arrival(MultiStateRule rule, MultiStateGrid grid, int x, int y, int limit) {
+        for (int i = 1; i <= limit; i++) {
+            step(rule, grid);
+            if (grid.get(x, y) == HEAD) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static int count(MultiStateGrid grid, int state) {
+        int count = 0;
+        for (int y = 0; y < grid.getHeight(); y++) {
+            for (int x = 0; x < grid.getWidth(); x++) {
+                if (grid.get(x, y) == state) {
+                    count++;
+                }
+            }
+        }
+        return count;
+    }
+}
@@ -0,0 +1,151 @@
+import com.dungeoncode.cae.automa.ConfGameOfLife;
+import com.dungeoncode.cae.automa.Configurations;
+import com.dungeoncode.cae.core.AbstractConfiguration;
+import com.dungeoncode.cae.core.Automaton;
+import com.dungeoncode.cae.core.ChangeSet;
+import com.dungeoncode.cae.core.Configuration;
+import com.dungeoncode.cae.core.Grid;
+import com.dungeoncode.cae.core.Repository;
+import com.dungeoncode.cae.core.impl.BooleanCell;
+import com.dungeoncode.cae.core.impl.BooleanState;
+import com.dungeoncode.cae.core.impl.packed.PackedBooleanGrid;
+import com.sun.management.ThreadMXBean;
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PackedBooleanGridTest {
+
+    private static final int WIDTH = 130;
+    private static final int HEIGHT = 50;
+
+    @Test
+    void testMatchesHeapGridWithChangeTracking() {
+        Automaton<BooleanCell, BooleanState> heap = new Automaton<>();
+        new ConfGameOfLife().configure(heap, WIDTH, HEIGHT, 10);
+        ConfGameOfLife packedConfiguration = new ConfGameOfLife();
+        packedConfiguration.setGridFactory(PackedBooleanGrid::new);
+        Automaton<BooleanCell, BooleanState> packed = new Automaton<>();
+        packedConfiguration.configure(packed, WIDTH, HEIGHT, 10);
+        assertInstanceOf(PackedBooleanGrid.class, packed.getGrid());
+        for (int y = 0; y < HEIGHT; y++) {
+            for (int x = 0; x < WIDTH; x++) {
+                packed.getGrid().setCell(x, y, heap.getGrid().getCell(x, y));
+            }
+        }
+
+        List<ChangeSet> heapChanges = new ArrayList<>();
+        List<ChangeSet> packedChanges = new ArrayList<>();
+        heap.setChangeTracking(s -> s.getValue() ? 1 : 0);
+        packed.setChangeTracking(s -> s.getValue() ? 1 : 0);
+        heap.addChangeListener(changes -> heapChanges.add(changes.copy()));
+        packed.addChangeListener(changes -> packedChanges.add(changes.copy()));
+
+        for (int i = 0; i < 30; i++) {
+            heap.step();
+            packed.step();
+            assertGridsEqual(heap.getGrid(), packed.getGrid(), "Game of Life");
+        }
+        assertEquals(heapChanges.size(), packedChanges.size());
+        for (int i = 1; i < heapChanges.size(); i++) {
+            ChangeSet expected = heapChanges.get(i);
+            ChangeSet actual = packedChanges.get(i);
+            assertEquals(expected.getChangedCount(), actual.getChangedCount(), "Generation " + i);
+            for (int y = 0; y < HEIGHT; y++) {
+                for (int w = 0; w < expected.getWordsPerRow(); w++) {
+                    assertEquals(expected.getWord(w, y), actual.getWord(w, y), "Generation " + i + ", row " + y);
+                }
+            }
+        }
+    }
+
+    @Test
+    void testBundledConfigurationsMatchOnBothBackends() {
+        List<Configuration<BooleanCell, BooleanState>> heapConfigurations =
+                Configurations.createRepository().getConfigurations();
+        Repository<BooleanCell, BooleanState> packedRepository = Configurations.createRepository();
+        for (int i = 0; i < heapConfigurations.size(); i++) {
+            Configuration<BooleanCell, BooleanState> heapConfiguration = heapConfigurations.get(i);
+            Configuration<BooleanCell, BooleanState> packedConfiguration = packedRepository.getConfigurations().get(i);
+            ((AbstractConfiguration<BooleanCell, BooleanState>) packedConfiguration)
+                    .setGridFactory(PackedBooleanGrid::new);
+            Automaton<BooleanCell, BooleanState> heap = newAutomaton(heapConfiguration, 42L);
+            Automaton<BooleanCell, BooleanState> packed = newAutomaton(packedConfiguration, 42L);
+            assertInstanceOf(PackedBooleanGrid.class, packed.getGrid());
+            String name = "Configuration " + heapConfiguration.getId();
+            assertGridsEqual(heap.getGrid(), packed.getGrid(), name);
+            for (int generation = 1; generation <= 20; generation++) {
+                heap.step();
+                packed.step();
+                assertGridsEqual(heap.getGrid(), packed.getGrid(), name + ", generation " + generation);
+            }
+        }
+    }
+
+    @Test
+    void testCellViewsAreReusedWithoutAllocation() {
+        PackedBooleanGrid grid = new PackedBooleanGrid(WIDTH, HEIGHT, null);
+        grid.getCell(3, 4).getState().set(true, false, 2, 5);
+        BooleanCell held = grid.getCell(3, 4);
+        for (int i = 1; i < PackedBooleanGrid.VIEWS_PER_THREAD; i++) {
+            BooleanCell other = grid.getCell(i % WIDTH, i / WIDTH);
+            assertNotSame(held, other);
+            assertEquals(i % WIDTH, other.getPosition().getX());
+        }
+        assertEquals(3, held.getPosition().getX());
+        assertEquals(4, held.getPosition().getY());
+        assertTrue(held.getState().getValue());
+        assertEquals(5, held.getState().getId());
+        assertSame(held, grid.getCell(0, 0));
+        assertEquals(0, held.getPosition().getX());
+
+        ThreadMXBean threads = (ThreadMXBean) ManagementFactory.getThreadMXBean();
+        ConfGameOfLife configuration = new ConfGameOfLife();
+        configuration.setGridFactory(PackedBooleanGrid::new);
+        Automaton<BooleanCell, BooleanState> automaton = new Automaton<>();
+        configuration.configure(automaton, 256, 256, 10);
+        automaton.step();
+        long before = threads.getCurrentThreadAllocatedBytes();
+        for (int i = 0; i < 5; i++) {
+            automaton.step();
+        }
+        long allocated = threads.getCurrentThreadAllocatedBytes() - before;
+        assertTrue(allocated < 256 * 256, "Allocated " + allocated + " bytes over 5 generations of 65536 cells");
+    }
+
+    @Test
+    void testNextStatesAreNotArrays() {
+        PackedBooleanGrid grid = new PackedBooleanGrid(8, 8, null);
+        assertFalse(grid.supportsNextStateArray());
+        assertThrows(UnsupportedOperationException.class, grid::getNextStates);
+        assertNotNull(grid.getNextState(0, 0));
+    }
+
+    private static Automaton<BooleanCell, BooleanState> newAutomaton(
+            Configuration<BooleanCell, BooleanState> configuration, long seed) {
+        Automaton<BooleanCell, BooleanState> automaton = new Automaton<>();
+        automaton.setSeed(seed);
+        if (configuration.getGridInitializer() != null) {
+            configuration.getGridInitializer().reseed(Automaton.deriveInitializerSeed(seed));
+        }
+        configuration.configure(automaton, WIDTH, HEIGHT, 10);
+        return automaton;
+    }
+
+    private static void assertGridsEqual(Grid<BooleanCell, BooleanState> expected,
+                                         Grid<BooleanCell, BooleanState> actual, String message) {
+        for (int y = 0; y < HEIGHT; y++) {
+            for (int x = 0; x < WIDTH; x++) {
+                BooleanState e = expected.getCell(x, y).getState();
+                BooleanState a = actual.getCell(x, y).getState();
+                assertEquals(e.getValue(), a.getValue(), message + ": value at " + x + "," + y);
+                assertEquals(e.isEcho(), a.isEcho(), message + ": echo at " + x + "," + y);
+                assertEquals(e.getId(), a.getId(), message + ": id at " + x + "," + y);
+            }
+        }
+    }
+}
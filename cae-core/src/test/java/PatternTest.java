@@ -0,0 +1,180 @@
+import com.dungeoncode.cae.automa.ConfGameOfLife;
+import com.dungeoncode.cae.core.Automaton;
+import com.dungeoncode.cae.core.Grid;
+import com.dungeoncode.cae.core.impl.BooleanCell;
+import com.dungeoncode.cae.core.impl.BooleanState;
+import com.dungeoncode.cae.core.impl.packed.PackedBooleanGrid;
+import com.dungeoncode.cae.core.io.Pattern;
+import com.dungeoncode.cae.core.io.PatternFormat;
+import com.dungeoncode.cae.core.io.PatternLibrary;
+import com.dungeoncode.cae.core.io.PatternReader;
+import com.dungeoncode.cae.core.io.PatternWriter;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PatternTest {
+
+    private static final int WIDTH = 150;
+    private static final int HEIGHT = 40;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void testRleRoundTrip() throws IOException {
+        Grid<BooleanCell, BooleanState> source = newSoup(WIDTH, HEIGHT, false);
+        StringWriter out = new StringWriter();
+        PatternWriter.writeRle(source, out, "soup", "B3/S23");
+
+        Pattern pattern = PatternReader.readPattern(new StringReader(out.toString()), PatternFormat.RLE, "unnamed");
+        assertEquals("soup", pattern.getName());
+        assertEquals(population(source), pattern.getPopulation());
+        int[] box = boundingBox(source);
+        assertEquals(box[2] - box[0] + 1, pattern.getWidth());
+        assertEquals(box[3] - box[1] + 1, pattern.getHeight());
+
+        Grid<BooleanCell, BooleanState> target = newBlank(WIDTH, HEIGHT, false);
+        pattern.stamp(target, box[0], box[1], true);
+        assertSameValues(source, target);
+    }
+
+    @Test
+    void testLife106RoundTrip() throws IOException {
+        Grid<BooleanCell, BooleanState> source = newSoup(WIDTH, HEIGHT, false);
+        Path file = directory.resolve("soup.lif");
+        PatternWriter.write(file, source, "soup");
+
+        Grid<BooleanCell, BooleanState> target = newBlank(WIDTH, HEIGHT, false);
+        assertEquals("soup", PatternReader.read(file, target));
+        assertSameValues(source, target);
+
+        Pattern pattern = new PatternLibrary().load(file);
+        assertEquals(population(source), pattern.getPopulation());
+        int[] box = boundingBox(source);
+        Grid<BooleanCell, BooleanState> stamped = newBlank(WIDTH, HEIGHT, false);
+        pattern.stamp(stamped, box[0], box[1], false);
+        assertSameValues(source, stamped);
+    }
+
+    @Test
+    void testPackedStampMatchesHeapStamp() throws IOException {
+        StringWriter out = new StringWriter();
+        PatternWriter.writeRle(newSoup(WIDTH, HEIGHT, false), out, null, null);
+        Pattern wide = PatternReader.readPattern(new StringReader(out.toString()), PatternFormat.RLE, "wide");
+        assertTrue(wide.getWidth() > 64);
+        Pattern gun = PatternLibrary.getDefault().get("gosper-glider-gun");
+
+        for (Pattern pattern : new Pattern[]{wide, gun}) {
+            for (int[] size : new int[][]{{WIDTH, HEIGHT}, {50, 30}, {200, 7}}) {
+                for (boolean clear : new boolean[]{false, true}) {
+                    for (int[] origin : new int[][]{{0, 0}, {size[0] - 20, -3}, {-70, size[1] - 1}, {13, 5}}) {
+                        Grid<BooleanCell, BooleanState> heap = newSoup(size[0], size[1], false);
+                        Grid<BooleanCell, BooleanState> packed = newSoup(size[0], size[1], true);
+                        pattern.stamp(heap, origin[0], origin[1], clear);
+                        pattern.stamp(packed, origin[0], origin[1], clear);
+                        String context = pattern.getName() + " into " + size[0] + "x" + size[1] + " at "
+                                + origin[0] + "," + origin[1] + (clear ? " clearing" : "");
+                        for (int y = 0; y < size[1]; y++) {
+                            for (int x = 0; x < size[0]; x++) {
+                                BooleanState expected = heap.getCell(x, y).getState();
+                                BooleanState actual = packed.getCell(x, y).getState();
+                                String cell = context + ", cell " + x + "," + y;
+                                assertEquals(expected.getValue(), actual.getValue(), cell);
+                                assertEquals(expected.isEcho(), actual.isEcho(), cell);
+                                assertEquals(expected.getLiveSum(), actual.getLiveSum(), cell);
+                                assertEquals(expected.getId(), actual.getId(), cell);
+                            }
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    void testLibraryReplacesEditedFile() throws IOException {
+        PatternLibrary library = new PatternLibrary();
+        Path file = directory.resolve("block.rle");
+        Files.writeString(file, "x = 2, y = 2\n2o$2o!\n");
+        Pattern block = library.load(file);
+        assertSame(block, library.load(file));
+        assertEquals(4, block.getPopulation());
+
+        Files.writeString(file, "x = 3, y = 1\n3o!\n");
+        Files.setLastModifiedTime(file, FileTime.fromMillis(Files.getLastModifiedTime(file).toMillis() + 10_000));
+        Pattern blinker = library.load(file);
+        assertEquals(3, blinker.getPopulation());
+        assertSame(blinker, library.load(file));
+        assertEquals(1, library.size());
+    }
+
+    private static Grid<BooleanCell, BooleanState> newSoup(int width, int height, boolean packed) {
+        ConfGameOfLife configuration = new ConfGameOfLife();
+        if (packed) {
+            configuration.setGridFactory(PackedBooleanGrid::new);
+        }
+        configuration.getGridInitializer().reseed(5L);
+        Automaton<BooleanCell, BooleanState> automaton = new Automaton<>();
+        configuration.configure(automaton, width, height, 10);
+        return automaton.getGrid();
+    }
+
+    private static Grid<BooleanCell, BooleanState> newBlank(int width, int height, boolean packed) {
+        Grid<BooleanCell, BooleanState> grid = newSoup(width, height, packed);
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                grid.getCell(x, y).setState(false, false, 0);
+            }
+        }
+        return grid;
+    }
+
+    private static long population(Grid<BooleanCell, BooleanState> grid) {
+        long count = 0;
+        for (int y = 0; y < grid.getHeight(); y++) {
+            for (int x = 0; x < grid.getWidth(); x++) {
+                if (grid.getCell(x, y).getState().getValue()) {
+                    count++;
+                }
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Returns the bounding box of the live cells as {min x, min y, max x, max y}.
+     */
+    private static int[] boundingBox(Grid<BooleanCell, BooleanState> grid) {
+        int[] box = {Integer.MAX_VALUE, Integer.MAX_VALUE, -1, -1};
+        for (int y = 0; y < grid.getHeight(); y++) {
+            for (int x = 0; x < grid.getWidth(); x++) {
+                if (grid.getCell(x, y).getState().getValue()) {
+                    box[0] = Math.min(box[0], x);
+                    box[1] = Math.min(box[1], y);
+                    box[2] = Math.max(box[2], x);
+                    box[3] = Math.max(box[3], y);
+                }
+            }
+        }
+        return box;
+    }
+
+    private static void assertSameValues(Grid<BooleanCell, BooleanState> expected,
+                                         Grid<BooleanCell, BooleanState> actual) {
+        for (int y = 0; y < expected.getHeight(); y++) {
+            for (int x = 0; x < expected.getWidth(); x++) {
+                assertEquals(expected.getCell(x, y).getState().getValue(), actual.getCell(x, y).getState().getValue(),
+                        "Cell " + x + "," + y);
+            }
+        }
+    }
+}
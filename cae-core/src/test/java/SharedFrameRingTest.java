@@ -0,0 +1,123 @@
+import com.dungeoncode.cae.automa.ConfGeneticDrift;
+import com.dungeoncode.cae.core.Automaton;
+import com.dungeoncode.cae.core.Grid;
+import com.dungeoncode.cae.core.impl.BooleanCell;
+import com.dungeoncode.cae.core.impl.BooleanState;
+import com.dungeoncode.cae.core.impl.packed.OffHeapPlane;
+import com.dungeoncode.cae.core.impl.packed.PackedBooleanGrid;
+import com.dungeoncode.cae.core.io.SharedFrameReader;
+import com.dungeoncode.cae.core.io.SharedFrameRing;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SharedFrameRingTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void testReaderCopiesPublishedFrame() throws IOException {
+        int width = 70;
+        int height = 20;
+        Automaton<BooleanCell, BooleanState> automaton = new Automaton<>();
+        new ConfGeneticDrift().configure(automaton, width, height, 10);
+        automaton.step();
+        Grid<BooleanCell, BooleanState> grid = automaton.getGrid();
+        Path file = directory.resolve("frames");
+
+        try (SharedFrameRing ring = new SharedFrameRing(file, width, height)) {
+            SharedFrameReader reader = new SharedFrameReader(file);
+            long[] values = new long[reader.getWordsPerRow() * height];
+            long[] echoes = new long[values.length];
+            byte[] ids = new byte[width * height];
+            assertFalse(reader.readLatest(values, echoes, ids));
+
+            assertTrue(ring.publish(grid, 42));
+            assertTrue(reader.readLatest(values, echoes, ids));
+            assertEquals(42, reader.getGeneration());
+            long population = 0;
+            for (int y = 0; y < height; y++) {
+                for (int x = 0; x < width; x++) {
+                    BooleanState state = grid.getCell(x, y).getState();
+                    int word = y * reader.getWordsPerRow() + x / 64;
+                    assertEquals(state.getValue(), (values[word] >>> x & 1) != 0, "Value at " + x + "," + y);
+                    assertEquals(state.isEcho(), (echoes[word] >>> x & 1) != 0, "Echo at " + x + "," + y);
+                    assertEquals(state.getId(), ids[y * width + x] & 0xFF, "Id at " + x + "," + y);
+                    population += state.getValue() ? 1 : 0;
+                }
+            }
+            assertEquals(population, reader.getPopulation());
+
+            Automaton<BooleanCell, BooleanState> other = new Automaton<>();
+            new ConfGeneticDrift().configure(other, width + 1, height, 10);
+            assertFalse(ring.publish(other.getGrid(), 43));
+            assertEquals(1, ring.getSkippedCount());
+            assertFalse(reader.isWriterClosed());
+            ring.close();
+            assertTrue(reader.isWriterClosed());
+        }
+    }
+
+    @Test
+    void testReaderNeverSeesTornFrames() throws Exception {
+        // Two slots and a fast writer, so that the writer keeps lapping the reader
+        int width = 256;
+        int height = 64;
+        int wordsPerRow = width / 64;
+        long frames = 20_000;
+        Path file = directory.resolve("frames");
+        PackedBooleanGrid grid = new PackedBooleanGrid(width, height, null);
+        OffHeapPlane plane = grid.getValuePlane();
+
+        try (SharedFrameRing ring = new SharedFrameRing(file, width, height, 2, false)) {
+            SharedFrameReader reader = new SharedFrameReader(file);
+            AtomicReference<Throwable> failure = new AtomicReference<>();
+            Thread writer = new Thread(() -> {
+                try {
+                    for (long generation = 0; generation < frames; generation++) {
+                        for (int y = 0; y < height; y++) {
+                            for (int w = 0; w < wordsPerRow; w++) {
+                                plane.setWord(w, y, pattern(generation, y * wordsPerRow + w));
+                            }
+                        }
+                        ring.publish(grid, generation);
+                    }
+                } catch (Throwable t) {
+                    failure.set(t);
+                }
+            });
+            writer.start();
+
+            long[] values = new long[wordsPerRow * height];
+            long reads = 0;
+            while (writer.isAlive() || reads == 0) {
+                if (reader.readLatest(values, null, null)) {
+                    reads++;
+                    long generation = reader.getGeneration();
+                    for (int i = 0; i < values.length; i++) {
+                        assertEquals(pattern(generation, i), values[i], "Word " + i + " of generation " + generation);
+                    }
+                }
+            }
+            writer.join();
+            assertNull(failure.get());
+            assertTrue(reads > 0);
+            assertEquals(frames, ring.getFrameCount());
+        }
+    }
+
+    /**
+     * Returns a word that differs between generations and between words of one generation.
+     */
+    private static long pattern(long generation, int word) {
+        long z = generation * 0x9E3779B97F4A7C15L + word;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        return z ^ (z >>> 31);
+    }
+}
@@ -0,0 +1,165 @@
+import com.dungeoncode.cae.automa.ConfGeneticDrift;
+import com.dungeoncode.cae.automa.ConfRandomAnneal;
+import com.dungeoncode.cae.core.Automaton;
+import com.dungeoncode.cae.core.Grid;
+import com.dungeoncode.cae.core.impl.BooleanCell;
+import com.dungeoncode.cae.core.impl.BooleanState;
+import com.dungeoncode.cae.core.impl.packed.PackedBooleanGrid;
+import com.dungeoncode.cae.core.io.Snapshot;
+import com.dungeoncode.cae.core.io.SnapshotHeader;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SnapshotTest {
+
+    private static final int WIDTH = 130;
+    private static final int HEIGHT = 40;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void testRoundTripRestoresEveryPlane() throws IOException {
+        Automaton<BooleanCell, BooleanState> automaton = new Automaton<>();
+        automaton.setSeed(5L);
+        new ConfGeneticDrift().configure(automaton, WIDTH, HEIGHT, 10);
+        for (int i = 0; i < 7; i++) {
+            automaton.step();
+        }
+        Path file = directory.resolve("drift.snap");
+        SnapshotHeader saved = Snapshot.save(file, 24, automaton);
+        assertEquals(saved, Snapshot.readHeader(file));
+        assertEquals(24, saved.configurationId());
+        assertEquals(7, saved.generation());
+        assertEquals(5L, saved.seed());
+
+        Grid<BooleanCell, BooleanState> heap = newDriftGrid(false);
+        assertEquals(saved, Snapshot.read(file, heap));
+        assertStatesEqual(automaton.getGrid(), heap);
+
+        Grid<BooleanCell, BooleanState> packed = newDriftGrid(true);
+        assertInstanceOf(PackedBooleanGrid.class, packed);
+        Snapshot.read(file, packed);
+        assertStatesEqual(automaton.getGrid(), packed);
+
+        ByteBuffer image = Snapshot.encode(saved, automaton.getGrid());
+        assertEquals(Snapshot.sizeOf(saved), image.remaining());
+        Grid<BooleanCell, BooleanState> decoded = newDriftGrid(false);
+        assertEquals(saved, Snapshot.decode(image, decoded));
+        assertStatesEqual(automaton.getGrid(), decoded);
+    }
+
+    @Test
+    void testPackedGridWritesSameFileAsHeapGrid() throws IOException {
+        Path heapFile = directory.resolve("heap.snap");
+        Path packedFile = directory.resolve("packed.snap");
+        Automaton<BooleanCell, BooleanState> heap = newDriftRun(false);
+        Automaton<BooleanCell, BooleanState> packed = newDriftRun(true);
+        Snapshot.save(heapFile, 24, heap);
+        Snapshot.save(packedFile, 24, packed);
+        assertArrayEquals(Files.readAllBytes(heapFile), Files.readAllBytes(packedFile));
+        assertEquals(Snapshot.encode(Snapshot.headerOf(24, heap), heap.getGrid()),
+                Snapshot.encode(Snapshot.headerOf(24, packed), packed.getGrid()));
+
+        PackedBooleanGrid lean = new PackedBooleanGrid(WIDTH, HEIGHT, null, false, false);
+        Snapshot.read(packedFile, lean);
+        for (int y = 0; y < HEIGHT; y++) {
+            for (int x = 0; x < WIDTH; x++) {
+                BooleanState state = heap.getGrid().getCell(x, y).getState();
+                assertEquals(state.getValue(), lean.getCell(x, y).getState().getValue());
+                assertEquals(state.isEcho(), lean.getCell(x, y).getState().isEcho());
+            }
+        }
+    }
+
+    @Test
+    void testRestoredRunContinuesIdentically() throws IOException {
+        Automaton<BooleanCell, BooleanState> original = new Automaton<>();
+        original.setSeed(9L);
+        new ConfRandomAnneal().configure(original, WIDTH, HEIGHT, 10);
+        for (int i = 0; i < 5; i++) {
+            original.step();
+        }
+        Path file = directory.resolve("anneal.snap");
+        Snapshot.save(file, 19, original);
+
+        Automaton<BooleanCell, BooleanState> restored = new Automaton<>();
+        new ConfRandomAnneal().configure(restored, WIDTH, HEIGHT, 10);
+        Snapshot.restore(file, restored);
+        assertEquals(original.getSeed(), restored.getSeed());
+        assertEquals(original.getGeneration(), restored.getGeneration());
+        for (int i = 0; i < 5; i++) {
+            original.step();
+            restored.step();
+            assertStatesEqual(original.getGrid(), restored.getGrid());
+        }
+    }
+
+    @Test
+    void testRejectsForeignFilesAndMismatchedGrids() throws IOException {
+        Path foreign = directory.resolve("foreign.snap");
+        Files.write(foreign, new byte[4096]);
+        assertThrows(IOException.class, () -> Snapshot.readHeader(foreign));
+
+        Automaton<BooleanCell, BooleanState> automaton = new Automaton<>();
+        new ConfGeneticDrift().configure(automaton, WIDTH, HEIGHT, 10);
+        Path file = directory.resolve("drift.snap");
+        Snapshot.save(file, 24, automaton);
+        Automaton<BooleanCell, BooleanState> taller = new Automaton<>();
+        new ConfGeneticDrift().configure(taller, WIDTH, HEIGHT + 1, 10);
+        assertThrows(IllegalArgumentException.class, () -> Snapshot.read(file, taller.getGrid()));
+
+        Automaton<BooleanCell, BooleanState> anneal = new Automaton<>();
+        new ConfRandomAnneal().configure(anneal, WIDTH, HEIGHT, 10);
+        anneal.setSeed(3L);
+        assertThrows(IllegalArgumentException.class, () -> Snapshot.restore(file, anneal));
+        assertEquals(3L, anneal.getSeed());
+    }
+
+    private static Automaton<BooleanCell, BooleanState> newDriftRun(boolean packed) {
+        ConfGeneticDrift configuration = new ConfGeneticDrift();
+        if (packed) {
+            configuration.setGridFactory(PackedBooleanGrid::new);
+        }
+        configuration.getGridInitializer().reseed(Automaton.deriveInitializerSeed(4L));
+        Automaton<BooleanCell, BooleanState> automaton = new Automaton<>();
+        automaton.setSeed(4L);
+        configuration.configure(automaton, WIDTH, HEIGHT, 10);
+        for (int i = 0; i < 6; i++) {
+            automaton.step();
+        }
+        return automaton;
+    }
+
+    private static Grid<BooleanCell, BooleanState> newDriftGrid(boolean packed) {
+        ConfGeneticDrift configuration = new ConfGeneticDrift();
+        if (packed) {
+            configuration.setGridFactory(PackedBooleanGrid::new);
+        }
+        Automaton<BooleanCell, BooleanState> automaton = new Automaton<>();
+        automaton.setSeed(77L);
+        configuration.configure(automaton, WIDTH, HEIGHT, 10);
+        return automaton.getGrid();
+    }
+
+    private static void assertStatesEqual(Grid<BooleanCell, BooleanState> expected,
+                                          Grid<BooleanCell, BooleanState> actual) {
+        for (int y = 0; y < expected.getHeight(); y++) {
+            for (int x = 0; x < expected.getWidth(); x++) {
+                BooleanState e = expected.getCell(x, y).getState();
+                BooleanState a = actual.getCell(x, y).getState();
+                assertEquals(e.getValue(), a.getValue(), "Value at " + x + "," + y);
+                assertEquals(e.isEcho(), a.isEcho(), "Echo at " + x + "," + y);
+                assertEquals(e.getLiveSum(), a.getLiveSum(), "Live sum at " + x + "," + y);
+                assertEquals(e.getId(), a.getId(), "Id at " + x + "," + y);
+            }
+        }
+    }
+}
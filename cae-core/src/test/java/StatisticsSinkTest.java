@@ -0,0 +1,98 @@
+import com.dungeoncode.cae.core.impl.BooleanStatistics;
+import com.dungeoncode.cae.core.io.StatisticsSeries;
+import com.dungeoncode.cae.core.io.StatisticsSink;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class StatisticsSinkTest {
+
+    private static final int LIVE_SUM_BINS = 4;
+    private static final int SPECIES_SLOTS = 2;
+    private static final int RECORD_BYTES = (3 + LIVE_SUM_BINS + SPECIES_SLOTS) * Long.BYTES;
+    private static final int HEADER_BYTES = 32;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void testRotatedFilesReadBackThroughSeries() throws IOException {
+        int perFile = 5;
+        int records = 23;
+        StatisticsSink sink = new StatisticsSink(directory, "run", StatisticsSink.Format.BINARY, LIVE_SUM_BINS,
+                SPECIES_SLOTS, 64, HEADER_BYTES + (long) perFile * RECORD_BYTES);
+        for (int i = 0; i < records; i++) {
+            sink.accept(record(i));
+        }
+        sink.close();
+        assertEquals(records, sink.getRecordCount());
+        assertEquals(0, sink.getDroppedCount());
+
+        List<Path> files = StatisticsSeries.list(directory, "run");
+        assertEquals(5, files.size());
+        assertEquals(5, sink.getFileCount());
+        assertEquals(sink.getFile(0), files.get(0));
+        int generation = 0;
+        for (int f = 0; f < files.size(); f++) {
+            assertTrue(Files.size(files.get(f)) <= HEADER_BYTES + perFile * RECORD_BYTES);
+            StatisticsSeries series = StatisticsSeries.open(files.get(f));
+            assertEquals(f < 4 ? perFile : 3, series.size());
+            assertEquals(10, series.getWidth());
+            assertEquals(20, series.getHeight());
+            assertEquals(LIVE_SUM_BINS, series.getLiveSumBins());
+            assertEquals(SPECIES_SLOTS, series.getSpeciesSlots());
+            double[] densities = series.getDensities();
+            for (int r = 0; r < series.size(); r++, generation++) {
+                assertEquals(generation, series.getGeneration(r));
+                assertEquals(generation, series.getPopulation(r));
+                assertEquals(generation / 200.0, series.getDensity(r));
+                assertEquals(generation / 200.0, densities[r]);
+                assertEquals(generation, series.getLiveSumCount(r, 0));
+                assertEquals(1, series.getLiveSumCount(r, 1));
+                assertEquals(2, series.getLiveSumCount(r, 2));
+                assertEquals(3 + 4 + 5 + 6 + 7 + 8, series.getLiveSumCount(r, 3), "Bins beyond the last are folded");
+                assertEquals(7, series.getSpeciesCount(r, 0));
+                assertEquals(generation + 2 + 3, series.getSpeciesCount(r, 1), "Slots beyond the last are folded");
+            }
+        }
+        assertEquals(records, generation);
+    }
+
+    @Test
+    void testFullRingDropsAndCountsRecords() throws IOException {
+        int records = 20_000;
+        StatisticsSink sink = new StatisticsSink(directory, "burst", StatisticsSink.Format.BINARY, LIVE_SUM_BINS,
+                SPECIES_SLOTS, 1, StatisticsSink.DEFAULT_MAX_FILE_BYTES);
+        for (int i = 0; i < records; i++) {
+            sink.accept(record(i));
+        }
+        sink.close();
+        sink.accept(record(records));
+        assertTrue(sink.getDroppedCount() > 0, "A one-record ring cannot keep up with a burst");
+        assertEquals(records, sink.getRecordCount() + sink.getDroppedCount());
+
+        List<Path> files = StatisticsSeries.list(directory, "burst");
+        assertEquals(1, files.size());
+        StatisticsSeries series = StatisticsSeries.open(files.get(0));
+        assertEquals(sink.getRecordCount(), series.size());
+        assertEquals(0, series.getGeneration(0));
+        for (int r = 1; r < series.size(); r++) {
+            assertTrue(series.getGeneration(r) > series.getGeneration(r - 1), "Records stay in order");
+            assertEquals(series.getGeneration(r), series.getPopulation(r));
+        }
+    }
+
+    /**
+     * Creates the statistics of a generation with a nine-bin histogram and four species, more than the sink keeps.
+     */
+    private static BooleanStatistics record(int generation) {
+        return new BooleanStatistics(generation, 10, 20, generation,
+                new long[]{generation, 1, 2, 3, 4, 5, 6, 7, 8}, new long[]{7, generation, 2, 3});
+    }
+}
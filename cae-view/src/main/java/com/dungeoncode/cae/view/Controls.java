@@ -36,12 +36,21 @@ public class Controls {
         controls.add(new Control(">", "Inc. speed"));
         controls.add(new Control("<", "Dec. speed"));
         controls.add(new Control("w", "Swap state with echo"));
-        controls.add(new Control("+", "Inc. resolution"));
-        controls.add(new Control("-", "Dec. resolution"));
+        controls.add(new Control("+", "Zoom in"));
+        controls.add(new Control("-", "Zoom out"));
+        controls.add(new Control("h/j/k/l", "Pan view"));
+        controls.add(new Control("c", "Reset view"));
         controls.add(new Control("→", "Next palette"));
         controls.add(new Control("←", "Previous palette"));
         controls.add(new Control("F1", "Invert palette"));
-        controls.add(new Control("Ctrl+s", "Save screen as image"));
+        controls.add(new Control("Ctrl+s", "Save grid as image"));
+        controls.add(new Control("F5", "Save grid snapshot"));
+        controls.add(new Control("F9", "Load latest snapshot"));
+        controls.add(new Control("F6", "Toggle autosave"));
+        controls.add(new Control("F10", "Resume from autosave"));
+        controls.add(new Control("F7", "Record PNG sequence"));
+        controls.add(new Control("F8", "Record animated GIF"));
+        controls.add(new Control("F12", "Export grid as image"));
 
         mouseControls = new ArrayList<>();
         mouseControls.add(new Control("L. Clk Drag", "Paint random cells"));
@@ -5,6 +5,7 @@ import com.dungeoncode.cae.core.Cell;
 import com.dungeoncode.cae.core.CellState;
 import com.dungeoncode.cae.core.impl.BooleanCell;
 import com.dungeoncode.cae.view.render.CellCharacter;
+import com.dungeoncode.cae.view.render.Viewport;
 import com.googlecode.lanterna.TerminalPosition;
 import com.googlecode.lanterna.TerminalSize;
 import com.googlecode.lanterna.TextColor;
@@ -62,8 +63,8 @@ public class EngineListener<C extends Cell<S>, S extends CellState<?>> extends M
      */
     public EngineListener(@Nonnull ViewEngine<C, S> viewEngine) {
         this.viewEngine = Objects.requireNonNull(viewEngine, "Controller cannot be null");
-        int width = viewEngine.getWidth();
-        int height = viewEngine.getHeight();
+        int width = viewEngine.getGridWidth();
+        int height = viewEngine.getGridHeight();
         this.radius = (int) (Math.min(width, height) * 0.1);
     }
 
@@ -76,8 +77,9 @@ public class EngineListener<C extends Cell<S>, S extends CellState<?>> extends M
     @Override
     public void mouseClicked(@Nonnull MouseEvent e) {
         Objects.requireNonNull(e, "Mouse event cannot be null");
-        int col = e.getX() / viewEngine.getCellFontSize();
-        int row = e.getY() / viewEngine.getCellFontSize();
+        Viewport viewport = viewEngine.getViewport();
+        int col = viewport.toGridX(e.getX() / viewEngine.getCellFontSize());
+        int row = viewport.toGridY(e.getY() / viewEngine.getCellFontSize());
         applyChanges(col, row, e.getButton());
     }
 
@@ -124,16 +126,21 @@ public class EngineListener<C extends Cell<S>, S extends CellState<?>> extends M
             int col = e.getX() / viewEngine.getCellFontSize();
             int row = e.getY() / viewEngine.getCellFontSize();
 
-            viewEngine.getTextGraphics().drawRectangle(
-                    new TerminalPosition(col - radius, row - radius),
-                    new TerminalSize(2 * radius, 2 * radius),
-                    CellCharacter.fromColor(TextColor.ANSI.WHITE));
-            viewEngine.getScreen().refresh(Screen.RefreshType.DELTA);
+            // Radius is in grid cells; convert it to terminal characters at the current zoom level
+            Viewport viewport = viewEngine.getViewport();
+            int screenRadius = radius * viewport.getCharactersPerCell() / viewport.getCellsPerCharacter();
+            synchronized (viewEngine.getRenderLock()) {
+                viewEngine.getTextGraphics().drawRectangle(
+                        new TerminalPosition(col - screenRadius, row - screenRadius),
+                        new TerminalSize(2 * screenRadius, 2 * screenRadius),
+                        CellCharacter.fromColor(TextColor.ANSI.WHITE));
+                viewEngine.getScreen().refresh(Screen.RefreshType.DELTA);
+            }
 
             if (wasRunning) {
                 automaton.start();
             } else {
-                viewEngine.getRenderer().accept(viewEngine.getAutoma().getGrid());
+                viewEngine.redraw();
             }
         } catch (Exception ex) {
             throw new RuntimeException("Failed to draw radius outline: " + ex.getMessage(), ex);
@@ -146,8 +153,8 @@ public class EngineListener<C extends Cell<S>, S extends CellState<?>> extends M
      * @param dr the radius change (positive to increase, negative to decrease)
      */
     private void updateRadius(int dr) {
-        int width = viewEngine.getWidth();
-        int height = viewEngine.getHeight();
+        int width = viewEngine.getGridWidth();
+        int height = viewEngine.getGridHeight();
         radius += dr;
         radius = Math.max(0, Math.min(radius, (width + height) / 8));
     }
@@ -161,8 +168,9 @@ public class EngineListener<C extends Cell<S>, S extends CellState<?>> extends M
     @Override
     public void mouseDragged(@Nonnull MouseEvent e) {
         Objects.requireNonNull(e, "Mouse event cannot be null");
-        int col = e.getX() / viewEngine.getCellFontSize();
-        int row = e.getY() / viewEngine.getCellFontSize();
+        Viewport viewport = viewEngine.getViewport();
+        int col = viewport.toGridX(e.getX() / viewEngine.getCellFontSize());
+        int row = viewport.toGridY(e.getY() / viewEngine.getCellFontSize());
         applyChanges(col, row, button);
     }
 
@@ -181,8 +189,8 @@ public class EngineListener<C extends Cell<S>, S extends CellState<?>> extends M
             return;
         }
 
-        int width = viewEngine.getWidth();
-        int height = viewEngine.getHeight();
+        int width = viewEngine.getGridWidth();
+        int height = viewEngine.getGridHeight();
 
         if (radius > 0) {
             for (int dy = -radius; dy <= radius; dy++) {
@@ -202,9 +210,10 @@ public class EngineListener<C extends Cell<S>, S extends CellState<?>> extends M
                 updateCell(button, col, row, 0);
             }
         }
+        viewEngine.gridChanged();
 
         if (!viewEngine.getAutoma().isRunning()) {
-            viewEngine.getRenderer().accept(viewEngine.getAutoma().getGrid());
+            viewEngine.redraw();
         }
     }
 
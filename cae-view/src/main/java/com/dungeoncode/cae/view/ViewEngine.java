@@ -3,7 +3,11 @@ package com.dungeoncode.cae.view;
 import com.dungeoncode.cae.automa.*;
 import com.dungeoncode.cae.core.*;
 import com.dungeoncode.cae.core.impl.BooleanCell;
+import com.dungeoncode.cae.core.impl.BooleanFrame;
 import com.dungeoncode.cae.core.impl.BooleanState;
+import com.dungeoncode.cae.core.io.Checkpointer;
+import com.dungeoncode.cae.core.io.Snapshot;
+import com.dungeoncode.cae.core.io.SnapshotHeader;
 import com.dungeoncode.cae.view.render.*;
 import com.googlecode.lanterna.*;
 import com.googlecode.lanterna.graphics.TextGraphics;
@@ -19,17 +23,19 @@ import edu.umd.cs.findbugs.annotations.NonNull;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import javax.imageio.ImageIO;
 import java.awt.*;
-import java.awt.image.BufferedImage;
-import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 import static com.googlecode.lanterna.input.KeyType.Character;
 import static javax.swing.WindowConstants.EXIT_ON_CLOSE;
@@ -49,6 +55,47 @@ public class ViewEngine<C extends Cell<S>, S extends CellState<?>> {
      */
     private static final Logger LOGGER = LoggerFactory.getLogger(ViewEngine.class);
 
+    /**
+     * The number of generations between autosave checkpoints.
+     */
+    private static final long AUTOSAVE_GENERATIONS = 1000;
+
+    /**
+     * The wall time in milliseconds between autosave checkpoints.
+     */
+    private static final long AUTOSAVE_MILLIS = 60_000;
+
+    /**
+     * The number of autosave checkpoints per key frame.
+     */
+    private static final int AUTOSAVE_KEY_FRAME_INTERVAL = 16;
+
+    /**
+     * The number of generations remembered for cycle detection, the longest detectable period.
+     */
+    private static final int CYCLE_HISTORY_SIZE = 64;
+
+    /**
+     * The size in pixels of each cell in recorded images.
+     */
+    private static final int RECORD_CELL_PIXELS = 4;
+
+    /**
+     * The maximum number of frames of a recording.
+     */
+    private static final long RECORD_MAX_FRAMES = 1000;
+
+    /**
+     * The number of frames buffered for a recorder whose encoders are all busy; further frames are dropped.
+     */
+    private static final int RECORD_BUFFER_SIZE = 8;
+
+    /**
+     * The minimum size in pixels of the longer side of an exported grid image; smaller grids are scaled up by a whole
+     * number of pixels per cell.
+     */
+    private static final int EXPORT_MIN_PIXELS = 2048;
+
     /**
      * Maps configuration class names to their corresponding state renderers.
      */
@@ -83,6 +130,11 @@ public class ViewEngine<C extends Cell<S>, S extends CellState<?>> {
         CELL_RENDERER.put(ConfGeneticDrift.class.getName(), rendererBooleanId);
         CELL_RENDERER.put(ConfSoilErosion.class.getName(), rendererBoolean);
         CELL_RENDERER.put(ConfSoilErosionRandom.class.getName(), rendererBoolean);
+        CELL_RENDERER.put(ConfLargerThanLife.class.getName(), rendererBoolean);
+        CELL_RENDERER.put(ConfCritters.class.getName(), rendererBoolean);
+        CELL_RENDERER.put(ConfBilliardBallGas.class.getName(), rendererBoolean);
+        CELL_RENDERER.put(ConfBriansBrain.class.getName(), RendererMultiState.briansBrain());
+        CELL_RENDERER.put(ConfLenia.class.getName(), new RendererFloat());
 
     }
 
@@ -118,13 +170,25 @@ public class ViewEngine<C extends Cell<S>, S extends CellState<?>> {
      */
     private TerminalScreen screen;
     /**
-     * The width (number of columns) of the grid and terminal.
+     * The width (number of columns) of the terminal.
      */
     private int width;
     /**
-     * The height (number of rows) of the grid and terminal.
+     * The height (number of rows) of the terminal.
      */
     private int height;
+    /**
+     * The width (number of columns) of the grid, independent of the terminal size.
+     */
+    private final int gridWidth;
+    /**
+     * The height (number of rows) of the grid, independent of the terminal size.
+     */
+    private final int gridHeight;
+    /**
+     * The pannable, zoomable window of the grid shown on the terminal.
+     */
+    private Viewport viewport;
     /**
      * The interval between automaton steps, in milliseconds.
      */
@@ -150,11 +214,66 @@ public class ViewEngine<C extends Cell<S>, S extends CellState<?>> {
      */
     private GridRenderer<C, S> renderer;
 
+    /**
+     * Serializes access to the renderer, the viewport, the palette, and the screen between the automaton thread,
+     * the input thread, and the Swing event thread. Frames, view changes, and status markers are drawn while holding
+     * it, so a view change never interleaves with a frame.
+     */
+    private final Object renderLock = new Object();
+
+    /**
+     * The grid consumer of the automaton, rendering each generation while holding {@link #renderLock}.
+     */
+    private final Consumer<Grid<C, S>> gridConsumer = grid -> {
+        synchronized (renderLock) {
+            renderer.accept(grid);
+        }
+    };
+
     /**
      * Tracks whether the automaton is restarting due to user control input.
      */
     private boolean automaRestarting;
 
+    /**
+     * The background checkpointer of the current configuration while autosave is enabled, otherwise null.
+     */
+    private Checkpointer checkpointer;
+
+    /**
+     * Publishes a frame of each generation of boolean automata to recorders. Frames are only captured while a
+     * recorder has room for them.
+     */
+    private final FramePublisher<BooleanFrame> frames = new FramePublisher<>();
+
+    /**
+     * The step listener feeding {@link #frames}.
+     */
+    @SuppressWarnings("unchecked")
+    private final Consumer<Automaton<C, S>> frameFeed = frames.feed(a ->
+            BooleanFrame.capture((Grid<BooleanCell, BooleanState>) a.getGrid(), a.getGeneration()));
+
+    /**
+     * The change listener forwarding the change set of each generation to the current renderer, so that zoomed-out
+     * frames only reread the changed cells.
+     */
+    private final Consumer<ChangeSet> rendererChanges = changes -> {
+        synchronized (renderLock) {
+            renderer.changed(changes);
+        }
+    };
+
+    /**
+     * The frame recorder while a recording is in progress, otherwise null.
+     */
+    private FrameRecorder recorder;
+
+    /**
+     * Whether the simulation terminal is a text terminal (e.g. over SSH) rather than a Swing terminal emulator.
+     * Text terminals are rendered with {@link GridRendererHalfBlock}.
+     */
+    private boolean textTerminal;
+
     /**
      * Constructs a new control view with the specified terminal dimensions, cell font size, and configuration.
      * Initializes the grid size based on pixel dimensions and cell font size, sets up fonts, and prepares the
@@ -169,12 +288,36 @@ public class ViewEngine<C extends Cell<S>, S extends CellState<?>> {
      * @throws RuntimeException     if font loading fails
      */
     public ViewEngine(int px, int py, int cellFontSize, List<Configuration> configurations, @NonNull Configuration<C, S> configuration) {
+        this(px, py, cellFontSize, px / cellFontSize, py / cellFontSize, configurations, configuration);
+    }
+
+    /**
+     * Constructs a new control view with the specified terminal dimensions, cell font size, grid dimensions, and
+     * configuration. The grid size is independent of the terminal size; the terminal shows a pannable, zoomable
+     * {@link Viewport} of the grid.
+     *
+     * @param px             the pixel width of the terminal window
+     * @param py             the pixel height of the terminal window
+     * @param cellFontSize   the font size for rendering simulation cells
+     * @param gridWidth      the width (number of columns) of the grid, must be positive
+     * @param gridHeight     the height (number of rows) of the grid, must be positive
+     * @param configurations the configurations available for switching
+     * @param configuration  the automaton configuration, must not be null
+     * @throws NullPointerException     if configuration is null
+     * @throws IllegalArgumentException if the grid dimensions are not positive
+     * @throws RuntimeException         if font loading fails
+     */
+    public ViewEngine(int px, int py, int cellFontSize, int gridWidth, int gridHeight, List<Configuration> configurations,
+                      @NonNull Configuration<C, S> configuration) {
         Objects.requireNonNull(configuration);
         this.px = px;
         this.py = py;
         this.cellFontSize = cellFontSize;
         this.width = px / cellFontSize;
         this.height = py / cellFontSize;
+        this.gridWidth = gridWidth;
+        this.gridHeight = gridHeight;
+        this.viewport = new Viewport(gridWidth, gridHeight, width, height);
         this.controls = new Controls();
         this.configuration = configuration;
         this.displayFontSize = 18;
@@ -220,8 +363,10 @@ public class ViewEngine<C extends Cell<S>, S extends CellState<?>> {
                 automaton = new Automaton<>();
                 configureAutoma();
             } else {
-                renderer = new GridRenderer<>(screen, CELL_RENDERER.get(configuration.getClass().getName()));
-                automaton.setGridConsumer(renderer);
+                synchronized (renderLock) {
+                    renderer = createRenderer();
+                }
+                automaton.setGridConsumer(gridConsumer);
             }
 
             Terminal terminal = screen.getTerminal();
@@ -265,15 +410,48 @@ public class ViewEngine<C extends Cell<S>, S extends CellState<?>> {
 
     /**
      * Configures the automaton using the current configuration, applying the grid size and update interval.
-     * Uses a default interval of 100 milliseconds if none is specified.
+     * Uses a default interval of 100 milliseconds if none is specified. Boolean automata get a cycle detector, so
+     * that fixed points stop consuming CPU, and change tracking of cell values, so that the renderer only rereads
+     * the cells that changed.
      */
+    @SuppressWarnings("unchecked")
     private void configureAutoma() {
         if (intervalMillis <= 0) {
             intervalMillis = 100;
         }
-        configuration.configure(automaton, width, height, intervalMillis);
-        renderer = new GridRenderer<>(screen, CELL_RENDERER.get(configuration.getClass().getName()));
-        automaton.setGridConsumer(renderer);
+        stopAutosave();
+        stopRecording();
+        automaton.removeStepListener(frameFeed);
+        automaton.removeChangeListener(rendererChanges);
+        automaton.setCycleDetector(null);
+        automaton.setChangeTracking(null);
+        configuration.configure(automaton, gridWidth, gridHeight, intervalMillis);
+        if (automaton.getGrid().getCell(0, 0) instanceof BooleanCell) {
+            automaton.setCycleDetector((CycleDetector<C, S>) (CycleDetector<?, ?>)
+                    CycleDetector.forBooleanGrids(CYCLE_HISTORY_SIZE, CycleDetector.Policy.FAST_FORWARD));
+            automaton.addStepListener(frameFeed);
+            automaton.setChangeTracking(state -> Boolean.TRUE.equals(state.getValue()) ? 1 : 0);
+            automaton.addChangeListener(rendererChanges);
+        }
+        synchronized (renderLock) {
+            renderer = createRenderer();
+        }
+        automaton.setGridConsumer(gridConsumer);
+    }
+
+    /**
+     * Creates the grid renderer for the current configuration: a {@link GridRendererHalfBlock} writing truecolor
+     * half blocks for text terminals, or a {@link GridRenderer} drawing through the Lanterna screen otherwise.
+     *
+     * @return the renderer for the current screen and viewport
+     */
+    @SuppressWarnings("unchecked")
+    private GridRenderer<C, S> createRenderer() {
+        StateRenderer<S> stateRenderer = CELL_RENDERER.get(configuration.getClass().getName());
+        if (textTerminal) {
+            return new GridRendererHalfBlock<>(screen, stateRenderer, viewport, System.out);
+        }
+        return new GridRenderer<>(screen, stateRenderer, viewport);
     }
 
     /**
@@ -294,6 +472,7 @@ public class ViewEngine<C extends Cell<S>, S extends CellState<?>> {
     /**
      * Sets up the Lanterna terminal for simulation mode with the specified dimensions and custom cell font.
      * Configures the terminal size, title, and font, and adds mouse listeners for boolean configurations.
+     * When a text terminal is created instead of a Swing emulator, the viewport is resized to the terminal.
      *
      * @throws IOException if an error occurs during terminal creation
      */
@@ -308,6 +487,15 @@ public class ViewEngine<C extends Cell<S>, S extends CellState<?>> {
             swingTerminalFrame.setResizable(false);
             swingTerminalFrame.setLocationRelativeTo(null);
             swingTerminalFrame.setDefaultCloseOperation(EXIT_ON_CLOSE);
+        } else {
+            // Text terminal: size the viewport to the real terminal, two cells per character row
+            textTerminal = true;
+            TerminalSize terminalSize = terminal.getTerminalSize();
+            width = terminalSize.getColumns();
+            height = terminalSize.getRows();
+            if (viewport.getColumns() != width || viewport.getRows() != 2 * height) {
+                viewport = new Viewport(gridWidth, gridHeight, width, 2 * height);
+            }
         }
         screen = new TerminalScreen(terminal);
         screen.setCursorPosition(null);
@@ -337,13 +525,12 @@ public class ViewEngine<C extends Cell<S>, S extends CellState<?>> {
 
     /**
      * Runs the main interaction loop, starting the automaton and processing user input for actions such as
-     * pausing, resuming, stepping, resizing, saving screenshots, or exiting. Updates the display and handles
+     * pausing, resuming, stepping, zooming, panning, saving screenshots, or exiting. Updates the display and handles
      * terminal events.
      *
      * @throws RuntimeException if an I/O error occurs during input processing
      */
     public void run() {
-        boolean scaleChange = false;
         boolean showControls = false;
         boolean showConfigurationDetails = false;
         boolean quit = false;
@@ -358,27 +545,31 @@ public class ViewEngine<C extends Cell<S>, S extends CellState<?>> {
                             quit = true;
                         }
                         case F1 -> {
-                            if (renderer.getStateRenderer() instanceof RendererBoolean) {
-                                ((RendererBoolean) renderer.getStateRenderer()).toggleInversion();
-                                renderer.accept(automaton.getGrid());
+                            if (renderer.getStateRenderer() instanceof RendererBoolean rendererBoolean) {
+                                redraw(rendererBoolean::toggleInversion);
                             }
                         }
                         case ArrowLeft -> {
-                            if (renderer.getStateRenderer() instanceof RendererBoolean) {
-                                ((RendererBoolean) renderer.getStateRenderer()).previousPalette();
-                                renderer.accept(automaton.getGrid());
+                            if (renderer.getStateRenderer() instanceof RendererBoolean rendererBoolean) {
+                                redraw(rendererBoolean::previousPalette);
                             }
                         }
                         case ArrowRight -> {
                             if (automaton.getGrid().getCell(0, 0) instanceof BooleanCell) {
-                                if (renderer.getStateRenderer() instanceof RendererBoolean) {
-                                    ((RendererBoolean) renderer.getStateRenderer()).nextPalette();
-                                    renderer.accept(automaton.getGrid());
+                                if (renderer.getStateRenderer() instanceof RendererBoolean rendererBoolean) {
+                                    redraw(rendererBoolean::nextPalette);
                                 }
                             }
                         }
                         case PageDown -> startNextAutoma();
                         case PageUp -> startPreviousAutoma();
+                        case F5 -> saveSnapshot();
+                        case F9 -> loadLatestSnapshot();
+                        case F6 -> toggleAutosave();
+                        case F7 -> toggleRecording(FrameRecorder.Format.PNG);
+                        case F8 -> toggleRecording(FrameRecorder.Format.GIF);
+                        case F12 -> exportGridImage();
+                        case F10 -> resumeFromCheckpoint();
                     }
                 } else if (key.isCtrlDown() && key.getKeyType() == KeyType.Character) {
                     if (key.getCharacter() == 's') {
@@ -391,11 +582,7 @@ public class ViewEngine<C extends Cell<S>, S extends CellState<?>> {
                         case 'p', 'P', ' ' -> {
                             if (automaton.isRunning()) {
                                 automaton.stop();
-                                TerminalPosition topLeft = new TerminalPosition(width - 3, 0);
-                                TerminalSize size = new TerminalSize(3, 3);
-                                TextCharacter textCharacter = TextCharacter.fromCharacter(' ', TextColor.ANSI.RED, null, SGR.REVERSE, SGR.BLINK)[0];
-                                textGraphics.fillRectangle(topLeft, size, textCharacter);
-                                screen.refresh(Screen.RefreshType.DELTA);
+                                drawStatusMarker(TextColor.ANSI.RED);
                                 LOGGER.debug("Automaton stopped");
                             } else {
                                 automaton.resume();
@@ -411,10 +598,11 @@ public class ViewEngine<C extends Cell<S>, S extends CellState<?>> {
                                     automaton.stop();
                                 }
                                 automaton.getGrid().initialize();
+                                gridChanged();
                                 if (wasRunning) {
                                     automaton.resume();
                                 } else {
-                                    renderer.accept(automaton.getGrid());
+                                    redraw();
                                 }
                                 automaRestarting = false;
                             }
@@ -422,26 +610,13 @@ public class ViewEngine<C extends Cell<S>, S extends CellState<?>> {
                         case 'i', 'I' -> {
                             showConfigurationDetails = true;
                         }
-                        case '+' -> {
-                            if (cellFontSize > 2) {
-                                automaton.stop();
-                                --cellFontSize;
-                                cellFontSize = Math.max(cellFontSize, 2);
-                                width = px / cellFontSize;
-                                height = py / cellFontSize;
-                                scaleChange = true;
-                            }
-                        }
-                        case '-' -> {
-                            if (cellFontSize < 18) {
-                                automaton.stop();
-                                ++cellFontSize;
-                                cellFontSize = Math.min(cellFontSize, 18);
-                                width = px / cellFontSize;
-                                height = py / cellFontSize;
-                                scaleChange = true;
-                            }
-                        }
+                        case '+' -> redraw(viewport::zoomIn);
+                        case '-' -> redraw(viewport::zoomOut);
+                        case 'h', 'H' -> panViewport(-1, 0);
+                        case 'l', 'L' -> panViewport(1, 0);
+                        case 'k', 'K' -> panViewport(0, -1);
+                        case 'j', 'J' -> panViewport(0, 1);
+                        case 'c', 'C' -> redraw(viewport::reset);
                         case '<' -> {
                             if (automaton.isRunning()) {
                                 long intervalMillis = automaton.getIntervalMillis();
@@ -463,12 +638,8 @@ public class ViewEngine<C extends Cell<S>, S extends CellState<?>> {
                                 automaton.stop();
                             }
                             automaton.step();
-                            renderer.accept(automaton.getGrid());
-                            TerminalPosition topLeft = new TerminalPosition(width - 3, 0);
-                            TerminalSize size = new TerminalSize(3, 3);
-                            TextCharacter textCharacter = TextCharacter.fromCharacter(' ', TextColor.ANSI.BLUE, null, SGR.REVERSE, SGR.BLINK)[0];
-                            textGraphics.fillRectangle(topLeft, size, textCharacter);
-                            screen.refresh(Screen.RefreshType.DELTA);
+                            redraw();
+                            drawStatusMarker(TextColor.ANSI.BLUE);
                         }
                         case 'w' -> {
                             if (automaton.getGrid().getCell(0, 0) instanceof BooleanCell) {
@@ -485,7 +656,8 @@ public class ViewEngine<C extends Cell<S>, S extends CellState<?>> {
                                         cell.getState().swapEcho();
                                     }
                                 }
-                                renderer.accept((Grid<C, S>) grid);
+                                gridChanged();
+                                redraw();
                                 if (wasRunning) {
                                     automaton.start();
                                 }
@@ -495,7 +667,7 @@ public class ViewEngine<C extends Cell<S>, S extends CellState<?>> {
                     }
                 }
 
-                if (scaleChange || showControls || showConfigurationDetails || quit) {
+                if (showControls || showConfigurationDetails || quit) {
                     setupFonts();
                     break;
                 }
@@ -507,10 +679,7 @@ public class ViewEngine<C extends Cell<S>, S extends CellState<?>> {
             closeTerminal();
         }
 
-        if (scaleChange) {
-            initialize(true);
-            run();
-        } else if (showControls) {
+        if (showControls) {
             showControls();
         } else if (showConfigurationDetails) {
             showConfigurationDetails();
@@ -518,6 +687,73 @@ public class ViewEngine<C extends Cell<S>, S extends CellState<?>> {
 
     }
 
+    /**
+     * Pans the viewport by an eighth of the terminal size in the given direction and redraws the grid.
+     *
+     * @param dx the horizontal direction (-1 left, 1 right, 0 none)
+     * @param dy the vertical direction (-1 up, 1 down, 0 none)
+     */
+    private void panViewport(int dx, int dy) {
+        redraw(() -> viewport.pan(dx * Math.max(1, width / 8), dy * Math.max(1, height / 8)));
+    }
+
+    /**
+     * Redraws the grid on the terminal while holding the render lock.
+     */
+    public void redraw() {
+        redraw(() -> {
+        });
+    }
+
+    /**
+     * Applies a change to the view, such as a pan, a zoom, or a palette switch, and redraws the grid, both while
+     * holding the render lock so that the change does not interleave with a frame of the running automaton.
+     *
+     * @param change the change to apply before redrawing
+     */
+    public void redraw(Runnable change) {
+        synchronized (renderLock) {
+            change.run();
+            renderer.accept(automaton.getGrid());
+        }
+    }
+
+    /**
+     * Reports that the grid was edited outside the step loop, to the automaton and to the renderer, so that neither
+     * relies on state derived from the previous contents.
+     */
+    public void gridChanged() {
+        automaton.gridChanged();
+        synchronized (renderLock) {
+            renderer.gridChanged();
+        }
+    }
+
+    /**
+     * Draws a 3x3 blinking marker in the top-right corner of the terminal, for example to show that the automaton
+     * is paused.
+     *
+     * @param color the color of the marker
+     * @throws IOException if the screen cannot be refreshed
+     */
+    private void drawStatusMarker(TextColor color) throws IOException {
+        synchronized (renderLock) {
+            TextCharacter textCharacter = TextCharacter.fromCharacter(' ', color, null, SGR.REVERSE, SGR.BLINK)[0];
+            textGraphics.fillRectangle(new TerminalPosition(width - 3, 0), new TerminalSize(3, 3), textCharacter);
+            screen.refresh(Screen.RefreshType.DELTA);
+        }
+    }
+
+    /**
+     * Returns the lock serializing access to the renderer, the viewport, and the screen. Code drawing on the screen
+     * outside the renderer must hold it.
+     *
+     * @return the render lock
+     */
+    public Object getRenderLock() {
+        return renderLock;
+    }
+
     /**
      * Displays a controls menu listing keyboard and mouse interactions, using a fixed font size and aligned
      * columns for readability. Returns to the main simulation view after user input.
@@ -729,64 +965,275 @@ public class ViewEngine<C extends Cell<S>, S extends CellState<?>> {
     }
 
     /**
-     * Saves the current terminal screen as a PNG image in the user's home directory under
-     * .cell-automata/screenshots/. The filename is the configuration name appended with a millisecond-precision
-     * timestamp (e.g., GameOfLife_20250518115712345.png).
+     * Saves the next generation as a PNG image in the user's home directory under .cell-automata/screenshots/, or the
+     * current generation if the automaton is paused. The image is drawn from the grid state with the current colors,
+     * {@value #RECORD_CELL_PIXELS} pixels per cell, and encoded in the background without pausing the simulation. The
+     * filename is the configuration name appended with a millisecond-precision timestamp and a frame index (e.g.,
+     * GameOfLife_20250518115712345-000000.png). Only boolean grids are supported; other grids are ignored.
      *
-     * @throws IOException if an error occurs during image capture or file writing
+     * @throws IOException if the screenshots directory cannot be created
      */
+    @SuppressWarnings("unchecked")
     public void saveScreenToImage() throws IOException {
-        boolean wasRunning = automaton.isRunning();
+        if (!(automaton.getGrid().getCell(0, 0) instanceof BooleanCell)) {
+            return;
+        }
+        Path screenshotDir = Path.of(System.getProperty("user.home"), ".cell-automata", "screenshots");
+        String configName = configuration.getClass().getName().replaceAll("[^a-zA-Z0-9]", "_");
+        String timestamp = String.format("%1$tY%1$tm%1$td%1$tH%1$tM%1$tS%1$tL", System.currentTimeMillis());
+        FrameRecorder screenshot = new FrameRecorder(screenshotDir, configName + "_" + timestamp,
+                FrameRecorder.Format.PNG, (StateRenderer<BooleanState>) renderer.getStateRenderer(),
+                RECORD_CELL_PIXELS, 1);
+        screenshot.getCompletion().whenComplete((ignored, error) -> {
+            if (error != null) {
+                LOGGER.error("Failed to save screen: {}", error.getMessage(), error);
+            }
+        });
         if (automaton.isRunning()) {
-            automaton.stop();
+            frames.subscribe(screenshot, Runnable::run, FramePublisher.Policy.DROP, 1);
+        } else {
+            try (FramePublisher<BooleanFrame> once = new FramePublisher<>()) {
+                once.subscribe(screenshot, Runnable::run, FramePublisher.Policy.DROP, 1);
+                once.submit(BooleanFrame.capture((Grid<BooleanCell, BooleanState>) automaton.getGrid(),
+                        automaton.getGeneration()));
+            }
         }
-        if (screen != null && screen.getTerminal() instanceof SwingTerminalFrame swingTerminalFrame) {
-            Component component = swingTerminalFrame.getContentPane().getComponent(0);
 
-            // Create a BufferedImage to hold the component's content
-            BufferedImage image = new BufferedImage(
-                    component.getWidth(),
-                    component.getHeight(),
-                    BufferedImage.TYPE_INT_RGB
-            );
+        // Draw confirmation line on screen
+        synchronized (renderLock) {
+            getTextGraphics().drawLine(0, height / 2, width, height / 2,
+                    TextCharacter.fromString(" ", TextColor.ANSI.GREEN_BRIGHT, null, SGR.REVERSE)[0]);
+            screen.refresh(Screen.RefreshType.DELTA);
+        }
+        if (!automaton.isRunning()) {
+            redraw();
+        }
+    }
 
-            // Paint the component to the image
-            Graphics2D g2d = image.createGraphics();
-            component.paint(g2d);
-            g2d.dispose();
+    /**
+     * Exports the whole grid, independent of the viewport, as an indexed-color PNG in the user's home directory under
+     * .cell-automata/exports/, with the colors of the current palette. Grids smaller than {@value #EXPORT_MIN_PIXELS}
+     * pixels on their longer side are scaled up by a whole number of pixels per cell. The automaton is paused while
+     * the grid is read. The filename is the configuration id appended with a millisecond-precision timestamp (e.g.,
+     * 1_20250518115712345.png). Only boolean grids are supported; other grids are ignored.
+     *
+     * @throws IOException if an error occurs while writing the image
+     */
+    @SuppressWarnings("unchecked")
+    public void exportGridImage() throws IOException {
+        if (!(automaton.getGrid().getCell(0, 0) instanceof BooleanCell)) {
+            return;
+        }
+        boolean wasRunning = automaton.isRunning();
+        if (wasRunning) {
+            automaton.stop();
+        }
+        Path exportDir = Path.of(System.getProperty("user.home"), ".cell-automata", "exports");
+        Files.createDirectories(exportDir);
+        String timestamp = String.format("%1$tY%1$tm%1$td%1$tH%1$tM%1$tS%1$tL", System.currentTimeMillis());
+        Path file = exportDir.resolve(configuration.getId() + "_" + timestamp + ".png");
+        int scale = Math.max(1, EXPORT_MIN_PIXELS / Math.max(gridWidth, gridHeight));
+        ColorTable colorTable = ColorTable.of((StateRenderer<BooleanState>) renderer.getStateRenderer());
+        new GridImageExporter(colorTable, scale).export((Grid<BooleanCell, BooleanState>) automaton.getGrid(), file);
+        LOGGER.info("Grid exported to {}", file.toAbsolutePath());
+        if (wasRunning) {
+            automaton.resume();
+        }
+    }
 
-            // Create the screenshots directory in the user's home directory
-            String userHome = System.getProperty("user.home");
-            File screenshotDir = new File(userHome, ".cell-automata/screenshots");
-            if (!screenshotDir.exists() && !screenshotDir.mkdirs()) {
-                throw new IOException("Failed to create directory: " + screenshotDir.getAbsolutePath());
+    /**
+     * Starts or stops recording generations as a PNG sequence or an animated GIF in the user's home directory under
+     * .cell-automata/recordings/. A recording ends after {@value #RECORD_MAX_FRAMES} frames, when toggled again, or
+     * when the configuration changes. Frames are captured from the grid state on the stepping thread and encoded in
+     * the background; while the encoders are busy, generations are skipped rather than slowing the simulation. Only
+     * boolean grids are supported.
+     *
+     * @param format the output format
+     * @throws IOException if the recordings directory cannot be created
+     */
+    @SuppressWarnings("unchecked")
+    public void toggleRecording(FrameRecorder.Format format) throws IOException {
+        if (recorder != null && !recorder.getCompletion().isDone()) {
+            stopRecording();
+            return;
+        }
+        if (!(automaton.getGrid().getCell(0, 0) instanceof BooleanCell)) {
+            return;
+        }
+        Path recordingDir = Path.of(System.getProperty("user.home"), ".cell-automata", "recordings");
+        String timestamp = String.format("%1$tY%1$tm%1$td%1$tH%1$tM%1$tS%1$tL", System.currentTimeMillis());
+        String prefix = configuration.getId() + "_" + timestamp;
+        FrameRecorder newRecorder = new FrameRecorder(format == FrameRecorder.Format.PNG
+                ? recordingDir.resolve(prefix) : recordingDir, prefix, format,
+                (StateRenderer<BooleanState>) renderer.getStateRenderer(), RECORD_CELL_PIXELS, RECORD_MAX_FRAMES);
+        newRecorder.setFrameDelayMillis((int) Math.max(10, intervalMillis));
+        newRecorder.getCompletion().whenComplete((ignored, error) -> {
+            if (error != null) {
+                LOGGER.error("Recording failed: {}", error.getMessage(), error);
             }
+        });
+        recorder = newRecorder;
+        frames.subscribe(recorder, Runnable::run, FramePublisher.Policy.DROP, RECORD_BUFFER_SIZE);
+        LOGGER.info("Recording {} to {}", format, recorder.getDirectory());
+    }
 
-            // Generate filename with configuration name and millisecond-precision timestamp
-            String configName = configuration.getClass().getName().replaceAll("[^a-zA-Z0-9]", "_");
-            String timestamp = String.format("%tY%tm%td%tH%tM%tS%tL",
-                    System.currentTimeMillis(), System.currentTimeMillis(),
-                    System.currentTimeMillis(), System.currentTimeMillis(),
-                    System.currentTimeMillis(), System.currentTimeMillis(),
-                    System.currentTimeMillis());
-            String fileName = configName + "_" + timestamp + ".png";
-            File outputFile = new File(screenshotDir, fileName);
-
-            // Save the image
-            ImageIO.write(image, "png", outputFile);
-            LOGGER.info("Screen saved to {}", outputFile.getAbsolutePath());
-
-            // Draw confirmation line on screen
-            getTextGraphics().drawLine(0, height / 2, width, height / 2,
-                    TextCharacter.fromString(" ", TextColor.ANSI.GREEN_BRIGHT, null, SGR.REVERSE)[0]);
-            screen.refresh(Screen.RefreshType.DELTA);
-            if (wasRunning) {
-                automaton.start();
-            } else {
-                renderer.accept(automaton.getGrid());
+    /**
+     * Stops the current recording, if any. Frames already captured are still written in the background.
+     */
+    private void stopRecording() {
+        if (recorder != null) {
+            recorder.stop();
+            LOGGER.info("Recording stopped after {} frames", recorder.getFrameCount());
+            recorder = null;
+        }
+    }
+
+    /**
+     * Saves a binary {@link Snapshot} of the current grid and run position in the user's home directory under
+     * .cell-automata/snapshots/. The filename is the configuration id appended with a millisecond-precision timestamp
+     * (e.g., 1_20250518115712345.snap). Only boolean grids are supported; other grids are ignored.
+     *
+     * @throws IOException if an error occurs while writing the snapshot
+     */
+    @SuppressWarnings("unchecked")
+    public void saveSnapshot() throws IOException {
+        if (!(automaton.getGrid().getCell(0, 0) instanceof BooleanCell)) {
+            return;
+        }
+        boolean wasRunning = automaton.isRunning();
+        if (wasRunning) {
+            automaton.stop();
+        }
+        Path snapshotDir = Path.of(System.getProperty("user.home"), ".cell-automata", "snapshots");
+        Files.createDirectories(snapshotDir);
+        String timestamp = String.format("%1$tY%1$tm%1$td%1$tH%1$tM%1$tS%1$tL", System.currentTimeMillis());
+        Path file = snapshotDir.resolve(configuration.getId() + "_" + timestamp + ".snap");
+        Snapshot.save(file, configuration.getId(), (Automaton<BooleanCell, BooleanState>) automaton);
+        LOGGER.info("Snapshot saved to {}", file.toAbsolutePath());
+        if (wasRunning) {
+            automaton.resume();
+        }
+    }
+
+    /**
+     * Restores the most recent snapshot of the current configuration from .cell-automata/snapshots/ in the user's
+     * home directory, if one exists with the current grid size. Only boolean grids are supported.
+     *
+     * @throws IOException if an error occurs while reading the snapshot
+     */
+    @SuppressWarnings("unchecked")
+    public void loadLatestSnapshot() throws IOException {
+        if (!(automaton.getGrid().getCell(0, 0) instanceof BooleanCell)) {
+            return;
+        }
+        Path snapshotDir = Path.of(System.getProperty("user.home"), ".cell-automata", "snapshots");
+        if (!Files.isDirectory(snapshotDir)) {
+            return;
+        }
+        Path latest;
+        try (Stream<Path> files = Files.list(snapshotDir)) {
+            latest = files.filter(f -> f.getFileName().toString().startsWith(configuration.getId() + "_"))
+                    .filter(f -> f.getFileName().toString().endsWith(".snap"))
+                    .max(Comparator.comparing(f -> f.getFileName().toString()))
+                    .orElse(null);
+        }
+        if (latest == null) {
+            LOGGER.info("No snapshot found for configuration {}", configuration.getId());
+            return;
+        }
+        SnapshotHeader header = Snapshot.readHeader(latest);
+        if (header.width() != gridWidth || header.height() != gridHeight) {
+            LOGGER.warn("Snapshot {} has size {}x{}, expected {}x{}", latest, header.width(), header.height(),
+                    gridWidth, gridHeight);
+            return;
+        }
+        boolean wasRunning = automaton.isRunning();
+        if (wasRunning) {
+            automaton.stop();
+        }
+        Snapshot.restore(latest, (Automaton<BooleanCell, BooleanState>) automaton);
+        gridChanged();
+        LOGGER.info("Snapshot restored from {} at generation {}", latest.toAbsolutePath(), header.generation());
+        if (wasRunning) {
+            automaton.resume();
+        } else {
+            redraw();
+        }
+    }
+
+    /**
+     * Returns the directory holding the autosave checkpoints of the current configuration, under
+     * .cell-automata/checkpoints/ in the user's home directory.
+     *
+     * @return the checkpoint directory
+     */
+    private Path checkpointDirectory() {
+        return Path.of(System.getProperty("user.home"), ".cell-automata", "checkpoints",
+                String.valueOf(configuration.getId()));
+    }
+
+    /**
+     * Enables or disables autosave for the current configuration. While enabled, a checkpoint is written in the
+     * background every {@value #AUTOSAVE_GENERATIONS} generations or every {@value #AUTOSAVE_MILLIS} milliseconds,
+     * whichever comes first. Only boolean grids are supported.
+     *
+     * @throws IOException if the checkpoint directory cannot be created
+     */
+    @SuppressWarnings("unchecked")
+    public void toggleAutosave() throws IOException {
+        if (checkpointer != null) {
+            stopAutosave();
+            return;
+        }
+        if (!(automaton.getGrid().getCell(0, 0) instanceof BooleanCell)) {
+            return;
+        }
+        checkpointer = new Checkpointer(checkpointDirectory(), configuration.getId(), AUTOSAVE_GENERATIONS,
+                AUTOSAVE_MILLIS, AUTOSAVE_KEY_FRAME_INTERVAL);
+        ((Automaton<BooleanCell, BooleanState>) automaton).addStepListener(checkpointer);
+        LOGGER.info("Autosave enabled to {}", checkpointer.getDirectory());
+    }
+
+    /**
+     * Disables autosave, if enabled, waiting for a pending checkpoint to be written.
+     */
+    @SuppressWarnings("unchecked")
+    private void stopAutosave() {
+        if (checkpointer != null) {
+            ((Automaton<BooleanCell, BooleanState>) automaton).removeStepListener(checkpointer);
+            checkpointer.close();
+            LOGGER.info("Autosave disabled");
+            checkpointer = null;
+        }
+    }
+
+    /**
+     * Restores the current configuration from its latest good autosave checkpoint, if any. Only boolean grids are
+     * supported.
+     *
+     * @throws IOException if the checkpoint directory cannot be read
+     */
+    @SuppressWarnings("unchecked")
+    public void resumeFromCheckpoint() throws IOException {
+        if (!(automaton.getGrid().getCell(0, 0) instanceof BooleanCell)) {
+            return;
+        }
+        boolean wasRunning = automaton.isRunning();
+        if (wasRunning) {
+            automaton.stop();
+        }
+        try {
+            if (Checkpointer.resume(checkpointDirectory(), (Automaton<BooleanCell, BooleanState>) automaton) == null) {
+                LOGGER.info("No checkpoint found for configuration {}", configuration.getId());
             }
+        } catch (IllegalArgumentException e) {
+            LOGGER.warn("Checkpoint does not match the current grid: {}", e.getMessage());
+        }
+        gridChanged();
+        if (wasRunning) {
+            automaton.resume();
         } else {
-            throw new IllegalStateException("Screen capture is only supported with SwingTerminalFrame");
+            redraw();
         }
     }
 
@@ -842,7 +1289,7 @@ public class ViewEngine<C extends Cell<S>, S extends CellState<?>> {
     }
 
     /**
-     * Returns the width (number of columns) of the grid and terminal.
+     * Returns the width (number of columns) of the terminal.
      *
      * @return the width
      */
@@ -851,7 +1298,7 @@ public class ViewEngine<C extends Cell<S>, S extends CellState<?>> {
     }
 
     /**
-     * Returns the height (number of rows) of the grid and terminal.
+     * Returns the height (number of rows) of the terminal.
      *
      * @return the height
      */
@@ -859,6 +1306,33 @@ public class ViewEngine<C extends Cell<S>, S extends CellState<?>> {
         return height;
     }
 
+    /**
+     * Returns the width (number of columns) of the grid.
+     *
+     * @return the grid width
+     */
+    public int getGridWidth() {
+        return gridWidth;
+    }
+
+    /**
+     * Returns the height (number of rows) of the grid.
+     *
+     * @return the grid height
+     */
+    public int getGridHeight() {
+        return gridHeight;
+    }
+
+    /**
+     * Returns the viewport mapping the terminal onto the grid.
+     *
+     * @return the {@link Viewport}
+     */
+    public Viewport getViewport() {
+        return viewport;
+    }
+
     /**
      * Returns the configuration defining the automaton's setup and behavior.
      *
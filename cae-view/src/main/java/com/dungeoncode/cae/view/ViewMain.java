@@ -0,0 +1,148 @@
+package com.dungeoncode.cae.view;
+
+import com.dungeoncode.cae.automa.ConfBriansBrain;
+import com.dungeoncode.cae.automa.ConfLenia;
+import com.dungeoncode.cae.automa.Configurations;
+import com.dungeoncode.cae.core.Cell;
+import com.dungeoncode.cae.core.CellState;
+import com.dungeoncode.cae.core.Configuration;
+import com.dungeoncode.cae.core.Repository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.annotation.Nonnull;
+import java.util.Objects;
+
+/**
+ * Main entry point for the Cellular Automata application. Initializes the terminal environment,
+ * manages configuration selection, and launches simulations. Repeatedly displays the configuration
+ * selection screen until the application terminates.
+ */
+public class ViewMain {
+
+    /** Logger for application events and errors. */
+    private static final Logger LOGGER = LoggerFactory.getLogger(ViewMain.class);
+
+    /** The pixel width of the simulation window. */
+    private static final int WINDOW_WIDTH = 1080;
+
+    /** The pixel height of the simulation window. */
+    private static final int WINDOW_HEIGHT = 720;
+
+    /** The font size of simulation cells, the pixel size of one cell at zoom level 0. */
+    private static final int CELL_FONT_SIZE = 4;
+
+    /** The width of simulated grids; defaults to the number of cells the window shows at zoom level 0. */
+    private static int gridWidth = WINDOW_WIDTH / CELL_FONT_SIZE;
+
+    /** The height of simulated grids; defaults to the number of cells the window shows at zoom level 0. */
+    private static int gridHeight = WINDOW_HEIGHT / CELL_FONT_SIZE;
+
+    /** The view for selecting automaton configurations. */
+    private static View view;
+
+    /** Flag indicating whether the application is running. */
+    static boolean running;
+
+    /**
+     * Starts the Cellular Automata application. Initializes the configuration repository,
+     * creates a selection view, and enters a loop to display the selection screen and launch
+     * simulations until termination.
+     * <p>
+     * The grid size is independent of the window: {@code -W/--width} and {@code -H/--height} set the number of
+     * columns and rows of the grid, which the window shows through a pannable, zoomable viewport. Without them the
+     * grid fills the window at zoom level 0.
+     *
+     * @param args command-line arguments: optional {@code -W <columns>} and {@code -H <rows>}
+     * @throws RuntimeException if initialization or execution fails
+     */
+    @SuppressWarnings("rawtypes")
+    public static void main(String[] args) {
+        try {
+            parseArguments(args);
+        } catch (IllegalArgumentException e) {
+            System.err.println("error: " + e.getMessage());
+            System.err.println("usage: ViewMain [-W|--width <columns>] [-H|--height <rows>]");
+            System.exit(2);
+            return;
+        }
+        try {
+            // The viewer renders any cell type, so it also offers the multi-state and continuous automata
+            Repository repository = Configurations.createRepository();
+            repository.addConfiguration(new ConfBriansBrain());
+            repository.addConfiguration(new ConfLenia());
+
+            running = true;
+            view = new View(repository);
+            while (running) {
+                setup(repository);
+            }
+        } catch (Exception e) {
+            LOGGER.error("Application error: {}", e.getMessage(), e);
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Displays the configuration selection view and launches the simulation for the selected
+     * configuration. Exits the application if no configuration is chosen.
+     *
+     * @param repository the {@link Repository} of configurations, must not be null
+     * @throws NullPointerException if repository is null
+     */
+    @SuppressWarnings("rawtypes")
+    private static void setup(@Nonnull Repository repository) {
+        Objects.requireNonNull(repository, "Repository cannot be null");
+        view.setup();
+        if (view.getSelectedConfId() > -1) {
+            Configuration conf = view.getSelectedConfiguration();
+            ViewEngine<Cell<CellState<?>>, CellState<?>> viewEngine =
+                    new ViewEngine<>(WINDOW_WIDTH, WINDOW_HEIGHT, CELL_FONT_SIZE, gridWidth, gridHeight,
+                            repository.getConfigurations(), conf);
+            viewEngine.run();
+        } else {
+            System.exit(0);
+        }
+    }
+
+    /**
+     * Parses the command-line arguments into the grid size.
+     *
+     * @param args the arguments
+     * @throws IllegalArgumentException if an argument is unknown, missing its value, or not a positive number
+     */
+    static void parseArguments(String[] args) {
+        for (int i = 0; i < args.length; i++) {
+            String arg = args[i];
+            switch (arg) {
+                case "-W", "--width" -> gridWidth = parseSize(args, ++i, arg);
+                case "-H", "--height" -> gridHeight = parseSize(args, ++i, arg);
+                default -> throw new IllegalArgumentException("Unknown option: " + arg);
+            }
+        }
+    }
+
+    /**
+     * Parses the value of a size option.
+     *
+     * @param args   the arguments
+     * @param i      the index of the value
+     * @param option the option name, for the error message
+     * @return the size
+     * @throws IllegalArgumentException if the value is missing or not a positive number
+     */
+    private static int parseSize(String[] args, int i, String option) {
+        if (i >= args.length) {
+            throw new IllegalArgumentException("Missing value for " + option);
+        }
+        try {
+            int size = Integer.parseInt(args[i]);
+            if (size <= 0) {
+                throw new IllegalArgumentException("Size must be positive for " + option + ": " + size);
+            }
+            return size;
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid number for " + option + ": " + args[i]);
+        }
+    }
+}
\ No newline at end of file
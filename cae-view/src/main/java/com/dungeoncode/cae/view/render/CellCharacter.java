@@ -54,4 +54,18 @@ public class CellCharacter extends TextCharacter {
             );
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * Returns the packed 24-bit RGB color painted by a rendered character. Reverse-style characters, as produced by
+     * {@link #fromColor(TextColor)}, paint their foreground color; others paint their background color.
+     *
+     * @param character the rendered character, must not be null
+     * @return the packed RGB value, 0 if the character has no color
+     * @throws NullPointerException if character is null
+     */
+    public static int rgbOf(@Nonnull TextCharacter character) {
+        Objects.requireNonNull(character, "Character cannot be null");
+        TextColor color = character.isReversed() ? character.getForegroundColor() : character.getBackgroundColor();
+        return color == null ? 0 : (color.getRed() << 16) | (color.getGreen() << 8) | color.getBlue();
+    }
+}
@@ -0,0 +1,164 @@
+package com.dungeoncode.cae.view.render;
+
+import com.dungeoncode.cae.core.impl.BooleanState;
+
+import javax.annotation.Nonnull;
+import java.awt.image.DataBuffer;
+import java.awt.image.IndexColorModel;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * A precomputed lookup table from boolean cell states to the colors of a {@link StateRenderer}, for drawing images
+ * without rendering a {@link BooleanState} per cell.
+ * <p>
+ * States are reduced to a small code of value, echo flag, live sum and id, with live sums and ids clamped to
+ * {@link #MAX_LIVE_SUM} and {@link #MAX_ID}; the bundled renderers color all larger live sums and ids alike. Every code
+ * is rendered once when the table is built, so the table keeps the colors of the palette and inversion active at
+ * that time. The distinct colors form an indexed palette of at most 256 entries.
+ */
+public final class ColorTable {
+
+    /**
+     * The largest live sum told apart; larger live sums map to this one.
+     */
+    public static final int MAX_LIVE_SUM = 15;
+
+    /**
+     * The largest id told apart; larger ids map to this one.
+     */
+    public static final int MAX_ID = 15;
+
+    /**
+     * The number of state codes.
+     */
+    private static final int CODES = 4 * (MAX_LIVE_SUM + 1) * (MAX_ID + 1);
+
+    /**
+     * The palette index of every state code.
+     */
+    private final byte[] indices;
+
+    /**
+     * The distinct colors as packed 24-bit RGB values.
+     */
+    private final int[] palette;
+
+    /**
+     * Constructs a table.
+     *
+     * @param indices the palette index of every state code
+     * @param palette the distinct colors
+     */
+    private ColorTable(byte[] indices, int[] palette) {
+        this.indices = indices;
+        this.palette = palette;
+    }
+
+    /**
+     * Builds the table of a renderer by rendering every state code once.
+     *
+     * @param stateRenderer the renderer, must not be null
+     * @return the table
+     * @throws NullPointerException     if stateRenderer is null
+     * @throws IllegalArgumentException if the renderer uses more than 256 colors
+     */
+    public static ColorTable of(@Nonnull StateRenderer<BooleanState> stateRenderer) {
+        Objects.requireNonNull(stateRenderer, "State renderer cannot be null");
+        byte[] indices = new byte[CODES];
+        Map<Integer, Integer> colors = new HashMap<>();
+        int[] palette = new int[256];
+        synchronized (stateRenderer) {
+            for (int code = 0; code < CODES; code++) {
+                BooleanState state = new BooleanState((code & 1) != 0, (code & 2) != 0,
+                        (code >>> 2) & MAX_LIVE_SUM, code >>> 6);
+                int rgb = CellCharacter.rgbOf(stateRenderer.render(state));
+                Integer index = colors.get(rgb);
+                if (index == null) {
+                    if (colors.size() == palette.length) {
+                        throw new IllegalArgumentException("Renderer uses more than " + palette.length + " colors");
+                    }
+                    index = colors.size();
+                    colors.put(rgb, index);
+                    palette[index] = rgb;
+                }
+                indices[code] = (byte) (int) index;
+            }
+        }
+        return new ColorTable(indices, Arrays.copyOf(palette, colors.size()));
+    }
+
+    /**
+     * Returns the code of a state.
+     *
+     * @param value   the cell value
+     * @param echo    the echo flag
+     * @param liveSum the live sum, clamped to 0..{@value #MAX_LIVE_SUM}
+     * @param id      the id, clamped to 0..{@value #MAX_ID}
+     * @return the code
+     */
+    public static int code(boolean value, boolean echo, int liveSum, int id) {
+        return (value ? 1 : 0) | (echo ? 2 : 0) | Math.min(MAX_LIVE_SUM, Math.max(0, liveSum)) << 2
+                | Math.min(MAX_ID, Math.max(0, id)) << 6;
+    }
+
+    /**
+     * Returns the palette index of a state code.
+     *
+     * @param code the code, as returned by {@link #code(boolean, boolean, int, int)}
+     * @return the palette index
+     */
+    public int indexOf(int code) {
+        return indices[code] & 0xFF;
+    }
+
+    /**
+     * Returns the palette index of a state.
+     *
+     * @param state the state, must not be null
+     * @return the palette index
+     */
+    public int indexOf(@Nonnull BooleanState state) {
+        return indexOf(code(state.getValue(), state.isEcho(), state.getLiveSum(), state.getId()));
+    }
+
+    /**
+     * Returns the ARGB color of a state code, fully opaque.
+     *
+     * @param code the code
+     * @return the ARGB color
+     */
+    public int argbOf(int code) {
+        return 0xFF000000 | palette[indexOf(code)];
+    }
+
+    /**
+     * Returns a copy of the palette.
+     *
+     * @return the distinct colors as packed 24-bit RGB values, by palette index
+     */
+    public int[] getPalette() {
+        return palette.clone();
+    }
+
+    /**
+     * Returns the number of distinct colors.
+     *
+     * @return the palette size
+     */
+    public int getColorCount() {
+        return palette.length;
+    }
+
+    /**
+     * Returns an 8-bit color model of the palette, for indexed {@link java.awt.image.BufferedImage}s.
+     *
+     * @return the color model
+     */
+    public IndexColorModel toColorModel() {
+        int[] colors = Arrays.copyOf(palette, Math.max(2, palette.length));
+        return new IndexColorModel(8, colors.length, colors, 0, false, -1, DataBuffer.TYPE_BYTE);
+    }
+}
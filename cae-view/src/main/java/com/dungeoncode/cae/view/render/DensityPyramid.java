@@ -0,0 +1,296 @@
+package com.dungeoncode.cae.view.render;
+
+import com.dungeoncode.cae.core.Cell;
+import com.dungeoncode.cae.core.CellState;
+import com.dungeoncode.cae.core.ChangeSet;
+import com.dungeoncode.cae.core.Grid;
+import com.dungeoncode.cae.core.impl.packed.OffHeapPlane;
+import com.dungeoncode.cae.core.impl.packed.PackedBooleanGrid;
+
+import javax.annotation.Nonnull;
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * An incrementally maintained mipmap pyramid of live-cell counts over a {@link Grid}. Level 0 is a bit set holding the
+ * last seen value of each cell; level k (k &ge; 1) holds the number of live cells in each aligned block of
+ * 2<sup>k</sup> x 2<sup>k</sup> cells. When a grid dimension is not a multiple of 2<sup>k</sup>, the last block of each
+ * row or column is clamped to the grid edge and covers fewer cells (see {@link #getArea(int, int, int)}); blocks never
+ * wrap around the torus. A cell is considered live when its state value is {@link Boolean#TRUE}.
+ * <p>
+ * {@link #update(Grid)} compares the grid against level 0 and propagates only the cells that changed up the pyramid,
+ * at a cost of O(levels) per changed cell. The comparison reads a {@link PackedBooleanGrid} a 64-bit word at a time
+ * from its value plane. Once the pyramid is fed the {@link ChangeSet} of every generation through
+ * {@link #markChanged(ChangeSet)}, only the words holding marked cells are compared, so an update scales with the
+ * number of changes rather than the grid size; edits made outside the step loop must then be reported with
+ * {@link #invalidate()}. Rendering a zoomed-out {@link Viewport} then reads one entry per screen character, independent of the grid size.
+ */
+public class DensityPyramid {
+
+    /**
+     * The number of columns of the grid.
+     */
+    private final int width;
+
+    /**
+     * The number of rows of the grid.
+     */
+    private final int height;
+
+    /**
+     * The number of 64-bit words per row of the level 0 bit set.
+     */
+    private final int wordsPerRow;
+
+    /**
+     * The last seen cell values, one bit per cell, in row-major order.
+     */
+    private final long[] values;
+
+    /**
+     * The cells that may have changed since the previous update, with the same layout as {@link #values}. Only used
+     * once change sets are fed to the pyramid.
+     */
+    private final long[] dirty;
+
+    /**
+     * The mask of the valid bits of the last word of each row.
+     */
+    private final long lastWordMask;
+
+    /**
+     * Whether change sets are fed to the pyramid, so that updates only compare the words marked in {@link #dirty}.
+     */
+    private boolean tracked;
+
+    /**
+     * Whether every cell must be compared on the next update, regardless of {@link #dirty}.
+     */
+    private boolean allDirty = true;
+
+    /**
+     * Live-cell counts per block, indexed as [level][blockRow * levelWidth + blockColumn]; index 0 is unused.
+     */
+    private final int[][] counts;
+
+    /**
+     * Constructs an empty pyramid for a grid of the given size with the given number of levels above level 0.
+     *
+     * @param width  the number of columns of the grid, must be positive
+     * @param height the number of rows of the grid, must be positive
+     * @param levels the number of aggregated levels (level 1 to {@code levels}), must be non-negative
+     * @throws IllegalArgumentException if a dimension is not positive or levels is negative
+     */
+    public DensityPyramid(int width, int height, int levels) {
+        if (width <= 0 || height <= 0) {
+            throw new IllegalArgumentException("Width and height must be positive: width=" + width + ", height=" + height);
+        }
+        if (levels < 0) {
+            throw new IllegalArgumentException("Levels cannot be negative: " + levels);
+        }
+        this.width = width;
+        this.height = height;
+        this.wordsPerRow = (width + 63) >>> 6;
+        this.values = new long[wordsPerRow * height];
+        this.dirty = new long[wordsPerRow * height];
+        this.lastWordMask = -1L >>> (-width & 63);
+        this.counts = new int[levels + 1][];
+        for (int level = 1; level <= levels; level++) {
+            counts[level] = new int[getLevelWidth(level) * getLevelHeight(level)];
+        }
+    }
+
+    /**
+     * Records the cells of a generation's change set as candidates for the next update and switches the pyramid to
+     * tracked updates. Change sets of successive generations accumulate until the next {@link #update(Grid)}, so
+     * generations that are not rendered are not lost. The change set is only read during the call.
+     *
+     * @param changes the {@link ChangeSet} of a generation, must not be null and must match the pyramid dimensions
+     * @throws NullPointerException     if changes is null
+     * @throws IllegalArgumentException if the change set dimensions do not match
+     */
+    public void markChanged(@Nonnull ChangeSet changes) {
+        Objects.requireNonNull(changes, "Change set cannot be null");
+        if (changes.getWidth() != width || changes.getHeight() != height) {
+            throw new IllegalArgumentException("Change set size " + changes.getWidth() + "x" + changes.getHeight()
+                    + " does not match pyramid size " + width + "x" + height);
+        }
+        tracked = true;
+        if (allDirty || changes.isEmpty()) {
+            return;
+        }
+        if (changes.isFull()) {
+            allDirty = true;
+            return;
+        }
+        changes.forEachSpan(this::markSpan);
+    }
+
+    /**
+     * Marks a horizontal span of cells as candidates for the next update.
+     *
+     * @param y      the row
+     * @param x      the first column of the span
+     * @param length the number of cells in the span
+     */
+    private void markSpan(int y, int x, int length) {
+        int rowBase = y * wordsPerRow;
+        int end = x + length;
+        while (x < end) {
+            int bits = Math.min(64 - (x & 63), end - x);
+            long mask = bits == 64 ? -1L : ((1L << bits) - 1) << x;
+            dirty[rowBase + (x >>> 6)] |= mask;
+            x += bits;
+        }
+    }
+
+    /**
+     * Marks every cell as a candidate for the next update, for example after the grid was edited or replaced outside
+     * the step loop.
+     */
+    public void invalidate() {
+        allDirty = true;
+    }
+
+    /**
+     * Brings the pyramid up to date with the specified grid, propagating only the cells whose value changed since
+     * the previous update. Before any change set was fed, or after {@link #invalidate()}, every cell is compared;
+     * otherwise only the cells marked by {@link #markChanged(ChangeSet)} are.
+     *
+     * @param grid the {@link Grid} to read, must not be null and must match the pyramid dimensions
+     * @return the number of cells that changed since the previous update
+     * @throws NullPointerException     if grid is null
+     * @throws IllegalArgumentException if the grid dimensions do not match
+     */
+    public <C extends Cell<S>, S extends CellState<?>> int update(@Nonnull Grid<C, S> grid) {
+        Objects.requireNonNull(grid, "Grid cannot be null");
+        if (grid.getWidth() != width || grid.getHeight() != height) {
+            throw new IllegalArgumentException("Grid size " + grid.getWidth() + "x" + grid.getHeight()
+                    + " does not match pyramid size " + width + "x" + height);
+        }
+        boolean all = allDirty || !tracked;
+        OffHeapPlane plane = grid instanceof PackedBooleanGrid packed ? packed.getValuePlane() : null;
+        int changed = 0;
+        for (int y = 0; y < height; y++) {
+            int rowBase = y * wordsPerRow;
+            for (int w = 0; w < wordsPerRow; w++) {
+                int index = rowBase + w;
+                long candidates = all ? -1L : dirty[index];
+                if (w == wordsPerRow - 1) {
+                    candidates &= lastWordMask;
+                }
+                if (candidates == 0) {
+                    continue;
+                }
+                long word = plane != null ? plane.getWord(w, y) : readWord(grid, w, y, candidates);
+                long diff = (word ^ values[index]) & candidates;
+                values[index] ^= diff;
+                changed += Long.bitCount(diff);
+                while (diff != 0) {
+                    long bit = Long.lowestOneBit(diff);
+                    propagate((w << 6) + Long.numberOfTrailingZeros(bit), y, (word & bit) != 0 ? 1 : -1);
+                    diff ^= bit;
+                }
+            }
+        }
+        if (tracked) {
+            Arrays.fill(dirty, 0L);
+        }
+        allDirty = false;
+        return changed;
+    }
+
+    /**
+     * Reads the values of the candidate cells of one word of a row from a grid without a bit plane. A cell is live
+     * when its state value is {@link Boolean#TRUE}.
+     *
+     * @param grid       the {@link Grid} to read
+     * @param w          the word index within the row
+     * @param y          the row
+     * @param candidates the cells to read, bit {@code i} for column {@code 64 * w + i}
+     * @return the word holding the live candidate cells
+     */
+    private <C extends Cell<S>, S extends CellState<?>> long readWord(Grid<C, S> grid, int w, int y,
+                                                                      long candidates) {
+        long word = 0L;
+        while (candidates != 0) {
+            long bit = Long.lowestOneBit(candidates);
+            int x = (w << 6) + Long.numberOfTrailingZeros(bit);
+            if (Boolean.TRUE.equals(grid.getCell(x, y).getState().getValue())) {
+                word |= bit;
+            }
+            candidates ^= bit;
+        }
+        return word;
+    }
+
+    /**
+     * Applies a change of one cell to every aggregated level.
+     *
+     * @param x     the column of the changed cell
+     * @param y     the row of the changed cell
+     * @param delta +1 if the cell became live, -1 if it became dead
+     */
+    private void propagate(int x, int y, int delta) {
+        for (int level = 1; level < counts.length; level++) {
+            counts[level][(y >> level) * getLevelWidth(level) + (x >> level)] += delta;
+        }
+    }
+
+    /**
+     * Returns the number of live cells in the block at the given level and block coordinates.
+     *
+     * @param level the pyramid level, between 1 and {@link #getLevels()}
+     * @param bx    the block column at that level
+     * @param by    the block row at that level
+     * @return the live-cell count of the block
+     */
+    public int getCount(int level, int bx, int by) {
+        return counts[level][by * getLevelWidth(level) + bx];
+    }
+
+    /**
+     * Returns the number of grid cells covered by the block at the given level and block coordinates, accounting for
+     * partial blocks along the right and bottom edges of the grid.
+     *
+     * @param level the pyramid level
+     * @param bx    the block column at that level
+     * @param by    the block row at that level
+     * @return the number of cells in the block
+     */
+    public int getArea(int level, int bx, int by) {
+        int size = 1 << level;
+        int w = Math.min(size, width - bx * size);
+        int h = Math.min(size, height - by * size);
+        return w * h;
+    }
+
+    /**
+     * Returns the number of block columns at the given level.
+     *
+     * @param level the pyramid level
+     * @return the level width
+     */
+    public int getLevelWidth(int level) {
+        return ((width - 1) >> level) + 1;
+    }
+
+    /**
+     * Returns the number of block rows at the given level.
+     *
+     * @param level the pyramid level
+     * @return the level height
+     */
+    public int getLevelHeight(int level) {
+        return ((height - 1) >> level) + 1;
+    }
+
+    /**
+     * Returns the number of aggregated levels above level 0.
+     *
+     * @return the number of levels
+     */
+    public int getLevels() {
+        return counts.length - 1;
+    }
+}
@@ -0,0 +1,560 @@
+package com.dungeoncode.cae.view.render;
+
+import com.dungeoncode.cae.core.FramePublisher;
+import com.dungeoncode.cae.core.impl.BooleanFrame;
+import com.dungeoncode.cae.core.impl.BooleanState;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.annotation.Nonnull;
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageTypeSpecifier;
+import javax.imageio.ImageWriter;
+import javax.imageio.metadata.IIOMetadata;
+import javax.imageio.metadata.IIOMetadataNode;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferByte;
+import java.awt.image.Raster;
+import java.awt.image.WritableRaster;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Records generation frames as a PNG sequence or an animated GIF, encoding in the background so that neither the
+ * simulation nor the user interface waits for image encoding or disk I/O.
+ * <p>
+ * The recorder subscribes to a {@link FramePublisher} of {@link BooleanFrame}s, which are copied from the grid state on
+ * the stepping thread, not painted from the terminal. At most {@link #getQueueSize()} frames are requested at a time;
+ * a pool of encoder threads maps each frame through a {@link ColorTable} of the {@link StateRenderer} colors into an
+ * indexed image, scaling every cell to a square of pixels. PNG frames are written in parallel by a
+ * {@link GridImageExporter}, one file per frame; GIF frames are appended to a single file in order by a dedicated
+ * writer thread. Subscribe with {@link FramePublisher.Policy#DROP} and the
+ * publisher drops frames while all encoders are busy, so a recording bounds its memory instead of stalling the run.
+ * <p>
+ * Recording ends after {@code maxFrames} frames, when the publisher completes, or on {@link #stop()}; pending frames are
+ * still written, and {@link #getCompletion()} completes once the last file is closed. Cell colors are taken from the
+ * state renderer when the recorder is created and kept for the whole recording.
+ */
+public class FrameRecorder implements Flow.Subscriber<BooleanFrame> {
+
+    /**
+     * The output formats.
+     */
+    public enum Format {
+        /**
+         * One PNG file per frame, named {@code <prefix>-<index>.png} with a six-digit frame index.
+         */
+        PNG,
+        /**
+         * A single looping animated GIF named {@code <prefix>.gif}.
+         */
+        GIF
+    }
+
+    /**
+     * The default delay between GIF frames, in milliseconds.
+     */
+    public static final int DEFAULT_FRAME_DELAY_MILLIS = 100;
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(FrameRecorder.class);
+
+    /**
+     * The directory the images are written to.
+     */
+    private final Path directory;
+
+    /**
+     * The file name prefix of the images.
+     */
+    private final String prefix;
+
+    /**
+     * The output format.
+     */
+    private final Format format;
+
+    /**
+     * The colors of the cell states.
+     */
+    private final ColorTable colorTable;
+
+    /**
+     * The PNG exporter, encoding each frame on a single encoder thread.
+     */
+    private final GridImageExporter exporter;
+
+    /**
+     * The size in pixels of the square drawn for each cell.
+     */
+    private final int scale;
+
+    /**
+     * The maximum number of frames to record.
+     */
+    private final long maxFrames;
+
+    /**
+     * The maximum number of frames requested but not yet written.
+     */
+    private final int queueSize;
+
+    /**
+     * The threads that turn frames into images, and write PNG files.
+     */
+    private final ExecutorService encoders;
+
+    /**
+     * The thread that appends GIF frames in order, or null for PNG sequences.
+     */
+    private final ExecutorService gifWriter;
+
+    /**
+     * Completes when the recording has ended and every file is closed.
+     */
+    private final CompletableFuture<Void> completion = new CompletableFuture<>();
+
+    /**
+     * The number of frames written.
+     */
+    private final AtomicInteger frameCount = new AtomicInteger();
+
+    /**
+     * The delay between GIF frames, in milliseconds.
+     */
+    private int frameDelayMillis = DEFAULT_FRAME_DELAY_MILLIS;
+
+    /**
+     * The subscription frames arrive through, null before subscribing.
+     */
+    private Flow.Subscription subscription;
+
+    /**
+     * The number of frames received.
+     */
+    private long received;
+
+    /**
+     * The number of frames received but not yet written.
+     */
+    private int pending;
+
+    /**
+     * Whether no more frames are accepted.
+     */
+    private boolean ending;
+
+    /**
+     * The first error, or null.
+     */
+    private Throwable failure;
+
+    /**
+     * The GIF frames written so far, chained so that they are appended in order.
+     */
+    private CompletableFuture<Void> gifChain = CompletableFuture.completedFuture(null);
+
+    /**
+     * The GIF image writer, opened with the first frame; only used on the GIF writer thread.
+     */
+    private ImageWriter imageWriter;
+
+    /**
+     * The GIF output stream, opened with the first frame; only used on the GIF writer thread.
+     */
+    private ImageOutputStream imageOutput;
+
+    /**
+     * Constructs a recorder encoding on one thread per available processor, minus one for the simulation.
+     *
+     * @param directory     the directory to write to, created if missing, must not be null
+     * @param prefix        the file name prefix, must not be null
+     * @param format        the output format, must not be null
+     * @param stateRenderer the renderer that defines the color of each state, must not be null
+     * @param scale         the size in pixels of each cell, must be positive
+     * @param maxFrames     the maximum number of frames to record, must be positive
+     * @throws NullPointerException     if directory, prefix, format or stateRenderer is null
+     * @throws IllegalArgumentException if scale or maxFrames is not positive, or the renderer uses more than 256
+     *                                  colors
+     * @throws IOException              if the directory cannot be created
+     */
+    public FrameRecorder(@Nonnull Path directory, @Nonnull String prefix, @Nonnull Format format,
+                         @Nonnull StateRenderer<BooleanState> stateRenderer, int scale, long maxFrames)
+            throws IOException {
+        this.directory = Objects.requireNonNull(directory, "Directory cannot be null");
+        this.prefix = Objects.requireNonNull(prefix, "Prefix cannot be null");
+        this.format = Objects.requireNonNull(format, "Format cannot be null");
+        Objects.requireNonNull(stateRenderer, "State renderer cannot be null");
+        if (scale <= 0) {
+            throw new IllegalArgumentException("Scale must be positive: " + scale);
+        }
+        if (maxFrames <= 0) {
+            throw new IllegalArgumentException("Maximum frames must be positive: " + maxFrames);
+        }
+        Files.createDirectories(directory);
+        this.scale = scale;
+        this.maxFrames = maxFrames;
+        this.colorTable = ColorTable.of(stateRenderer);
+        this.exporter = new GridImageExporter(colorTable, scale);
+        exporter.setParallel(false);
+        int threads = Math.max(1, Runtime.getRuntime().availableProcessors() - 1);
+        this.queueSize = 2 * threads;
+        this.encoders = Executors.newFixedThreadPool(threads, task -> {
+            Thread thread = new Thread(task, "cae-frame-encoder");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.gifWriter = format == Format.GIF ? Executors.newSingleThreadExecutor(task -> {
+            Thread thread = new Thread(task, "cae-gif-writer");
+            thread.setDaemon(true);
+            return thread;
+        }) : null;
+    }
+
+    /**
+     * Requests the first batch of frames.
+     *
+     * @param subscription the subscription
+     */
+    @Override
+    public synchronized void onSubscribe(Flow.Subscription subscription) {
+        if (this.subscription != null || ending) {
+            subscription.cancel();
+            return;
+        }
+        this.subscription = subscription;
+        subscription.request((long) Math.min(queueSize, maxFrames));
+    }
+
+    /**
+     * Hands a frame to the encoders.
+     *
+     * @param frame the frame
+     */
+    @Override
+    public synchronized void onNext(BooleanFrame frame) {
+        if (ending) {
+            return;
+        }
+        long index = received++;
+        pending++;
+        CompletableFuture<Void> written;
+        if (format == Format.PNG) {
+            written = CompletableFuture.runAsync(() -> writePng(frame, index), encoders);
+        } else {
+            CompletableFuture<BufferedImage> image = CompletableFuture.supplyAsync(() -> render(frame), encoders);
+            written = gifChain.thenCombineAsync(image, (previous, img) -> {
+                writeGif(img, index == 0);
+                return null;
+            }, gifWriter);
+            gifChain = written.exceptionally(e -> null);
+        }
+        written.whenComplete((ignored, error) -> frameWritten(error));
+        if (received >= maxFrames) {
+            subscription.cancel();
+            end(null);
+        }
+    }
+
+    /**
+     * Ends the recording after an error of the publisher.
+     *
+     * @param throwable the error
+     */
+    @Override
+    public void onError(Throwable throwable) {
+        end(throwable);
+    }
+
+    /**
+     * Ends the recording when the publisher completes.
+     */
+    @Override
+    public void onComplete() {
+        end(null);
+    }
+
+    /**
+     * Stops recording: no more frames are accepted, and the frames already received are still written.
+     */
+    public synchronized void stop() {
+        if (subscription != null) {
+            subscription.cancel();
+        }
+        end(null);
+    }
+
+    /**
+     * Records the end of a frame and requests the next one.
+     *
+     * @param error the error that prevented writing the frame, or null
+     */
+    private synchronized void frameWritten(Throwable error) {
+        pending--;
+        if (error != null) {
+            if (failure == null) {
+                failure = error instanceof CompletionException && error.getCause() != null
+                        ? error.getCause() : error;
+                LOGGER.error("Failed to record frame: {}", failure.getMessage(), failure);
+            }
+            if (subscription != null) {
+                subscription.cancel();
+            }
+            ending = true;
+        } else {
+            frameCount.incrementAndGet();
+            if (!ending) {
+                subscription.request(1);
+            }
+        }
+        if (ending && pending == 0) {
+            finish();
+        }
+    }
+
+    /**
+     * Stops accepting frames, finishing the recording once pending frames are written.
+     *
+     * @param error the error that ended the recording, or null
+     */
+    private synchronized void end(Throwable error) {
+        if (error != null && failure == null) {
+            failure = error;
+        }
+        if (ending) {
+            return;
+        }
+        ending = true;
+        if (pending == 0) {
+            finish();
+        }
+    }
+
+    /**
+     * Closes the GIF file, if any, releases the threads and completes the recording.
+     */
+    private void finish() {
+        if (completion.isDone()) {
+            return;
+        }
+        CompletableFuture<Void> closed = gifWriter == null
+                ? CompletableFuture.completedFuture(null)
+                : CompletableFuture.runAsync(this::closeGif, gifWriter);
+        closed.whenComplete((ignored, error) -> {
+            encoders.shutdown();
+            if (gifWriter != null) {
+                gifWriter.shutdown();
+            }
+            Throwable cause;
+            synchronized (this) {
+                if (error != null && failure == null) {
+                    failure = error.getCause() != null ? error.getCause() : error;
+                }
+                cause = failure;
+            }
+            if (cause != null) {
+                completion.completeExceptionally(cause);
+            } else {
+                LOGGER.info("Recorded {} frames to {}", frameCount.get(), format == Format.GIF
+                        ? directory.resolve(prefix + ".gif") : directory);
+                completion.complete(null);
+            }
+        });
+    }
+
+    /**
+     * Maps a frame to an indexed image, drawing each cell as a square of {@link #scale} pixels.
+     *
+     * @param frame the frame
+     * @return the image
+     */
+    private BufferedImage render(BooleanFrame frame) {
+        int width = frame.getWidth();
+        int height = frame.getHeight();
+        int imageWidth = Math.multiplyExact(width, scale);
+        int imageHeight = Math.multiplyExact(height, scale);
+        byte[] pixels = new byte[Math.multiplyExact(imageWidth, imageHeight)];
+        byte[] row = new byte[imageWidth];
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                byte index = (byte) colorTable.indexOf(ColorTable.code(frame.getValue(x, y), frame.isEcho(x, y),
+                        frame.getLiveSum(x, y), frame.getId(x, y)));
+                Arrays.fill(row, x * scale, (x + 1) * scale, index);
+            }
+            for (int i = 0; i < scale; i++) {
+                System.arraycopy(row, 0, pixels, (y * scale + i) * imageWidth, imageWidth);
+            }
+        }
+        WritableRaster raster = Raster.createInterleavedRaster(new DataBufferByte(pixels, pixels.length),
+                imageWidth, imageHeight, imageWidth, 1, new int[]{0}, null);
+        return new BufferedImage(colorTable.toColorModel(), raster, false, null);
+    }
+
+    /**
+     * Writes a frame as a PNG file. Runs on an encoder thread.
+     *
+     * @param frame the frame
+     * @param index the frame index
+     */
+    private void writePng(BooleanFrame frame, long index) {
+        Path file = directory.resolve(String.format("%s-%06d.png", prefix, index));
+        try {
+            exporter.export(frame, file);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to write " + file, e);
+        }
+    }
+
+    /**
+     * Appends a frame to the GIF file, opening it with the first frame. Runs on the GIF writer thread.
+     *
+     * @param image the image
+     * @param first whether this is the first frame
+     */
+    private void writeGif(BufferedImage image, boolean first) {
+        Path file = directory.resolve(prefix + ".gif");
+        try {
+            if (first) {
+                Iterator<ImageWriter> writers = ImageIO.getImageWritersByFormatName("gif");
+                if (!writers.hasNext()) {
+                    throw new IOException("No GIF writer available");
+                }
+                Files.deleteIfExists(file);
+                imageWriter = writers.next();
+                imageOutput = ImageIO.createImageOutputStream(file.toFile());
+                imageWriter.setOutput(imageOutput);
+                imageWriter.prepareWriteSequence(null);
+            }
+            if (imageWriter == null) {
+                return;
+            }
+            IIOMetadata metadata = imageWriter.getDefaultImageMetadata(
+                    ImageTypeSpecifier.createFromRenderedImage(image), null);
+            String name = metadata.getNativeMetadataFormatName();
+            IIOMetadataNode root = (IIOMetadataNode) metadata.getAsTree(name);
+            IIOMetadataNode control = child(root, "GraphicControlExtension");
+            control.setAttribute("disposalMethod", "none");
+            control.setAttribute("userInputFlag", "FALSE");
+            control.setAttribute("transparentColorFlag", "FALSE");
+            control.setAttribute("delayTime", String.valueOf(Math.max(1, frameDelayMillis / 10)));
+            control.setAttribute("transparentColorIndex", "0");
+            if (first) {
+                IIOMetadataNode loop = new IIOMetadataNode("ApplicationExtension");
+                loop.setAttribute("applicationID", "NETSCAPE");
+                loop.setAttribute("authenticationCode", "2.0");
+                loop.setUserObject(new byte[]{1, 0, 0});
+                child(root, "ApplicationExtensions").appendChild(loop);
+            }
+            metadata.setFromTree(name, root);
+            imageWriter.writeToSequence(new IIOImage(image, null, metadata), null);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to write " + file, e);
+        }
+    }
+
+    /**
+     * Finishes and closes the GIF file, if one was opened. Runs on the GIF writer thread.
+     */
+    private void closeGif() {
+        if (imageWriter == null) {
+            return;
+        }
+        try {
+            imageWriter.endWriteSequence();
+            imageOutput.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to close " + directory.resolve(prefix + ".gif"), e);
+        } finally {
+            imageWriter.dispose();
+        }
+    }
+
+    /**
+     * Returns the child node with a name, appending it if missing.
+     *
+     * @param parent the parent node
+     * @param name   the node name
+     * @return the child node
+     */
+    private static IIOMetadataNode child(IIOMetadataNode parent, String name) {
+        for (int i = 0; i < parent.getLength(); i++) {
+            if (parent.item(i).getNodeName().equalsIgnoreCase(name)) {
+                return (IIOMetadataNode) parent.item(i);
+            }
+        }
+        IIOMetadataNode node = new IIOMetadataNode(name);
+        parent.appendChild(node);
+        return node;
+    }
+
+    /**
+     * Sets the delay between GIF frames. Must be called before subscribing.
+     *
+     * @param frameDelayMillis the delay in milliseconds, at least 10
+     * @throws IllegalArgumentException if the delay is less than 10 milliseconds
+     */
+    public void setFrameDelayMillis(int frameDelayMillis) {
+        if (frameDelayMillis < 10) {
+            throw new IllegalArgumentException("Frame delay must be at least 10 ms: " + frameDelayMillis);
+        }
+        this.frameDelayMillis = frameDelayMillis;
+    }
+
+    /**
+     * Returns a future that completes when the recording has ended and every file is written, or completes
+     * exceptionally with the first error.
+     *
+     * @return the completion
+     */
+    public CompletableFuture<Void> getCompletion() {
+        return completion;
+    }
+
+    /**
+     * Returns the number of frames written so far.
+     *
+     * @return the frame count
+     */
+    public int getFrameCount() {
+        return frameCount.get();
+    }
+
+    /**
+     * Returns the maximum number of frames requested but not yet written.
+     *
+     * @return the queue size
+     */
+    public int getQueueSize() {
+        return queueSize;
+    }
+
+    /**
+     * Returns the output format.
+     *
+     * @return the format
+     */
+    public Format getFormat() {
+        return format;
+    }
+
+    /**
+     * Returns the directory the images are written to.
+     *
+     * @return the directory
+     */
+    public Path getDirectory() {
+        return directory;
+    }
+}
@@ -0,0 +1,217 @@
+package com.dungeoncode.cae.view.render;
+
+import com.dungeoncode.cae.core.Grid;
+import com.dungeoncode.cae.core.impl.BooleanCell;
+import com.dungeoncode.cae.core.impl.BooleanFrame;
+import com.dungeoncode.cae.core.impl.BooleanState;
+import com.dungeoncode.cae.core.impl.packed.OffHeapPlane;
+import com.dungeoncode.cae.core.impl.packed.PackedBooleanGrid;
+import com.dungeoncode.cae.core.io.IndexedPngWriter;
+
+import javax.annotation.Nonnull;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * Exports boolean grids and frames as indexed-color PNG images at a fixed number of pixels per cell, independent of
+ * the terminal size and font.
+ * <p>
+ * Cell states are mapped to palette indices through a {@link ColorTable}, and the image is written by an
+ * {@link IndexedPngWriter} in parallel row strips, so exporting a grid far larger than the screen takes seconds and
+ * memory bounded by a few strips. Packed grids are read straight from their planes. The grid must not change while it
+ * is exported.
+ */
+public class GridImageExporter {
+
+    /**
+     * The colors of the cell states.
+     */
+    private final ColorTable colorTable;
+
+    /**
+     * The size in pixels of the square drawn for each cell.
+     */
+    private final int scale;
+
+    /**
+     * The PNG writer.
+     */
+    private final IndexedPngWriter writer = new IndexedPngWriter();
+
+    /**
+     * Constructs an exporter.
+     *
+     * @param colorTable the colors of the cell states, must not be null
+     * @param scale      the size in pixels of each cell, must be positive
+     * @throws NullPointerException     if colorTable is null
+     * @throws IllegalArgumentException if scale is not positive
+     */
+    public GridImageExporter(@Nonnull ColorTable colorTable, int scale) {
+        this.colorTable = Objects.requireNonNull(colorTable, "Color table cannot be null");
+        if (scale <= 0) {
+            throw new IllegalArgumentException("Scale must be positive: " + scale);
+        }
+        this.scale = scale;
+    }
+
+    /**
+     * Exports the current states of a grid.
+     *
+     * @param grid the grid to export, must not be null
+     * @param file the PNG file to write, replacing any existing file, must not be null
+     * @throws NullPointerException     if grid or file is null
+     * @throws IllegalArgumentException if the image would be wider or taller than {@link Integer#MAX_VALUE} pixels
+     * @throws IOException              if an I/O error occurs
+     */
+    public void export(@Nonnull Grid<BooleanCell, BooleanState> grid, @Nonnull Path file) throws IOException {
+        Objects.requireNonNull(grid, "Grid cannot be null");
+        int width = grid.getWidth();
+        CellRows rows;
+        if (grid instanceof PackedBooleanGrid packed) {
+            OffHeapPlane values = packed.getValuePlane();
+            OffHeapPlane echoes = packed.getEchoPlane();
+            OffHeapPlane liveSums = packed.getLiveSumPlane();
+            OffHeapPlane ids = packed.getIdPlane();
+            ThreadLocal<byte[][]> bytes = ThreadLocal.withInitial(() -> new byte[2][width]);
+            rows = (y, indices) -> {
+                byte[][] scratch = bytes.get();
+                if (liveSums != null) {
+                    liveSums.getRow(y, scratch[0], width);
+                }
+                if (ids != null) {
+                    ids.getRow(y, scratch[1], width);
+                }
+                for (int w = 0; w << 6 < width; w++) {
+                    long value = values.getWord(w, y);
+                    long echo = echoes.getWord(w, y);
+                    for (int x = w << 6, end = Math.min(width, x + 64); x < end; x++) {
+                        indices[x] = (byte) colorTable.indexOf(ColorTable.code((value & 1L << x) != 0,
+                                (echo & 1L << x) != 0, scratch[0][x] & 0xFF, scratch[1][x] & 0xFF));
+                    }
+                }
+            };
+        } else {
+            rows = (y, indices) -> {
+                for (int x = 0; x < width; x++) {
+                    indices[x] = (byte) colorTable.indexOf(grid.getCell(x, y).getState());
+                }
+            };
+        }
+        write(file, width, grid.getHeight(), rows);
+    }
+
+    /**
+     * Exports a frame.
+     *
+     * @param frame the frame to export, must not be null
+     * @param file  the PNG file to write, replacing any existing file, must not be null
+     * @throws NullPointerException     if frame or file is null
+     * @throws IllegalArgumentException if the image would be wider or taller than {@link Integer#MAX_VALUE} pixels
+     * @throws IOException              if an I/O error occurs
+     */
+    public void export(@Nonnull BooleanFrame frame, @Nonnull Path file) throws IOException {
+        Objects.requireNonNull(frame, "Frame cannot be null");
+        write(file, frame.getWidth(), frame.getHeight(), (y, indices) -> {
+            for (int x = 0; x < frame.getWidth(); x++) {
+                indices[x] = (byte) colorTable.indexOf(ColorTable.code(frame.getValue(x, y), frame.isEcho(x, y),
+                        frame.getLiveSum(x, y), frame.getId(x, y)));
+            }
+        });
+    }
+
+    /**
+     * Writes the image of a grid of cells, scaling each cell to a square of pixels.
+     *
+     * @param file   the PNG file
+     * @param width  the number of columns
+     * @param height the number of rows
+     * @param rows   the palette indices of the cells of each row
+     * @throws IOException if an I/O error occurs
+     */
+    private void write(Path file, int width, int height, CellRows rows) throws IOException {
+        Objects.requireNonNull(file, "File cannot be null");
+        long imageWidth = (long) width * scale;
+        long imageHeight = (long) height * scale;
+        if (imageWidth > Integer.MAX_VALUE || imageHeight > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Image too large: width=" + imageWidth + ", height=" + imageHeight);
+        }
+        IndexedPngWriter.RowSource source;
+        if (scale == 1) {
+            source = rows::fill;
+        } else {
+            ThreadLocal<ScaledRow> scaled = ThreadLocal.withInitial(() -> new ScaledRow(new byte[width]));
+            source = (y, indices) -> {
+                ScaledRow row = scaled.get();
+                int cellRow = y / scale;
+                if (row.y != cellRow) {
+                    rows.fill(cellRow, row.cells);
+                    row.y = cellRow;
+                }
+                for (int x = 0; x < width; x++) {
+                    Arrays.fill(indices, x * scale, (x + 1) * scale, row.cells[x]);
+                }
+            };
+        }
+        writer.write(file, (int) imageWidth, (int) imageHeight, colorTable.getPalette(), source);
+    }
+
+    /**
+     * Sets whether strips are encoded in parallel. Disable when exporting many images concurrently.
+     *
+     * @param parallel true to encode in parallel
+     */
+    public void setParallel(boolean parallel) {
+        writer.setParallel(parallel);
+    }
+
+    /**
+     * Returns the size in pixels of each cell.
+     *
+     * @return the scale
+     */
+    public int getScale() {
+        return scale;
+    }
+
+    /**
+     * Fills the palette indices of the cells of a grid row.
+     */
+    @FunctionalInterface
+    private interface CellRows {
+
+        /**
+         * Fills the palette indices of a row.
+         *
+         * @param y       the grid row
+         * @param indices the array to fill, one index per cell
+         */
+        void fill(int y, byte[] indices);
+    }
+
+    /**
+     * The last grid row converted by a thread, reused for the image rows it spans.
+     */
+    private static final class ScaledRow {
+
+        /**
+         * The palette indices of the cells.
+         */
+        final byte[] cells;
+
+        /**
+         * The grid row held, or -1.
+         */
+        int y = -1;
+
+        /**
+         * Constructs an empty row.
+         *
+         * @param cells the array of cell indices
+         */
+        ScaledRow(byte[] cells) {
+            this.cells = cells;
+        }
+    }
+}
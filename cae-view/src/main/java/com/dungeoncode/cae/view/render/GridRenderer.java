@@ -0,0 +1,212 @@
+package com.dungeoncode.cae.view.render;
+
+import com.dungeoncode.cae.core.Cell;
+import com.dungeoncode.cae.core.CellState;
+import com.dungeoncode.cae.core.ChangeSet;
+import com.dungeoncode.cae.core.Grid;
+import com.googlecode.lanterna.TextCharacter;
+import com.googlecode.lanterna.graphics.TextGraphics;
+import com.googlecode.lanterna.screen.Screen;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.util.function.Consumer;
+
+/**
+ * A consumer that renders a {@link Grid} of cells to a Lanterna terminal screen.
+ * Uses a {@link StateRenderer} to convert cell states into {@link com.googlecode.lanterna.TextCharacter} objects for display.
+ * When a {@link Viewport} is set, only the window it describes is drawn, so the cost of a frame is proportional to
+ * the number of screen characters rather than the number of cells; zoomed-out levels are drawn from a
+ * {@link DensityPyramid} kept current with the grid.
+ * <p>
+ * A renderer is not thread-safe: callers that render, change the viewport or the state renderer, or report changes
+ * from several threads must serialize those calls, as the viewer does with a single render lock.
+ *
+ * @param <C> the type of cells in the grid, extending {@link Cell}
+ * @param <S> the type of cell states, extending {@link CellState}
+ */
+public class GridRenderer<C extends Cell<S>, S extends CellState<?>> implements Consumer<Grid<C, S>> {
+    /**
+     * Logger for recording rendering events and errors.
+     */
+    private static final Logger LOGGER = LoggerFactory.getLogger(GridRenderer.class);
+
+    /**
+     * The Lanterna screen used for rendering the grid.
+     */
+    protected Screen screen;
+
+    /**
+     * The text graphics context for drawing characters on the screen.
+     */
+    protected TextGraphics textGraphics;
+
+    /**
+     * The renderer for converting cell states to display characters.
+     */
+    protected StateRenderer<S> stateRenderer;
+
+    /**
+     * The window of the grid to render, or null to render the whole grid one cell per character.
+     */
+    protected Viewport viewport;
+
+    /**
+     * The live-cell count pyramid used for zoomed-out levels, created on first use.
+     */
+    private DensityPyramid pyramid;
+
+    /**
+     * The grid the pyramid was last brought up to date with, so that a replaced grid is rescanned in full.
+     */
+    private Grid<C, S> pyramidGrid;
+
+    /**
+     * Constructs a new grid consumer with the specified screen and state renderer.
+     *
+     * @param screen        the {@link Screen} to render the grid on
+     * @param stateRenderer the {@link StateRenderer} to convert cell states to display characters
+     */
+    public GridRenderer(Screen screen, StateRenderer<S> stateRenderer) {
+        this(screen, stateRenderer, null);
+    }
+
+    /**
+     * Constructs a new grid consumer with the specified screen, state renderer, and viewport.
+     *
+     * @param screen        the {@link Screen} to render the grid on
+     * @param stateRenderer the {@link StateRenderer} to convert cell states to display characters
+     * @param viewport      the {@link Viewport} selecting the window to render, or null to render the whole grid
+     */
+    public GridRenderer(Screen screen, StateRenderer<S> stateRenderer, Viewport viewport) {
+        this.screen = screen;
+        this.stateRenderer = stateRenderer;
+        this.viewport = viewport;
+        this.textGraphics = screen.newTextGraphics();
+    }
+
+    /**
+     * Renders the specified grid to the Lanterna screen.
+     * Clears the screen, draws each cell's state using the state renderer, and refreshes the display.
+     *
+     * @param grid the {@link Grid} to render
+     * @throws IllegalStateException if the screen is not initialized
+     * @throws RuntimeException      if an I/O error occurs during rendering
+     */
+    @Override
+    public void accept(Grid<C, S> grid) {
+        try {
+            if (viewport == null) {
+                for (int y = 0; y < grid.getHeight(); y++) {
+                    for (int x = 0; x < grid.getWidth(); x++) {
+                        C cell = grid.getCell(x, y);
+                        textGraphics.setCharacter(x, y, stateRenderer.render(cell.getState()));
+                    }
+                }
+            } else {
+                prepareViewport(grid);
+                for (int row = 0; row < viewport.getRows(); row++) {
+                    for (int column = 0; column < viewport.getColumns(); column++) {
+                        textGraphics.setCharacter(column, row, characterAt(grid, column, row));
+                    }
+                }
+            }
+            screen.refresh(Screen.RefreshType.DELTA);
+        } catch (IOException e) {
+            LOGGER.error("Failed to render grid: {}", e.getMessage(), e);
+            throw new RuntimeException(String.format("Failed to render grid: %s", e.getMessage()), e);
+        }
+    }
+
+    /**
+     * Prepares a frame of the viewport. When zoomed out, brings the density pyramid up to date with the grid,
+     * creating it on first use or when the grid size changes. The pyramid is not maintained when the state renderer
+     * does not support densities, since blocks are then drawn from their first cell.
+     *
+     * @param grid the {@link Grid} about to be rendered
+     */
+    protected void prepareViewport(Grid<C, S> grid) {
+        int level = viewport.getLevel();
+        if (level <= 0 || stateRenderer.renderDensity(0) == null) {
+            return;
+        }
+        if (pyramid == null || pyramid.getLevels() < level
+                || pyramid.getLevelWidth(0) != grid.getWidth() || pyramid.getLevelHeight(0) != grid.getHeight()) {
+            pyramid = new DensityPyramid(grid.getWidth(), grid.getHeight(), viewport.getMaxLevel());
+        } else if (grid != pyramidGrid) {
+            pyramid.invalidate();
+        }
+        pyramidGrid = grid;
+        pyramid.update(grid);
+    }
+
+    /**
+     * Receives the change set of a generation, so that the density pyramid only rereads the changed cells. Meant to
+     * be registered as a change listener of the automaton being rendered; the change set is only read during the
+     * call. Once change sets are received, edits to the grid made outside the step loop must be reported with
+     * {@link #gridChanged()}.
+     *
+     * @param changes the {@link ChangeSet} of a generation
+     */
+    public void changed(ChangeSet changes) {
+        if (pyramid != null && changes.getWidth() == pyramid.getLevelWidth(0)
+                && changes.getHeight() == pyramid.getLevelHeight(0)) {
+            pyramid.markChanged(changes);
+        }
+    }
+
+    /**
+     * Reports that the grid was edited or replaced outside the step loop, so that the next frame rereads every cell.
+     */
+    public void gridChanged() {
+        if (pyramid != null) {
+            pyramid.invalidate();
+        }
+    }
+
+    /**
+     * Returns the character to draw at the given viewport position. When zoomed out, the character summarizes one
+     * pyramid block, falling back to the state of the block's first cell when the state renderer does not support
+     * densities. Must be called after {@link #prepareViewport(Grid)} for the current frame.
+     *
+     * @param grid   the {@link Grid} being rendered
+     * @param column the viewport column
+     * @param row    the viewport row
+     * @return the {@link TextCharacter} to draw
+     */
+    protected TextCharacter characterAt(Grid<C, S> grid, int column, int row) {
+        int x = viewport.toGridX(column);
+        int y = viewport.toGridY(row);
+        int level = viewport.getLevel();
+        if (level > 0 && pyramid != null) {
+            int bx = x >> level;
+            int by = y >> level;
+            double density = (double) pyramid.getCount(level, bx, by) / pyramid.getArea(level, bx, by);
+            TextCharacter character = stateRenderer.renderDensity(density);
+            if (character != null) {
+                return character;
+            }
+        }
+        return stateRenderer.render(grid.getCell(x, y).getState());
+    }
+
+    /**
+     * Returns the viewport selecting the window of the grid to render.
+     *
+     * @return the {@link Viewport}, or null if the whole grid is rendered
+     */
+    public Viewport getViewport() {
+        return viewport;
+    }
+
+    /**
+     * Returns the state renderer responsible for provisioning the rendered character.
+     *
+     * @return the State renderer.
+     */
+    public StateRenderer<S> getStateRenderer() {
+        return stateRenderer;
+    }
+
+}
\ No newline at end of file
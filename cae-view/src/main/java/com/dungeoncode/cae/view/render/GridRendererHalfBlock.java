@@ -0,0 +1,337 @@
+package com.dungeoncode.cae.view.render;
+
+import com.dungeoncode.cae.core.Cell;
+import com.dungeoncode.cae.core.CellState;
+import com.dungeoncode.cae.core.Grid;
+import com.googlecode.lanterna.TextCharacter;
+import com.googlecode.lanterna.screen.Screen;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.annotation.Nonnull;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Renders a {@link Grid} to a text terminal (for example over SSH) as ANSI truecolor escape sequences, packing two
+ * vertically adjacent cells into one character with the upper half block glyph: the foreground color paints the upper
+ * cell and the background color the lower cell. This doubles the vertical resolution of the terminal.
+ * <p>
+ * The renderer writes straight to the terminal output instead of going through the Lanterna screen buffer, and keeps
+ * the colors of the previous frame so that only changed spans of each row are sent. Within a span, color escape
+ * sequences are only emitted when the foreground or background changes, so runs of equal colors cost one byte-triple
+ * per character. Short unchanged gaps between changed spans are rewritten rather than paying for a cursor move.
+ * <p>
+ * The {@link Viewport} passed to this renderer must have twice as many rows as the terminal.
+ *
+ * @param <C> the type of cells in the grid, extending {@link Cell}
+ * @param <S> the type of cell states, extending {@link CellState}
+ */
+public class GridRendererHalfBlock<C extends Cell<S>, S extends CellState<?>> extends GridRenderer<C, S> {
+
+    /**
+     * Logger for recording rendering events and errors.
+     */
+    private static final Logger LOGGER = LoggerFactory.getLogger(GridRendererHalfBlock.class);
+
+    /**
+     * The UTF-8 encoding of the upper half block glyph (U+2580).
+     */
+    private static final byte[] UPPER_HALF_BLOCK = "▀".getBytes(StandardCharsets.UTF_8);
+
+    /**
+     * The escape sequence resetting all character attributes.
+     */
+    private static final byte[] RESET = "\u001b[0m".getBytes(StandardCharsets.US_ASCII);
+
+    /**
+     * The longest run of unchanged characters that is rewritten instead of moving the cursor past it.
+     */
+    private static final int MAX_REWRITE_GAP = 3;
+
+    /**
+     * Marker for a color that has not been drawn yet; never equal to a packed 24-bit RGB value.
+     */
+    private static final int UNKNOWN = -1;
+
+    /**
+     * The stream connected to the terminal.
+     */
+    private final OutputStream out;
+
+    /**
+     * Cache of packed 24-bit RGB values per rendered character.
+     */
+    private final Map<TextCharacter, Integer> rgbCache = new HashMap<>();
+
+    /**
+     * The number of terminal columns.
+     */
+    private final int columns;
+
+    /**
+     * The number of terminal rows (half the number of viewport rows).
+     */
+    private final int rows;
+
+    /**
+     * The colors of the current frame, indexed as [row * columns + column], upper cells.
+     */
+    private int[] upper;
+
+    /**
+     * The colors of the current frame, lower cells.
+     */
+    private int[] lower;
+
+    /**
+     * The colors of the previous frame, upper cells.
+     */
+    private int[] previousUpper;
+
+    /**
+     * The colors of the previous frame, lower cells.
+     */
+    private int[] previousLower;
+
+    /**
+     * Reusable output buffer for one frame.
+     */
+    private byte[] buffer = new byte[64 * 1024];
+
+    /**
+     * The number of bytes used in {@link #buffer}.
+     */
+    private int length;
+
+    /**
+     * The total number of bytes written to the terminal, for diagnostics.
+     */
+    private long bytesWritten;
+
+    /**
+     * Constructs a new half-block renderer.
+     *
+     * @param screen        the {@link Screen} owning the terminal, used by the base renderer for overlays
+     * @param stateRenderer the {@link StateRenderer} providing the color of each cell
+     * @param viewport      the {@link Viewport} to render, with twice as many rows as the terminal, must not be null
+     * @param out           the stream connected to the terminal, must not be null
+     * @throws NullPointerException if viewport or out is null
+     */
+    public GridRendererHalfBlock(Screen screen, StateRenderer<S> stateRenderer, @Nonnull Viewport viewport,
+                                 @Nonnull OutputStream out) {
+        super(screen, stateRenderer, Objects.requireNonNull(viewport, "Viewport cannot be null"));
+        this.out = Objects.requireNonNull(out, "Output stream cannot be null");
+        this.columns = viewport.getColumns();
+        this.rows = (viewport.getRows() + 1) / 2;
+        this.upper = new int[columns * rows];
+        this.lower = new int[columns * rows];
+        this.previousUpper = new int[columns * rows];
+        this.previousLower = new int[columns * rows];
+        invalidate();
+    }
+
+    /**
+     * Forgets the previous frame so that the next call to {@link #accept(Grid)} repaints the whole terminal, for
+     * example after something else has drawn over it.
+     */
+    public void invalidate() {
+        Arrays.fill(previousUpper, UNKNOWN);
+        Arrays.fill(previousLower, UNKNOWN);
+    }
+
+    /**
+     * Renders the specified grid, sending only the spans of each terminal row whose colors changed since the
+     * previous frame.
+     *
+     * @param grid the {@link Grid} to render
+     * @throws RuntimeException if an I/O error occurs while writing to the terminal
+     */
+    @Override
+    public void accept(Grid<C, S> grid) {
+        prepareViewport(grid);
+        int viewportRows = viewport.getRows();
+        for (int row = 0; row < rows; row++) {
+            int base = row * columns;
+            for (int column = 0; column < columns; column++) {
+                upper[base + column] = rgbOf(characterAt(grid, column, 2 * row));
+                lower[base + column] = 2 * row + 1 < viewportRows ? rgbOf(characterAt(grid, column, 2 * row + 1)) : 0;
+            }
+        }
+
+        length = 0;
+        int foreground = UNKNOWN;
+        int background = UNKNOWN;
+        for (int row = 0; row < rows; row++) {
+            int base = row * columns;
+            int column = 0;
+            while (column < columns) {
+                if (!changed(base + column)) {
+                    column++;
+                    continue;
+                }
+                // Extend the span over changed characters and short unchanged gaps
+                int end = column + 1;
+                int lastChanged = column;
+                while (end < columns && end - lastChanged <= MAX_REWRITE_GAP) {
+                    if (changed(base + end)) {
+                        lastChanged = end;
+                    }
+                    end++;
+                }
+                appendCursor(row, column);
+                for (int i = column; i <= lastChanged; i++) {
+                    int index = base + i;
+                    if (upper[index] != foreground) {
+                        foreground = upper[index];
+                        appendColor(38, foreground);
+                    }
+                    if (lower[index] != background) {
+                        background = lower[index];
+                        appendColor(48, background);
+                    }
+                    append(UPPER_HALF_BLOCK);
+                }
+                column = lastChanged + 1;
+            }
+        }
+
+        int[] swap = previousUpper;
+        previousUpper = upper;
+        upper = swap;
+        swap = previousLower;
+        previousLower = lower;
+        lower = swap;
+
+        if (length == 0) {
+            return;
+        }
+        append(RESET);
+        try {
+            out.write(buffer, 0, length);
+            out.flush();
+            bytesWritten += length;
+        } catch (IOException e) {
+            LOGGER.error("Failed to render grid: {}", e.getMessage(), e);
+            throw new RuntimeException(String.format("Failed to render grid: %s", e.getMessage()), e);
+        }
+    }
+
+    /**
+     * Returns whether the character at the given index differs from the previous frame.
+     *
+     * @param index the index into the color arrays
+     * @return true if either half changed
+     */
+    private boolean changed(int index) {
+        return upper[index] != previousUpper[index] || lower[index] != previousLower[index];
+    }
+
+    /**
+     * Returns the packed 24-bit RGB color painted by a rendered character, cached per character.
+     *
+     * @param character the rendered character
+     * @return the packed RGB value
+     */
+    private int rgbOf(TextCharacter character) {
+        Integer rgb = rgbCache.get(character);
+        if (rgb == null) {
+            rgb = CellCharacter.rgbOf(character);
+            rgbCache.put(character, rgb);
+        }
+        return rgb;
+    }
+
+    /**
+     * Appends a cursor positioning sequence (one-based row and column).
+     *
+     * @param row    the zero-based terminal row
+     * @param column the zero-based terminal column
+     */
+    private void appendCursor(int row, int column) {
+        appendAscii("\u001b[");
+        appendInt(row + 1);
+        appendAscii(";");
+        appendInt(column + 1);
+        appendAscii("H");
+    }
+
+    /**
+     * Appends a truecolor selection sequence.
+     *
+     * @param selector 38 for the foreground color, 48 for the background color
+     * @param rgb      the packed RGB value
+     */
+    private void appendColor(int selector, int rgb) {
+        appendAscii("\u001b[");
+        appendInt(selector);
+        appendAscii(";2;");
+        appendInt((rgb >> 16) & 0xFF);
+        appendAscii(";");
+        appendInt((rgb >> 8) & 0xFF);
+        appendAscii(";");
+        appendInt(rgb & 0xFF);
+        appendAscii("m");
+    }
+
+    /**
+     * Appends the decimal digits of a non-negative integer.
+     *
+     * @param value the value to append
+     */
+    private void appendInt(int value) {
+        if (value >= 10) {
+            appendInt(value / 10);
+        }
+        ensureCapacity(1);
+        buffer[length++] = (byte) ('0' + value % 10);
+    }
+
+    /**
+     * Appends an ASCII string.
+     *
+     * @param text the text to append
+     */
+    private void appendAscii(String text) {
+        ensureCapacity(text.length());
+        for (int i = 0; i < text.length(); i++) {
+            buffer[length++] = (byte) text.charAt(i);
+        }
+    }
+
+    /**
+     * Appends raw bytes.
+     *
+     * @param bytes the bytes to append
+     */
+    private void append(byte[] bytes) {
+        ensureCapacity(bytes.length);
+        System.arraycopy(bytes, 0, buffer, length, bytes.length);
+        length += bytes.length;
+    }
+
+    /**
+     * Grows the output buffer if needed.
+     *
+     * @param extra the number of bytes about to be appended
+     */
+    private void ensureCapacity(int extra) {
+        if (length + extra > buffer.length) {
+            buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, length + extra));
+        }
+    }
+
+    /**
+     * Returns the total number of bytes written to the terminal since this renderer was created.
+     *
+     * @return the number of bytes written
+     */
+    public long getBytesWritten() {
+        return bytesWritten;
+    }
+}
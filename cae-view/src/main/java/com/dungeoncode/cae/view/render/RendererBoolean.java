@@ -111,6 +111,38 @@ public class RendererBoolean implements StateRenderer<BooleanState> {
         return CellCharacter.fromColor(color);
     }
 
+    /**
+     * Renders a block of cells as a Lanterna {@link TextCharacter} by mapping its live-cell density onto the live sum
+     * gradient of the selected palette: empty blocks use the long-inactive color, and non-empty blocks use the live
+     * sum 1–9 colors in proportion to their density. Colors may be inverted if enabled.
+     *
+     * @param density the fraction of live cells in the block, between 0.0 and 1.0
+     * @return the rendered {@link TextCharacter}
+     */
+    @Override
+    public TextCharacter renderDensity(double density) {
+        TextColor color;
+        if (density <= 0.0) {
+            color = palette.inactiveNoEcho;
+        } else {
+            color = switch (1 + (int) Math.round(Math.min(density, 1.0) * 8)) {
+                case 1 -> palette.liveSum1;
+                case 2 -> palette.liveSum2;
+                case 3 -> palette.liveSum3;
+                case 4 -> palette.liveSum4;
+                case 5 -> palette.liveSum5;
+                case 6 -> palette.liveSum6;
+                case 7 -> palette.liveSum7;
+                case 8 -> palette.liveSum8;
+                default -> palette.liveSum9;
+            };
+        }
+        if (inverted) {
+            color = invertColor(color);
+        }
+        return CellCharacter.fromColor(color);
+    }
+
     /**
      * Inverts the specified {@link TextColor}, swapping light and dark ANSI colors or retrieving/caching inverted
      * RGB components (255 - value) for custom colors.
@@ -0,0 +1,105 @@
+package com.dungeoncode.cae.view.render;
+
+import com.dungeoncode.cae.core.impl.continuous.FloatState;
+import com.googlecode.lanterna.TextCharacter;
+import com.googlecode.lanterna.TextColor;
+
+import javax.annotation.Nonnull;
+import java.util.Objects;
+
+/**
+ * Renders a {@link FloatState} as a continuous color: values between a minimum and a maximum are mapped onto a
+ * gradient through color stops. The gradient is sampled once into {@value #LEVELS} characters, so rendering is a
+ * scale and a single array lookup; values outside the range render in the color of the nearest end.
+ *
+ * @see StateRenderer
+ * @see FloatState
+ */
+public class RendererFloat implements StateRenderer<FloatState> {
+
+    /**
+     * The number of sampled gradient levels.
+     */
+    public static final int LEVELS = 256;
+
+    /**
+     * The character of every level.
+     */
+    private final TextCharacter[] characters;
+
+    /**
+     * The value of the first level.
+     */
+    private final float min;
+
+    /**
+     * The number of levels per unit of value.
+     */
+    private final float scale;
+
+    /**
+     * Constructs a renderer for values in [0, 1] with a default gradient from black through deep blue, teal, and
+     * yellow to white.
+     */
+    public RendererFloat() {
+        this(0f, 1f, new int[]{0x000000, 0x1F2F8F, 0x1F9F9F, 0xFFDF3F, 0xFFFFFF});
+    }
+
+    /**
+     * Constructs a renderer.
+     *
+     * @param min   the value rendered in the first stop color
+     * @param max   the value rendered in the last stop color, must be greater than min
+     * @param stops the gradient color stops as packed 24-bit RGB, evenly spaced from min to max, at least 2, must not
+     *              be null
+     * @throws NullPointerException     if stops is null
+     * @throws IllegalArgumentException if the range is empty or there are fewer than 2 stops
+     */
+    public RendererFloat(float min, float max, @Nonnull int[] stops) {
+        Objects.requireNonNull(stops, "Stops cannot be null");
+        if (!(max > min)) {
+            throw new IllegalArgumentException("Max must be greater than min: min=" + min + ", max=" + max);
+        }
+        if (stops.length < 2) {
+            throw new IllegalArgumentException("At least 2 color stops are required: " + stops.length);
+        }
+        this.min = min;
+        this.scale = (LEVELS - 1) / (max - min);
+        this.characters = new TextCharacter[LEVELS];
+        for (int level = 0; level < LEVELS; level++) {
+            float position = (float) level / (LEVELS - 1) * (stops.length - 1);
+            int stop = Math.min((int) position, stops.length - 2);
+            float t = position - stop;
+            int from = stops[stop];
+            int to = stops[stop + 1];
+            characters[level] = CellCharacter.fromColor(new TextColor.RGB(mix(from >>> 16, to >>> 16, t),
+                    mix(from >>> 8, to >>> 8, t), mix(from, to, t)));
+        }
+    }
+
+    /**
+     * Interpolates one color channel.
+     *
+     * @param from the packed value holding the start channel in its low byte
+     * @param to   the packed value holding the end channel in its low byte
+     * @param t    the position between them, from 0 to 1
+     * @return the interpolated channel
+     */
+    private static int mix(int from, int to, float t) {
+        int a = from & 0xFF;
+        int b = to & 0xFF;
+        return Math.round(a + (b - a) * t);
+    }
+
+    /**
+     * Renders a state as the reverse-style space character of its gradient color.
+     *
+     * @param state the state to render
+     * @return the rendered {@link TextCharacter}
+     */
+    @Override
+    public TextCharacter render(FloatState state) {
+        float level = (state.floatValue() - min) * scale;
+        return characters[level <= 0 ? 0 : level >= LEVELS - 1 ? LEVELS - 1 : (int) level];
+    }
+}
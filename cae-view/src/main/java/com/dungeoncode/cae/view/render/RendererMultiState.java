@@ -0,0 +1,106 @@
+package com.dungeoncode.cae.view.render;
+
+import com.dungeoncode.cae.core.impl.multi.MultiState;
+import com.googlecode.lanterna.TextCharacter;
+import com.googlecode.lanterna.TextColor;
+
+import javax.annotation.Nonnull;
+import java.awt.Color;
+import java.util.Objects;
+
+/**
+ * Renders a {@link MultiState} through a palette with one color per state. The characters of every state are built
+ * once, so rendering is a single array lookup.
+ *
+ * @see StateRenderer
+ * @see MultiState
+ */
+public class RendererMultiState implements StateRenderer<MultiState> {
+
+    /**
+     * The character of every state.
+     */
+    private final TextCharacter[] characters;
+
+    /**
+     * Constructs a renderer with a default palette: state 0 is black and the other states are spread evenly around
+     * the color wheel.
+     *
+     * @param states the number of states, between 2 and {@link MultiState#MAX_STATES}
+     * @throws IllegalArgumentException if the state count is out of range
+     */
+    public RendererMultiState(int states) {
+        this(defaultPalette(states));
+    }
+
+    /**
+     * Constructs a renderer with the given palette.
+     *
+     * @param palette the color of each state as packed 24-bit RGB, between 1 and {@link MultiState#MAX_STATES}
+     *                entries, must not be null; states beyond the palette render in its last color
+     * @throws NullPointerException     if palette is null
+     * @throws IllegalArgumentException if the palette is empty or too large
+     */
+    public RendererMultiState(@Nonnull int[] palette) {
+        Objects.requireNonNull(palette, "Palette cannot be null");
+        if (palette.length == 0 || palette.length > MultiState.MAX_STATES) {
+            throw new IllegalArgumentException("Palette must have between 1 and " + MultiState.MAX_STATES
+                    + " colors: " + palette.length);
+        }
+        this.characters = new TextCharacter[MultiState.MAX_STATES];
+        for (int i = 0; i < characters.length; i++) {
+            int rgb = palette[Math.min(i, palette.length - 1)];
+            characters[i] = CellCharacter.fromColor(new TextColor.RGB(rgb >>> 16 & 0xFF, rgb >>> 8 & 0xFF,
+                    rgb & 0xFF));
+        }
+    }
+
+    /**
+     * Creates a renderer with the customary Wireworld colors: black empty cells, blue heads, red tails, and yellow
+     * conductors.
+     *
+     * @return the renderer
+     */
+    public static RendererMultiState wireworld() {
+        return new RendererMultiState(new int[]{0x000000, 0x3F7FFF, 0xFF3F1F, 0xFFBF00});
+    }
+
+    /**
+     * Creates a renderer with the customary Brian's Brain colors: black ready cells, white firing cells, and blue
+     * refractory cells.
+     *
+     * @return the renderer
+     */
+    public static RendererMultiState briansBrain() {
+        return new RendererMultiState(new int[]{0x000000, 0xFFFFFF, 0x3F5FBF});
+    }
+
+    /**
+     * Returns the default palette for a number of states: black, then evenly spaced hues.
+     *
+     * @param states the number of states
+     * @return the palette
+     * @throws IllegalArgumentException if the state count is out of range
+     */
+    private static int[] defaultPalette(int states) {
+        if (states < 2 || states > MultiState.MAX_STATES) {
+            throw new IllegalArgumentException("States must be between 2 and " + MultiState.MAX_STATES + ": " + states);
+        }
+        int[] palette = new int[states];
+        for (int i = 1; i < states; i++) {
+            palette[i] = Color.HSBtoRGB((float) (i - 1) / (states - 1), 0.8f, 1.0f) & 0xFFFFFF;
+        }
+        return palette;
+    }
+
+    /**
+     * Renders a state as the reverse-style space character of its palette color.
+     *
+     * @param state the state to render
+     * @return the rendered {@link TextCharacter}
+     */
+    @Override
+    public TextCharacter render(MultiState state) {
+        return characters[state.intValue()];
+    }
+}
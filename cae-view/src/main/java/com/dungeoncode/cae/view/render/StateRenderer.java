@@ -18,4 +18,15 @@ public interface StateRenderer<S extends CellState<?>> {
      * @return the {@link TextCharacter} representing the state
      */
     TextCharacter render(S state);
+
+    /**
+     * Renders a block of cells, summarized by the fraction of live cells it contains, as a single
+     * {@link TextCharacter}. Used when a zoomed-out view shows several cells per character.
+     *
+     * @param density the fraction of live cells in the block, between 0.0 and 1.0
+     * @return the {@link TextCharacter} representing the block, or null if this renderer does not support densities
+     */
+    default TextCharacter renderDensity(double density) {
+        return null;
+    }
 }
\ No newline at end of file
@@ -0,0 +1,308 @@
+package com.dungeoncode.cae.view.render;
+
+/**
+ * Maps a rectangular window of terminal characters onto a toroidal grid of cells, decoupling the grid size from the
+ * display size. The viewport keeps an origin (the grid cell shown at the top-left character) and a zoom level:
+ * <ul>
+ *   <li>Level 0: one cell per character.</li>
+ *   <li>Level k &gt; 0 (zoomed out): each character covers a block of 2<sup>k</sup> x 2<sup>k</sup> cells, rendered
+ *   from level k of a {@link DensityPyramid}.</li>
+ *   <li>Level k &lt; 0 (zoomed in): each cell covers 2<sup>-k</sup> x 2<sup>-k</sup> characters.</li>
+ * </ul>
+ * When zoomed out, the origin is kept aligned to the block size of the current level, so each character maps to
+ * exactly one pyramid entry. A grid whose size is not a multiple of the block size ends in a partial block, clamped
+ * to the grid edge, and wrapping continues with the first block, so blocks stay aligned across the seam of the torus.
+ */
+public class Viewport {
+
+    /**
+     * The most zoomed-in level, where each cell spans 8 x 8 characters.
+     */
+    public static final int MIN_LEVEL = -3;
+
+    /**
+     * The number of columns (x-axis) of the grid.
+     */
+    private final int gridWidth;
+
+    /**
+     * The number of rows (y-axis) of the grid.
+     */
+    private final int gridHeight;
+
+    /**
+     * The number of terminal columns available for rendering.
+     */
+    private final int columns;
+
+    /**
+     * The number of terminal rows available for rendering.
+     */
+    private final int rows;
+
+    /**
+     * The most zoomed-out level, at which the whole grid fits in the window.
+     */
+    private final int maxLevel;
+
+    /**
+     * The grid column shown at the leftmost terminal column.
+     */
+    private int originX;
+
+    /**
+     * The grid row shown at the topmost terminal row.
+     */
+    private int originY;
+
+    /**
+     * The current zoom level (see class description).
+     */
+    private int level;
+
+    /**
+     * Constructs a viewport over a grid of the given size, rendered into a window of the given terminal size, at
+     * level 0 with the origin at the top-left cell of the grid.
+     *
+     * @param gridWidth  the number of columns of the grid, must be positive
+     * @param gridHeight the number of rows of the grid, must be positive
+     * @param columns    the number of terminal columns, must be positive
+     * @param rows       the number of terminal rows, must be positive
+     * @throws IllegalArgumentException if any dimension is not positive
+     */
+    public Viewport(int gridWidth, int gridHeight, int columns, int rows) {
+        if (gridWidth <= 0 || gridHeight <= 0 || columns <= 0 || rows <= 0) {
+            throw new IllegalArgumentException("Viewport dimensions must be positive: grid=" + gridWidth + "x"
+                    + gridHeight + ", window=" + columns + "x" + rows);
+        }
+        this.gridWidth = gridWidth;
+        this.gridHeight = gridHeight;
+        this.columns = columns;
+        this.rows = rows;
+        int fit = 0;
+        while ((columns << fit) < gridWidth || (rows << fit) < gridHeight) {
+            fit++;
+        }
+        this.maxLevel = fit;
+    }
+
+    /**
+     * Zooms out by one level (each character covers twice as many cells per axis), keeping the grid cell at the
+     * center of the window in place.
+     *
+     * @return true if the level changed, false if already fully zoomed out
+     */
+    public boolean zoomOut() {
+        return setLevel(level + 1);
+    }
+
+    /**
+     * Zooms in by one level (each character covers half as many cells per axis), keeping the grid cell at the center
+     * of the window in place.
+     *
+     * @return true if the level changed, false if already fully zoomed in
+     */
+    public boolean zoomIn() {
+        return setLevel(level - 1);
+    }
+
+    /**
+     * Sets the zoom level, clamped to [{@link #MIN_LEVEL}, {@link #getMaxLevel()}], keeping the grid cell at the
+     * center of the window in place.
+     *
+     * @param newLevel the requested zoom level
+     * @return true if the level changed, false otherwise
+     */
+    public boolean setLevel(int newLevel) {
+        newLevel = Math.max(MIN_LEVEL, Math.min(newLevel, maxLevel));
+        if (newLevel == level) {
+            return false;
+        }
+        int centerX = toGridX(columns / 2);
+        int centerY = toGridY(rows / 2);
+        level = newLevel;
+        originX = centerX - spanOf(columns / 2);
+        originY = centerY - spanOf(rows / 2);
+        normalizeOrigin();
+        return true;
+    }
+
+    /**
+     * Pans the viewport by the given number of terminal characters. Panning wraps around the grid edges.
+     *
+     * @param dColumns the number of characters to pan horizontally (positive moves right)
+     * @param dRows    the number of characters to pan vertically (positive moves down)
+     */
+    public void pan(int dColumns, int dRows) {
+        if (level > 0) {
+            originX = Math.floorMod((originX >> level) + dColumns, blocks(gridWidth)) << level;
+            originY = Math.floorMod((originY >> level) + dRows, blocks(gridHeight)) << level;
+            return;
+        }
+        originX += spanOf(dColumns);
+        originY += spanOf(dRows);
+        normalizeOrigin();
+    }
+
+    /**
+     * Resets the viewport to level 0 with the origin at the top-left cell of the grid.
+     */
+    public void reset() {
+        level = 0;
+        originX = 0;
+        originY = 0;
+    }
+
+    /**
+     * Converts a terminal column to the grid column displayed there, wrapping around the grid edges. When zoomed out,
+     * this is the first column of the block shown at that character.
+     *
+     * @param column the terminal column
+     * @return the grid column
+     */
+    public int toGridX(int column) {
+        if (level > 0) {
+            return Math.floorMod((originX >> level) + column, blocks(gridWidth)) << level;
+        }
+        return Math.floorMod(originX + spanOf(column), gridWidth);
+    }
+
+    /**
+     * Converts a terminal row to the grid row displayed there, wrapping around the grid edges. When zoomed out, this
+     * is the first row of the block shown at that character.
+     *
+     * @param row the terminal row
+     * @return the grid row
+     */
+    public int toGridY(int row) {
+        if (level > 0) {
+            return Math.floorMod((originY >> level) + row, blocks(gridHeight)) << level;
+        }
+        return Math.floorMod(originY + spanOf(row), gridHeight);
+    }
+
+    /**
+     * Returns the number of blocks of the current level along an axis, counting a partial last block.
+     *
+     * @param cells the number of cells along the axis
+     * @return the number of blocks
+     */
+    private int blocks(int cells) {
+        return ((cells - 1) >> level) + 1;
+    }
+
+    /**
+     * Returns the number of cells spanned by the given number of characters at the current level. When zoomed in,
+     * the result is rounded towards negative infinity.
+     *
+     * @param characters the number of characters
+     * @return the number of cells
+     */
+    private int spanOf(int characters) {
+        return level >= 0 ? characters << level : Math.floorDiv(characters, 1 << -level);
+    }
+
+    /**
+     * Wraps the origin into the grid and, when zoomed out, aligns it to the block size of the current level, wrapping
+     * over whole blocks so that a partial last block is followed by the first one.
+     */
+    private void normalizeOrigin() {
+        if (level > 0) {
+            originX = Math.floorMod(originX >> level, blocks(gridWidth)) << level;
+            originY = Math.floorMod(originY >> level, blocks(gridHeight)) << level;
+            return;
+        }
+        originX = Math.floorMod(originX, gridWidth);
+        originY = Math.floorMod(originY, gridHeight);
+    }
+
+    /**
+     * Returns the number of characters per cell along each axis (1 unless zoomed in).
+     *
+     * @return the number of characters spanned by one cell
+     */
+    public int getCharactersPerCell() {
+        return level < 0 ? 1 << -level : 1;
+    }
+
+    /**
+     * Returns the number of cells per character along each axis (1 unless zoomed out).
+     *
+     * @return the number of cells covered by one character
+     */
+    public int getCellsPerCharacter() {
+        return level > 0 ? 1 << level : 1;
+    }
+
+    /**
+     * Returns the current zoom level.
+     *
+     * @return the zoom level
+     */
+    public int getLevel() {
+        return level;
+    }
+
+    /**
+     * Returns the most zoomed-out level, at which the whole grid fits in the window.
+     *
+     * @return the maximum zoom level
+     */
+    public int getMaxLevel() {
+        return maxLevel;
+    }
+
+    /**
+     * Returns the grid column shown at the leftmost terminal column.
+     *
+     * @return the origin column
+     */
+    public int getOriginX() {
+        return originX;
+    }
+
+    /**
+     * Returns the grid row shown at the topmost terminal row.
+     *
+     * @return the origin row
+     */
+    public int getOriginY() {
+        return originY;
+    }
+
+    /**
+     * Returns the number of columns of the grid.
+     *
+     * @return the grid width
+     */
+    public int getGridWidth() {
+        return gridWidth;
+    }
+
+    /**
+     * Returns the number of rows of the grid.
+     *
+     * @return the grid height
+     */
+    public int getGridHeight() {
+        return gridHeight;
+    }
+
+    /**
+     * Returns the number of terminal columns of the window.
+     *
+     * @return the window width in characters
+     */
+    public int getColumns() {
+        return columns;
+    }
+
+    /**
+     * Returns the number of terminal rows of the window.
+     *
+     * @return the window height in characters
+     */
+    public int getRows() {
+        return rows;
+    }
+}
@@ -0,0 +1,104 @@
+import com.dungeoncode.cae.automa.ConfGameOfLife;
+import com.dungeoncode.cae.core.Automaton;
+import com.dungeoncode.cae.core.Grid;
+import com.dungeoncode.cae.core.impl.BooleanCell;
+import com.dungeoncode.cae.core.impl.BooleanState;
+import com.dungeoncode.cae.core.impl.packed.PackedBooleanGrid;
+import com.dungeoncode.cae.view.render.DensityPyramid;
+import com.dungeoncode.cae.view.render.Viewport;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class DensityPyramidTest {
+
+    @Test
+    void testBlocksAreClampedToOddGridEdges() {
+        for (boolean packed : new boolean[]{false, true}) {
+            Automaton<BooleanCell, BooleanState> automaton = newAutomaton(101, 37, packed);
+            Grid<BooleanCell, BooleanState> grid = automaton.getGrid();
+            DensityPyramid pyramid = new DensityPyramid(101, 37, 4);
+            automaton.setChangeTracking(s -> s.getValue() ? 1 : 0);
+            automaton.addChangeListener(pyramid::markChanged);
+            pyramid.update(grid);
+            for (int generation = 0; generation < 5; generation++) {
+                for (int level = 1; level <= pyramid.getLevels(); level++) {
+                    int size = 1 << level;
+                    assertEquals((101 + size - 1) / size, pyramid.getLevelWidth(level));
+                    assertEquals((37 + size - 1) / size, pyramid.getLevelHeight(level));
+                    long population = 0;
+                    long area = 0;
+                    for (int by = 0; by < pyramid.getLevelHeight(level); by++) {
+                        for (int bx = 0; bx < pyramid.getLevelWidth(level); bx++) {
+                            String block = (packed ? "packed" : "heap") + ", generation " + generation + ", level "
+                                    + level + ", block " + bx + "," + by;
+                            assertEquals(count(grid, bx * size, by * size, size), pyramid.getCount(level, bx, by),
+                                    block);
+                            assertEquals(Math.min(size, 101 - bx * size) * Math.min(size, 37 - by * size),
+                                    pyramid.getArea(level, bx, by), block);
+                            population += pyramid.getCount(level, bx, by);
+                            area += pyramid.getArea(level, bx, by);
+                        }
+                    }
+                    assertEquals(count(grid, 0, 0, Math.max(101, 37)), population);
+                    assertEquals(101 * 37, area);
+                }
+                automaton.step();
+                pyramid.update(grid);
+            }
+        }
+    }
+
+    @Test
+    void testViewportCharactersMatchTheirBlocks() {
+        Automaton<BooleanCell, BooleanState> automaton = newAutomaton(99, 45, false);
+        Grid<BooleanCell, BooleanState> grid = automaton.getGrid();
+        Viewport viewport = new Viewport(99, 45, 16, 8);
+        DensityPyramid pyramid = new DensityPyramid(99, 45, viewport.getMaxLevel());
+        pyramid.update(grid);
+        for (int level = 1; level <= viewport.getMaxLevel(); level++) {
+            viewport.setLevel(level);
+            int size = 1 << level;
+            for (int pan = 0; pan < 20; pan++) {
+                for (int row = 0; row < viewport.getRows(); row++) {
+                    for (int column = 0; column < viewport.getColumns(); column++) {
+                        int x = viewport.toGridX(column);
+                        int y = viewport.toGridY(row);
+                        int bx = x >> level;
+                        int by = y >> level;
+                        assertEquals(count(grid, x, y, size), pyramid.getCount(level, bx, by),
+                                "Level " + level + ", character " + column + "," + row);
+                        assertEquals(Math.min(size, 99 - x) * Math.min(size, 45 - y), pyramid.getArea(level, bx, by));
+                    }
+                }
+                viewport.pan(3, -2);
+            }
+        }
+    }
+
+    private static Automaton<BooleanCell, BooleanState> newAutomaton(int width, int height, boolean packed) {
+        ConfGameOfLife configuration = new ConfGameOfLife();
+        if (packed) {
+            configuration.setGridFactory(PackedBooleanGrid::new);
+        }
+        configuration.getGridInitializer().reseed(9L);
+        Automaton<BooleanCell, BooleanState> automaton = new Automaton<>();
+        configuration.configure(automaton, width, height, 10);
+        return automaton;
+    }
+
+    /**
+     * Counts the live cells of a block, clamped to the grid edges without wrapping.
+     */
+    private static long count(Grid<BooleanCell, BooleanState> grid, int x0, int y0, int size) {
+        long count = 0;
+        for (int y = y0; y < Math.min(y0 + size, grid.getHeight()); y++) {
+            for (int x = x0; x < Math.min(x0 + size, grid.getWidth()); x++) {
+                if (grid.getCell(x, y).getState().getValue()) {
+                    count++;
+                }
+            }
+        }
+        return count;
+    }
+}
@@ -0,0 +1,94 @@
+import com.dungeoncode.cae.view.render.Viewport;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ViewportTest {
+
+    @Test
+    void testZoomedOutBlocksStayAlignedOnOddGrids() {
+        for (int[] size : new int[][]{{100, 37}, {129, 65}, {7, 300}, {64, 64}}) {
+            Viewport viewport = new Viewport(size[0], size[1], 20, 10);
+            for (int level = 1; level <= viewport.getMaxLevel(); level++) {
+                viewport.setLevel(level);
+                int block = 1 << level;
+                int blocksX = (size[0] + block - 1) / block;
+                int blocksY = (size[1] + block - 1) / block;
+                for (int pan = 0; pan < blocksX + 3; pan++) {
+                    assertAligned(viewport, size, level, blocksX, blocksY);
+                    viewport.pan(1, 1);
+                }
+                for (int pan = 0; pan < 2 * blocksY + 5; pan++) {
+                    viewport.pan(-1, -1);
+                    assertAligned(viewport, size, level, blocksX, blocksY);
+                }
+            }
+        }
+    }
+
+    @Test
+    void testPanAcrossTheSeamVisitsEveryBlock() {
+        Viewport viewport = new Viewport(100, 37, 20, 10);
+        viewport.setLevel(3);
+        assertEquals(0, viewport.getOriginX() % 8);
+        Set<Integer> origins = new HashSet<>();
+        for (int pan = 0; pan < 13; pan++) {
+            origins.add(viewport.getOriginX());
+            viewport.pan(1, 0);
+        }
+        assertEquals(13, origins.size(), "Blocks 0 to 12, the last one holding columns 96 to 99");
+        assertTrue(origins.contains(96));
+
+        viewport.reset();
+        viewport.setLevel(3);
+        while (viewport.getOriginX() != 0) {
+            viewport.pan(1, 0);
+        }
+        viewport.pan(-1, 0);
+        assertEquals(96, viewport.getOriginX(), "Panning left from the first block reaches the partial last one");
+        viewport.pan(1, 0);
+        assertEquals(0, viewport.getOriginX());
+    }
+
+    @Test
+    void testZoomKeepsCenterCell() {
+        Viewport viewport = new Viewport(100, 37, 20, 10);
+        viewport.pan(47, 21);
+        int centerX = viewport.toGridX(10);
+        int centerY = viewport.toGridY(5);
+        viewport.setLevel(2);
+        assertEquals(centerX >> 2 << 2, viewport.toGridX(10));
+        assertEquals(centerY >> 2 << 2, viewport.toGridY(5));
+        viewport.setLevel(0);
+        assertEquals(centerX >> 2 << 2, viewport.toGridX(10));
+        assertEquals(centerY >> 2 << 2, viewport.toGridY(5));
+    }
+
+    /**
+     * Checks that every character shows the first cell of a block, and that neighboring characters show neighboring
+     * blocks, wrapping from the partial last block to the first.
+     */
+    private static void assertAligned(Viewport viewport, int[] size, int level, int blocksX, int blocksY) {
+        String context = size[0] + "x" + size[1] + " at level " + level + ", origin " + viewport.getOriginX() + ","
+                + viewport.getOriginY();
+        for (int column = 0; column < viewport.getColumns(); column++) {
+            int x = viewport.toGridX(column);
+            assertEquals(0, x % (1 << level), context + ", column " + column);
+            assertTrue(x < size[0], context + ", column " + column);
+            if (column > 0) {
+                assertEquals(((viewport.toGridX(column - 1) >> level) + 1) % blocksX, x >> level, context);
+            }
+        }
+        for (int row = 0; row < viewport.getRows(); row++) {
+            int y = viewport.toGridY(row);
+            assertEquals(0, y % (1 << level), context + ", row " + row);
+            assertTrue(y < size[1], context + ", row " + row);
+            if (row > 0) {
+                assertEquals(((viewport.toGridY(row - 1) >> level) + 1) % blocksY, y >> level, context);
+            }
+        }
+    }
+}